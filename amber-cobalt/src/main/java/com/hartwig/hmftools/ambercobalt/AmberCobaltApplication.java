@@ -0,0 +1,134 @@
+package com.hartwig.hmftools.ambercobalt;
+
+import static com.hartwig.hmftools.ambercobalt.AmberCobaltConstants.AC_LOGGER;
+import static com.hartwig.hmftools.ambercobalt.AmberCobaltConstants.APP_NAME;
+import static com.hartwig.hmftools.bamtools.common.CommonUtils.PARTITION_SIZE;
+import static com.hartwig.hmftools.cobalt.CobaltConstants.WINDOW_SIZE;
+import static com.hartwig.hmftools.common.utils.PerformanceCounter.runTimeMinsStr;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.amber.AmberApplication;
+import com.hartwig.hmftools.amber.AmberConfig;
+import com.hartwig.hmftools.bamtools.metrics.MetricsConfig;
+import com.hartwig.hmftools.bamtools.metrics.MetricsConsumer;
+import com.hartwig.hmftools.cobalt.CobaltApplication;
+import com.hartwig.hmftools.cobalt.CobaltConfig;
+import com.hartwig.hmftools.cobalt.CobaltConstants;
+import com.hartwig.hmftools.cobalt.count.ReadDepthCollector;
+import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
+
+import htsjdk.samtools.SamReaderFactory;
+
+public class AmberCobaltApplication
+{
+    // runs AMBER and COBALT from a single decode of each tumor and reference BAM or CRAM, optionally capturing BAM metrics too
+    private final ConfigBuilder mConfigBuilder;
+    private final AmberConfig mAmberConfig;
+    private final CobaltConfig mCobaltConfig;
+    private final boolean mWriteBamMetrics;
+
+    private static final String WRITE_BAM_METRICS = "write_bam_metrics";
+
+    public AmberCobaltApplication(final ConfigBuilder configBuilder)
+    {
+        mConfigBuilder = configBuilder;
+        mAmberConfig = new AmberConfig(configBuilder);
+        mCobaltConfig = new CobaltConfig(configBuilder);
+        mWriteBamMetrics = configBuilder.hasFlag(WRITE_BAM_METRICS);
+    }
+
+    public int run() throws IOException, InterruptedException
+    {
+        long startTimeMs = System.currentTimeMillis();
+
+        SamReaderFactory readerFactory = AmberApplication.readerFactory(mAmberConfig);
+
+        ReadDepthCollector depthCollector = new ReadDepthCollector(
+                WINDOW_SIZE, mCobaltConfig.MinMappingQuality,
+                ReadDepthCollector.loadChromosomes(readerFactory, mCobaltConfig.ReferenceBamPath, mCobaltConfig.TumorBamPath));
+
+        // metrics are gathered per partition so use their partition size, which makes no difference to AMBER and COBALT
+        int partitionSize = mWriteBamMetrics ? mConfigBuilder.getInteger(PARTITION_SIZE) : CobaltConstants.PARTITION_SIZE;
+
+        SharedBamPass bamPass = new SharedBamPass(mAmberConfig, mAmberConfig.Threads, depthCollector.partitionGenome(partitionSize));
+
+        if(mCobaltConfig.ReferenceBamPath != null)
+            bamPass.addConsumer(mCobaltConfig.ReferenceBamPath, depthCollector.referenceConsumer());
+
+        if(mCobaltConfig.TumorBamPath != null)
+            bamPass.addConsumer(mCobaltConfig.TumorBamPath, depthCollector.tumorConsumer());
+
+        List<MetricsConsumer> metricsConsumers = Lists.newArrayList();
+
+        if(mWriteBamMetrics)
+        {
+            if(mCobaltConfig.ReferenceBamPath != null
+            && !addMetricsConsumer(bamPass, metricsConsumers, mCobaltConfig.ReferenceId, mCobaltConfig.ReferenceBamPath))
+            {
+                return 1;
+            }
+
+            if(mCobaltConfig.TumorBamPath != null
+            && !addMetricsConsumer(bamPass, metricsConsumers, mCobaltConfig.TumorId, mCobaltConfig.TumorBamPath))
+            {
+                return 1;
+            }
+        }
+
+        AmberApplication amberApplication = new AmberApplication(mAmberConfig, bamPass);
+
+        if(amberApplication.run() != 0)
+            return 1;
+
+        bamPass.processRemainingBams(readerFactory);
+
+        CobaltApplication cobaltApplication = new CobaltApplication(mConfigBuilder);
+        cobaltApplication.run(depthCollector);
+
+        metricsConsumers.forEach(MetricsConsumer::writeResults);
+
+        AC_LOGGER.info("AmberCobalt complete, mins({})", runTimeMinsStr(startTimeMs));
+
+        return 0;
+    }
+
+    private boolean addMetricsConsumer(
+            final SharedBamPass bamPass, final List<MetricsConsumer> metricsConsumers, final String sampleId, final String bamFile)
+    {
+        MetricsConfig metricsConfig = new MetricsConfig(mConfigBuilder, sampleId, bamFile);
+
+        if(!metricsConfig.isValid())
+        {
+            AC_LOGGER.error("sample({}) invalid bam metrics config", sampleId);
+            return false;
+        }
+
+        MetricsConsumer metricsConsumer = new MetricsConsumer(metricsConfig);
+        bamPass.addConsumer(bamFile, metricsConsumer);
+        metricsConsumers.add(metricsConsumer);
+        return true;
+    }
+
+    public static void main(final String... args) throws IOException, InterruptedException
+    {
+        ConfigBuilder configBuilder = new ConfigBuilder(APP_NAME);
+
+        // the tools share their sample, BAM, reference genome and output options
+        configBuilder.disableWarnOnRepeatedRegos();
+        AmberConfig.registerConfig(configBuilder);
+        CobaltConfig.registerConfig(configBuilder);
+
+        configBuilder.addFlag(WRITE_BAM_METRICS, "Write BAM metrics for each BAM from the same pass");
+        MetricsConfig.addMetricsConfig(configBuilder);
+
+        configBuilder.checkAndParseCommandLine(args);
+
+        AmberCobaltApplication application = new AmberCobaltApplication(configBuilder);
+
+        if(application.run() != 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hartwig.hmftools.ambercobalt;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public final class AmberCobaltConstants
+{
+    public static final String APP_NAME = "AmberCobalt";
+
+    public static final Logger AC_LOGGER = LogManager.getLogger(AmberCobaltConstants.class);
+}
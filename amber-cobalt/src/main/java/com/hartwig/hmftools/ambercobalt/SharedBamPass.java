@@ -0,0 +1,91 @@
+package com.hartwig.hmftools.ambercobalt;
+
+import static com.hartwig.hmftools.ambercobalt.AmberCobaltConstants.AC_LOGGER;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.amber.AmberConfig;
+import com.hartwig.hmftools.amber.BamEvidenceCollector;
+import com.hartwig.hmftools.amber.BamEvidenceReader;
+import com.hartwig.hmftools.amber.PositionEvidence;
+import com.hartwig.hmftools.amber.ProgressTracker;
+import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+import com.hartwig.hmftools.common.samtools.PartitionedBamReader;
+
+import htsjdk.samtools.SamReaderFactory;
+
+public class SharedBamPass implements BamEvidenceCollector
+{
+    // reads each BAM once across the whole genome, passing its records to AMBER's site evidence consumer alongside the other
+    // consumers registered for that BAM, such as COBALT's read depths and BAM metrics
+    private final BamEvidenceReader mAmberEvidenceReader;
+    private final int mThreads;
+    private final List<ChrBaseRegion> mPartitions;
+
+    // BAMs yet to be read, with their consumers other than AMBER's
+    private final Map<String,List<BamRecordConsumer>> mBamConsumers;
+
+    public SharedBamPass(final AmberConfig amberConfig, final int threads, final List<ChrBaseRegion> partitions)
+    {
+        mAmberEvidenceReader = new BamEvidenceReader(amberConfig);
+        mThreads = threads;
+        mPartitions = partitions;
+        mBamConsumers = Maps.newLinkedHashMap();
+    }
+
+    public void addConsumer(final String bamFile, final BamRecordConsumer consumer)
+    {
+        mBamConsumers.computeIfAbsent(bamFile, x -> Lists.newArrayList()).add(consumer);
+    }
+
+    @Override
+    public void processBam(
+            final String bamFile, final SamReaderFactory samReaderFactory, final Map<Chromosome,List<PositionEvidence>> chrPositionEvidence)
+            throws InterruptedException
+    {
+        List<BamRecordConsumer> consumers = mBamConsumers.remove(bamFile);
+
+        if(consumers == null)
+        {
+            // additional reference BAMs are only read for their AMBER sites
+            mAmberEvidenceReader.processBam(bamFile, samReaderFactory, chrPositionEvidence);
+            return;
+        }
+
+        consumers.add(0, mAmberEvidenceReader.createConsumer(chrPositionEvidence));
+        readBam(bamFile, samReaderFactory, consumers);
+    }
+
+    public void processRemainingBams(final SamReaderFactory samReaderFactory) throws InterruptedException
+    {
+        // read any BAM which AMBER did not, for its other consumers
+        for(String bamFile : Lists.newArrayList(mBamConsumers.keySet()))
+        {
+            readBam(bamFile, samReaderFactory, mBamConsumers.remove(bamFile));
+        }
+    }
+
+    private void readBam(final String bamFile, final SamReaderFactory samReaderFactory, final List<BamRecordConsumer> consumers)
+            throws InterruptedException
+    {
+        AC_LOGGER.info("reading bam({}) with {} consumers across {} partitions", bamFile, consumers.size(), mPartitions.size());
+
+        Map<String,List<BamRecordConsumer>> bamConsumers = Maps.newLinkedHashMap();
+        bamConsumers.put(bamFile, consumers);
+
+        PartitionedBamReader bamReader = new PartitionedBamReader(samReaderFactory, mThreads);
+
+        ProgressTracker taskCompletion = new ProgressTracker(mPartitions.size());
+        bamReader.setProgressListener(taskCompletion::progress);
+
+        bamReader.processBams(bamConsumers, mPartitions);
+
+        if(AC_LOGGER.isDebugEnabled())
+            bamReader.perfCounter().logStats();
+    }
+}
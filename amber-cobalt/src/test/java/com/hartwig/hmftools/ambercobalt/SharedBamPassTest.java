@@ -0,0 +1,187 @@
+package com.hartwig.hmftools.ambercobalt;
+
+import static com.hartwig.hmftools.cobalt.CobaltConstants.PARTITION_SIZE;
+import static com.hartwig.hmftools.cobalt.CobaltConstants.WINDOW_SIZE;
+import static com.hartwig.hmftools.common.test.SamRecordTestUtils.SAM_DICTIONARY_V37;
+import static com.hartwig.hmftools.common.test.SamRecordTestUtils.createSamRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.amber.AmberConfig;
+import com.hartwig.hmftools.amber.BamEvidenceReader;
+import com.hartwig.hmftools.amber.PositionEvidence;
+import com.hartwig.hmftools.bamtools.metrics.MetricsConfig;
+import com.hartwig.hmftools.bamtools.metrics.MetricsConsumer;
+import com.hartwig.hmftools.cobalt.Chromosome;
+import com.hartwig.hmftools.cobalt.count.ReadDepth;
+import com.hartwig.hmftools.cobalt.count.ReadDepthCollector;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+import com.hartwig.hmftools.common.samtools.PartitionedBamReader;
+import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+
+public class SharedBamPassTest
+{
+    private static final String CHROMOSOME = "1";
+    private static final int CHROMOSOME_LENGTH = 20000;
+    private static final int READ_LENGTH = 100;
+    private static final int READ_COUNT = 400;
+    private static final int DUPLICATE_COUNT = 20;
+    private static final int SITE_GAP = 250;
+
+    private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+
+    @Test
+    public void testSharedPassMatchesStandaloneRuns() throws Exception
+    {
+        File tempDir = Files.createTempDirectory("shared_bam_pass_test").toFile();
+        tempDir.deleteOnExit();
+
+        String bamFile = writeBam(tempDir).getAbsolutePath();
+
+        AmberConfig amberConfig = createAmberConfig(tempDir);
+        SamReaderFactory readerFactory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT);
+        List<Chromosome> chromosomes = Lists.newArrayList(new Chromosome(CHROMOSOME, CHROMOSOME_LENGTH));
+
+        // standalone AMBER reads the regions around its sites
+        Map<com.hartwig.hmftools.common.genome.chromosome.Chromosome,List<PositionEvidence>> amberSites = createSites();
+        new BamEvidenceReader(amberConfig).processBam(bamFile, readerFactory, amberSites);
+
+        // standalone COBALT reads the whole genome in its own partitions
+        ReadDepthCollector cobaltDepths = new ReadDepthCollector(WINDOW_SIZE, 10, chromosomes);
+
+        Map<String,List<BamRecordConsumer>> bamConsumers = Maps.newLinkedHashMap();
+        bamConsumers.put(bamFile, Lists.newArrayList(cobaltDepths.tumorConsumer()));
+        new PartitionedBamReader(readerFactory, 2).processBams(bamConsumers, cobaltDepths.partitionGenome(PARTITION_SIZE));
+
+        // a single pass feeds all three consumers, on partitions which don't align to the depth windows
+        ReadDepthCollector sharedDepths = new ReadDepthCollector(WINDOW_SIZE, 10, chromosomes);
+        MetricsConsumer metricsConsumer = new MetricsConsumer(new MetricsConfig(250));
+
+        SharedBamPass bamPass = new SharedBamPass(amberConfig, 2, sharedDepths.partitionGenome(3500));
+        bamPass.addConsumer(bamFile, sharedDepths.tumorConsumer());
+        bamPass.addConsumer(bamFile, metricsConsumer);
+
+        Map<com.hartwig.hmftools.common.genome.chromosome.Chromosome,List<PositionEvidence>> sharedSites = createSites();
+        bamPass.processBam(bamFile, readerFactory, sharedSites);
+
+        List<PositionEvidence> expectedSites = amberSites.get(HumanChromosome._1);
+        List<PositionEvidence> sites = sharedSites.get(HumanChromosome._1);
+
+        assertEquals(expectedSites.size(), sites.size());
+        assertTrue(expectedSites.stream().anyMatch(x -> x.RefSupport > 0 && x.AltSupport > 0));
+
+        for(int i = 0; i < expectedSites.size(); ++i)
+        {
+            assertEquals(expectedSites.get(i).toString(), sites.get(i).toString());
+            assertEquals(expectedSites.get(i).AltQuality, sites.get(i).AltQuality);
+        }
+
+        List<ReadDepth> expectedDepths = cobaltDepths.tumorDepths().getChromosomeReadDepths(CHROMOSOME);
+        List<ReadDepth> depths = sharedDepths.tumorDepths().getChromosomeReadDepths(CHROMOSOME);
+
+        assertEquals(CHROMOSOME_LENGTH / WINDOW_SIZE, depths.size());
+        assertTrue(expectedDepths.stream().allMatch(x -> x.ReadDepth > 0));
+
+        for(int i = 0; i < expectedDepths.size(); ++i)
+        {
+            assertEquals(expectedDepths.get(i).StartPosition, depths.get(i).StartPosition);
+            assertEquals(expectedDepths.get(i).ReadDepth, depths.get(i).ReadDepth, 0);
+            assertEquals(expectedDepths.get(i).ReadGcContent, depths.get(i).ReadGcContent, 0);
+        }
+
+        // the metrics see every read, including the duplicates and low mapping quality reads filtered by the other tools
+        assertEquals(READ_COUNT, metricsConsumer.combinedStats().readCounts().TotalReads);
+        assertEquals(DUPLICATE_COUNT, metricsConsumer.combinedStats().readCounts().Duplicates);
+    }
+
+    private static Map<com.hartwig.hmftools.common.genome.chromosome.Chromosome,List<PositionEvidence>> createSites()
+    {
+        List<PositionEvidence> sites = Lists.newArrayList();
+
+        for(int position = SITE_GAP; position < CHROMOSOME_LENGTH; position += SITE_GAP)
+        {
+            sites.add(new PositionEvidence(CHROMOSOME, position, "A", "G"));
+        }
+
+        Map<com.hartwig.hmftools.common.genome.chromosome.Chromosome,List<PositionEvidence>> chrSites = Maps.newHashMap();
+        chrSites.put(HumanChromosome._1, sites);
+        return chrSites;
+    }
+
+    private static AmberConfig createAmberConfig(final File tempDir) throws Exception
+    {
+        File lociFile = new File(tempDir, "loci.vcf");
+        lociFile.createNewFile();
+        lociFile.deleteOnExit();
+
+        ConfigBuilder configBuilder = new ConfigBuilder();
+        AmberConfig.registerConfig(configBuilder);
+        configBuilder.parseCommandLine(new String[] { "-loci", lociFile.getAbsolutePath(), "-threads", "2" });
+
+        return new AmberConfig(configBuilder);
+    }
+
+    private static File writeBam(final File dir)
+    {
+        File bamFile = new File(dir, "sample.bam");
+        bamFile.deleteOnExit();
+        new File(dir, "sample.bai").deleteOnExit();
+
+        SAMFileHeader header = new SAMFileHeader();
+        header.setSequenceDictionary(SAM_DICTIONARY_V37);
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+
+        // random reads with mixed mapping qualities, so each tool filters its own reads from the shared pass
+        Random random = new Random(1);
+        List<SAMRecord> records = Lists.newArrayList();
+
+        for(int i = 0; i < READ_COUNT; ++i)
+        {
+            int readStart = 1 + random.nextInt(CHROMOSOME_LENGTH - READ_LENGTH);
+
+            StringBuilder readBases = new StringBuilder();
+
+            for(int b = 0; b < READ_LENGTH; ++b)
+            {
+                readBases.append(BASES[random.nextInt(BASES.length)]);
+            }
+
+            SAMRecord record = createSamRecord(
+                    "read_" + i, CHROMOSOME, readStart, readBases.toString(), READ_LENGTH + "M", CHROMOSOME,
+                    readStart + 300, false, false, null);
+
+            record.setMappingQuality(random.nextInt(4) == 0 ? 20 : 60);
+            record.setDuplicateReadFlag(i < DUPLICATE_COUNT);
+            record.setHeader(header);
+            records.add(record);
+        }
+
+        records.sort(Comparator.comparingInt(SAMRecord::getAlignmentStart));
+
+        SAMFileWriter writer = new SAMFileWriterFactory().setCreateIndex(true).makeBAMWriter(header, true, bamFile);
+        records.forEach(writer::addAlignment);
+        writer.close();
+
+        return bamFile;
+    }
+}
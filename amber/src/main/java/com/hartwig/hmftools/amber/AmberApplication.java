@@ -41,6 +41,7 @@ import htsjdk.samtools.cram.ref.ReferenceSource;
 public class AmberApplication implements AutoCloseable
 {
     private final AmberConfig mConfig;
+    private final BamEvidenceCollector mEvidenceCollector;
 
     private ResultsWriter mPersistence;
     private VersionInfo mVersionInfo;
@@ -49,6 +50,13 @@ public class AmberApplication implements AutoCloseable
     public AmberApplication(final ConfigBuilder configBuilder)
     {
         mConfig = new AmberConfig(configBuilder);
+        mEvidenceCollector = new BamEvidenceReader(mConfig);
+    }
+
+    public AmberApplication(final AmberConfig config, final BamEvidenceCollector evidenceCollector)
+    {
+        mConfig = config;
+        mEvidenceCollector = evidenceCollector;
     }
 
     public int run() throws IOException, InterruptedException
@@ -150,7 +158,7 @@ public class AmberApplication implements AutoCloseable
 
     private void runGermlineOnly() throws InterruptedException, IOException
     {
-        GermlineAnalysis germline = new GermlineAnalysis(mConfig, readerFactory(mConfig), mChromosomeSites);
+        GermlineAnalysis germline = new GermlineAnalysis(mConfig, mEvidenceCollector, readerFactory(mConfig), mChromosomeSites);
 
         List<AmberBAF> amberBAFList = Lists.newArrayList();
 
@@ -175,9 +183,9 @@ public class AmberApplication implements AutoCloseable
     {
         final SamReaderFactory readerFactory = readerFactory(mConfig);
 
-        GermlineAnalysis germline = new GermlineAnalysis(mConfig, readerFactory, mChromosomeSites);
+        GermlineAnalysis germline = new GermlineAnalysis(mConfig, mEvidenceCollector, readerFactory, mChromosomeSites);
 
-        TumorAnalysis tumor = new TumorAnalysis(mConfig, readerFactory,
+        TumorAnalysis tumor = new TumorAnalysis(mConfig, mEvidenceCollector, readerFactory,
                 germline.getHeterozygousLoci(), germline.getHomozygousLoci());
 
         final List<TumorBAF> tumorBAFList = tumor.getBafs().values().stream().sorted().collect(toList());
@@ -200,7 +208,7 @@ public class AmberApplication implements AutoCloseable
         final ListMultimap<Chromosome, PositionEvidence> allNormal = hetLociTumorOnly();
 
         // no homozygous sites
-        TumorAnalysis tumor = new TumorAnalysis(mConfig, readerFactory, allNormal, ArrayListMultimap.create());
+        TumorAnalysis tumor = new TumorAnalysis(mConfig, mEvidenceCollector, readerFactory, allNormal, ArrayListMultimap.create());
 
         final List<TumorBAF> tumorBAFList = tumor.getBafs().values()
                 .stream()
@@ -257,7 +265,7 @@ public class AmberApplication implements AutoCloseable
         return result;
     }
 
-    private static SamReaderFactory readerFactory(final AmberConfig config)
+    public static SamReaderFactory readerFactory(final AmberConfig config)
     {
         final SamReaderFactory readerFactory = SamReaderFactory.make().validationStringency(config.BamStringency);
         if(config.RefGenomeFile != null)
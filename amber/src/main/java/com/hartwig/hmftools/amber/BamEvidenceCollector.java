@@ -0,0 +1,16 @@
+package com.hartwig.hmftools.amber;
+
+import java.util.List;
+import java.util.Map;
+
+import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
+
+import htsjdk.samtools.SamReaderFactory;
+
+public interface BamEvidenceCollector
+{
+    // adds the BAM's read evidence to each site, which may be gathered in a pass shared with other tools' consumers
+    void processBam(
+            final String bamFile, final SamReaderFactory samReaderFactory, final Map<Chromosome,List<PositionEvidence>> chrPositionEvidence)
+            throws InterruptedException;
+}
@@ -1,25 +1,23 @@
 package com.hartwig.hmftools.amber;
 
 import static java.lang.Math.max;
-import static java.lang.String.format;
 
 import static com.hartwig.hmftools.amber.AmberConfig.AMB_LOGGER;
 import static com.hartwig.hmftools.amber.AmberConstants.BAM_MIN_GAP_START;
 import static com.hartwig.hmftools.amber.AmberConstants.CRAM_MIN_GAP_START;
 
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
-import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.PartitionedBamReader;
 
 import htsjdk.samtools.SamReaderFactory;
 
-public class BamEvidenceReader
+public class BamEvidenceReader implements BamEvidenceCollector
 {
     private final AmberConfig mConfig;
     private final PositionEvidenceChecker mEvidenceChecker;
@@ -30,65 +28,56 @@ public class BamEvidenceReader
         mEvidenceChecker = new PositionEvidenceChecker(mConfig.MinBaseQuality);
     }
 
+    @Override
     public void processBam(
             final String bamFile, final SamReaderFactory samReaderFactory, final Map<Chromosome,List<PositionEvidence>> chrPositionEvidence)
             throws InterruptedException
     {
         AMB_LOGGER.trace("processing bam({})", bamFile);
 
-        final Queue<RegionTask> taskQueue = new ConcurrentLinkedQueue<>();
+        PositionEvidenceConsumer evidenceConsumer = createConsumer(chrPositionEvidence);
 
         // create genome regions from the loci
         boolean limitRegions = bamFile.endsWith(".cram");
-        populateTaskQueue(chrPositionEvidence, taskQueue, limitRegions);
+        List<ChrBaseRegion> regions = createRegions(chrPositionEvidence, limitRegions);
 
-        // we create the consumer and producer
-        List<BamReaderThread> bamReaders = new ArrayList<BamReaderThread>();
+        PartitionedBamReader bamReader = new PartitionedBamReader(samReaderFactory, mConfig.Threads);
+        bamReader.addConsumer(evidenceConsumer);
 
-        for(int i = 0; i < max(mConfig.Threads, 1); ++i)
-        {
-            BamReaderThread thread = new BamReaderThread(bamFile, samReaderFactory, taskQueue, mConfig.MinMappingQuality);
-            thread.setName(format("worker-%d", i));
-            thread.start();
-            bamReaders.add(thread);
-        }
-
-        AMB_LOGGER.trace("{} bam reader threads started", bamReaders.size());
+        ProgressTracker taskCompletion = new ProgressTracker(regions.size());
+        bamReader.setProgressListener(taskCompletion::progress);
 
-        ProgressTracker taskCompletion = new ProgressTracker(taskQueue.size());
-        for(BamReaderThread thread : bamReaders)
-        {
-            while(thread.isAlive())
-            {
-                // check status every 30 seconds
-                thread.join(30_000);
+        bamReader.processBam(bamFile, regions);
 
-                // check status
-                taskCompletion.progress(taskQueue.size());
-            }
-        }
+        if(AMB_LOGGER.isDebugEnabled())
+            bamReader.perfCounter().logStats();
+    }
 
-        AMB_LOGGER.trace("{} bam reader threads finished", bamReaders.size());
+    public PositionEvidenceConsumer createConsumer(final Map<Chromosome,List<PositionEvidence>> chrPositionEvidence)
+    {
+        PositionEvidenceConsumer evidenceConsumer = new PositionEvidenceConsumer(mEvidenceChecker, mConfig.MinMappingQuality);
 
-        if(AMB_LOGGER.isDebugEnabled())
+        for(Map.Entry<Chromosome,List<PositionEvidence>> entry : chrPositionEvidence.entrySet())
         {
-            PerformanceCounter combinedPc = new PerformanceCounter("Read");
-            bamReaders.forEach(x -> combinedPc.merge(x.perfCounter()));
-            combinedPc.logStats();
+            String chromosome = mConfig.RefGenVersion.versionedChromosome(entry.getKey().toString());
+
+            if(!mConfig.SpecificChromosomes.isEmpty() && !mConfig.SpecificChromosomes.contains(chromosome))
+                continue;
+
+            if(!entry.getValue().isEmpty())
+                evidenceConsumer.addPositions(chromosome, entry.getValue());
         }
+
+        return evidenceConsumer;
     }
 
-    private void populateTaskQueue(
-            final Map<Chromosome,List<PositionEvidence>> chrBaseDepth, final Queue<RegionTask> taskQueue, boolean limitRegions)
+    private List<ChrBaseRegion> createRegions(final Map<Chromosome,List<PositionEvidence>> chrBaseDepth, boolean limitRegions)
     {
         int positionCount = chrBaseDepth.values().stream().mapToInt(x -> x.size()).sum();
 
         int minGap = mConfig.PositionGap > 0 ? mConfig.PositionGap : (limitRegions ? CRAM_MIN_GAP_START : BAM_MIN_GAP_START);
 
-        // int maxPositionsPerRegion = limitRegions ? CRAM_REGION_GROUP_MAX : BAM_REGION_GROUP_MAX;
-        // int gapIncrement = limitRegions ? CRAM_MIN_GAP_INCREMENT : BAM_MIN_GAP_INCREMENT;
-
-        List<RegionTask> tasks = Lists.newArrayList();
+        List<ChrBaseRegion> regions = Lists.newArrayList();
 
         for(Map.Entry<Chromosome,List<PositionEvidence>> entry : chrBaseDepth.entrySet())
         {
@@ -102,40 +91,31 @@ public class BamEvidenceReader
             if(positions.isEmpty())
                 continue;
 
-            RegionTask currentTask = new RegionTask(mEvidenceChecker, chromosome, positions.get(0));
-            tasks.add(currentTask);
+            ChrBaseRegion currentRegion = null;
 
-            for(int i = 1; i < positions.size(); ++i)
+            for(PositionEvidence posEvidence : positions)
             {
-                PositionEvidence posEvidence = positions.get(i);
-
-                if(currentTask.Region.end() + minGap < posEvidence.Position) // or  || tasks.size() >= maxPositionsPerRegion
+                if(currentRegion == null || currentRegion.end() + minGap < posEvidence.Position)
                 {
                     // start a new region
-                    currentTask = new RegionTask(mEvidenceChecker, chromosome, posEvidence);
-                    tasks.add(currentTask);
+                    currentRegion = new ChrBaseRegion(chromosome, posEvidence.Position, posEvidence.Position);
+                    regions.add(currentRegion);
                 }
                 else
                 {
-                    currentTask.addPosition(posEvidence);
+                    currentRegion.setEnd(max(currentRegion.end(), posEvidence.Position));
                 }
             }
         }
 
-        if(AMB_LOGGER.isDebugEnabled())
+        if(AMB_LOGGER.isDebugEnabled() && !regions.isEmpty())
         {
-            RegionTask maxRegion = null;
-
-            for(RegionTask task : tasks)
-            {
-                if(maxRegion == null || task.Region.length() > maxRegion.Region.length() || task.positionCount() > maxRegion.positionCount())
-                    maxRegion = task;
-            }
+            ChrBaseRegion maxRegion = regions.stream().max(Comparator.comparingInt(ChrBaseRegion::length)).get();
 
-            AMB_LOGGER.debug("split {} sites across {} regions, max region({} size={} length={}) minGap({})",
-                    positionCount, tasks.size(), maxRegion.Region, maxRegion.positionCount(), maxRegion.Region.length(), minGap);
+            AMB_LOGGER.debug("split {} sites across {} regions, max region({} length={}) minGap({})",
+                    positionCount, regions.size(), maxRegion, maxRegion.length(), minGap);
         }
 
-        taskQueue.addAll(tasks);
+        return regions;
     }
 }
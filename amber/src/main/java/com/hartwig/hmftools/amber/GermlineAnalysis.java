@@ -26,6 +26,7 @@ import htsjdk.samtools.SamReaderFactory;
 public class GermlineAnalysis
 {
     private final AmberConfig mConfig;
+    private final BamEvidenceCollector mEvidenceCollector;
     private final HetNormalEvidence mHetNormalEvidence;
     private final ListMultimap<Chromosome, PositionEvidence> mSnpCheckedLoci;
     private final ListMultimap<Chromosome, PositionEvidence> mHomozygousLoci;
@@ -38,8 +39,17 @@ public class GermlineAnalysis
     public GermlineAnalysis(
             final AmberConfig config, SamReaderFactory readerFactory, ListMultimap<Chromosome,AmberSite> chrAmberSites)
             throws InterruptedException, IOException
+    {
+        this(config, new BamEvidenceReader(config), readerFactory, chrAmberSites);
+    }
+
+    public GermlineAnalysis(
+            final AmberConfig config, final BamEvidenceCollector evidenceCollector, SamReaderFactory readerFactory,
+            ListMultimap<Chromosome,AmberSite> chrAmberSites)
+            throws InterruptedException, IOException
     {
         mConfig = config;
+        mEvidenceCollector = evidenceCollector;
 
         final Predicate<PositionEvidence> isValidFilter = PositionEvidence::isValid;
         Predicate<PositionEvidence> homozygousFilter = new NormalHomozygousFilter().and(isValidFilter);
@@ -115,8 +125,7 @@ public class GermlineAnalysis
             positions.add(fromAmberSite(entry.getValue()));
         }
 
-        BamEvidenceReader bamEvidenceReader = new BamEvidenceReader(mConfig);
-        bamEvidenceReader.processBam(bamPath, readerFactory, chrPositionEvidence);
+        mEvidenceCollector.processBam(bamPath, readerFactory, chrPositionEvidence);
 
         ListMultimap<Chromosome, PositionEvidence> normalEvidence = ArrayListMultimap.create();
 
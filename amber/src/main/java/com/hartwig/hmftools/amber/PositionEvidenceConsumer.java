@@ -0,0 +1,80 @@
+package com.hartwig.hmftools.amber;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+
+import htsjdk.samtools.SAMRecord;
+
+public class PositionEvidenceConsumer implements BamRecordConsumer
+{
+    // adds read evidence to each site a record covers within the partition, so it can share a BAM pass with other consumers
+    private final PositionEvidenceChecker mEvidenceChecker;
+    private final int mMinMappingQuality;
+
+    // sites sorted by position, keyed by the BAM's chromosome name
+    private final Map<String,List<PositionEvidence>> mChrPositions;
+
+    public PositionEvidenceConsumer(final PositionEvidenceChecker evidenceChecker, int minMappingQuality)
+    {
+        mEvidenceChecker = evidenceChecker;
+        mMinMappingQuality = minMappingQuality;
+        mChrPositions = Maps.newHashMap();
+    }
+
+    public void addPositions(final String chromosome, final List<PositionEvidence> positions)
+    {
+        mChrPositions.put(chromosome, positions);
+    }
+
+    @Override
+    public int minMappingQuality() { return mMinMappingQuality; }
+
+    @Override
+    public void processRecord(final ChrBaseRegion partition, final SAMRecord record)
+    {
+        List<PositionEvidence> positions = mChrPositions.get(partition.Chromosome);
+
+        if(positions == null)
+            return;
+
+        // only sites within the partition are counted, since a record spanning 2 partitions is passed for each
+        int startPosition = max(record.getAlignmentStart(), partition.start());
+        int endPosition = min(record.getAlignmentEnd(), partition.end());
+
+        for(int index = firstPositionIndex(positions, startPosition); index < positions.size(); ++index)
+        {
+            PositionEvidence posEvidence = positions.get(index);
+
+            if(posEvidence.Position > endPosition)
+                break;
+
+            mEvidenceChecker.addEvidence(posEvidence, record);
+        }
+    }
+
+    private static int firstPositionIndex(final List<PositionEvidence> positions, int position)
+    {
+        // index of the first site at or after the position
+        int low = 0;
+        int high = positions.size();
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(positions.get(mid).Position < position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+}
@@ -18,6 +18,7 @@ import htsjdk.samtools.SamReaderFactory;
 public class TumorAnalysis
 {
     private final AmberConfig mConfig;
+    private final BamEvidenceCollector mEvidenceCollector;
     private ListMultimap<Chromosome, TumorBAF> mBafs;
     private ListMultimap<Chromosome, TumorContamination> mContamination;
 
@@ -29,8 +30,18 @@ public class TumorAnalysis
             final ListMultimap<Chromosome, PositionEvidence> germlineHetLoci,
             final ListMultimap<Chromosome, PositionEvidence> germlineHomLoci)
             throws InterruptedException
+    {
+        this(config, new BamEvidenceReader(config), readerFactory, germlineHetLoci, germlineHomLoci);
+    }
+
+    public TumorAnalysis(
+            final AmberConfig config, final BamEvidenceCollector evidenceCollector, SamReaderFactory readerFactory,
+            final ListMultimap<Chromosome, PositionEvidence> germlineHetLoci,
+            final ListMultimap<Chromosome, PositionEvidence> germlineHomLoci)
+            throws InterruptedException
     {
         mConfig = config;
+        mEvidenceCollector = evidenceCollector;
 
         tumorBAFAndContamination(readerFactory, germlineHetLoci, germlineHomLoci);
     }
@@ -87,8 +98,7 @@ public class TumorAnalysis
             Collections.sort(positions);
         }
 
-        BamEvidenceReader bamEvidenceReader = new BamEvidenceReader(mConfig);
-        bamEvidenceReader.processBam(mConfig.TumorBam, readerFactory, chrPositionEvidence);
+        mEvidenceCollector.processBam(mConfig.TumorBam, readerFactory, chrPositionEvidence);
 
         mBafs = ArrayListMultimap.create();
 
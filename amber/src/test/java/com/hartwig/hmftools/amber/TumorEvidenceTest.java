@@ -2,6 +2,8 @@ package com.hartwig.hmftools.amber;
 
 import static org.junit.Assert.assertEquals;
 
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
 import com.hartwig.hmftools.common.samtools.SamRecordUtils;
 
 import org.junit.Test;
@@ -29,6 +31,31 @@ public class TumorEvidenceTest
         assertEquals(1, baseDepth.ReadDepth);
     }
 
+    @Test
+    public void countSitesOncePerPartition()
+    {
+        final PositionEvidence site1 = new PositionEvidence("5", 1005, "A", "T");
+        final PositionEvidence site2 = new PositionEvidence("5", 1015, "A", "T");
+        final PositionEvidence site3 = new PositionEvidence("5", 1030, "A", "T");
+
+        PositionEvidenceConsumer evidenceConsumer = new PositionEvidenceConsumer(new PositionEvidenceChecker(0), 0);
+        evidenceConsumer.addPositions("5", Lists.newArrayList(site1, site2, site3));
+
+        // a read spanning both partitions is passed for each, but only adds evidence to the sites within the partition given
+        final SAMRecord record = buildSamRecord(1001, "20M", "AAAAAAAAAAAAAAAAAAAA", "FFFFFFFFFFFFFFFFFFFF");
+
+        ChrBaseRegion partition1 = new ChrBaseRegion("5", 1, 1010);
+        ChrBaseRegion partition2 = new ChrBaseRegion("5", 1011, 2000);
+
+        evidenceConsumer.processRecord(partition1, record);
+        evidenceConsumer.processRecord(partition2, record);
+
+        assertEquals(1, site1.ReadDepth);
+        assertEquals(1, site1.RefSupport);
+        assertEquals(1, site2.ReadDepth);
+        assertEquals(0, site3.ReadDepth);
+    }
+
     private SAMRecord buildSamRecord(
             final int alignmentStart, final String cigar, final String readString, final String qualities)
     {
@@ -8,6 +8,9 @@ import static com.hartwig.hmftools.common.region.PartitionUtils.partitionChromos
 import static com.hartwig.hmftools.common.utils.PerformanceCounter.runTimeMinsStr;
 import static com.hartwig.hmftools.common.utils.TaskExecutor.runThreadTasks;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
@@ -21,6 +24,11 @@ import com.hartwig.hmftools.common.region.ChrBaseRegion;
 
 import org.jetbrains.annotations.NotNull;
 
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+
 public class BamCompare
 {
     private final CompareConfig mConfig;
@@ -56,6 +64,11 @@ public class BamCompare
         if(!readWriter.initialised())
             System.exit(1);
 
+        ReadSpill readSpill = createReadSpill();
+
+        if(readSpill == null)
+            System.exit(1);
+
         BT_LOGGER.info("splitting {} regions across {} threads", allRegions.size(), mConfig.Threads);
 
         Queue<PartitionTask> partitions = new ConcurrentLinkedQueue<>();
@@ -71,7 +84,7 @@ public class BamCompare
 
         for(int i = 0; i < min(allRegions.size(), mConfig.Threads); ++i)
         {
-            PartitionThread partitionThread = new PartitionThread(mConfig, partitions, readWriter);
+            PartitionThread partitionThread = new PartitionThread(mConfig, partitions, readWriter, readSpill);
             partitionTasks.add(partitionThread);
             workers.add(partitionThread);
         }
@@ -79,8 +92,14 @@ public class BamCompare
         if(!runThreadTasks(workers))
             System.exit(1);
 
+        BT_LOGGER.info("comparing unmapped and supplementary reads");
+
+        if(!readSpill.compareReads(readWriter))
+            System.exit(1);
+
         Statistics combinedStats = new Statistics();
         partitionTasks.forEach(x -> combinedStats.merge(x.stats()));
+        combinedStats.merge(readSpill.stats());
 
         readWriter.close();
 
@@ -90,6 +109,32 @@ public class BamCompare
         BT_LOGGER.info("BamCompare complete, mins({})", runTimeMinsStr(startTimeMs));
     }
 
+    private ReadSpill createReadSpill()
+    {
+        try
+        {
+            File outputDir = new File(mConfig.OutputFile).getAbsoluteFile().getParentFile();
+            File spillDir = Files.createTempDirectory(outputDir.toPath(), "bam_compare_spill").toFile();
+
+            return new ReadSpill(mConfig, spillDir, loadHeader(mConfig.RefBamFile), loadHeader(mConfig.NewBamFile));
+        }
+        catch(IOException e)
+        {
+            BT_LOGGER.error("failed to create spill directory: {}", e.toString());
+            return null;
+        }
+    }
+
+    private SAMFileHeader loadHeader(final String bamFile) throws IOException
+    {
+        try(SamReader samReader = SamReaderFactory.makeDefault()
+                .validationStringency(ValidationStringency.SILENT)
+                .referenceSequence(new File(mConfig.RefGenomeFile)).open(new File(bamFile)))
+        {
+            return samReader.getFileHeader();
+        }
+    }
+
     public static void main(@NotNull final String[] args)
     {
         ConfigBuilder configBuilder = new ConfigBuilder(APP_NAME);
@@ -3,6 +3,7 @@ package com.hartwig.hmftools.bamtools.compare;
 import static com.hartwig.hmftools.bamtools.common.CommonUtils.BT_LOGGER;
 import static com.hartwig.hmftools.bamtools.common.CommonUtils.PARTITION_SIZE;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.addRefGenomeConfig;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.addRefGenomeFile;
 import static com.hartwig.hmftools.common.region.SpecificRegions.addSpecificChromosomesRegionsConfig;
@@ -13,9 +14,10 @@ import static com.hartwig.hmftools.common.utils.config.CommonConfig.LOG_READ_IDS
 import static com.hartwig.hmftools.common.utils.config.CommonConfig.parseLogReadIds;
 import static com.hartwig.hmftools.common.utils.config.ConfigUtils.addLoggingOptions;
 
+import java.util.Collections;
 import java.util.List;
 
-import com.google.common.collect.Lists;
+import com.google.common.annotations.VisibleForTesting;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.region.SpecificRegions;
 import com.hartwig.hmftools.common.samtools.BamUtils;
@@ -34,6 +36,7 @@ public class CompareConfig
     public final boolean ExcludeRegions;
     public final boolean IgnoreDupDiffs;
     public final boolean IgnoreAlterations; // consensus reads and internal unmappings
+    public final int SpillBuckets; // files per BAM for unmapped and supplementary reads, compared by read ID
 
     public final int Threads;
     public final List<String> LogReadIds;
@@ -48,8 +51,10 @@ public class CompareConfig
     private static final String MAX_PARTITION_READS = "max_partition_reads";
     private static final String IGNORE_DUP_DIFFS = "ignore_dup_diffs";
     private static final String IGNORE_ALTERATIONS = "ignore_alterations";
+    private static final String SPILL_BUCKETS = "spill_buckets";
 
     private static final int DEFAULT_CHR_PARTITION_SIZE = 100000;
+    private static final int DEFAULT_SPILL_BUCKETS = 64;
 
     public CompareConfig(final ConfigBuilder configBuilder)
     {
@@ -75,6 +80,7 @@ public class CompareConfig
         MaxPartitionReads = configBuilder.getInteger(MAX_PARTITION_READS);
         IgnoreDupDiffs = configBuilder.hasFlag(IGNORE_DUP_DIFFS);
         IgnoreAlterations = configBuilder.hasFlag(IGNORE_ALTERATIONS);
+        SpillBuckets = configBuilder.getInteger(SPILL_BUCKETS);
 
         SpecificChrRegions = SpecificRegions.from(configBuilder);
 
@@ -95,6 +101,7 @@ public class CompareConfig
         configBuilder.addPath(NEW_BAM_FILE,true, "New BAM file");
         configBuilder.addInteger(PARTITION_SIZE, "Partition size", DEFAULT_CHR_PARTITION_SIZE);
         configBuilder.addInteger(MAX_PARTITION_READS, "Maximum partition reads before exit", 0);
+        configBuilder.addInteger(SPILL_BUCKETS, "Spill files per BAM for unmapped and supplementary reads", DEFAULT_SPILL_BUCKETS);
 
         configBuilder.addConfigItem(LOG_READ_IDS, LOG_READ_IDS_DESC);
         configBuilder.addFlag(EXCLUDE_REGIONS, "Ignore excluded regions");
@@ -106,4 +113,25 @@ public class CompareConfig
         addLoggingOptions(configBuilder);
         addThreadOptions(configBuilder);
     }
+
+    @VisibleForTesting
+    public CompareConfig(final String outputFile)
+    {
+        OutputFile = outputFile;
+        RefBamFile = null;
+        NewBamFile = null;
+        RefGenomeFile = null;
+        RefGenVersion = V37;
+
+        PartitionSize = DEFAULT_CHR_PARTITION_SIZE;
+        MaxPartitionReads = 0;
+        ExcludeRegions = false;
+        IgnoreDupDiffs = false;
+        IgnoreAlterations = false;
+        SpillBuckets = 4;
+
+        Threads = 0;
+        LogReadIds = Collections.emptyList();
+        SpecificChrRegions = new SpecificRegions();
+    }
 }
@@ -0,0 +1,136 @@
+package com.hartwig.hmftools.bamtools.compare;
+
+import static java.lang.Math.abs;
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.common.samtools.SamRecordUtils.MATE_CIGAR_ATTRIBUTE;
+import static com.hartwig.hmftools.common.samtools.SamRecordUtils.SUPPLEMENTARY_ATTRIBUTE;
+
+import static htsjdk.samtools.SAMFlag.DUPLICATE_READ;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import htsjdk.samtools.SAMRecord;
+
+public final class CompareUtils
+{
+    private static final List<String> KEY_ATTRIBUTES = List.of(SUPPLEMENTARY_ATTRIBUTE, MATE_CIGAR_ATTRIBUTE);
+
+    public static boolean readsMatch(final SAMRecord read1, final SAMRecord read2)
+    {
+        if(!read1.getReadName().equals(read2.getReadName()))
+            return false;
+
+        if(read1.getSupplementaryAlignmentFlag() != read2.getSupplementaryAlignmentFlag())
+            return false;
+
+        if(read1.getReadUnmappedFlag() != read2.getReadUnmappedFlag())
+            return false;
+
+        if(read1.getReadPairedFlag())
+        {
+            return read1.getFirstOfPairFlag() == read2.getFirstOfPairFlag();
+        }
+        else
+        {
+            return true;
+        }
+    }
+
+    public static String readKey(final SAMRecord read)
+    {
+        // reads with the same key are matched, as for readsMatch
+        return format("%s_%s_%s_%s", read.getReadName(),
+                !read.getReadPairedFlag() || read.getFirstOfPairFlag() ? "R1" : "R2",
+                read.getSupplementaryAlignmentFlag() ? "supp" : "prim",
+                read.getReadUnmappedFlag() ? "unmapped" : "mapped");
+    }
+
+    private static boolean flagsMatch(final int flags1, final int flags2, final CompareConfig config)
+    {
+        if(flags1 == flags2)
+            return true;
+
+        if(config.IgnoreDupDiffs && abs(flags1 - flags2) == DUPLICATE_READ.intValue())
+            return true;
+
+        return false;
+    }
+
+    public static List<String> compareReadDetails(final SAMRecord read1, final SAMRecord read2, final CompareConfig config)
+    {
+        if(read1.getInferredInsertSize() == read2.getInferredInsertSize()
+        && read1.getMappingQuality() == read2.getMappingQuality()
+        && flagsMatch(read1.getFlags(), read2.getFlags(), config)
+        && read1.getCigarString().equals(read2.getCigarString())
+        && read1.getAlignmentStart() == read2.getAlignmentStart()
+        && read1.getReferenceName().equals(read2.getReferenceName()))
+        {
+            // assume most reads match to avoid creating a array for the diffs
+            return null;
+        }
+
+        List<String> diffs = Lists.newArrayListWithExpectedSize(4);
+
+        // only reads compared by read ID rather than position can differ in position
+        if(read1.getAlignmentStart() != read2.getAlignmentStart() || !read1.getReferenceName().equals(read2.getReferenceName()))
+        {
+            diffs.add(format("position(%s:%d/%s:%d)",
+                    read1.getReferenceName(), read1.getAlignmentStart(), read2.getReferenceName(), read2.getAlignmentStart()));
+        }
+
+        if(read1.getInferredInsertSize() != read2.getInferredInsertSize())
+        {
+            diffs.add(format("insertSize(%d/%d)", read1.getInferredInsertSize(), read2.getInferredInsertSize()));
+        }
+
+        if(read1.getMappingQuality() != read2.getMappingQuality())
+        {
+            diffs.add(format("mapQuality(%d/%d)", read1.getMappingQuality(), read2.getMappingQuality()));
+        }
+
+        if(!read1.getCigarString().equals(read2.getCigarString()))
+        {
+            diffs.add(format("cigar(%s/%s)", read1.getCigarString(), read2.getCigarString()));
+        }
+
+        if(read1.getFlags() != read2.getFlags())
+        {
+            if(read1.getReadNegativeStrandFlag() != read2.getReadNegativeStrandFlag())
+                diffs.add(format("negStrand(%s/%s)", read1.getReadNegativeStrandFlag(), read2.getReadNegativeStrandFlag()));
+
+            if(!config.IgnoreDupDiffs && read1.getDuplicateReadFlag() != read2.getDuplicateReadFlag())
+                diffs.add(format("duplicate(%s/%s)", read1.getDuplicateReadFlag(), read2.getDuplicateReadFlag()));
+        }
+
+        // check key attributes:
+        for(String attribute : KEY_ATTRIBUTES)
+        {
+            String readAttr1 = read1.getStringAttribute(attribute);
+            String readAttr2 = read2.getStringAttribute(attribute);
+
+            if(readAttr1 == null && readAttr2 == null)
+                continue;
+
+            if(readAttr1 != null && readAttr2 != null)
+            {
+                if(!readAttr1.equals(readAttr2))
+                {
+                    diffs.add(format("attrib_%s(%s/%s)", attribute, readAttr1, readAttr2));
+                }
+            }
+            else if(readAttr1 == null && readAttr2 != null)
+            {
+                diffs.add(format("attrib_%s(missing/%s)", attribute, readAttr2));
+            }
+            else if(readAttr1 != null && readAttr2 == null)
+            {
+                diffs.add(format("attrib_%s(%s/missing)", attribute, readAttr1));
+            }
+        }
+
+        return diffs.isEmpty() ? null : diffs;
+    }
+}
@@ -1,26 +1,22 @@
 package com.hartwig.hmftools.bamtools.compare;
 
-import static java.lang.Math.abs;
-import static java.lang.String.format;
+import static java.lang.Math.min;
 
 import static com.hartwig.hmftools.bamtools.common.CommonUtils.BT_LOGGER;
+import static com.hartwig.hmftools.bamtools.compare.CompareUtils.compareReadDetails;
+import static com.hartwig.hmftools.bamtools.compare.CompareUtils.readsMatch;
 import static com.hartwig.hmftools.bamtools.compare.MismatchType.NEW_ONLY;
 import static com.hartwig.hmftools.bamtools.compare.MismatchType.REF_ONLY;
 import static com.hartwig.hmftools.bamtools.compare.MismatchType.VALUE;
 import static com.hartwig.hmftools.common.samtools.SamRecordUtils.CONSENSUS_READ_ATTRIBUTE;
-import static com.hartwig.hmftools.common.samtools.SamRecordUtils.MATE_CIGAR_ATTRIBUTE;
-import static com.hartwig.hmftools.common.samtools.SamRecordUtils.SUPPLEMENTARY_ATTRIBUTE;
 import static com.hartwig.hmftools.common.samtools.SamRecordUtils.UNMAP_ATTRIBUTE;
 
-import static htsjdk.samtools.SAMFlag.DUPLICATE_READ;
-
+import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
+import java.util.concurrent.ExecutorService;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Queues;
 import com.hartwig.hmftools.common.region.ExcludedRegions;
-import com.hartwig.hmftools.common.samtools.BamSlicer;
 import com.hartwig.hmftools.common.region.ChrBaseRegion;
 
 import htsjdk.samtools.SAMRecord;
@@ -33,11 +29,16 @@ public class PartitionReader
 
     private final SamReader mRefSamReader;
     private final SamReader mNewSamReader;
-    private final BamSlicer mBamSlicer;
+    private final ExecutorService mPrefetchExecutor;
+
+    // reads from each BAM starting at the current position, the only reads held while the two BAMs are compared in lockstep
+    private final List<SAMRecord> mRefPosReads;
+    private final List<SAMRecord> mNewPosReads;
+    private boolean mRefHalted;
+    private boolean mNewHalted;
 
-    private final Queue<List<SAMRecord>> mRefReads;
-    private List<SAMRecord> mCurrentRefPosReads;
     private final ReadWriter mReadWriter;
+    private final ReadSpill mReadSpill;
     private boolean mLogReadIds;
 
     private final ChrBaseRegion mExcludedRegion;
@@ -45,19 +46,21 @@ public class PartitionReader
 
     public PartitionReader(
             final ChrBaseRegion region, final CompareConfig config, final SamReader refSamReader, final SamReader newSamReader,
-            final ReadWriter readWriter)
+            final ExecutorService prefetchExecutor, final ReadWriter readWriter, final ReadSpill readSpill)
     {
         mConfig = config;
         mRegion = region;
         mReadWriter = readWriter;
+        mReadSpill = readSpill;
 
         mRefSamReader = refSamReader;
         mNewSamReader = newSamReader;
-        mBamSlicer = new BamSlicer(0, true, true, true);
-        mBamSlicer.setKeepUnmapped();
+        mPrefetchExecutor = prefetchExecutor;
 
-        mRefReads = Queues.newArrayDeque();
-        mCurrentRefPosReads = null;
+        mRefPosReads = Lists.newArrayList();
+        mNewPosReads = Lists.newArrayList();
+        mRefHalted = false;
+        mNewHalted = false;
 
         ChrBaseRegion excludedRegion = ExcludedRegions.getPolyGRegion(mConfig.RefGenVersion);
         mExcludedRegion = mRegion.overlaps(excludedRegion) ? excludedRegion : null;
@@ -72,260 +75,157 @@ public class PartitionReader
     {
         BT_LOGGER.debug("processing region({})", mRegion);
 
-        mBamSlicer.slice(mRefSamReader, Lists.newArrayList(mRegion), this::processRefRecord);
-
-        mBamSlicer.slice(mNewSamReader, Lists.newArrayList(mRegion), this::processNewRecord);
+        ReadPrefetcher refReads = new ReadPrefetcher(mRefSamReader, mRegion, mPrefetchExecutor);
+        ReadPrefetcher newReads = new ReadPrefetcher(mNewSamReader, mRegion, mPrefetchExecutor);
 
-        while(!mRefReads.isEmpty())
+        try
         {
-            // write remaining records
-            List<SAMRecord> refReads = mRefReads.remove();
-            refReads.forEach(x -> mReadWriter.writeComparison(x, REF_ONLY, null));
-            mStats.DiffCount += refReads.size();
+            compareReads(refReads, newReads);
+        }
+        finally
+        {
+            refReads.close();
+            newReads.close();
         }
 
         BT_LOGGER.debug("region({}) complete: refReads({}) newReads({}) diff({})",
                 mRegion, mStats.RefReadCount, mStats.NewReadCount, mStats.DiffCount);
     }
 
-    private void processRefRecord(final SAMRecord refRead)
+    public void compareReads(final Iterator<SAMRecord> refReads, final Iterator<SAMRecord> newReads)
     {
-        if(!mRegion.containsPosition(refRead.getAlignmentStart()))
-            return;
-
-        if(mExcludedRegion != null && mExcludedRegion.containsPosition(refRead.getAlignmentStart()))
-            return;
+        // advance through both BAMs together in coordinate order, comparing the reads which start at each position in turn
+        SAMRecord refRead = nextRead(refReads, true);
+        SAMRecord newRead = nextRead(newReads, false);
 
-        if(exceededMaxReads("ref", mStats.RefReadCount))
-            return;
-
-        if(mLogReadIds && mConfig.LogReadIds.contains(refRead.getReadName()))
+        while(refRead != null || newRead != null)
         {
-            BT_LOGGER.debug("specific readId({})", refRead.getReadName());
-        }
+            int position;
 
-        if(excludeRead(refRead))
-            return;
+            if(refRead == null)
+                position = newRead.getAlignmentStart();
+            else if(newRead == null)
+                position = refRead.getAlignmentStart();
+            else
+                position = min(refRead.getAlignmentStart(), newRead.getAlignmentStart());
 
-        ++mStats.RefReadCount;
+            while(refRead != null && refRead.getAlignmentStart() == position)
+            {
+                mRefPosReads.add(refRead);
+                refRead = nextRead(refReads, true);
+            }
 
-        if((mStats.RefReadCount % LOG_COUNT) == 0)
-        {
-            BT_LOGGER.debug("partition({}) ref reads processed({})", mRegion, mStats.RefReadCount);
-        }
+            while(newRead != null && newRead.getAlignmentStart() == position)
+            {
+                mNewPosReads.add(newRead);
+                newRead = nextRead(newReads, false);
+            }
 
-        if(mCurrentRefPosReads == null || mCurrentRefPosReads.get(0).getAlignmentStart() != refRead.getAlignmentStart())
-        {
-            mCurrentRefPosReads = Lists.newArrayList(refRead);
-            mRefReads.add(mCurrentRefPosReads);
-        }
-        else
-        {
-            mCurrentRefPosReads.add(refRead);
+            comparePositionReads();
         }
     }
 
     private static final int LOG_COUNT = 1000_000;
 
-    private void processNewRecord(final SAMRecord newRead)
+    private SAMRecord nextRead(final Iterator<SAMRecord> reads, boolean isRef)
     {
-        if(!mRegion.containsPosition(newRead.getAlignmentStart()))
-            return;
-
-        if(mExcludedRegion != null && mExcludedRegion.containsPosition(newRead.getAlignmentStart()))
-            return;
-
-        if(exceededMaxReads("new", mStats.NewReadCount))
-            return;
-
-        if(mLogReadIds && mConfig.LogReadIds.contains(newRead.getReadName()))
+        // returns the next read to compare by position, after filtering and diverting unmapped and supplementary reads to the spill
+        while(reads.hasNext())
         {
-            BT_LOGGER.debug("specific readId({})", newRead.getReadName());
-        }
-
-        if(excludeRead(newRead))
-            return;
-
-        ++mStats.NewReadCount;
+            SAMRecord read = reads.next();
 
-        if((mStats.NewReadCount % LOG_COUNT) == 0)
-        {
-            BT_LOGGER.debug("partition({}) new reads processed({})", mRegion, mStats.NewReadCount);
-        }
+            if(!mRegion.containsPosition(read.getAlignmentStart()))
+                continue;
 
-        if(mRefReads.isEmpty())
-        {
-            mReadWriter.writeComparison(newRead, NEW_ONLY, null);
-            ++mStats.DiffCount;
-            return;
-        }
+            if(mExcludedRegion != null && mExcludedRegion.containsPosition(read.getAlignmentStart()))
+                continue;
 
-        List<SAMRecord> refReads = mRefReads.peek();
-        int refPosStart = refReads.get(0).getAlignmentStart();
+            if(exceededMaxReads(isRef))
+                return null;
 
-        // purge any earlier reads
-        if(refPosStart < newRead.getAlignmentStart())
-        {
-            while(!mRefReads.isEmpty())
+            if(mLogReadIds && mConfig.LogReadIds.contains(read.getReadName()))
             {
-                refReads = mRefReads.peek();
-                refPosStart = refReads.get(0).getAlignmentStart();
-
-                if(refPosStart >= newRead.getAlignmentStart())
-                    break;
-
-                refReads.forEach(x -> mReadWriter.writeComparison(x, REF_ONLY, null));
-                mStats.DiffCount += refReads.size();
-                mRefReads.remove();
+                BT_LOGGER.debug("specific readId({})", read.getReadName());
             }
-        }
 
-        // write if before the current ref read
-        if(newRead.getAlignmentStart() < refPosStart)
-        {
-            mReadWriter.writeComparison(newRead, NEW_ONLY, null);
-            ++mStats.DiffCount;
-            return;
-        }
+            if(excludeRead(read))
+                continue;
 
-        // the positions now match, so look for an exact read match
-        int refIndex = 0;
-        while(refIndex < refReads.size())
-        {
-            SAMRecord refRead = refReads.get(refIndex);
+            int readCount = isRef ? ++mStats.RefReadCount : ++mStats.NewReadCount;
 
-            if(readsMatch(refRead, newRead))
+            if((readCount % LOG_COUNT) == 0)
             {
-                refReads.remove(refIndex);
-                if(refReads.isEmpty())
-                    mRefReads.remove();
+                BT_LOGGER.debug("partition({}) {} reads processed({})", mRegion, isRef ? "ref" : "new", readCount);
+            }
 
-                checkReadDetails(refRead, newRead);
-                return;
+            if(ReadSpill.spillRead(read))
+            {
+                mReadSpill.addRead(read, isRef);
+                continue;
             }
 
-            ++refIndex;
+            return read;
         }
 
-        // no match
-        mReadWriter.writeComparison(newRead, NEW_ONLY, null);
-        ++mStats.DiffCount;
-    }
-
-    private boolean exceededMaxReads(final String source, int readCount)
-    {
-        if(mConfig.MaxPartitionReads == 0 || readCount < mConfig.MaxPartitionReads)
-            return false;
-
-        BT_LOGGER.info("partition({}) exiting {} read processing at limit({})", mRegion, source, readCount);
-
-        mBamSlicer.haltProcessing();
-
-        return true;
-    }
-
-    private static final List<String> KEY_ATTRIBUTES = List.of(SUPPLEMENTARY_ATTRIBUTE, MATE_CIGAR_ATTRIBUTE);
-
-    private boolean flagsMatch(final int flags1, final int flags2)
-    {
-        if(flags1 == flags2)
-            return true;
-
-        if(mConfig.IgnoreDupDiffs && abs(flags1 - flags2) == DUPLICATE_READ.intValue())
-            return true;
-
-        return false;
+        return null;
     }
 
-    private void checkReadDetails(final SAMRecord read1, final SAMRecord read2)
+    private void comparePositionReads()
     {
-        if(read1.getInferredInsertSize() == read2.getInferredInsertSize()
-        && read1.getMappingQuality() == read2.getMappingQuality()
-        && flagsMatch(read1.getFlags(), read2.getFlags())
-        && read1.getCigarString().equals(read2.getCigarString()))
-        {
-            // assume most reads match to avoid creating a array for the diffs
-            return;
-        }
-
-        List<String> diffs = Lists.newArrayListWithExpectedSize(4);
-
-        if(read1.getInferredInsertSize() != read2.getInferredInsertSize())
-        {
-            diffs.add(format("insertSize(%d/%d)", read1.getInferredInsertSize(), read2.getInferredInsertSize()));
-        }
-
-        if(read1.getMappingQuality() != read2.getMappingQuality())
-        {
-            diffs.add(format("mapQuality(%d/%d)", read1.getMappingQuality(), read2.getMappingQuality()));
-        }
-
-        if(!read1.getCigarString().equals(read2.getCigarString()))
-        {
-            diffs.add(format("cigar(%s/%s)", read1.getCigarString(), read2.getCigarString()));
-        }
-
-        if(read1.getFlags() != read2.getFlags())
-        {
-            if(read1.getReadNegativeStrandFlag() != read2.getReadNegativeStrandFlag())
-                diffs.add(format("negStrand(%s/%s)", read1.getReadNegativeStrandFlag(), read2.getReadNegativeStrandFlag()));
-
-            if(!mConfig.IgnoreDupDiffs && read1.getDuplicateReadFlag() != read2.getDuplicateReadFlag())
-                diffs.add(format("duplicate(%s/%s)", read1.getDuplicateReadFlag(), read2.getDuplicateReadFlag()));
-        }
-
-        // check key attributes:
-        for(String attribute : KEY_ATTRIBUTES)
+        for(SAMRecord newRead : mNewPosReads)
         {
-            String readAttr1 = read1.getStringAttribute(attribute);
-            String readAttr2 = read2.getStringAttribute(attribute);
-
-            if(readAttr1 == null && readAttr2 == null)
-                continue;
+            SAMRecord refRead = null;
 
-            if(readAttr1 != null && readAttr2 != null)
+            for(int refIndex = 0; refIndex < mRefPosReads.size(); ++refIndex)
             {
-                if(!readAttr1.equals(readAttr2))
+                if(readsMatch(mRefPosReads.get(refIndex), newRead))
                 {
-                    diffs.add(format("attrib_%s(%s/%s)", attribute, readAttr1, readAttr2));
+                    refRead = mRefPosReads.remove(refIndex);
+                    break;
                 }
             }
-            else if(readAttr1 == null && readAttr2 != null)
+
+            if(refRead == null)
             {
-                diffs.add(format("attrib_%s(missing/%s)", attribute, readAttr2));
+                mReadWriter.writeComparison(newRead, NEW_ONLY, null);
+                ++mStats.DiffCount;
+                continue;
             }
-            else if(readAttr1 != null && readAttr2 == null)
+
+            List<String> diffs = compareReadDetails(refRead, newRead, mConfig);
+
+            if(diffs != null)
             {
-                diffs.add(format("attrib_%s(%s/missing)", attribute, readAttr1));
+                ++mStats.DiffCount;
+                mReadWriter.writeComparison(refRead, VALUE, diffs);
             }
         }
 
-        if(diffs.isEmpty())
-            return;
+        mRefPosReads.forEach(x -> mReadWriter.writeComparison(x, REF_ONLY, null));
+        mStats.DiffCount += mRefPosReads.size();
 
-        ++mStats.DiffCount;
-        mReadWriter.writeComparison(read1, VALUE, diffs);
+        mRefPosReads.clear();
+        mNewPosReads.clear();
     }
 
-    private static boolean readsMatch(final SAMRecord read1, final SAMRecord read2)
+    private boolean exceededMaxReads(boolean isRef)
     {
-        if(!read1.getReadName().equals(read2.getReadName()))
-            return false;
+        if(isRef ? mRefHalted : mNewHalted)
+            return true;
 
-        if(read1.getSupplementaryAlignmentFlag() != read2.getSupplementaryAlignmentFlag())
-            return false;
+        int readCount = isRef ? mStats.RefReadCount : mStats.NewReadCount;
 
-        if(read1.getReadUnmappedFlag() != read2.getReadUnmappedFlag())
+        if(mConfig.MaxPartitionReads == 0 || readCount < mConfig.MaxPartitionReads)
             return false;
 
-        if(read1.getReadPairedFlag())
-        {
-            return read1.getFirstOfPairFlag() == read2.getFirstOfPairFlag();
-        }
+        BT_LOGGER.info("partition({}) exiting {} read processing at limit({})", mRegion, isRef ? "ref" : "new", readCount);
+
+        if(isRef)
+            mRefHalted = true;
         else
-        {
-            return true;
-        }
+            mNewHalted = true;
+
+        return true;
     }
 
     private boolean excludeRead(final SAMRecord read)
@@ -4,9 +4,12 @@ import java.io.File;
 import java.io.IOException;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.hartwig.hmftools.bamtools.common.CommonUtils.BT_LOGGER;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hartwig.hmftools.bamtools.common.PartitionTask;
 
 import htsjdk.samtools.SamReader;
@@ -19,15 +22,18 @@ public class PartitionThread extends Thread
 
     private final SamReader mRefSamReader;
     private final SamReader mNewSamReader;
+    private final ExecutorService mPrefetchExecutor; // slices the ref and new BAMs ahead of the comparison
     private final ReadWriter mReadWriter;
+    private final ReadSpill mReadSpill;
     private final Queue<PartitionTask> mPartitions;
     private final Statistics mStats;
 
     public PartitionThread(
-            final CompareConfig config, final Queue<PartitionTask> partitions, final ReadWriter readWriter)
+            final CompareConfig config, final Queue<PartitionTask> partitions, final ReadWriter readWriter, final ReadSpill readSpill)
     {
         mConfig = config;
         mReadWriter = readWriter;
+        mReadSpill = readSpill;
         mPartitions = partitions;
 
         mRefSamReader = SamReaderFactory.makeDefault()
@@ -38,6 +44,9 @@ public class PartitionThread extends Thread
                 .validationStringency(ValidationStringency.SILENT)
                 .referenceSequence(new File(mConfig.RefGenomeFile)).open(new File(mConfig.NewBamFile));
 
+        mPrefetchExecutor = Executors.newFixedThreadPool(
+                2, new ThreadFactoryBuilder().setNameFormat(getName() + "-prefetch-%d").setDaemon(true).build());
+
         mStats = new Statistics();
 
         start();
@@ -53,7 +62,8 @@ public class PartitionThread extends Thread
             {
                 PartitionTask partition = mPartitions.remove();
 
-                PartitionReader reader = new PartitionReader(partition.Region, mConfig, mRefSamReader, mNewSamReader, mReadWriter);
+                PartitionReader reader = new PartitionReader(
+                        partition.Region, mConfig, mRefSamReader, mNewSamReader, mPrefetchExecutor, mReadWriter, mReadSpill);
 
                 if(partition.TaskId > 0 && (partition.TaskId % 100) == 0)
                 {
@@ -75,6 +85,8 @@ public class PartitionThread extends Thread
             }
         }
 
+        mPrefetchExecutor.shutdown();
+
         try
         {
             mRefSamReader.close();
@@ -0,0 +1,160 @@
+package com.hartwig.hmftools.bamtools.compare;
+
+import static java.lang.String.format;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamSlicer;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+
+public class ReadPrefetcher implements Iterator<SAMRecord>
+{
+    // slices one BAM's partition on a background thread, handing over its reads in batches through a bounded queue so that
+    // decoding runs ahead of the comparison without holding more than a few batches
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_QUEUED_BATCHES = 16;
+
+    private static final List<SAMRecord> END_OF_READS = Collections.emptyList();
+
+    private final BamSlicer mBamSlicer;
+    private final BlockingQueue<List<SAMRecord>> mBatches;
+    private final Future<?> mSliceTask;
+    private volatile boolean mHalted;
+
+    private List<SAMRecord> mPendingBatch; // filled by the slicing thread
+    private List<SAMRecord> mCurrentBatch; // read by the comparison thread
+    private int mBatchIndex;
+    private boolean mComplete;
+
+    public ReadPrefetcher(final SamReader samReader, final ChrBaseRegion region, final ExecutorService executorService)
+    {
+        mBamSlicer = new BamSlicer(0, true, true, true);
+        mBamSlicer.setKeepUnmapped();
+
+        mBatches = new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES);
+        mHalted = false;
+
+        mPendingBatch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+        mCurrentBatch = Collections.emptyList();
+        mBatchIndex = 0;
+        mComplete = false;
+
+        mSliceTask = executorService.submit(() -> sliceReads(samReader, region));
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if(mBatchIndex < mCurrentBatch.size())
+            return true;
+
+        if(mComplete)
+            return false;
+
+        try
+        {
+            mCurrentBatch = mBatches.take();
+            mBatchIndex = 0;
+        }
+        catch(InterruptedException e)
+        {
+            throw new IllegalStateException("interrupted waiting for BAM reads");
+        }
+
+        if(mCurrentBatch == END_OF_READS)
+        {
+            mComplete = true;
+            checkSliceTask();
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public SAMRecord next()
+    {
+        if(!hasNext())
+            throw new NoSuchElementException();
+
+        return mCurrentBatch.get(mBatchIndex++);
+    }
+
+    public void close()
+    {
+        // stop slicing if any reads were left unconsumed, and wait for the slicing thread to finish
+        mHalted = true;
+        mBamSlicer.haltProcessing();
+
+        while(hasNext())
+        {
+            mBatchIndex = mCurrentBatch.size();
+        }
+    }
+
+    private Object sliceReads(final SamReader samReader, final ChrBaseRegion region) throws InterruptedException
+    {
+        try
+        {
+            mBamSlicer.slice(samReader, region, this::addRead);
+
+            if(!mPendingBatch.isEmpty() && !mHalted)
+                mBatches.put(mPendingBatch);
+        }
+        finally
+        {
+            mBatches.put(END_OF_READS);
+        }
+
+        return null;
+    }
+
+    private void addRead(final SAMRecord read)
+    {
+        if(mHalted)
+        {
+            mBamSlicer.haltProcessing(); // in case halted before slicing began
+            return;
+        }
+
+        mPendingBatch.add(read);
+
+        if(mPendingBatch.size() < BATCH_SIZE)
+            return;
+
+        try
+        {
+            mBatches.put(mPendingBatch);
+        }
+        catch(InterruptedException e)
+        {
+            throw new IllegalStateException("interrupted queueing BAM reads");
+        }
+
+        mPendingBatch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+    }
+
+    private void checkSliceTask()
+    {
+        try
+        {
+            mSliceTask.get();
+        }
+        catch(InterruptedException | ExecutionException e)
+        {
+            throw new IllegalStateException(format("BAM slicing failed: %s", e.getCause() != null ? e.getCause() : e));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.hartwig.hmftools.bamtools.compare;
+
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.bamtools.common.CommonUtils.BT_LOGGER;
+import static com.hartwig.hmftools.bamtools.compare.CompareUtils.compareReadDetails;
+import static com.hartwig.hmftools.bamtools.compare.CompareUtils.readKey;
+import static com.hartwig.hmftools.bamtools.compare.MismatchType.NEW_ONLY;
+import static com.hartwig.hmftools.bamtools.compare.MismatchType.REF_ONLY;
+import static com.hartwig.hmftools.bamtools.compare.MismatchType.VALUE;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.executeTasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+
+public class ReadSpill
+{
+    // unmapped and supplementary reads are compared by read rather than by position - each BAM's are written to one of a set of
+    // spill BAMs chosen by a hash of the read ID, and then each ref and new pair of spill BAMs is compared once all partitions
+    // are complete, so that only one bucket's reads are held in memory at a time
+    private final CompareConfig mConfig;
+    private final File mSpillDir;
+
+    private final SAMFileWriter[] mRefWriters;
+    private final SAMFileWriter[] mNewWriters;
+
+    private final Statistics mStats;
+
+    public ReadSpill(final CompareConfig config, final File spillDir, final SAMFileHeader refHeader, final SAMFileHeader newHeader)
+    {
+        mConfig = config;
+        mSpillDir = spillDir;
+
+        mRefWriters = new SAMFileWriter[mConfig.SpillBuckets];
+        mNewWriters = new SAMFileWriter[mConfig.SpillBuckets];
+
+        for(int i = 0; i < mConfig.SpillBuckets; ++i)
+        {
+            mRefWriters[i] = createWriter(refHeader, spillFile(true, i));
+            mNewWriters[i] = createWriter(newHeader, spillFile(false, i));
+        }
+
+        mStats = new Statistics();
+    }
+
+    public static boolean spillRead(final SAMRecord read)
+    {
+        return read.getReadUnmappedFlag() || read.getSupplementaryAlignmentFlag();
+    }
+
+    public Statistics stats() { return mStats; }
+
+    public void addRead(final SAMRecord read, boolean isRef)
+    {
+        SAMFileWriter writer = (isRef ? mRefWriters : mNewWriters)[bucketIndex(read)];
+
+        synchronized(writer)
+        {
+            writer.addAlignment(read);
+        }
+    }
+
+    public boolean compareReads(final ReadWriter readWriter)
+    {
+        for(int i = 0; i < mConfig.SpillBuckets; ++i)
+        {
+            mRefWriters[i].close();
+            mNewWriters[i].close();
+        }
+
+        List<BucketTask> bucketTasks = Lists.newArrayList();
+
+        for(int i = 0; i < mConfig.SpillBuckets; ++i)
+        {
+            bucketTasks.add(new BucketTask(i, readWriter));
+        }
+
+        List<Callable> callableList = bucketTasks.stream().collect(Collectors.toList());
+
+        if(!executeTasks(callableList, mConfig.Threads))
+            return false;
+
+        bucketTasks.forEach(x -> mStats.merge(x.stats()));
+
+        if(!mSpillDir.delete())
+        {
+            BT_LOGGER.warn("failed to remove spill directory({})", mSpillDir);
+        }
+
+        return true;
+    }
+
+    private int bucketIndex(final SAMRecord read)
+    {
+        return Math.floorMod(read.getReadName().hashCode(), mRefWriters.length);
+    }
+
+    private File spillFile(boolean isRef, int bucket)
+    {
+        return new File(mSpillDir, format("%s_%03d.bam", isRef ? "ref" : "new", bucket));
+    }
+
+    private static SAMFileWriter createWriter(final SAMFileHeader header, final File spillFile)
+    {
+        SAMFileHeader spillHeader = header.clone();
+        spillHeader.setSortOrder(SAMFileHeader.SortOrder.unsorted);
+        return new SAMFileWriterFactory().makeBAMWriter(spillHeader, true, spillFile);
+    }
+
+    private class BucketTask implements Callable
+    {
+        private final int mBucket;
+        private final ReadWriter mReadWriter;
+        private final Statistics mBucketStats;
+
+        public BucketTask(int bucket, final ReadWriter readWriter)
+        {
+            mBucket = bucket;
+            mReadWriter = readWriter;
+            mBucketStats = new Statistics();
+        }
+
+        public Statistics stats() { return mBucketStats; }
+
+        @Override
+        public Long call() throws IOException
+        {
+            File refFile = spillFile(true, mBucket);
+            File newFile = spillFile(false, mBucket);
+
+            Map<String,List<SAMRecord>> refReads = Maps.newHashMap();
+
+            try(SamReader refReader = openSpillFile(refFile))
+            {
+                for(SAMRecord read : refReader)
+                {
+                    refReads.computeIfAbsent(readKey(read), k -> Lists.newArrayListWithExpectedSize(1)).add(read);
+                }
+            }
+
+            try(SamReader newReader = openSpillFile(newFile))
+            {
+                for(SAMRecord newRead : newReader)
+                {
+                    String readKey = readKey(newRead);
+                    List<SAMRecord> candidates = refReads.get(readKey);
+
+                    if(candidates == null)
+                    {
+                        mReadWriter.writeComparison(newRead, NEW_ONLY, null);
+                        ++mBucketStats.DiffCount;
+                        continue;
+                    }
+
+                    SAMRecord refRead = candidates.remove(matchingIndex(candidates, newRead));
+
+                    if(candidates.isEmpty())
+                        refReads.remove(readKey);
+
+                    List<String> diffs = compareReadDetails(refRead, newRead, mConfig);
+
+                    if(diffs != null)
+                    {
+                        mReadWriter.writeComparison(refRead, VALUE, diffs);
+                        ++mBucketStats.DiffCount;
+                    }
+                }
+            }
+
+            for(List<SAMRecord> unmatchedReads : refReads.values())
+            {
+                unmatchedReads.forEach(x -> mReadWriter.writeComparison(x, REF_ONLY, null));
+                mBucketStats.DiffCount += unmatchedReads.size();
+            }
+
+            if(!refFile.delete() || !newFile.delete())
+            {
+                BT_LOGGER.warn("failed to remove spill files for bucket({})", mBucket);
+            }
+
+            return (long)0;
+        }
+
+        private int matchingIndex(final List<SAMRecord> candidates, final SAMRecord newRead)
+        {
+            // a read can have more than one supplementary, so prefer one at the same location
+            for(int i = 0; i < candidates.size(); ++i)
+            {
+                SAMRecord refRead = candidates.get(i);
+
+                if(refRead.getAlignmentStart() == newRead.getAlignmentStart()
+                && refRead.getReferenceName().equals(newRead.getReferenceName()))
+                {
+                    return i;
+                }
+            }
+
+            return 0;
+        }
+
+        private SamReader openSpillFile(final File spillFile)
+        {
+            return SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).open(spillFile);
+        }
+    }
+}
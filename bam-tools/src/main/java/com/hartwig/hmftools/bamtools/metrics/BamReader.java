@@ -104,7 +104,7 @@ public class BamReader
         mCombinedStats.addStats(metrics, mFragmentLengths, mReadCounts, mFlagStats, mTargetRegions, mPerfCounter);
     }
 
-    private void processSamRecord(final SAMRecord read)
+    void processSamRecord(final SAMRecord read)
     {
         int readStart = read.getAlignmentStart();
 
@@ -100,11 +100,17 @@ public class MetricsConfig
     private static final int DEFAULT_MAX_COVERAGE = 250;
 
     public MetricsConfig(final ConfigBuilder configBuilder)
+    {
+        this(configBuilder, configBuilder.getValue(SAMPLE), configBuilder.getValue(BAM_FILE));
+    }
+
+    // for metrics captured in a BAM pass shared with other tools, which supply the sample and its BAM
+    public MetricsConfig(final ConfigBuilder configBuilder, final String sampleId, final String bamFile)
     {
         mIsValid = true;
 
-        SampleId =  configBuilder.getValue(SAMPLE);
-        BamFile =  configBuilder.getValue(BAM_FILE);
+        SampleId = sampleId;
+        BamFile = bamFile;
         RefGenomeFile =  configBuilder.getValue(REF_GENOME);
 
         if(configBuilder.hasValue(OUTPUT_DIR))
@@ -194,13 +200,19 @@ public class MetricsConfig
     }
 
     public static void addConfig(final ConfigBuilder configBuilder)
+    {
+        configBuilder.addPath(BAM_FILE, true, BAM_FILE_DESC);
+        configBuilder.addConfigItem(SAMPLE, SAMPLE_DESC);
+
+        addMetricsConfig(configBuilder);
+    }
+
+    public static void addMetricsConfig(final ConfigBuilder configBuilder)
     {
         addRefGenomeFile(configBuilder, true);
         addRefGenomeVersion(configBuilder);
 
         addSpecificChromosomesRegionsConfig(configBuilder);
-        configBuilder.addPath(BAM_FILE, true, BAM_FILE_DESC);
-        configBuilder.addConfigItem(SAMPLE, SAMPLE_DESC);
 
         configBuilder.addPath(
                 REGIONS_FILE, false,
@@ -0,0 +1,73 @@
+package com.hartwig.hmftools.bamtools.metrics;
+
+import static com.hartwig.hmftools.bamtools.common.CommonUtils.BT_LOGGER;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+
+import htsjdk.samtools.SAMRecord;
+
+public class MetricsConsumer implements BamRecordConsumer
+{
+    // captures BAM metrics in a pass shared with other tools, with a reader per partition as in the standalone metrics, so the
+    // partitions should be of the configured partition size
+    private final MetricsConfig mConfig;
+    private final CombinedStats mCombinedStats;
+    private final Map<ChrBaseRegion,BamReader> mPartitionReaders;
+
+    public MetricsConsumer(final MetricsConfig config)
+    {
+        mConfig = config;
+        mCombinedStats = new CombinedStats(mConfig.MaxCoverage);
+        mPartitionReaders = new ConcurrentHashMap<>();
+    }
+
+    public CombinedStats combinedStats() { return mCombinedStats; }
+
+    // the metrics count filtered reads, so take all records from the BAM
+    @Override
+    public int minMappingQuality() { return 0; }
+
+    @Override
+    public boolean keepDuplicates() { return true; }
+
+    @Override
+    public boolean keepSupplementaries() { return true; }
+
+    @Override
+    public boolean keepSecondaries() { return true; }
+
+    @Override
+    public boolean keepUnmapped() { return true; }
+
+    @Override
+    public void processRecord(final ChrBaseRegion partition, final SAMRecord record)
+    {
+        partitionReader(partition).processSamRecord(record);
+    }
+
+    @Override
+    public void partitionComplete(final ChrBaseRegion partition)
+    {
+        // partitions without reads still contribute their bases to the coverage
+        partitionReader(partition).postSliceProcess();
+        mPartitionReaders.remove(partition);
+    }
+
+    private BamReader partitionReader(final ChrBaseRegion partition)
+    {
+        return mPartitionReaders.computeIfAbsent(partition, x -> new BamReader(x, mConfig, null, null, mCombinedStats));
+    }
+
+    public void writeResults()
+    {
+        mCombinedStats.coverageMetrics().finalise(mConfig.ExcludeZeroCoverage);
+        MetricsWriter.writeResults(mCombinedStats, mConfig);
+
+        BT_LOGGER.info("sample({}) totalReads({}) stats: {}",
+                mConfig.SampleId, mCombinedStats.readCounts().TotalReads, mCombinedStats.coverageMetrics());
+    }
+}
@@ -0,0 +1,99 @@
+package com.hartwig.hmftools.bamtools.compare;
+
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.common.test.SamRecordTestUtils.SAM_DICTIONARY_V37;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.test.MockRefGenome;
+import com.hartwig.hmftools.common.test.SamRecordTestUtils;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+
+public class CompareTest
+{
+    private static final String READ_BASES = MockRefGenome.generateRandomBases(20);
+    private static final String READ_CIGAR = "20M";
+
+    @Test
+    public void testLockstepComparison() throws IOException
+    {
+        File testDir = Files.createTempDirectory("bam_compare_test").toFile();
+        File outputFile = new File(testDir, "compare.tsv");
+        File spillDir = new File(testDir, "spill");
+        assertTrue(spillDir.mkdir());
+
+        CompareConfig config = new CompareConfig(outputFile.getPath());
+        ReadWriter readWriter = new ReadWriter(config);
+
+        SAMFileHeader header = new SAMFileHeader(SAM_DICTIONARY_V37);
+        ReadSpill readSpill = new ReadSpill(config, spillDir, header, header);
+
+        PartitionReader partitionReader = new PartitionReader(
+                new ChrBaseRegion(CHR_1, 1, 1000), config, null, null, null, readWriter, readSpill);
+
+        List<SAMRecord> refReads = Lists.newArrayList(
+                createRead("READ_01", 100), createRead("READ_02", 100), createRead("READ_03", 200),
+                createSupplementary("READ_05", 300), createUnmapped("READ_06", 500));
+
+        SAMRecord mapQualDiffRead = createRead("READ_03", 200);
+        mapQualDiffRead.setMappingQuality(30);
+
+        List<SAMRecord> newReads = Lists.newArrayList(
+                createRead("READ_01", 100), mapQualDiffRead, createRead("READ_04", 250),
+                createSupplementary("READ_05", 400), createUnmapped("READ_06", 500));
+
+        partitionReader.compareReads(refReads.iterator(), newReads.iterator());
+
+        // a ref-only read, a new-only read and a map-qual difference
+        assertEquals(5, partitionReader.stats().RefReadCount);
+        assertEquals(5, partitionReader.stats().NewReadCount);
+        assertEquals(3, partitionReader.stats().DiffCount);
+
+        // the supplementary is matched by read ID despite having moved
+        assertTrue(readSpill.compareReads(readWriter));
+        assertEquals(1, readSpill.stats().DiffCount);
+        assertTrue(!spillDir.exists());
+
+        readWriter.close();
+
+        List<String> diffTypes = Files.readAllLines(outputFile.toPath()).stream()
+                .skip(1).map(x -> x.split("\t")[0] + ":" + x.split("\t")[3]).sorted().collect(Collectors.toList());
+
+        assertEquals(List.of("READ_02:REF_ONLY", "READ_03:VALUE", "READ_04:NEW_ONLY", "READ_05:VALUE"), diffTypes);
+
+        outputFile.delete();
+        testDir.delete();
+    }
+
+    private static SAMRecord createRead(final String readId, int readStart)
+    {
+        return SamRecordTestUtils.createSamRecord(
+                readId, CHR_1, readStart, READ_BASES, READ_CIGAR, CHR_1, readStart + 300, false, false, null);
+    }
+
+    private static SAMRecord createSupplementary(final String readId, int readStart)
+    {
+        return SamRecordTestUtils.createSamRecord(
+                readId, CHR_1, readStart, READ_BASES, READ_CIGAR, CHR_1, 800, false, true, null);
+    }
+
+    private static SAMRecord createUnmapped(final String readId, int mateStart)
+    {
+        SAMRecord read = createRead(readId, mateStart);
+        read.setReadUnmappedFlag(true);
+        return read;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1_LENGTH;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.createTempDirectory;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.deleteDirectory;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.randomBases;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.samHeader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamSlicer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BamSlicerBenchmark
+{
+    // slices a synthetic indexed BAM, measuring record decoding, filtering and the consumer callback
+    private static final int READ_COUNT = 200_000;
+    private static final int READ_LENGTH = 151;
+
+    private static final ChrBaseRegion SLICE_REGION = new ChrBaseRegion(CHR_1, 500_000, 1_500_000);
+
+    private File mTempDir;
+    private SamReader mSamReader;
+    private BamSlicer mBamSlicer;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        mTempDir = createTempDirectory();
+        File bamFile = new File(mTempDir, "benchmark.bam");
+
+        Random random = new Random(RANDOM_SEED);
+        SAMFileHeader header = samHeader();
+        String readBases = randomBases(random, READ_LENGTH);
+        byte[] baseQuals = new byte[READ_LENGTH];
+        Arrays.fill(baseQuals, (byte)37);
+
+        int positionStep = (CHR_1_LENGTH - READ_LENGTH) / READ_COUNT;
+
+        try(SAMFileWriter writer = new SAMFileWriterFactory().setCreateIndex(true).makeBAMWriter(header, true, bamFile))
+        {
+            for(int i = 0; i < READ_COUNT; ++i)
+            {
+                SAMRecord record = new SAMRecord(header);
+                record.setReadName(String.format("READ_%06d", i));
+                record.setReferenceName(CHR_1);
+                record.setAlignmentStart(1 + i * positionStep + random.nextInt(positionStep));
+                record.setCigarString(READ_LENGTH + "M");
+                record.setReadString(readBases);
+                record.setBaseQualities(baseQuals);
+                record.setMappingQuality(random.nextInt(10) == 0 ? 0 : 60);
+                record.setDuplicateReadFlag(random.nextInt(20) == 0);
+                writer.addAlignment(record);
+            }
+        }
+
+        mSamReader = SamReaderFactory.makeDefault().open(bamFile);
+        mBamSlicer = new BamSlicer(1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        mSamReader.close();
+        deleteDirectory(mTempDir);
+    }
+
+    @Benchmark
+    public long sliceWithConsumer()
+    {
+        long[] baseCount = { 0 };
+        mBamSlicer.slice(mSamReader, SLICE_REGION, record -> baseCount[0] += record.getReadLength());
+        return baseCount[0];
+    }
+
+    @Benchmark
+    public List<SAMRecord> sliceToList()
+    {
+        return mBamSlicer.slice(mSamReader, SLICE_REGION);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hartwig.hmftools.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+
+public final class BenchmarkFixtures
+{
+    // synthetic inputs shared by the benchmarks, seeded so each run sees the same data
+    public static final String CHR_1 = "1";
+    public static final int CHR_1_LENGTH = 2_000_000;
+
+    public static final long RANDOM_SEED = 42;
+
+    private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+
+    public static String randomBases(final Random random, int length)
+    {
+        StringBuilder sb = new StringBuilder(length);
+
+        for(int i = 0; i < length; ++i)
+        {
+            sb.append(BASES[random.nextInt(BASES.length)]);
+        }
+
+        return sb.toString();
+    }
+
+    public static String mutateBases(final Random random, final String bases, int mutationCount)
+    {
+        char[] mutated = bases.toCharArray();
+
+        for(int i = 0; i < mutationCount; ++i)
+        {
+            int index = random.nextInt(mutated.length);
+            mutated[index] = BASES[(random.nextInt(BASES.length - 1) + indexOf(mutated[index]) + 1) % BASES.length];
+        }
+
+        return new String(mutated);
+    }
+
+    private static int indexOf(char base)
+    {
+        for(int i = 0; i < BASES.length; ++i)
+        {
+            if(BASES[i] == base)
+                return i;
+        }
+
+        return 0;
+    }
+
+    public static SAMSequenceDictionary sequenceDictionary()
+    {
+        SAMSequenceDictionary dictionary = new SAMSequenceDictionary();
+        dictionary.addSequence(new SAMSequenceRecord(CHR_1, CHR_1_LENGTH));
+        return dictionary;
+    }
+
+    public static SAMFileHeader samHeader()
+    {
+        SAMFileHeader header = new SAMFileHeader(sequenceDictionary());
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        return header;
+    }
+
+    public static File createTempDirectory() throws IOException
+    {
+        File directory = Files.createTempDirectory("hmftools_benchmarks").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    public static void deleteDirectory(final File directory)
+    {
+        File[] files = directory.listFiles();
+
+        if(files != null)
+        {
+            for(File file : files)
+            {
+                file.delete();
+            }
+        }
+
+        directory.delete();
+    }
+}
@@ -0,0 +1,46 @@
+package com.hartwig.hmftools.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner
+{
+    // takes JMH's standard command-line options, writing results as JSON by default so they can be compared between commits
+    private static final String DEFAULT_RESULTS_FILE = "hmftools_benchmarks.json";
+
+    public static void main(final String[] args) throws CommandLineOptionException, IOException, RunnerException
+    {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        if(commandLineOptions.shouldHelp())
+        {
+            commandLineOptions.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().parent(commandLineOptions);
+
+        if(!commandLineOptions.getResultFormat().hasValue())
+            optionsBuilder.resultFormat(ResultFormatType.JSON);
+
+        if(!commandLineOptions.getResult().hasValue())
+            optionsBuilder.result(DEFAULT_RESULTS_FILE);
+
+        Runner runner = new Runner(optionsBuilder.build());
+
+        if(commandLineOptions.shouldList())
+        {
+            runner.list();
+            return;
+        }
+
+        runner.run();
+    }
+}
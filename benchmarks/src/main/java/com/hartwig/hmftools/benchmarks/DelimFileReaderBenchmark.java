@@ -0,0 +1,152 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.createTempDirectory;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.deleteDirectory;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.randomBases;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.hartwig.hmftools.common.utils.file.ColumnarDelimFileReader;
+import com.hartwig.hmftools.common.utils.file.ColumnarDelimFileReader.ColumnType;
+import com.hartwig.hmftools.common.utils.file.DelimFileReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DelimFileReaderBenchmark
+{
+    // reads and parses a synthetic variant-style TSV, plain and gzipped
+    private static final int ROW_COUNT = 200_000;
+
+    private enum Column
+    {
+        chromosome,
+        position,
+        ref,
+        alt,
+        qual,
+        depth,
+        filter
+    }
+
+    @Param({ "tsv", "tsv.gz" })
+    public String FileExtension;
+
+    private File mTempDir;
+    private String mFilename;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        mTempDir = createTempDirectory();
+        mFilename = new File(mTempDir, "benchmark." + FileExtension).getPath();
+
+        Random random = new Random(RANDOM_SEED);
+
+        try(BufferedWriter writer = createBufferedWriter(mFilename))
+        {
+            StringBuilder header = new StringBuilder();
+
+            for(Column column : Column.values())
+            {
+                if(header.length() > 0)
+                    header.append('\t');
+
+                header.append(column.name());
+            }
+
+            writer.write(header.toString());
+            writer.newLine();
+
+            for(int i = 0; i < ROW_COUNT; ++i)
+            {
+                writer.write(String.format("%s\t%d\t%s\t%s\t%.2f\t%d\t%s",
+                        CHR_1, 1000 + i * 10, randomBases(random, 1), randomBases(random, 1 + random.nextInt(3)),
+                        random.nextDouble() * 100, random.nextInt(200), random.nextInt(5) == 0 ? "minTumorQual" : "PASS"));
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        deleteDirectory(mTempDir);
+    }
+
+    @Benchmark
+    public double readRows()
+    {
+        double total = 0;
+
+        try(DelimFileReader reader = new DelimFileReader(mFilename))
+        {
+            for(DelimFileReader.Row row : reader)
+            {
+                if(!row.get(Column.filter).equals("PASS"))
+                    continue;
+
+                total += row.getInt(Column.position) + row.getDouble(Column.qual) + row.getInt(Column.depth)
+                        + row.get(Column.alt).length();
+            }
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public double readColumns()
+    {
+        double total = 0;
+
+        try(ColumnarDelimFileReader reader = new ColumnarDelimFileReader(mFilename))
+        {
+            reader.addColumn(Column.position, ColumnType.INT);
+            reader.addColumn(Column.qual, ColumnType.DOUBLE);
+            reader.addColumn(Column.depth, ColumnType.INT);
+            reader.addColumn(Column.alt, ColumnType.STRING);
+            reader.addColumn(Column.filter, ColumnType.CATEGORY);
+
+            ColumnarDelimFileReader.Columns columns = reader.read();
+
+            int[] positions = columns.getInts(Column.position);
+            double[] quals = columns.getDoubles(Column.qual);
+            int[] depths = columns.getInts(Column.depth);
+            String[] alts = columns.getStrings(Column.alt);
+            String[] filters = columns.getStrings(Column.filter);
+
+            for(int i = 0; i < columns.rowCount(); ++i)
+            {
+                if(!filters[i].equals("PASS"))
+                    continue;
+
+                total += positions[i] + quals[i] + depths[i] + alts[i].length();
+            }
+        }
+
+        return total;
+    }
+}
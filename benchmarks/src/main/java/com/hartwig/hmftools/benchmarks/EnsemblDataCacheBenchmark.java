@@ -0,0 +1,139 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.addGeneData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.addTransExonData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createEnsemblGeneData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createGeneDataCache;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createTransExons;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.generateExonStarts;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.gene.GeneData;
+import com.hartwig.hmftools.common.gene.TranscriptData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnsemblDataCacheBenchmark
+{
+    // gene and exon lookups against a chromosome densely populated with overlapping synthetic genes
+    private static final int GENE_COUNT = 5000;
+    private static final int GENE_SPACING = 20_000;
+    private static final int EXON_COUNT = 10;
+    private static final int EXON_LENGTH = 150;
+    private static final int INTRON_LENGTH = 2000;
+
+    private static final int QUERY_COUNT = 1000;
+    private static final int UPSTREAM_DISTANCE = 10_000;
+
+    private EnsemblDataCache mEnsemblDataCache;
+    private int[] mQueryPositions;
+    private String[] mQueryGeneIds;
+    private int[] mQueryGenePositions;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(RANDOM_SEED);
+        mEnsemblDataCache = createGeneDataCache();
+
+        List<GeneData> geneDataList = Lists.newArrayList();
+        int transId = 0;
+
+        for(int i = 0; i < GENE_COUNT; ++i)
+        {
+            String geneId = String.format("ENSG%06d", i);
+            byte strand = (byte)(random.nextBoolean() ? 1 : -1);
+            int geneStart = 10_000 + i * GENE_SPACING + random.nextInt(GENE_SPACING / 2);
+
+            List<TranscriptData> transDataList = Lists.newArrayList();
+            int geneEnd = geneStart;
+
+            for(int t = 0; t < 3; ++t)
+            {
+                int[] exonStarts = generateExonStarts(geneStart + t * 100, EXON_COUNT - t, EXON_LENGTH, INTRON_LENGTH);
+                int codingStart = exonStarts[1] + 10;
+                int codingEnd = exonStarts[exonStarts.length - 2] + 10;
+
+                TranscriptData transData = createTransExons(
+                        geneId, transId++, strand, exonStarts, EXON_LENGTH, codingStart, codingEnd, t == 0, "");
+
+                transDataList.add(transData);
+                geneEnd = Math.max(geneEnd, transData.TransEnd);
+            }
+
+            geneDataList.add(createEnsemblGeneData(geneId, "GENE_" + i, CHR_1, strand, geneStart, geneEnd));
+            addTransExonData(mEnsemblDataCache, geneId, transDataList);
+        }
+
+        addGeneData(mEnsemblDataCache, CHR_1, geneDataList);
+        mEnsemblDataCache.createGeneIdDataMap();
+
+        int chromosomeEnd = 10_000 + GENE_COUNT * GENE_SPACING;
+        mQueryPositions = new int[QUERY_COUNT];
+        mQueryGeneIds = new String[QUERY_COUNT];
+        mQueryGenePositions = new int[QUERY_COUNT];
+
+        for(int i = 0; i < QUERY_COUNT; ++i)
+        {
+            mQueryPositions[i] = random.nextInt(chromosomeEnd);
+
+            GeneData geneData = geneDataList.get(random.nextInt(GENE_COUNT));
+            mQueryGeneIds[i] = geneData.GeneId;
+            mQueryGenePositions[i] = geneData.GeneStart + random.nextInt(geneData.GeneEnd - geneData.GeneStart);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public void findGeneRegions(final Blackhole blackhole)
+    {
+        for(int position : mQueryPositions)
+        {
+            blackhole.consume(mEnsemblDataCache.findGeneRegions(CHR_1, position, UPSTREAM_DISTANCE));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public void findGenesByRegion(final Blackhole blackhole)
+    {
+        for(int position : mQueryPositions)
+        {
+            blackhole.consume(mEnsemblDataCache.findGenesByRegion(CHR_1, position, position + 100_000));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public void getExonRankings(final Blackhole blackhole)
+    {
+        for(int i = 0; i < QUERY_COUNT; ++i)
+        {
+            blackhole.consume(mEnsemblDataCache.getExonRankings(mQueryGeneIds[i], mQueryGenePositions[i]));
+        }
+    }
+}
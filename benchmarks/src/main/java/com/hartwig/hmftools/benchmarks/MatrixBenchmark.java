@@ -0,0 +1,107 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.hartwig.hmftools.common.sigs.ExpectationMaxFit;
+import com.hartwig.hmftools.common.utils.Matrix;
+import com.hartwig.hmftools.common.utils.MatrixUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark
+{
+    // matrix sizes typical of signature fitting: 96 SNV contexts, 60 signatures and 500 samples
+    private static final int BUCKET_COUNT = 96;
+    private static final int SIGNATURE_COUNT = 60;
+    private static final int SAMPLE_COUNT = 500;
+
+    private Matrix mSignatures;
+    private Matrix mContributions;
+    private Matrix mProduct;
+    private double[] mSampleCounts;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(RANDOM_SEED);
+
+        mSignatures = new Matrix(BUCKET_COUNT, SIGNATURE_COUNT);
+
+        for(int s = 0; s < SIGNATURE_COUNT; ++s)
+        {
+            double[] signature = new double[BUCKET_COUNT];
+            double total = 0;
+
+            for(int b = 0; b < BUCKET_COUNT; ++b)
+            {
+                signature[b] = random.nextDouble();
+                total += signature[b];
+            }
+
+            for(int b = 0; b < BUCKET_COUNT; ++b)
+            {
+                mSignatures.set(b, s, signature[b] / total);
+            }
+        }
+
+        mSignatures.cacheTranspose();
+
+        mContributions = new Matrix(SIGNATURE_COUNT, SAMPLE_COUNT);
+
+        for(int s = 0; s < SIGNATURE_COUNT; ++s)
+        {
+            for(int i = 0; i < SAMPLE_COUNT; ++i)
+            {
+                mContributions.set(s, i, random.nextInt(10) == 0 ? random.nextInt(1000) : 0);
+            }
+        }
+
+        mProduct = new Matrix(BUCKET_COUNT, SAMPLE_COUNT);
+
+        // a sample built from a few signatures plus noise
+        mSampleCounts = new double[BUCKET_COUNT];
+
+        for(int b = 0; b < BUCKET_COUNT; ++b)
+        {
+            mSampleCounts[b] = 500 * mSignatures.get(b, 0) + 300 * mSignatures.get(b, 5) + 200 * mSignatures.get(b, 12)
+                    + random.nextInt(3);
+        }
+    }
+
+    @Benchmark
+    public Matrix multiply()
+    {
+        MatrixUtils.multiply(mSignatures, mContributions, mProduct, true);
+        return mProduct;
+    }
+
+    @Benchmark
+    public Matrix transpose()
+    {
+        return mContributions.transpose();
+    }
+
+    @Benchmark
+    public double[] expectationMaxFit()
+    {
+        return ExpectationMaxFit.performFit(mSampleCounts, mSignatures);
+    }
+}
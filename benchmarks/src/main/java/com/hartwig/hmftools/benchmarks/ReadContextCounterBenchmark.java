@@ -0,0 +1,110 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.mutateBases;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.randomBases;
+import static com.hartwig.hmftools.sage.common.TestUtils.RECALIBRATION;
+import static com.hartwig.hmftools.sage.common.TestUtils.TEST_CONFIG;
+import static com.hartwig.hmftools.sage.common.TestUtils.createReadContext;
+import static com.hartwig.hmftools.sage.common.TestUtils.createSamRecord;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.sage.common.IndexedBases;
+import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.SimpleVariant;
+import com.hartwig.hmftools.sage.common.VariantTier;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounter;
+import com.hartwig.hmftools.sage.quality.QualityCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import htsjdk.samtools.SAMRecord;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadContextCounterBenchmark
+{
+    // matches reads covering an SNV against its read context: a mix of alt-supporting, ref and noisy reads
+    private static final int REF_LENGTH = 2000;
+    private static final int VARIANT_POSITION = 1000;
+    private static final int READ_LENGTH = 151;
+    private static final int READ_COUNT = 1000;
+    private static final int READ_CONTEXT_FLANK = 12;
+
+    private static final int MAX_COVERAGE = 1_000_000;
+
+    private SimpleVariant mVariant;
+    private ReadContext mReadContext;
+    private QualityCalculator mQualityCalculator;
+    private List<SAMRecord> mReads;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(RANDOM_SEED);
+        String refBases = randomBases(random, REF_LENGTH);
+
+        // positions are 1-based, so the ref base at a position is at index position - 1
+        int variantIndex = VARIANT_POSITION - 1;
+        String refBase = refBases.substring(variantIndex, variantIndex + 1);
+        String altBase = mutateBases(random, refBase, 1);
+        String altBases = refBases.substring(0, variantIndex) + altBase + refBases.substring(variantIndex + 1);
+
+        mVariant = new SimpleVariant(CHR_1, VARIANT_POSITION, refBase, altBase);
+
+        String readContextBases = altBases.substring(variantIndex - READ_CONTEXT_FLANK, variantIndex + READ_CONTEXT_FLANK + 1);
+
+        mReadContext = createReadContext(
+                VARIANT_POSITION, READ_CONTEXT_FLANK, READ_CONTEXT_FLANK - 2, READ_CONTEXT_FLANK + 2, readContextBases, "");
+
+        mQualityCalculator = new QualityCalculator(TEST_CONFIG, RECALIBRATION, new IndexedBases(1, 0, refBases.getBytes()));
+
+        mReads = Lists.newArrayListWithCapacity(READ_COUNT);
+
+        for(int i = 0; i < READ_COUNT; ++i)
+        {
+            int readStart = VARIANT_POSITION - READ_LENGTH + 10 + random.nextInt(READ_LENGTH - 20);
+            String sourceBases = i % 3 == 0 ? refBases : altBases;
+            String readBases = sourceBases.substring(readStart - 1, readStart - 1 + READ_LENGTH);
+
+            if(i % 5 == 0)
+                readBases = mutateBases(random, readBases, 3);
+
+            mReads.add(createSamRecord(String.format("READ_%04d", i), CHR_1, readStart, readBases, READ_LENGTH + "M"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READ_COUNT)
+    public int processReads()
+    {
+        ReadContextCounter readContextCounter = new ReadContextCounter(
+                1, mVariant, mReadContext, VariantTier.PANEL, MAX_COVERAGE, 0, TEST_CONFIG, mQualityCalculator, null);
+
+        for(SAMRecord read : mReads)
+        {
+            readContextCounter.processRead(read, 1, null);
+        }
+
+        return readContextCounter.altSupport();
+    }
+}
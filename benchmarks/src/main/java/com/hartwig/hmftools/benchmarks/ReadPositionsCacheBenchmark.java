@@ -0,0 +1,98 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.randomBases;
+import static com.hartwig.hmftools.common.test.SamRecordTestUtils.createSamRecord;
+import static com.hartwig.hmftools.markdups.common.Constants.DEFAULT_POS_BUFFER_SIZE;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.markdups.ReadPositionsCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import htsjdk.samtools.SAMRecord;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadPositionsCacheBenchmark
+{
+    // inserts coordinate-sorted read pairs into the positions cache, with some fragments duplicated, and evicts them as groups
+    private static final int FRAGMENT_COUNT = 50_000;
+    private static final int READ_LENGTH = 151;
+    private static final String READ_CIGAR = READ_LENGTH + "M";
+    private static final int INSERT_SIZE = 350;
+
+    private List<SAMRecord> mReads;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(RANDOM_SEED);
+        String readBases = randomBases(random, READ_LENGTH);
+
+        mReads = Lists.newArrayListWithCapacity(FRAGMENT_COUNT * 2);
+
+        int fragmentStart = 10_000;
+
+        for(int i = 0; i < FRAGMENT_COUNT; ++i)
+        {
+            // roughly one in five fragments is a duplicate of the previous one
+            if(random.nextInt(5) != 0)
+                fragmentStart += 1 + random.nextInt(20);
+
+            int mateStart = fragmentStart + INSERT_SIZE - READ_LENGTH;
+            String readId = String.format("READ_%06d", i);
+
+            mReads.add(createSamRecord(
+                    readId, CHR_1, fragmentStart, readBases, READ_CIGAR, CHR_1, mateStart, false, false, null, true, READ_CIGAR));
+
+            SAMRecord mate = createSamRecord(
+                    readId, CHR_1, mateStart, readBases, READ_CIGAR, CHR_1, fragmentStart, true, false, null, false, READ_CIGAR);
+            mate.setFirstOfPairFlag(false);
+            mate.setSecondOfPairFlag(true);
+            mReads.add(mate);
+        }
+
+        mReads.sort(Comparator.comparingInt(SAMRecord::getAlignmentStart));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAGMENT_COUNT * 2)
+    public int processReads()
+    {
+        int[] fragmentCount = { 0 };
+
+        ReadPositionsCache readPositionsCache = new ReadPositionsCache(
+                DEFAULT_POS_BUFFER_SIZE, true, fragments -> fragmentCount[0] += fragments.size());
+
+        readPositionsCache.setCurrentChromosome(CHR_1);
+
+        for(SAMRecord read : mReads)
+        {
+            readPositionsCache.processRead(read);
+        }
+
+        readPositionsCache.evictAll();
+        return fragmentCount[0];
+    }
+}
@@ -0,0 +1,58 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.mutateBases;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.randomBases;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.hartwig.hmftools.common.aligner.LocalSequenceAligner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceAlignerBenchmark
+{
+    // aligns a read-length sequence against a mutated copy of itself, with an insertion to force gapped alignment
+    @Param({ "50", "150" })
+    public int SequenceLength;
+
+    private LocalSequenceAligner mAligner;
+    private String mSequence1;
+    private String mSequence2;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(RANDOM_SEED);
+        mAligner = new LocalSequenceAligner();
+
+        mSequence1 = randomBases(random, SequenceLength);
+
+        String mutated = mutateBases(random, mSequence1, SequenceLength / 20);
+        int insertIndex = SequenceLength / 2;
+        mSequence2 = mutated.substring(0, insertIndex) + randomBases(random, 3) + mutated.substring(insertIndex);
+    }
+
+    @Benchmark
+    public LocalSequenceAligner.Alignment alignSequence()
+    {
+        return mAligner.alignSequence(mSequence1, mSequence2);
+    }
+}
@@ -0,0 +1,212 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.CHR_1_LENGTH;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.RANDOM_SEED;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.createTempDirectory;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.deleteDirectory;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.randomBases;
+import static com.hartwig.hmftools.benchmarks.BenchmarkFixtures.sequenceDictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.variant.ParallelVcfIterator;
+import com.hartwig.hmftools.common.variant.VcfFieldProjection;
+import com.hartwig.hmftools.common.variant.VcfFileReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFFormatHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFHeaderLineCount;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import htsjdk.variant.vcf.VCFStandardHeaderLines;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VcfFileReaderBenchmark
+{
+    // reads a synthetic tumor-normal VCF with an index, decoding INFO and genotype fields as a somatic annotator would
+    private static final int VARIANT_COUNT = 100_000;
+    private static final String REFERENCE_ID = "REFERENCE";
+    private static final String TUMOR_ID = "TUMOR";
+    private static final String TIER_INFO = "TIER";
+    private static final String QUAL_INFO = "QUAL_SCORE";
+    private static final int PARALLEL_THREADS = 4;
+
+    private File mTempDir;
+    private String mFilename;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        mTempDir = createTempDirectory();
+        mFilename = new File(mTempDir, "benchmark.vcf.gz").getPath();
+
+        Set<VCFHeaderLine> headerLines = Sets.newHashSet();
+        headerLines.add(new VCFInfoHeaderLine(TIER_INFO, 1, VCFHeaderLineType.String, "Tier"));
+        headerLines.add(new VCFInfoHeaderLine(QUAL_INFO, 1, VCFHeaderLineType.Float, "Quality"));
+        headerLines.add(VCFStandardHeaderLines.getFormatLine(VCFConstants.GENOTYPE_KEY));
+        headerLines.add(VCFStandardHeaderLines.getFormatLine(VCFConstants.GENOTYPE_ALLELE_DEPTHS));
+        headerLines.add(VCFStandardHeaderLines.getFormatLine(VCFConstants.DEPTH_KEY));
+        headerLines.add(new VCFFormatHeaderLine("AF", VCFHeaderLineCount.A, VCFHeaderLineType.Float, "Allele frequency"));
+
+        VCFHeader header = new VCFHeader(headerLines, Lists.newArrayList(REFERENCE_ID, TUMOR_ID));
+        header.setSequenceDictionary(sequenceDictionary());
+
+        Random random = new Random(RANDOM_SEED);
+        String refBases = randomBases(random, CHR_1_LENGTH);
+        int positionStep = (CHR_1_LENGTH - 100) / VARIANT_COUNT;
+
+        VariantContextWriter writer = new VariantContextWriterBuilder()
+                .setOutputFile(mFilename)
+                .setReferenceDictionary(sequenceDictionary())
+                .setOption(Options.INDEX_ON_THE_FLY)
+                .build();
+
+        writer.writeHeader(header);
+
+        for(int i = 0; i < VARIANT_COUNT; ++i)
+        {
+            int position = 1 + i * positionStep + random.nextInt(positionStep);
+            Allele refAllele = Allele.create(refBases.substring(position - 1, position), true);
+            Allele altAllele = Allele.create(randomBases(random, 1 + random.nextInt(2)), false);
+
+            if(altAllele.basesMatch(refAllele))
+                altAllele = Allele.create(refAllele.getBaseString() + "A", false);
+
+            List<Allele> alleles = Lists.newArrayList(refAllele, altAllele);
+
+            List<Genotype> genotypes = Lists.newArrayList();
+
+            for(String sampleId : new String[] { REFERENCE_ID, TUMOR_ID })
+            {
+                int depth = 20 + random.nextInt(100);
+                int altDepth = sampleId.equals(TUMOR_ID) ? random.nextInt(depth) : 0;
+
+                genotypes.add(new GenotypeBuilder(sampleId, alleles)
+                        .DP(depth).AD(new int[] { depth - altDepth, altDepth })
+                        .attribute("AF", altDepth / (double)depth).make());
+            }
+
+            writer.add(new VariantContextBuilder("benchmark", CHR_1, position, position, alleles)
+                    .attribute(TIER_INFO, random.nextBoolean() ? "PANEL" : "LOW_CONFIDENCE")
+                    .attribute(QUAL_INFO, random.nextDouble() * 1000)
+                    .genotypes(genotypes)
+                    .make());
+        }
+
+        writer.close();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        deleteDirectory(mTempDir);
+    }
+
+    @Benchmark
+    public double readAllVariants()
+    {
+        VcfFileReader reader = new VcfFileReader(mFilename);
+        reader.registerSampleNames(REFERENCE_ID, TUMOR_ID);
+
+        double total = 0;
+
+        for(VariantContext variant : reader.iterator())
+        {
+            Genotype tumorGenotype = variant.getGenotype(reader.tumorOrdinal());
+            total += variant.getAttributeAsDouble(QUAL_INFO, 0) + tumorGenotype.getAD()[1] + tumorGenotype.getDP();
+        }
+
+        reader.close();
+        return total;
+    }
+
+    @Benchmark
+    public double readProjectedVariants()
+    {
+        VcfFileReader reader = new VcfFileReader(
+                mFilename, false, new VcfFieldProjection(List.of(QUAL_INFO), List.of(TUMOR_ID)));
+
+        double total = 0;
+
+        for(VariantContext variant : reader.iterator())
+        {
+            Genotype tumorGenotype = variant.getGenotype(0);
+            total += variant.getAttributeAsDouble(QUAL_INFO, 0) + tumorGenotype.getAD()[1] + tumorGenotype.getDP();
+        }
+
+        reader.close();
+        return total;
+    }
+
+    @Benchmark
+    public double readVariantsParallel()
+    {
+        VcfFileReader reader = new VcfFileReader(mFilename);
+        reader.registerSampleNames(REFERENCE_ID, TUMOR_ID);
+
+        double total = 0;
+
+        try(ParallelVcfIterator iterator = reader.parallelIterator(PARALLEL_THREADS))
+        {
+            for(VariantContext variant : iterator)
+            {
+                Genotype tumorGenotype = variant.getGenotype(reader.tumorOrdinal());
+                total += variant.getAttributeAsDouble(QUAL_INFO, 0) + tumorGenotype.getAD()[1] + tumorGenotype.getDP();
+            }
+        }
+
+        reader.close();
+        return total;
+    }
+
+    @Benchmark
+    public int queryRegions()
+    {
+        VcfFileReader reader = new VcfFileReader(mFilename, true);
+
+        int variantCount = 0;
+
+        for(int start = 1; start < CHR_1_LENGTH; start += 100_000)
+        {
+            variantCount += reader.findVariants(CHR_1, start, start + 1_000).size();
+        }
+
+        reader.close();
+        return variantCount;
+    }
+}
@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hartwig.hmftools.cobalt.count.BamReadCounter;
+import com.hartwig.hmftools.cobalt.count.ReadDepthCollector;
 import com.hartwig.hmftools.cobalt.diploid.DiploidRegionLoader;
 import com.hartwig.hmftools.cobalt.ratio.RatioSupplier;
 import com.hartwig.hmftools.common.cobalt.CobaltRatioFile;
@@ -29,6 +30,7 @@ import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import htsjdk.samtools.SamReaderFactory;
 import htsjdk.samtools.cram.ref.ReferenceSource;
@@ -65,7 +67,12 @@ public class CobaltApplication
         application.run();
     }
 
-    private void run()
+    public void run()
+    {
+        run(null);
+    }
+
+    public void run(@Nullable final ReadDepthCollector depthCollector)
     {
         long startTimeMs = System.currentTimeMillis();
 
@@ -81,9 +88,17 @@ public class CobaltApplication
             ChromosomePositionCodec chromosomePosCodec = new ChromosomePositionCodec();
 
             final BamReadCounter bamReadCounter = new BamReadCounter(
-                    WINDOW_SIZE, mConfig.MinMappingQuality, executorService, readerFactory, chromosomePosCodec);
+                    WINDOW_SIZE, mConfig.MinMappingQuality, mConfig.Threads, readerFactory, chromosomePosCodec);
 
-            bamReadCounter.generateDepths(mConfig.ReferenceBamPath, mConfig.TumorBamPath);
+            if(depthCollector != null)
+            {
+                // read depths have already been gathered in a BAM pass shared with other tools
+                bamReadCounter.generateDepths(depthCollector, mConfig.ReferenceBamPath != null, mConfig.TumorBamPath != null);
+            }
+            else
+            {
+                bamReadCounter.generateDepths(mConfig.ReferenceBamPath, mConfig.TumorBamPath);
+            }
 
             Table referenceReadDepths = bamReadCounter.getReferenceDepths();
             Table tumorReadDepths = bamReadCounter.getTumorDepths();
@@ -3,50 +3,35 @@ package com.hartwig.hmftools.cobalt.count;
 import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 import static com.hartwig.hmftools.cobalt.CobaltConstants.PARTITION_SIZE;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.hartwig.hmftools.cobalt.Chromosome;
 import com.hartwig.hmftools.cobalt.ChromosomePositionCodec;
 import com.hartwig.hmftools.cobalt.CobaltColumns;
-import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
-import com.hartwig.hmftools.common.region.ChrBaseRegion;
-import com.hartwig.hmftools.common.samtools.BamSlicer;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+import com.hartwig.hmftools.common.samtools.PartitionedBamReader;
 
-import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.Nullable;
 
-import htsjdk.samtools.AlignmentBlock;
-import htsjdk.samtools.SAMRecord;
-import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.SAMSequenceRecord;
-import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
 import tech.tablesaw.api.*;
 
 public class BamReadCounter
 {
+    private final int mWindowSize;
     private final int mMinMappingQuality;
 
     private Table mReferenceDepths = null;
     private Table mTumorDepths = null;
 
-    private final ExecutorService mExecutorService;
+    private final int mThreads;
     private final SamReaderFactory mReaderFactory;
 
-    private Collection<Chromosome> mChromosomes = null;
-
-    private final ReadDepthAccumulator mRefReadDepthAccumulator;
-    private final ReadDepthAccumulator mTumorReadDepthAccumulator;
-
     private final ChromosomePositionCodec mChromosomePosCodec;
 
     public Table getReferenceDepths() { return mReferenceDepths; }
@@ -54,20 +39,19 @@ public class BamReadCounter
 
     public BamReadCounter(
             final int windowSize, final int minMappingQuality,
-            final ExecutorService executorService, final SamReaderFactory readerFactory,
+            final int threads, final SamReaderFactory readerFactory,
             final ChromosomePositionCodec chromosomePosCodec)
     {
+        mWindowSize = windowSize;
         mMinMappingQuality = minMappingQuality;
-        mExecutorService = executorService;
+        mThreads = threads;
         mReaderFactory = readerFactory;
         mChromosomePosCodec = chromosomePosCodec;
-        mRefReadDepthAccumulator = new ReadDepthAccumulator(windowSize);
-        mTumorReadDepthAccumulator = new ReadDepthAccumulator(windowSize);
     }
 
     public void generateDepths(
             @Nullable final String referenceBam, @Nullable final String tumorBam)
-            throws ExecutionException, InterruptedException, IOException
+            throws InterruptedException, IOException
     {
         if(referenceBam == null && tumorBam == null)
         {
@@ -75,120 +59,43 @@ public class BamReadCounter
             return;
         }
 
-        mChromosomes = loadChromosomes(mReaderFactory, referenceBam, tumorBam);
+        ReadDepthCollector depthCollector = new ReadDepthCollector(
+                mWindowSize, mMinMappingQuality, ReadDepthCollector.loadChromosomes(mReaderFactory, referenceBam, tumorBam));
 
-        List<Future<?>> tasks = new ArrayList<>();
-        List<SamReader> samReaders = Collections.synchronizedList(new ArrayList<>());
+        // the tumor and reference BAMs are read concurrently on the one set of threads
+        Map<String,List<BamRecordConsumer>> bamConsumers = Maps.newLinkedHashMap();
 
         if(tumorBam != null)
         {
             CB_LOGGER.info("calculating read depths from {}", tumorBam);
-            tasks.addAll(createFutures(tumorBam, mTumorReadDepthAccumulator, samReaders));
+            bamConsumers.put(tumorBam, Lists.newArrayList(depthCollector.tumorConsumer()));
         }
 
         if(referenceBam != null)
         {
             CB_LOGGER.info("calculating read depths from {}", referenceBam);
-            tasks.addAll(createFutures(referenceBam, mRefReadDepthAccumulator, samReaders));
-        }
-
-        // wait for all tasks to complete
-        for(Future<?> f : tasks)
-        {
-            f.get();
-        }
-
-        if(tumorBam != null)
-        {
-            mTumorDepths = generateDepths(mTumorReadDepthAccumulator);
-        }
-
-        if(referenceBam != null)
-        {
-            mReferenceDepths = generateDepths(mRefReadDepthAccumulator);
-        }
-
-        // close all sam readers
-        for(SamReader samReader : samReaders)
-        {
-            samReader.close();
+            bamConsumers.put(referenceBam, Lists.newArrayList(depthCollector.referenceConsumer()));
         }
 
-        CB_LOGGER.info("read Depth Complete");
-    }
-
-    private List<Future<?>> createFutures(final String bamFilePath, final ReadDepthAccumulator readDepthCounter, List<SamReader> samReaderList)
-    {
-        // add all the chromosomes
-        for(Chromosome chromosome : mChromosomes)
-        {
-            readDepthCounter.addChromosome(chromosome.contig, chromosome.length);
-        }
-
-        final File bamFile = new File(bamFilePath);
-
-        // One bam reader per thread instead of one per task
-        final ThreadLocal<SamReader> threadBamReader = ThreadLocal.withInitial(() -> {
-            SamReader samReader = mReaderFactory.open(bamFile);
-            samReaderList.add(samReader);
-            return samReader;
-        });
-
-        final List<ChrBaseRegion> partitions = partitionGenome();
-        final List<Future<?>> futures = new ArrayList<>();
-        for(ChrBaseRegion baseRegion : partitions)
-        {
-            Runnable task = () -> sliceRegionTask(threadBamReader, baseRegion, readDepthCounter);
-            futures.add(mExecutorService.submit(task));
-        }
-
-        return futures;
-    }
-
-    private void sliceRegionTask(ThreadLocal<SamReader> samReaderSupplier, ChrBaseRegion region, ReadDepthAccumulator readDepthAccumulator)
-    {
-        CB_LOGGER.debug("region({}) accumulating read depth", region);
-
-        final SamReader reader = samReaderSupplier.get();
-        BamSlicer bamSlicer = new BamSlicer(mMinMappingQuality, false, false, false);
-        bamSlicer.slice(reader, region, samRecord -> processRead(samRecord, region, readDepthAccumulator));
-
-        CB_LOGGER.debug("region({}) complete", region);
-    }
-
-    private void processRead(final SAMRecord record, ChrBaseRegion region, ReadDepthAccumulator readDepthAccumulator)
-    {
-        Validate.isTrue(record.getContig().equals(region.Chromosome));
+        PartitionedBamReader bamReader = new PartitionedBamReader(mReaderFactory, mThreads);
+        bamReader.processBams(bamConsumers, depthCollector.partitionGenome(PARTITION_SIZE));
 
-        for(AlignmentBlock currentBlock : record.getAlignmentBlocks())
-        {
-            accumulateAlignmentBlock(region, readDepthAccumulator, currentBlock.getReadStart(), currentBlock.getReferenceStart(),
-                    currentBlock.getLength(), record.getReadBases());
-        }
+        generateDepths(depthCollector, referenceBam != null, tumorBam != null);
     }
 
-    static void accumulateAlignmentBlock(
-            final ChrBaseRegion region, final ReadDepthAccumulator readDepthAccumulator,
-            final int alignmentBlockReadStart, final int alignmentBlockReferenceStart, final int alignmentBlockLength,
-            byte[] readBases)
+    public void generateDepths(final ReadDepthCollector depthCollector, boolean hasReference, boolean hasTumor)
     {
-        // NOTE: we need to adjust start and end to avoid adding counts to regions that belongs to another task
-        // as if we do that they will be double counted
-        int genomeStart = Math.max(alignmentBlockReferenceStart, region.start());
-        int length = Math.min(alignmentBlockReferenceStart + alignmentBlockLength, region.end() + 1) - genomeStart;
+        // the depth windows may have been filled by a BAM pass shared with other tools
+        if(hasTumor)
+            mTumorDepths = generateDepths(depthCollector.chromosomes(), depthCollector.tumorDepths());
 
-        if(length <= 0)
-        {
-            return;
-        }
+        if(hasReference)
+            mReferenceDepths = generateDepths(depthCollector.chromosomes(), depthCollector.referenceDepths());
 
-        // use 0 based index here such that we can use it with java string
-        int readStartIndex = alignmentBlockReadStart - 1;
-        readStartIndex += (genomeStart - alignmentBlockReferenceStart);
-        readDepthAccumulator.addReadAlignmentToCounts(region.Chromosome, genomeStart, length, readBases, readStartIndex);
+        CB_LOGGER.info("read Depth Complete");
     }
 
-    private Table generateDepths(ReadDepthAccumulator readDepthAccumulator)
+    private Table generateDepths(final Iterable<Chromosome> chromosomes, final ReadDepthAccumulator readDepthAccumulator)
     {
         final Table readDepthTable = Table.create("readDepths",
                 StringColumn.create(CobaltColumns.CHROMOSOME),
@@ -196,7 +103,7 @@ public class BamReadCounter
                 DoubleColumn.create(CobaltColumns.READ_DEPTH),
                 DoubleColumn.create(CobaltColumns.READ_GC_CONTENT));
 
-        for (Chromosome chromosome : mChromosomes)
+        for (Chromosome chromosome : chromosomes)
         {
             List<ReadDepth> readDepths = readDepthAccumulator.getChromosomeReadDepths(chromosome.contig);
             Objects.requireNonNull(readDepths);
@@ -214,47 +121,4 @@ public class BamReadCounter
 
         return readDepthTable;
     }
-
-    private Collection<Chromosome> loadChromosomes(final SamReaderFactory readerFactory,
-            @Nullable final String referenceBam,
-            @Nullable final String tumorBam) throws IOException
-    {
-        Collection<Chromosome> chromosomes = new ArrayList<>();
-
-        Validate.isTrue(referenceBam != null || tumorBam != null);
-
-        try (SamReader reader = readerFactory.open(new File(referenceBam != null ? referenceBam : tumorBam)))
-        {
-            SAMSequenceDictionary dictionary = reader.getFileHeader().getSequenceDictionary();
-
-            for(final SAMSequenceRecord samSequenceRecord : dictionary.getSequences())
-            {
-                String sequenceName = samSequenceRecord.getSequenceName();
-
-                if(HumanChromosome.contains(sequenceName))
-                {
-                    chromosomes.add(new Chromosome(sequenceName, samSequenceRecord.getSequenceLength()));
-                }
-            }
-        }
-
-        return chromosomes;
-    }
-
-    private List<ChrBaseRegion> partitionGenome()
-    {
-        List<ChrBaseRegion> partitions = new ArrayList<>();
-        for(Chromosome chromosome : mChromosomes)
-        {
-            /*if(mConfig.SpecificChrRegions.excludeChromosome(chromosomeStr))
-                continue; */
-
-            for(int startPos = 1; startPos < chromosome.length; startPos += PARTITION_SIZE)
-            {
-                int endPos = Math.min(startPos + PARTITION_SIZE - 1, chromosome.length);
-                partitions.add(new ChrBaseRegion(chromosome.contig, startPos, endPos));
-            }
-        }
-        return partitions;
-    }
 }
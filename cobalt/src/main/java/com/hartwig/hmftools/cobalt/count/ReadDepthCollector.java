@@ -0,0 +1,99 @@
+package com.hartwig.hmftools.cobalt.count;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.hartwig.hmftools.cobalt.Chromosome;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Nullable;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+
+public class ReadDepthCollector
+{
+    // holds the tumor and reference depth windows and their BAM consumers, so the depths can be gathered in COBALT's own BAM pass
+    // or in a pass shared with other tools
+    private final Collection<Chromosome> mChromosomes;
+
+    private final ReadDepthConsumer mReferenceConsumer;
+    private final ReadDepthConsumer mTumorConsumer;
+
+    public ReadDepthCollector(final int windowSize, final int minMappingQuality, final Collection<Chromosome> chromosomes)
+    {
+        mChromosomes = chromosomes;
+        mReferenceConsumer = new ReadDepthConsumer(minMappingQuality, createAccumulator(windowSize));
+        mTumorConsumer = new ReadDepthConsumer(minMappingQuality, createAccumulator(windowSize));
+    }
+
+    public Collection<Chromosome> chromosomes() { return mChromosomes; }
+
+    public BamRecordConsumer referenceConsumer() { return mReferenceConsumer; }
+    public BamRecordConsumer tumorConsumer() { return mTumorConsumer; }
+
+    public ReadDepthAccumulator referenceDepths() { return mReferenceConsumer.readDepthAccumulator(); }
+    public ReadDepthAccumulator tumorDepths() { return mTumorConsumer.readDepthAccumulator(); }
+
+    private ReadDepthAccumulator createAccumulator(final int windowSize)
+    {
+        ReadDepthAccumulator readDepthAccumulator = new ReadDepthAccumulator(windowSize);
+
+        for(Chromosome chromosome : mChromosomes)
+        {
+            readDepthAccumulator.addChromosome(chromosome.contig, chromosome.length);
+        }
+
+        return readDepthAccumulator;
+    }
+
+    public List<ChrBaseRegion> partitionGenome(final int partitionSize)
+    {
+        // any partitioning gives the same depths since reads are clipped to each partition
+        List<ChrBaseRegion> partitions = new ArrayList<>();
+
+        for(Chromosome chromosome : mChromosomes)
+        {
+            for(int startPos = 1; startPos < chromosome.length; startPos += partitionSize)
+            {
+                int endPos = Math.min(startPos + partitionSize - 1, chromosome.length);
+                partitions.add(new ChrBaseRegion(chromosome.contig, startPos, endPos));
+            }
+        }
+
+        return partitions;
+    }
+
+    public static Collection<Chromosome> loadChromosomes(
+            final SamReaderFactory readerFactory, @Nullable final String referenceBam, @Nullable final String tumorBam) throws IOException
+    {
+        Collection<Chromosome> chromosomes = new ArrayList<>();
+
+        Validate.isTrue(referenceBam != null || tumorBam != null);
+
+        try(SamReader reader = readerFactory.open(new File(referenceBam != null ? referenceBam : tumorBam)))
+        {
+            SAMSequenceDictionary dictionary = reader.getFileHeader().getSequenceDictionary();
+
+            for(final SAMSequenceRecord samSequenceRecord : dictionary.getSequences())
+            {
+                String sequenceName = samSequenceRecord.getSequenceName();
+
+                if(HumanChromosome.contains(sequenceName))
+                {
+                    chromosomes.add(new Chromosome(sequenceName, samSequenceRecord.getSequenceLength()));
+                }
+            }
+        }
+
+        return chromosomes;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hartwig.hmftools.cobalt.count;
+
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.samtools.BamRecordConsumer;
+
+import org.apache.commons.lang3.Validate;
+
+import htsjdk.samtools.AlignmentBlock;
+import htsjdk.samtools.SAMRecord;
+
+public class ReadDepthConsumer implements BamRecordConsumer
+{
+    // adds each read's aligned bases to the depth windows, registered with a shared BAM reader alongside any other consumers
+    private final int mMinMappingQuality;
+    private final ReadDepthAccumulator mReadDepthAccumulator;
+
+    public ReadDepthConsumer(int minMappingQuality, final ReadDepthAccumulator readDepthAccumulator)
+    {
+        mMinMappingQuality = minMappingQuality;
+        mReadDepthAccumulator = readDepthAccumulator;
+    }
+
+    public ReadDepthAccumulator readDepthAccumulator() { return mReadDepthAccumulator; }
+
+    @Override
+    public int minMappingQuality() { return mMinMappingQuality; }
+
+    @Override
+    public void processRecord(final ChrBaseRegion partition, final SAMRecord record)
+    {
+        Validate.isTrue(record.getContig().equals(partition.Chromosome));
+
+        for(AlignmentBlock currentBlock : record.getAlignmentBlocks())
+        {
+            accumulateAlignmentBlock(partition, mReadDepthAccumulator, currentBlock.getReadStart(), currentBlock.getReferenceStart(),
+                    currentBlock.getLength(), record.getReadBases());
+        }
+    }
+
+    static void accumulateAlignmentBlock(
+            final ChrBaseRegion region, final ReadDepthAccumulator readDepthAccumulator,
+            final int alignmentBlockReadStart, final int alignmentBlockReferenceStart, final int alignmentBlockLength,
+            byte[] readBases)
+    {
+        // NOTE: we need to adjust start and end to avoid adding counts to regions that belongs to another task
+        // as if we do that they will be double counted
+        int genomeStart = Math.max(alignmentBlockReferenceStart, region.start());
+        int length = Math.min(alignmentBlockReferenceStart + alignmentBlockLength, region.end() + 1) - genomeStart;
+
+        if(length <= 0)
+        {
+            return;
+        }
+
+        // use 0 based index here such that we can use it with java string
+        int readStartIndex = alignmentBlockReadStart - 1;
+        readStartIndex += (genomeStart - alignmentBlockReferenceStart);
+        readDepthAccumulator.addReadAlignmentToCounts(region.Chromosome, genomeStart, length, readBases, readStartIndex);
+    }
+}
@@ -45,19 +45,19 @@ public class BamReadCounterTest
         
         final ChrBaseRegion region = new ChrBaseRegion(CHROMOSOME, 1001, 2000);
 
-        BamReadCounter.accumulateAlignmentBlock(region, readDepthAccumulator,
+        ReadDepthConsumer.accumulateAlignmentBlock(region, readDepthAccumulator,
                 11, 1101, 200, readBases);
         // check that it invoked the correct parameters
         verify(readDepthAccumulator).addReadAlignmentToCounts(CHROMOSOME, 1101, 200, readBases, 10);
 
         // now test that first 100 bases are before this region
-        BamReadCounter.accumulateAlignmentBlock(region, readDepthAccumulator,
+        ReadDepthConsumer.accumulateAlignmentBlock(region, readDepthAccumulator,
                 11, 901, 200, readBases);
         // check that it invoked the correct parameters
         verify(readDepthAccumulator).addReadAlignmentToCounts(CHROMOSOME, 1001, 100, readBases, 110);
 
         // now test that last 100 bases are after this region
-        BamReadCounter.accumulateAlignmentBlock(region, readDepthAccumulator,
+        ReadDepthConsumer.accumulateAlignmentBlock(region, readDepthAccumulator,
                 11, 1901, 200, readBases);
         // check that it invoked the correct parameters
         verify(readDepthAccumulator).addReadAlignmentToCounts(CHROMOSOME, 1901, 100, readBases, 10);
@@ -65,12 +65,12 @@ public class BamReadCounterTest
         reset(readDepthAccumulator);
 
         // test a block that is before the region, check that no call to addReadAlignmentToCounts has been invoked
-        BamReadCounter.accumulateAlignmentBlock(region, readDepthAccumulator,
+        ReadDepthConsumer.accumulateAlignmentBlock(region, readDepthAccumulator,
                 11, 500, 200, readBases);
         verify(readDepthAccumulator, never()).addReadAlignmentToCounts(anyString(), anyInt(), anyInt(), any(byte[].class), anyInt());
 
         // test a block that is after the region, check that no call to addReadAlignmentToCounts has been invoked
-        BamReadCounter.accumulateAlignmentBlock(region, readDepthAccumulator,
+        ReadDepthConsumer.accumulateAlignmentBlock(region, readDepthAccumulator,
                 11, 2500, 200, readBases);
         verify(readDepthAccumulator, never()).addReadAlignmentToCounts(anyString(), anyInt(), anyInt(), any(byte[].class), anyInt());
     }
@@ -2,7 +2,7 @@ package com.hartwig.hmftools.cup.liftover;
 
 import static java.lang.String.format;
 
-import static com.hartwig.hmftools.common.genome.refgenome.GenomeLiftoverCache.UNMAPPED_POSITION;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V38;
 import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.closeBufferedWriter;
 import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedWriter;
 import static com.hartwig.hmftools.cup.CuppaConfig.CUP_LOGGER;
@@ -14,11 +14,10 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 import java.util.concurrent.Callable;
 
-import com.hartwig.hmftools.common.genome.refgenome.CoordMapping;
 import com.hartwig.hmftools.common.genome.refgenome.GenomeLiftoverCache;
+import com.hartwig.hmftools.common.genome.refgenome.LiftoverCursor;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.variant.VariantType;
 import com.hartwig.hmftools.cup.somatics.SomaticVariant;
@@ -40,9 +39,8 @@ public class VcfPositionConverter implements Callable
     private BufferedWriter mWriter;
 
     // look-up state
-    private int mCurentMappingIndex;
     private String mCurrentMappingChromosome;
-    private List<CoordMapping> mChromosomeMappings;
+    private LiftoverCursor mLiftoverCursor;
 
     public VcfPositionConverter(
             final String sampleId, final String vcfFile, final GenomeLiftoverCache mappingCache, final LiftoverConfig config)
@@ -53,9 +51,8 @@ public class VcfPositionConverter implements Callable
         mVcfFile = vcfFile;
         mMappingCache = mappingCache;
         mMappingEnabled = mMappingCache.hasMappings();
-        mCurentMappingIndex = 0;
         mCurrentMappingChromosome = "";
-        mChromosomeMappings = null;
+        mLiftoverCursor = null;
 
         mOutputFile = SomaticVariant.generateFilename(mConfig.OutputDir, mSampleId);
         mWriter = null;
@@ -115,25 +112,11 @@ public class VcfPositionConverter implements Callable
     {
         if(!mCurrentMappingChromosome.equals(chromosome))
         {
-            mChromosomeMappings = mMappingCache.getChromosomeMappings(chromosome, true);
+            mLiftoverCursor = mMappingCache.liftoverCursor(chromosome, V38);
             mCurrentMappingChromosome = chromosome;
-            mCurentMappingIndex = 0;
         }
 
-        for(; mCurentMappingIndex < mChromosomeMappings.size(); ++mCurentMappingIndex)
-        {
-            CoordMapping mapping = mChromosomeMappings.get(mCurentMappingIndex);
-
-            if(mapping.SourceEnd < position)
-                continue;
-
-            if(mapping.SourceStart > position)
-                return UNMAPPED_POSITION;
-
-            return mapping.convertPosition(position);
-        }
-
-        return UNMAPPED_POSITION;
+        return mLiftoverCursor.convertPosition(position);
     }
 
     private BufferedWriter initialiseWriter()
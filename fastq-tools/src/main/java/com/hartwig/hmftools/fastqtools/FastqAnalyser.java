@@ -4,7 +4,8 @@ import static java.lang.String.format;
 
 import static com.hartwig.hmftools.common.codon.Nucleotides.DNA_BASES;
 import static com.hartwig.hmftools.common.utils.PerformanceCounter.runTimeMinsStr;
-import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedReader;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.addThreadOptions;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.parseThreads;
 import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedWriter;
 import static com.hartwig.hmftools.fastqtools.FastqCommon.FQ_LOGGER;
 
@@ -17,8 +18,11 @@ import static com.hartwig.hmftools.common.utils.config.ConfigUtils.setLogLevel;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
+import com.hartwig.hmftools.common.fastq.FastqFiles;
 import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 
 import htsjdk.samtools.fastq.FastqReader;
@@ -28,6 +32,7 @@ public class FastqAnalyser
     private final String mFastqFile;
     private final String mOutputFile;
     private final RepeatFrequencies mRepeatFrequencies;
+    private final int mThreads;
 
     // repeat sequences can span lines so need to keep the current sequence state
     private StringBuilder mCurrentSequence;
@@ -47,6 +52,7 @@ public class FastqAnalyser
         mFastqFile = configBuilder.getValue(FASTQ_FILE);
         mOutputFile = configBuilder.getValue(OUTPUT_FILE);
         mRepeatFrequencies = new RepeatFrequencies();
+        mThreads = parseThreads(configBuilder);
         mCurrentSequence = null;
         mLastBase = NO_BASE;
     }
@@ -70,7 +76,9 @@ public class FastqAnalyser
     {
         try
         {
-            BufferedReader fileReader = createBufferedReader(mFastqFile);
+            // decompression runs on separate threads
+            BufferedReader fileReader = new BufferedReader(new InputStreamReader(
+                    FastqFiles.openInputStream(mFastqFile, mThreads), StandardCharsets.US_ASCII));
 
             String line = null;
             int lineCount = 0;
@@ -184,6 +192,7 @@ public class FastqAnalyser
         addLoggingOptions(configBuilder);
         configBuilder.addPath(FASTQ_FILE, true, "Fastq file path");
         configBuilder.addConfigItem(OUTPUT_FILE, true, "Output fie");
+        addThreadOptions(configBuilder);
 
         configBuilder.checkAndParseCommandLine(args);
         setLogLevel(configBuilder);
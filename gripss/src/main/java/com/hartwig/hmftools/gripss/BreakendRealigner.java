@@ -76,6 +76,15 @@ public class BreakendRealigner
         return Breakend.realigned(breakend, newContext, breakend.Position);
     }
 
+    private String getRefBase(final String chromosome, int position)
+    {
+        // realignment can run concurrently across chromosomes, and the ref genome file reader is not thread-safe
+        synchronized(mRefGenome)
+        {
+            return mRefGenome.getBaseString(chromosome, position, position);
+        }
+    }
+
     private Interval[] centreAlignConfidenceIntervals(final Breakend breakend)
     {
         // val mate = variantType as Paired
@@ -117,7 +126,7 @@ public class BreakendRealigner
 
         int newStart = updatedPosition(breakend.Position, breakend.ConfidenceInterval, newCipos);
 
-        String newRef = toStandardNucleotides(mRefGenome.getBaseString(breakend.Chromosome, newStart, newStart));
+        String newRef = toStandardNucleotides(getRefBase(breakend.Chromosome, newStart));
 
         final Breakend otherBreakend = breakend.otherBreakend();
 
@@ -154,7 +163,7 @@ public class BreakendRealigner
         Interval newCipos = sideAlignConfidenceInterval(breakend.Orientation, breakend.ConfidenceInterval);
         int newStart = updatedPosition(breakend.Position, breakend.ConfidenceInterval, newCipos);
 
-        String newRef = toStandardNucleotides(mRefGenome.getBaseString(breakend.Chromosome, newStart, newStart));
+        String newRef = toStandardNucleotides(getRefBase(breakend.Chromosome, newStart));
 
         String newAlt = formSingleAltString(newRef, breakend.InsertSequence, breakend.Orientation);
 
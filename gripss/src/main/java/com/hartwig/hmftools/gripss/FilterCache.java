@@ -19,6 +19,7 @@ import com.hartwig.hmftools.gripss.common.SvData;
 import com.hartwig.hmftools.gripss.filters.FilterType;
 import com.hartwig.hmftools.gripss.filters.HotspotCache;
 import com.hartwig.hmftools.gripss.pon.PonCache;
+import com.hartwig.hmftools.gripss.pon.PonCache.PonCursor;
 
 public class FilterCache
 {
@@ -65,8 +66,16 @@ public class FilterCache
 
     public void checkPonFilter(final PonCache ponCache, final SvData sv)
     {
-        int ponCount = ponCache.getPonCount(sv);
+        applyPonCount(sv, ponCache.getPonCount(sv));
+    }
+
+    public void checkPonFilter(final PonCache ponCache, final PonCursor ponCursor, final SvData sv)
+    {
+        applyPonCount(sv, ponCache.getPonCount(sv, ponCursor));
+    }
 
+    private void applyPonCount(final SvData sv, int ponCount)
+    {
         if(ponCount > 0)
         {
             sv.setPonCount(ponCount);
@@ -101,6 +110,23 @@ public class FilterCache
             filters.add(filter);
     }
 
+    public void mergeFilters(final FilterCache other)
+    {
+        // combine the filters from a cache populated by a chromosome task, appending to any existing breakend filters
+        for(Map.Entry<Breakend,List<FilterType>> entry : other.mBreakendFilters.entrySet())
+        {
+            List<FilterType> filters = mBreakendFilters.get(entry.getKey());
+
+            if(filters == null)
+                mBreakendFilters.put(entry.getKey(), entry.getValue());
+            else
+                filters.addAll(entry.getValue());
+        }
+
+        mHotspots.addAll(other.mHotspots);
+        mPonFiltered += other.mPonFiltered;
+    }
+
     public void updateFilters(final Set<Breakend> rescuedBreakends, final Set<Breakend> duplicateBreakends)
     {
         // add duplicate filter and remove any rescued breakends
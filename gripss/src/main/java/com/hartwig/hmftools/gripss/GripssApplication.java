@@ -5,9 +5,6 @@ import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.loadR
 import static com.hartwig.hmftools.common.gripss.RepeatMaskAnnotations.REPEAT_MASK_FILE;
 import static com.hartwig.hmftools.common.sv.SvVcfTags.BEALN;
 import static com.hartwig.hmftools.common.utils.PerformanceCounter.runTimeMinsStr;
-import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_END;
-import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_START;
-import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.switchIndex;
 import static com.hartwig.hmftools.gripss.GripssConfig.GR_LOGGER;
 import static com.hartwig.hmftools.common.variant.GenotypeIds.fromVcfHeader;
 import static com.hartwig.hmftools.gripss.GripssConfig.addConfig;
@@ -15,10 +12,13 @@ import static com.hartwig.hmftools.gripss.GripssConfig.addConfig;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 import com.hartwig.hmftools.common.variant.VcfFileReader;
@@ -177,39 +177,28 @@ public class GripssApplication
         }
 
         GR_LOGGER.info("applying soft-filters and realignment");
-        int realignedCount = 0;
+
+        // per-SV filters and PON look-ups are independent, so are run in chromosome partitions, keyed by the SV's start
+        // chromosome and then breakend chromosome respectively, with their filters merged before the link-finding stages
+        Map<String,SoftFilterTask> softFilterTasks = Maps.newLinkedHashMap();
 
         for(final SvData svData : mSvDataCache.getSvList())
         {
-            // realign breakends
-            final Breakend[] breakends = svData.breakends();
-
-            for(int se = SE_START; se <= SE_END; ++se)
-            {
-                if(svData.isSgl() && se == SE_END)
-                    continue;
-
-                Breakend realignedBreakend = mRealigner.realign(breakends[se], svData.isSgl(), svData.imprecise());
+            SoftFilterTask softFilterTask = softFilterTasks.computeIfAbsent(
+                    svData.chromosomeStart(), k -> new SoftFilterTask(k, mRealigner, mHotspotCache, mSoftFilters));
 
-                if(realignedBreakend.realigned())
-                {
-                    ++realignedCount;
-                    breakends[se] = realignedBreakend;
-
-                    if(!svData.isSgl())
-                    {
-                        int otherSe = switchIndex(se);
-                        Breakend realignedRemoteBreakend = mRealigner.realignRemote(breakends[otherSe], realignedBreakend);
-                        breakends[otherSe] = realignedRemoteBreakend;
-                    }
+            softFilterTask.addSv(svData);
+        }
 
-                    svData.onPositionsUpdated();
-                }
-            }
+        if(!TaskExecutor.executeTasks(Lists.newArrayList(softFilterTasks.values()), mConfig.Threads))
+            System.exit(1);
 
-            mFilterCache.checkHotspotFilter(mHotspotCache, svData);
+        int realignedCount = 0;
 
-            mSoftFilters.applyFilters(svData, mFilterCache);
+        for(SoftFilterTask softFilterTask : softFilterTasks.values())
+        {
+            mFilterCache.mergeFilters(softFilterTask.filterCache());
+            realignedCount += softFilterTask.realignedCount();
         }
 
         GR_LOGGER.info("soft-filtered({}) hotspots({}) realigned({})",
@@ -219,16 +208,14 @@ public class GripssApplication
 
         GR_LOGGER.info("applying PON filters");
 
-        for(List<Breakend> chrBreakendList : mSvDataCache.getBreakendMap().values())
-        {
-            for(Breakend breakend : chrBreakendList)
-            {
-                if(breakend == breakend.sv().breakendEnd()) // skip testing the same SV again
-                    continue;
+        List<PonFilterTask> ponFilterTasks = mSvDataCache.getBreakendMap().entrySet().stream()
+                .map(x -> new PonFilterTask(x.getKey(), x.getValue(), mPonCache))
+                .collect(Collectors.toList());
 
-                mFilterCache.checkPonFilter(mPonCache, breakend.sv());
-            }
-        }
+        if(!TaskExecutor.executeTasks(Lists.newArrayList(ponFilterTasks), mConfig.Threads))
+            System.exit(1);
+
+        ponFilterTasks.forEach(x -> mFilterCache.mergeFilters(x.filterCache()));
 
         GR_LOGGER.debug("pon filtered count({})", mFilterCache.ponFilteredCount());
 
@@ -4,6 +4,8 @@ import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.addRe
 import static com.hartwig.hmftools.common.region.SpecificRegions.addSpecificChromosomesRegionsConfig;
 import static com.hartwig.hmftools.common.region.SpecificRegions.loadSpecificChromsomes;
 import static com.hartwig.hmftools.common.sv.StructuralVariantType.SGL;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.addThreadOptions;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.parseThreads;
 import static com.hartwig.hmftools.common.utils.config.CommonConfig.REFERENCE;
 import static com.hartwig.hmftools.common.utils.config.CommonConfig.REFERENCE_DESC;
 import static com.hartwig.hmftools.common.utils.config.CommonConfig.SAMPLE;
@@ -42,6 +44,7 @@ public class GripssConfig
     public final String OutputDir;
     public final String OutputId;
     public final List<String> RestrictedChromosomes;
+    public final int Threads;
 
     private static final String VCF_FILE = "vcf";
     private static final String GERMLINE = "germline";
@@ -60,6 +63,7 @@ public class GripssConfig
         RefGenVersion = RefGenomeVersion.from(configBuilder);
 
         RestrictedChromosomes = loadSpecificChromsomes(configBuilder);
+        Threads = parseThreads(configBuilder);
     }
 
     public GripssConfig(
@@ -73,6 +77,7 @@ public class GripssConfig
         OutputDir = null;
         OutputId = null;
         RestrictedChromosomes = Lists.newArrayList();
+        Threads = 1;
     }
 
     public boolean isValid()
@@ -116,6 +121,7 @@ public class GripssConfig
         addRefGenomeConfig(configBuilder, true);
 
         addSpecificChromosomesRegionsConfig(configBuilder);
+        addThreadOptions(configBuilder);
 
         PonCache.addConfig(configBuilder);
         HotspotCache.addConfig(configBuilder);
@@ -0,0 +1,46 @@
+package com.hartwig.hmftools.gripss;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.hartwig.hmftools.gripss.common.Breakend;
+import com.hartwig.hmftools.gripss.pon.PonCache;
+import com.hartwig.hmftools.gripss.pon.PonCache.PonCursor;
+
+public class PonFilterTask implements Callable
+{
+    private final String mChromosome;
+    private final List<Breakend> mBreakends; // position-ordered
+    private final PonCache mPonCache;
+    private final PonCursor mPonCursor;
+
+    // filters are collected per task and merged once all tasks are complete
+    private final FilterCache mFilterCache;
+
+    public PonFilterTask(final String chromosome, final List<Breakend> breakends, final PonCache ponCache)
+    {
+        mChromosome = chromosome;
+        mBreakends = breakends;
+        mPonCache = ponCache;
+        mPonCursor = ponCache.createCursor();
+        mFilterCache = new FilterCache();
+    }
+
+    public FilterCache filterCache() { return mFilterCache; }
+
+    @Override
+    public Long call()
+    {
+        for(Breakend breakend : mBreakends)
+        {
+            if(breakend == breakend.sv().breakendEnd()) // skip testing the same SV again
+                continue;
+
+            mFilterCache.checkPonFilter(mPonCache, mPonCursor, breakend.sv());
+        }
+
+        return (long)0;
+    }
+
+    public String toString() { return String.format("chr(%s) breakends(%d)", mChromosome, mBreakends.size()); }
+}
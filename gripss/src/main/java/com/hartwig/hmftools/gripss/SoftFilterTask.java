@@ -0,0 +1,85 @@
+package com.hartwig.hmftools.gripss;
+
+import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_END;
+import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_START;
+import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.switchIndex;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.gripss.common.Breakend;
+import com.hartwig.hmftools.gripss.common.SvData;
+import com.hartwig.hmftools.gripss.filters.HotspotCache;
+import com.hartwig.hmftools.gripss.filters.SoftFilters;
+
+public class SoftFilterTask implements Callable
+{
+    private final String mChromosome;
+    private final List<SvData> mSvList; // SVs with their start breakend on this chromosome
+    private final BreakendRealigner mRealigner;
+    private final HotspotCache mHotspotCache;
+    private final SoftFilters mSoftFilters;
+
+    // filters are collected per task and merged once all tasks are complete
+    private final FilterCache mFilterCache;
+    private int mRealignedCount;
+
+    public SoftFilterTask(
+            final String chromosome, final BreakendRealigner realigner, final HotspotCache hotspotCache, final SoftFilters softFilters)
+    {
+        mChromosome = chromosome;
+        mSvList = Lists.newArrayList();
+        mRealigner = realigner;
+        mHotspotCache = hotspotCache;
+        mSoftFilters = softFilters;
+        mFilterCache = new FilterCache();
+        mRealignedCount = 0;
+    }
+
+    public void addSv(final SvData sv) { mSvList.add(sv); }
+
+    public FilterCache filterCache() { return mFilterCache; }
+    public int realignedCount() { return mRealignedCount; }
+
+    @Override
+    public Long call()
+    {
+        for(final SvData svData : mSvList)
+        {
+            // realign breakends
+            final Breakend[] breakends = svData.breakends();
+
+            for(int se = SE_START; se <= SE_END; ++se)
+            {
+                if(svData.isSgl() && se == SE_END)
+                    continue;
+
+                Breakend realignedBreakend = mRealigner.realign(breakends[se], svData.isSgl(), svData.imprecise());
+
+                if(realignedBreakend.realigned())
+                {
+                    ++mRealignedCount;
+                    breakends[se] = realignedBreakend;
+
+                    if(!svData.isSgl())
+                    {
+                        int otherSe = switchIndex(se);
+                        Breakend realignedRemoteBreakend = mRealigner.realignRemote(breakends[otherSe], realignedBreakend);
+                        breakends[otherSe] = realignedRemoteBreakend;
+                    }
+
+                    svData.onPositionsUpdated();
+                }
+            }
+
+            mFilterCache.checkHotspotFilter(mHotspotCache, svData);
+
+            mSoftFilters.applyFilters(svData, mFilterCache);
+        }
+
+        return (long)0;
+    }
+
+    public String toString() { return String.format("chr(%s) SVs(%d)", mChromosome, mSvList.size()); }
+}
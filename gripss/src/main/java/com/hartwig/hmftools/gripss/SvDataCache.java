@@ -3,6 +3,7 @@ package com.hartwig.hmftools.gripss;
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_END;
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_START;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -46,21 +47,15 @@ public class SvDataCache
                     mChromosomeBreakends.put(breakend.Chromosome, breakends);
                 }
 
-                int index = 0;
-                while(index < breakends.size())
-                {
-                    if(breakend.Position < breakends.get(index).Position)
-                        break;
-
-                    ++index;
-                }
-
-                breakends.add(index, breakend);
+                breakends.add(breakend);
             }
         }
 
         for(List<Breakend> breakends : mChromosomeBreakends.values())
         {
+            // a stable sort, so breakends at the same position keep the order they were added in
+            breakends.sort(Comparator.comparingInt(x -> x.Position));
+
             for(int index = 0; index < breakends.size(); ++index)
             {
                 breakends.get(index).setChrLocationIndex(index);
@@ -36,10 +36,7 @@ public class PonCache
     private final boolean mAllowUnordered;
 
     // keep indices into the 2 collections assuming that requests to match on the PON will be made sequentially through the genome
-    private String mCurrentSvChromosome;
-    private int mCurrentSvIndex;
-    private String mCurrentSglChromosome;
-    private int mCurrentSglIndex;
+    private final PonCursor mCursor;
     private boolean mHasValidData;
 
     private static final String GERMLINE_PON_BED_SV_FILE = "pon_sv_file";
@@ -67,18 +64,28 @@ public class PonCache
         if(ponSglFile != null)
             loadPonSglFile(ponSglFile);
 
-        mCurrentSglChromosome = "";
-        mCurrentSvChromosome = "";
-        mCurrentSglIndex = 0;
-        mCurrentSvIndex = 0;
+        mCursor = new PonCursor();
     }
 
+    public static class PonCursor
+    {
+        // search state for a caller working sequentially through the genome, so callers on different threads each use their own
+        private String mCurrentSvChromosome = "";
+        private int mCurrentSvIndex = 0;
+        private String mCurrentSglChromosome = "";
+        private int mCurrentSglIndex = 0;
+    }
+
+    public PonCursor createCursor() { return new PonCursor(); }
+
     public boolean hasValidData() { return mHasValidData; }
 
     public Map<String,List<PonSvRegion>> svRegions() { return mSvRegions; }
     public Map<String,List<PonSglRegion>> sglRegions() { return mSglRegions; }
 
-    public int getPonCount(final SvData var)
+    public int getPonCount(final SvData var) { return getPonCount(var, mCursor); }
+
+    public int getPonCount(final SvData var, final PonCursor cursor)
     {
         // matching routine:
         // - get regions by chromosome
@@ -90,13 +97,13 @@ public class PonCache
             List<PonSglRegion> regions = mSglRegions.get(var.chromosomeStart());
             if(regions != null)
             {
-                if(!mCurrentSglChromosome.equals(var.chromosomeStart()))
+                if(!cursor.mCurrentSglChromosome.equals(var.chromosomeStart()))
                 {
-                    mCurrentSglChromosome = var.chromosomeStart();
-                    mCurrentSglIndex = 0;
+                    cursor.mCurrentSglChromosome = var.chromosomeStart();
+                    cursor.mCurrentSglIndex = 0;
                 }
 
-                return findSglPonMatch(regions, var);
+                return findSglPonMatch(regions, var, cursor);
             }
         }
         else
@@ -104,13 +111,13 @@ public class PonCache
             List<PonSvRegion> regions = mSvRegions.get(var.chromosomeStart());
             if(regions != null)
             {
-                if(!mCurrentSvChromosome.equals(var.chromosomeStart()))
+                if(!cursor.mCurrentSvChromosome.equals(var.chromosomeStart()))
                 {
-                    mCurrentSvChromosome = var.chromosomeStart();
-                    mCurrentSvIndex = 0;
+                    cursor.mCurrentSvChromosome = var.chromosomeStart();
+                    cursor.mCurrentSvIndex = 0;
                 }
 
-                return findPonMatch(regions, var);
+                return findPonMatch(regions, var, cursor);
             }
         }
 
@@ -126,7 +133,7 @@ public class PonCache
         return margins;
     }
 
-    private int findPonMatch(final List<PonSvRegion> regions, final SvData var)
+    private int findPonMatch(final List<PonSvRegion> regions, final SvData var, final PonCursor cursor)
     {
         final int[] marginStart = breakendMargin(var.breakendStart());
         final int[] marginEnd = breakendMargin(var.breakendEnd());
@@ -135,9 +142,9 @@ public class PonCache
                 var.posStart() + marginStart[SE_START] - mPositionMargin,
                 var.posStart() + marginStart[SE_END] + mPositionMargin);
 
-        for(; mCurrentSvIndex < regions.size(); ++mCurrentSvIndex)
+        for(; cursor.mCurrentSvIndex < regions.size(); ++cursor.mCurrentSvIndex)
         {
-            PonSvRegion region = regions.get(mCurrentSvIndex);
+            PonSvRegion region = regions.get(cursor.mCurrentSvIndex);
 
             if(region.RegionStart.overlaps(svStart))
             {
@@ -147,7 +154,7 @@ public class PonCache
                         var.posEnd() + marginEnd[SE_START] - mPositionMargin,
                         var.posEnd() + marginEnd[SE_END] + mPositionMargin);
 
-                return findPonMatch(regions, var, svStart, svEnd, mCurrentSvIndex);
+                return findPonMatch(regions, var, svStart, svEnd, cursor.mCurrentSvIndex);
             }
 
             // exit if the PON is now past this point and retreat one position
@@ -155,8 +162,8 @@ public class PonCache
                 break;
         }
 
-        if(mCurrentSvIndex > 0)
-            --mCurrentSvIndex;
+        if(cursor.mCurrentSvIndex > 0)
+            --cursor.mCurrentSvIndex;
 
         return 0;
     }
@@ -193,7 +200,7 @@ public class PonCache
         return 0;
     }
 
-    private int findSglPonMatch(final List<PonSglRegion> regions, final SvData var)
+    private int findSglPonMatch(final List<PonSglRegion> regions, final SvData var, final PonCursor cursor)
     {
         final int[] marginStart = breakendMargin(var.breakendStart());
 
@@ -201,21 +208,21 @@ public class PonCache
                 var.posStart() + marginStart[SE_START] - mPositionMargin,
                 var.posStart() + marginStart[SE_END] + mPositionMargin);
 
-        for(; mCurrentSglIndex < regions.size(); ++mCurrentSglIndex)
+        for(; cursor.mCurrentSglIndex < regions.size(); ++cursor.mCurrentSglIndex)
         {
-            PonSglRegion region = regions.get(mCurrentSglIndex);
+            PonSglRegion region = regions.get(cursor.mCurrentSglIndex);
 
             if(region.Region.overlaps(svStart))
             {
                 // test the PON entries around this position
-                return findSglPonMatch(regions, var, svStart, mCurrentSglIndex);
+                return findSglPonMatch(regions, var, svStart, cursor.mCurrentSglIndex);
             }
 
             // exit if the PON is now past this point and retreat one position
             if(region.Region.start() > svStart.end())
             {
-                if(mCurrentSglIndex > 0)
-                    --mCurrentSglIndex;
+                if(cursor.mCurrentSglIndex > 0)
+                    --cursor.mCurrentSglIndex;
 
                 break;
             }
@@ -403,8 +410,8 @@ public class PonCache
 
     public void clear()
     {
-        mCurrentSvIndex = 0;
-        mCurrentSglIndex = 0;
+        mCursor.mCurrentSvIndex = 0;
+        mCursor.mCurrentSglIndex = 0;
         mSvRegions.clear();
         mSglRegions.clear();
     }
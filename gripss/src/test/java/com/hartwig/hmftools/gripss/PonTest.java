@@ -21,6 +21,7 @@ import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.region.BaseRegion;
 import com.hartwig.hmftools.common.region.ChrBaseRegion;
 import com.hartwig.hmftools.gripss.common.SvData;
+import com.hartwig.hmftools.gripss.filters.FilterType;
 import com.hartwig.hmftools.gripss.pon.PonCache;
 import com.hartwig.hmftools.gripss.pon.PonSglRegion;
 import com.hartwig.hmftools.gripss.pon.PonSvRegion;
@@ -157,6 +158,47 @@ public class PonTest
         assertTrue(mPonCache.getPonCount(var) > 0);
     }
 
+    @Test
+    public void testPonCursorsPerChromosome()
+    {
+        mPonCache.addPonSvRegion(
+                CHR_1, new BaseRegion(100, 110), POS_ORIENT, new ChrBaseRegion(CHR_1, 1000, 1010), NEG_ORIENT, 1);
+
+        mPonCache.addPonSvRegion(
+                CHR_1, new BaseRegion(5000, 5010), POS_ORIENT, new ChrBaseRegion(CHR_1, 6000, 6010), NEG_ORIENT, 1);
+
+        mPonCache.addPonSvRegion(
+                CHR_2, new BaseRegion(100, 110), POS_ORIENT, new ChrBaseRegion(CHR_2, 1000, 1010), NEG_ORIENT, 1);
+
+        // cursors used by separate chromosome tasks don't affect each other, even if interleaved
+        PonCache.PonCursor cursor1 = mPonCache.createCursor();
+        PonCache.PonCursor cursor2 = mPonCache.createCursor();
+
+        SvData var1 = mGripss.createDel(CHR_1, 105, 1005, null, null);
+        SvData var2 = mGripss.createDel(CHR_2, 105, 1005, null, null);
+        SvData var3 = mGripss.createDel(CHR_1, 5005, 6005, null, null);
+
+        assertTrue(mPonCache.getPonCount(var1, cursor1) > 0);
+        assertTrue(mPonCache.getPonCount(var2, cursor2) > 0);
+        assertTrue(mPonCache.getPonCount(var3, cursor1) > 0);
+
+        // filters from each task's cache are combined
+        FilterCache filterCache1 = new FilterCache();
+        filterCache1.checkPonFilter(mPonCache, mPonCache.createCursor(), var1);
+
+        FilterCache filterCache2 = new FilterCache();
+        filterCache2.checkPonFilter(mPonCache, mPonCache.createCursor(), var2);
+
+        FilterCache combinedCache = new FilterCache();
+        combinedCache.mergeFilters(filterCache1);
+        combinedCache.mergeFilters(filterCache2);
+
+        assertEquals(2, combinedCache.ponFilteredCount());
+        assertTrue(combinedCache.hasFilter(var1, FilterType.PON));
+        assertTrue(combinedCache.hasFilter(var2, FilterType.PON));
+        assertFalse(combinedCache.hasFilter(var3, FilterType.PON));
+    }
+
     @Test
     public void testPonSvRegionMerge()
     {
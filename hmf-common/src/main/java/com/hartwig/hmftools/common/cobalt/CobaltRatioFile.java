@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
@@ -24,7 +25,8 @@ import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
 import com.hartwig.hmftools.common.genome.gc.GCProfileFactory;
 import com.hartwig.hmftools.common.purple.Gender;
-import com.hartwig.hmftools.common.utils.file.DelimFileReader;
+import com.hartwig.hmftools.common.utils.file.ColumnarDelimFileReader;
+import com.hartwig.hmftools.common.utils.file.ColumnarDelimFileReader.ColumnType;
 import com.hartwig.hmftools.common.utils.file.DelimFileWriter;
 
 import org.jetbrains.annotations.NotNull;
@@ -115,55 +117,67 @@ public final class CobaltRatioFile
     {
         Map<Chromosome,List<CobaltRatio>> chrRatiosMap = new HashMap<>();
 
-        try(DelimFileReader reader = new DelimFileReader(filename))
+        try(ColumnarDelimFileReader reader = new ColumnarDelimFileReader(filename))
         {
-            List<CobaltRatio> ratios = null;
-            String currentChromosome = null;
-
-            int chrIndex = reader.getColumnIndex(Column.chromosome);
-            int posIndex = reader.getColumnIndex(Column.position);
-
-            int refGcRatioIndex = reader.getColumnIndex(Column.referenceGCRatio);
-            int tumorGcRatioIndex = reader.getColumnIndex(Column.tumorGCRatio);
-            int refGcDiplodRatioIndex = reader.getColumnIndex(Column.referenceGCDiploidRatio);
+            reader.addColumn(Column.chromosome, ColumnType.CATEGORY);
+            reader.addColumn(Column.position, ColumnType.INT);
+            reader.addColumn(Column.referenceGCRatio, ColumnType.DOUBLE);
+            reader.addColumn(Column.tumorGCRatio, ColumnType.DOUBLE);
+            reader.addColumn(Column.referenceGCDiploidRatio, ColumnType.DOUBLE);
 
             // 1.15 field updates
             // changes: referenceReadCount -> referenceReadDepth, tumorReadCount -> tumorReadDepth
             // added: referenceGCContent, tumorGCContent
 
-            // v1.16 onwards
-            Integer refReadDepthIndex = reader.getColumnIndex(Column.referenceReadDepth);
-            Integer tumorReadDepthIndex = reader.getColumnIndex(Column.tumorReadDepth);
-            Integer refGcContentIndex = reader.getColumnIndex(Column.referenceGCContent);
-            Integer tumorGcContentIndex = reader.getColumnIndex(Column.tumorGCContent);
-
             // v1.15 backwards compatibility with conversion below
-            Integer refReadCountIndex = reader.getColumnIndex(COL_REF_READ_COUNT);
-            Integer tumorReadCountIndex = reader.getColumnIndex(COL_TUMOR_READ_COUNT);
+            boolean useReadCount = reader.hasColumn(COL_REF_READ_COUNT) && reader.hasColumn(COL_TUMOR_READ_COUNT);
+            boolean hasGcContent = reader.hasColumn(Column.referenceGCContent) && reader.hasColumn(Column.tumorGCContent);
 
-            boolean useReadCount = refReadCountIndex != null && tumorReadCountIndex != null;
-            boolean hasGcContent = refGcContentIndex != null && tumorGcContentIndex != null;
+            String refReadDepthColumn = useReadCount ? COL_REF_READ_COUNT : Column.referenceReadDepth.name();
+            String tumorReadDepthColumn = useReadCount ? COL_TUMOR_READ_COUNT : Column.tumorReadDepth.name();
 
-            for(DelimFileReader.Row row : reader)
+            reader.addColumn(refReadDepthColumn, ColumnType.DOUBLE);
+            reader.addColumn(tumorReadDepthColumn, ColumnType.DOUBLE);
+
+            if(hasGcContent)
             {
-                String chromosome = row.get(chrIndex);
+                reader.addColumn(Column.referenceGCContent, ColumnType.DOUBLE);
+                reader.addColumn(Column.tumorGCContent, ColumnType.DOUBLE);
+            }
+
+            ColumnarDelimFileReader.Columns columns = reader.read();
+
+            String[] chromosomes = columns.getStrings(Column.chromosome);
+            int[] positions = columns.getInts(Column.position);
+            double[] refReadDepths = columns.getDoubles(refReadDepthColumn);
+            double[] tumorReadDepths = columns.getDoubles(tumorReadDepthColumn);
+            double[] refGcRatios = columns.getDoubles(Column.referenceGCRatio);
+            double[] tumorGcRatios = columns.getDoubles(Column.tumorGCRatio);
+            double[] refGcDiploidRatios = columns.getDoubles(Column.referenceGCDiploidRatio);
+            double[] refGcContents = hasGcContent ? columns.getDoubles(Column.referenceGCContent) : null;
+            double[] tumorGcContents = hasGcContent ? columns.getDoubles(Column.tumorGCContent) : null;
 
-                if(currentChromosome == null || !currentChromosome.equals(chromosome))
+            List<CobaltRatio> ratios = null;
+            String currentChromosome = null;
+
+            for(int i = 0; i < columns.rowCount(); ++i)
+            {
+                String chromosome = chromosomes[i];
+
+                if(chromosome == null)
+                    throw new NoSuchElementException();
+
+                if(!chromosome.equals(currentChromosome))
                 {
                     currentChromosome = chromosome;
                     ratios = new ArrayList<>();
                     chrRatiosMap.put(HumanChromosome.fromString(chromosome), ratios);
                 }
-                else
-                {
-                    // use the same String object for better performance
-                    chromosome = currentChromosome;
-                }
 
-                double refReadDepth = useReadCount ? convertReadCount(row.getDouble(refReadCountIndex)) : row.getDouble(refReadDepthIndex);
+                double refReadDepth = useReadCount ? convertReadCount(refReadDepths[i]) : refReadDepths[i];
 
-                double initialRefGCRatio = row.getDouble(refGcRatioIndex);
-                double initialRefGCDiploidRatio = row.getDouble(refGcDiplodRatioIndex);
+                double initialRefGCRatio = refGcRatios[i];
+                double initialRefGCDiploidRatio = refGcDiploidRatios[i];
 
                 if(refReadDepth == READ_DEPTH_INVALID)
                 {
@@ -174,16 +188,16 @@ public final class CobaltRatioFile
 
                 double refGcRatio = genderAdjustedDiploidRatio(gender, chromosome, initialRefGCRatio);
                 double refGcDiploadRatio = genderAdjustedDiploidRatio(gender, chromosome, initialRefGCDiploidRatio);
-                double tumorGCRatio = hasTumor ? row.getDouble(tumorGcRatioIndex) : refGcDiploadRatio;
+                double tumorGCRatio = hasTumor ? tumorGcRatios[i] : refGcDiploadRatio;
 
-                double tumorReadDepth = useReadCount ? convertReadCount(row.getDouble(tumorReadCountIndex)) : row.getDouble(tumorReadDepthIndex);
+                double tumorReadDepth = useReadCount ? convertReadCount(tumorReadDepths[i]) : tumorReadDepths[i];
 
-                double refGcContent = hasGcContent ? row.getDouble(refGcContentIndex) : 0;
-                double tumorGcContent = hasGcContent ? row.getDouble(tumorGcContentIndex) : 0;
+                double refGcContent = hasGcContent ? refGcContents[i] : 0;
+                double tumorGcContent = hasGcContent ? tumorGcContents[i] : 0;
 
                 CobaltRatio ratio = ImmutableCobaltRatio.builder()
                         .chromosome(chromosome)
-                        .position(row.getInt(posIndex))
+                        .position(positions[i])
                         .referenceReadDepth(refReadDepth)
                         .tumorReadDepth(tumorReadDepth)
                         .tumorGCRatio(tumorGCRatio)
@@ -0,0 +1,236 @@
+package com.hartwig.hmftools.common.ensemblcache;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import static com.hartwig.hmftools.common.fusion.FusionCommon.POS_STRAND;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.gene.GeneData;
+
+public final class ChromosomeGeneIndex
+{
+    // an immutable interval index over a chromosome's genes, padded upstream by a fixed distance and downstream by any
+    // registered downstream annotation distance, so it can be shared across threads
+    // genes are held sorted by padded start as an implicit binary tree augmented with the max padded end of each subtree,
+    // giving overlap queries in O(log n + k)
+    private final List<GeneData> mSourceGenes;
+
+    private final GeneData[] mGenes;
+    private final int[] mSourceIndices; // used to return matches in the same order as the source gene list
+    private final int[] mStarts;
+    private final int[] mEnds;
+    private final int[] mMaxEnds;
+    private final int mMaxLevel;
+
+    // sub-trees at or below this level are scanned linearly
+    private static final int LINEAR_SCAN_LEVEL = 3;
+
+    public ChromosomeGeneIndex(final List<GeneData> genes, int upstreamDistance, final Map<GeneData,Integer> downstreamDistances)
+    {
+        mSourceGenes = Lists.newArrayList(genes);
+
+        int geneCount = genes.size();
+
+        Integer[] order = new Integer[geneCount];
+        int[] paddedStarts = new int[geneCount];
+        int[] paddedEnds = new int[geneCount];
+
+        for(int i = 0; i < geneCount; ++i)
+        {
+            GeneData geneData = genes.get(i);
+            int downstreamDistance = downstreamDistances.getOrDefault(geneData, 0);
+
+            if(geneData.Strand == POS_STRAND)
+            {
+                paddedStarts[i] = geneData.GeneStart - upstreamDistance;
+                paddedEnds[i] = geneData.GeneEnd + downstreamDistance;
+            }
+            else
+            {
+                paddedStarts[i] = geneData.GeneStart - downstreamDistance;
+                paddedEnds[i] = geneData.GeneEnd + upstreamDistance;
+            }
+
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparingInt(x -> paddedStarts[x]));
+
+        mGenes = new GeneData[geneCount];
+        mSourceIndices = new int[geneCount];
+        mStarts = new int[geneCount];
+        mEnds = new int[geneCount];
+        mMaxEnds = new int[geneCount];
+
+        for(int i = 0; i < geneCount; ++i)
+        {
+            mGenes[i] = genes.get(order[i]);
+            mSourceIndices[i] = order[i];
+            mStarts[i] = paddedStarts[order[i]];
+            mEnds[i] = paddedEnds[order[i]];
+        }
+
+        mMaxLevel = buildMaxEnds();
+    }
+
+    public int geneCount() { return mGenes.length; }
+
+    public List<GeneData> findGenes(int position) { return findGenes(position, position); }
+
+    public List<GeneData> findGenes(int posStart, int posEnd)
+    {
+        // returns genes whose padded range overlaps the inclusive range, ordered as per the source gene list
+        if(mGenes.length == 0)
+            return Lists.newArrayList();
+
+        int matchCount = 0;
+        int[] matches = null;
+
+        // each stack entry holds the node index, its level, and whether its left child has been visited
+        int[] stackNodes = new int[64];
+        int[] stackLevels = new int[64];
+        boolean[] stackVisited = new boolean[64];
+        int stackSize = 0;
+
+        stackNodes[0] = (1 << mMaxLevel) - 1;
+        stackLevels[0] = mMaxLevel;
+        stackVisited[0] = false;
+        stackSize = 1;
+
+        while(stackSize > 0)
+        {
+            --stackSize;
+            int node = stackNodes[stackSize];
+            int level = stackLevels[stackSize];
+            boolean leftVisited = stackVisited[stackSize];
+
+            if(level <= LINEAR_SCAN_LEVEL)
+            {
+                int first = node >> level << level;
+                int last = min(first + (1 << (level + 1)) - 1, mGenes.length);
+
+                for(int i = first; i < last && mStarts[i] <= posEnd; ++i)
+                {
+                    if(mEnds[i] >= posStart)
+                    {
+                        if(matches == null)
+                            matches = new int[4];
+                        else if(matchCount == matches.length)
+                            matches = Arrays.copyOf(matches, matchCount * 2);
+
+                        matches[matchCount++] = i;
+                    }
+                }
+            }
+            else if(!leftVisited)
+            {
+                int leftChild = node - (1 << (level - 1));
+
+                stackNodes[stackSize] = node;
+                stackLevels[stackSize] = level;
+                stackVisited[stackSize] = true;
+                ++stackSize;
+
+                if(leftChild >= mGenes.length || mMaxEnds[leftChild] >= posStart)
+                {
+                    stackNodes[stackSize] = leftChild;
+                    stackLevels[stackSize] = level - 1;
+                    stackVisited[stackSize] = false;
+                    ++stackSize;
+                }
+            }
+            else if(node < mGenes.length && mStarts[node] <= posEnd)
+            {
+                if(mEnds[node] >= posStart)
+                {
+                    if(matches == null)
+                        matches = new int[4];
+                    else if(matchCount == matches.length)
+                        matches = Arrays.copyOf(matches, matchCount * 2);
+
+                    matches[matchCount++] = node;
+                }
+
+                stackNodes[stackSize] = node + (1 << (level - 1));
+                stackLevels[stackSize] = level - 1;
+                stackVisited[stackSize] = false;
+                ++stackSize;
+            }
+        }
+
+        if(matchCount == 0)
+            return Lists.newArrayList();
+
+        int[] sourceIndices = new int[matchCount];
+
+        for(int i = 0; i < matchCount; ++i)
+        {
+            sourceIndices[i] = mSourceIndices[matches[i]];
+        }
+
+        Arrays.sort(sourceIndices);
+
+        List<GeneData> genes = Lists.newArrayListWithCapacity(matchCount);
+
+        for(int sourceIndex : sourceIndices)
+        {
+            genes.add(mSourceGenes.get(sourceIndex));
+        }
+
+        return genes;
+    }
+
+    private int buildMaxEnds()
+    {
+        // leaves sit at even indices, and a node at level k has its lowest k bits set, with children at index -/+ 2^(k-1)
+        int geneCount = mGenes.length;
+
+        if(geneCount == 0)
+            return 0;
+
+        int lastIndex = 0;
+        int lastMaxEnd = 0;
+
+        for(int i = 0; i < geneCount; i += 2)
+        {
+            lastIndex = i;
+            mMaxEnds[i] = mEnds[i];
+            lastMaxEnd = mMaxEnds[i];
+        }
+
+        for(int i = 1; i < geneCount; i += 2)
+        {
+            mMaxEnds[i] = mEnds[i];
+        }
+
+        int level = 1;
+
+        for(; (1 << level) <= geneCount; ++level)
+        {
+            int halfSpan = 1 << (level - 1);
+            int firstNode = (halfSpan << 1) - 1;
+            int step = halfSpan << 2;
+
+            for(int i = firstNode; i < geneCount; i += step)
+            {
+                int leftMaxEnd = mMaxEnds[i - halfSpan];
+                int rightMaxEnd = i + halfSpan < geneCount ? mMaxEnds[i + halfSpan] : lastMaxEnd;
+                mMaxEnds[i] = max(mEnds[i], max(leftMaxEnd, rightMaxEnd));
+            }
+
+            // track the last node at this level, whose right sub-tree may lie beyond the array
+            lastIndex = ((lastIndex >> level) & 1) != 0 ? lastIndex - halfSpan : lastIndex + halfSpan;
+
+            if(lastIndex < geneCount && mMaxEnds[lastIndex] > lastMaxEnd)
+                lastMaxEnd = mMaxEnds[lastIndex];
+        }
+
+        return level - 1;
+    }
+}
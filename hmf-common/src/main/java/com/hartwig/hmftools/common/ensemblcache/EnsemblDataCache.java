@@ -16,6 +16,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -54,6 +55,10 @@ public class EnsemblDataCache
     private final List<GeneData> mAlternativeGeneData;
     private final List<String> mRestrictedGeneIdList = Lists.newArrayList();
 
+    // gene interval indices keyed by chromosome, upstream distance and whether downstream annotations are applied, built on first use
+    // and shared across threads - builds and anything which invalidates them are synchronised on the index map
+    private final Map<String,ChromosomeGeneIndex> mGeneIndices;
+
     public static final String ENSEMBL_DATA_DIR = "ensembl_data_dir";
     public static final String ENSEMBL_DATA_DIR_CFG = "Ensembl data file directory";
 
@@ -87,6 +92,7 @@ public class EnsemblDataCache
         mRequireNonEnsemblTranscripts = false;
         mDownstreamGeneAnnotations = Maps.newHashMap();
         mAlternativeGeneData = Lists.newArrayList();
+        mGeneIndices = new ConcurrentHashMap<>();
     }
 
     public static void addEnsemblDir(final ConfigBuilder configBuilder)
@@ -107,9 +113,20 @@ public class EnsemblDataCache
 
     public void addDownstreamGeneAnnotations(final GeneData geneData, int distance)
     {
-        mDownstreamGeneAnnotations.put(geneData, distance);
+        synchronized(mGeneIndices)
+        {
+            mDownstreamGeneAnnotations.put(geneData, distance);
+            mGeneIndices.clear();
+        }
+    }
+
+    public boolean hasDownstreamGeneAnnotation(final GeneData geneData)
+    {
+        synchronized(mGeneIndices)
+        {
+            return mDownstreamGeneAnnotations.containsKey(geneData);
+        }
     }
-    public boolean hasDownstreamGeneAnnotation(final GeneData geneData) { return mDownstreamGeneAnnotations.containsKey(geneData); }
 
     public List<GeneData> getAlternativeGeneData() { return mAlternativeGeneData; }
 
@@ -125,6 +142,8 @@ public class EnsemblDataCache
     public void setRequireNonEnsemblTranscripts() { mRequireNonEnsemblTranscripts = true; }
 
     public Map<String,List<TranscriptData>> getTranscriptDataMap() { return mTranscriptByGeneIdMap; }
+
+    // callers which add or replace genes in this map must then call invalidateGeneIndices
     public Map<String,List<GeneData>> getChrGeneDataMap() { return mChrGeneDataMap; }
     public Map<Integer,List<TranscriptProteinData>> getTranscriptProteinDataMap() { return mEnsemblProteinDataMap; }
 
@@ -234,18 +253,60 @@ public class EnsemblDataCache
 
     public TranscriptData getTranscriptData(final int transId) { return mTranscriptsByTransIdMap.get(transId); }
 
+    public void invalidateGeneIndices()
+    {
+        synchronized(mGeneIndices)
+        {
+            mGeneIndices.clear();
+        }
+    }
+
+    public ChromosomeGeneIndex getGeneIndex(final String chromosome, int upstreamDistance)
+    {
+        return getGeneIndex(chromosome, upstreamDistance, true);
+    }
+
+    private ChromosomeGeneIndex getGeneIndex(final String chromosome, int upstreamDistance, boolean applyDownstream)
+    {
+        String indexKey = chromosome + "_" + upstreamDistance + (applyDownstream ? "_ds" : "");
+        ChromosomeGeneIndex geneIndex = mGeneIndices.get(indexKey);
+
+        if(geneIndex != null)
+            return geneIndex;
+
+        synchronized(mGeneIndices)
+        {
+            geneIndex = mGeneIndices.get(indexKey);
+
+            if(geneIndex != null)
+                return geneIndex;
+
+            final List<GeneData> geneDataList = mChrGeneDataMap.get(chromosome);
+
+            if(geneDataList == null)
+                return null;
+
+            geneIndex = new ChromosomeGeneIndex(
+                    geneDataList, upstreamDistance, applyDownstream ? mDownstreamGeneAnnotations : Collections.emptyMap());
+
+            mGeneIndices.put(indexKey, geneIndex);
+            return geneIndex;
+        }
+    }
+
     public final List<GeneData> findGenesByRegion(final String chromosome, int posStart, int posEnd)
     {
         // find genes if any of their transcripts are within this position
         List<GeneData> genesList = Lists.newArrayList();
 
-        final List<GeneData> geneDataList = mChrGeneDataMap.get(chromosome);
+        // matched against exact gene bounds, without any downstream annotation distance
+        ChromosomeGeneIndex geneIndex = getGeneIndex(chromosome, 0, false);
 
-        for(final GeneData geneData : geneDataList)
-        {
-            if(posStart > geneData.GeneEnd || posEnd < geneData.GeneStart)
-                continue;
+        if(geneIndex == null)
+            return genesList;
 
+        for(final GeneData geneData : geneIndex.findGenes(posStart, posEnd))
+        {
             final List<TranscriptData> transList = mTranscriptByGeneIdMap.get(geneData.GeneId);
 
             if(transList == null || transList.isEmpty())
@@ -266,39 +327,13 @@ public class EnsemblDataCache
 
     public List<GeneData> findGeneRegions(final String chromosome, int position, int upstreamDistance)
     {
-        final List<GeneData> matchedGenes = Lists.newArrayList();
+        // genes are matched within their upstream distance, and beyond their end for any with downstream annotations
+        ChromosomeGeneIndex geneIndex = getGeneIndex(chromosome, upstreamDistance);
 
-        final List<GeneData> geneDataList = mChrGeneDataMap.get(chromosome);
-
-        if(geneDataList == null)
-            return matchedGenes;
+        if(geneIndex == null)
+            return Lists.newArrayList();
 
-        for(final GeneData geneData : geneDataList)
-        {
-            int geneStartRange = geneData.Strand == 1 ? geneData.GeneStart - upstreamDistance : geneData.GeneStart;
-            int geneEndRange = geneData.Strand == 1 ? geneData.GeneEnd : geneData.GeneEnd + upstreamDistance;
-
-            if(position >= geneStartRange && position <= geneEndRange)
-            {
-                matchedGenes.add(geneData);
-            }
-        }
-
-        for(Map.Entry<GeneData,Integer> entry : mDownstreamGeneAnnotations.entrySet())
-        {
-            final GeneData geneData = entry.getKey();
-
-            if(matchedGenes.contains(geneData) || !geneData.Chromosome.equals(chromosome))
-                continue;
-
-            if((geneData.Strand == POS_STRAND && position >= geneData.GeneEnd && position <= geneData.GeneEnd + entry.getValue())
-            || (geneData.Strand == NEG_STRAND && position <= geneData.GeneStart && position >= geneData.GeneStart - entry.getValue()))
-            {
-                matchedGenes.add(geneData);
-            }
-        }
-
-        return matchedGenes;
+        return geneIndex.findGenes(position);
     }
 
     public int findPrecedingGeneSpliceAcceptorPosition(int transId)
@@ -393,6 +428,8 @@ public class EnsemblDataCache
 
     public boolean load(boolean delayTranscriptLoading)
     {
+        invalidateGeneIndices();
+
         if(!loadEnsemblGeneData(mDataPath, mRestrictedGeneIdList, mChrGeneDataMap, mRefGenomeVersion, mRequireGeneSynonyms))
             return false;
 
@@ -0,0 +1,33 @@
+package com.hartwig.hmftools.common.fastq;
+
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.hartwig.hmftools.common.utils.file.ParallelBgzfOutputStream;
+
+public final class FastqFiles
+{
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public static boolean isGzipped(final String filename) { return filename.endsWith(GZIP_EXTENSION); }
+
+    public static InputStream openInputStream(final String filename, int threads) throws IOException
+    {
+        return createInputStream(filename, threads);
+    }
+
+    public static OutputStream openOutputStream(final String filename, int threads) throws IOException
+    {
+        // gzipped output is written as BGZF, which any gzip reader accepts
+        if(isGzipped(filename))
+            return new ParallelBgzfOutputStream(new FileOutputStream(filename), threads);
+
+        return new BufferedOutputStream(new FileOutputStream(filename), BUFFER_SIZE);
+    }
+}
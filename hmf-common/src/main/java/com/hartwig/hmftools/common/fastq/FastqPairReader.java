@@ -0,0 +1,48 @@
+package com.hartwig.hmftools.common.fastq;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+
+public class FastqPairReader implements AutoCloseable
+{
+    // reads a pair of FASTQ files in lockstep, so each call returns the next record from each
+    private final FastqRecordReader mReader1;
+    private final FastqRecordReader mReader2;
+
+    public FastqPairReader(final FastqRecordReader reader1, final FastqRecordReader reader2)
+    {
+        mReader1 = reader1;
+        mReader2 = reader2;
+    }
+
+    public static FastqPairReader open(final String filename1, final String filename2, int threads) throws IOException
+    {
+        // decompression threads are shared between the two files
+        int fileThreads = Math.max(threads / 2, 1);
+        return new FastqPairReader(FastqRecordReader.open(filename1, fileThreads), FastqRecordReader.open(filename2, fileThreads));
+    }
+
+    public long pairCount() { return mReader1.recordCount(); }
+
+    public boolean next(final FastqRecord record1, final FastqRecord record2) throws IOException
+    {
+        boolean hasRecord1 = mReader1.next(record1);
+        boolean hasRecord2 = mReader2.next(record2);
+
+        if(hasRecord1 != hasRecord2)
+        {
+            throw new IOException(format("paired FASTQ files have differing record counts, ending after %d and %d records",
+                    mReader1.recordCount(), mReader2.recordCount()));
+        }
+
+        return hasRecord1;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mReader1.close();
+        mReader2.close();
+    }
+}
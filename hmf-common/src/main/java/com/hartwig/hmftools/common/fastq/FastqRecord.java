@@ -0,0 +1,155 @@
+package com.hartwig.hmftools.common.fastq;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class FastqRecord
+{
+    // a FASTQ record's 4 lines held as bytes, filled by a record reader and reused from one record to the next, with bases
+    // and qualities trimmed together by offsets rather than by copying
+    private final byte[][] mLines;
+    private final int[] mLineLengths;
+
+    private int mTrimStart;
+    private int mTrimEnd;
+
+    public static final int NAME_LINE = 0;
+    public static final int BASES_LINE = 1;
+    public static final int SPARE_LINE = 2;
+    public static final int QUALS_LINE = 3;
+    public static final int RECORD_LINE_COUNT = 4;
+
+    public static final byte READ_NAME_START = '@';
+    public static final byte SPARE_LINE_START = '+';
+
+    private static final int INITIAL_LINE_CAPACITY = 256;
+    private static final byte NEW_LINE = '\n';
+
+    public FastqRecord()
+    {
+        mLines = new byte[RECORD_LINE_COUNT][INITIAL_LINE_CAPACITY];
+        mLineLengths = new int[RECORD_LINE_COUNT];
+        mTrimStart = 0;
+        mTrimEnd = 0;
+    }
+
+    // the name line, starting with '@'
+    public byte[] name() { return mLines[NAME_LINE]; }
+    public int nameLength() { return mLineLengths[NAME_LINE]; }
+
+    public int nameIndexOf(final byte value)
+    {
+        byte[] name = mLines[NAME_LINE];
+
+        for(int i = 0; i < mLineLengths[NAME_LINE]; ++i)
+        {
+            if(name[i] == value)
+                return i;
+        }
+
+        return -1;
+    }
+
+    public boolean nameRegionMatches(final FastqRecord other, int start, int end)
+    {
+        if(end > nameLength() || end > other.nameLength())
+            return false;
+
+        return Arrays.equals(mLines[NAME_LINE], start, end, other.mLines[NAME_LINE], start, end);
+    }
+
+    public void insertIntoName(int index, final byte[] insert, int insertLength)
+    {
+        int nameLength = mLineLengths[NAME_LINE];
+        byte[] name = ensureCapacity(NAME_LINE, nameLength + insertLength);
+
+        System.arraycopy(name, index, name, index + insertLength, nameLength - index);
+        System.arraycopy(insert, 0, name, index, insertLength);
+        mLineLengths[NAME_LINE] = nameLength + insertLength;
+    }
+
+    public String readName() { return new String(mLines[NAME_LINE], 0, mLineLengths[NAME_LINE], StandardCharsets.US_ASCII); }
+
+    // bases and qualities after any trimming
+    public int readLength() { return mLineLengths[BASES_LINE] - mTrimStart - mTrimEnd; }
+    public int qualsLength() { return mLineLengths[QUALS_LINE] - mTrimStart - mTrimEnd; }
+
+    public byte base(int index) { return mLines[BASES_LINE][mTrimStart + index]; }
+    public byte qual(int index) { return mLines[QUALS_LINE][mTrimStart + index]; }
+
+    public int basesIndexOf(final byte[] sequence, int start, int end)
+    {
+        // searches for the sequence within bases [start, end) of the trimmed read
+        byte[] bases = mLines[BASES_LINE];
+        int lastStart = end - sequence.length;
+
+        for(int i = start; i <= lastStart; ++i)
+        {
+            if(Arrays.equals(bases, mTrimStart + i, mTrimStart + i + sequence.length, sequence, 0, sequence.length))
+                return i;
+        }
+
+        return -1;
+    }
+
+    public void copyBases(int start, final byte[] destination, int destinationIndex, int length)
+    {
+        System.arraycopy(mLines[BASES_LINE], mTrimStart + start, destination, destinationIndex, length);
+    }
+
+    public String bases()
+    {
+        return new String(mLines[BASES_LINE], mTrimStart, readLength(), StandardCharsets.US_ASCII);
+    }
+
+    public void trimStart(int count) { mTrimStart += count; }
+    public void trimEnd(int count) { mTrimEnd += count; }
+
+    public void writeTo(final OutputStream outputStream) throws IOException
+    {
+        outputStream.write(mLines[NAME_LINE], 0, mLineLengths[NAME_LINE]);
+        outputStream.write(NEW_LINE);
+        outputStream.write(mLines[BASES_LINE], mTrimStart, readLength());
+        outputStream.write(NEW_LINE);
+        outputStream.write(mLines[SPARE_LINE], 0, mLineLengths[SPARE_LINE]);
+        outputStream.write(NEW_LINE);
+        outputStream.write(mLines[QUALS_LINE], mTrimStart, qualsLength());
+        outputStream.write(NEW_LINE);
+    }
+
+    // methods for the record reader
+    void clear()
+    {
+        Arrays.fill(mLineLengths, 0);
+        mTrimStart = 0;
+        mTrimEnd = 0;
+    }
+
+    byte[] line(int lineIndex) { return mLines[lineIndex]; }
+    int lineLength(int lineIndex) { return mLineLengths[lineIndex]; }
+
+    void appendToLine(int lineIndex, final byte[] data, int offset, int length)
+    {
+        int lineLength = mLineLengths[lineIndex];
+        byte[] line = ensureCapacity(lineIndex, lineLength + length);
+        System.arraycopy(data, offset, line, lineLength, length);
+        mLineLengths[lineIndex] = lineLength + length;
+    }
+
+    void setLineLength(int lineIndex, int length) { mLineLengths[lineIndex] = length; }
+
+    private byte[] ensureCapacity(int lineIndex, int capacity)
+    {
+        if(mLines[lineIndex].length < capacity)
+            mLines[lineIndex] = Arrays.copyOf(mLines[lineIndex], Math.max(capacity, mLines[lineIndex].length * 2));
+
+        return mLines[lineIndex];
+    }
+
+    public String toString()
+    {
+        return String.format("%s length(%d)", readName(), readLength());
+    }
+}
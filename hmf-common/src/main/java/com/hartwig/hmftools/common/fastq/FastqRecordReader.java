@@ -0,0 +1,138 @@
+package com.hartwig.hmftools.common.fastq;
+
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.common.fastq.FastqRecord.BASES_LINE;
+import static com.hartwig.hmftools.common.fastq.FastqRecord.NAME_LINE;
+import static com.hartwig.hmftools.common.fastq.FastqRecord.QUALS_LINE;
+import static com.hartwig.hmftools.common.fastq.FastqRecord.READ_NAME_START;
+import static com.hartwig.hmftools.common.fastq.FastqRecord.RECORD_LINE_COUNT;
+import static com.hartwig.hmftools.common.fastq.FastqRecord.SPARE_LINE;
+import static com.hartwig.hmftools.common.fastq.FastqRecord.SPARE_LINE_START;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class FastqRecordReader implements AutoCloseable
+{
+    // parses FASTQ records from a stream's bytes straight into a reused record, without forming a string per line
+    private final InputStream mInputStream;
+    private final String mSource;
+    private final byte[] mBuffer;
+    private int mBufferPosition;
+    private int mBufferEnd;
+    private boolean mEndOfStream;
+    private long mRecordCount;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    public FastqRecordReader(final InputStream inputStream, final String source)
+    {
+        mInputStream = inputStream;
+        mSource = source;
+        mBuffer = new byte[BUFFER_SIZE];
+        mBufferPosition = 0;
+        mBufferEnd = 0;
+        mEndOfStream = false;
+        mRecordCount = 0;
+    }
+
+    public static FastqRecordReader open(final String filename, int threads) throws IOException
+    {
+        return new FastqRecordReader(FastqFiles.openInputStream(filename, threads), filename);
+    }
+
+    public long recordCount() { return mRecordCount; }
+
+    public boolean next(final FastqRecord record) throws IOException
+    {
+        record.clear();
+
+        if(!readLine(record, NAME_LINE))
+            return false;
+
+        for(int lineIndex = BASES_LINE; lineIndex < RECORD_LINE_COUNT; ++lineIndex)
+        {
+            if(!readLine(record, lineIndex))
+                throw new IOException(format("%s: truncated record(%d) %s", mSource, mRecordCount + 1, record.readName()));
+        }
+
+        if(record.lineLength(NAME_LINE) == 0 || record.line(NAME_LINE)[0] != READ_NAME_START
+        || record.lineLength(SPARE_LINE) == 0 || record.line(SPARE_LINE)[0] != SPARE_LINE_START)
+        {
+            throw new IOException(format("%s: invalid record(%d) %s", mSource, mRecordCount + 1, record.readName()));
+        }
+
+        if(record.lineLength(BASES_LINE) != record.lineLength(QUALS_LINE))
+        {
+            throw new IOException(format("%s: record(%d) %s bases length(%d) differs from qualities(%d)",
+                    mSource, mRecordCount + 1, record.readName(), record.lineLength(BASES_LINE), record.lineLength(QUALS_LINE)));
+        }
+
+        ++mRecordCount;
+        return true;
+    }
+
+    private boolean readLine(final FastqRecord record, int lineIndex) throws IOException
+    {
+        boolean hasData = false;
+
+        while(true)
+        {
+            if(mBufferPosition >= mBufferEnd && !fillBuffer())
+                break;
+
+            hasData = true;
+
+            int lineEnd = mBufferPosition;
+
+            while(lineEnd < mBufferEnd && mBuffer[lineEnd] != NEW_LINE)
+            {
+                ++lineEnd;
+            }
+
+            record.appendToLine(lineIndex, mBuffer, mBufferPosition, lineEnd - mBufferPosition);
+
+            if(lineEnd < mBufferEnd)
+            {
+                mBufferPosition = lineEnd + 1;
+                break;
+            }
+
+            mBufferPosition = mBufferEnd;
+        }
+
+        int lineLength = record.lineLength(lineIndex);
+
+        if(lineLength > 0 && record.line(lineIndex)[lineLength - 1] == CARRIAGE_RETURN)
+            record.setLineLength(lineIndex, lineLength - 1);
+
+        return hasData;
+    }
+
+    private boolean fillBuffer() throws IOException
+    {
+        if(mEndOfStream)
+            return false;
+
+        int readCount = mInputStream.read(mBuffer, 0, mBuffer.length);
+
+        if(readCount < 0)
+        {
+            mEndOfStream = true;
+            return false;
+        }
+
+        mBufferPosition = 0;
+        mBufferEnd = readCount;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mInputStream.close();
+    }
+}
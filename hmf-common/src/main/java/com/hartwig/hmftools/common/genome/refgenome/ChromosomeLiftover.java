@@ -0,0 +1,86 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+import static com.hartwig.hmftools.common.genome.refgenome.GenomeLiftoverCache.UNMAPPED_POSITION;
+
+import java.util.List;
+
+class ChromosomeLiftover
+{
+    // a chromosome's mappings in one direction held in primitive arrays, in the order of the mappings list, and searched by
+    // the running maximum of their end positions so a binary search finds the same mapping as a walk from the start
+    private final int[] mStarts;
+    private final int[] mEnds;
+    private final int[] mMaxEnds;
+    private final int[] mOffsets; // added to a position, or for reversed mappings the position is subtracted from it
+    private final boolean[] mReversed;
+
+    public ChromosomeLiftover(final List<CoordMapping> mappings, boolean fromSource)
+    {
+        int count = mappings.size();
+        mStarts = new int[count];
+        mEnds = new int[count];
+        mMaxEnds = new int[count];
+        mOffsets = new int[count];
+        mReversed = new boolean[count];
+
+        for(int i = 0; i < count; ++i)
+        {
+            CoordMapping mapping = mappings.get(i);
+
+            mStarts[i] = fromSource ? mapping.SourceStart : mapping.DestStart;
+            mEnds[i] = fromSource ? mapping.SourceEnd : mapping.DestEnd;
+            mMaxEnds[i] = i > 0 ? Math.max(mMaxEnds[i - 1], mEnds[i]) : mEnds[i];
+            mReversed[i] = mapping.Reverse;
+
+            // matches CoordMapping's convertPosition and reversePosition respectively
+            if(mapping.Reverse)
+                mOffsets[i] = mapping.DestEnd + mapping.SourceStart;
+            else
+                mOffsets[i] = fromSource ? mapping.DestStart - mapping.SourceStart : mapping.SourceStart - mapping.DestStart;
+        }
+    }
+
+    public int mappingCount() { return mStarts.length; }
+
+    public int convertPosition(int position)
+    {
+        return convertPosition(position, findMapping(position, 0));
+    }
+
+    // the first mapping at or after the start index which ends at or after the position
+    public int findMapping(int position, int startIndex)
+    {
+        // ascending positions usually fall in the same mapping as the last
+        if(startIndex < mMaxEnds.length && mMaxEnds[startIndex] >= position)
+            return startIndex;
+
+        int low = startIndex;
+        int high = mMaxEnds.length;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(mMaxEnds[mid] < position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    public int convertPosition(int position, int mappingIndex)
+    {
+        if(mappingIndex >= mStarts.length || mStarts[mappingIndex] > position)
+            return UNMAPPED_POSITION;
+
+        return mReversed[mappingIndex] ? mOffsets[mappingIndex] - position : position + mOffsets[mappingIndex];
+    }
+
+    public boolean isBeforeMapping(int position, int mappingIndex)
+    {
+        // whether a search for this position could find an earlier mapping than the one given
+        return mappingIndex > 0 && mMaxEnds[mappingIndex - 1] >= position;
+    }
+}
@@ -1,19 +1,18 @@
 package com.hartwig.hmftools.common.genome.refgenome;
 
+import static com.hartwig.hmftools.common.genome.chromosome.HumanChromosome.CHR_PREFIX;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions.LOGGER;
-import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions.stripChrPrefix;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V38;
 import static com.hartwig.hmftools.common.utils.file.FileDelimiters.TSV_DELIM;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedReader;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
@@ -25,6 +24,10 @@ public class GenomeLiftoverCache
     private final Map<String,List<CoordMapping>> m37to38Mappings;
     private final Map<String,List<CoordMapping>> m38to37Mappings;
 
+    // the mappings compiled for look-ups, with the 38 to 37 conversions also keyed by chromosomes with a 'chr' prefix
+    private final Map<String,ChromosomeLiftover> m37to38Liftovers;
+    private final Map<String,ChromosomeLiftover> m38to37Liftovers;
+
     public static final String LIFTOVER_MAPPING_FILE = "liftover_mapping";
     public static final String LIFTOVER_MAPPING_FILE_DESC = "Liftover mapping file";
 
@@ -38,6 +41,8 @@ public class GenomeLiftoverCache
     {
         m37to38Mappings = Maps.newHashMap();
         m38to37Mappings = Maps.newHashMap();
+        m37to38Liftovers = Maps.newHashMap();
+        m38to37Liftovers = Maps.newHashMap();
 
         if(loadDefaultMappings)
             loadDefaultResource();
@@ -59,44 +64,27 @@ public class GenomeLiftoverCache
 
     public int convertPositionTo37(final String chromosome, final int position)
     {
-        List<CoordMapping> mappings = m38to37Mappings.get(stripChrPrefix(chromosome));
-
-        if(mappings == null || mappings.isEmpty())
-            return position;
-
-        for(CoordMapping mapping : mappings)
-        {
-            if(mapping.DestEnd < position)
-                continue;
-
-            if(mapping.DestStart > position) // can exit if sorted
-                return UNMAPPED_POSITION;
-
-            return mapping.reversePosition(position);
-        }
-
-        return UNMAPPED_POSITION;
+        ChromosomeLiftover liftover = m38to37Liftovers.get(chromosome);
+        return liftover != null ? liftover.convertPosition(position) : position;
     }
 
     public int convertPositionTo38(final String chromosome, final int position)
     {
-        List<CoordMapping> mappings = m37to38Mappings.get(chromosome);
-
-        if(mappings == null || mappings.isEmpty())
-            return position;
-
-        for(CoordMapping mapping : mappings)
-        {
-            if(mapping.SourceEnd < position)
-                continue;
-
-            if(mapping.SourceStart > position)
-                return UNMAPPED_POSITION;
+        ChromosomeLiftover liftover = m37to38Liftovers.get(chromosome);
+        return liftover != null ? liftover.convertPosition(position) : position;
+    }
 
-            return mapping.convertPosition(position);
-        }
+    public LiftoverCursor liftoverCursor(final String chromosome, final RefGenomeVersion destinationVersion)
+    {
+        // for converting a chromosome's positions in ascending order, such as from a sorted VCF
+        return new LiftoverCursor(destinationVersion == V38 ? m37to38Liftovers.get(chromosome) : m38to37Liftovers.get(chromosome));
+    }
 
-        return UNMAPPED_POSITION;
+    public int[] convertPositions(final String chromosome, final int[] positions, final RefGenomeVersion destinationVersion)
+    {
+        int[] convertedPositions = new int[positions.length];
+        liftoverCursor(chromosome, destinationVersion).convertPositions(positions, convertedPositions);
+        return convertedPositions;
     }
 
     public static void addConfig(final ConfigBuilder configBuilder)
@@ -106,10 +94,9 @@ public class GenomeLiftoverCache
 
     public boolean loadFile(final String filename)
     {
-        try
+        try(BufferedReader reader = createBufferedReader(filename))
         {
-            List<String> lines = Files.readAllLines(Paths.get(filename));
-            if(loadFile(lines))
+            if(loadMappings(reader.lines().iterator()))
             {
                 LOGGER.info("loaded {} genome liftover mapping entries from file: {}", m37to38Mappings.size(), filename);
                 return true;
@@ -126,8 +113,7 @@ public class GenomeLiftoverCache
     private void loadDefaultResource()
     {
         final InputStream inputStream = GenomeLiftoverCache.class.getResourceAsStream("/refgenome/hg37_38_mapping.tsv");
-        List<String> lines = new BufferedReader(new InputStreamReader(inputStream)).lines().collect(Collectors.toList());
-        loadFile(lines);
+        loadMappings(new BufferedReader(new InputStreamReader(inputStream)).lines().iterator());
     }
 
     public static final int COL_CHR_37 = 0;
@@ -142,15 +128,22 @@ public class GenomeLiftoverCache
 
     public boolean loadFile(final List<String> lines)
     {
-        // no header, expect exact columns as defined above
-        if(lines.get(0).startsWith("Chr37"))
-            lines.remove(0);
+        return loadMappings(lines.iterator());
+    }
 
+    private boolean loadMappings(final Iterator<String> lines)
+    {
         List<CoordMapping> chrMappings = null;
         String currentChromosome = "";
 
-        for(String line : lines)
+        while(lines.hasNext())
         {
+            String line = lines.next();
+
+            // no header, expect exact columns as defined above
+            if(line.startsWith("Chr37"))
+                continue;
+
             String[] values = line.split(TSV_DELIM, -1);
 
             if(values.length < 8)
@@ -190,9 +183,36 @@ public class GenomeLiftoverCache
             m38to37Mappings.put(chromosome, newMappings);
         }
 
+        buildLiftovers();
         return true;
     }
 
+    private void buildLiftovers()
+    {
+        m37to38Liftovers.clear();
+        m38to37Liftovers.clear();
+
+        for(Map.Entry<String,List<CoordMapping>> entry : m37to38Mappings.entrySet())
+        {
+            if(!entry.getValue().isEmpty())
+                m37to38Liftovers.put(entry.getKey(), new ChromosomeLiftover(entry.getValue(), true));
+        }
+
+        for(Map.Entry<String,List<CoordMapping>> entry : m38to37Mappings.entrySet())
+        {
+            if(entry.getValue().isEmpty())
+                continue;
+
+            // conversions to 37 accept chromosomes with or without a 'chr' prefix, and look up the mappings without it
+            String chromosome = entry.getKey();
+            ChromosomeLiftover liftover = new ChromosomeLiftover(entry.getValue(), false);
+            m38to37Liftovers.put(CHR_PREFIX + chromosome, liftover);
+
+            if(!chromosome.startsWith(CHR_PREFIX))
+                m38to37Liftovers.put(chromosome, liftover);
+        }
+    }
+
     @VisibleForTesting
     public void addMapping(final String chromosome, int sourceStart, int sourceEnd, int destStart, int destEnd, boolean reverse)
     {
@@ -204,5 +224,6 @@ public class GenomeLiftoverCache
             m37to38Mappings.put(chromosome, chrMappings);
         }
         chrMappings.add(new CoordMapping(chromosome, sourceStart, sourceEnd, destStart, destEnd, reverse));
+        buildLiftovers();
     }
 }
@@ -0,0 +1,35 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+public class LiftoverCursor
+{
+    // converts a chromosome's positions in ascending order, searching onwards from the previous position's mapping, and
+    // falling back to a full search if a position is lower than the last
+    private final ChromosomeLiftover mLiftover;
+    private int mMappingIndex;
+
+    LiftoverCursor(final ChromosomeLiftover liftover)
+    {
+        mLiftover = liftover;
+        mMappingIndex = 0;
+    }
+
+    public int convertPosition(int position)
+    {
+        if(mLiftover == null)
+            return position;
+
+        if(mLiftover.isBeforeMapping(position, mMappingIndex))
+            mMappingIndex = 0;
+
+        mMappingIndex = mLiftover.findMapping(position, mMappingIndex);
+        return mLiftover.convertPosition(position, mMappingIndex);
+    }
+
+    public void convertPositions(final int[] positions, final int[] convertedPositions)
+    {
+        for(int i = 0; i < positions.length; ++i)
+        {
+            convertedPositions[i] = convertPosition(positions[i]);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.hartwig.hmftools.common.samtools;
+
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+
+import htsjdk.samtools.SAMRecord;
+
+public interface BamRecordConsumer
+{
+    // records below this mapping quality are not passed to the consumer
+    int minMappingQuality();
+
+    // duplicate, supplementary, secondary and unmapped records are only passed to consumers which keep them
+    default boolean keepDuplicates() { return false; }
+    default boolean keepSupplementaries() { return false; }
+    default boolean keepSecondaries() { return false; }
+    default boolean keepUnmapped() { return false; }
+
+    // records overlapping a partition boundary are passed once for each partition, so consumers should only count within the
+    // partition given; partitions are processed concurrently, each by a single thread
+    void processRecord(final ChrBaseRegion partition, final SAMRecord record);
+
+    // called on the partition's thread once all its records have been passed
+    default void partitionComplete(final ChrBaseRegion partition) {}
+}
@@ -0,0 +1,247 @@
+package com.hartwig.hmftools.common.samtools;
+
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.common.samtools.SamRecordUtils.SAM_LOGGER;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntConsumer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.common.utils.PerformanceCounter;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+
+public class PartitionedBamReader
+{
+    // decodes each record of a BAM or CRAM once across a set of partitions on a pool of worker threads, and passes it to every
+    // consumer registered for that BAM - several BAMs can be read together on the one pool, such as a tumor and its reference
+    private final SamReaderFactory mReaderFactory;
+    private final int mThreads;
+    private final List<BamRecordConsumer> mConsumers;
+
+    private IntConsumer mProgressListener;
+    private final PerformanceCounter mPerfCounter;
+
+    private static final long PROGRESS_CHECK_MS = 30_000;
+
+    public PartitionedBamReader(final SamReaderFactory readerFactory, int threads)
+    {
+        mReaderFactory = readerFactory;
+        mThreads = max(threads, 1);
+        mConsumers = Lists.newArrayList();
+        mProgressListener = null;
+        mPerfCounter = new PerformanceCounter("Reads");
+    }
+
+    public void addConsumer(final BamRecordConsumer consumer) { mConsumers.add(consumer); }
+
+    // called periodically with the number of BAM partitions yet to be started
+    public void setProgressListener(final IntConsumer progressListener) { mProgressListener = progressListener; }
+
+    public PerformanceCounter perfCounter() { return mPerfCounter; }
+
+    public void processBam(final String bamFile, final List<ChrBaseRegion> partitions) throws InterruptedException
+    {
+        Map<String,List<BamRecordConsumer>> bamConsumers = Maps.newLinkedHashMap();
+        bamConsumers.put(bamFile, mConsumers);
+        processBams(bamConsumers, partitions);
+    }
+
+    public void processBams(final Map<String,List<BamRecordConsumer>> bamConsumers, final List<ChrBaseRegion> partitions)
+            throws InterruptedException
+    {
+        // each partition is read from each BAM, interleaved so the BAMs are read concurrently and progress together
+        Queue<BamPartition> partitionQueue = new ConcurrentLinkedQueue<>();
+
+        for(ChrBaseRegion partition : partitions)
+        {
+            for(Map.Entry<String,List<BamRecordConsumer>> entry : bamConsumers.entrySet())
+            {
+                if(!entry.getValue().isEmpty())
+                    partitionQueue.add(new BamPartition(entry.getKey(), partition, entry.getValue()));
+            }
+        }
+
+        if(partitionQueue.isEmpty())
+            return;
+
+        List<PartitionWorker> workers = Lists.newArrayList();
+
+        for(int i = 0; i < mThreads; ++i)
+        {
+            PartitionWorker worker = new PartitionWorker(partitionQueue);
+            worker.setName(format("worker-%d", i));
+            worker.start();
+            workers.add(worker);
+        }
+
+        for(PartitionWorker worker : workers)
+        {
+            while(worker.isAlive())
+            {
+                worker.join(PROGRESS_CHECK_MS);
+
+                if(mProgressListener != null)
+                    mProgressListener.accept(partitionQueue.size());
+            }
+        }
+
+        for(PartitionWorker worker : workers)
+        {
+            mPerfCounter.merge(worker.perfCounter());
+
+            if(worker.error() != null)
+                throw new IllegalStateException(format("bam read failed: %s", worker.error()), worker.error());
+        }
+    }
+
+    private class BamPartition
+    {
+        public final String BamFile;
+        public final ChrBaseRegion Partition;
+        public final List<BamRecordConsumer> Consumers;
+
+        // slice with the lowest mapping quality and the records kept by any consumer, then filter per consumer
+        public final int MinMappingQuality;
+        public final boolean KeepDuplicates;
+        public final boolean KeepSupplementaries;
+        public final boolean KeepSecondaries;
+        public final boolean KeepUnmapped;
+
+        public BamPartition(final String bamFile, final ChrBaseRegion partition, final List<BamRecordConsumer> consumers)
+        {
+            BamFile = bamFile;
+            Partition = partition;
+            Consumers = consumers;
+            MinMappingQuality = consumers.stream().mapToInt(BamRecordConsumer::minMappingQuality).min().orElse(0);
+            KeepDuplicates = consumers.stream().anyMatch(BamRecordConsumer::keepDuplicates);
+            KeepSupplementaries = consumers.stream().anyMatch(BamRecordConsumer::keepSupplementaries);
+            KeepSecondaries = consumers.stream().anyMatch(BamRecordConsumer::keepSecondaries);
+            KeepUnmapped = consumers.stream().anyMatch(BamRecordConsumer::keepUnmapped);
+        }
+
+        public BamSlicer createSlicer()
+        {
+            BamSlicer bamSlicer = new BamSlicer(MinMappingQuality, KeepDuplicates, KeepSupplementaries, KeepSecondaries);
+
+            if(KeepUnmapped)
+                bamSlicer.setKeepUnmapped();
+
+            return bamSlicer;
+        }
+
+        public String toString() { return format("bam(%s) partition(%s)", BamFile, Partition); }
+    }
+
+    private class PartitionWorker extends Thread
+    {
+        private final Queue<BamPartition> mPartitionQueue;
+        private final Map<String,SamReader> mSamReaders; // opened by the worker on first use
+        private final PerformanceCounter mWorkerPerfCounter;
+        private BamPartition mCurrentPartition;
+        private Exception mError;
+
+        public PartitionWorker(final Queue<BamPartition> partitionQueue)
+        {
+            mPartitionQueue = partitionQueue;
+            mSamReaders = Maps.newHashMap();
+            mWorkerPerfCounter = new PerformanceCounter("Reads");
+            mCurrentPartition = null;
+            mError = null;
+        }
+
+        public PerformanceCounter perfCounter() { return mWorkerPerfCounter; }
+        public Exception error() { return mError; }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                BamPartition bamPartition;
+
+                while((bamPartition = mPartitionQueue.poll()) != null)
+                {
+                    mCurrentPartition = bamPartition;
+
+                    SamReader samReader = mSamReaders.computeIfAbsent(bamPartition.BamFile, x -> mReaderFactory.open(new File(x)));
+                    BamSlicer bamSlicer = bamPartition.createSlicer();
+
+                    mWorkerPerfCounter.start();
+                    bamSlicer.slice(samReader, bamPartition.Partition, this::processRecord);
+                    mWorkerPerfCounter.stop();
+
+                    for(BamRecordConsumer consumer : bamPartition.Consumers)
+                    {
+                        consumer.partitionComplete(bamPartition.Partition);
+                    }
+                }
+            }
+            catch(RuntimeException e)
+            {
+                SAM_LOGGER.error("{} read failed: {}", mCurrentPartition, e.toString());
+                mError = e;
+                mPartitionQueue.clear();
+            }
+            finally
+            {
+                closeReaders();
+            }
+        }
+
+        private void processRecord(final SAMRecord record)
+        {
+            for(BamRecordConsumer consumer : mCurrentPartition.Consumers)
+            {
+                if(acceptsRecord(consumer, record))
+                    consumer.processRecord(mCurrentPartition.Partition, record);
+            }
+        }
+
+        private boolean acceptsRecord(final BamRecordConsumer consumer, final SAMRecord record)
+        {
+            // the same rules as the slicer applies, for consumers keeping fewer records than the slicer
+            if(record.getMappingQuality() < consumer.minMappingQuality())
+                return false;
+
+            if(record.getReadUnmappedFlag() && !consumer.keepUnmapped())
+                return false;
+
+            if(record.isSecondaryAlignment() && !consumer.keepSecondaries())
+                return false;
+
+            if(record.getSupplementaryAlignmentFlag() && !consumer.keepSupplementaries())
+                return false;
+
+            return !record.getDuplicateReadFlag() || consumer.keepDuplicates();
+        }
+
+        private void closeReaders()
+        {
+            for(SamReader samReader : mSamReaders.values())
+            {
+                try
+                {
+                    samReader.close();
+                }
+                catch(IOException e)
+                {
+                    SAM_LOGGER.warn("failed to close bam reader: {}", e.toString());
+                }
+            }
+
+            mSamReaders.clear();
+        }
+    }
+}
@@ -0,0 +1,612 @@
+package com.hartwig.hmftools.common.utils.file;
+
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.common.utils.file.FileDelimiters.TSV_DELIM;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Reads selected columns of a CSV / TSV file into typed arrays, parsing values directly from the file's bytes rather than
+ * creating a String per value. Categorical columns such as chromosome or gene name share a single String per distinct value.
+ * Gzipped files are decompressed on the specified number of threads.
+ *
+ * Example usage:
+ *  try(ColumnarDelimFileReader reader = new ColumnarDelimFileReader(filename, threads))
+ *  {
+ *      reader.addColumn(Column.chromosome, ColumnType.CATEGORY);
+ *      reader.addColumn(Column.position, ColumnType.INT);
+ *      reader.addColumn(Column.ratio, ColumnType.DOUBLE);
+ *
+ *      ColumnarDelimFileReader.Columns columns = reader.read();
+ *      String[] chromosomes = columns.getStrings(Column.chromosome);
+ *      int[] positions = columns.getInts(Column.position);
+ *      double[] ratios = columns.getDoubles(Column.ratio);
+ *  }
+ */
+public class ColumnarDelimFileReader implements AutoCloseable
+{
+    public enum ColumnType
+    {
+        INT,
+        LONG,
+        DOUBLE,
+        STRING,
+        CATEGORY; // a string with few distinct values
+    }
+
+    private final String mSource;
+    private final InputStream mInputStream;
+    private byte mDelim = (byte)TSV_DELIM.charAt(0);
+
+    private List<String> mColumnNames = null;
+    private final Map<String,ColumnData> mColumns = new HashMap<>();
+
+    // buffered file data, with the unread data in [mBufferStart, mBufferEnd)
+    private byte[] mBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private int mBufferStart = 0;
+    private int mBufferEnd = 0;
+    private boolean mInputComplete = false;
+    private int mLineNumber = 0;
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_ROW_CAPACITY = 1 << 12;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    public ColumnarDelimFileReader(final InputStream inputStream)
+    {
+        mSource = "stream";
+        mInputStream = inputStream;
+    }
+
+    public ColumnarDelimFileReader(final String filename) { this(filename, 1); }
+
+    public ColumnarDelimFileReader(final String filename, int threads)
+    {
+        mSource = filename;
+
+        try
+        {
+            mInputStream = createInputStream(filename, threads);
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void setDelimiter(final String delimiter)
+    {
+        if(mColumnNames != null)
+            throw new IllegalStateException("cannot set delimiter after reading started");
+
+        if(delimiter.length() != 1)
+            throw new IllegalArgumentException(format("unsupported delimiter(%s), must be a single character", delimiter));
+
+        mDelim = (byte)delimiter.charAt(0);
+    }
+
+    public List<String> getColumnNames()
+    {
+        if(mColumnNames == null)
+            readColumnNames();
+
+        return mColumnNames;
+    }
+
+    public boolean hasColumn(final String column) { return getColumnNames().contains(column); }
+    public boolean hasColumn(final Enum<?> column) { return hasColumn(column.name()); }
+
+    public void addColumn(final String column, final ColumnType type)
+    {
+        int columnIndex = getColumnNames().indexOf(column);
+
+        if(columnIndex < 0)
+            throw new NoSuchElementException(format("column: %s not found", column));
+
+        mColumns.put(column, new ColumnData(columnIndex, type));
+    }
+
+    public void addColumn(final Enum<?> column, final ColumnType type) { addColumn(column.name(), type); }
+
+    public Columns read()
+    {
+        getColumnNames();
+
+        // map each column in the file to the data it populates, or null if not required
+        ColumnData[] fileColumns = new ColumnData[mColumnNames.size()];
+        int requiredColumnCount = 0;
+
+        for(ColumnData column : mColumns.values())
+        {
+            fileColumns[column.Index] = column;
+            requiredColumnCount = Math.max(requiredColumnCount, column.Index + 1);
+        }
+
+        int rowCount = 0;
+        int lineEnd;
+
+        while((lineEnd = nextLineEnd()) >= 0)
+        {
+            int lineStart = mBufferStart;
+            mBufferStart = lineEnd + 1;
+            ++mLineNumber;
+
+            if(lineEnd > lineStart && mBuffer[lineEnd - 1] == CARRIAGE_RETURN)
+                --lineEnd;
+
+            if(lineEnd == lineStart)
+                continue;
+
+            int fieldStart = lineStart;
+            int columnIndex = 0;
+
+            while(columnIndex < requiredColumnCount)
+            {
+                int fieldEnd = fieldStart;
+
+                while(fieldEnd < lineEnd && mBuffer[fieldEnd] != mDelim)
+                {
+                    ++fieldEnd;
+                }
+
+                ColumnData column = fileColumns[columnIndex];
+
+                if(column != null)
+                    column.parse(mBuffer, fieldStart, fieldEnd, rowCount);
+
+                ++columnIndex;
+
+                if(fieldEnd >= lineEnd)
+                    break;
+
+                fieldStart = fieldEnd + 1;
+            }
+
+            if(columnIndex < requiredColumnCount)
+            {
+                throw new IllegalStateException(format("file(%s) line(%d) has %d columns, expected at least %d",
+                        mSource, mLineNumber, columnIndex, requiredColumnCount));
+            }
+
+            ++rowCount;
+        }
+
+        Map<String,ColumnData> columns = new HashMap<>();
+
+        for(Map.Entry<String,ColumnData> entry : mColumns.entrySet())
+        {
+            entry.getValue().trim(rowCount);
+            columns.put(entry.getKey(), entry.getValue());
+        }
+
+        return new Columns(columns, rowCount);
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            mInputStream.close();
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readColumnNames()
+    {
+        int lineEnd = nextLineEnd();
+
+        if(lineEnd < 0)
+            throw new IllegalStateException(format("file(%s) has no header", mSource));
+
+        int lineStart = mBufferStart;
+        mBufferStart = lineEnd + 1;
+        ++mLineNumber;
+
+        if(lineEnd > lineStart && mBuffer[lineEnd - 1] == CARRIAGE_RETURN)
+            --lineEnd;
+
+        List<String> columnNames = Lists.newArrayList();
+        int fieldStart = lineStart;
+
+        for(int i = lineStart; i <= lineEnd; ++i)
+        {
+            if(i == lineEnd || mBuffer[i] == mDelim)
+            {
+                String columnName = new String(mBuffer, fieldStart, i - fieldStart, StandardCharsets.UTF_8);
+
+                if(columnNames.contains(columnName))
+                    throw new RuntimeException("duplicate column name: " + columnName);
+
+                columnNames.add(columnName);
+                fieldStart = i + 1;
+            }
+        }
+
+        mColumnNames = Collections.unmodifiableList(columnNames);
+    }
+
+    private int nextLineEnd()
+    {
+        // returns the index of the next line's terminator in the buffer, reading more data as required, or -1 once all data is read,
+        // with a final unterminated line treated as terminated by the end of the data
+        int searchStart = mBufferStart;
+
+        while(true)
+        {
+            for(int i = searchStart; i < mBufferEnd; ++i)
+            {
+                if(mBuffer[i] == NEW_LINE)
+                    return i;
+            }
+
+            if(mInputComplete)
+            {
+                if(mBufferStart >= mBufferEnd)
+                    return -1;
+
+                // terminate the last line in place
+                ensureBufferSpace();
+                mBuffer[mBufferEnd] = NEW_LINE;
+                return mBufferEnd++;
+            }
+
+            searchStart = mBufferEnd - mBufferStart;
+            fillBuffer();
+        }
+    }
+
+    private void fillBuffer()
+    {
+        ensureBufferSpace();
+
+        try
+        {
+            int bytesRead = mInputStream.read(mBuffer, mBufferEnd, mBuffer.length - mBufferEnd);
+
+            if(bytesRead < 0)
+                mInputComplete = true;
+            else
+                mBufferEnd += bytesRead;
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void ensureBufferSpace()
+    {
+        // moves unread data to the start of the buffer, and grows it if a line fills the whole buffer
+        if(mBufferStart > 0)
+        {
+            System.arraycopy(mBuffer, mBufferStart, mBuffer, 0, mBufferEnd - mBufferStart);
+            mBufferEnd -= mBufferStart;
+            mBufferStart = 0;
+        }
+
+        if(mBufferEnd == mBuffer.length)
+            mBuffer = Arrays.copyOf(mBuffer, mBuffer.length * 2);
+    }
+
+    // numeric parsing from bytes, falling back to the standard parsers for any less common formats and for errors
+    private static final int MAX_FAST_LONG_DIGITS = 18;
+    private static final int MAX_FAST_DOUBLE_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static
+    {
+        POWERS_OF_TEN[0] = 1;
+
+        for(int i = 1; i < POWERS_OF_TEN.length; ++i)
+        {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static int parseInt(final byte[] data, int start, int end)
+    {
+        long value = parseLong(data, start, end);
+
+        if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            return Integer.parseInt(asString(data, start, end)); // throws
+
+        return (int)value;
+    }
+
+    private static long parseLong(final byte[] data, int start, int end)
+    {
+        boolean negative = data[start] == '-';
+        int index = negative ? start + 1 : start;
+
+        if(index == end || end - index > MAX_FAST_LONG_DIGITS)
+            return Long.parseLong(asString(data, start, end));
+
+        long value = 0;
+
+        for(; index < end; ++index)
+        {
+            int digit = data[index] - '0';
+
+            if(digit < 0 || digit > 9)
+                return Long.parseLong(asString(data, start, end));
+
+            value = value * 10 + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    private static double parseDouble(final byte[] data, int start, int end)
+    {
+        // a decimal with up to 15 significant digits is an exact long divided by an exact power of ten, so this division gives
+        // the same correctly rounded result as Double.parseDouble
+        boolean negative = data[start] == '-';
+        int index = negative ? start + 1 : start;
+
+        long mantissa = 0;
+        int digitCount = 0;
+        int fractionDigits = -1;
+
+        for(; index < end; ++index)
+        {
+            byte b = data[index];
+
+            if(b == '.' && fractionDigits < 0)
+            {
+                fractionDigits = 0;
+                continue;
+            }
+
+            int digit = b - '0';
+
+            if(digit < 0 || digit > 9 || digitCount == MAX_FAST_DOUBLE_DIGITS)
+                return Double.parseDouble(asString(data, start, end));
+
+            mantissa = mantissa * 10 + digit;
+            ++digitCount;
+
+            if(fractionDigits >= 0)
+                ++fractionDigits;
+        }
+
+        if(digitCount == 0)
+            return Double.parseDouble(asString(data, start, end));
+
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static String asString(final byte[] data, int start, int end)
+    {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    public static class Columns
+    {
+        private final Map<String,ColumnData> mColumns;
+        private final int mRowCount;
+
+        private Columns(final Map<String,ColumnData> columns, int rowCount)
+        {
+            mColumns = columns;
+            mRowCount = rowCount;
+        }
+
+        public int rowCount() { return mRowCount; }
+
+        public int[] getInts(final String column) { return getColumn(column, ColumnType.INT).mInts; }
+        public long[] getLongs(final String column) { return getColumn(column, ColumnType.LONG).mLongs; }
+        public double[] getDoubles(final String column) { return getColumn(column, ColumnType.DOUBLE).mDoubles; }
+
+        // returns string and categorical column values, with null for empty or null values
+        public String[] getStrings(final String column)
+        {
+            ColumnData columnData = mColumns.get(column);
+
+            if(columnData == null || (columnData.Type != ColumnType.STRING && columnData.Type != ColumnType.CATEGORY))
+                throw new NoSuchElementException(format("string column: %s not read", column));
+
+            return columnData.mStrings;
+        }
+
+        public int[] getInts(final Enum<?> column) { return getInts(column.name()); }
+        public long[] getLongs(final Enum<?> column) { return getLongs(column.name()); }
+        public double[] getDoubles(final Enum<?> column) { return getDoubles(column.name()); }
+        public String[] getStrings(final Enum<?> column) { return getStrings(column.name()); }
+
+        private ColumnData getColumn(final String column, final ColumnType type)
+        {
+            ColumnData columnData = mColumns.get(column);
+
+            if(columnData == null || columnData.Type != type)
+                throw new NoSuchElementException(format("%s column: %s not read", type.toString().toLowerCase(), column));
+
+            return columnData;
+        }
+    }
+
+    private static class ColumnData
+    {
+        public final int Index;
+        public final ColumnType Type;
+
+        private int[] mInts;
+        private long[] mLongs;
+        private double[] mDoubles;
+        private String[] mStrings;
+        private final CategoryCache mCategories;
+
+        public ColumnData(int index, final ColumnType type)
+        {
+            Index = index;
+            Type = type;
+            mCategories = type == ColumnType.CATEGORY ? new CategoryCache() : null;
+
+            switch(type)
+            {
+                case INT: mInts = new int[INITIAL_ROW_CAPACITY]; break;
+                case LONG: mLongs = new long[INITIAL_ROW_CAPACITY]; break;
+                case DOUBLE: mDoubles = new double[INITIAL_ROW_CAPACITY]; break;
+                default: mStrings = new String[INITIAL_ROW_CAPACITY]; break;
+            }
+        }
+
+        public void parse(final byte[] data, int start, int end, int row)
+        {
+            if(row == capacity())
+                resize(row * 2);
+
+            if(valueIndicatesNull(data, start, end))
+            {
+                if(Type == ColumnType.STRING || Type == ColumnType.CATEGORY)
+                {
+                    mStrings[row] = null;
+                    return;
+                }
+
+                throw new NoSuchElementException(format("null value in %s column at row(%d)", Type.toString().toLowerCase(), row));
+            }
+
+            switch(Type)
+            {
+                case INT: mInts[row] = parseInt(data, start, end); break;
+                case LONG: mLongs[row] = parseLong(data, start, end); break;
+                case DOUBLE: mDoubles[row] = parseDouble(data, start, end); break;
+                case STRING: mStrings[row] = new String(data, start, end - start, StandardCharsets.UTF_8); break;
+                case CATEGORY: mStrings[row] = mCategories.get(data, start, end); break;
+            }
+        }
+
+        public void trim(int rowCount)
+        {
+            if(rowCount != capacity())
+                resize(rowCount);
+        }
+
+        private int capacity()
+        {
+            switch(Type)
+            {
+                case INT: return mInts.length;
+                case LONG: return mLongs.length;
+                case DOUBLE: return mDoubles.length;
+                default: return mStrings.length;
+            }
+        }
+
+        private void resize(int capacity)
+        {
+            switch(Type)
+            {
+                case INT: mInts = Arrays.copyOf(mInts, capacity); break;
+                case LONG: mLongs = Arrays.copyOf(mLongs, capacity); break;
+                case DOUBLE: mDoubles = Arrays.copyOf(mDoubles, capacity); break;
+                default: mStrings = Arrays.copyOf(mStrings, capacity); break;
+            }
+        }
+
+        private static boolean valueIndicatesNull(final byte[] data, int start, int end)
+        {
+            // matches the null values of the row-based reader: empty, 'null' or 'NULL'
+            int length = end - start;
+
+            if(length == 0)
+                return true;
+
+            if(length != 4)
+                return false;
+
+            return (data[start] == 'n' && data[start + 1] == 'u' && data[start + 2] == 'l' && data[start + 3] == 'l')
+                || (data[start] == 'N' && data[start + 1] == 'U' && data[start + 2] == 'L' && data[start + 3] == 'L');
+        }
+    }
+
+    private static class CategoryCache
+    {
+        // an open-addressed map from a value's bytes to its String, so each distinct value is only decoded once
+        private byte[][] mKeys = new byte[16][];
+        private String[] mValues = new String[16];
+        private int mSize = 0;
+
+        public String get(final byte[] data, int start, int end)
+        {
+            int hash = 1;
+
+            for(int i = start; i < end; ++i)
+            {
+                hash = 31 * hash + data[i];
+            }
+
+            int mask = mKeys.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            while(mKeys[slot] != null)
+            {
+                if(Arrays.equals(mKeys[slot], 0, mKeys[slot].length, data, start, end))
+                    return mValues[slot];
+
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = Arrays.copyOfRange(data, start, end);
+            String value = new String(key, StandardCharsets.UTF_8);
+            mKeys[slot] = key;
+            mValues[slot] = value;
+
+            if(++mSize * 2 > mKeys.length)
+                rehash();
+
+            return value;
+        }
+
+        private void rehash()
+        {
+            byte[][] keys = mKeys;
+            String[] values = mValues;
+            mKeys = new byte[keys.length * 2][];
+            mValues = new String[keys.length * 2];
+            int mask = mKeys.length - 1;
+
+            for(int i = 0; i < keys.length; ++i)
+            {
+                if(keys[i] == null)
+                    continue;
+
+                int hash = 1;
+
+                for(byte b : keys[i])
+                {
+                    hash = 31 * hash + b;
+                }
+
+                int slot = (hash ^ (hash >>> 16)) & mask;
+
+                while(mKeys[slot] != null)
+                {
+                    slot = (slot + 1) & mask;
+                }
+
+                mKeys[slot] = keys[i];
+                mValues[slot] = values[i];
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.common.utils.file;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -20,6 +21,8 @@ import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 
 import org.jetbrains.annotations.NotNull;
 
+import htsjdk.samtools.util.IOUtil;
+
 public final class
 FileWriterUtils
 {
@@ -28,6 +31,8 @@ FileWriterUtils
     public static final String OUTPUT_ID = "output_id";
     public static final String OUTPUT_ID_DESC = "Output file suffix";
 
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
     public static void addOutputOptions(final ConfigBuilder configBuilder) { addOutputOptions(configBuilder, false); }
 
     public static void addOutputOptions(final ConfigBuilder configBuilder, boolean checkExists)
@@ -122,6 +127,21 @@ FileWriterUtils
         return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
     }
 
+    // Note: if filename ends with .gz returns a decompressing stream, which uses the specified threads for BGZF files
+    @NotNull
+    public static InputStream createInputStream(final String filename, int threads) throws IOException
+    {
+        if(!filename.endsWith(".gz"))
+            return new BufferedInputStream(new FileInputStream(filename), INPUT_BUFFER_SIZE);
+
+        // BGZF blocks are decompressed in parallel, while a plain gzip stream is decompressed ahead on a separate thread
+        if(threads > 1 && IOUtil.isBlockCompressed(Paths.get(filename)))
+            return new ParallelBgzfInputStream(new FileInputStream(filename), threads);
+
+        InputStream gzipStream = new GZIPInputStream(new FileInputStream(filename), INPUT_BUFFER_SIZE);
+        return threads > 1 ? new ReadAheadInputStream(gzipStream) : new BufferedInputStream(gzipStream, INPUT_BUFFER_SIZE);
+    }
+
     @NotNull
     public static BufferedReader createGzipBufferedReader(final String filename) throws IOException
     {
@@ -0,0 +1,231 @@
+package com.hartwig.hmftools.common.utils.file;
+
+import static java.lang.String.format;
+
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BGZF_ID1;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BGZF_ID2;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_ID1;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_ID2;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class ParallelBgzfInputStream extends InputStream
+{
+    // decompresses a BGZF file's blocks on a thread pool, reading a bounded number of blocks ahead and returning their data
+    // in file order, since each block is an independent gzip member
+    private final DataInputStream mInputStream;
+    private final ExecutorService mExecutorService;
+    private final ArrayDeque<Future<byte[]>> mPendingBlocks;
+    private final int mMaxPendingBlocks;
+    private boolean mInputComplete;
+
+    private byte[] mCurrentBlock;
+    private int mCurrentOffset;
+
+    private static final int FIXED_HEADER_LENGTH = 12; // up to and including the extra field length
+    private static final int GZIP_FLAG_EXTRA = 4;
+    private static final int PENDING_BLOCKS_PER_THREAD = 4;
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    public ParallelBgzfInputStream(final InputStream inputStream, int threads)
+    {
+        mInputStream = new DataInputStream(new BufferedInputStream(inputStream, 1 << 20));
+
+        mExecutorService = Executors.newFixedThreadPool(
+                Math.max(threads, 1), new ThreadFactoryBuilder().setNameFormat("BgzfInflate-%d").setDaemon(true).build());
+
+        mMaxPendingBlocks = Math.max(threads, 1) * PENDING_BLOCKS_PER_THREAD;
+        mPendingBlocks = new ArrayDeque<>(mMaxPendingBlocks);
+        mInputComplete = false;
+        mCurrentBlock = null;
+        mCurrentOffset = 0;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if(!hasData())
+            return -1;
+
+        return mCurrentBlock[mCurrentOffset++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] buffer, int offset, int length) throws IOException
+    {
+        if(length == 0)
+            return 0;
+
+        if(!hasData())
+            return -1;
+
+        int copyLength = Math.min(length, mCurrentBlock.length - mCurrentOffset);
+        System.arraycopy(mCurrentBlock, mCurrentOffset, buffer, offset, copyLength);
+        mCurrentOffset += copyLength;
+        return copyLength;
+    }
+
+    @Override
+    public int available()
+    {
+        return mCurrentBlock != null ? mCurrentBlock.length - mCurrentOffset : 0;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mPendingBlocks.forEach(x -> x.cancel(true));
+        mPendingBlocks.clear();
+        mExecutorService.shutdownNow();
+        mInputStream.close();
+    }
+
+    private boolean hasData() throws IOException
+    {
+        // skips empty blocks, including the end-of-file marker block
+        while(mCurrentBlock == null || mCurrentOffset >= mCurrentBlock.length)
+        {
+            while(!mInputComplete && mPendingBlocks.size() < mMaxPendingBlocks)
+            {
+                byte[] compressedBlock = readCompressedBlock();
+
+                if(compressedBlock == null)
+                {
+                    mInputComplete = true;
+                    break;
+                }
+
+                mPendingBlocks.add(mExecutorService.submit(() -> inflateBlock(compressedBlock)));
+            }
+
+            if(mPendingBlocks.isEmpty())
+                return false;
+
+            try
+            {
+                mCurrentBlock = mPendingBlocks.poll().get();
+                mCurrentOffset = 0;
+            }
+            catch(InterruptedException | ExecutionException e)
+            {
+                throw new IOException("failed to decompress BGZF block: " + e.getCause(), e);
+            }
+        }
+
+        return true;
+    }
+
+    private byte[] readCompressedBlock() throws IOException
+    {
+        // returns the block's deflated data and footer, with the header checked and discarded
+        int id1 = mInputStream.read();
+
+        if(id1 < 0)
+            return null;
+
+        byte[] header = new byte[FIXED_HEADER_LENGTH];
+        header[0] = (byte)id1;
+
+        try
+        {
+            mInputStream.readFully(header, 1, FIXED_HEADER_LENGTH - 1);
+
+            if(header[0] != GZIP_ID1 || (header[1] & 0xFF) != GZIP_ID2 || (header[3] & GZIP_FLAG_EXTRA) == 0)
+                throw new IOException("invalid BGZF block header");
+
+            int extraLength = unsignedShort(header, 10);
+            byte[] extra = new byte[extraLength];
+            mInputStream.readFully(extra);
+
+            int blockSize = findBlockSize(extra);
+
+            byte[] compressedBlock = new byte[blockSize - FIXED_HEADER_LENGTH - extraLength];
+            mInputStream.readFully(compressedBlock);
+            return compressedBlock;
+        }
+        catch(EOFException e)
+        {
+            throw new IOException("truncated BGZF block", e);
+        }
+    }
+
+    private static int findBlockSize(final byte[] extra) throws IOException
+    {
+        // the block size is held in the 'BC' subfield, and is one less than the full block length
+        int index = 0;
+
+        while(index + 4 <= extra.length)
+        {
+            int subfieldLength = unsignedShort(extra, index + 2);
+
+            if(extra[index] == BGZF_ID1 && extra[index + 1] == BGZF_ID2 && subfieldLength == 2)
+                return unsignedShort(extra, index + 4) + 1;
+
+            index += 4 + subfieldLength;
+        }
+
+        throw new IOException("gzip block has no BGZF block size");
+    }
+
+    private static byte[] inflateBlock(final byte[] compressedBlock) throws IOException
+    {
+        int dataLength = compressedBlock.length - BLOCK_FOOTER_LENGTH;
+        int expectedCrc = littleEndianInt(compressedBlock, dataLength);
+        int uncompressedLength = littleEndianInt(compressedBlock, dataLength + 4);
+
+        byte[] block = new byte[uncompressedLength];
+
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(compressedBlock, 0, dataLength);
+
+        try
+        {
+            int inflatedLength = inflater.inflate(block);
+
+            if(inflatedLength != uncompressedLength)
+            {
+                throw new IOException(format("BGZF block inflated length(%d) differs from expected(%d)",
+                        inflatedLength, uncompressedLength));
+            }
+        }
+        catch(DataFormatException e)
+        {
+            throw new IOException("invalid BGZF block data", e);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(block, 0, uncompressedLength);
+
+        if((int)crc.getValue() != expectedCrc)
+            throw new IOException("BGZF block CRC mismatch");
+
+        return block;
+    }
+
+    private static int unsignedShort(final byte[] data, int index)
+    {
+        return (data[index] & 0xFF) | ((data[index + 1] & 0xFF) << 8);
+    }
+
+    private static int littleEndianInt(final byte[] data, int index)
+    {
+        return (data[index] & 0xFF) | ((data[index + 1] & 0xFF) << 8) | ((data[index + 2] & 0xFF) << 16) | ((data[index + 3] & 0xFF) << 24);
+    }
+}
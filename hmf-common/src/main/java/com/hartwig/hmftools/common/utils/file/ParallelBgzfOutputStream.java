@@ -0,0 +1,225 @@
+package com.hartwig.hmftools.common.utils.file;
+
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BGZF_ID1;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BGZF_ID2;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BGZF_LEN;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.DEFAULT_COMPRESSION_LEVEL;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_CM_DEFLATE;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_FLG;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_ID1;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_ID2;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_OS_UNKNOWN;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_XFL;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.GZIP_XLEN;
+import static htsjdk.samtools.util.BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class ParallelBgzfOutputStream extends OutputStream
+{
+    // compresses BGZF blocks on a thread pool and writes them in order, so the output is readable as gzip and as BGZF
+    private final OutputStream mOutputStream;
+    private final ExecutorService mExecutorService;
+    private final ArrayDeque<Future<byte[]>> mPendingBlocks;
+    private final int mMaxPendingBlocks;
+    private final int mCompressionLevel;
+
+    private byte[] mBuffer;
+    private int mBufferLength;
+    private boolean mClosed;
+
+    private static final int PENDING_BLOCKS_PER_THREAD = 4;
+    private static final int MAX_DEFLATED_LENGTH = MAX_COMPRESSED_BLOCK_SIZE - BLOCK_HEADER_LENGTH - BLOCK_FOOTER_LENGTH;
+
+    public ParallelBgzfOutputStream(final OutputStream outputStream, int threads)
+    {
+        this(outputStream, threads, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    public ParallelBgzfOutputStream(final OutputStream outputStream, int threads, int compressionLevel)
+    {
+        mOutputStream = outputStream;
+
+        mExecutorService = Executors.newFixedThreadPool(
+                Math.max(threads, 1), new ThreadFactoryBuilder().setNameFormat("BgzfDeflate-%d").setDaemon(true).build());
+
+        mMaxPendingBlocks = Math.max(threads, 1) * PENDING_BLOCKS_PER_THREAD;
+        mPendingBlocks = new ArrayDeque<>(mMaxPendingBlocks);
+        mCompressionLevel = compressionLevel;
+        mBuffer = new byte[DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
+        mBufferLength = 0;
+        mClosed = false;
+    }
+
+    @Override
+    public void write(int value) throws IOException
+    {
+        if(mBufferLength == mBuffer.length)
+            submitBlock();
+
+        mBuffer[mBufferLength++] = (byte)value;
+    }
+
+    @Override
+    public void write(final byte[] data, int offset, int length) throws IOException
+    {
+        while(length > 0)
+        {
+            if(mBufferLength == mBuffer.length)
+                submitBlock();
+
+            int copyLength = Math.min(length, mBuffer.length - mBufferLength);
+            System.arraycopy(data, offset, mBuffer, mBufferLength, copyLength);
+            mBufferLength += copyLength;
+            offset += copyLength;
+            length -= copyLength;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        if(mBufferLength > 0)
+            submitBlock();
+
+        while(!mPendingBlocks.isEmpty())
+        {
+            writeNextBlock();
+        }
+
+        mOutputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if(mClosed)
+            return;
+
+        mClosed = true;
+
+        try
+        {
+            flush();
+            mOutputStream.write(EMPTY_GZIP_BLOCK);
+            mOutputStream.close();
+        }
+        finally
+        {
+            mExecutorService.shutdownNow();
+        }
+    }
+
+    private void submitBlock() throws IOException
+    {
+        final byte[] data = mBuffer;
+        final int length = mBufferLength;
+
+        mPendingBlocks.add(mExecutorService.submit(() -> compressBlock(data, length, mCompressionLevel)));
+
+        mBuffer = new byte[DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
+        mBufferLength = 0;
+
+        while(mPendingBlocks.size() > mMaxPendingBlocks)
+        {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException
+    {
+        try
+        {
+            mOutputStream.write(mPendingBlocks.poll().get());
+        }
+        catch(InterruptedException | ExecutionException e)
+        {
+            throw new IOException("failed to compress BGZF block: " + e.getCause(), e);
+        }
+    }
+
+    public static byte[] compressBlock(final byte[] data, int length, int compressionLevel)
+    {
+        byte[] deflated = new byte[MAX_DEFLATED_LENGTH];
+        int deflatedLength = deflate(data, length, deflated, compressionLevel);
+
+        if(deflatedLength < 0)
+        {
+            // incompressible data can exceed the block size limit, so is stored uncompressed
+            deflatedLength = deflate(data, length, deflated, Deflater.NO_COMPRESSION);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+
+        int blockLength = BLOCK_HEADER_LENGTH + deflatedLength + BLOCK_FOOTER_LENGTH;
+        byte[] block = new byte[blockLength];
+
+        block[0] = GZIP_ID1;
+        block[1] = (byte)GZIP_ID2;
+        block[2] = GZIP_CM_DEFLATE;
+        block[3] = (byte)GZIP_FLG;
+        // modification time left as zero
+        block[8] = (byte)GZIP_XFL;
+        block[9] = (byte)GZIP_OS_UNKNOWN;
+        writeShort(block, 10, GZIP_XLEN);
+        block[12] = BGZF_ID1;
+        block[13] = BGZF_ID2;
+        writeShort(block, 14, BGZF_LEN);
+        writeShort(block, 16, blockLength - 1);
+
+        System.arraycopy(deflated, 0, block, BLOCK_HEADER_LENGTH, deflatedLength);
+
+        int footerIndex = BLOCK_HEADER_LENGTH + deflatedLength;
+        writeInt(block, footerIndex, (int)crc.getValue());
+        writeInt(block, footerIndex + 4, length);
+
+        return block;
+    }
+
+    private static int deflate(final byte[] data, int length, final byte[] deflated, int compressionLevel)
+    {
+        Deflater deflater = new Deflater(compressionLevel, true);
+
+        try
+        {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            int deflatedLength = deflater.deflate(deflated, 0, deflated.length);
+            return deflater.finished() ? deflatedLength : -1;
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static void writeShort(final byte[] data, int index, int value)
+    {
+        data[index] = (byte)value;
+        data[index + 1] = (byte)(value >> 8);
+    }
+
+    private static void writeInt(final byte[] data, int index, int value)
+    {
+        data[index] = (byte)value;
+        data[index + 1] = (byte)(value >> 8);
+        data[index + 2] = (byte)(value >> 16);
+        data[index + 3] = (byte)(value >> 24);
+    }
+}
@@ -0,0 +1,141 @@
+package com.hartwig.hmftools.common.utils.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class ReadAheadInputStream extends InputStream
+{
+    // reads from the source stream on a background thread into a bounded queue of chunks, so a stream which cannot be split,
+    // such as a plain gzip file, is decompressed concurrently with the caller's processing
+    private final InputStream mSource;
+    private final BlockingQueue<byte[]> mChunks;
+    private final Thread mReaderThread;
+    private volatile IOException mReadException;
+
+    private byte[] mCurrentChunk;
+    private int mCurrentOffset;
+    private boolean mEndOfStream;
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNKS = 8;
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    public ReadAheadInputStream(final InputStream source)
+    {
+        mSource = source;
+        mChunks = new ArrayBlockingQueue<>(MAX_CHUNKS);
+        mReadException = null;
+        mCurrentChunk = null;
+        mCurrentOffset = 0;
+        mEndOfStream = false;
+
+        mReaderThread = new Thread(this::readChunks, "ReadAhead");
+        mReaderThread.setDaemon(true);
+        mReaderThread.start();
+    }
+
+    private void readChunks()
+    {
+        try
+        {
+            while(true)
+            {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int length = 0;
+
+                while(length < CHUNK_SIZE)
+                {
+                    int readCount = mSource.read(buffer, length, CHUNK_SIZE - length);
+
+                    if(readCount < 0)
+                        break;
+
+                    length += readCount;
+                }
+
+                if(length > 0)
+                    mChunks.put(length == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, length));
+
+                if(length < CHUNK_SIZE)
+                    break;
+            }
+        }
+        catch(IOException e)
+        {
+            mReadException = e;
+        }
+        catch(InterruptedException e)
+        {
+            return;
+        }
+
+        try
+        {
+            mChunks.put(END_OF_STREAM);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if(!hasData())
+            return -1;
+
+        return mCurrentChunk[mCurrentOffset++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] buffer, int offset, int length) throws IOException
+    {
+        if(length == 0)
+            return 0;
+
+        if(!hasData())
+            return -1;
+
+        int copyLength = Math.min(length, mCurrentChunk.length - mCurrentOffset);
+        System.arraycopy(mCurrentChunk, mCurrentOffset, buffer, offset, copyLength);
+        mCurrentOffset += copyLength;
+        return copyLength;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        mReaderThread.interrupt();
+        mSource.close();
+    }
+
+    private boolean hasData() throws IOException
+    {
+        while(!mEndOfStream && (mCurrentChunk == null || mCurrentOffset >= mCurrentChunk.length))
+        {
+            try
+            {
+                mCurrentChunk = mChunks.take();
+                mCurrentOffset = 0;
+            }
+            catch(InterruptedException e)
+            {
+                throw new IOException("interrupted reading ahead", e);
+            }
+
+            if(mCurrentChunk == END_OF_STREAM)
+            {
+                mEndOfStream = true;
+
+                if(mReadException != null)
+                    throw mReadException;
+            }
+        }
+
+        return !mEndOfStream;
+    }
+}
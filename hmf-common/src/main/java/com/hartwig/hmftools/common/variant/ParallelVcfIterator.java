@@ -0,0 +1,214 @@
+package com.hartwig.hmftools.common.variant;
+
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createInputStream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.tribble.TribbleException;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+
+public class ParallelVcfIterator implements CloseableIterator<VariantContext>, Iterable<VariantContext>
+{
+    // reads a VCF's records in batches of lines which are decoded on a thread pool, returning the variants in file order
+    private final String mFilename;
+    private final BufferedReader mReader;
+    private final ExecutorService mExecutorService;
+    private final ThreadLocal<VCFCodec> mCodecs;
+
+    private final ArrayDeque<Future<List<VariantContext>>> mPendingBatches;
+    private final int mMaxPendingBatches;
+    private boolean mInputComplete;
+
+    private Iterator<VariantContext> mCurrentBatch;
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PENDING_BATCHES_PER_THREAD = 4;
+    private static final String HEADER_PREFIX = "#";
+
+    public ParallelVcfIterator(final String filename, final VCFCodec codec, int threads) throws IOException
+    {
+        mFilename = filename;
+        threads = Math.max(threads, 1);
+
+        mReader = new BufferedReader(new InputStreamReader(createInputStream(filename, threads), StandardCharsets.US_ASCII));
+
+        mExecutorService = Executors.newFixedThreadPool(
+                threads, new ThreadFactoryBuilder().setNameFormat("VcfDecode-%d").setDaemon(true).build());
+
+        // each thread decodes with its own codec, copied from the one which has read the file's header
+        mCodecs = ThreadLocal.withInitial(() -> copyCodec(codec));
+
+        mMaxPendingBatches = threads * PENDING_BATCHES_PER_THREAD;
+        mPendingBatches = new ArrayDeque<>(mMaxPendingBatches);
+        mInputComplete = false;
+        mCurrentBatch = Collections.emptyIterator();
+    }
+
+    private ParallelVcfIterator(final String filename)
+    {
+        // an iterator without variants, for a VCF which could not be opened
+        mFilename = filename;
+        mReader = null;
+        mExecutorService = null;
+        mCodecs = null;
+        mMaxPendingBatches = 0;
+        mPendingBatches = new ArrayDeque<>();
+        mInputComplete = true;
+        mCurrentBatch = Collections.emptyIterator();
+    }
+
+    public static ParallelVcfIterator empty(final String filename) { return new ParallelVcfIterator(filename); }
+
+    @Override
+    public Iterator<VariantContext> iterator() { return this; }
+
+    @Override
+    public boolean hasNext()
+    {
+        while(!mCurrentBatch.hasNext())
+        {
+            fillPendingBatches();
+
+            if(mPendingBatches.isEmpty())
+                return false;
+
+            try
+            {
+                mCurrentBatch = mPendingBatches.poll().get().iterator();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new TribbleException("interrupted reading VCF: " + mFilename);
+            }
+            catch(ExecutionException e)
+            {
+                if(e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)e.getCause();
+
+                throw new TribbleException(String.format("failed to decode VCF(%s): %s", mFilename, e.getCause()));
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public VariantContext next()
+    {
+        if(!hasNext())
+            throw new NoSuchElementException();
+
+        return mCurrentBatch.next();
+    }
+
+    @Override
+    public void close()
+    {
+        mPendingBatches.forEach(x -> x.cancel(true));
+        mPendingBatches.clear();
+
+        if(mReader == null)
+            return;
+
+        mExecutorService.shutdownNow();
+
+        try
+        {
+            mReader.close();
+        }
+        catch(IOException e)
+        {
+            throw new TribbleException(String.format("failed to close VCF(%s): %s", mFilename, e));
+        }
+    }
+
+    private void fillPendingBatches()
+    {
+        try
+        {
+            while(!mInputComplete && mPendingBatches.size() < mMaxPendingBatches)
+            {
+                List<String> lines = readBatch();
+
+                if(lines.isEmpty())
+                {
+                    mInputComplete = true;
+                    break;
+                }
+
+                mPendingBatches.add(mExecutorService.submit(() -> decodeBatch(lines)));
+            }
+        }
+        catch(IOException e)
+        {
+            throw new TribbleException(String.format("failed to read VCF(%s): %s", mFilename, e));
+        }
+    }
+
+    private List<String> readBatch() throws IOException
+    {
+        List<String> lines = Lists.newArrayListWithCapacity(BATCH_SIZE);
+        String line;
+
+        while(lines.size() < BATCH_SIZE && (line = mReader.readLine()) != null)
+        {
+            if(line.isEmpty() || line.startsWith(HEADER_PREFIX))
+                continue;
+
+            lines.add(line);
+        }
+
+        return lines;
+    }
+
+    private List<VariantContext> decodeBatch(final List<String> lines)
+    {
+        VCFCodec codec = mCodecs.get();
+        List<VariantContext> variants = Lists.newArrayListWithCapacity(lines.size());
+
+        for(String line : lines)
+        {
+            VariantContext variant = codec.decode(line);
+
+            // genotypes are decoded lazily by the codec which created them, so must be decoded here while this thread owns it
+            GenotypesContext genotypes = variant.getGenotypes();
+
+            if(genotypes instanceof LazyGenotypesContext)
+                ((LazyGenotypesContext)genotypes).decode();
+
+            variants.add(variant);
+        }
+
+        return variants;
+    }
+
+    private static VCFCodec copyCodec(final VCFCodec codec)
+    {
+        if(codec instanceof ProjectedVcfCodec)
+            return ((ProjectedVcfCodec)codec).copy();
+
+        VCFCodec copy = new VCFCodec();
+        copy.setVCFHeader(codec.getHeader(), codec.getVersion());
+        return copy;
+    }
+}
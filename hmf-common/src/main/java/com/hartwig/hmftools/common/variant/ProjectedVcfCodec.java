@@ -0,0 +1,72 @@
+package com.hartwig.hmftools.common.variant;
+
+import static java.lang.String.format;
+
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import htsjdk.tribble.TribbleException;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+
+public class ProjectedVcfCodec extends VCFCodec
+{
+    // a VCF codec which only decodes the projected INFO fields and samples, with its header restricted to the retained samples
+    private final VcfFieldProjection mProjection;
+
+    @Nullable
+    private int[] mSampleColumns;
+
+    private static final int FIRST_SAMPLE_COLUMN = 9;
+
+    public ProjectedVcfCodec(final VcfFieldProjection projection)
+    {
+        mProjection = projection;
+        mSampleColumns = null;
+    }
+
+    @Override
+    public Object readActualHeader(final LineIterator lineIterator)
+    {
+        VCFHeader fileHeader = (VCFHeader)super.readActualHeader(lineIterator);
+
+        if(mProjection.retainsAllSamples())
+            return fileHeader;
+
+        List<String> fileSamples = fileHeader.getGenotypeSamples();
+        List<String> samples = mProjection.samples();
+        mSampleColumns = new int[samples.size()];
+
+        for(int i = 0; i < samples.size(); ++i)
+        {
+            int sampleIndex = fileSamples.indexOf(samples.get(i));
+
+            if(sampleIndex < 0)
+                throw new TribbleException(format("projected sample(%s) not present in VCF", samples.get(i)));
+
+            mSampleColumns[i] = FIRST_SAMPLE_COLUMN + sampleIndex;
+        }
+
+        VCFHeader header = new VCFHeader(fileHeader.getMetaDataInInputOrder(), samples);
+        setVCFHeader(header, getVersion());
+        return header;
+    }
+
+    @Override
+    public VariantContext decode(final String line)
+    {
+        return super.decode(mProjection.projectLine(line, mSampleColumns));
+    }
+
+    public ProjectedVcfCodec copy()
+    {
+        // an independent codec for the same file, since codecs hold parsing state and so cannot be shared across threads
+        ProjectedVcfCodec codec = new ProjectedVcfCodec(mProjection);
+        codec.mSampleColumns = mSampleColumns;
+        codec.setVCFHeader(getHeader(), getVersion());
+        return codec;
+    }
+}
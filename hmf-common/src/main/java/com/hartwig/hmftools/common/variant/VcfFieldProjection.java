@@ -0,0 +1,180 @@
+package com.hartwig.hmftools.common.variant;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.jetbrains.annotations.Nullable;
+
+public class VcfFieldProjection
+{
+    // the INFO fields and samples to decode from each VCF record, with the others dropped from the line before it is parsed
+    @Nullable
+    private final Set<String> mInfoFields; // null retains all
+    @Nullable
+    private final List<String> mSamples; // null retains all, empty drops the genotypes
+
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char INFO_SEPARATOR = ';';
+    private static final char INFO_VALUE_SEPARATOR = '=';
+    private static final String MISSING_VALUE = ".";
+
+    private static final int INFO_COLUMN = 7;
+    private static final int FORMAT_COLUMN = 8;
+
+    public VcfFieldProjection(@Nullable final Collection<String> infoFields, @Nullable final Collection<String> samples)
+    {
+        mInfoFields = infoFields != null ? Sets.newHashSet(infoFields) : null;
+        mSamples = samples != null ? Lists.newArrayList(samples) : null;
+    }
+
+    public static VcfFieldProjection sitesOnly(final String... infoFields)
+    {
+        return new VcfFieldProjection(Arrays.asList(infoFields), Lists.newArrayList());
+    }
+
+    public static VcfFieldProjection infoFields(final String... infoFields)
+    {
+        return new VcfFieldProjection(Arrays.asList(infoFields), null);
+    }
+
+    @Nullable
+    public Set<String> infoFields() { return mInfoFields; }
+
+    @Nullable
+    public List<String> samples() { return mSamples; }
+
+    public boolean retainsAllSamples() { return mSamples == null; }
+
+    public String projectLine(final String line, @Nullable final int[] sampleColumns)
+    {
+        // sample columns are indices into the line's full set of columns, in the order to be retained
+        if(mInfoFields == null && sampleColumns == null)
+            return line;
+
+        int infoStart = columnStart(line, 0, INFO_COLUMN);
+
+        if(infoStart < 0)
+            return line;
+
+        int infoEnd = line.indexOf(FIELD_SEPARATOR, infoStart);
+
+        if(infoEnd < 0)
+            infoEnd = line.length();
+
+        StringBuilder sb = new StringBuilder(line.length());
+        sb.append(line, 0, infoStart);
+
+        if(mInfoFields != null)
+            appendInfoFields(sb, line, infoStart, infoEnd);
+        else
+            sb.append(line, infoStart, infoEnd);
+
+        if(infoEnd >= line.length())
+            return sb.toString();
+
+        if(sampleColumns == null)
+        {
+            sb.append(line, infoEnd, line.length());
+            return sb.toString();
+        }
+
+        if(sampleColumns.length == 0)
+            return sb.toString();
+
+        // FORMAT followed by the retained samples
+        int[] columnStarts = columnStarts(line, infoEnd + 1);
+
+        appendColumn(sb, line, columnStarts, 0);
+
+        for(int sampleColumn : sampleColumns)
+        {
+            appendColumn(sb, line, columnStarts, sampleColumn - FORMAT_COLUMN);
+        }
+
+        return sb.toString();
+    }
+
+    private void appendInfoFields(final StringBuilder sb, final String line, int infoStart, int infoEnd)
+    {
+        int startLength = sb.length();
+        int fieldStart = infoStart;
+
+        while(fieldStart < infoEnd)
+        {
+            int fieldEnd = line.indexOf(INFO_SEPARATOR, fieldStart);
+
+            if(fieldEnd < 0 || fieldEnd > infoEnd)
+                fieldEnd = infoEnd;
+
+            int keyEnd = line.indexOf(INFO_VALUE_SEPARATOR, fieldStart);
+
+            if(keyEnd < 0 || keyEnd > fieldEnd)
+                keyEnd = fieldEnd;
+
+            if(mInfoFields.contains(line.substring(fieldStart, keyEnd)))
+            {
+                if(sb.length() > startLength)
+                    sb.append(INFO_SEPARATOR);
+
+                sb.append(line, fieldStart, fieldEnd);
+            }
+
+            fieldStart = fieldEnd + 1;
+        }
+
+        if(sb.length() == startLength)
+            sb.append(MISSING_VALUE);
+    }
+
+    private static void appendColumn(final StringBuilder sb, final String line, final int[] columnStarts, int index)
+    {
+        int columnEnd = index + 1 < columnStarts.length ? columnStarts[index + 1] - 1 : line.length();
+        sb.append(FIELD_SEPARATOR).append(line, columnStarts[index], columnEnd);
+    }
+
+    private static int columnStart(final String line, int fromIndex, int column)
+    {
+        int index = fromIndex;
+
+        for(int i = 0; i < column; ++i)
+        {
+            index = line.indexOf(FIELD_SEPARATOR, index);
+
+            if(index < 0)
+                return -1;
+
+            ++index;
+        }
+
+        return index;
+    }
+
+    private static int[] columnStarts(final String line, int fromIndex)
+    {
+        int columnCount = 1;
+
+        for(int i = fromIndex; i < line.length(); ++i)
+        {
+            if(line.charAt(i) == FIELD_SEPARATOR)
+                ++columnCount;
+        }
+
+        int[] columnStarts = new int[columnCount];
+        columnStarts[0] = fromIndex;
+
+        int index = fromIndex;
+
+        for(int i = 1; i < columnCount; ++i)
+        {
+            index = line.indexOf(FIELD_SEPARATOR, index) + 1;
+            columnStarts[i] = index;
+        }
+
+        return columnStarts;
+    }
+}
@@ -28,6 +28,7 @@ public class VcfFileReader
 {
     private final String mFilename;
     private final boolean mFileValid;
+    private final VCFCodec mCodec;
     private final AbstractFeatureReader<VariantContext, LineIterator> mReader;
 
     private final Map<String,Integer> mGenotypeOrdinals;
@@ -45,14 +46,21 @@ public class VcfFileReader
 
     public VcfFileReader(final String filename, final boolean requireIndex)
     {
+        this(filename, requireIndex, null);
+    }
+
+    public VcfFileReader(final String filename, final boolean requireIndex, @Nullable final VcfFieldProjection projection)
+    {
+        // a projection restricts decoding to the required INFO fields and samples, and the header to those samples
         mFilename = filename;
+        mCodec = projection != null ? new ProjectedVcfCodec(projection) : new VCFCodec();
         mGenotypeOrdinals = Maps.newHashMap();
         mReferenceOrdinal = NO_GENOTYPE_INDEX;
         mTumorOrdinal = NO_GENOTYPE_INDEX;
 
         if(Files.exists(Paths.get(filename)))
         {
-            mReader = getFeatureReader(filename, new VCFCodec(), requireIndex);
+            mReader = getFeatureReader(filename, mCodec, requireIndex);
             mFileValid = true;
 
             List<String> vcfSampleNames = ((VCFHeader)mReader.getHeader()).getGenotypeSamples();
@@ -118,6 +126,27 @@ public class VcfFileReader
         }
     }
 
+    public ParallelVcfIterator parallelIterator(int threads)
+    {
+        // decodes records on the specified number of threads, returning them in file order and with genotypes already decoded
+        // or returns an iterator without variants if the file cannot be read
+        if(!mFileValid)
+        {
+            LOGGER.error("failed to read variants from missing file({})", mFilename);
+            return ParallelVcfIterator.empty(mFilename);
+        }
+
+        try
+        {
+            return new ParallelVcfIterator(mFilename, mCodec, threads);
+        }
+        catch(Exception e)
+        {
+            LOGGER.error("failed to read variants from file({}): {}", mFilename, e.toString());
+            return ParallelVcfIterator.empty(mFilename);
+        }
+    }
+
     @Nullable
     public VariantContext nextVariant() { return iterator().next(); }
 
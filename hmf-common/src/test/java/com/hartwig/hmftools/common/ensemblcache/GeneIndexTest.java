@@ -0,0 +1,153 @@
+package com.hartwig.hmftools.common.ensemblcache;
+
+import static com.hartwig.hmftools.common.fusion.FusionCommon.NEG_STRAND;
+import static com.hartwig.hmftools.common.fusion.FusionCommon.POS_STRAND;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_ID_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_ID_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_ID_3;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_NAME_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_NAME_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_NAME_3;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.TRANS_ID_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.TRANS_ID_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.addGeneData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.addTransExonData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createEnsemblGeneData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createGeneDataCache;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createTransExons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.gene.GeneData;
+
+import org.junit.Test;
+
+public class GeneIndexTest
+{
+    @Test
+    public void testGeneRegionLookups()
+    {
+        EnsemblDataCache geneTransCache = createGeneDataCache();
+
+        GeneData gene1 = createEnsemblGeneData(GENE_ID_1, GENE_NAME_1, CHR_1, POS_STRAND, 10000, 20000);
+        GeneData gene2 = createEnsemblGeneData(GENE_ID_2, GENE_NAME_2, CHR_1, NEG_STRAND, 15000, 30000);
+        GeneData gene3 = createEnsemblGeneData(GENE_ID_3, GENE_NAME_3, CHR_1, POS_STRAND, 50000, 60000);
+
+        addGeneData(geneTransCache, CHR_1, Lists.newArrayList(gene1, gene2, gene3));
+
+        int upstreamDistance = 1000;
+
+        assertEquals(Lists.newArrayList(gene1), geneTransCache.findGeneRegions(CHR_1, 9000, upstreamDistance));
+        assertTrue(geneTransCache.findGeneRegions(CHR_1, 8999, upstreamDistance).isEmpty());
+        assertEquals(Lists.newArrayList(gene1, gene2), geneTransCache.findGeneRegions(CHR_1, 16000, upstreamDistance));
+        assertEquals(Lists.newArrayList(gene2), geneTransCache.findGeneRegions(CHR_1, 31000, upstreamDistance));
+        assertTrue(geneTransCache.findGeneRegions(CHR_1, 40000, upstreamDistance).isEmpty());
+        assertTrue(geneTransCache.findGeneRegions(CHR_2, 16000, upstreamDistance).isEmpty());
+
+        // a downstream annotation extends the gene beyond its 3' end
+        geneTransCache.addDownstreamGeneAnnotations(gene3, 5000);
+        assertEquals(Lists.newArrayList(gene3), geneTransCache.findGeneRegions(CHR_1, 64000, upstreamDistance));
+        assertTrue(geneTransCache.findGeneRegions(CHR_1, 66000, upstreamDistance).isEmpty());
+
+        // genes added after the index was built are picked up once the indices are invalidated
+        GeneData gene4 = createEnsemblGeneData("ENSG004", "GENE_4", CHR_1, NEG_STRAND, 39000, 39500);
+        geneTransCache.getChrGeneDataMap().get(CHR_1).add(gene4);
+        assertTrue(geneTransCache.findGeneRegions(CHR_1, 40000, upstreamDistance).isEmpty());
+
+        geneTransCache.invalidateGeneIndices();
+        assertEquals(Lists.newArrayList(gene4), geneTransCache.findGeneRegions(CHR_1, 40000, upstreamDistance));
+
+        // results can be added to by the caller
+        List<GeneData> genes = geneTransCache.findGeneRegions(CHR_1, 100, upstreamDistance);
+        assertTrue(genes.isEmpty());
+        genes.add(gene1);
+
+        assertNull(geneTransCache.getGeneIndex(CHR_2, upstreamDistance));
+    }
+
+    @Test
+    public void testGenesByRegion()
+    {
+        EnsemblDataCache geneTransCache = createGeneDataCache();
+
+        GeneData gene1 = createEnsemblGeneData(GENE_ID_1, GENE_NAME_1, CHR_1, POS_STRAND, 10000, 20000);
+        GeneData gene2 = createEnsemblGeneData(GENE_ID_2, GENE_NAME_2, CHR_1, NEG_STRAND, 25000, 30000);
+
+        addGeneData(geneTransCache, CHR_1, Lists.newArrayList(gene1, gene2));
+
+        addTransExonData(geneTransCache, GENE_ID_1, Lists.newArrayList(
+                createTransExons(GENE_ID_1, TRANS_ID_1, POS_STRAND, new int[] {10000, 19000}, 1000, null, null, true, "")));
+
+        addTransExonData(geneTransCache, GENE_ID_2, Lists.newArrayList(
+                createTransExons(GENE_ID_2, TRANS_ID_2, NEG_STRAND, new int[] {25000, 29000}, 1000, null, null, true, "")));
+
+        assertEquals(Lists.newArrayList(gene1), geneTransCache.findGenesByRegion(CHR_1, 9000, 21000));
+        assertEquals(Lists.newArrayList(gene1, gene2), geneTransCache.findGenesByRegion(CHR_1, 9000, 31000));
+
+        // a downstream annotation doesn't extend the gene bounds used to find genes by region
+        geneTransCache.addDownstreamGeneAnnotations(gene1, 10000);
+        assertEquals(Lists.newArrayList(gene2), geneTransCache.findGenesByRegion(CHR_1, 21000, 31000));
+        assertTrue(geneTransCache.findGenesByRegion(CHR_1, 20500, 24000).isEmpty());
+        assertEquals(Lists.newArrayList(gene1, gene2), geneTransCache.findGeneRegions(CHR_1, 25000, 0));
+    }
+
+    @Test
+    public void testIndexMatchesLinearScan()
+    {
+        Random random = new Random(1);
+        int upstreamDistance = 1000;
+
+        List<GeneData> genes = Lists.newArrayList();
+        Map<GeneData,Integer> downstreamDistances = Maps.newHashMap();
+
+        for(int i = 0; i < 500; ++i)
+        {
+            int geneStart = random.nextInt(1000000);
+            int geneEnd = geneStart + random.nextInt(random.nextBoolean() ? 1000 : 100000);
+            int strand = random.nextBoolean() ? POS_STRAND : NEG_STRAND;
+
+            GeneData geneData = createEnsemblGeneData("ENSG" + i, "GENE_" + i, CHR_1, strand, geneStart, geneEnd);
+            genes.add(geneData);
+
+            if(random.nextInt(10) == 0)
+                downstreamDistances.put(geneData, random.nextInt(10000));
+        }
+
+        ChromosomeGeneIndex geneIndex = new ChromosomeGeneIndex(genes, upstreamDistance, downstreamDistances);
+
+        for(int i = 0; i < 1000; ++i)
+        {
+            int posStart = random.nextInt(1100000) - 50000;
+            int posEnd = posStart + random.nextInt(5000);
+
+            List<GeneData> expectedGenes = Lists.newArrayList();
+
+            for(GeneData geneData : genes)
+            {
+                int downstreamDistance = downstreamDistances.getOrDefault(geneData, 0);
+
+                int rangeStart = geneData.Strand == POS_STRAND ? geneData.GeneStart - upstreamDistance : geneData.GeneStart - downstreamDistance;
+                int rangeEnd = geneData.Strand == POS_STRAND ? geneData.GeneEnd + downstreamDistance : geneData.GeneEnd + upstreamDistance;
+
+                if(rangeStart <= posEnd && rangeEnd >= posStart)
+                    expectedGenes.add(geneData);
+            }
+
+            assertEquals(expectedGenes, geneIndex.findGenes(posStart, posEnd));
+        }
+
+        ChromosomeGeneIndex emptyIndex = new ChromosomeGeneIndex(Lists.newArrayList(), upstreamDistance, Collections.emptyMap());
+        assertTrue(emptyIndex.findGenes(100).isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package com.hartwig.hmftools.common.fastq;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import com.hartwig.hmftools.common.utils.file.ParallelBgzfInputStream;
+import com.hartwig.hmftools.common.utils.file.ParallelBgzfOutputStream;
+
+import org.junit.Test;
+
+public class FastqRecordReaderTest
+{
+    @Test
+    public void testRecordParsing() throws IOException
+    {
+        String fastq = "@READ_01 1:N:0:ACGT\nACGTACGTAA\n+\nFFFFF:FFFF\r\n"
+                + "@READ_02 1:N:0:ACGT\nTTTTGGGG\n+\nFFFFFFFF";
+
+        FastqRecordReader reader = new FastqRecordReader(toStream(fastq), "test");
+        FastqRecord record = new FastqRecord();
+
+        assertTrue(reader.next(record));
+        assertEquals("@READ_01 1:N:0:ACGT", record.readName());
+        assertEquals("ACGTACGTAA", record.bases());
+        assertEquals(10, record.qualsLength());
+
+        // trim and extend the read name as for UMI extraction
+        int delimIndex = record.nameIndexOf((byte)' ');
+        assertEquals(8, delimIndex);
+
+        byte[] umiId = ":ACG".getBytes();
+        record.insertIntoName(delimIndex, umiId, umiId.length);
+        record.trimStart(3);
+        record.trimEnd(2);
+
+        assertEquals("@READ_01:ACG 1:N:0:ACGT", record.readName());
+        assertEquals("TACGT", record.bases());
+        assertEquals(3, record.basesIndexOf("GT".getBytes(), 0, 5));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        record.writeTo(output);
+        assertEquals("@READ_01:ACG 1:N:0:ACGT\nTACGT\n+\nFF:FF\n", output.toString());
+
+        assertTrue(reader.next(record));
+        assertEquals("TTTTGGGG", record.bases());
+
+        assertFalse(reader.next(record));
+        assertEquals(2, reader.recordCount());
+
+        // invalid records are rejected
+        reader = new FastqRecordReader(toStream("@READ_01\nACGT\n+\nFFF\n"), "test");
+
+        try
+        {
+            reader.next(record);
+            fail("expected invalid record");
+        }
+        catch(IOException e)
+        {
+        }
+    }
+
+    @Test
+    public void testParallelBgzf() throws IOException
+    {
+        Random random = new Random(1);
+        byte[] bases = "ACGT".getBytes();
+
+        StringBuilder fastq1 = new StringBuilder();
+        StringBuilder fastq2 = new StringBuilder();
+        int recordCount = 5000;
+
+        for(int i = 0; i < recordCount; ++i)
+        {
+            for(StringBuilder fastq : new StringBuilder[] { fastq1, fastq2 })
+            {
+                fastq.append("@READ_").append(i).append('\n');
+
+                for(int j = 0; j < 150; ++j)
+                {
+                    fastq.append((char)bases[random.nextInt(4)]);
+                }
+
+                fastq.append("\n+\n").append("F".repeat(150)).append('\n');
+            }
+        }
+
+        byte[] data = fastq1.toString().getBytes(StandardCharsets.US_ASCII);
+
+        // spans many blocks, compressed on several threads
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try(ParallelBgzfOutputStream outputStream = new ParallelBgzfOutputStream(compressed, 4))
+        {
+            outputStream.write(data, 0, 1000);
+            outputStream.write(data, 1000, data.length - 1000);
+        }
+
+        byte[] compressedData = compressed.toByteArray();
+
+        // readable in parallel and as a regular gzip stream
+        assertArrayEquals(data, new ParallelBgzfInputStream(new ByteArrayInputStream(compressedData), 4).readAllBytes());
+        assertArrayEquals(data, new GZIPInputStream(new ByteArrayInputStream(compressedData)).readAllBytes());
+
+        FastqPairReader pairReader = new FastqPairReader(
+                new FastqRecordReader(new ParallelBgzfInputStream(new ByteArrayInputStream(compressedData), 3), "R1"),
+                new FastqRecordReader(toStream(fastq2.toString()), "R2"));
+
+        FastqRecord record1 = new FastqRecord();
+        FastqRecord record2 = new FastqRecord();
+
+        while(pairReader.next(record1, record2))
+        {
+            assertEquals(record1.readName(), record2.readName());
+            assertEquals(150, record1.readLength());
+        }
+
+        assertEquals(recordCount, pairReader.pairCount());
+
+        // pairs must have the same record count
+        pairReader = new FastqPairReader(
+                new FastqRecordReader(toStream("@READ_01\nACGT\n+\nFFFF\n"), "R1"), new FastqRecordReader(toStream(""), "R2"));
+
+        try
+        {
+            pairReader.next(record1, record2);
+            fail("expected differing record counts");
+        }
+        catch(IOException e)
+        {
+        }
+    }
+
+    private static InputStream toStream(final String data)
+    {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.US_ASCII));
+    }
+}
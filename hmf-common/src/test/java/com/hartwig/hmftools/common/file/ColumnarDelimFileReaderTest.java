@@ -0,0 +1,144 @@
+package com.hartwig.hmftools.common.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedWriter;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import com.hartwig.hmftools.common.utils.file.ColumnarDelimFileReader;
+import com.hartwig.hmftools.common.utils.file.ColumnarDelimFileReader.ColumnType;
+
+import org.junit.Test;
+
+public class ColumnarDelimFileReaderTest
+{
+    @Test
+    public void testReadColumns()
+    {
+        String csvContent = "chromosome,position,name,rate,count,ignored\n"
+                + "1,100,Susan,0.7,12345678901,x\r\n"
+                + "1,200,,-1.5E-3,0,y\n"
+                + "\n"
+                + "X,-300,John,NaN,-5,z";
+
+        try(ColumnarDelimFileReader reader = createReader(csvContent))
+        {
+            reader.setDelimiter(",");
+
+            assertTrue(reader.hasColumn("rate"));
+            assertFalse(reader.hasColumn("missing"));
+
+            reader.addColumn("chromosome", ColumnType.CATEGORY);
+            reader.addColumn("position", ColumnType.INT);
+            reader.addColumn("name", ColumnType.STRING);
+            reader.addColumn("rate", ColumnType.DOUBLE);
+            reader.addColumn("count", ColumnType.LONG);
+
+            ColumnarDelimFileReader.Columns columns = reader.read();
+
+            assertEquals(3, columns.rowCount());
+
+            String[] chromosomes = columns.getStrings("chromosome");
+            assertArrayEquals(new String[] { "1", "1", "X" }, chromosomes);
+            assertSame(chromosomes[0], chromosomes[1]);
+
+            assertArrayEquals(new int[] { 100, 200, -300 }, columns.getInts("position"));
+            assertArrayEquals(new String[] { "Susan", null, "John" }, columns.getStrings("name"));
+            assertArrayEquals(new double[] { 0.7, -1.5E-3, Double.NaN }, columns.getDoubles("rate"), 0);
+            assertArrayEquals(new long[] { 12345678901L, 0, -5 }, columns.getLongs("count"));
+
+            try
+            {
+                columns.getInts("rate");
+                fail("expected wrong column type");
+            }
+            catch(NoSuchElementException e)
+            {
+            }
+        }
+
+        // nulls are not valid for numeric columns
+        try(ColumnarDelimFileReader reader = createReader("position\n100\nnull\n"))
+        {
+            reader.addColumn("position", ColumnType.INT);
+            reader.read();
+            fail("expected null value");
+        }
+        catch(NoSuchElementException e)
+        {
+        }
+    }
+
+    @Test
+    public void testMatchesStandardParsing() throws IOException
+    {
+        File file = File.createTempFile("columnar_reader", ".tsv.gz");
+        file.deleteOnExit();
+
+        Random random = new Random(1);
+        int rowCount = 100_000;
+        double[] values = new double[rowCount];
+        String[] formatted = new String[rowCount];
+
+        // spans several read buffers
+        try(BufferedWriter writer = createBufferedWriter(file.getPath()))
+        {
+            writer.write("gene\tvalue\tposition");
+            writer.newLine();
+
+            for(int i = 0; i < rowCount; ++i)
+            {
+                switch(i % 4)
+                {
+                    case 0: formatted[i] = String.format("%.4f", random.nextDouble()); break;
+                    case 1: formatted[i] = String.valueOf(random.nextDouble() * 1e6); break;
+                    case 2: formatted[i] = String.valueOf(random.nextGaussian() * 1e-8); break;
+                    default: formatted[i] = String.valueOf(random.nextInt()); break;
+                }
+
+                values[i] = Double.parseDouble(formatted[i]);
+                writer.write(String.format("GENE_%d\t%s\t%d", i % 50, formatted[i], i));
+                writer.newLine();
+            }
+        }
+
+        try(ColumnarDelimFileReader reader = new ColumnarDelimFileReader(file.getPath(), 2))
+        {
+            reader.addColumn("gene", ColumnType.CATEGORY);
+            reader.addColumn("value", ColumnType.DOUBLE);
+            reader.addColumn("position", ColumnType.INT);
+
+            ColumnarDelimFileReader.Columns columns = reader.read();
+            assertEquals(rowCount, columns.rowCount());
+
+            double[] parsedValues = columns.getDoubles("value");
+            String[] genes = columns.getStrings("gene");
+
+            for(int i = 0; i < rowCount; ++i)
+            {
+                assertEquals(formatted[i], values[i], parsedValues[i], 0);
+                assertEquals("GENE_" + (i % 50), genes[i]);
+                assertEquals(i, columns.getInts("position")[i]);
+            }
+
+            assertSame(genes[0], genes[50]);
+        }
+    }
+
+    private static ColumnarDelimFileReader createReader(final String content)
+    {
+        return new ColumnarDelimFileReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
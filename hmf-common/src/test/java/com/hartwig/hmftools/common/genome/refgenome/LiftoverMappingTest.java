@@ -1,6 +1,8 @@
 package com.hartwig.hmftools.common.genome.refgenome;
 
 import static com.hartwig.hmftools.common.genome.refgenome.GenomeLiftoverCache.UNMAPPED_POSITION;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V38;
 import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
 
 import static org.junit.Assert.assertEquals;
@@ -38,5 +40,22 @@ public class LiftoverMappingTest
         assertEquals(317720, genomeLiftoverCache.convertPositionTo37(CHR_1, 501617));
         assertEquals(471368, genomeLiftoverCache.convertPositionTo37(CHR_1, 347969));
         assertEquals(10001, genomeLiftoverCache.convertPositionTo37(CHR_1, 10001));
+        assertEquals(317720, genomeLiftoverCache.convertPositionTo37("chr1", 501617));
+
+        // a cursor over ascending positions gives the same conversions, and handles a position lower than the last
+        int[] positions = { 5000, 10001, 317720, 471368, 10001 };
+        int[] convertedPositions = genomeLiftoverCache.convertPositions(CHR_1, positions, V38);
+
+        for(int i = 0; i < positions.length; ++i)
+        {
+            assertEquals(genomeLiftoverCache.convertPosition(CHR_1, positions[i]), convertedPositions[i]);
+        }
+
+        LiftoverCursor cursor = genomeLiftoverCache.liftoverCursor(CHR_1, V37);
+        assertEquals(471368, cursor.convertPosition(347969));
+        assertEquals(317720, cursor.convertPosition(501617));
+
+        // chromosomes without mappings are unchanged
+        assertEquals(1000, genomeLiftoverCache.liftoverCursor("Z", V38).convertPosition(1000));
     }
 }
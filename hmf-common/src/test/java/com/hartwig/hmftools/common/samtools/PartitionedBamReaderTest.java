@@ -0,0 +1,152 @@
+package com.hartwig.hmftools.common.samtools;
+
+import static com.hartwig.hmftools.common.test.SamRecordTestUtils.SAM_DICTIONARY_V37;
+import static com.hartwig.hmftools.common.test.SamRecordTestUtils.createSamRecordUnpaired;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+
+public class PartitionedBamReaderTest
+{
+    private static final String READ_BASES = "ACGTACGTACGTACGTACGT";
+
+    private class TestConsumer implements BamRecordConsumer
+    {
+        public final List<String> ReadIds = Lists.newArrayList();
+        public final List<ChrBaseRegion> CompletePartitions = Lists.newArrayList();
+        private final boolean mKeepDuplicates;
+
+        public TestConsumer() { this(false); }
+
+        public TestConsumer(boolean keepDuplicates) { mKeepDuplicates = keepDuplicates; }
+
+        @Override
+        public int minMappingQuality() { return 0; }
+
+        @Override
+        public boolean keepDuplicates() { return mKeepDuplicates; }
+
+        @Override
+        public synchronized void processRecord(final ChrBaseRegion partition, final SAMRecord record)
+        {
+            ReadIds.add(record.getReadName());
+        }
+
+        @Override
+        public synchronized void partitionComplete(final ChrBaseRegion partition) { CompletePartitions.add(partition); }
+    }
+
+    @Test
+    public void testConcurrentBams() throws Exception
+    {
+        File tempDir = Files.createTempDirectory("partitioned_bam_test").toFile();
+        tempDir.deleteOnExit();
+
+        // the second tumor read spans the partition boundary, so is passed once for each partition
+        File tumorBam = writeBam(tempDir, "tumor", Lists.newArrayList(100, 990, 1500));
+        File refBam = writeBam(tempDir, "ref", Lists.newArrayList(200, 1200));
+
+        List<ChrBaseRegion> partitions = Lists.newArrayList(new ChrBaseRegion("1", 1, 1000), new ChrBaseRegion("1", 1001, 2000));
+
+        TestConsumer tumorConsumer = new TestConsumer();
+        TestConsumer refConsumer = new TestConsumer();
+
+        Map<String,List<BamRecordConsumer>> bamConsumers = Maps.newLinkedHashMap();
+        bamConsumers.put(tumorBam.getAbsolutePath(), Lists.newArrayList(tumorConsumer));
+        bamConsumers.put(refBam.getAbsolutePath(), Lists.newArrayList(refConsumer));
+
+        SamReaderFactory readerFactory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT);
+        PartitionedBamReader bamReader = new PartitionedBamReader(readerFactory, 2);
+        bamReader.processBams(bamConsumers, partitions);
+
+        assertEquals(4, tumorConsumer.ReadIds.size());
+        assertTrue(tumorConsumer.ReadIds.stream().allMatch(x -> x.startsWith("tumor")));
+        assertEquals(2, tumorConsumer.ReadIds.stream().filter(x -> x.equals("tumor_990")).count());
+
+        assertEquals(2, refConsumer.ReadIds.size());
+        assertTrue(refConsumer.ReadIds.stream().allMatch(x -> x.startsWith("ref")));
+
+        // a single BAM with the consumers registered for all
+        TestConsumer consumer = new TestConsumer();
+        bamReader = new PartitionedBamReader(readerFactory, 1);
+        bamReader.addConsumer(consumer);
+        bamReader.processBam(refBam.getAbsolutePath(), partitions);
+
+        assertEquals(Lists.newArrayList("ref_200", "ref_1200"), consumer.ReadIds);
+        assertEquals(partitions, consumer.CompletePartitions);
+    }
+
+    @Test
+    public void testConsumerReadFilters() throws Exception
+    {
+        File tempDir = Files.createTempDirectory("partitioned_bam_test").toFile();
+        tempDir.deleteOnExit();
+
+        // the read at 500 is a duplicate, only passed to the consumer keeping duplicates
+        File bamFile = writeBam(tempDir, "sample", Lists.newArrayList(100, 500, 1500), Lists.newArrayList(500));
+
+        List<ChrBaseRegion> partitions = Lists.newArrayList(new ChrBaseRegion("1", 1, 1000), new ChrBaseRegion("1", 1001, 2000));
+
+        TestConsumer consumer = new TestConsumer();
+        TestConsumer dupConsumer = new TestConsumer(true);
+
+        SamReaderFactory readerFactory = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT);
+        PartitionedBamReader bamReader = new PartitionedBamReader(readerFactory, 1);
+        bamReader.addConsumer(consumer);
+        bamReader.addConsumer(dupConsumer);
+        bamReader.processBam(bamFile.getAbsolutePath(), partitions);
+
+        assertEquals(Lists.newArrayList("sample_100", "sample_1500"), consumer.ReadIds);
+        assertEquals(Lists.newArrayList("sample_100", "sample_500", "sample_1500"), dupConsumer.ReadIds);
+        assertEquals(partitions, dupConsumer.CompletePartitions);
+    }
+
+    private static File writeBam(final File dir, final String sampleId, final List<Integer> readStarts)
+    {
+        return writeBam(dir, sampleId, readStarts, Lists.newArrayList());
+    }
+
+    private static File writeBam(final File dir, final String sampleId, final List<Integer> readStarts, final List<Integer> duplicates)
+    {
+        File bamFile = new File(dir, sampleId + ".bam");
+        bamFile.deleteOnExit();
+        new File(dir, sampleId + ".bai").deleteOnExit();
+
+        SAMFileHeader header = new SAMFileHeader();
+        header.setSequenceDictionary(SAM_DICTIONARY_V37);
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+
+        SAMFileWriter writer = new SAMFileWriterFactory().setCreateIndex(true).makeBAMWriter(header, true, bamFile);
+
+        for(int readStart : readStarts)
+        {
+            SAMRecord record = createSamRecordUnpaired(
+                    sampleId + "_" + readStart, "1", readStart, READ_BASES, "20M", false, false, null);
+
+            record.setDuplicateReadFlag(duplicates.contains(readStart));
+            record.setHeader(header);
+            writer.addAlignment(record);
+        }
+
+        writer.close();
+        return bamFile;
+    }
+}
@@ -55,6 +55,7 @@ public final class GeneTestUtils
     public static void addGeneData(EnsemblDataCache geneTransCache, final String chromosome, List<GeneData> geneDataList)
     {
         geneTransCache.getChrGeneDataMap().put(chromosome, geneDataList);
+        geneTransCache.invalidateGeneIndices();
     }
 
     public static int getCodingBases(final Integer start, final Integer end)
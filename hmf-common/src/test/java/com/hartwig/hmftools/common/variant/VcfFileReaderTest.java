@@ -0,0 +1,151 @@
+package com.hartwig.hmftools.common.variant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+
+import org.junit.Test;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+public class VcfFileReaderTest
+{
+    private static final String VCF_FILE = Resources.getResource("variant/projection.vcf").getPath();
+
+    private static final String REFERENCE = "REFERENCE";
+    private static final String TUMOR = "TUMOR";
+
+    @Test
+    public void testFieldProjection()
+    {
+        VcfFileReader reader = new VcfFileReader(VCF_FILE, false, new VcfFieldProjection(List.of("TIER"), List.of(TUMOR)));
+
+        assertEquals(List.of(TUMOR), reader.vcfHeader().getGenotypeSamples());
+        assertEquals(0, (int)reader.genotypeOrdinals().get(TUMOR));
+
+        List<VariantContext> variants = reader.iterator().stream().collect(Collectors.toList());
+        assertEquals(3, variants.size());
+
+        VariantContext variant = variants.get(0);
+        assertEquals(100, variant.getStart());
+        assertEquals("HOTSPOT", variant.getAttributeAsString("TIER", ""));
+        assertFalse(variant.hasAttribute("PURPLE_CN"));
+        assertFalse(variant.hasAttribute("HOTSPOT"));
+        assertEquals(1, variant.getNSamples());
+        assertEquals(10, variant.getGenotype(TUMOR).getAD()[1]);
+        assertNull(variant.getGenotype(REFERENCE));
+
+        // a record without any projected INFO fields
+        variant = variants.get(2);
+        assertTrue(variant.getAttributes().isEmpty());
+        assertTrue(variant.getFilters().contains("LowQual"));
+        assertEquals(8, variant.getGenotype(0).getAD()[1]);
+
+        reader.close();
+
+        // sites only
+        reader = new VcfFileReader(VCF_FILE, false, VcfFieldProjection.sitesOnly("PURPLE_CN", "HOTSPOT"));
+
+        variant = reader.iterator().next();
+        assertFalse(variant.hasGenotypes());
+        assertEquals(2.1, variant.getAttributeAsDouble("PURPLE_CN", 0), 1e-6);
+        assertTrue(variant.hasAttribute("HOTSPOT"));
+        assertFalse(variant.hasAttribute("TIER"));
+
+        reader.close();
+    }
+
+    @Test
+    public void testParallelDecoding() throws IOException
+    {
+        File vcfFile = File.createTempFile("parallel_decoding", ".vcf");
+        vcfFile.deleteOnExit();
+
+        List<String> headerLines = Files.readAllLines(new File(VCF_FILE).toPath()).stream()
+                .filter(x -> x.startsWith("#")).collect(Collectors.toList());
+
+        int variantCount = 5000;
+
+        try(BufferedWriter writer = Files.newBufferedWriter(vcfFile.toPath()))
+        {
+            for(String line : headerLines)
+            {
+                writer.write(line);
+                writer.newLine();
+            }
+
+            for(int i = 0; i < variantCount; ++i)
+            {
+                writer.write(String.format("%d\t%d\t.\tA\tC\t50\tPASS\tTIER=PANEL;PURPLE_CN=%d\tGT:AD\t0/0:30,0\t0/1:20,%d",
+                        i < variantCount / 2 ? 1 : 2, 100 + i * 10, i, i));
+                writer.newLine();
+            }
+        }
+
+        VcfFileReader reader = new VcfFileReader(vcfFile.getAbsolutePath());
+        List<VariantContext> expectedVariants = reader.iterator().stream().collect(Collectors.toList());
+
+        List<VariantContext> variants = Lists.newArrayList();
+
+        try(ParallelVcfIterator iterator = reader.parallelIterator(4))
+        {
+            for(VariantContext variant : iterator)
+            {
+                variants.add(variant);
+            }
+        }
+
+        reader.close();
+
+        assertEquals(variantCount, variants.size());
+
+        for(int i = 0; i < variantCount; ++i)
+        {
+            VariantContext expected = expectedVariants.get(i);
+            VariantContext variant = variants.get(i);
+
+            assertEquals(expected.getContig(), variant.getContig());
+            assertEquals(expected.getStart(), variant.getStart());
+            assertEquals(expected.getAttributeAsInt("PURPLE_CN", -1), variant.getAttributeAsInt("PURPLE_CN", -1));
+            assertEquals(i, variant.getGenotype(TUMOR).getAD()[1]);
+        }
+
+        // projected fields are applied to parallel decoding too
+        reader = new VcfFileReader(vcfFile.getAbsolutePath(), false, VcfFieldProjection.sitesOnly("TIER"));
+
+        try(ParallelVcfIterator iterator = reader.parallelIterator(2))
+        {
+            VariantContext variant = iterator.next();
+            assertFalse(variant.hasGenotypes());
+            assertFalse(variant.hasAttribute("PURPLE_CN"));
+            assertEquals("PANEL", variant.getAttributeAsString("TIER", ""));
+        }
+
+        reader.close();
+    }
+
+    @Test
+    public void testParallelIteratorMissingFile()
+    {
+        VcfFileReader reader = new VcfFileReader("missing.vcf.gz");
+        assertFalse(reader.fileValid());
+
+        try(ParallelVcfIterator iterator = reader.parallelIterator(2))
+        {
+            assertFalse(iterator.hasNext());
+        }
+
+        reader.close();
+    }
+}
@@ -21,9 +21,12 @@ import static com.hartwig.hmftools.isofox.common.CommonUtils.getChromosomeLength
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_END;
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_START;
 
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -34,6 +37,7 @@ import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.region.ChrBaseRegion;
 import com.hartwig.hmftools.isofox.common.FragmentTypeCounts;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
+import com.hartwig.hmftools.isofox.common.GeneCollectionWorkQueue;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
 import com.hartwig.hmftools.isofox.common.PerformanceTracking;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
@@ -43,6 +47,7 @@ import com.hartwig.hmftools.isofox.expression.TranscriptExpression;
 import com.hartwig.hmftools.isofox.expression.GeneCollectionSummary;
 import com.hartwig.hmftools.isofox.adjusts.GcRatioCounts;
 import com.hartwig.hmftools.isofox.adjusts.GcTranscriptCalculator;
+import com.hartwig.hmftools.isofox.adjusts.TranscriptFitGcCounts;
 import com.hartwig.hmftools.isofox.fusion.ChimericStats;
 import com.hartwig.hmftools.isofox.fusion.ChromosomeFusions;
 import com.hartwig.hmftools.isofox.fusion.FusionTaskManager;
@@ -60,7 +65,10 @@ public class ChromosomeTaskExecutor implements Callable
     private final FragmentAllocator mBamFragmentAllocator;
     private final TranscriptExpression mExpTransRates;
     private final GcTranscriptCalculator mTranscriptGcRatios;
+    private TranscriptFitGcCounts mGcFitCounts;
     private final ExpectedCountsCache mExpectedCountsCache;
+    private final GeneCollectionWorkQueue mWorkQueue;
+    private final Queue<PendingCollection> mPendingCollections;
 
     private final List<GeneData> mGeneDataList;
     private int mCollectionId;
@@ -83,10 +91,23 @@ public class ChromosomeTaskExecutor implements Callable
 
     private final PerformanceCounter[] mPerfCounters;
 
+    private class PendingCollection
+    {
+        public final GeneCollection Genes;
+        public final Future<Void> FitWork;
+
+        public PendingCollection(final GeneCollection genes, final Future<Void> fitWork)
+        {
+            Genes = genes;
+            FitWork = fitWork;
+        }
+    }
+
     public ChromosomeTaskExecutor(
             final IsofoxConfig config, final String chromosome, final List<GeneData> geneDataList,
             final EnsemblDataCache geneTransCache, final ResultsWriter resultsWriter, final FusionTaskManager fusionManager,
-            final ExpectedCountsCache expectedCountsCache, final GcTranscriptCalculator transcriptGcCalcs)
+            final ExpectedCountsCache expectedCountsCache, final GcTranscriptCalculator transcriptGcCalcs,
+            final GeneCollectionWorkQueue workQueue)
     {
         mConfig = config;
         mChromosome = chromosome;
@@ -100,6 +121,8 @@ public class ChromosomeTaskExecutor implements Callable
         mCurrentTaskType = null;
 
         mExpectedCountsCache = expectedCountsCache;
+        mWorkQueue = workQueue;
+        mPendingCollections = new ArrayDeque<>();
 
         mBamFragmentAllocator = new FragmentAllocator(mConfig, resultsWriter);
         mBamFragmentAllocator.registerKnownFusionPairs(mGeneTransCache);
@@ -107,6 +130,7 @@ public class ChromosomeTaskExecutor implements Callable
         mGcRatioCounts = mBamFragmentAllocator.getGcRatioCounts();
         mExpTransRates = mConfig.ExpCountsFile != null ? new TranscriptExpression(mConfig, mExpectedCountsCache, resultsWriter) : null;
         mTranscriptGcRatios = transcriptGcCalcs;
+        mGcFitCounts = null;
 
         mGeneCollectionSummaryData = Lists.newArrayList();
         mEnrichedGenesFragmentCount = 0;
@@ -147,8 +171,8 @@ public class ChromosomeTaskExecutor implements Callable
                 assignTranscriptCounts();
                 break;
 
-            case APPLY_GC_ADJUSTMENT:
-                applyGcAdjustToTranscriptAllocations();
+            case COLLECT_GC_FIT_COUNTS:
+                collectGcFitCounts();
                 break;
 
             default:
@@ -230,6 +254,8 @@ public class ChromosomeTaskExecutor implements Callable
             ISF_LOGGER.debug("chr({}) gene({}) processed({} of {})",
                     mChromosome, geneCollection.geneNames(10), mCurrentGeneIndex, mGeneDataList.size());
 
+            writePendingResults(false);
+
             mGenesProcessed += geneCollection.genes().size();
             mTotalReadsProcessed = mBamFragmentAllocator.totalReadCount();
 
@@ -245,6 +271,10 @@ public class ChromosomeTaskExecutor implements Callable
         if(mChromosomeFusions != null)
             mChromosomeFusions.onChromosomeComplete();
 
+        // help complete queued gene collection work from this and other chromosomes, then write this chromosome's remaining results
+        mWorkQueue.runQueuedWork();
+        writePendingResults(true);
+
         if(mGeneDataList.size() > 10)
         {
             ISF_LOGGER.info("chr({}) processing complete", mChromosome);
@@ -314,23 +344,31 @@ public class ChromosomeTaskExecutor implements Callable
         mBamFragmentAllocator.produceBamCounts(geneCollection, geneRegion);
         mPerfCounters[PERF_READS].stop();
 
-        postBamReadTranscriptCounts(geneCollection);
+        GeneCollectionSummary geneCollectionSummary = postBamReadTranscriptCounts(geneCollection);
         postBamReadNovelLocations(geneCollection);
         postBamReadFusions(geneCollection);
 
         mBamFragmentAllocator.clearCache(); // free up resources for this gene collection
+
+        if(geneCollectionSummary != null)
+        {
+            // the fit and results collection only depend on this gene collection's state, which is no longer touched by this task,
+            // so can run on any thread - its results are then written by this task in gene collection order
+            Future<Void> fitWork = mWorkQueue.submit(() -> fitAndCollectResults(geneCollection, geneCollectionSummary));
+            mPendingCollections.add(new PendingCollection(geneCollection, fitWork));
+        }
     }
 
-    private void postBamReadTranscriptCounts(final GeneCollection geneCollection)
+    private GeneCollectionSummary postBamReadTranscriptCounts(final GeneCollection geneCollection)
     {
         if(mConfig.runStatisticsOnly())
         {
             mCombinedFragmentCounts.combine(geneCollection.fragmentTypeCounts());
-            return;
+            return null;
         }
 
         if(!mConfig.runFunction(TRANSCRIPT_COUNTS))
-            return;
+            return null;
 
         GeneCollectionSummary geneCollectionSummary = new GeneCollectionSummary(
                 geneCollection.chrId(), geneCollection.geneIds(), geneCollection.geneNames(), mBamFragmentAllocator.getTransComboData());
@@ -357,34 +395,6 @@ public class ChromosomeTaskExecutor implements Callable
                     mGeneCollectionSummaryData.stream().mapToInt(x -> x.TransCategoryCounts.size()).sum());
         }
 
-        if(mExpTransRates != null)
-        {
-            ExpectedRatesData expRatesData = null;
-
-            mPerfCounters[PERF_FIT].start();
-
-            final Map<Integer,String> transIdMap = Maps.newHashMap();
-            geneCollection.getTranscripts().forEach(x -> transIdMap.put(x.TransId, x.TransName));
-            mExpTransRates.runTranscriptEstimation(transIdMap, geneCollectionSummary, expRatesData, false);
-
-            mPerfCounters[PERF_FIT].stop();
-        }
-
-        for(GeneReadData geneReadData : geneCollection.genes())
-        {
-            collectResults(geneCollection, geneCollectionSummary, geneReadData);
-
-            if(mConfig.WriteExonData)
-            {
-                geneReadData.getTranscripts().forEach(x -> mResultsWriter.writeExonData(geneReadData, x));
-            }
-        }
-
-        if(mConfig.WriteSpliceJunctions)
-        {
-            mResultsWriter.writeSpliceJunctionData(geneCollection);
-        }
-
         if(!mConfig.Filters.EnrichedGeneIds.isEmpty())
         {
             long enrichedGeneFragments = geneCollection.genes().stream()
@@ -410,13 +420,75 @@ public class ChromosomeTaskExecutor implements Callable
 
         mCombinedFragmentCounts.combine(geneCollection.fragmentTypeCounts());
 
+        return geneCollectionSummary;
+    }
+
+    private void fitAndCollectResults(final GeneCollection geneCollection, final GeneCollectionSummary geneCollectionSummary)
+    {
+        if(mExpTransRates != null)
+        {
+            ExpectedRatesData expRatesData = null;
+
+            PerformanceCounter fitPerfCounter = new PerformanceCounter(mPerfCounters[PERF_FIT].getName());
+            fitPerfCounter.start();
+
+            final Map<Integer,String> transIdMap = Maps.newHashMap();
+            geneCollection.getTranscripts().forEach(x -> transIdMap.put(x.TransId, x.TransName));
+            mExpTransRates.runTranscriptEstimation(transIdMap, geneCollectionSummary, expRatesData, false);
+
+            fitPerfCounter.stop();
+
+            synchronized(mPerfCounters)
+            {
+                mPerfCounters[PERF_FIT].merge(fitPerfCounter);
+            }
+        }
+
+        for(GeneReadData geneReadData : geneCollection.genes())
+        {
+            collectResults(geneCollection, geneCollectionSummary, geneReadData);
+        }
+
         geneCollectionSummary.allocateResidualsToGenes();
-        mResultsWriter.writeGeneCollectionData(geneCollection);
 
         if(!mConfig.applyGcBiasAdjust())
             geneCollectionSummary.TransCategoryCounts.clear();
     }
 
+    private void writePendingResults(boolean waitForAll)
+    {
+        // write results for gene collections whose fit is complete, keeping to gene collection order
+        while(!mPendingCollections.isEmpty())
+        {
+            PendingCollection pendingCollection = mPendingCollections.peek();
+
+            if(!waitForAll && !pendingCollection.FitWork.isDone())
+                return;
+
+            GeneCollectionWorkQueue.waitForWork(pendingCollection.FitWork);
+            writeGeneCollectionResults(pendingCollection.Genes);
+            mPendingCollections.remove();
+        }
+    }
+
+    private void writeGeneCollectionResults(final GeneCollection geneCollection)
+    {
+        if(mConfig.WriteExonData)
+        {
+            for(GeneReadData geneReadData : geneCollection.genes())
+            {
+                geneReadData.getTranscripts().forEach(x -> mResultsWriter.writeExonData(geneReadData, x));
+            }
+        }
+
+        if(mConfig.WriteSpliceJunctions)
+        {
+            mResultsWriter.writeSpliceJunctionData(geneCollection);
+        }
+
+        mResultsWriter.writeGeneCollectionData(geneCollection);
+    }
+
     private void postBamReadNovelLocations(final GeneCollection geneCollection)
     {
         if(!mConfig.runFunction(ALT_SPLICE_JUNCTIONS) && !mConfig.runFunction(RETAINED_INTRONS))
@@ -441,31 +513,49 @@ public class ChromosomeTaskExecutor implements Callable
         mChromosomeFusions.onGeneCollectionComplete(geneCollection, mBamFragmentAllocator.getBaseDepth());
     }
 
-    public void applyGcAdjustment()
+    private void collectGcFitCounts()
     {
         mPerfCounters[PERF_GC_ADJUST].start();
-        mTranscriptGcRatios.generateGcCountsFromFit(mGeneCollectionSummaryData);
-        mPerfCounters[PERF_GC_ADJUST].pause();
+        mGcFitCounts = mTranscriptGcRatios.collectGcCountsFromFit(mGeneCollectionSummaryData);
+        mPerfCounters[PERF_GC_ADJUST].stop();
     }
 
-    private void applyGcAdjustToTranscriptAllocations()
-    {
-        mPerfCounters[PERF_GC_ADJUST].resume();
+    public TranscriptFitGcCounts getGcFitCounts() { return mGcFitCounts; }
 
+    public void addGcAdjustmentTasks(final List<Callable> tasks)
+    {
+        // each gene collection's re-fit only depends on its own state and the fixed GC adjustments, so can run on any thread
         for(final GeneCollectionSummary geneSummaryData : mGeneCollectionSummaryData)
         {
-            final double[] gcAdjustments = mTranscriptGcRatios.getGcRatioAdjustments();
-            geneSummaryData.applyGcAdjustments(gcAdjustments);
+            tasks.add(() ->
+            {
+                applyGcAdjustToTranscriptAllocations(geneSummaryData);
+                return (long)1;
+            });
+        }
+    }
 
-            final Map<Integer,String> transIdMap = Maps.newHashMap();
-            geneSummaryData.TranscriptResults.forEach(x -> transIdMap.put(x.Trans.TransId, x.Trans.TransName));
-            mExpTransRates.runTranscriptEstimation(transIdMap, geneSummaryData, null, true);
+    private void applyGcAdjustToTranscriptAllocations(final GeneCollectionSummary geneSummaryData)
+    {
+        PerformanceCounter gcAdjustPerfCounter = new PerformanceCounter(mPerfCounters[PERF_GC_ADJUST].getName());
+        gcAdjustPerfCounter.start();
 
-            geneSummaryData.setFitAllocations();
-            geneSummaryData.allocateResidualsToGenes();
-        }
+        final double[] gcAdjustments = mTranscriptGcRatios.getGcRatioAdjustments();
+        geneSummaryData.applyGcAdjustments(gcAdjustments);
 
-        mPerfCounters[PERF_GC_ADJUST].stop();
+        final Map<Integer,String> transIdMap = Maps.newHashMap();
+        geneSummaryData.TranscriptResults.forEach(x -> transIdMap.put(x.Trans.TransId, x.Trans.TransName));
+        mExpTransRates.runTranscriptEstimation(transIdMap, geneSummaryData, null, true);
+
+        geneSummaryData.setFitAllocations();
+        geneSummaryData.allocateResidualsToGenes();
+
+        gcAdjustPerfCounter.stop();
+
+        synchronized(mPerfCounters)
+        {
+            mPerfCounters[PERF_GC_ADJUST].merge(gcAdjustPerfCounter);
+        }
     }
 
     private void collectResults(
@@ -15,7 +15,7 @@ import static com.hartwig.hmftools.isofox.IsofoxConstants.PRIORITISED_CHROMOSOME
 import static com.hartwig.hmftools.isofox.IsofoxFunction.FUSIONS;
 import static com.hartwig.hmftools.isofox.IsofoxFunction.NEO_EPITOPES;
 import static com.hartwig.hmftools.isofox.IsofoxFunction.READ_COUNTS;
-import static com.hartwig.hmftools.isofox.TaskType.APPLY_GC_ADJUSTMENT;
+import static com.hartwig.hmftools.isofox.TaskType.COLLECT_GC_FIT_COUNTS;
 import static com.hartwig.hmftools.isofox.TaskType.TRANSCRIPT_COUNTS;
 import static com.hartwig.hmftools.isofox.adjusts.FragmentSizeCalcs.setConfigFragmentLengthData;
 import static com.hartwig.hmftools.isofox.adjusts.GcRatioCounts.writeReadGcRatioCounts;
@@ -45,6 +45,7 @@ import com.hartwig.hmftools.isofox.adjusts.GcTranscriptCalculator;
 import com.hartwig.hmftools.isofox.common.BamReadCounter;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.isofox.common.FragmentTypeCounts;
+import com.hartwig.hmftools.isofox.common.GeneCollectionWorkQueue;
 import com.hartwig.hmftools.isofox.common.PerformanceTracking;
 import com.hartwig.hmftools.isofox.expression.ExpectedCountsCache;
 import com.hartwig.hmftools.isofox.expression.GeneCollectionSummary;
@@ -126,7 +127,12 @@ public class Isofox
         }
 
         // BAM processing for the key routines - novel junctions, fusions and gene expression
-        if(!allocateBamFragments(chrGeneMap))
+        boolean allocationsValid = allocateBamFragments(chrGeneMap);
+
+        if(mExpectedCountsCache != null)
+            mExpectedCountsCache.close();
+
+        if(!allocationsValid)
             return false;
 
         ISF_LOGGER.info("Isofox complete, mins({})", runTimeMinsStr(startTimeMs));
@@ -166,6 +172,8 @@ public class Isofox
                 .filter(chromosome -> !chromosomes.contains(chromosome))
                 .forEach(chromosome -> chromosomes.add(chromosome));
 
+        GeneCollectionWorkQueue workQueue = new GeneCollectionWorkQueue(mConfig.Threads);
+
         for(String chromosome : chromosomes)
         {
             List<GeneData> geneDataList = chrGeneMap.get(chromosome);
@@ -175,7 +183,7 @@ public class Isofox
 
             ChromosomeTaskExecutor bamReaderTask = new ChromosomeTaskExecutor(
                     mConfig, chromosome, geneDataList, mGeneTransCache, mResultsWriter,
-                    mFusionTaskManager, mExpectedCountsCache, mGcTranscriptCalcs);
+                    mFusionTaskManager, mExpectedCountsCache, mGcTranscriptCalcs, workQueue);
 
             chrTasks.add(bamReaderTask);
             callableList.add(bamReaderTask);
@@ -209,6 +217,7 @@ public class Isofox
         chrTasks.clear();
 
         mPerfTracking.logPerformanceStats(perfCounters);
+        mPerfTracking.logWorkQueueStats(workQueue);
         return true;
     }
 
@@ -315,8 +324,12 @@ public class Isofox
     {
         ISF_LOGGER.info("applying GC adjustments and transcript re-fit");
 
-        // not thread safe at the moment
-        chrTasks.forEach(x -> x.applyGcAdjustment());
+        // each chromosome gathers its transcripts' expected GC counts from the 1st-pass fits, and these are then summed in task
+        // order so the totals are the same as a serial pass
+        chrTasks.forEach(x -> x.setTaskType(COLLECT_GC_FIT_COUNTS));
+        TaskExecutor.executeTasks(callableList, mConfig.Threads);
+
+        chrTasks.forEach(x -> mGcTranscriptCalcs.addGcCountsFromFit(x.getGcFitCounts()));
 
         ISF_LOGGER.debug("total({}) transcript expected GC counts from fit", String.format("%.0f",
                 mGcTranscriptCalcs.getTranscriptFitGcCounts().getCountsTotal()));
@@ -324,9 +337,10 @@ public class Isofox
         // gather up global expected counts
         mGcTranscriptCalcs.calcGcRatioAdjustments(actualGcCounts);
 
-        // now re-fit all transcripts
-        chrTasks.forEach(x -> x.setTaskType(APPLY_GC_ADJUSTMENT));
-        TaskExecutor.executeTasks(callableList, mConfig.Threads);
+        // now re-fit all transcripts, with each gene collection a separate task
+        final List<Callable> gcAdjustmentTasks = Lists.newArrayList();
+        chrTasks.forEach(x -> x.addGcAdjustmentTasks(gcAdjustmentTasks));
+        TaskExecutor.executeTasks(gcAdjustmentTasks, mConfig.Threads);
     }
 
     private Map<String,List<GeneData>> getChromosomeGeneLists()
@@ -6,6 +6,6 @@ public enum TaskType
     TRANSCRIPT_COUNTS,
     GENERATE_GC_COUNTS,
     GENERATE_EXPECTED_COUNTS,
-    APPLY_GC_ADJUSTMENT,
+    COLLECT_GC_FIT_COUNTS,
     BAM_READ_COUNTER;
 }
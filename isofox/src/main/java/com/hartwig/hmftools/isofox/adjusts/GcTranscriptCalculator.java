@@ -49,10 +49,20 @@ public class GcTranscriptCalculator
     public final double[] getGcRatioAdjustments() { return mGcRatioAdjustments; }
     public final GcRatioCounts getTranscriptFitGcCounts() { return mTranscriptFitGcCounts; }
 
+    public void addTranscriptGcRatios(final String transName, final GcRatioCounts gcRatioCounts)
+    {
+        mTranscriptGcRatioCache.put(transName, gcRatioCounts);
+    }
+
     public void generateGcCountsFromFit(final List<GeneCollectionSummary> geneSummaries)
     {
-        // use expected GC ratio counts and 1st-pass transcript fits to derive expected GC counts
-        final double[] frequencies = mTranscriptFitGcCounts.getCounts();
+        addGcCountsFromFit(collectGcCountsFromFit(geneSummaries));
+    }
+
+    public TranscriptFitGcCounts collectGcCountsFromFit(final List<GeneCollectionSummary> geneSummaries)
+    {
+        // only reads the expected GC ratio cache, so can be called for each chromosome concurrently
+        TranscriptFitGcCounts fitGcCounts = new TranscriptFitGcCounts();
 
         for(final GeneCollectionSummary geneSummary : geneSummaries)
         {
@@ -70,15 +80,29 @@ public class GcTranscriptCalculator
                 {
                     ISF_LOGGER.warn("genes({}) transcript({}) missing expected GC ratio counts from cache",
                             geneSummary.GeneNames, transName);
-                    return;
+                    return fitGcCounts;
                 }
 
-                final double[] transFrequencies = transGcCounts.getCounts();
+                fitGcCounts.add(transGcCounts.getCounts(), fitAlloc);
+            }
+        }
+
+        return fitGcCounts;
+    }
 
-                for(int i = 0; i < frequencies.length; ++i)
-                {
-                    frequencies[i] += transFrequencies[i] * fitAlloc;
-                }
+    public void addGcCountsFromFit(final TranscriptFitGcCounts fitGcCounts)
+    {
+        // use expected GC ratio counts and 1st-pass transcript fits to derive expected GC counts
+        final double[] frequencies = mTranscriptFitGcCounts.getCounts();
+
+        for(int t = 0; t < fitGcCounts.size(); ++t)
+        {
+            final double[] transFrequencies = fitGcCounts.gcRatioCounts(t);
+            double fitAlloc = fitGcCounts.fitAllocation(t);
+
+            for(int i = 0; i < frequencies.length; ++i)
+            {
+                frequencies[i] += transFrequencies[i] * fitAlloc;
             }
         }
     }
@@ -171,7 +195,7 @@ public class GcTranscriptCalculator
                     frequencies[i - 1] = counts;
                 }
 
-                mTranscriptGcRatioCache.put(transName, gcRatioCounts);
+                addTranscriptGcRatios(transName, gcRatioCounts);
             }
 
             ISF_LOGGER.info("loaded {} transcript expected GC ratios from file({})",
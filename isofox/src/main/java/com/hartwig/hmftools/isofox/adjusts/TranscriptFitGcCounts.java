@@ -0,0 +1,29 @@
+package com.hartwig.hmftools.isofox.adjusts;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+public class TranscriptFitGcCounts
+{
+    // a chromosome's transcript expected GC ratio counts and their first-pass fit allocations, in fit order, so these can be
+    // gathered by each chromosome task concurrently and then summed in task order to give exactly the serial totals
+    private final List<double[]> mGcRatioCounts;
+    private final List<Double> mFitAllocations;
+
+    public TranscriptFitGcCounts()
+    {
+        mGcRatioCounts = Lists.newArrayList();
+        mFitAllocations = Lists.newArrayList();
+    }
+
+    public void add(final double[] gcRatioCounts, double fitAllocation)
+    {
+        mGcRatioCounts.add(gcRatioCounts);
+        mFitAllocations.add(fitAllocation);
+    }
+
+    public int size() { return mGcRatioCounts.size(); }
+    public double[] gcRatioCounts(int index) { return mGcRatioCounts.get(index); }
+    public double fitAllocation(int index) { return mFitAllocations.get(index); }
+}
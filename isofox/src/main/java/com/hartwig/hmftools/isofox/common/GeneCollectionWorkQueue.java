@@ -0,0 +1,124 @@
+package com.hartwig.hmftools.isofox.common;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GeneCollectionWorkQueue
+{
+    // post-read work for each gene collection, principally the expression fit, is handed by the chromosome BAM-reading tasks
+    // to a shared bounded queue, which chromosome tasks run from once their own reads are complete, so the fitting for
+    // the largest chromosomes is spread across all threads rather than trailing behind their reads
+    // when the queue is full the submitting task runs the work itself, which bounds the gene collections held in memory
+    // each submitting task runs any still-queued work before waiting on the futures for its own, so no work is left unrun
+    private final BlockingQueue<QueuedWork> mQueue;
+
+    // stats for performance logging
+    private final AtomicInteger mSubmittedCount;
+    private final AtomicInteger mInlineCount;
+    private final AtomicInteger mMaxQueueDepth;
+    private final AtomicLong mTotalWaitNanos;
+    private final AtomicLong mTotalWorkNanos;
+
+    public static final int QUEUE_DEPTH_PER_THREAD = 4;
+
+    private class QueuedWork extends FutureTask<Void>
+    {
+        private final long mQueuedNanos;
+
+        public QueuedWork(final Runnable work)
+        {
+            super(work, null);
+            mQueuedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run()
+        {
+            long startNanos = System.nanoTime();
+            mTotalWaitNanos.addAndGet(startNanos - mQueuedNanos);
+
+            super.run();
+
+            mTotalWorkNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+    }
+
+    public GeneCollectionWorkQueue(int threads)
+    {
+        // with a single thread all work is run directly by the submitting task
+        mQueue = threads > 1 ? new ArrayBlockingQueue<>(threads * QUEUE_DEPTH_PER_THREAD) : null;
+
+        mSubmittedCount = new AtomicInteger(0);
+        mInlineCount = new AtomicInteger(0);
+        mMaxQueueDepth = new AtomicInteger(0);
+        mTotalWaitNanos = new AtomicLong(0);
+        mTotalWorkNanos = new AtomicLong(0);
+    }
+
+    public Future<Void> submit(final Runnable work)
+    {
+        mSubmittedCount.incrementAndGet();
+
+        QueuedWork queuedWork = new QueuedWork(work);
+
+        if(mQueue != null && mQueue.offer(queuedWork))
+        {
+            mMaxQueueDepth.accumulateAndGet(mQueue.size(), Math::max);
+            return queuedWork;
+        }
+
+        mInlineCount.incrementAndGet();
+        queuedWork.run();
+        return queuedWork;
+    }
+
+    public void runQueuedWork()
+    {
+        // run work queued by this and other chromosome tasks until none is left
+        if(mQueue == null)
+            return;
+
+        QueuedWork queuedWork;
+
+        while((queuedWork = mQueue.poll()) != null)
+        {
+            queuedWork.run();
+        }
+    }
+
+    public static void waitForWork(final Future<Void> work)
+    {
+        // callers first run any queued work, so work not yet complete is being run by another thread
+        try
+        {
+            work.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for gene collection work");
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("gene collection work failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    public int submittedCount() { return mSubmittedCount.get(); }
+    public int inlineCount() { return mInlineCount.get(); }
+    public int maxQueueDepth() { return mMaxQueueDepth.get(); }
+    public int capacity() { return mQueue != null ? mQueue.remainingCapacity() + mQueue.size() : 0; }
+
+    public double avgWaitMs()
+    {
+        int queuedCount = mSubmittedCount.get() - mInlineCount.get();
+        return queuedCount > 0 ? mTotalWaitNanos.get() / (double)queuedCount / 1000000 : 0;
+    }
+
+    public double totalWorkSeconds() { return mTotalWorkNanos.get() / 1000000000.0; }
+}
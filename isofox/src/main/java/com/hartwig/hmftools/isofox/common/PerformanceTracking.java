@@ -84,4 +84,14 @@ public class PerformanceTracking
         }
         */
     }
+
+    public void logWorkQueueStats(final GeneCollectionWorkQueue workQueue)
+    {
+        if(!mConfig.RunPerfChecks)
+            return;
+
+        ISF_LOGGER.info(String.format("PerfStats(GeneCollectionWork) items(%d) ranInline(%d) queueDepth(max=%d capacity=%d) avgWait(%.1fms) workTime(%.3f)",
+                workQueue.submittedCount(), workQueue.inlineCount(), workQueue.maxQueueDepth(), workQueue.capacity(),
+                workQueue.avgWaitMs(), workQueue.totalWorkSeconds()));
+    }
 }
@@ -0,0 +1,386 @@
+package com.hartwig.hmftools.isofox.expression;
+
+import static java.lang.Math.max;
+
+import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+public class ExpectedCountsBinaryFile
+{
+    // binary form of the expected counts file, written by the ref-data generator, with an index of each gene collection's
+    // location so only the collections needed are read from the memory-mapped file
+    // the collection blocks are mapped once, in as few segments as the 2GB mapping limit allows, and each collection is read
+    // from a slice of its segment
+    // layout: magic, version, fragment lengths, collection blocks, index, index offset
+    // collection block: category count, then per category its key and variable-length encoded counts per fragment length
+    // index entry: collection ID, block offset and length, unspliced gene IDs
+    public static final int MAGIC = 0x49534543; // ISEC
+    public static final int VERSION = 1;
+
+    private final String mFilename;
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final List<Integer> mFragmentLengths;
+
+    private final Map<String,IndexEntry> mCollectionIndex;
+    private final Map<String,List<IndexEntry>> mGeneCollections;
+    private final List<ByteBuffer> mSegments;
+
+    private static final long MAX_SEGMENT_LENGTH = Integer.MAX_VALUE;
+
+    private static class IndexEntry
+    {
+        public final String CollectionId;
+        public final long Offset;
+        public final int Length;
+        public final Set<String> GeneIds;
+
+        // location within the mapped segments, set once all entries are loaded
+        public int Segment;
+        public int SegmentOffset;
+
+        public IndexEntry(final String collectionId, final long offset, final int length, final Set<String> geneIds)
+        {
+            CollectionId = collectionId;
+            Offset = offset;
+            Length = length;
+            GeneIds = geneIds;
+            Segment = -1;
+            SegmentOffset = 0;
+        }
+    }
+
+    private ExpectedCountsBinaryFile(final String filename) throws IOException
+    {
+        mFilename = filename;
+        mFile = new RandomAccessFile(filename, "r");
+        mChannel = mFile.getChannel();
+        mFragmentLengths = Lists.newArrayList();
+        mCollectionIndex = Maps.newHashMap();
+        mGeneCollections = Maps.newHashMap();
+        mSegments = Lists.newArrayList();
+
+        loadIndex();
+        mapSegments();
+    }
+
+    public static boolean isBinaryFile(final String filename)
+    {
+        try(DataInputStream inputStream = new DataInputStream(new FileInputStream(filename)))
+        {
+            return inputStream.readInt() == MAGIC;
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    public static ExpectedCountsBinaryFile open(final String filename)
+    {
+        try
+        {
+            return new ExpectedCountsBinaryFile(filename);
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to load binary expected counts file({}): {}", filename, e.toString());
+            return null;
+        }
+    }
+
+    public List<Integer> fragmentLengths() { return mFragmentLengths; }
+    public int collectionCount() { return mCollectionIndex.size(); }
+
+    public void close()
+    {
+        // the mappings are released once no longer referenced
+        mSegments.clear();
+
+        try
+        {
+            mFile.close();
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.warn("failed to close binary expected counts file({}): {}", mFilename, e.toString());
+        }
+    }
+
+    public List<CategoryCountsData> loadCollection(final String collectionId, final List<String> geneIds)
+    {
+        // use the collection with a matching ID if it has all the genes, otherwise any collection which has them all
+        IndexEntry indexEntry = mCollectionIndex.get(collectionId);
+
+        if(indexEntry == null || !indexEntry.GeneIds.containsAll(geneIds))
+            indexEntry = findCollection(geneIds);
+
+        if(indexEntry == null)
+            return null;
+
+        try
+        {
+            return readCollection(indexEntry);
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to read collection({}) from binary expected counts file({}): {}",
+                    indexEntry.CollectionId, mFilename, e.toString());
+            return null;
+        }
+    }
+
+    private IndexEntry findCollection(final List<String> geneIds)
+    {
+        if(geneIds.isEmpty())
+            return null;
+
+        List<IndexEntry> candidates = mGeneCollections.get(geneIds.get(0));
+
+        if(candidates == null)
+            return null;
+
+        return candidates.stream().filter(x -> x.GeneIds.containsAll(geneIds)).findFirst().orElse(null);
+    }
+
+    private List<CategoryCountsData> readCollection(final IndexEntry indexEntry) throws IOException
+    {
+        if(indexEntry.Segment < 0 || indexEntry.Segment >= mSegments.size())
+            throw new IOException("collection not mapped");
+
+        // a duplicate has its own position and limit, so collections can be read concurrently
+        ByteBuffer buffer = mSegments.get(indexEntry.Segment).duplicate();
+        buffer.position(indexEntry.SegmentOffset);
+        buffer.limit(indexEntry.SegmentOffset + indexEntry.Length);
+        buffer = buffer.slice();
+
+        int fragLengths = mFragmentLengths.size();
+        int categoryCount = buffer.getInt();
+        List<CategoryCountsData> categoryCounts = Lists.newArrayListWithCapacity(categoryCount);
+
+        for(int c = 0; c < categoryCount; ++c)
+        {
+            CategoryCountsData catCounts = new CategoryCountsData(readString(buffer), fragLengths);
+
+            for(int i = 0; i < fragLengths; ++i)
+            {
+                catCounts.addFragLengthCounts(readVarInt(buffer), i);
+            }
+
+            categoryCounts.add(catCounts);
+        }
+
+        return categoryCounts;
+    }
+
+    private void loadIndex() throws IOException
+    {
+        long fileLength = mChannel.size();
+
+        if(mFile.readInt() != MAGIC)
+            throw new IOException("invalid binary expected counts file");
+
+        int version = mFile.readInt();
+
+        if(version != VERSION)
+            throw new IOException(String.format("unsupported binary expected counts version(%d)", version));
+
+        int fragLengthCount = mFile.readInt();
+
+        for(int i = 0; i < fragLengthCount; ++i)
+        {
+            mFragmentLengths.add(mFile.readInt());
+        }
+
+        mFile.seek(fileLength - Long.BYTES);
+        long indexOffset = mFile.readLong();
+
+        ByteBuffer index = mChannel.map(FileChannel.MapMode.READ_ONLY, indexOffset, fileLength - Long.BYTES - indexOffset);
+
+        int collectionCount = index.getInt();
+
+        for(int c = 0; c < collectionCount; ++c)
+        {
+            String collectionId = readString(index);
+            long offset = index.getLong();
+            int length = index.getInt();
+
+            int geneCount = index.getInt();
+            Set<String> geneIds = Sets.newHashSetWithExpectedSize(geneCount);
+
+            for(int g = 0; g < geneCount; ++g)
+            {
+                geneIds.add(readString(index));
+            }
+
+            IndexEntry indexEntry = new IndexEntry(collectionId, offset, length, geneIds);
+            mCollectionIndex.put(collectionId, indexEntry);
+
+            for(String geneId : geneIds)
+            {
+                mGeneCollections.computeIfAbsent(geneId, k -> Lists.newArrayListWithExpectedSize(1)).add(indexEntry);
+            }
+        }
+    }
+
+    private void mapSegments() throws IOException
+    {
+        // group the collection blocks in file order into segments, each mapped once
+        List<IndexEntry> indexEntries = Lists.newArrayList(mCollectionIndex.values());
+        indexEntries.sort(Comparator.comparingLong(x -> x.Offset));
+
+        long segmentStart = -1;
+        long segmentEnd = -1;
+
+        for(IndexEntry indexEntry : indexEntries)
+        {
+            long entryEnd = indexEntry.Offset + indexEntry.Length;
+
+            if(segmentStart < 0 || entryEnd - segmentStart > MAX_SEGMENT_LENGTH)
+            {
+                if(segmentStart >= 0)
+                    mSegments.add(mChannel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart));
+
+                segmentStart = indexEntry.Offset;
+            }
+
+            segmentEnd = max(segmentEnd, entryEnd);
+            indexEntry.Segment = mSegments.size();
+            indexEntry.SegmentOffset = (int)(indexEntry.Offset - segmentStart);
+        }
+
+        if(segmentStart >= 0)
+            mSegments.add(mChannel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart));
+    }
+
+    // methods for writing, used by the expected counts generator
+    public static void writeHeader(final DataOutputStream outputStream, final List<Integer> fragmentLengths) throws IOException
+    {
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(VERSION);
+        outputStream.writeInt(fragmentLengths.size());
+
+        for(int fragmentLength : fragmentLengths)
+        {
+            outputStream.writeInt(fragmentLength);
+        }
+    }
+
+    public static int headerLength(int fragmentLengthCount) { return Integer.BYTES * (3 + fragmentLengthCount); }
+
+    public static byte[] encodeCollection(final List<CategoryCountsData> categoryCounts) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream outputStream = new DataOutputStream(bytes);
+
+        List<CategoryCountsData> countsWithLengths = Lists.newArrayListWithCapacity(categoryCounts.size());
+
+        for(CategoryCountsData tcData : categoryCounts)
+        {
+            if(tcData.fragmentCountsByLength() != null)
+                countsWithLengths.add(tcData);
+        }
+
+        outputStream.writeInt(countsWithLengths.size());
+
+        for(CategoryCountsData tcData : countsWithLengths)
+        {
+            writeString(outputStream, tcData.combinedKey());
+
+            for(double count : tcData.fragmentCountsByLength())
+            {
+                // counts are whole numbers, written as such in the CSV form
+                writeVarInt(outputStream, (int)Math.round(count));
+            }
+        }
+
+        outputStream.flush();
+        return bytes.toByteArray();
+    }
+
+    public static void writeIndexEntry(
+            final DataOutputStream outputStream, final String collectionId, long offset, int length,
+            final List<CategoryCountsData> categoryCounts) throws IOException
+    {
+        Set<String> geneIds = Sets.newTreeSet();
+        categoryCounts.stream().filter(x -> x.fragmentCountsByLength() != null).forEach(x -> geneIds.addAll(x.unsplicedGeneIds()));
+
+        writeString(outputStream, collectionId);
+        outputStream.writeLong(offset);
+        outputStream.writeInt(length);
+        outputStream.writeInt(geneIds.size());
+
+        for(String geneId : geneIds)
+        {
+            writeString(outputStream, geneId);
+        }
+    }
+
+    public static void writeIndex(
+            final DataOutputStream outputStream, int collectionCount, final byte[] indexEntries, long indexOffset) throws IOException
+    {
+        outputStream.writeInt(collectionCount);
+        outputStream.write(indexEntries);
+        outputStream.writeLong(indexOffset);
+    }
+
+    private static void writeString(final DataOutputStream outputStream, final String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(outputStream, bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[readVarInt(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(final DataOutputStream outputStream, int value) throws IOException
+    {
+        // 7 bits per byte with the high bit set on all but the last, so most counts take a single byte
+        while((value & ~0x7F) != 0)
+        {
+            outputStream.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        outputStream.writeByte(value);
+    }
+
+    private static int readVarInt(final ByteBuffer buffer)
+    {
+        int value = 0;
+        int shift = 0;
+
+        while(true)
+        {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if((b & 0x80) == 0)
+                return value;
+
+            shift += 7;
+        }
+    }
+}
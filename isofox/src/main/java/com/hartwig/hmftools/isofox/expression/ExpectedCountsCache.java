@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -28,24 +29,43 @@ public class ExpectedCountsCache
     // map of chrGeneSetId to category counts data
     private final Map<String,List<CategoryCountsData>> mGeneSetCategoryDataMap;
 
+    // a binary expected counts file is memory-mapped and each gene collection's counts read only when requested
+    private ExpectedCountsBinaryFile mBinaryFile;
+
     private boolean mValidData;
 
     public ExpectedCountsCache(final IsofoxConfig config)
     {
         mConfig = config;
         mGeneSetCategoryDataMap = Maps.newHashMap();
+        mBinaryFile = null;
         mValidData = true;
 
         if(config.ExpCountsFile != null && Files.exists(Paths.get(mConfig.ExpCountsFile)))
         {
-            mValidData = loadExpCountsFile();
+            if(ExpectedCountsBinaryFile.isBinaryFile(mConfig.ExpCountsFile))
+                mValidData = openBinaryFile();
+            else
+                mValidData = loadExpCountsFile();
         }
     }
 
     public boolean isValid() { return mValidData; }
 
+    public void close()
+    {
+        if(mBinaryFile != null)
+        {
+            mBinaryFile.close();
+            mBinaryFile = null;
+        }
+    }
+
     public List<CategoryCountsData> getGeneExpectedRatesData(final String chrId, final List<String> geneIds)
     {
+        if(mBinaryFile != null)
+            return mBinaryFile.loadCollection(chrId, geneIds);
+
         List<CategoryCountsData> geneSetCountsData = mGeneSetCategoryDataMap.get(chrId);
 
         if (geneSetCountsData == null || !geneSetCountsDataMatches(geneIds, geneSetCountsData))
@@ -77,6 +97,34 @@ public class ExpectedCountsCache
         return null;
     }
 
+    private boolean openBinaryFile()
+    {
+        mBinaryFile = ExpectedCountsBinaryFile.open(mConfig.ExpCountsFile);
+
+        if(mBinaryFile == null)
+            return false;
+
+        List<Integer> fragmentLengths = mBinaryFile.fragmentLengths();
+
+        if(mConfig.FragmentSizeData.isEmpty())
+        {
+            // set default of 1 for frequency in case it is not sampled
+            fragmentLengths.forEach(x -> mConfig.FragmentSizeData.add(new FragmentSize(x, 1)));
+
+            ISF_LOGGER.info("fragment lengths({}) set from expected transcript counts file",
+                    fragmentLengths.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+        }
+        else if(mConfig.FragmentSizeData.size() != fragmentLengths.size())
+        {
+            ISF_LOGGER.error("expected counts file has {} fragment lengths vs configuredCount({})",
+                    fragmentLengths.size(), mConfig.FragmentSizeData.size());
+            return false;
+        }
+
+        ISF_LOGGER.info("indexed {} gene expected counts from binary file({})", mBinaryFile.collectionCount(), mConfig.ExpCountsFile);
+        return true;
+    }
+
     // GeneSetId,TransId,Category,Counts for each fragment length
     private boolean loadExpCountsFile()
     {
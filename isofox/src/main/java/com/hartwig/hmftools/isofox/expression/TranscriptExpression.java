@@ -36,8 +36,8 @@ public class TranscriptExpression
     private final ResultsWriter mResultsWriter;
     private final ExpectedCountsCache mCache;
 
-    private final Map<String,ExpectedRatesData> mExpectedRatesDataMap; // cached computed results for this chromosome
-    private ExpectedRatesData mCurrentExpRatesData;
+    // cached computed results for this chromosome, with fits for different gene collections able to run concurrently
+    private final Map<String,ExpectedRatesData> mExpectedRatesDataMap;
 
     private final List<Double> mFragmentFrequencyRates;
 
@@ -47,8 +47,7 @@ public class TranscriptExpression
         mResultsWriter = resultsWriter;
 
         mCache = cache;
-        mExpectedRatesDataMap = Maps.newHashMap();
-        mCurrentExpRatesData = null;
+        mExpectedRatesDataMap = Maps.newConcurrentMap();
 
         // convert fragment distribution counts to rates
         double totalFrequencyFrags = mConfig.FragmentSizeData.stream().mapToDouble(x -> x.Frequency).sum();
@@ -68,11 +67,6 @@ public class TranscriptExpression
         return new TranscriptExpression(config, null,null);
     }
 
-    public boolean validData()
-    {
-        return mCurrentExpRatesData != null && mCurrentExpRatesData.validData();
-    }
-
     private void applyFragmentLengthDistributionToExpectedCounts(final List<CategoryCountsData> geneSetCountsData)
     {
         geneSetCountsData.forEach(x -> x.applyFrequencies(mFragmentFrequencyRates));
@@ -82,38 +76,40 @@ public class TranscriptExpression
             final Map<Integer,String> transIdMap, final GeneCollectionSummary geneSummaryData,
             final ExpectedRatesData expRatesData, boolean checkCached)
     {
+        final ExpectedRatesData currentExpRatesData;
+
         if(expRatesData == null)
         {
             if(checkCached)
-                mCurrentExpRatesData = mExpectedRatesDataMap.get(geneSummaryData.ChrId);
+                currentExpRatesData = mExpectedRatesDataMap.get(geneSummaryData.ChrId);
             else
-                loadGeneExpectedRatesData(geneSummaryData.ChrId, geneSummaryData.GeneIds);
+                currentExpRatesData = loadGeneExpectedRatesData(geneSummaryData.ChrId, geneSummaryData.GeneIds);
         }
         else
         {
-            mCurrentExpRatesData = expRatesData;
+            currentExpRatesData = expRatesData;
         }
 
-        if(!validData())
+        if(currentExpRatesData == null || !currentExpRatesData.validData())
         {
             ISF_LOGGER.debug("gene({}) invalid expected rates or actuals data", geneSummaryData.GeneNames);
             return;
         }
 
         if(!checkCached && mConfig.applyGcBiasAdjust()) // cache the generated data since it will be used again in GC adjustment calcs
-            mExpectedRatesDataMap.put(geneSummaryData.ChrId, mCurrentExpRatesData);
+            mExpectedRatesDataMap.put(geneSummaryData.ChrId, currentExpRatesData);
 
-        final double[] transComboCounts = generateReadCounts(geneSummaryData);
+        final double[] transComboCounts = generateReadCounts(geneSummaryData, currentExpRatesData);
 
         double totalCounts = sumVector(transComboCounts);
 
         if(totalCounts == 0)
             return;
 
-        final List<String> transcriptIds = mCurrentExpRatesData.TranscriptIds;
+        final List<String> transcriptIds = currentExpRatesData.TranscriptIds;
 
-        final double[] fitAllocations = ExpectationMaxFit.performFit(transComboCounts, mCurrentExpRatesData.getTranscriptDefinitions());
-        final double[] fittedCounts = calculateFittedCounts(mCurrentExpRatesData.getTranscriptDefinitions(), fitAllocations);
+        final double[] fitAllocations = ExpectationMaxFit.performFit(transComboCounts, currentExpRatesData.getTranscriptDefinitions());
+        final double[] fittedCounts = calculateFittedCounts(currentExpRatesData.getTranscriptDefinitions(), fitAllocations);
         double fitTotal = sumVector(fitAllocations);
 
         SigResiduals residuals = calcResiduals(transComboCounts, fittedCounts, totalCounts);
@@ -142,7 +138,7 @@ public class TranscriptExpression
 
         if(mConfig.WriteTransComboData)
         {
-            writeCategoryCounts(mResultsWriter.getCategoryCountsWriter(), geneSummaryData.ChrId, mCurrentExpRatesData.Categories,
+            writeCategoryCounts(mResultsWriter.getCategoryCountsWriter(), geneSummaryData.ChrId, currentExpRatesData.Categories,
                     geneSummaryData.TransCategoryCounts, transComboCounts, fittedCounts, mConfig.applyGcBiasAdjust());
         }
     }
@@ -273,10 +269,8 @@ public class TranscriptExpression
         }
     }
 
-    private void loadGeneExpectedRatesData(final String chrId, final List<String> geneIds)
+    private ExpectedRatesData loadGeneExpectedRatesData(final String chrId, final List<String> geneIds)
     {
-        mCurrentExpRatesData = null;
-
         final List<CategoryCountsData> geneSetCountsData = mCache.getGeneExpectedRatesData(chrId, geneIds);
 
         if(geneSetCountsData == null)
@@ -284,21 +278,22 @@ public class TranscriptExpression
             StringJoiner sj = new StringJoiner(";");
             geneIds.forEach(x -> sj.add(x));
             ISF_LOGGER.warn("genes({}: {}) expected counts data not loaded", chrId, sj);
-            return;
+            return null;
         }
 
-        mCurrentExpRatesData = new ExpectedRatesData(chrId);
+        ExpectedRatesData expRatesData = new ExpectedRatesData(chrId);
 
         // apply observed fragment length distribution to the generated counts
         if(mConfig.ApplyFragmentLengthAdjust)
             applyFragmentLengthDistributionToExpectedCounts(geneSetCountsData);
 
-        formTranscriptDefinitions(geneSetCountsData, mCurrentExpRatesData);
+        formTranscriptDefinitions(geneSetCountsData, expRatesData);
+        return expRatesData;
     }
 
-    private double[] generateReadCounts(final GeneCollectionSummary geneSummaryData)
+    private double[] generateReadCounts(final GeneCollectionSummary geneSummaryData, final ExpectedRatesData expRatesData)
     {
-        double[] categoryCounts = new double[mCurrentExpRatesData.Categories.size()];
+        double[] categoryCounts = new double[expRatesData.Categories.size()];
 
         int skippedComboCounts = 0;
         double totalCounts = geneSummaryData.TransCategoryCounts.stream().mapToDouble(x -> x.fragmentCount()).sum();
@@ -310,7 +305,7 @@ public class TranscriptExpression
 
             if(fragmentCount > 0)
             {
-                int categoryId = mCurrentExpRatesData.getCategoryIndex(categoryKey);
+                int categoryId = expRatesData.getCategoryIndex(categoryKey);
 
                 // for now if a category isn't found just log and then ignore the count in it
                 if(categoryId < 0)
@@ -335,8 +330,8 @@ public class TranscriptExpression
 
             ISF_LOGGER.debug(String.format("gene(%d:%s) categories(act=%d exp=%d trans+genes=%d) skippedCounts(%d perc=%.3f of total=%.0f)",
                     geneSummaryData.GeneIds.size(), geneSummaryData.GeneNames,
-                    geneSummaryData.TransCategoryCounts.size(), mCurrentExpRatesData.Categories.size(),
-                    mCurrentExpRatesData.TranscriptIds.size(), skippedComboCounts, skippedPerc, totalCounts));
+                    geneSummaryData.TransCategoryCounts.size(), expRatesData.Categories.size(),
+                    expRatesData.TranscriptIds.size(), skippedComboCounts, skippedPerc, totalCounts));
         }
 
         return categoryCounts;
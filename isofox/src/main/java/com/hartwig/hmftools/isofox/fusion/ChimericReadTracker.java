@@ -63,12 +63,12 @@ public class ChimericReadTracker
     private final List<String[]> mKnownPairGeneIds;
 
     private final Map<Integer,List<SupplementaryJunctionData>> mSupplementaryJunctions;
-    private final Map<String,Set<String>> mHardFilteredReadIds;
+    private final Map<String,HashedReadIds> mHardFilteredReadIds; // keyed by the chromosome the filtered reads link to
     private Map<String,Set<Integer>> mKnownSpliteSites;
 
-    // to avoid double-processing reads falling after a gene collection
-    private final Map<String,List<ReadRecord>> mPostGeneReadMap;
-    private final Map<String,List<ReadRecord>> mPreviousPostGeneReadMap;
+    // to avoid double-processing reads falling after a gene collection, keyed by read ID with each read's position and cigar hash
+    private final Map<String,int[]> mPostGeneReadMap;
+    private final Map<String,int[]> mPreviousPostGeneReadMap;
     private final ChimericStats mChimericStats;
 
     public ChimericReadTracker(final IsofoxConfig config)
@@ -112,7 +112,7 @@ public class ChimericReadTracker
     public JunctionRacFragments getJunctionRacGroups() { return mJunctionRacGroups; } // testing only
     public List<List<ReadRecord>> getLocalChimericReads() { return mLocalChimericReads; }
     public ChimericStats getStats() { return mChimericStats; }
-    public Map<String,Set<String>> getHardFilteredReadIds() { return mHardFilteredReadIds; }
+    public Map<String,HashedReadIds> getHardFilteredReadIds() { return mHardFilteredReadIds; }
 
     public boolean isChimeric(final ReadRecord read1, final ReadRecord read2, boolean isDuplicate, boolean isMultiMapped)
     {
@@ -453,11 +453,11 @@ public class ChimericReadTracker
         {
             // remove any previously processed reads
             final String readId = preGeneReads.get(0).Id;
-            List<ReadRecord> prevPostGeneReads = mPreviousPostGeneReadMap.get(readId);
+            int[] prevPostGeneReads = mPreviousPostGeneReadMap.get(readId);
 
             if(prevPostGeneReads != null)
             {
-                preGeneReads.stream().filter(x -> prevPostGeneReads.stream().anyMatch(y -> y.matches(x))).forEach(x -> reads.remove(x));
+                preGeneReads.stream().filter(x -> matchesPostGeneRead(prevPostGeneReads, x)).forEach(x -> reads.remove(x));
 
                 if(reads.isEmpty())
                     return true;
@@ -466,7 +466,36 @@ public class ChimericReadTracker
 
         // cache and stop processing this group
         if(!postGeneReads.isEmpty())
-            mPostGeneReadMap.put(reads.get(0).Id, postGeneReads);
+            mPostGeneReadMap.put(reads.get(0).Id, postGeneReadKeys(postGeneReads));
+
+        return false;
+    }
+
+    private static final int POST_GENE_READ_KEY_SIZE = 3;
+
+    private static int[] postGeneReadKeys(final List<ReadRecord> reads)
+    {
+        // retain only what identifies each read when the next gene collection reads it again, rather than the reads themselves
+        int[] readKeys = new int[reads.size() * POST_GENE_READ_KEY_SIZE];
+
+        for(int i = 0; i < reads.size(); ++i)
+        {
+            ReadRecord read = reads.get(i);
+            readKeys[i * POST_GENE_READ_KEY_SIZE] = read.PosStart;
+            readKeys[i * POST_GENE_READ_KEY_SIZE + 1] = read.PosEnd;
+            readKeys[i * POST_GENE_READ_KEY_SIZE + 2] = read.Cigar.toString().hashCode();
+        }
+
+        return readKeys;
+    }
+
+    private static boolean matchesPostGeneRead(final int[] readKeys, final ReadRecord read)
+    {
+        for(int i = 0; i < readKeys.length; i += POST_GENE_READ_KEY_SIZE)
+        {
+            if(readKeys[i] == read.PosStart && readKeys[i + 1] == read.PosEnd && readKeys[i + 2] == read.Cigar.toString().hashCode())
+                return true;
+        }
 
         return false;
     }
@@ -8,7 +8,6 @@ import static com.hartwig.hmftools.isofox.fusion.FusionConstants.HIGH_LOG_COUNT;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
@@ -101,10 +100,10 @@ public class ChromosomeFusions
 
         // handle fragments spanning multiple chromosomes
 
-        Map<String, Set<String>> chrHardFilteredIds = mChimericReadTracker.getHardFilteredReadIds();
+        Map<String,HashedReadIds> chrHardFilteredIds = mChimericReadTracker.getHardFilteredReadIds();
 
         // organise incomplete reads into the chromosomes which they link to
-        final Map<String,Map<String,FusionReadGroup>> chrIncompleteReadsGroups = mFusionFinder.extractIncompleteReadGroups(
+        final Map<String,List<FusionReadGroup>> chrIncompleteReadsGroups = mFusionFinder.extractIncompleteReadGroups(
                 mChromosome, chrHardFilteredIds);
 
         final List<FusionReadGroup> interChromosomalGroups = mFusionTaskManager.addIncompleteReadGroup(
@@ -0,0 +1,137 @@
+package com.hartwig.hmftools.isofox.fusion;
+
+import static com.hartwig.hmftools.isofox.fusion.HashedReadIds.readIdHash;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+public class ChromosomePairGroups
+{
+    // one chromosome's incomplete read groups and hard-filtered read IDs which link to another chromosome, held sorted by
+    // hashed read ID so that they can be paired with the other chromosome's in a single merge pass
+    public final String Chromosome;
+
+    private final long[] mKeys;
+    private final FusionReadGroup[] mGroups;
+    private final HashedReadIds mHardFilteredReadIds;
+
+    public ChromosomePairGroups(
+            final String chromosome, final List<FusionReadGroup> readGroups, @Nullable final HashedReadIds hardFilteredReadIds)
+    {
+        Chromosome = chromosome;
+        mHardFilteredReadIds = hardFilteredReadIds != null ? hardFilteredReadIds : new HashedReadIds();
+
+        int groupCount = readGroups.size();
+        long[] keys = new long[groupCount];
+        Integer[] order = new Integer[groupCount];
+
+        for(int i = 0; i < groupCount; ++i)
+        {
+            keys[i] = readIdHash(readGroups.get(i).ReadId);
+            order[i] = i;
+        }
+
+        // groups whose read IDs share a hash are ordered by read ID, so both sides of a pairing agree on the order
+        Arrays.sort(order, Comparator.<Integer>comparingLong(x -> keys[x]).thenComparing(x -> readGroups.get(x).ReadId));
+
+        mKeys = new long[groupCount];
+        mGroups = new FusionReadGroup[groupCount];
+
+        for(int i = 0; i < groupCount; ++i)
+        {
+            mKeys[i] = keys[order[i]];
+            mGroups[i] = readGroups.get(order[i]);
+        }
+    }
+
+    public int groupCount() { return mGroups.length; }
+    public int hardFilteredCount() { return mHardFilteredReadIds.size(); }
+    public List<FusionReadGroup> groups() { return Arrays.asList(mGroups); }
+
+    public int unmatchedHardFilteredCount(final ChromosomePairGroups other)
+    {
+        // hard-filtered reads not already filtered by the other chromosome, nor matching one of its partial groups
+        int count = 0;
+
+        for(int i = 0; i < mHardFilteredReadIds.size(); ++i)
+        {
+            long key = mHardFilteredReadIds.key(i);
+
+            if(!other.mHardFilteredReadIds.contains(key) && Arrays.binarySearch(other.mKeys, key) < 0)
+                ++count;
+        }
+
+        return count;
+    }
+
+    public void pairWith(
+            final ChromosomePairGroups other, final List<FusionReadGroup> completeGroups, final List<FusionReadGroup> unpairedGroups)
+    {
+        // merge groups with the same read ID, dropping any which either chromosome hard-filtered, and collect those which are
+        // then complete - groups from the other chromosome are added to this chromosome's, and any still incomplete are collected
+        // as unpaired, since reads from a third chromosome may yet complete them
+        int index = 0;
+        int otherIndex = 0;
+
+        while(index < mGroups.length || otherIndex < other.mGroups.length)
+        {
+            int compare;
+
+            if(index >= mGroups.length)
+                compare = 1;
+            else if(otherIndex >= other.mGroups.length)
+                compare = -1;
+            else
+                compare = Long.compare(mKeys[index], other.mKeys[otherIndex]);
+
+            // a shared hash is only a match if the read IDs are the same
+            if(compare == 0)
+                compare = mGroups[index].ReadId.compareTo(other.mGroups[otherIndex].ReadId);
+
+            if(compare < 0)
+            {
+                addUnpaired(mGroups[index], mKeys[index], other.mHardFilteredReadIds, unpairedGroups);
+                ++index;
+            }
+            else if(compare > 0)
+            {
+                addUnpaired(other.mGroups[otherIndex], other.mKeys[otherIndex], mHardFilteredReadIds, unpairedGroups);
+                ++otherIndex;
+            }
+            else
+            {
+                long key = mKeys[index];
+
+                if(!mHardFilteredReadIds.contains(key) && !other.mHardFilteredReadIds.contains(key))
+                {
+                    FusionReadGroup readGroup = mGroups[index];
+                    readGroup.merge(other.mGroups[otherIndex]);
+
+                    if(readGroup.isComplete())
+                        completeGroups.add(readGroup);
+                    else
+                        unpairedGroups.add(readGroup);
+                }
+
+                ++index;
+                ++otherIndex;
+            }
+        }
+    }
+
+    private static void addUnpaired(
+            final FusionReadGroup readGroup, long key, final HashedReadIds otherHardFilteredReadIds,
+            final List<FusionReadGroup> unpairedGroups)
+    {
+        if(!otherHardFilteredReadIds.contains(key))
+            unpairedGroups.add(readGroup);
+    }
+
+    public String toString()
+    {
+        return String.format("chr(%s) groups(%d) hardFiltered(%d)", Chromosome, mGroups.length, mHardFilteredReadIds.size());
+    }
+}
@@ -211,21 +211,16 @@ public class FusionFinder implements Callable
         return completeGroups;
     }
 
-    public Map<String,Map<String, FusionReadGroup>> extractIncompleteReadGroups(
-            final String chromosome, final Map<String,Set<String>> chrHardFilteredIds)
+    public Map<String,List<FusionReadGroup>> extractIncompleteReadGroups(
+            final String chromosome, final Map<String,HashedReadIds> chrHardFilteredIds)
     {
         // filter out incomplete groups from the chromosome itself
-        String chrPair = formChromosomePair(chromosome, chromosome);
+        HashedReadIds selfHardFilteredIds = chrHardFilteredIds.remove(chromosome);
 
-        if(chrHardFilteredIds.containsKey(chrPair))
-        {
-            final Map<String,Set<String>> selfChrHardFilteredIds = Maps.newHashMap();
-            selfChrHardFilteredIds.put(chrPair, chrHardFilteredIds.get(chrPair));
-            removePartialGroupsWithHardFilteredMatch(mChimericPartialReadGroups, selfChrHardFilteredIds);
-            chrHardFilteredIds.remove(chrPair);
-        }
+        if(selfHardFilteredIds != null)
+            removePartialGroupsWithHardFilteredMatch(mChimericPartialReadGroups, selfHardFilteredIds);
 
-        Map<String,Map<String, FusionReadGroup>> chrIncompleteReadsGroups = Maps.newHashMap();
+        Map<String,List<FusionReadGroup>> chrIncompleteReadsGroups = Maps.newHashMap();
         for(FusionReadGroup readGroup : mChimericPartialReadGroups.values())
         {
             String otherChromosome = readGroup.findOtherChromosome(chromosome);
@@ -235,14 +230,14 @@ public class FusionFinder implements Callable
                 if(!HumanChromosome.contains(otherChromosome))
                     continue;
 
-                Map<String, FusionReadGroup> readGroupMap = chrIncompleteReadsGroups.get(otherChromosome);
-                if(readGroupMap == null)
+                List<FusionReadGroup> readGroups = chrIncompleteReadsGroups.get(otherChromosome);
+                if(readGroups == null)
                 {
-                    readGroupMap = Maps.newHashMap();
-                    chrIncompleteReadsGroups.put(otherChromosome, readGroupMap);
+                    readGroups = Lists.newArrayList();
+                    chrIncompleteReadsGroups.put(otherChromosome, readGroups);
                 }
 
-                readGroupMap.put(readGroup.ReadId, readGroup);
+                readGroups.add(readGroup);
             }
         }
 
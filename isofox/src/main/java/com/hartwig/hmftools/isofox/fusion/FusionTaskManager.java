@@ -1,15 +1,17 @@
 package com.hartwig.hmftools.isofox.fusion;
 
 import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
-import static com.hartwig.hmftools.isofox.fusion.FusionReadGroup.mergeChimericReadMaps;
-import static com.hartwig.hmftools.isofox.fusion.HardFilteredCache.removePartialGroupsWithHardFilteredMatch;
+import static com.hartwig.hmftools.isofox.fusion.HardFilteredCache.formChromosomePairString;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
 
@@ -24,7 +26,14 @@ public class FusionTaskManager
     private final RacFragmentCache mRacFragmentCache;
     private final HardFilteredCache mHardFilteredCache;
     private int mHardFilteredFusionCount;
-    private final Map<String,Map<String,FusionReadGroup>> mIncompleteReadGroups; // keyed by chromosome then readId
+
+    // each chromosome pair's incomplete groups from whichever chromosome completes first, until the other completes and pairs them
+    private final Map<String,ChromosomePairGroups> mPendingChrPairGroups;
+    private final Set<String> mCompletedChromosomes;
+    private final AtomicInteger mHardFilteredCount;
+
+    // groups left incomplete once their chromosome pair is resolved, keyed by read ID, which a third chromosome's reads may complete
+    private final Map<String,FusionReadGroup> mUnpairedGroups;
 
     public FusionTaskManager(final IsofoxConfig config, final EnsemblDataCache geneTransCache)
     {
@@ -34,9 +43,13 @@ public class FusionTaskManager
         mPassingFusions = new PassingFusions(config.Fusions.KnownFusions, config.Fusions.CohortFile);
 
         mRacFragmentCache = new RacFragmentCache();
-        mIncompleteReadGroups = Maps.newHashMap();
         mHardFilteredCache = new HardFilteredCache();
 
+        mPendingChrPairGroups = new ConcurrentHashMap<>();
+        mCompletedChromosomes = ConcurrentHashMap.newKeySet();
+        mHardFilteredCount = new AtomicInteger();
+        mUnpairedGroups = new ConcurrentHashMap<>();
+
         mGeneTransCache.createTranscriptIdMap();
         mHardFilteredCache.registerKnownSpliteSites(mGeneTransCache);
         mHardFilteredFusionCount = 0;
@@ -51,72 +64,118 @@ public class FusionTaskManager
 
     public final RacFragmentCache racFragmentCache() { return mRacFragmentCache; }
     public final HardFilteredCache hardFilteredCache() { return mHardFilteredCache; }
-    public final Map<String,Map<String,FusionReadGroup>> incompleteReadGroups() { return mIncompleteReadGroups; }
 
-    public synchronized List<FusionReadGroup> addIncompleteReadGroup(
-            final String chromosome, final Map<String,Map<String,FusionReadGroup>> chrIncompleteGroups,
-            final Map<String,Set<String>> chrHardFilteredReadIds)
+    public int pendingChromosomePairCount() { return mPendingChrPairGroups.size(); }
+    public int pendingGroupCount() { return mPendingChrPairGroups.values().stream().mapToInt(x -> x.groupCount()).sum(); }
+    public int pendingHardFilteredCount() { return mPendingChrPairGroups.values().stream().mapToInt(x -> x.hardFilteredCount()).sum(); }
+    public int unpairedGroupCount() { return mUnpairedGroups.size(); }
+
+    public List<FusionReadGroup> addIncompleteReadGroup(
+            final String chromosome, final Map<String,List<FusionReadGroup>> chrIncompleteGroups,
+            final Map<String,HashedReadIds> chrHardFilteredReadIds)
     {
-        // receive new chromosome's incomplete groups for a particular chromosome, with these grouped by the chromosome they link to
-        // additionally the new chromosome's hard-filtered groups, which are used to clear out the cache of previous partial groups
-        // likewise use the existing hard-filtered cache to clean out any of the new partial groups
-        int initTotalIncomplete = mIncompleteReadGroups.values().stream().mapToInt(x -> x.size()).sum();
-        int initTotalHardFiltered = mHardFilteredCache.cacheCount();
+        // receive a completed chromosome's incomplete groups and hard-filtered read IDs, keyed by the chromosome they link to
+        // the first chromosome of each pair to complete leaves its groups to be paired by the second, which then merges the two
+        // sorted sets, so chromosome tasks only contend for a single pair at a time
         int initChrIncomplete = chrIncompleteGroups.values().stream().mapToInt(x -> x.size()).sum();
         int initChrHardFiltered = chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum();
 
         List<FusionReadGroup> completeGroups = Lists.newArrayList();
+        List<FusionReadGroup> unpairedGroups = Lists.newArrayList();
+
+        Set<String> otherChromosomes = Sets.newHashSet(chrIncompleteGroups.keySet());
+        otherChromosomes.addAll(chrHardFilteredReadIds.keySet());
 
-        for(Map.Entry<String,Map<String, FusionReadGroup>> entry : chrIncompleteGroups.entrySet())
+        for(String otherChromosome : otherChromosomes)
         {
-            String otherChromosome = entry.getKey();
-            Map<String, FusionReadGroup> newIncompleteGroups = entry.getValue();
+            String chrPair = formChromosomePairString(chromosome, otherChromosome);
 
-            Map<String,FusionReadGroup> existingGroups = mIncompleteReadGroups.get(otherChromosome);
+            ChromosomePairGroups pairGroups = new ChromosomePairGroups(
+                    chromosome, chrIncompleteGroups.getOrDefault(otherChromosome, Collections.emptyList()),
+                    chrHardFilteredReadIds.get(otherChromosome));
 
-            if(existingGroups == null)
+            ChromosomePairGroups otherPairGroups = handoffChromosomePair(chrPair, pairGroups);
+
+            if(otherPairGroups == null)
             {
-                Map<String,FusionReadGroup> chromosomeGroups = mIncompleteReadGroups.get(chromosome);
-                if(chromosomeGroups == null)
-                {
-                    chromosomeGroups = Maps.newHashMap();
-                    mIncompleteReadGroups.put(chromosome, chromosomeGroups);
-                }
+                mHardFilteredCount.addAndGet(pairGroups.hardFilteredCount());
+
+                // once the other chromosome has completed, no reads will arrive to pair with these
+                boolean otherCompleted = otherChromosome.equals(chromosome) || mCompletedChromosomes.contains(otherChromosome);
 
-                chromosomeGroups.putAll(newIncompleteGroups);
+                if(otherCompleted && mPendingChrPairGroups.remove(chrPair, pairGroups))
+                    unpairedGroups.addAll(pairGroups.groups());
 
                 ISF_LOGGER.debug("added chromosomes({} & {}) newGroups({}) new hardFiltered({})",
-                        chromosome, otherChromosome, newIncompleteGroups.size(),
-                        chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum());
+                        chromosome, otherChromosome, pairGroups.groupCount(), pairGroups.hardFilteredCount());
+
+                continue;
             }
-            else
+
+            mHardFilteredCount.addAndGet(pairGroups.unmatchedHardFilteredCount(otherPairGroups));
+
+            int initComplete = completeGroups.size();
+            int initUnpaired = unpairedGroups.size();
+            otherPairGroups.pairWith(pairGroups, completeGroups, unpairedGroups);
+
+            ISF_LOGGER.debug("combined chromosomes({} & {}) existing({}) new({}) complete({}) unpaired({})",
+                    chromosome, otherChromosome, otherPairGroups.groupCount(), pairGroups.groupCount(),
+                    completeGroups.size() - initComplete, unpairedGroups.size() - initUnpaired);
+        }
+
+        int initComplete = completeGroups.size();
+        addUnpairedGroups(unpairedGroups, completeGroups);
+
+        mCompletedChromosomes.add(chromosome);
+
+        ISF_LOGGER.info("chr({}) complete({} unpaired={}) partials chr({}) pending({}) unpaired({}), filtered chr({}) total({})",
+                chromosome, completeGroups.size(), completeGroups.size() - initComplete, initChrIncomplete, pendingGroupCount(),
+                mUnpairedGroups.size(), initChrHardFiltered, mHardFilteredCount.get());
+
+        return completeGroups;
+    }
+
+    private void addUnpairedGroups(final List<FusionReadGroup> unpairedGroups, final List<FusionReadGroup> completeGroups)
+    {
+        // merge with any unpaired group with the same read ID from another chromosome pair, collecting those which are then complete
+        for(FusionReadGroup readGroup : unpairedGroups)
+        {
+            final FusionReadGroup[] completeGroup = new FusionReadGroup[1];
+
+            mUnpairedGroups.compute(readGroup.ReadId, (key, existing) ->
             {
-                removePartialGroupsWithHardFilteredMatch(existingGroups, chrHardFilteredReadIds);
+                if(existing == null)
+                    return readGroup;
 
-                mHardFilteredCache.removeHardFilteredReads(chromosome, chrIncompleteGroups, chrHardFilteredReadIds);
+                existing.merge(readGroup);
 
-                mergeChimericReadMaps(existingGroups, completeGroups, newIncompleteGroups);
+                if(!existing.isComplete())
+                    return existing;
 
-                // check and remove previously hard-filtered supplementary read groups
-                // purge any hard-filtered groups involving these 2 chromosomes since they won't be handled again
-                mHardFilteredCache.purgeChromosomeEntries(chromosome, otherChromosome);
+                completeGroup[0] = existing;
+                return null;
+            });
 
-                ISF_LOGGER.debug("combined chromosomes({} & {}) existing({}) new({}) complete({})",
-                        chromosome, otherChromosome, existingGroups.size(), newIncompleteGroups.size(), completeGroups.size());
-            }
+            if(completeGroup[0] != null)
+                completeGroups.add(completeGroup[0]);
         }
+    }
 
-        mHardFilteredCache.addHardFilteredReads(chrHardFilteredReadIds);
+    private ChromosomePairGroups handoffChromosomePair(final String chrPair, final ChromosomePairGroups pairGroups)
+    {
+        // atomically either leave these groups for the other chromosome or take the other chromosome's groups
+        final ChromosomePairGroups[] otherPairGroups = new ChromosomePairGroups[1];
 
-        int newTotalIncomplete = mIncompleteReadGroups.values().stream().mapToInt(x -> x.size()).sum();
-        int newTotalHardFiltered = mHardFilteredCache.cacheCount();
-        int newChrHardFiltered = chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum();;
+        mPendingChrPairGroups.compute(chrPair, (key, existing) ->
+        {
+            if(existing == null)
+                return pairGroups;
 
-        ISF_LOGGER.info("chr({}) complete({}) partials chr({}) total({} -> {}), filtered chr({} -> {}) total({} -> {})",
-                chromosome, completeGroups.size(), initChrIncomplete, initTotalIncomplete, newTotalIncomplete,
-                initChrHardFiltered, newChrHardFiltered, initTotalHardFiltered, newTotalHardFiltered);
+            otherPairGroups[0] = existing;
+            return null;
+        });
 
-        return completeGroups;
+        return otherPairGroups[0];
     }
 
     public synchronized void addRacFragments(final String chromosome, int geneCollectionId, final JunctionRacFragments racFragments)
@@ -128,12 +187,12 @@ public class FusionTaskManager
 
     public void close()
     {
-        int incompleteGroupCount = mIncompleteReadGroups.values().stream().mapToInt(x -> x.size()).sum();
-        int totalHardFiltered = mHardFilteredFusionCount + mHardFilteredCache.hardFilteredCount();
+        int incompleteGroupCount = mUnpairedGroups.size() + pendingGroupCount();
+        int totalHardFiltered = mHardFilteredFusionCount + mHardFilteredCount.get();
 
         ISF_LOGGER.info("all fusion tasks complete: incompleteGroups({}) RAC frags({} assigned={} groups={}) hardFiltered({} supps={})",
                 incompleteGroupCount, mRacFragmentCache.totalFragmentCount(), mRacFragmentCache.assignedFragmentCount(),
-                mRacFragmentCache.totalGroupCount(), totalHardFiltered, mHardFilteredCache.hardFilteredCount());
+                mRacFragmentCache.totalGroupCount(), totalHardFiltered, mHardFilteredCount.get());
 
         // write any unassigned RAC fragments
         if(mConfig.Fusions.WriteChimericReads || mConfig.Fusions.WriteChimericFragments)
@@ -143,26 +202,25 @@ public class FusionTaskManager
         {
             List<FusionReadGroup> incompleteGroups = Lists.newArrayList();
 
-            for(Map.Entry<String,Map<String, FusionReadGroup>> chrEntry : mIncompleteReadGroups.entrySet())
+            List<FusionReadGroup> candidateGroups = Lists.newArrayList(mUnpairedGroups.values());
+
+            for(ChromosomePairGroups pairGroups : mPendingChrPairGroups.values())
             {
-                String chromosome = chrEntry.getKey();
+                if(!mConfig.Filters.excludeChromosome(pairGroups.Chromosome))
+                    candidateGroups.addAll(pairGroups.groups());
+            }
 
-                if(mConfig.Filters.excludeChromosome(chromosome))
-                    continue;
+            for(FusionReadGroup readGroup : candidateGroups)
+            {
+                if(!mConfig.Filters.SpecificChrRegions.Chromosomes.isEmpty())
+                {
+                    if(readGroup.Reads.stream().anyMatch(x -> mConfig.Filters.SpecificChrRegions.excludeChromosome(x.MateChromosome)))
+                        continue;
+                }
 
-                Map<String, FusionReadGroup> rgMap = chrEntry.getValue();
-                for(FusionReadGroup readGroup : rgMap.values())
+                if(!skipMissingReads(readGroup.Reads))
                 {
-                    if(!mConfig.Filters.SpecificChrRegions.Chromosomes.isEmpty())
-                    {
-                        if(readGroup.Reads.stream().anyMatch(x -> mConfig.Filters.SpecificChrRegions.excludeChromosome(x.MateChromosome)))
-                            continue;
-                    }
-
-                    if(!skipMissingReads(readGroup.Reads))
-                    {
-                        incompleteGroups.add(readGroup);
-                    }
+                    incompleteGroups.add(readGroup);
                 }
             }
 
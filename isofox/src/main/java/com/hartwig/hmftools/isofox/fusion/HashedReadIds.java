@@ -0,0 +1,94 @@
+package com.hartwig.hmftools.isofox.fusion;
+
+import java.util.Arrays;
+
+public class HashedReadIds
+{
+    // a set of read IDs held as sorted 64-bit hashes, a small fraction of the size of a set of read-name strings
+    // not thread-safe - each instance is owned by one chromosome task until handed off to another
+    private long[] mKeys;
+    private int mCount;
+    private boolean mSorted;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    public HashedReadIds()
+    {
+        mKeys = new long[INITIAL_CAPACITY];
+        mCount = 0;
+        mSorted = true;
+    }
+
+    public int size()
+    {
+        sortKeys();
+        return mCount;
+    }
+
+    public boolean isEmpty() { return mCount == 0; }
+
+    public void add(final String readId) { add(readIdHash(readId)); }
+
+    public void add(long key)
+    {
+        if(mCount == mKeys.length)
+            mKeys = Arrays.copyOf(mKeys, mKeys.length * 2);
+
+        mSorted &= mCount == 0 || key > mKeys[mCount - 1];
+        mKeys[mCount++] = key;
+    }
+
+    public boolean contains(final String readId) { return contains(readIdHash(readId)); }
+
+    public boolean contains(long key)
+    {
+        sortKeys();
+        return Arrays.binarySearch(mKeys, 0, mCount, key) >= 0;
+    }
+
+    public long key(int index)
+    {
+        sortKeys();
+        return mKeys[index];
+    }
+
+    private void sortKeys()
+    {
+        if(mSorted)
+            return;
+
+        Arrays.sort(mKeys, 0, mCount);
+
+        // remove repeated keys
+        int uniqueCount = 0;
+        for(int i = 0; i < mCount; ++i)
+        {
+            if(uniqueCount == 0 || mKeys[i] != mKeys[uniqueCount - 1])
+                mKeys[uniqueCount++] = mKeys[i];
+        }
+
+        mCount = uniqueCount;
+        mSorted = true;
+    }
+
+    public static long readIdHash(final String readId)
+    {
+        // FNV-1a over the read name's characters, then mixed so that similar names spread across the key range
+        long hash = 0xcbf29ce484222325L;
+
+        for(int i = 0; i < readId.length(); ++i)
+        {
+            hash ^= readId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public String toString() { return String.format("readIds(%d)", mCount); }
+}
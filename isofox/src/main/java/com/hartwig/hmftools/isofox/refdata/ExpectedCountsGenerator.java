@@ -13,9 +13,7 @@ import static com.hartwig.hmftools.isofox.common.FragmentMatchType.SHORT;
 import static com.hartwig.hmftools.isofox.common.FragmentMatchType.SPLICED;
 import static com.hartwig.hmftools.isofox.common.FragmentMatchType.UNSPLICED;
 import static com.hartwig.hmftools.isofox.expression.ExpectedRatesCommon.formTranscriptDefinitions;
-import static com.hartwig.hmftools.isofox.refdata.RefDataWriter.writeExpectedCounts;
 
-import java.io.BufferedWriter;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -50,7 +48,7 @@ public class ExpectedCountsGenerator
     private int mCurrentFragFrequency;
     private int mReadLength;
 
-    private final BufferedWriter mExpRateWriter;
+    private final RefDataWriter mResultsWriter;
 
     public ExpectedCountsGenerator(final RefDataConfig config, final RefDataWriter resultsWriter)
     {
@@ -65,7 +63,7 @@ public class ExpectedCountsGenerator
         mCurrentExpRatesData = null;
         mGeneCollection = null;
 
-        mExpRateWriter = resultsWriter != null ? resultsWriter.getExpRatesWriter() : null;
+        mResultsWriter = resultsWriter;
     }
 
     public List<CategoryCountsData> getTransComboData() { return mTransCategoryCounts; }
@@ -195,7 +193,8 @@ public class ExpectedCountsGenerator
 
         buildUniqueCategoryCounts();
 
-        writeExpectedCounts(mExpRateWriter, geneCollection.chrId(), mTransCategoryCounts);
+        if(mResultsWriter != null)
+            mResultsWriter.writeExpectedCounts(geneCollection.chrId(), mTransCategoryCounts);
     }
 
     private void buildUniqueCategoryCounts()
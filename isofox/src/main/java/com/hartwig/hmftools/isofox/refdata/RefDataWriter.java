@@ -8,13 +8,19 @@ import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBuffe
 import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
 import static com.hartwig.hmftools.isofox.expression.ExpectedRatesCommon.EXP_COUNT_LENGTH_HEADER;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.hartwig.hmftools.isofox.adjusts.FragmentSize;
 import com.hartwig.hmftools.isofox.adjusts.GcRatioCounts;
 import com.hartwig.hmftools.isofox.expression.CategoryCountsData;
+import com.hartwig.hmftools.isofox.expression.ExpectedCountsBinaryFile;
 
 public class RefDataWriter
 {
@@ -22,13 +28,23 @@ public class RefDataWriter
     private BufferedWriter mExpRateWriter;
     private BufferedWriter mGcRatioWriter;
 
+    // binary expected counts with the index of collection locations written once all collections are complete
+    private DataOutputStream mExpCountsBinaryStream;
+    private long mExpCountsBinaryOffset;
+    private ByteArrayOutputStream mExpCountsIndexBytes;
+    private DataOutputStream mExpCountsIndex;
+    private int mExpCountsCollectionCount;
+
     public RefDataWriter(final RefDataConfig config)
     {
         mConfig = config;
 
         if(mConfig.GenerateExpectedCounts)
         {
-            mExpRateWriter = initExpectedCountsWriter();
+            if(mConfig.BinaryExpectedCounts)
+                initExpectedCountsBinaryWriter();
+            else
+                mExpRateWriter = initExpectedCountsWriter();
         }
 
         if(mConfig.GenerateGcRatios)
@@ -66,6 +82,80 @@ public class RefDataWriter
         }
     }
 
+    private void initExpectedCountsBinaryWriter()
+    {
+        try
+        {
+            String outputFileName = String.format("%sread_%d_exp_counts.%s.bin",
+                    mConfig.OutputDir, mConfig.ReadLength, mConfig.RefGenVersion.identifier());
+
+            mExpCountsBinaryStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFileName)));
+
+            List<Integer> fragmentLengths = mConfig.FragmentSizeData.stream().map(x -> x.Length).collect(Collectors.toList());
+            ExpectedCountsBinaryFile.writeHeader(mExpCountsBinaryStream, fragmentLengths);
+
+            mExpCountsBinaryOffset = ExpectedCountsBinaryFile.headerLength(fragmentLengths.size());
+            mExpCountsIndexBytes = new ByteArrayOutputStream();
+            mExpCountsIndex = new DataOutputStream(mExpCountsIndexBytes);
+            mExpCountsCollectionCount = 0;
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to write binary transcript expected counts file: {}", e.toString());
+            mExpCountsBinaryStream = null;
+        }
+    }
+
+    public synchronized void writeExpectedCounts(final String collectionId, final List<CategoryCountsData> categoryCounts)
+    {
+        if(mExpCountsBinaryStream == null)
+        {
+            writeExpectedCounts(mExpRateWriter, collectionId, categoryCounts);
+            return;
+        }
+
+        if(categoryCounts.stream().noneMatch(x -> x.fragmentCountsByLength() != null))
+            return;
+
+        try
+        {
+            byte[] collectionBytes = ExpectedCountsBinaryFile.encodeCollection(categoryCounts);
+            mExpCountsBinaryStream.write(collectionBytes);
+
+            ExpectedCountsBinaryFile.writeIndexEntry(
+                    mExpCountsIndex, collectionId, mExpCountsBinaryOffset, collectionBytes.length, categoryCounts);
+
+            mExpCountsBinaryOffset += collectionBytes.length;
+            ++mExpCountsCollectionCount;
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to write binary transcript expected counts file: {}", e.toString());
+        }
+    }
+
+    private void closeExpectedCountsBinaryWriter()
+    {
+        if(mExpCountsBinaryStream == null)
+            return;
+
+        try
+        {
+            mExpCountsIndex.flush();
+
+            ExpectedCountsBinaryFile.writeIndex(
+                    mExpCountsBinaryStream, mExpCountsCollectionCount, mExpCountsIndexBytes.toByteArray(), mExpCountsBinaryOffset);
+
+            mExpCountsBinaryStream.close();
+
+            ISF_LOGGER.info("wrote {} gene collection expected counts to binary file", mExpCountsCollectionCount);
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to close binary transcript expected counts file: {}", e.toString());
+        }
+    }
+
     public synchronized static void writeExpectedCounts(
             final BufferedWriter writer, final String collectionId, final List<CategoryCountsData> categoryCounts)
     {
@@ -157,6 +247,7 @@ public class RefDataWriter
     {
         closeBufferedWriter(mExpRateWriter);
         closeBufferedWriter(mGcRatioWriter);
+        closeExpectedCountsBinaryWriter();
     }
 
 }
@@ -14,6 +14,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +31,7 @@ import com.hartwig.hmftools.isofox.common.FragmentMatchType;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
 import com.hartwig.hmftools.isofox.expression.CategoryCountsData;
+import com.hartwig.hmftools.isofox.expression.ExpectedCountsBinaryFile;
 import com.hartwig.hmftools.common.sigs.ExpectationMaxFit;
 import com.hartwig.hmftools.isofox.expression.ExpectedRatesData;
 import com.hartwig.hmftools.common.utils.Matrix;
@@ -703,4 +709,72 @@ public class ExpectedRatesTest
 
     }
 
+    @Test
+    public void testBinaryExpectedCounts() throws IOException
+    {
+        List<Integer> fragmentLengths = Lists.newArrayList(100, 200, 300);
+
+        CategoryCountsData catCounts1 = new CategoryCountsData("1-2-ENSG001", fragmentLengths.size());
+        catCounts1.addFragLengthCounts(5, 0);
+        catCounts1.addFragLengthCounts(300, 2);
+
+        CategoryCountsData catCounts2 = new CategoryCountsData("2", fragmentLengths.size());
+        catCounts2.addFragLengthCounts(100000, 1);
+
+        CategoryCountsData catCounts3 = new CategoryCountsData("3-ENSG002-ENSG003", fragmentLengths.size());
+        catCounts3.addFragLengthCounts(1, 1);
+
+        File file = File.createTempFile("exp_counts", ".bin");
+        file.deleteOnExit();
+
+        DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(file));
+        ExpectedCountsBinaryFile.writeHeader(outputStream, fragmentLengths);
+
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream indexStream = new DataOutputStream(indexBytes);
+
+        long offset = ExpectedCountsBinaryFile.headerLength(fragmentLengths.size());
+        List<CategoryCountsData> collection1 = Lists.newArrayList(catCounts1, catCounts2);
+        byte[] collectionBytes = ExpectedCountsBinaryFile.encodeCollection(collection1);
+        outputStream.write(collectionBytes);
+        ExpectedCountsBinaryFile.writeIndexEntry(indexStream, "1_0", offset, collectionBytes.length, collection1);
+        offset += collectionBytes.length;
+
+        List<CategoryCountsData> collection2 = Lists.newArrayList(catCounts3);
+        collectionBytes = ExpectedCountsBinaryFile.encodeCollection(collection2);
+        outputStream.write(collectionBytes);
+        ExpectedCountsBinaryFile.writeIndexEntry(indexStream, "1_1", offset, collectionBytes.length, collection2);
+        offset += collectionBytes.length;
+
+        ExpectedCountsBinaryFile.writeIndex(outputStream, 2, indexBytes.toByteArray(), offset);
+        outputStream.close();
+
+        assertTrue(ExpectedCountsBinaryFile.isBinaryFile(file.getAbsolutePath()));
+
+        ExpectedCountsBinaryFile binaryFile = ExpectedCountsBinaryFile.open(file.getAbsolutePath());
+        assertEquals(fragmentLengths, binaryFile.fragmentLengths());
+        assertEquals(2, binaryFile.collectionCount());
+
+        List<CategoryCountsData> loaded = binaryFile.loadCollection("1_0", Lists.newArrayList("ENSG001"));
+        assertEquals(2, loaded.size());
+        assertEquals("1-2-ENSG001", loaded.get(0).combinedKey());
+        assertEquals(Lists.newArrayList(1, 2), loaded.get(0).transcriptIds());
+        assertEquals(305, loaded.get(0).fragmentCount(), 0.001);
+        assertEquals(300, loaded.get(0).fragmentCountsByLength()[2], 0.001);
+        assertEquals(100000, loaded.get(1).fragmentCountsByLength()[1], 0.001);
+
+        // a collection ID which doesn't match falls back to finding the collection with all the genes
+        loaded = binaryFile.loadCollection("1_5", Lists.newArrayList("ENSG003", "ENSG002"));
+        assertEquals(1, loaded.size());
+        assertEquals("3-ENSG002-ENSG003", loaded.get(0).combinedKey());
+
+        assertEquals(null, binaryFile.loadCollection("1_0", Lists.newArrayList("ENSG001", "ENSG002")));
+
+        // collections are read from slices of the one mapping, so can be read repeatedly
+        loaded = binaryFile.loadCollection("1_0", Lists.newArrayList("ENSG001"));
+        assertEquals(2, loaded.size());
+        assertEquals(305, loaded.get(0).fragmentCount(), 0.001);
+
+        binaryFile.close();
+    }
 }
@@ -1,8 +1,24 @@
 package com.hartwig.hmftools.isofox;
 
+import static com.hartwig.hmftools.isofox.TaskType.COLLECT_GC_FIT_COUNTS;
+import static com.hartwig.hmftools.isofox.TestUtils.createIsofoxConfig;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.isofox.adjusts.GcRatioCounts;
+import com.hartwig.hmftools.isofox.adjusts.GcTranscriptCalculator;
+import com.hartwig.hmftools.isofox.expression.GeneCollectionSummary;
+import com.hartwig.hmftools.isofox.results.ResultsWriter;
 
 import org.junit.Test;
 
@@ -43,5 +59,77 @@ public class GcBiasTest
         assertEquals(1, counts[0], 0.001);
     }
 
+    @Test
+    public void testChromosomeGcFitCountsMatchSerial()
+    {
+        IsofoxConfig config = createIsofoxConfig();
+        EnsemblDataCache geneTransCache = new EnsemblDataCache("", RefGenomeVersion.V37);
+        ResultsWriter resultsWriter = new ResultsWriter(config);
+
+        GcTranscriptCalculator serialCalcs = new GcTranscriptCalculator(config);
+        GcTranscriptCalculator chrTaskCalcs = new GcTranscriptCalculator(config);
+
+        Random random = new Random(1);
+        int transCount = 12;
+
+        for(int t = 0; t < transCount; ++t)
+        {
+            GcRatioCounts transGcCounts = new GcRatioCounts();
+            double[] counts = transGcCounts.getCounts();
+
+            for(int i = 0; i < counts.length; ++i)
+            {
+                counts[i] = random.nextDouble();
+            }
+
+            serialCalcs.addTranscriptGcRatios(transName(t), transGcCounts);
+            chrTaskCalcs.addTranscriptGcRatios(transName(t), transGcCounts);
+        }
+
+        // each chromosome has 2 gene collections of 2 transcripts, with fit allocations of varying scale
+        List<GeneCollectionSummary> allSummaries = Lists.newArrayList();
+        List<ChromosomeTaskExecutor> chrTasks = Lists.newArrayList();
+        int transIndex = 0;
+
+        for(String chromosome : new String[] { "1", "2", "3" })
+        {
+            ChromosomeTaskExecutor chrTask = new ChromosomeTaskExecutor(
+                    config, chromosome, Collections.emptyList(), geneTransCache, resultsWriter, null, null, chrTaskCalcs, null);
+
+            for(int g = 0; g < 2; ++g)
+            {
+                String geneId = "GENE_" + chromosome + "_" + g;
+
+                GeneCollectionSummary geneSummary = new GeneCollectionSummary(
+                        chromosome, Lists.newArrayList(geneId), geneId, Collections.emptyList());
+
+                for(int t = 0; t < 2; ++t)
+                {
+                    geneSummary.getFitAllocations().put(transName(transIndex++), random.nextDouble() * Math.pow(10, random.nextInt(6)));
+                }
+
+                chrTask.getGeneCollectionSummaryData().add(geneSummary);
+                allSummaries.add(geneSummary);
+            }
+
+            chrTasks.add(chrTask);
+        }
+
+        // a serial pass over all gene collections
+        serialCalcs.generateGcCountsFromFit(allSummaries);
+
+        // the chromosome tasks collect their counts concurrently, and these are then added in task order
+        chrTasks.forEach(x -> x.setTaskType(COLLECT_GC_FIT_COUNTS));
+        List<Callable> callableList = Lists.newArrayList(chrTasks);
+        TaskExecutor.executeTasks(callableList, chrTasks.size());
+
+        chrTasks.forEach(x -> chrTaskCalcs.addGcCountsFromFit(x.getGcFitCounts()));
+
+        assertEquals(transCount, chrTasks.stream().mapToInt(x -> x.getGcFitCounts().size()).sum());
+
+        assertArrayEquals(
+                serialCalcs.getTranscriptFitGcCounts().getCounts(), chrTaskCalcs.getTranscriptFitGcCounts().getCounts(), 0);
+    }
 
+    private static String transName(int index) { return "TRANS_" + index; }
 }
@@ -6,15 +6,22 @@ import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_START;
 import static com.hartwig.hmftools.isofox.results.TranscriptResult.calcEffectiveLength;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.isofox.adjusts.FragmentSize;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.isofox.common.BaseDepth;
+import com.hartwig.hmftools.isofox.common.GeneCollectionWorkQueue;
 
 import org.junit.Test;
 
@@ -87,4 +94,67 @@ public class MiscTest
         assertEquals(2, mapDepth.depthAtBase(115));
         assertEquals(0, mapDepth.depthAtBase(200)); // below the threshold for inclusion
     }
+
+    @Test
+    public void testGeneCollectionWorkQueue()
+    {
+        // more reader tasks than threads, with the last and largest finishing well after the others
+        int threads = 3;
+        int readerCount = 6;
+        int itemsPerReader = 50;
+
+        GeneCollectionWorkQueue workQueue = new GeneCollectionWorkQueue(threads);
+        AtomicInteger completedWork = new AtomicInteger(0);
+
+        List<Callable> tasks = Lists.newArrayList();
+
+        for(int r = 0; r < readerCount; ++r)
+        {
+            final int itemCount = r == readerCount - 1 ? itemsPerReader * 4 : itemsPerReader;
+
+            tasks.add(() ->
+            {
+                List<Future<Void>> submittedWork = Lists.newArrayList();
+
+                for(int i = 0; i < itemCount; ++i)
+                {
+                    submittedWork.add(workQueue.submit(() -> completedWork.incrementAndGet()));
+                }
+
+                workQueue.runQueuedWork();
+
+                // each reader then waits on its own work, which is either complete or being run by another thread
+                submittedWork.forEach(x -> GeneCollectionWorkQueue.waitForWork(x));
+
+                return (long)1;
+            });
+        }
+
+        assertTrue(TaskExecutor.executeTasks(tasks, threads));
+
+        int expectedCount = itemsPerReader * (readerCount - 1) + itemsPerReader * 4;
+        assertEquals(expectedCount, completedWork.get());
+        assertEquals(expectedCount, workQueue.submittedCount());
+
+        // single-threaded runs all work inline
+        GeneCollectionWorkQueue singleThreadQueue = new GeneCollectionWorkQueue(1);
+        Future<Void> work = singleThreadQueue.submit(() -> completedWork.incrementAndGet());
+        assertTrue(work.isDone());
+
+        assertEquals(expectedCount + 1, completedWork.get());
+        assertEquals(1, singleThreadQueue.inlineCount());
+
+        // failed work is reported to the waiting task
+        Future<Void> failedWork = singleThreadQueue.submit(() -> { throw new IllegalArgumentException("fit failed"); });
+
+        try
+        {
+            GeneCollectionWorkQueue.waitForWork(failedWork);
+            fail("expected failure");
+        }
+        catch(IllegalStateException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
 }
@@ -40,7 +40,6 @@ import static junit.framework.TestCase.assertTrue;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -321,9 +320,9 @@ public class FusionDataTest
         assertEquals(3, finder.getChimericPartialReadGroups().size());
         finder.processLocalReadGroups(completeGroups);
 
-        Map<String,Set<String>> hardFilteredReadIds = Maps.newHashMap();
+        Map<String,HashedReadIds> hardFilteredReadIds = Maps.newHashMap();
 
-        Map<String,Map<String, FusionReadGroup>> chrIncompleteGroups = finder.extractIncompleteReadGroups(
+        Map<String,List<FusionReadGroup>> chrIncompleteGroups = finder.extractIncompleteReadGroups(
                 gc3.chromosome(), hardFilteredReadIds);
 
         List<FusionReadGroup> interChromosomalGroups = fusionTaskManager.addIncompleteReadGroup(
@@ -16,15 +16,15 @@ import static com.hartwig.hmftools.isofox.TestUtils.populateRefGenome;
 import static com.hartwig.hmftools.isofox.fusion.FusionTestUtils.createGeneDataCache;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.isofox.FragmentAllocator;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
@@ -37,16 +37,14 @@ import org.junit.Test;
 public class FusionFiltersTest
 {
     @Test
-    public void testHardFilterCache()
+    public void testHardFilteredReadHandoff()
     {
-        HardFilteredCache hardFilteredCache = new HardFilteredCache();
+        final EnsemblDataCache geneTransCache = createGeneDataCache();
+        IsofoxConfig config = createIsofoxConfig();
 
-        Map<String,Set<String>> hardFilteredReadIds = Maps.newHashMap();
+        FusionTaskManager fusionTaskManager = new FusionTaskManager(config, geneTransCache);
 
         String CHR_X = "X";
-        String chrPair1 = HardFilteredCache.formChromosomePairString(CHR_2, CHR_1);
-        String chrPair2 = HardFilteredCache.formChromosomePairString(CHR_X, CHR_1);
-        String chrPair3 = HardFilteredCache.formChromosomePairString(CHR_2, CHR_X);
 
         // read IDs indicating which chromosomes they link
         String readId1 = "1_2_01";
@@ -56,104 +54,122 @@ public class FusionFiltersTest
         String readId5 = "2_X_01";
         String readId6 = "2_X_02";
 
-        Set<String> readIds = Sets.newHashSet();
-        readIds.add(readId1);
-        readIds.add(readId2);
-        hardFilteredReadIds.put(chrPair1, readIds);
+        // chromosome 1 completes first with hard-filtered reads linking to 2 and X
+        Map<String,List<FusionReadGroup>> chrIncompleteGroups = Maps.newHashMap();
+        Map<String,HashedReadIds> hardFilteredReadIds = Maps.newHashMap();
+        hardFilteredReadIds.put(CHR_2, createReadIds(readId1, readId2));
+        hardFilteredReadIds.put(CHR_X, createReadIds(readId3, readId4));
 
-        readIds = Sets.newHashSet();
-        readIds.add(readId3);
-        readIds.add(readId4);
-        hardFilteredReadIds.put(chrPair2, readIds);
+        List<FusionReadGroup> completeGroups = fusionTaskManager.addIncompleteReadGroup(CHR_1, chrIncompleteGroups, hardFilteredReadIds);
 
-        hardFilteredCache.addHardFilteredReads(hardFilteredReadIds);
+        assertTrue(completeGroups.isEmpty());
+        assertEquals(4, fusionTaskManager.pendingHardFilteredCount());
+        assertEquals(2, fusionTaskManager.pendingChromosomePairCount());
 
-        assertEquals(4, hardFilteredCache.cacheCount());
-        assertEquals(2, hardFilteredCache.chrPairCount());
+        // chromosome 2's incomplete groups linking to 1 were hard-filtered there so are dropped, and the pair with 1 is resolved
+        chrIncompleteGroups = Maps.newHashMap();
+        chrIncompleteGroups.put(CHR_1, Lists.newArrayList(createGroup(readId1), createGroup(readId2)));
+        chrIncompleteGroups.put(CHR_X, Lists.newArrayList(createGroup(readId5), createGroup(readId6)));
 
-        // now test 2's incomplete groups
-        Map<String,Map<String,FusionReadGroup>> chrIncompleteGroups = Maps.newHashMap();
-        Map<String,FusionReadGroup> otherChrGroups = Maps.newHashMap();
-        otherChrGroups.put(readId1, createGroup(readId1));
-        otherChrGroups.put(readId2, createGroup(readId2));
-        chrIncompleteGroups.put(CHR_1, otherChrGroups);
+        hardFilteredReadIds = Maps.newHashMap();
+        hardFilteredReadIds.put(CHR_1, createReadIds(readId1, readId2));
+        hardFilteredReadIds.put(CHR_X, createReadIds(readId5, readId6));
 
-        otherChrGroups = Maps.newHashMap();
-        otherChrGroups.put(readId5, createGroup(readId5));
-        otherChrGroups.put(readId6, createGroup(readId6));
-        chrIncompleteGroups.put(CHR_X, otherChrGroups);
+        completeGroups = fusionTaskManager.addIncompleteReadGroup(CHR_2, chrIncompleteGroups, hardFilteredReadIds);
 
-        // add 2's hard-filtered reads
-        hardFilteredReadIds = Maps.newHashMap();
+        assertTrue(completeGroups.isEmpty());
+        assertEquals(2, fusionTaskManager.pendingGroupCount());
+        assertEquals(4, fusionTaskManager.pendingHardFilteredCount());
+        assertEquals(2, fusionTaskManager.pendingChromosomePairCount());
 
-        readIds = Sets.newHashSet();
-        readIds.add(readId1);
-        readIds.add(readId2);
+        // all of X's groups are hard-filtered by the other chromosomes, and all pairs are then resolved
+        chrIncompleteGroups = Maps.newHashMap();
+        chrIncompleteGroups.put(CHR_1, Lists.newArrayList(createGroup(readId3), createGroup(readId4)));
+        chrIncompleteGroups.put(CHR_2, Lists.newArrayList(createGroup(readId5), createGroup(readId6)));
 
-        hardFilteredReadIds.put(chrPair1, readIds);
+        hardFilteredReadIds = Maps.newHashMap();
+        hardFilteredReadIds.put(CHR_1, createReadIds(readId3, readId4));
+        hardFilteredReadIds.put(CHR_2, createReadIds(readId5, readId6));
 
-        readIds = Sets.newHashSet();
-        readIds.add(readId5);
-        readIds.add(readId6);
+        completeGroups = fusionTaskManager.addIncompleteReadGroup(CHR_X, chrIncompleteGroups, hardFilteredReadIds);
 
-        hardFilteredReadIds.put(chrPair3, readIds);
+        assertTrue(completeGroups.isEmpty());
+        assertEquals(0, fusionTaskManager.pendingGroupCount());
+        assertEquals(0, fusionTaskManager.pendingHardFilteredCount());
+        assertEquals(0, fusionTaskManager.pendingChromosomePairCount());
+    }
+
+    @Test
+    public void testThirdChromosomeCompletion()
+    {
+        final EnsemblDataCache geneTransCache = createGeneDataCache();
+        addTestGenes(geneTransCache);
+        addTestTranscripts(geneTransCache);
 
-        assertEquals(4, chrIncompleteGroups.values().stream().mapToInt(x -> x.size()).sum());
-        assertEquals(4, hardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum());
+        IsofoxConfig config = createIsofoxConfig();
 
-        // 2 of the new hard-filtered groups are now removed
-        hardFilteredCache.removeHardFilteredReads(CHR_2, chrIncompleteGroups, hardFilteredReadIds);
+        FusionTaskManager fusionTaskManager = new FusionTaskManager(config, geneTransCache);
 
-        assertEquals(2, chrIncompleteGroups.values().stream().mapToInt(x -> x.size()).sum());
-        assertEquals(2, hardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum());
-        assertEquals(2, hardFilteredCache.cacheCount());
+        String CHR_X = "X";
+        String readId = "1_2_X_01";
 
-        hardFilteredCache.purgeChromosomeEntries(CHR_2, CHR_1);
-        assertEquals(1, hardFilteredCache.chrPairCount());
+        final GeneCollection gc = createGeneCollection(geneTransCache, 0, Lists.newArrayList(geneTransCache.getGeneDataById(GENE_ID_3)));
 
-        hardFilteredCache.addHardFilteredReads(hardFilteredReadIds);
+        // a read on chromosome 1 with a supplementary on X, and its mate on chromosome 2
+        List<FusionRead> reads = Lists.newArrayList();
 
-        assertEquals(4, hardFilteredCache.cacheCount());
+        for(int i = 0; i < 3; ++i)
+        {
+            FusionRead read = new FusionRead(createMappedRead(i, gc, 1050, 1089, createCigar(0, 40, 0)));
+            read.HasSuppAlignment = i == 0;
+            reads.add(read);
+        }
 
-        chrIncompleteGroups.clear();
-        otherChrGroups = Maps.newHashMap();
-        otherChrGroups.put(readId3, createGroup(readId3));
-        otherChrGroups.put(readId4, createGroup(readId4));
-        chrIncompleteGroups.put(CHR_1, otherChrGroups);
+        Map<String,List<FusionReadGroup>> chrIncompleteGroups = Maps.newHashMap();
+        chrIncompleteGroups.put(CHR_2, Lists.newArrayList(new FusionReadGroup(readId, Lists.newArrayList(reads.get(0)))));
 
-        otherChrGroups = Maps.newHashMap();
-        otherChrGroups.put(readId5, createGroup(readId5));
-        otherChrGroups.put(readId6, createGroup(readId6));
-        chrIncompleteGroups.put(CHR_2, otherChrGroups);
+        List<FusionReadGroup> completeGroups = fusionTaskManager.addIncompleteReadGroup(CHR_1, chrIncompleteGroups, Maps.newHashMap());
+        assertTrue(completeGroups.isEmpty());
 
-        // add X's hard-filtered reads
-        hardFilteredReadIds = Maps.newHashMap();
-        readIds = Sets.newHashSet();
-        readIds.add(readId3);
-        readIds.add(readId4);
+        // pairing chromosomes 1 and 2 leaves the group incomplete, still awaiting the supplementary
+        chrIncompleteGroups = Maps.newHashMap();
+        chrIncompleteGroups.put(CHR_1, Lists.newArrayList(new FusionReadGroup(readId, Lists.newArrayList(reads.get(1)))));
 
-        hardFilteredReadIds.put(chrPair2, readIds);
+        completeGroups = fusionTaskManager.addIncompleteReadGroup(CHR_2, chrIncompleteGroups, Maps.newHashMap());
+        assertTrue(completeGroups.isEmpty());
+        assertEquals(0, fusionTaskManager.pendingGroupCount());
+        assertEquals(1, fusionTaskManager.unpairedGroupCount());
 
-        readIds = Sets.newHashSet();
-        readIds.add(readId5);
-        readIds.add(readId6);
+        // the supplementary on X links to chromosome 2, which has already completed, and completes the group
+        chrIncompleteGroups = Maps.newHashMap();
+        chrIncompleteGroups.put(CHR_2, Lists.newArrayList(new FusionReadGroup(readId, Lists.newArrayList(reads.get(2)))));
 
-        hardFilteredReadIds.put(chrPair3, readIds);
+        completeGroups = fusionTaskManager.addIncompleteReadGroup(CHR_X, chrIncompleteGroups, Maps.newHashMap());
+        assertEquals(1, completeGroups.size());
+        assertEquals(3, completeGroups.get(0).size());
+        assertEquals(0, fusionTaskManager.unpairedGroupCount());
+    }
 
-        assertEquals(4, chrIncompleteGroups.values().stream().mapToInt(x -> x.size()).sum());
+    @Test
+    public void testHashedReadIds()
+    {
+        HashedReadIds readIds = createReadIds("READ_003", "READ_001", "READ_002", "READ_001");
 
-        // all of the new hard-filtered groups are now removed
-        hardFilteredCache.removeHardFilteredReads(CHR_X, chrIncompleteGroups, hardFilteredReadIds);
-        hardFilteredCache.purgeChromosomeEntries(CHR_X, CHR_1);
-        hardFilteredCache.purgeChromosomeEntries(CHR_X, CHR_2);
+        assertEquals(3, readIds.size());
+        assertTrue(readIds.contains("READ_001"));
+        assertTrue(readIds.contains("READ_003"));
+        assertFalse(readIds.contains("READ_004"));
 
-        assertEquals(0, chrIncompleteGroups.values().stream().mapToInt(x -> x.size()).sum());
-        assertEquals(0, hardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum());
-        assertEquals(0, hardFilteredCache.cacheCount());
+        readIds.add("READ_004");
+        assertEquals(4, readIds.size());
+        assertTrue(readIds.contains("READ_004"));
+    }
 
-        hardFilteredCache.addHardFilteredReads(hardFilteredReadIds);
-        assertEquals(0, hardFilteredCache.cacheCount());
-        assertEquals(0, hardFilteredCache.chrPairCount());
+    private static HashedReadIds createReadIds(final String... readIds)
+    {
+        HashedReadIds hashedReadIds = new HashedReadIds();
+        Arrays.stream(readIds).forEach(x -> hashedReadIds.add(x));
+        return hashedReadIds;
     }
 
     private static FusionReadGroup createGroup(final String readId)
@@ -240,14 +256,14 @@ public class FusionFiltersTest
         // finish chr 1
         assertEquals(1, bamReader1.getChimericReadTracker().getHardFilteredReadIds().values().stream().mapToInt(x -> x.size()).sum());
 
-        Map<String,Map<String,FusionReadGroup>> chrIncompleteReadsGroups = finderChr1.extractIncompleteReadGroups(
+        Map<String,List<FusionReadGroup>> chrIncompleteReadsGroups = finderChr1.extractIncompleteReadGroups(
                 gc5.chromosome(), bamReader1.getChimericReadTracker().getHardFilteredReadIds());
 
         List<FusionReadGroup> interChromosomalGroups = fusionTaskManager.addIncompleteReadGroup(
                 gc5.chromosome(), chrIncompleteReadsGroups, bamReader1.getChimericReadTracker().getHardFilteredReadIds());
 
-        assertEquals(1, fusionTaskManager.hardFilteredCache().cacheCount());
-        assertEquals(1, fusionTaskManager.hardFilteredCache().chrPairCount());
+        assertEquals(1, fusionTaskManager.pendingHardFilteredCount());
+        assertEquals(1, fusionTaskManager.pendingChromosomePairCount());
 
         finderChr1.processInterChromosomalReadGroups(interChromosomalGroups);
 
@@ -285,9 +301,9 @@ public class FusionFiltersTest
         interChromosomalGroups = fusionTaskManager.addIncompleteReadGroup(
                 gc3.chromosome(), chrIncompleteReadsGroups, bamReader2.getChimericReadTracker().getHardFilteredReadIds());
 
-        assertEquals(0, fusionTaskManager.incompleteReadGroups().values().stream().mapToInt(x -> x.size()).sum());
-        assertEquals(0, fusionTaskManager.hardFilteredCache().cacheCount());
-        assertEquals(0, fusionTaskManager.hardFilteredCache().chrPairCount());
+        assertEquals(0, fusionTaskManager.pendingGroupCount());
+        assertEquals(0, fusionTaskManager.pendingHardFilteredCount());
+        assertEquals(0, fusionTaskManager.pendingChromosomePairCount());
 
         finderChr2.processInterChromosomalReadGroups(interChromosomalGroups);
 
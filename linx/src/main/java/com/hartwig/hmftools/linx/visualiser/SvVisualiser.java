@@ -31,6 +31,7 @@ import com.hartwig.hmftools.linx.visualiser.circos.CircosDataWriter;
 import com.hartwig.hmftools.linx.visualiser.circos.ColorPicker;
 import com.hartwig.hmftools.linx.visualiser.circos.FusionDataWriter;
 import com.hartwig.hmftools.linx.visualiser.circos.FusionExecution;
+import com.hartwig.hmftools.linx.visualiser.circos.NativePlotRenderer;
 import com.hartwig.hmftools.linx.visualiser.circos.Span;
 import com.hartwig.hmftools.linx.visualiser.data.VisCopyNumbers;
 import com.hartwig.hmftools.linx.visualiser.data.VisLinks;
@@ -45,6 +46,7 @@ import com.hartwig.hmftools.linx.visualiser.file.VisSvData;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class SvVisualiser implements AutoCloseable
 {
@@ -302,28 +304,47 @@ public class SvVisualiser implements AutoCloseable
             mCallableConfigs.add(() -> fusionDataWriter.write(sample, mConfig.OutputConfPath));
         }
 
+        final NativePlotRenderer nativeRenderer = mConfig.NativePlot
+                ? new NativePlotRenderer(circosData, mCircosConfig, confWrite, color, fusionDataWriter, mConfig.RefGenVersion)
+                : null;
+
         int minFrame = mCircosConfig.Step ? 0 : circosData.maxFrame();
         for(int frame = minFrame; frame <= circosData.maxFrame(); frame++)
         {
             boolean plotFusion = !fusionDataWriter.finalExons().isEmpty();
-            submitFrame(frame, plotFusion, circosData.labelSize(), sample, confWrite);
+            submitFrame(frame, plotFusion, circosData.labelSize(), sample, confWrite, nativeRenderer);
         }
     }
 
-    private void submitFrame(int frame, boolean hasFusion, double labelSize, String sample, final CircosConfigWriter confWrite)
+    private void submitFrame(
+            int frame, boolean hasFusion, double labelSize, String sample, final CircosConfigWriter confWrite,
+            @Nullable final NativePlotRenderer nativeRenderer)
     {
         boolean plotFusion = hasFusion && !mConfig.Debug;
         boolean plotChromosome = !mConfig.Debug;
 
+        if(nativeRenderer != null)
+        {
+            // rendered in-process, so there is no Circos config to write
+            final String outputFile = mConfig.OutputPlotPath + imageFilename(sample, frame);
+            mCallableImages.add(() -> nativeRenderer.renderImage(frame, 1.2 * labelSize, plotFusion, plotChromosome, outputFile));
+            return;
+        }
+
         mCallableConfigs.add(() -> confWrite.writeConfig(frame));
         mCallableImages.add(() -> createImageFrame(frame, labelSize, sample, plotFusion, plotChromosome));
     }
 
+    private static String imageFilename(final String sample, int frame)
+    {
+        return sample + "." + String.format("%03d", frame) + ".png";
+    }
+
     private Object createImageFrame(
             int frame, double labelSize, final String sample, boolean plotFusion, boolean plotChromosome) throws Exception
     {
         final String confFileName = sample + ".circos." + String.format("%03d", frame) + ".conf";
-        final String outputFileName = sample + "." + String.format("%03d", frame) + ".png";
+        final String outputFileName = imageFilename(sample, frame);
 
         double rLabelSize = 1.2 * labelSize;
 
@@ -51,6 +51,7 @@ public class VisualiserConfig
 
     public final int Threads;
     public final boolean Debug;
+    public final boolean NativePlot;
 
     // filters and plotting options
     public final boolean IncludeLineElements;
@@ -73,6 +74,7 @@ public class VisualiserConfig
     private static final String DATA_OUT = "data_out";
     private static final String CIRCOS = "circos";
     private static final String DEBUG = "debug";
+    private static final String NATIVE_PLOT = "native_plot";
     private static final String PLOT_REPORTABLE = "plot_reportable";
     public static final String RESTRICT_CLUSTERS_BY_GENE = "restrict_cluster_by_gene";
     public static final String PLOT_CLUSTER_GENES = "plot_cluster_genes";
@@ -89,6 +91,12 @@ public class VisualiserConfig
         OutputPlotPath = checkAddDirSeparator(configBuilder.getValue(PLOT_OUT, SampleDataDir + "plot/"));
         OutputConfPath = checkAddDirSeparator(configBuilder.getValue(DATA_OUT, SampleDataDir + "data/"));
         CircosBin = configBuilder.getValue(CIRCOS);
+        NativePlot = configBuilder.hasFlag(NATIVE_PLOT);
+
+        if(CircosBin == null && !NativePlot)
+        {
+            throw new ParseException("Circos binary required unless using native plotting");
+        }
         UseCohortFiles = configBuilder.hasFlag(LOAD_COHORT_FILES);
         IsGermline = configBuilder.hasFlag(GERMLINE);
 
@@ -189,7 +197,8 @@ public class VisualiserConfig
         configBuilder.addConfigItem(PLOT_OUT, "Plot output directory, default is 'plot' in sample files directory");
         configBuilder.addConfigItem(DATA_OUT, "Data output directory, default is 'data' in sample files directory");
 
-        configBuilder.addPath(CIRCOS, true, "Path to Circos binary");
+        configBuilder.addPath(CIRCOS, false, "Path to Circos binary, required unless using native plotting");
+        configBuilder.addFlag(NATIVE_PLOT, "Render plots in Java rather than with Circos and R");
         EnsemblDataCache.addEnsemblDir(configBuilder);
 
         // filters
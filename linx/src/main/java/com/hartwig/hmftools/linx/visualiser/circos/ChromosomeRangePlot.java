@@ -0,0 +1,288 @@
+package com.hartwig.hmftools.linx.visualiser.circos;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions.stripChrPrefix;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.genome.chromosome.CytoBands;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.common.genome.region.GenomeRegion;
+import com.hartwig.hmftools.linx.visualiser.CircosConfig;
+
+public class ChromosomeRangePlot
+{
+    // draws an ideogram of each chromosome in the plot with the displayed range highlighted, as chromosomeRangePlot.R does
+    private static final double MIN_RELATIVE_LENGTH = 0.1;
+    private static final double CELL_PADDING = 0.1;
+
+    private static final Color IDEOGRAM_STROKE = new Color(100, 100, 100);
+    private static final Color CENTROMERE = new Color(178, 34, 34);
+    private static final Color VARIABLE_BAND = new Color(200, 220, 240);
+
+    private final CircosConfig mConfig;
+    private final List<GenomeRegion> mRegions;
+    private final Map<String,List<Band>> mChromosomeBands;
+    private final List<Cell> mCells;
+    private final int mRows;
+
+    public ChromosomeRangePlot(final CircosData data, final CircosConfig config, final RefGenomeVersion refGenomeVersion)
+    {
+        mConfig = config;
+        mRegions = Span.spanRegions(data.unadjustedAlterations());
+        mChromosomeBands = loadBands(refGenomeVersion);
+        mCells = Lists.newArrayList();
+        mRows = layoutCells();
+    }
+
+    public int height()
+    {
+        return mRows * mConfig.ChromosomeRangeHeight;
+    }
+
+    public void render(final Graphics2D graphics, int width, double labelSize)
+    {
+        final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, (int)Math.round(labelSize));
+        graphics.setFont(font);
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        for(Cell cell : mCells)
+        {
+            double cellX = cell.X * width;
+            double cellY = cell.Row * mConfig.ChromosomeRangeHeight;
+            double cellWidth = cell.Width * width;
+            double cellHeight = mConfig.ChromosomeRangeHeight;
+
+            String label = "CHR " + stripChrPrefix(cell.Region.chromosome());
+            double labelWidth = metrics.stringWidth(label) + metrics.getHeight();
+
+            double ideogramX = cellX + labelWidth;
+            double ideogramWidth = Math.max(1, cellWidth - labelWidth - CELL_PADDING * cellHeight);
+            double ideogramY = cellY + cellHeight * 0.35;
+            double ideogramHeight = cellHeight * 0.3;
+
+            double labelY = ideogramY + ideogramHeight / 2 + (metrics.getAscent() - metrics.getDescent()) / 2d;
+
+            graphics.setColor(Color.BLACK);
+            graphics.drawString(label, (float)cellX, (float)labelY);
+
+            final List<Band> bands = mChromosomeBands.getOrDefault(stripChrPrefix(cell.Region.chromosome()), Lists.newArrayList());
+            double basesPerPixel = cell.Length / ideogramWidth;
+
+            for(Band band : bands)
+            {
+                double bandStart = ideogramX + band.Start / basesPerPixel;
+                double bandWidth = Math.max(1, (band.End - band.Start) / basesPerPixel);
+
+                graphics.setColor(band.Color);
+
+                if(band.Color == CENTROMERE)
+                {
+                    double inset = ideogramHeight * 0.25;
+                    graphics.fill(new Rectangle2D.Double(bandStart, ideogramY + inset, bandWidth, ideogramHeight - 2 * inset));
+                }
+                else
+                {
+                    graphics.fill(new Rectangle2D.Double(bandStart, ideogramY, bandWidth, ideogramHeight));
+                }
+            }
+
+            graphics.setColor(IDEOGRAM_STROKE);
+            graphics.setStroke(new BasicStroke(1));
+            graphics.draw(new RoundRectangle2D.Double(ideogramX, ideogramY, ideogramWidth, ideogramHeight, ideogramHeight, ideogramHeight));
+
+            // highlight the range shown in the cluster plot
+            Color contigColor = ColorPicker.contigColour(cell.Region.chromosome());
+            double rangeStart = ideogramX + cell.Region.start() / basesPerPixel;
+            double rangeWidth = Math.max(2, (cell.Region.end() - cell.Region.start()) / basesPerPixel);
+            double rangePadding = ideogramHeight * 0.2;
+
+            final Rectangle2D range = new Rectangle2D.Double(
+                    rangeStart, ideogramY - rangePadding, rangeWidth, ideogramHeight + 2 * rangePadding);
+
+            graphics.setColor(new Color(contigColor.getRed(), contigColor.getGreen(), contigColor.getBlue(), 96));
+            graphics.fill(range);
+            graphics.setColor(contigColor);
+            graphics.setStroke(new BasicStroke(4));
+            graphics.draw(range);
+        }
+    }
+
+    private int layoutCells()
+    {
+        // rows are filled relative to the combined length of the chromosomes in the first row, which is chosen so as to need no
+        // more rows than a full grid of the configured columns
+        final List<GenomeRegion> regions = Lists.newArrayList(mRegions);
+        regions.sort(Comparator.comparing(x -> HumanChromosome.fromString(x.chromosome())));
+
+        final List<Double> lengths = Lists.newArrayList();
+
+        for(GenomeRegion region : regions)
+        {
+            List<Band> bands = mChromosomeBands.get(stripChrPrefix(region.chromosome()));
+            lengths.add(bands != null ? bands.stream().mapToDouble(x -> x.End).max().orElse(region.end()) : region.end());
+        }
+
+        if(regions.isEmpty())
+            return 0;
+
+        int maxColumns = Math.max(1, mConfig.ChromosomeRangeColumns);
+        int maxRows = (int)Math.ceil(regions.size() / (double)maxColumns);
+
+        int fullRowsCount = rowNumbers(maxColumns, lengths)[lengths.size() - 1];
+
+        if(fullRowsCount > maxRows)
+            maxRows = fullRowsCount;
+
+        int firstRowColumns = 1;
+        while(rowNumbers(firstRowColumns, lengths)[lengths.size() - 1] > maxRows)
+        {
+            ++firstRowColumns;
+        }
+
+        int[] rows = rowNumbers(firstRowColumns, lengths);
+        double[] relativeLengths = relativeLengths(firstRowColumns, lengths);
+        int rowCount = rows[rows.length - 1];
+
+        double[] rowLengths = new double[rowCount];
+
+        for(int i = 0; i < rows.length; ++i)
+        {
+            rowLengths[rows[i] - 1] += relativeLengths[i];
+        }
+
+        double maxRowLength = 0;
+        for(double rowLength : rowLengths)
+        {
+            maxRowLength = Math.max(maxRowLength, rowLength);
+        }
+
+        // each row is centred
+        double[] rowPositions = new double[rowCount];
+        for(int row = 0; row < rowCount; ++row)
+        {
+            rowPositions[row] = (1 - rowLengths[row] / maxRowLength) / 2;
+        }
+
+        for(int i = 0; i < regions.size(); ++i)
+        {
+            int row = rows[i] - 1;
+            double width = relativeLengths[i] / maxRowLength;
+
+            mCells.add(new Cell(regions.get(i), lengths.get(i), row, rowPositions[row], width));
+            rowPositions[row] += width;
+        }
+
+        return rowCount;
+    }
+
+    private static double[] relativeLengths(int firstRowColumns, final List<Double> lengths)
+    {
+        double firstRowLength = lengths.stream().limit(firstRowColumns).mapToDouble(x -> x).sum();
+
+        double[] relativeLengths = new double[lengths.size()];
+        for(int i = 0; i < lengths.size(); ++i)
+        {
+            relativeLengths[i] = Math.max(MIN_RELATIVE_LENGTH, lengths.get(i) / firstRowLength);
+        }
+
+        return relativeLengths;
+    }
+
+    private static int[] rowNumbers(int firstRowColumns, final List<Double> lengths)
+    {
+        double[] relativeLengths = relativeLengths(firstRowColumns, lengths);
+        int[] rows = new int[lengths.size()];
+        double totalLength = 0;
+
+        for(int i = 0; i < lengths.size(); ++i)
+        {
+            totalLength += relativeLengths[i];
+            rows[i] = Math.max(1, (int)Math.ceil(totalLength - 1e-9));
+        }
+
+        return rows;
+    }
+
+    private static Map<String,List<Band>> loadBands(final RefGenomeVersion refGenomeVersion)
+    {
+        final Map<String,List<Band>> chromosomeBands = Maps.newHashMap();
+
+        final String[] lines = CytoBands.resourceAsString(refGenomeVersion).split("\n");
+
+        // skip the header
+        for(int i = 1; i < lines.length; ++i)
+        {
+            final String[] values = lines[i].trim().split("\t", -1);
+
+            if(values.length < 5)
+                continue;
+
+            chromosomeBands.computeIfAbsent(stripChrPrefix(values[0]), k -> Lists.newArrayList())
+                    .add(new Band(Integer.parseInt(values[1]), Integer.parseInt(values[2]), stainColor(values[4])));
+        }
+
+        return chromosomeBands;
+    }
+
+    private static Color stainColor(final String stain)
+    {
+        if(stain.equals("acen"))
+            return CENTROMERE;
+
+        if(stain.equals("gvar") || stain.equals("stalk"))
+            return VARIABLE_BAND;
+
+        if(stain.startsWith("gpos"))
+        {
+            int intensity = stain.length() > 4 ? Integer.parseInt(stain.substring(4)) : 100;
+            int level = (int)Math.round(255 * (1 - intensity / 100d));
+            return new Color(level, level, level);
+        }
+
+        return Color.WHITE;
+    }
+
+    private static class Band
+    {
+        public final int Start;
+        public final int End;
+        public final Color Color;
+
+        public Band(final int start, final int end, final Color color)
+        {
+            Start = start;
+            End = end;
+            Color = color;
+        }
+    }
+
+    private static class Cell
+    {
+        public final GenomeRegion Region;
+        public final double Length;
+        public final int Row;
+        public final double X;
+        public final double Width;
+
+        public Cell(final GenomeRegion region, final double length, final int row, final double x, final double width)
+        {
+            Region = region;
+            Length = length;
+            Row = row;
+            X = x;
+            Width = width;
+        }
+    }
+}
@@ -8,9 +8,11 @@ import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.List;
 import java.util.StringJoiner;
 import java.util.function.Function;
 
+import com.google.common.collect.Lists;
 import com.hartwig.hmftools.linx.visualiser.CircosConfig;
 
 import org.apache.logging.log4j.core.util.IOUtils;
@@ -40,6 +42,9 @@ public class CircosConfigWriter
     private final double mapInnerRadius;
     private final double labelSize;
 
+    private final int cnaMaxTracks;
+    private final int mapMaxTracks;
+
     public CircosConfigWriter(final String filename, final String outputDir, final CircosData data, final CircosConfig config)
     {
         this.sample = filename;
@@ -61,9 +66,9 @@ public class CircosConfigWriter
 
         double totalSpaceAvailable = 1 - numberOfGaps * gapSize - config.InnerRadius;
         double purpleSpaceAvailable = copyNumberRelativeSize / totalRelativeSize * totalSpaceAvailable;
-        int cnaGainTracks = Math.max(2, (int) Math.round(Math.ceil(data.maxCopyNumber() - 2)));
-        int mapGainTracks = Math.max(1, (int) Math.round(Math.ceil(data.maxMinorAllelePloidy() - 1)));
-        double purpleTrackSize = purpleSpaceAvailable / (1 + 2 + cnaGainTracks + mapGainTracks);
+        cnaMaxTracks = Math.max(2, (int) Math.round(Math.ceil(data.maxCopyNumber() - 2)));
+        mapMaxTracks = Math.max(1, (int) Math.round(Math.ceil(data.maxMinorAllelePloidy() - 1)));
+        double purpleTrackSize = purpleSpaceAvailable / (1 + 2 + cnaMaxTracks + mapMaxTracks);
 
         if(displayGenes)
         {
@@ -85,11 +90,11 @@ public class CircosConfigWriter
         segmentInnerRadius = segmentOuterRadius - segmentRelativeSize / totalRelativeSize * totalSpaceAvailable;
 
         copyNumberOuterRadius = segmentInnerRadius - gapSize;
-        copyNumberMiddleRadius = copyNumberOuterRadius - cnaGainTracks * purpleTrackSize;
+        copyNumberMiddleRadius = copyNumberOuterRadius - cnaMaxTracks * purpleTrackSize;
         copyNumberInnerRadius = copyNumberMiddleRadius - 2 * purpleTrackSize;
 
         mapOuterRadius = copyNumberInnerRadius - gapSize;
-        mapMiddleRadius = mapOuterRadius - mapGainTracks * purpleTrackSize;
+        mapMiddleRadius = mapOuterRadius - mapMaxTracks * purpleTrackSize;
         mapInnerRadius = mapMiddleRadius - 1 * purpleTrackSize;
     }
 
@@ -101,10 +106,22 @@ public class CircosConfigWriter
         return segmentInnerRadius + track * singleTrack;
     }
 
-    private double segmentOuterRadius()
-    {
-        return segmentOuterRadius;
-    }
+    public double segmentOuterRadius() { return segmentOuterRadius; }
+    public double segmentInnerRadius() { return segmentInnerRadius; }
+    public double exonOuterRadius() { return exonOuterRadius; }
+    public double exonInnerRadius() { return exonInnerRadius; }
+    public double geneOuterRadius() { return geneOuterRadius; }
+    public double geneInnerRadius() { return geneInnerRadius; }
+    public double copyNumberOuterRadius() { return copyNumberOuterRadius; }
+    public double copyNumberMiddleRadius() { return copyNumberMiddleRadius; }
+    public double copyNumberInnerRadius() { return copyNumberInnerRadius; }
+    public double mapOuterRadius() { return mapOuterRadius; }
+    public double mapMiddleRadius() { return mapMiddleRadius; }
+    public double mapInnerRadius() { return mapInnerRadius; }
+    public int cnaMaxTracks() { return cnaMaxTracks; }
+    public int mapMaxTracks() { return mapMaxTracks; }
+
+    public static double distanceLabelOffset(double labelSize) { return Math.ceil(4 * labelSize); }
 
     public String writeConfig(int frame) throws IOException
     {
@@ -114,10 +131,7 @@ public class CircosConfigWriter
         int chromosomeCount = circosData.contigLengths().size();
         int totalContigLength = circosData.totalContigLength();
 
-        int cnaMaxTracks = Math.max(2, (int) Math.round(Math.ceil(circosData.maxCopyNumber() - 2)));
-
-        int mapMaxTracks = Math.max(1, (int) Math.round(Math.ceil(circosData.maxMinorAllelePloidy() - 1)));
-        double distanceLabelOffset = Math.ceil(4 * labelSize);
+        double distanceLabelOffset = distanceLabelOffset(labelSize);
 
         final Charset charset = StandardCharsets.UTF_8;
         final String template =
@@ -172,17 +186,27 @@ public class CircosConfigWriter
         final double rel = 1d / maxTracks;
         final Function<Integer, String> relString = i -> (Math.round(i * rel * 10000) / 10000D) + "r";
 
+        cnaAxisTracks(maxTracks).forEach(x -> builder.add(relString.apply(x)));
+
+        return builder.toString();
+    }
+
+    static List<Integer> cnaAxisTracks(int maxTracks)
+    {
+        // every copy number up to 9, then every 10
+        final List<Integer> tracks = Lists.newArrayList();
+
         for(int i = 1; i <= Math.min(7, maxTracks); i++)
         {
-            builder.add(relString.apply(i));
+            tracks.add(i);
         }
 
         for(int i = 8; i <= maxTracks; i += 10)
         {
-            builder.add(relString.apply(i));
+            tracks.add(i);
         }
 
-        return builder.toString();
+        return tracks;
     }
 
 }
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.linx.visualiser.circos;
 
 import static java.util.stream.Collectors.toList;
 
+import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -11,6 +12,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.function.Function;
@@ -35,19 +37,20 @@ import com.hartwig.hmftools.linx.visualiser.data.VisLinks;
 import com.hartwig.hmftools.linx.visualiser.file.VisGeneExon;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class CircosDataWriter
 {
     private static final DecimalFormat RATIO_FORMAT = new DecimalFormat("#.###", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
     private static final DecimalFormat POSITION_FORMAT = new DecimalFormat("#,###");
-    private static final String SINGLE_BLUE = "(107,174,214)";
-    private static final String SINGLE_RED = "(214,144,107)";
-    private static final String SINGLE_GREEN = "(107,214,148)";
-    private static final String SINGLE_YELLOW = "(214,210,107)";
+    private static final Color SINGLE_BLUE = new Color(107, 174, 214);
+    private static final Color SINGLE_RED = new Color(214, 144, 107);
+    private static final Color SINGLE_GREEN = new Color(107, 214, 148);
+    private static final Color SINGLE_YELLOW = new Color(214, 210, 107);
 
     private static final int MAX_CONTIG_LENGTH_TO_DISPLAY_EXON_RANK = 100000;
 
-    private static final int MIN_KARYOTYPE_LENGTH = 10;
+    static final int MIN_KARYOTYPE_LENGTH = 10;
     private static final String DELIMITER = "\t";
 
     private final String filePrefix;
@@ -68,9 +71,9 @@ public class CircosDataWriter
         this.thickness = new Thickness(circosConfig.MinLineSize, circosConfig.MaxLineSize, data.connectors());
     }
 
-    public Object write() throws IOException
+    static Map<String, Color> geneColors(final CircosData data)
     {
-        final Map<String, String> geneColorMap = Maps.newHashMap();
+        final Map<String, Color> geneColorMap = Maps.newHashMap();
         data.genes().forEach(x ->
         {
             switch (x.type())
@@ -91,7 +94,12 @@ public class CircosDataWriter
         data.upstreamGenes().forEach(x -> geneColorMap.put(x, SINGLE_BLUE));
         data.downstreamGenes().forEach(x -> geneColorMap.put(x, SINGLE_RED));
 
-        int totalContigLength = data.totalContigLength();
+        return geneColorMap;
+    }
+
+    public Object write() throws IOException
+    {
+        final Map<String, Color> geneColorMap = geneColors(data);
 
         final List<VisSegment> segments = data.segments();
         final List<VisSvData> links = data.links();
@@ -104,7 +112,7 @@ public class CircosDataWriter
         Files.write(new File(exonPath).toPath(), exons(geneColorMap, data.disruptedGeneRegions(), exons));
 
         final String exonRankPath = filePrefix + ".exon.rank.circos";
-        Files.write(new File(exonRankPath).toPath(), exonRank(totalContigLength, exons));
+        Files.write(new File(exonRankPath).toPath(), exonRank(data));
 
         final String genePath = filePrefix + ".gene.circos";
         Files.write(new File(genePath).toPath(), genes(geneColorMap, data.genes()));
@@ -173,7 +181,7 @@ public class CircosDataWriter
     }
 
     @NotNull
-    private List<String> genes(final Map<String, String> geneColours, final List<Gene> genes)
+    private List<String> genes(final Map<String, Color> geneColours, final List<Gene> genes)
     {
         final List<String> result = Lists.newArrayList();
         if(!data.displayGenes())
@@ -187,7 +195,7 @@ public class CircosDataWriter
                     .add(String.valueOf(gene.start()))
                     .add(String.valueOf(gene.end()))
                     .add(String.valueOf(1))
-                    .add("fill_color=" + geneColours.get(gene.name()))
+                    .add("fill_color=" + rgb(geneColours.get(gene.name())))
                     .toString();
             result.add(exonString);
 
@@ -197,28 +205,29 @@ public class CircosDataWriter
     }
 
     @NotNull
-    private List<String> exonRank(int totalContigLength, final List<VisGeneExon> exons)
+    private List<String> exonRank(final CircosData data)
     {
-        final List<String> result = Lists.newArrayList();
-        if(!data.displayGenes())
-        {
-            return result;
-        }
+        return exonRankLabels(data).stream()
+                .map(x -> new StringJoiner(DELIMITER).add(circosContig(x.Chromosome))
+                        .add(String.valueOf(x.Position))
+                        .add(String.valueOf(x.Position))
+                        .add(x.Label)
+                        .toString())
+                .collect(toList());
+    }
 
-        if(totalContigLength <= MAX_CONTIG_LENGTH_TO_DISPLAY_EXON_RANK)
-        {
-            for(final VisGeneExon exon : exons)
-            {
-                int position = exon.start() + (exon.end() - exon.start()) / 2;
+    static List<PositionLabel> exonRankLabels(final CircosData data)
+    {
+        // ranks are labelled at the middle of each exon, and only when the plot is small enough for them to be legible
+        final List<PositionLabel> result = Lists.newArrayList();
 
-                final String exonString = new StringJoiner(DELIMITER).add(circosContig(exon.chromosome()))
-                        .add(String.valueOf(position))
-                        .add(String.valueOf(position))
-                        .add(String.valueOf(exon.ExonRank))
-                        .toString();
-                result.add(exonString);
+        if(!data.displayGenes() || data.totalContigLength() > MAX_CONTIG_LENGTH_TO_DISPLAY_EXON_RANK)
+            return result;
 
-            }
+        for(final VisGeneExon exon : data.exons())
+        {
+            int position = exon.start() + (exon.end() - exon.start()) / 2;
+            result.add(new PositionLabel(exon.chromosome(), position, String.valueOf(exon.ExonRank)));
         }
 
         return result;
@@ -247,7 +256,8 @@ public class CircosDataWriter
         return result;
     }
 
-    private List<String> exons(final Map<String, String> geneColours, final List<GenomeRegion> disruptedRegions, final List<VisGeneExon> exons)
+    private List<String> exons(
+            final Map<String, Color> geneColours, final List<GenomeRegion> disruptedRegions, final List<VisGeneExon> exons)
     {
         final List<String> result = Lists.newArrayList();
         if(!data.displayGenes())
@@ -261,7 +271,7 @@ public class CircosDataWriter
                     .add(String.valueOf(exon.start()))
                     .add(String.valueOf(exon.end()))
                     .add(String.valueOf(1))
-                    .add("fill_color=" + geneColours.get(exon.Gene))
+                    .add("fill_color=" + rgb(geneColours.get(exon.Gene)))
                     .toString();
             result.add(exonString);
         }
@@ -292,25 +302,32 @@ public class CircosDataWriter
 
     private List<String> createDistances(final List<VisCopyNumber> unadjustedSegment, final List<VisCopyNumber> segments)
     {
-        final List<String> result = Lists.newArrayList();
+        return distanceLabels(circosConfig, unadjustedSegment, segments).stream()
+                .map(x -> new StringJoiner(DELIMITER).add(circosContig(x.Chromosome))
+                        .add(String.valueOf(x.Start))
+                        .add(String.valueOf(x.End))
+                        .add(x.Label)
+                        .toString())
+                .collect(toList());
+    }
+
+    static List<RegionLabel> distanceLabels(
+            final CircosConfig circosConfig, final List<VisCopyNumber> unadjustedSegment, final List<VisCopyNumber> segments)
+    {
+        // each scaled copy number segment is labelled with its unscaled length, unless there are too many to label
+        final List<RegionLabel> result = Lists.newArrayList();
         int unadjustedSegments = (int)segments.stream().filter(x -> !x.Truncated).count();
-        if(unadjustedSegments <= circosConfig.MaxNumberOfDistanceLabels)
+
+        if(unadjustedSegments > circosConfig.MaxNumberOfDistanceLabels)
+            return result;
+
+        for(int i = 0; i < unadjustedSegment.size(); i++)
         {
-            for(int i = 0; i < unadjustedSegment.size(); i++)
-            {
-                final VisCopyNumber adjusted = segments.get(i);
-                final VisCopyNumber unadjusted = unadjustedSegment.get(i);
-                if(!adjusted.Truncated)
-                {
-                    final String distance = new StringJoiner(DELIMITER).add(circosContig(adjusted.chromosome()))
-                            .add(String.valueOf(adjusted.start()))
-                            .add(String.valueOf(adjusted.end()))
-                            .add(shorthand(unadjusted.bases()))
-                            .toString();
-                    result.add(distance);
-                }
-            }
+            final VisCopyNumber adjusted = segments.get(i);
+            final VisCopyNumber unadjusted = unadjustedSegment.get(i);
 
+            if(!adjusted.Truncated)
+                result.add(new RegionLabel(adjusted.chromosome(), adjusted.start(), adjusted.end(), shorthand(unadjusted.bases())));
         }
 
         return result;
@@ -403,7 +420,7 @@ public class CircosDataWriter
         return result;
     }
 
-    private String scatterGlyph(boolean isStart, final VisSegment segment, final List<VisSvData> links)
+    static String scatterGlyph(boolean isStart, final VisSegment segment, final List<VisSvData> links)
     {
         int location = isStart ? segment.start() : segment.end();
         final SegmentTerminal terminal = isStart ? segment.startTerminal() : segment.endTerminal();
@@ -539,31 +556,47 @@ public class CircosDataWriter
     }
 
     private List<String> createPositionText(final List<VisSvData> originalLinks, final List<VisSvData> scaledLinks)
+    {
+        return positionLabels(circosConfig, originalLinks, scaledLinks).stream()
+                .map(x -> new StringJoiner(DELIMITER).add(circosContig(x.Chromosome))
+                        .add(String.valueOf(x.Position))
+                        .add(String.valueOf(x.Position))
+                        .add(x.Label)
+                        .toString())
+                .sorted()
+                .distinct()
+                .collect(toList());
+    }
+
+    static List<PositionLabel> positionLabels(
+            final CircosConfig circosConfig, final List<VisSvData> originalLinks, final List<VisSvData> scaledLinks)
     {
         final List<AdjustedPosition> positions = AdjustedPositions.create(originalLinks, scaledLinks);
         if(circosConfig.ExactPosition)
         {
-            return createPositionText(1, positions, POSITION_FORMAT::format);
+            return positionLabels(circosConfig, 1, positions, POSITION_FORMAT::format);
         }
 
-        final List<String> positionsEvery100k = createPositionText(100_000, positions, CircosDataWriter::shorthand);
+        final List<PositionLabel> positionsEvery100k = positionLabels(circosConfig, 100_000, positions, CircosDataWriter::shorthand);
         if(positionsEvery100k.size() < circosConfig.MaxNumberOfPositionLabels)
         {
             return positionsEvery100k;
         }
 
-        final List<String> positionsEvery1M = createPositionText(1_000_000, positions, CircosDataWriter::shorthand);
+        final List<PositionLabel> positionsEvery1M = positionLabels(circosConfig, 1_000_000, positions, CircosDataWriter::shorthand);
         if(positionsEvery1M.size() < circosConfig.MaxNumberOfPositionLabels)
         {
             return positionsEvery1M;
         }
 
-        return createPositionText(10_000_000, positions, CircosDataWriter::shorthand);
+        return positionLabels(circosConfig, 10_000_000, positions, CircosDataWriter::shorthand);
     }
 
-    private List<String> createPositionText(int minDistance, final List<AdjustedPosition> positions, final Function<Integer,String> formatter)
+    private static List<PositionLabel> positionLabels(
+            final CircosConfig circosConfig, int minDistance, final List<AdjustedPosition> positions,
+            final Function<Integer,String> formatter)
     {
-        final Set<String> result = Sets.newHashSet();
+        final Set<PositionLabel> result = Sets.newHashSet();
         final Set<String> contigs = positions.stream().map(GenomePosition::chromosome).collect(Collectors.toSet());
 
         for(final String contig : contigs)
@@ -584,20 +617,63 @@ public class CircosDataWriter
                             positionLabel += String.format(":%d", adjustedPosition.svId());
                         }
 
-                        final String start = new StringJoiner(DELIMITER).add(circosContig(contig))
-                                .add(String.valueOf(adjustedPosition.position()))
-                                .add(String.valueOf(adjustedPosition.position()))
-                                .add(positionLabel)
-                                .toString();
-
-                        result.add(start);
+                        result.add(new PositionLabel(contig, adjustedPosition.position(), positionLabel));
                         currentPosition = newPosition;
                     }
                 }
             }
         }
 
-        return result.stream().sorted().distinct().collect(toList());
+        return Lists.newArrayList(result);
+    }
+
+    static class PositionLabel
+    {
+        public final String Chromosome;
+        public final int Position;
+        public final String Label;
+
+        public PositionLabel(final String chromosome, final int position, final String label)
+        {
+            Chromosome = chromosome;
+            Position = position;
+            Label = label;
+        }
+
+        @Override
+        public boolean equals(final Object other)
+        {
+            if(this == other)
+                return true;
+
+            if(!(other instanceof PositionLabel))
+                return false;
+
+            final PositionLabel otherLabel = (PositionLabel)other;
+            return Chromosome.equals(otherLabel.Chromosome) && Position == otherLabel.Position && Label.equals(otherLabel.Label);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(Chromosome, Position, Label);
+        }
+    }
+
+    static class RegionLabel
+    {
+        public final String Chromosome;
+        public final int Start;
+        public final int End;
+        public final String Label;
+
+        public RegionLabel(final String chromosome, final int start, final int end, final String label)
+        {
+            Chromosome = chromosome;
+            Start = start;
+            End = end;
+            Label = label;
+        }
     }
 
     @NotNull
@@ -606,6 +682,15 @@ public class CircosDataWriter
         return "hs" + HumanChromosome.fromString(chromosome);
     }
 
+    @NotNull
+    private static String rgb(@Nullable final Color color)
+    {
+        if(color == null)
+            return "null";
+
+        return "(" + color.getRed() + "," + color.getGreen() + "," + color.getBlue() + ")";
+    }
+
     @NotNull
     private String thicknessString(double usage)
     {
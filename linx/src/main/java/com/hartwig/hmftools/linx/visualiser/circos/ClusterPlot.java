@@ -0,0 +1,534 @@
+package com.hartwig.hmftools.linx.visualiser.circos;
+
+import static com.hartwig.hmftools.linx.visualiser.circos.CircosDataWriter.MIN_KARYOTYPE_LENGTH;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.QuadCurve2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
+import com.hartwig.hmftools.common.genome.region.GenomeRegion;
+import com.hartwig.hmftools.linx.visualiser.CircosConfig;
+import com.hartwig.hmftools.linx.visualiser.data.Connector;
+import com.hartwig.hmftools.linx.visualiser.data.Gene;
+import com.hartwig.hmftools.linx.visualiser.file.VisCopyNumber;
+import com.hartwig.hmftools.linx.visualiser.file.VisGeneExon;
+import com.hartwig.hmftools.linx.visualiser.file.VisSegment;
+import com.hartwig.hmftools.linx.visualiser.file.VisSvData;
+
+public class ClusterPlot
+{
+    // draws the circular cluster plot described by the Circos cluster template, using the same track radii and colours
+    public static final int IMAGE_SIZE = 3000;
+
+    private static final double CONTIG_SPACING = 0.005;
+    private static final int IDEOGRAM_THICKNESS = 50;
+    private static final int CONTIG_LABEL_SIZE = 40;
+    private static final int POSITION_LABEL_PADDING = 10;
+    private static final int EXON_RANK_PADDING = 5;
+
+    private static final Color FAINT = new Color(229, 229, 229);
+    private static final Color IDEOGRAM_STROKE = new Color(100, 100, 100);
+    private static final Color HIGHLIGHT = new Color(0, 0, 0, 43);
+    private static final Color DISRUPTED_EXON = new Color(255, 255, 255, 153);
+
+    private static final Color SV_BACKGROUND = new Color(218, 218, 235, 43);
+    private static final Color COPY_GAIN = new Color(166, 209, 122);
+    private static final Color COPY_GAIN_AXIS = new Color(205, 229, 181);
+    private static final Color COPY_GAIN_BACKGROUND = new Color(244, 249, 239);
+    private static final Color COPY_LOSS = new Color(222, 119, 174);
+    private static final Color COPY_LOSS_AXIS = new Color(237, 182, 212);
+    private static final Color COPY_LOSS_BACKGROUND = new Color(253, 245, 249);
+    private static final Color MAP_GAIN = Color.BLUE;
+    private static final Color MAP_GAIN_AXIS = new Color(158, 202, 225);
+    private static final Color MAP_GAIN_BACKGROUND = new Color(198, 219, 239, 43);
+    private static final Color MAP_LOSS = Color.ORANGE;
+    private static final Color MAP_LOSS_AXIS = new Color(253, 174, 107);
+    private static final Color MAP_LOSS_BACKGROUND = new Color(253, 208, 162, 43);
+
+    private final CircosData mData;
+    private final CircosConfig mConfig;
+    private final CircosConfigWriter mTracks;
+    private final ColorPicker mColorPicker;
+    private final Thickness mThickness;
+
+    private final List<GenomePosition> mContigs;
+    private final Map<String,Double> mContigStartAngles;
+    private final double mDegreesPerBase;
+
+    private final double mCentre;
+    private final double mIdeogramOuterRadius;
+    private final double mIdeogramInnerRadius;
+
+    public ClusterPlot(final CircosData data, final CircosConfig config, final CircosConfigWriter tracks, final ColorPicker colorPicker)
+    {
+        mData = data;
+        mConfig = config;
+        mTracks = tracks;
+        mColorPicker = colorPicker;
+        mThickness = new Thickness(config.MinLineSize, config.MaxLineSize, data.connectors());
+
+        mCentre = IMAGE_SIZE / 2d;
+        mIdeogramOuterRadius = config.OuterRadius * mCentre;
+        mIdeogramInnerRadius = mIdeogramOuterRadius - IDEOGRAM_THICKNESS;
+
+        // contigs run clockwise from the top of the image, separated by a fixed fraction of their total length
+        mContigs = Lists.newArrayList(data.contigLengths());
+        Collections.sort(mContigs);
+
+        double totalLength = mContigs.stream().mapToDouble(ClusterPlot::contigLength).sum();
+        double spacing = CONTIG_SPACING * totalLength;
+        mDegreesPerBase = 360 / (totalLength + spacing * mContigs.size());
+
+        mContigStartAngles = Maps.newHashMap();
+        double angle = spacing / 2 * mDegreesPerBase;
+
+        for(GenomePosition contig : mContigs)
+        {
+            mContigStartAngles.put(contigKey(contig.chromosome()), angle);
+            angle += (contigLength(contig) + spacing) * mDegreesPerBase;
+        }
+    }
+
+    public void render(final Graphics2D graphics, int frame)
+    {
+        drawBackgrounds(graphics);
+        drawCopyNumbers(graphics);
+
+        if(mData.displayGenes())
+            drawGenes(graphics);
+
+        mData.fragileSites().forEach(x ->
+                fillRegion(graphics, x, mTracks.copyNumberInnerRadius(), mTracks.copyNumberMiddleRadius(), HIGHLIGHT));
+
+        mData.lineElements().forEach(x ->
+                fillRegion(graphics, x, mTracks.copyNumberMiddleRadius(), mTracks.copyNumberOuterRadius(), HIGHLIGHT));
+
+        drawSegments(graphics, frame);
+        drawConnectors(graphics, frame);
+        drawLinks(graphics, frame);
+        drawScatter(graphics, frame);
+
+        drawIdeogram(graphics);
+        drawPositionLabels(graphics);
+        drawDistanceLabels(graphics);
+    }
+
+    private void drawBackgrounds(final Graphics2D graphics)
+    {
+        for(GenomePosition contig : mContigs)
+        {
+            double start = angle(contig.chromosome(), 1);
+            double end = angle(contig.chromosome(), (int)contigLength(contig));
+
+            fillSector(graphics, start, end, mTracks.segmentInnerRadius(), mTracks.segmentOuterRadius(), SV_BACKGROUND);
+            fillSector(graphics, start, end, mTracks.copyNumberMiddleRadius(), mTracks.copyNumberOuterRadius(), COPY_GAIN_BACKGROUND);
+            fillSector(graphics, start, end, mTracks.copyNumberInnerRadius(), mTracks.copyNumberMiddleRadius(), COPY_LOSS_BACKGROUND);
+            fillSector(graphics, start, end, mTracks.mapMiddleRadius(), mTracks.mapOuterRadius(), MAP_GAIN_BACKGROUND);
+            fillSector(graphics, start, end, mTracks.mapInnerRadius(), mTracks.mapMiddleRadius(), MAP_LOSS_BACKGROUND);
+
+            int cnaMaxTracks = mTracks.cnaMaxTracks();
+            double cnaTrackSize = (mTracks.copyNumberOuterRadius() - mTracks.copyNumberMiddleRadius()) / cnaMaxTracks;
+
+            for(Integer track : CircosConfigWriter.cnaAxisTracks(cnaMaxTracks))
+            {
+                drawAxis(graphics, start, end, mTracks.copyNumberMiddleRadius() + track * cnaTrackSize, COPY_GAIN_AXIS, 3);
+            }
+
+            drawAxis(graphics, start, end, (mTracks.copyNumberInnerRadius() + mTracks.copyNumberMiddleRadius()) / 2, COPY_LOSS_AXIS, 3);
+
+            int mapMaxTracks = mTracks.mapMaxTracks();
+            double mapTrackSize = (mTracks.mapOuterRadius() - mTracks.mapMiddleRadius()) / mapMaxTracks;
+
+            for(int track = 0; track <= mapMaxTracks; ++track)
+            {
+                drawAxis(graphics, start, end, mTracks.mapMiddleRadius() + track * mapTrackSize, MAP_GAIN_AXIS, 1);
+            }
+
+            drawAxis(graphics, start, end, mTracks.mapInnerRadius(), MAP_LOSS_AXIS, 1);
+            drawAxis(graphics, start, end, mTracks.mapMiddleRadius(), MAP_LOSS_AXIS, 1);
+        }
+    }
+
+    private void drawCopyNumbers(final Graphics2D graphics)
+    {
+        final List<VisCopyNumber> alterations = mData.copyNumbers();
+
+        drawHistogram(graphics, alterations, x -> x.CopyNumber - 2,
+                mTracks.copyNumberMiddleRadius(), mTracks.copyNumberOuterRadius(), 0, mTracks.cnaMaxTracks(), COPY_GAIN);
+
+        drawHistogram(graphics, alterations, x -> x.CopyNumber - 2,
+                mTracks.copyNumberInnerRadius(), mTracks.copyNumberMiddleRadius(), -2, 0, COPY_LOSS);
+
+        drawHistogram(graphics, alterations, x -> x.minorAlleleCopyNumber() - 1,
+                mTracks.mapMiddleRadius(), mTracks.mapOuterRadius(), 0, mTracks.mapMaxTracks(), MAP_GAIN);
+
+        drawHistogram(graphics, alterations, x -> x.minorAlleleCopyNumber() - 1,
+                mTracks.mapInnerRadius(), mTracks.mapMiddleRadius(), -1, 0, MAP_LOSS);
+    }
+
+    private void drawHistogram(
+            final Graphics2D graphics, final List<VisCopyNumber> alterations, final ToDoubleFunction<VisCopyNumber> valueFunction,
+            double innerRadius, double outerRadius, double min, double max, final Color color)
+    {
+        // bars extend from zero towards the value, clipped to the track's range as Circos does
+        double zeroRadius = histogramRadius(0, innerRadius, outerRadius, min, max);
+
+        for(VisCopyNumber alteration : alterations)
+        {
+            double valueRadius = histogramRadius(valueFunction.applyAsDouble(alteration), innerRadius, outerRadius, min, max);
+
+            if(Math.abs(valueRadius - zeroRadius) > 0)
+            {
+                fillRegion(graphics, alteration, Math.min(zeroRadius, valueRadius), Math.max(zeroRadius, valueRadius), color);
+            }
+        }
+    }
+
+    private static double histogramRadius(double value, double innerRadius, double outerRadius, double min, double max)
+    {
+        double boundedValue = Math.min(Math.max(value, min), max);
+        return innerRadius + (boundedValue - min) / (max - min) * (outerRadius - innerRadius);
+    }
+
+    private void drawGenes(final Graphics2D graphics)
+    {
+        final Map<String,Color> geneColors = CircosDataWriter.geneColors(mData);
+
+        for(Gene gene : mData.genes())
+        {
+            Color color = geneColors.get(gene.name());
+
+            if(color != null)
+                fillRegion(graphics, gene, mTracks.geneInnerRadius(), mTracks.geneOuterRadius(), color);
+        }
+
+        for(VisGeneExon exon : mData.exons())
+        {
+            Color color = geneColors.get(exon.Gene);
+
+            if(color != null)
+                fillRegion(graphics, exon, mTracks.exonInnerRadius(), mTracks.exonOuterRadius(), color);
+        }
+
+        mData.disruptedGeneRegions().forEach(x ->
+                fillRegion(graphics, x, mTracks.exonInnerRadius(), mTracks.exonOuterRadius(), DISRUPTED_EXON));
+
+        final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, (int)Math.round(mData.geneLabelSize()));
+
+        for(Gene gene : mData.genes())
+        {
+            drawRadialText(graphics, gene.name(), font, angle(gene.chromosome(), (int)gene.namePosition()),
+                    mTracks.exonOuterRadius() * mIdeogramInnerRadius + POSITION_LABEL_PADDING);
+        }
+
+        final Font rankFont = new Font(Font.SANS_SERIF, Font.PLAIN, (int)Math.round(mData.labelSize()));
+
+        for(CircosDataWriter.PositionLabel label : CircosDataWriter.exonRankLabels(mData))
+        {
+            drawRadialText(graphics, label.Label, rankFont, angle(label.Chromosome, label.Position),
+                    mTracks.exonOuterRadius() * mIdeogramInnerRadius + EXON_RANK_PADDING);
+        }
+    }
+
+    private void drawSegments(final Graphics2D graphics, int frame)
+    {
+        for(VisSegment segment : mData.segments())
+        {
+            if(segment.Track <= 0)
+                continue;
+
+            double radius = mTracks.svTrackRelative(segment.Track) * mIdeogramInnerRadius;
+            double halfThickness = mThickness.thicknessPixels(segment.LinkPloidy) / 2;
+            Color color = segment.Frame > frame ? FAINT : mColorPicker.transparentAwtColor(segment.ClusterId, segment.ChainId);
+
+            graphics.setColor(color);
+            graphics.fill(sector(
+                    angle(segment.chromosome(), segment.start()), angle(segment.chromosome(), segment.end()),
+                    radius - halfThickness, radius + halfThickness));
+        }
+    }
+
+    private void drawConnectors(final Graphics2D graphics, int frame)
+    {
+        double innerRadius = mTracks.mapInnerRadius() * mIdeogramInnerRadius;
+
+        for(Connector connector : mData.connectors())
+        {
+            double angle = angle(connector.chromosome(), connector.position());
+            double outerRadius = mTracks.svTrackRelative(connector.track()) * mIdeogramInnerRadius;
+
+            graphics.setColor(connector.frame() > frame
+                    ? FAINT : mColorPicker.transparentAwtColor(connector.clusterId(), connector.chainId()));
+            graphics.setStroke(new BasicStroke((float)mThickness.thicknessPixels(connector.ploidy())));
+            graphics.draw(new Line2D.Double(point(angle, innerRadius), point(angle, outerRadius)));
+        }
+    }
+
+    private void drawLinks(final Graphics2D graphics, int frame)
+    {
+        // links are bezier curves through the centre of the plot
+        double radius = mTracks.mapInnerRadius() * mIdeogramInnerRadius;
+
+        for(VisSvData link : mData.links())
+        {
+            if(!HumanChromosome.contains(link.ChrStart) || !HumanChromosome.contains(link.ChrEnd))
+                continue;
+
+            final Point2D start = point(angle(link.ChrStart, link.PosStart), radius);
+            final Point2D end = point(angle(link.ChrEnd, link.PosEnd), radius);
+
+            graphics.setColor(link.Frame > frame ? FAINT : mColorPicker.transparentAwtColor(link.ClusterId, link.ChainId));
+            graphics.setStroke(new BasicStroke((float)mThickness.thicknessPixels(link.JCN)));
+            graphics.draw(new QuadCurve2D.Double(start.getX(), start.getY(), mCentre, mCentre, end.getX(), end.getY()));
+        }
+    }
+
+    private void drawScatter(final Graphics2D graphics, int frame)
+    {
+        double glyphSize = mConfig.GlyphSize;
+        double innerGlyphSize = Math.floor(mConfig.GlyphSize * 14d / 20d);
+
+        for(VisSegment segment : mData.segments())
+        {
+            if(segment.Track == 0)
+                continue;
+
+            double radius = mTracks.svTrackRelative(segment.Track) * mIdeogramInnerRadius;
+            Color color = segment.Frame > frame ? FAINT : mColorPicker.transparentAwtColor(segment.ClusterId, segment.ChainId);
+
+            for(boolean isStart : new boolean[] { true, false })
+            {
+                final Point2D centre = point(angle(segment.chromosome(), isStart ? segment.start() : segment.end()), radius);
+                final String glyph = CircosDataWriter.scatterGlyph(isStart, segment, mData.links());
+
+                graphics.setColor(color);
+                graphics.fill(glyph(glyph, centre, glyphSize));
+
+                if((isStart ? segment.startTerminal() : segment.endTerminal()) == SegmentTerminal.CENTROMERE)
+                {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fill(glyph(glyph, centre, innerGlyphSize));
+                }
+            }
+        }
+
+        // open circles at single breakends
+        double sglRadius = mTracks.mapInnerRadius() * mIdeogramInnerRadius;
+
+        for(VisSvData link : mData.links())
+        {
+            if(link.isValidStart() && !link.isValidEnd())
+            {
+                final Point2D centre = point(angle(link.ChrStart, link.PosStart), sglRadius);
+
+                graphics.setColor(mColorPicker.transparentAwtColor(link.ClusterId, link.ChainId));
+                graphics.fill(glyph("circle", centre, glyphSize));
+                graphics.setColor(Color.WHITE);
+                graphics.fill(glyph("circle", centre, innerGlyphSize));
+            }
+        }
+    }
+
+    private static Shape glyph(final String glyph, final Point2D centre, double size)
+    {
+        double half = size / 2;
+
+        switch(glyph)
+        {
+            case "square":
+                return new Rectangle2D.Double(centre.getX() - half, centre.getY() - half, size, size);
+
+            case "triangle":
+                Path2D.Double triangle = new Path2D.Double();
+                triangle.moveTo(centre.getX(), centre.getY() - half);
+                triangle.lineTo(centre.getX() + half, centre.getY() + half);
+                triangle.lineTo(centre.getX() - half, centre.getY() + half);
+                triangle.closePath();
+                return triangle;
+
+            default:
+                return new Ellipse2D.Double(centre.getX() - half, centre.getY() - half, size, size);
+        }
+    }
+
+    private void drawIdeogram(final Graphics2D graphics)
+    {
+        final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, CONTIG_LABEL_SIZE);
+        double labelRadius = (mIdeogramInnerRadius + mIdeogramOuterRadius) / 2 - 15;
+
+        for(GenomePosition contig : mContigs)
+        {
+            double start = angle(contig.chromosome(), 1);
+            double end = angle(contig.chromosome(), (int)contigLength(contig));
+            Shape shape = sector(start, end, mIdeogramInnerRadius, mIdeogramOuterRadius);
+
+            graphics.setColor(ColorPicker.contigColour(contig.chromosome()));
+            graphics.fill(shape);
+            graphics.setColor(IDEOGRAM_STROKE);
+            graphics.setStroke(new BasicStroke(2));
+            graphics.draw(shape);
+
+            // as in the template, 6 and 9 are marked so they can be distinguished when upside down
+            String name = HumanChromosome.fromString(contig.chromosome()).toString();
+            String label = "CHR" + name + (name.equals("6") || name.equals("9") ? "." : "");
+            drawParallelText(graphics, label, font, (start + end) / 2, labelRadius);
+        }
+    }
+
+    private void drawPositionLabels(final Graphics2D graphics)
+    {
+        final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, (int)Math.round(mData.labelSize()));
+
+        for(CircosDataWriter.PositionLabel label : CircosDataWriter.positionLabels(mConfig, mData.unadjustedLinks(), mData.links()))
+        {
+            drawRadialText(graphics, label.Label, font, angle(label.Chromosome, label.Position),
+                    mIdeogramOuterRadius + POSITION_LABEL_PADDING);
+        }
+    }
+
+    private void drawDistanceLabels(final Graphics2D graphics)
+    {
+        // drawn inside the outer edge of the copy number track, as the Circos distance text track is
+        final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, (int)Math.round(mData.labelSize()));
+        double radius = mTracks.copyNumberOuterRadius() * mIdeogramInnerRadius - CircosConfigWriter.distanceLabelOffset(mData.labelSize());
+
+        final List<CircosDataWriter.RegionLabel> labels = CircosDataWriter.distanceLabels(
+                mConfig, mData.unadjustedAlterations(), mData.copyNumbers());
+
+        for(CircosDataWriter.RegionLabel label : labels)
+        {
+            double startAngle = angle(label.Chromosome, label.Start);
+            double endAngle = angle(label.Chromosome, label.End);
+            drawRadialText(graphics, label.Label, font, (startAngle + endAngle) / 2, radius);
+        }
+    }
+
+    private void drawAxis(
+            final Graphics2D graphics, double startAngle, double endAngle, double relativeRadius, final Color color, float width)
+    {
+        double radius = relativeRadius * mIdeogramInnerRadius;
+
+        graphics.setColor(color);
+        graphics.setStroke(new BasicStroke(width));
+        graphics.draw(arc(radius, 90 - startAngle, startAngle - endAngle));
+    }
+
+    private void fillRegion(final Graphics2D graphics, final GenomeRegion region, double innerRadius, double outerRadius, final Color color)
+    {
+        fillSector(graphics, angle(region.chromosome(), region.start()), angle(region.chromosome(), region.end()),
+                innerRadius, outerRadius, color);
+    }
+
+    private void fillSector(
+            final Graphics2D graphics, double startAngle, double endAngle, double innerRadius, double outerRadius, final Color color)
+    {
+        graphics.setColor(color);
+        graphics.fill(sector(startAngle, endAngle, innerRadius * mIdeogramInnerRadius, outerRadius * mIdeogramInnerRadius));
+    }
+
+    private Shape sector(double startAngle, double endAngle, double innerRadius, double outerRadius)
+    {
+        // angles are in degrees clockwise from the top, and regions are drawn at least a pixel wide
+        double minExtent = Math.toDegrees(1 / Math.max(outerRadius, 1));
+        double extent = Math.max(endAngle - startAngle, minExtent);
+
+        Path2D.Double path = new Path2D.Double();
+        path.append(arc(outerRadius, 90 - startAngle, -extent), false);
+        path.append(arc(innerRadius, 90 - startAngle - extent, extent), true);
+        path.closePath();
+        return path;
+    }
+
+    private Arc2D arc(double radius, double javaStartAngle, double extent)
+    {
+        return new Arc2D.Double(mCentre - radius, mCentre - radius, 2 * radius, 2 * radius, javaStartAngle, extent, Arc2D.OPEN);
+    }
+
+    private void drawRadialText(final Graphics2D graphics, final String text, final Font font, double angle, double radius)
+    {
+        // reads outwards from the radius, flipped on the left half so it is never upside down
+        graphics.setFont(font);
+        graphics.setColor(Color.BLACK);
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        final AffineTransform transform = graphics.getTransform();
+        final Point2D anchor = point(angle, radius);
+        graphics.translate(anchor.getX(), anchor.getY());
+
+        double verticalOffset = (metrics.getAscent() - metrics.getDescent()) / 2d;
+
+        if(angle <= 180)
+        {
+            graphics.rotate(Math.toRadians(angle - 90));
+            graphics.drawString(text, 0, (float)verticalOffset);
+        }
+        else
+        {
+            graphics.rotate(Math.toRadians(angle + 90));
+            graphics.drawString(text, -metrics.stringWidth(text), (float)verticalOffset);
+        }
+
+        graphics.setTransform(transform);
+    }
+
+    private void drawParallelText(final Graphics2D graphics, final String text, final Font font, double angle, double radius)
+    {
+        // follows the circle, flipped on the bottom half so it is never upside down
+        graphics.setFont(font);
+        graphics.setColor(Color.BLACK);
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        final AffineTransform transform = graphics.getTransform();
+        final Point2D anchor = point(angle, radius);
+        graphics.translate(anchor.getX(), anchor.getY());
+
+        boolean isBottom = angle > 90 && angle < 270;
+        graphics.rotate(Math.toRadians(isBottom ? angle + 180 : angle));
+
+        double verticalOffset = (metrics.getAscent() - metrics.getDescent()) / 2d;
+        graphics.drawString(text, -metrics.stringWidth(text) / 2f, (float)verticalOffset);
+
+        graphics.setTransform(transform);
+    }
+
+    private Point2D point(double angle, double radius)
+    {
+        double radians = Math.toRadians(angle);
+        return new Point2D.Double(mCentre + radius * Math.sin(radians), mCentre - radius * Math.cos(radians));
+    }
+
+    private double angle(final String chromosome, int position)
+    {
+        Double startAngle = mContigStartAngles.get(contigKey(chromosome));
+        return startAngle != null ? startAngle + (position - 1) * mDegreesPerBase : 0;
+    }
+
+    private static String contigKey(final String chromosome)
+    {
+        return HumanChromosome.fromString(chromosome).toString();
+    }
+
+    private static double contigLength(final GenomePosition contig)
+    {
+        return Math.max(MIN_KARYOTYPE_LENGTH, contig.position());
+    }
+}
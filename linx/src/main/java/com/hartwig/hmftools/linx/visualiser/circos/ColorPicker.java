@@ -86,7 +86,7 @@ public class ColorPicker
     private static final Color[] COLOURS = new Color[] { COLOR1, COLOR2, COLOR3, COLOR4, COLOR5, COLOR6, COLOR7, COLOR8 };
 
     private final boolean clusterMode;
-    private final Map<Integer, String> colorMap;
+    private final Map<Integer, Color> colorMap;
     private final double connectorTransparency;
 
     @NotNull
@@ -101,7 +101,7 @@ public class ColorPicker
         return new ColorPicker(colorsByChain(links), false, connectorTransparency(links.size()));
     }
 
-    private ColorPicker(@NotNull final Map<Integer, String> colorMap, final boolean clusterMode, final double connectorTransparency)
+    private ColorPicker(@NotNull final Map<Integer, Color> colorMap, final boolean clusterMode, final double connectorTransparency)
     {
         this.clusterMode = clusterMode;
         this.colorMap = colorMap;
@@ -117,10 +117,23 @@ public class ColorPicker
 
     @NotNull
     public String color(final int clusterId, final int chainId)
+    {
+        return toString(opaqueColor(clusterId, chainId));
+    }
+
+    @NotNull
+    public Color transparentAwtColor(final int clusterId, final int chainId)
+    {
+        final Color color = opaqueColor(clusterId, chainId);
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), (int)Math.round(connectorTransparency * 255));
+    }
+
+    @NotNull
+    private Color opaqueColor(final int clusterId, final int chainId)
     {
         if(clusterId == -1 || chainId == -1)
         {
-            return toString(BLACK);
+            return BLACK;
         }
 
         return clusterMode ? colorMap.get(clusterId) : colorMap.get(chainId);
@@ -133,17 +146,17 @@ public class ColorPicker
     }
 
     @NotNull
-    private static String simpleSvColor(@NotNull final StructuralVariantType type)
+    private static Color simpleSvColor(@NotNull final StructuralVariantType type)
     {
         switch (type)
         {
             case DEL:
-                return toString(DEL);
+                return DEL;
             case DUP:
-                return toString(DUP);
+                return DUP;
         }
 
-        return toString(INS);
+        return INS;
     }
 
     private static class ClusterSize
@@ -160,9 +173,9 @@ public class ColorPicker
     }
 
     @NotNull
-    private static Map<Integer, String> colorsByCluster(@NotNull final List<VisSvData> links)
+    private static Map<Integer, Color> colorsByCluster(@NotNull final List<VisSvData> links)
     {
-        final Map<Integer, String> result = Maps.newHashMap();
+        final Map<Integer, Color> result = Maps.newHashMap();
 
         final Comparator<ClusterSize> longComparator = Comparator.<ClusterSize>comparingLong(x -> x.count).reversed();
 
@@ -176,7 +189,7 @@ public class ColorPicker
 
         for(int i = 0; i < clusterSizeList.size(); i++)
         {
-            String color = i < COLOURS.length ? ColorPicker.toString(COLOURS[i]) : "color=black";
+            Color color = i < COLOURS.length ? COLOURS[i] : Color.BLACK;
             result.put(clusterSizeList.get(i).clusterId, color);
         }
 
@@ -188,7 +201,7 @@ public class ColorPicker
             }
             else if(link.isLineElement())
             {
-                result.put(link.ClusterId, toString(LINE));
+                result.put(link.ClusterId, LINE);
             }
         }
 
@@ -196,9 +209,9 @@ public class ColorPicker
     }
 
     @NotNull
-    private static Map<Integer, String> colorsByChain(@NotNull final List<VisSvData> links)
+    private static Map<Integer, Color> colorsByChain(@NotNull final List<VisSvData> links)
     {
-        final Map<Integer,String> result = Maps.newHashMap();
+        final Map<Integer, Color> result = Maps.newHashMap();
 
         if(!links.isEmpty())
         {
@@ -206,12 +219,12 @@ public class ColorPicker
 
             if(firstLink.isSimpleSV() && !firstLink.InDoubleMinute)
             {
-                final String color = simpleSvColor(firstLink.Type);
+                final Color color = simpleSvColor(firstLink.Type);
                 links.forEach(x -> result.put(x.ChainId, color));
             }
             else if(firstLink.isLineElement())
             {
-                links.forEach(x -> result.put(x.ChainId, toString(LINE)));
+                links.forEach(x -> result.put(x.ChainId, LINE));
             }
             else
             {
@@ -225,11 +238,11 @@ public class ColorPicker
                     int chainId = chainIds.get(i);
                     if(dmChainIds.contains(chainId))
                     {
-                        result.put(chainId, toString(DOUBLE_MINUTE));
+                        result.put(chainId, DOUBLE_MINUTE);
                     }
                     else
                     {
-                        final String color = i < COLOURS.length ? toString(COLOURS[i]) : toString(BLACK);
+                        final Color color = i < COLOURS.length ? COLOURS[i] : BLACK;
                         result.put(chainId, color);
                     }
                 }
@@ -74,4 +74,6 @@ public class FusionDataWriter
     }
 
     public List<FusedExon> finalExons() { return mFinalExons; }
+    public List<VisProteinDomain> finalProteinDomains() { return mFinalProteinDomains; }
+    public ProteinDomainColors proteinDomainColors() { return mProteinDomainColors; }
 }
@@ -0,0 +1,233 @@
+package com.hartwig.hmftools.linx.visualiser.circos;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.linx.visualiser.CircosConfig;
+import com.hartwig.hmftools.linx.visualiser.data.FusedExon;
+import com.hartwig.hmftools.linx.visualiser.file.VisProteinDomain;
+
+public class FusionPlot
+{
+    // draws each fusion's exons and protein domains with a legend of the domains, as fusionPlot.R does
+    private static final Color UP_GENE = new Color(107, 174, 214);
+    private static final Color DOWN_GENE = new Color(214, 144, 107);
+    private static final Color FADED_AREA = new Color(255, 255, 255, 153);
+
+    private static final int DOMAIN_ALPHA = 204;
+    private static final double MARGIN = 0.02;
+
+    private final CircosConfig mConfig;
+    private final List<String> mFusions;
+    private final Map<String,List<FusedExon>> mFusionExons;
+    private final Map<String,List<VisProteinDomain>> mFusionProteinDomains;
+    private final Map<String,Color> mLegendColors;
+    private final ProteinDomainColors mProteinDomainColors;
+
+    public FusionPlot(final FusionDataWriter fusionData, final CircosConfig config)
+    {
+        mConfig = config;
+        mProteinDomainColors = fusionData.proteinDomainColors();
+
+        mFusions = fusionData.finalExons().stream().map(FusedExon::fusion).distinct().collect(Collectors.toList());
+        mFusionExons = fusionData.finalExons().stream().collect(Collectors.groupingBy(FusedExon::fusion));
+        mFusionProteinDomains = fusionData.finalProteinDomains().stream().collect(Collectors.groupingBy(VisProteinDomain::chromosome));
+
+        mLegendColors = Maps.newTreeMap();
+
+        fusionData.finalProteinDomains().stream()
+                .filter(x -> !x.name().equals(VisProteinDomain.UTR))
+                .forEach(x -> mLegendColors.put(domainLabel(x), mProteinDomainColors.color(x)));
+    }
+
+    public int height()
+    {
+        return mFusions.size() * mConfig.FusionHeight + legendHeight();
+    }
+
+    public void render(final Graphics2D graphics, int width, double labelSize)
+    {
+        final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, (int)Math.round(labelSize));
+        graphics.setFont(font);
+
+        for(int i = 0; i < mFusions.size(); ++i)
+        {
+            String fusion = mFusions.get(i);
+
+            renderFusion(graphics, width, i * mConfig.FusionHeight,
+                    mFusionExons.get(fusion), mFusionProteinDomains.getOrDefault(fusion, Lists.newArrayList()));
+        }
+
+        if(!mLegendColors.isEmpty())
+            renderLegend(graphics, width, mFusions.size() * mConfig.FusionHeight);
+    }
+
+    private void renderFusion(
+            final Graphics2D graphics, int width, int top, final List<FusedExon> exons, final List<VisProteinDomain> proteinDomains)
+    {
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        // the plot spans 2 units vertically, with the exons from 0 to 1 and gene names above, and exon ranks beneath
+        double plotHeight = mConfig.FusionHeight - 1.5 * metrics.getHeight();
+        final DoubleUnaryOperator y = value -> top + (2 - value) / 2 * plotHeight;
+
+        double minPosition = exons.stream().mapToDouble(FusedExon::geneStart).min().orElse(0);
+        double maxPosition = exons.stream().mapToDouble(FusedExon::geneEnd).max().orElse(1);
+        double margin = MARGIN * width;
+        double pixelsPerBase = (width - 2 * margin) / Math.max(1, maxPosition - minPosition);
+        final DoubleUnaryOperator x = position -> margin + (position - minPosition) * pixelsPerBase;
+
+        // genes are drawn from their first exon, or the start of the gene if that has been truncated by the fusion
+        for(boolean isUpstream : new boolean[] { true, false })
+        {
+            final List<FusedExon> geneExons = exons.stream().filter(e -> e.isUpstream() == isUpstream).collect(Collectors.toList());
+
+            if(geneExons.isEmpty())
+                continue;
+
+            double geneStart = geneExons.stream()
+                    .mapToDouble(e -> Math.max(e.rank() == 1 ? e.start() : e.geneStart(), e.geneStart())).max().getAsDouble();
+            double geneEnd = geneExons.stream().mapToDouble(FusedExon::geneEnd).max().getAsDouble();
+            final Color geneColor = isUpstream ? UP_GENE : DOWN_GENE;
+
+            fillTrack(graphics, x, y, geneStart, geneEnd, 0.45, 0.55, geneColor);
+
+            for(FusedExon exon : geneExons)
+            {
+                fillTrack(graphics, x, y, exon.start(), exon.end(), 0, 1, geneColor);
+            }
+
+            String label = geneExons.get(0).gene() + " - " + geneExons.get(0).transcript();
+            float labelX = (float)(isUpstream ? x.applyAsDouble(geneStart) : x.applyAsDouble(geneEnd) - metrics.stringWidth(label));
+
+            graphics.setColor(Color.BLACK);
+            graphics.drawString(label, labelX, (float)(y.applyAsDouble(1.15) - metrics.getDescent()));
+        }
+
+        // exon ranks along the axis
+        graphics.setColor(Color.BLACK);
+        for(FusedExon exon : exons)
+        {
+            String rank = String.valueOf(exon.rank());
+            double rankX = x.applyAsDouble(exon.start()) - metrics.stringWidth(rank) / 2d;
+            graphics.drawString(rank, (float)rankX, (float)(y.applyAsDouble(0) + metrics.getHeight()));
+        }
+
+        for(VisProteinDomain domain : proteinDomains)
+        {
+            if(domain.name().equals(VisProteinDomain.UTR))
+            {
+                fillTrack(graphics, x, y, domain.start(), domain.end(), 0, 1, Color.WHITE);
+                fillTrack(graphics, x, y, domain.start(), domain.end(), 0.3, 0.7, mProteinDomainColors.color(domain));
+            }
+        }
+
+        proteinDomains.stream()
+                .filter(d -> !d.name().equals(VisProteinDomain.UTR))
+                .sorted(Comparator.comparing(VisProteinDomain::name))
+                .forEach(d -> fillTrack(
+                        graphics, x, y, d.start(), d.end(), 0.3, 0.7, withAlpha(mProteinDomainColors.color(d), DOMAIN_ALPHA)));
+
+        // fade the area between the retained exons of each gene, and mark the break at the end of the upstream gene
+        final List<FusedExon> retainedExons = exons.stream().filter(e -> !e.skipped()).collect(Collectors.toList());
+        double upEnd = retainedExons.stream().filter(FusedExon::isUpstream).mapToDouble(FusedExon::end).max().orElse(Double.NaN);
+        double downStart = retainedExons.stream().filter(e -> !e.isUpstream()).mapToDouble(FusedExon::start).min().orElse(Double.NaN);
+
+        if(!Double.isNaN(upEnd) && !Double.isNaN(downStart))
+            fillTrack(graphics, x, y, upEnd, downStart, 0, 1, FADED_AREA);
+
+        exons.stream().filter(FusedExon::isUpstream).mapToDouble(FusedExon::geneEnd).max().ifPresent(breakPosition ->
+        {
+            graphics.setColor(Color.BLACK);
+            graphics.setStroke(new BasicStroke(1));
+            double breakX = x.applyAsDouble(breakPosition);
+            graphics.draw(new Line2D.Double(breakX, y.applyAsDouble(-0.1), breakX, y.applyAsDouble(1.1)));
+        });
+    }
+
+    private void renderLegend(final Graphics2D graphics, int width, int top)
+    {
+        // legend entries fill each column before moving onto the next, and the whole legend is centred
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        int rows = Math.max(1, mConfig.FusionLegendRows);
+        int rowHeight = mConfig.FusionLegendHeightPerRow;
+        int keySize = Math.max(1, Math.min(rowHeight, metrics.getAscent()));
+        int spacing = metrics.getHeight();
+
+        final List<String> names = Lists.newArrayList(mLegendColors.keySet());
+        int columns = (int)Math.ceil(names.size() / (double)rows);
+
+        final List<Integer> columnWidths = Lists.newArrayList();
+        for(int column = 0; column < columns; ++column)
+        {
+            int columnWidth = 0;
+
+            for(int row = 0; row < rows && column * rows + row < names.size(); ++row)
+            {
+                columnWidth = Math.max(columnWidth, keySize + spacing / 2 + metrics.stringWidth(names.get(column * rows + row)));
+            }
+
+            columnWidths.add(columnWidth + spacing);
+        }
+
+        double left = Math.max(0, (width - columnWidths.stream().mapToInt(w -> w).sum()) / 2d);
+
+        for(int column = 0; column < columns; ++column)
+        {
+            for(int row = 0; row < rows && column * rows + row < names.size(); ++row)
+            {
+                String name = names.get(column * rows + row);
+                double rowMiddle = top + (row + 0.5) * rowHeight;
+
+                fillRect(graphics, left, rowMiddle - keySize / 2d, left + keySize, rowMiddle + keySize / 2d, mLegendColors.get(name));
+
+                graphics.setColor(Color.BLACK);
+                graphics.drawString(name, (float)(left + keySize + spacing / 2d),
+                        (float)(rowMiddle + (metrics.getAscent() - metrics.getDescent()) / 2d));
+            }
+
+            left += columnWidths.get(column);
+        }
+    }
+
+    private int legendHeight()
+    {
+        return mLegendColors.isEmpty() ? 0 : mConfig.FusionLegendRows * mConfig.FusionLegendHeightPerRow;
+    }
+
+    private static String domainLabel(final VisProteinDomain domain)
+    {
+        return domain.name().replace(" domain", "");
+    }
+
+    private static Color withAlpha(final Color color, int alpha)
+    {
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+    }
+
+    private static void fillTrack(
+            final Graphics2D graphics, final DoubleUnaryOperator x, final DoubleUnaryOperator y,
+            double start, double end, double bottom, double top, final Color color)
+    {
+        fillRect(graphics, x.applyAsDouble(start), y.applyAsDouble(top), x.applyAsDouble(end), y.applyAsDouble(bottom), color);
+    }
+
+    private static void fillRect(final Graphics2D graphics, double x1, double y1, double x2, double y2, final Color color)
+    {
+        graphics.setColor(color);
+        graphics.fill(new Rectangle2D.Double(Math.min(x1, x2), Math.min(y1, y2), Math.max(1, Math.abs(x2 - x1)), Math.abs(y2 - y1)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.hartwig.hmftools.linx.visualiser.circos;
+
+import static com.hartwig.hmftools.linx.visualiser.SvVisualiser.VIS_LOGGER;
+import static com.hartwig.hmftools.linx.visualiser.circos.ClusterPlot.IMAGE_SIZE;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.linx.visualiser.CircosConfig;
+
+public class NativePlotRenderer
+{
+    // renders the cluster plot with its fusion and chromosome range panels beneath it, in place of running Circos and R
+    private static final double CHROMOSOME_RANGE_WIDTH = 0.85;
+
+    private final ClusterPlot mClusterPlot;
+    private final FusionPlot mFusionPlot;
+    private final ChromosomeRangePlot mChromosomeRangePlot;
+
+    public NativePlotRenderer(
+            final CircosData data, final CircosConfig config, final CircosConfigWriter tracks, final ColorPicker colorPicker,
+            final FusionDataWriter fusionData, final RefGenomeVersion refGenomeVersion)
+    {
+        mClusterPlot = new ClusterPlot(data, config, tracks, colorPicker);
+        mFusionPlot = new FusionPlot(fusionData, config);
+        mChromosomeRangePlot = new ChromosomeRangePlot(data, config, refGenomeVersion);
+    }
+
+    public Object renderImage(int frame, double labelSize, boolean plotFusion, boolean plotChromosome, final String outputFile)
+            throws IOException
+    {
+        int fusionHeight = plotFusion ? mFusionPlot.height() : 0;
+        int chromosomeRangeHeight = plotChromosome ? mChromosomeRangePlot.height() : 0;
+
+        final BufferedImage image = new BufferedImage(
+                IMAGE_SIZE, IMAGE_SIZE + fusionHeight + chromosomeRangeHeight, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+
+        try
+        {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+
+            mClusterPlot.render(graphics, frame);
+
+            if(fusionHeight > 0)
+            {
+                graphics.translate(0, IMAGE_SIZE);
+                mFusionPlot.render(graphics, IMAGE_SIZE, labelSize);
+                graphics.translate(0, -IMAGE_SIZE);
+            }
+
+            if(chromosomeRangeHeight > 0)
+            {
+                int panelWidth = (int)Math.round(CHROMOSOME_RANGE_WIDTH * IMAGE_SIZE);
+                int panelLeft = (IMAGE_SIZE - panelWidth) / 2;
+
+                graphics.translate(panelLeft, IMAGE_SIZE + fusionHeight);
+                mChromosomeRangePlot.render(graphics, panelWidth, labelSize);
+            }
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+
+        ImageIO.write(image, "png", new File(outputFile));
+        VIS_LOGGER.debug("rendered plot({})", outputFile);
+
+        return outputFile;
+    }
+}
@@ -0,0 +1,216 @@
+package com.hartwig.hmftools.linx.visualiser.circos;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
+import static com.hartwig.hmftools.linx.visualiser.circos.ClusterPlot.IMAGE_SIZE;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeCoordinates;
+import com.hartwig.hmftools.common.sv.StructuralVariantType;
+import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
+import com.hartwig.hmftools.linx.types.ResolvedType;
+import com.hartwig.hmftools.linx.visualiser.CircosConfig;
+import com.hartwig.hmftools.linx.visualiser.data.VisCopyNumbers;
+import com.hartwig.hmftools.linx.visualiser.data.VisLinks;
+import com.hartwig.hmftools.linx.visualiser.data.VisSegments;
+import com.hartwig.hmftools.linx.visualiser.file.VisCopyNumber;
+import com.hartwig.hmftools.linx.visualiser.file.VisFusion;
+import com.hartwig.hmftools.linx.visualiser.file.VisGeneAnnotationType;
+import com.hartwig.hmftools.linx.visualiser.file.VisGeneExon;
+import com.hartwig.hmftools.linx.visualiser.file.VisProteinDomain;
+import com.hartwig.hmftools.linx.visualiser.file.VisSegment;
+import com.hartwig.hmftools.linx.visualiser.file.VisSvData;
+
+import org.junit.Test;
+
+public class NativePlotRendererTest
+{
+    private static final String SAMPLE_ID = "SAMPLE";
+    private static final String GENE_UP = "GENE_UP";
+    private static final String GENE_DOWN = "GENE_DOWN";
+    private static final String TRANS_UP = "TRANS_UP";
+    private static final String TRANS_DOWN = "TRANS_DOWN";
+
+    private final CircosConfig mConfig;
+    private final CircosData mData;
+    private final ColorPicker mColorPicker;
+    private final FusionDataWriter mFusionData;
+    private final File mOutputDir;
+
+    public NativePlotRendererTest() throws IOException
+    {
+        ConfigBuilder configBuilder = new ConfigBuilder();
+        CircosConfig.registerConfig(configBuilder);
+        mConfig = new CircosConfig(configBuilder);
+
+        mOutputDir = Files.createTempDirectory("native_plot_test").toFile();
+        mOutputDir.deleteOnExit();
+
+        // a translocation fusing genes on chromosomes 1 and 2, with a deletion on chromosome 1
+        List<VisSvData> svs = Lists.newArrayList(
+                createSv(1, StructuralVariantType.BND, "1", 15500, "2", 25500, (byte)1, (byte)-1),
+                createSv(2, StructuralVariantType.DEL, "1", 12000, "1", 14000, (byte)1, (byte)-1));
+
+        List<VisSegment> segments = Lists.newArrayList(
+                new VisSegment(SAMPLE_ID, 1, 0, "1", "12000", "14000", 1, false));
+
+        List<VisGeneExon> exons = Lists.newArrayList(
+                createExon(GENE_UP, TRANS_UP, "1", 1, 10000, 10500),
+                createExon(GENE_UP, TRANS_UP, "1", 2, 13000, 13500),
+                createExon(GENE_UP, TRANS_UP, "1", 3, 17000, 17500),
+                createExon(GENE_DOWN, TRANS_DOWN, "2", 1, 22000, 22500),
+                createExon(GENE_DOWN, TRANS_DOWN, "2", 2, 26000, 26500),
+                createExon(GENE_DOWN, TRANS_DOWN, "2", 3, 28000, 28500));
+
+        List<VisFusion> fusions = Lists.newArrayList(new VisFusion(
+                SAMPLE_ID, 1, true, GENE_UP, TRANS_UP, "1", 15500, 1, "Intronic", 2,
+                GENE_DOWN, TRANS_DOWN, "2", 25500, 1, "Intronic", 2));
+
+        List<VisProteinDomain> proteinDomains = Lists.newArrayList(
+                new VisProteinDomain(SAMPLE_ID, 1, TRANS_UP, "1", 13100, 13400, "Kinase domain"));
+
+        List<VisCopyNumber> allCopyNumbers = Lists.newArrayList(
+                new VisCopyNumber(SAMPLE_ID, "1", 1, 12000, 2, 0.5),
+                new VisCopyNumber(SAMPLE_ID, "1", 12001, 14000, 1, 0),
+                new VisCopyNumber(SAMPLE_ID, "1", 14001, 50000, 3, 0.33),
+                new VisCopyNumber(SAMPLE_ID, "2", 1, 25500, 2, 0.5),
+                new VisCopyNumber(SAMPLE_ID, "2", 25501, 50000, 2.5, 0.4));
+
+        // as the visualiser prepares each plot's data
+        final List<GenomePosition> positionsToCover = Lists.newArrayList();
+        positionsToCover.addAll(VisLinks.allPositions(svs));
+        positionsToCover.addAll(Span.allPositions(segments));
+        positionsToCover.addAll(Span.allPositions(exons));
+
+        final List<VisCopyNumber> copyNumbers = VisCopyNumbers.copyNumbers(allCopyNumbers, Span.spanPositions(positionsToCover));
+        positionsToCover.addAll(Span.allPositions(copyNumbers));
+
+        final List<VisSegment> extendedSegments = VisSegments.extendTerminals(
+                0, segments, svs, positionsToCover, true, RefGenomeCoordinates.COORDS_37);
+
+        final List<VisSvData> links = VisLinks.addFrame(extendedSegments, svs);
+
+        mColorPicker = ColorPicker.clusterColors(links);
+        mData = new CircosData(true, mConfig, extendedSegments, links, copyNumbers, exons, fusions);
+        mFusionData = new FusionDataWriter(fusions, exons, proteinDomains);
+    }
+
+    @Test
+    public void testClusterPlot() throws IOException
+    {
+        CircosConfigWriter tracks = new CircosConfigWriter(SAMPLE_ID, mOutputDir.getAbsolutePath(), mData, mConfig);
+        ClusterPlot clusterPlot = new ClusterPlot(mData, mConfig, tracks, mColorPicker);
+
+        // the plot is small enough for exon ranks, and has few enough copy number segments for distances
+        assertFalse(CircosDataWriter.exonRankLabels(mData).isEmpty());
+        assertFalse(CircosDataWriter.distanceLabels(mConfig, mData.unadjustedAlterations(), mData.copyNumbers()).isEmpty());
+
+        renderAndCheck("cluster", IMAGE_SIZE, IMAGE_SIZE, graphics -> clusterPlot.render(graphics, mData.maxFrame()));
+    }
+
+    @Test
+    public void testFusionPlot() throws IOException
+    {
+        assertFalse(mFusionData.finalExons().isEmpty());
+
+        FusionPlot fusionPlot = new FusionPlot(mFusionData, mConfig);
+        assertTrue(fusionPlot.height() > 0);
+
+        renderAndCheck("fusion", IMAGE_SIZE, fusionPlot.height(), graphics -> fusionPlot.render(graphics, IMAGE_SIZE, mData.labelSize()));
+    }
+
+    @Test
+    public void testChromosomeRangePlot() throws IOException
+    {
+        ChromosomeRangePlot chromosomeRangePlot = new ChromosomeRangePlot(mData, mConfig, V37);
+        assertTrue(chromosomeRangePlot.height() > 0);
+
+        renderAndCheck("chromosome_range", IMAGE_SIZE, chromosomeRangePlot.height(),
+                graphics -> chromosomeRangePlot.render(graphics, IMAGE_SIZE, mData.labelSize()));
+    }
+
+    @Test
+    public void testCombinedPlot() throws IOException
+    {
+        CircosConfigWriter tracks = new CircosConfigWriter(SAMPLE_ID, mOutputDir.getAbsolutePath(), mData, mConfig);
+        NativePlotRenderer renderer = new NativePlotRenderer(mData, mConfig, tracks, mColorPicker, mFusionData, V37);
+
+        File outputFile = new File(mOutputDir, SAMPLE_ID + ".combined.png");
+        outputFile.deleteOnExit();
+
+        renderer.renderImage(mData.maxFrame(), mData.labelSize(), true, true, outputFile.getAbsolutePath());
+
+        BufferedImage image = ImageIO.read(outputFile);
+        assertNotNull(image);
+        assertEquals(IMAGE_SIZE, image.getWidth());
+        assertTrue(image.getHeight() > IMAGE_SIZE);
+    }
+
+    private void renderAndCheck(final String name, int width, int height, final Consumer<Graphics2D> renderer) throws IOException
+    {
+        // renders the panel to a temporary PNG, which must read back with something drawn on it
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        renderer.accept(graphics);
+        graphics.dispose();
+
+        File outputFile = new File(mOutputDir, SAMPLE_ID + "." + name + ".png");
+        outputFile.deleteOnExit();
+        assertTrue(ImageIO.write(image, "png", outputFile));
+
+        BufferedImage written = ImageIO.read(outputFile);
+        assertNotNull(written);
+        assertEquals(width, written.getWidth());
+        assertEquals(height, written.getHeight());
+        assertTrue(hasDrawnPixels(written));
+    }
+
+    private static boolean hasDrawnPixels(final BufferedImage image)
+    {
+        int white = Color.WHITE.getRGB();
+
+        for(int x = 0; x < image.getWidth(); ++x)
+        {
+            for(int y = 0; y < image.getHeight(); ++y)
+            {
+                if(image.getRGB(x, y) != white)
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static VisSvData createSv(
+            int svId, final StructuralVariantType type, final String chrStart, int posStart, final String chrEnd, int posEnd,
+            byte orientStart, byte orientEnd)
+    {
+        return new VisSvData(
+                SAMPLE_ID, 1, 0, svId, type, ResolvedType.RECIP_TRANS, false, chrStart, chrEnd, posStart, posEnd,
+                orientStart, orientEnd, "NONE", "NONE", 1, false);
+    }
+
+    private static VisGeneExon createExon(
+            final String gene, final String transcript, final String chromosome, int rank, int exonStart, int exonEnd)
+    {
+        return new VisGeneExon(SAMPLE_ID, 1, gene, transcript, chromosome, VisGeneAnnotationType.FUSION, rank, exonStart, exonEnd);
+    }
+}
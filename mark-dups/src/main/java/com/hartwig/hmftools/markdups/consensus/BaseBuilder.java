@@ -5,9 +5,9 @@ import static java.lang.Math.round;
 
 import static com.hartwig.hmftools.common.qual.BaseQualAdjustment.BASE_QUAL_MINIMUM;
 
+import java.util.Arrays;
 import java.util.List;
 
-import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
 import com.hartwig.hmftools.common.qual.BaseQualAdjustment;
 
@@ -21,11 +21,35 @@ public class BaseBuilder
     // cached for the majority of successive reads being on the same chromosome, to protect against ref genome base requests beyond limits
     private int mChromosomeLength;
 
+    // buffers reused across duplicate groups, sized to the largest group, and per-base tallies of distinct bases and their quals
+    private byte[] mLocationBases;
+    private byte[] mLocationQuals;
+    private byte[] mStrandBases;
+    private byte[] mStrandQuals;
+    private int[] mReadOffsets;
+    private boolean[] mIsFirstInPair;
+    private byte[][] mReadBases;
+    private byte[][] mReadQuals;
+
+    private byte[] mDistinctBases;
+    private int[] mQualTotals;
+    private int[] mMaxQuals;
+
+    private static final int INITIAL_READ_CAPACITY = 16;
+    private static final int INITIAL_DISTINCT_BASES = 5;
+
     public BaseBuilder(final RefGenomeInterface refGenome, final ConsensusStatistics consensusStats)
     {
         mRefGenome = refGenome;
         mConsensusStats = consensusStats;
         mChromosomeLength = 0;
+
+        mLocationBases = new byte[0];
+        ensureReadCapacity(INITIAL_READ_CAPACITY);
+
+        mDistinctBases = new byte[INITIAL_DISTINCT_BASES];
+        mQualTotals = new int[INITIAL_DISTINCT_BASES];
+        mMaxQuals = new int[INITIAL_DISTINCT_BASES];
     }
 
     public void setChromosomLength(int chromosomeLength) { mChromosomeLength = chromosomeLength; }
@@ -45,17 +69,25 @@ public class BaseBuilder
         int readCount = reads.size();
         String chromosome = reads.get(0).getContig();
 
-        int[] readOffsets = new int[readCount];
-        boolean[] isFirstInPair = new boolean[readCount];
+        ensureReadCapacity(readCount);
+
+        int[] readOffsets = mReadOffsets;
+        boolean[] isFirstInPair = mIsFirstInPair;
         boolean isDualStrand = isDualStrandAndIsFirstInPair(reads, isFirstInPair);
 
+        byte[][] readBases = mReadBases;
+        byte[][] readQuals = mReadQuals;
+
         for(int i = 0; i < readCount; ++i)
         {
-            readOffsets[i] = reads.get(i).getReadBases().length - baseLength;
+            SAMRecord read = reads.get(i);
+            readBases[i] = read.getReadBases();
+            readQuals[i] = read.getBaseQualities();
+            readOffsets[i] = readBases[i].length - baseLength;
         }
 
-        byte[] locationBases = new byte[readCount];
-        byte[] locationQuals = new byte[readCount];
+        byte[] locationBases = mLocationBases;
+        byte[] locationQuals = mLocationQuals;
 
         for(int baseIndex = 0; baseIndex < baseLength; ++baseIndex)
         {
@@ -67,16 +99,15 @@ public class BaseBuilder
             for(int r = 0; r < readCount; ++r)
             {
                 // on reverse strand, say base length = 10 (so 0-9 for longest read), if a read has length 8 then it will
-                SAMRecord read = reads.get(r);
-
                 locationBases[r] = NO_BASE;
+                locationQuals[r] = 0;
 
                 int readIndex;
                 if(consensusState.IsForward)
                 {
                     readIndex = baseIndex;
 
-                    if(readOffsets[r] != 0 && baseIndex >= read.getReadBases().length)
+                    if(readOffsets[r] != 0 && baseIndex >= readBases[r].length)
                         continue;
                 }
                 else
@@ -87,8 +118,8 @@ public class BaseBuilder
                         continue;
                 }
 
-                locationBases[r] = reads.get(r).getReadBases()[readIndex];
-                locationQuals[r] = reads.get(r).getBaseQualities()[readIndex];
+                locationBases[r] = readBases[r][readIndex];
+                locationQuals[r] = readQuals[r][readIndex];
 
                 if(firstBase == NO_BASE)
                     firstBase = locationBases[r];
@@ -110,197 +141,242 @@ public class BaseBuilder
                 if(basePosition < 1 || basePosition > chromosomeLength)
                     basePosition = INVALID_POSITION; // protect against over-runs from soft-clips - rare but possible
 
-                byte[] consensusBaseAndQual;
+                int consensusBaseAndQual;
 
                 if(isDualStrand && basePosition != INVALID_POSITION)
                 {
                     // split the reads into 2 consensus reads and then compare
-                    consensusBaseAndQual = determineDualStrandBaseAndQual(isFirstInPair, locationBases, locationQuals, chromosome, basePosition);
+                    consensusBaseAndQual = determineDualStrandBaseAndQual(
+                            isFirstInPair, locationBases, locationQuals, readCount, chromosome, basePosition);
                 }
                 else
                 {
-                    consensusBaseAndQual = determineBaseAndQual(locationBases, locationQuals, chromosome, basePosition);
+                    consensusBaseAndQual = determineBaseAndQual(locationBases, locationQuals, readCount, chromosome, basePosition);
                 }
 
-                consensusState.Bases[baseIndex] = consensusBaseAndQual[0];
-                consensusState.BaseQualities[baseIndex] = BaseQualAdjustment.adjustBaseQual(consensusBaseAndQual[1]);
+                consensusState.Bases[baseIndex] = packedBase(consensusBaseAndQual);
+                consensusState.BaseQualities[baseIndex] = BaseQualAdjustment.adjustBaseQual(packedQual(consensusBaseAndQual));
             }
         }
+
+        // release the read references held for the group
+        Arrays.fill(readBases, 0, readCount, null);
+        Arrays.fill(readQuals, 0, readCount, null);
+    }
+
+    // a consensus base and its qual are returned packed into an int to avoid allocating per base
+    public static int packBaseAndQual(byte base, int qual) { return ((base & 0xFF) << 8) | (qual & 0xFF); }
+    public static byte packedBase(int baseAndQual) { return (byte)(baseAndQual >> 8); }
+    public static byte packedQual(int baseAndQual) { return (byte)baseAndQual; }
+
+    public byte[] locationBasesBuffer(int readCount)
+    {
+        ensureReadCapacity(readCount);
+        return mLocationBases;
+    }
+
+    public byte[] locationQualsBuffer(int readCount)
+    {
+        ensureReadCapacity(readCount);
+        return mLocationQuals;
     }
 
-    public byte[] determineDualStrandBaseAndQual(
-            final boolean[] isFirstInPair, final byte[] locationBases, final byte[] locationQuals, final String chromosome, int position)
+    private void ensureReadCapacity(int readCount)
     {
-        int readCount = isFirstInPair.length;
+        // buffers are sized to the largest group seen, so are only reallocated as the group size grows
+        if(mLocationBases.length >= readCount)
+            return;
+
+        int capacity = max(readCount, mLocationBases.length * 2);
+
+        mLocationBases = new byte[capacity];
+        mLocationQuals = new byte[capacity];
+        mStrandBases = new byte[capacity];
+        mStrandQuals = new byte[capacity];
+        mReadOffsets = new int[capacity];
+        mIsFirstInPair = new boolean[capacity];
+        mReadBases = new byte[capacity][];
+        mReadQuals = new byte[capacity][];
+    }
 
+    public int determineDualStrandBaseAndQual(
+            final boolean[] isFirstInPair, final byte[] locationBases, final byte[] locationQuals, int readCount,
+            final String chromosome, int position)
+    {
+        ensureReadCapacity(readCount);
+
+        // split the bases by strand into a single buffer, with first-in-pair bases at the start and the rest following
         int firstInPairCount = 0;
-        int secondInPairCount = 0;
 
-        for(int i = 0; i < isFirstInPair.length; ++i)
+        for(int i = 0; i < readCount; ++i)
         {
             if(isFirstInPair[i])
                 ++firstInPairCount;
-            else
-                ++secondInPairCount;
         }
 
-        byte[] locationBasesFirst = new byte[firstInPairCount];
-        byte[] locationQualsFirst = new byte[firstInPairCount];
-
-        byte[] locationBasesSecond = new byte[secondInPairCount];
-        byte[] locationQualsSecond = new byte[secondInPairCount];
-
         int firstIndex = 0;
-        int secondIndex = 0;
+        int secondIndex = firstInPairCount;
 
-        for(int i = 0; i < locationBases.length; ++i)
+        for(int i = 0; i < readCount; ++i)
         {
             if(isFirstInPair[i])
             {
-                locationBasesFirst[firstIndex] = locationBases[i];
-                locationQualsFirst[firstIndex] = locationQuals[i];
+                mStrandBases[firstIndex] = locationBases[i];
+                mStrandQuals[firstIndex] = locationQuals[i];
                 ++firstIndex;
             }
             else
             {
-                locationBasesSecond[secondIndex] = locationBases[i];
-                locationQualsSecond[secondIndex] = locationQuals[i];
+                mStrandBases[secondIndex] = locationBases[i];
+                mStrandQuals[secondIndex] = locationQuals[i];
                 ++secondIndex;
             }
         }
 
-        byte[] firstBaseAndQual = determineBaseAndQual(locationBasesFirst, locationQualsFirst, chromosome, position);
-        byte[] secondBaseAndQual = determineBaseAndQual(locationBasesSecond, locationQualsSecond, chromosome, position);
+        int firstBaseAndQual = determineBaseAndQual(mStrandBases, mStrandQuals, 0, firstInPairCount, chromosome, position);
+        int secondBaseAndQual = determineBaseAndQual(mStrandBases, mStrandQuals, firstInPairCount, readCount, chromosome, position);
+
+        byte firstBase = packedBase(firstBaseAndQual);
+        byte secondBase = packedBase(secondBaseAndQual);
+        int firstQual = packedQual(firstBaseAndQual);
+        int secondQual = packedQual(secondBaseAndQual);
 
-        if(firstBaseAndQual[0] == NO_BASE)
+        if(firstBase == NO_BASE)
             return secondBaseAndQual;
 
-        if(secondBaseAndQual[0] == NO_BASE)
+        if(secondBase == NO_BASE)
             return firstBaseAndQual;
 
-        if(firstBaseAndQual[0] == secondBaseAndQual[0])
-        {
-            byte qual = (byte)max(firstBaseAndQual[1], secondBaseAndQual[1]);
-            return new byte[] { firstBaseAndQual[0], qual };
-        }
+        if(firstBase == secondBase)
+            return packBaseAndQual(firstBase, max(firstQual, secondQual));
 
         // logDualStrandWithMismatch(reads);
         mConsensusStats.registerDualStrandMismatchReadGroup(readCount);
 
-        byte refBase = mRefGenome.getBaseString(chromosome, position, position).getBytes()[0];
-        boolean firstIsRef = firstBaseAndQual[0] == refBase;
-        boolean secondIsRef = secondBaseAndQual[0] == refBase;
+        byte refBase = mRefGenome.getBases(chromosome, position, position)[0];
+        boolean firstIsRef = firstBase == refBase;
+        boolean secondIsRef = secondBase == refBase;
 
         if(!firstIsRef && !secondIsRef)
         {
             byte maxBase;
             int maxQual;
             int differingQual;
-            if(firstBaseAndQual[1] >= secondBaseAndQual[1])
+            if(firstQual >= secondQual)
             {
-                maxBase = firstBaseAndQual[0];
-                maxQual = firstBaseAndQual[1];
-                differingQual = secondBaseAndQual[1];
+                maxBase = firstBase;
+                maxQual = firstQual;
+                differingQual = secondQual;
             }
             else
             {
-                maxBase = secondBaseAndQual[0];
-                maxQual = secondBaseAndQual[1];
-                differingQual = firstBaseAndQual[1];
+                maxBase = secondBase;
+                maxQual = secondQual;
+                differingQual = firstQual;
             }
 
-            byte qual = (byte) max(0, maxQual - differingQual);
-            return new byte[] { maxBase, qual };
+            return packBaseAndQual(maxBase, max(0, maxQual - differingQual));
         }
 
         int refQual;
         int differingQual;
         if(firstIsRef)
         {
-            refQual = firstBaseAndQual[1];
-            differingQual = secondBaseAndQual[1];
+            refQual = firstQual;
+            differingQual = secondQual;
         }
         else
         {
-            refQual = secondBaseAndQual[1];
-            differingQual = firstBaseAndQual[1];
+            refQual = secondQual;
+            differingQual = firstQual;
         }
 
-        byte qual = (byte) max(BASE_QUAL_MINIMUM, refQual - differingQual);
-        return new byte[] { refBase, qual };
+        return packBaseAndQual(refBase, max(BASE_QUAL_MINIMUM, refQual - differingQual));
+    }
+
+    public int determineBaseAndQual(
+            final byte[] locationBases, final byte[] locationQuals, int readCount, final String chromosome, int position)
+    {
+        return determineBaseAndQual(locationBases, locationQuals, 0, readCount, chromosome, position);
     }
 
-    public byte[] determineBaseAndQual(final byte[] locationBases, final byte[] locationQuals, final String chromosome, int position)
+    private int determineBaseAndQual(
+            final byte[] locationBases, final byte[] locationQuals, int startIndex, int endIndex, final String chromosome, int position)
     {
-        if(locationBases.length == 1)
+        if(endIndex - startIndex == 1)
         {
             // early exit for dual strand with a single read on one side - a very common scenario
-            return new byte[] { locationBases[0], locationQuals[0] };
+            return packBaseAndQual(locationBases[startIndex], locationQuals[startIndex]);
         }
 
-        List<Byte> distinctBases = Lists.newArrayListWithCapacity(4);
-        List<Integer> qualTotals = Lists.newArrayListWithCapacity(4);
-        List<Integer> maxQuals = Lists.newArrayListWithCapacity(4);
+        // tally quals by distinct base, in the order the bases are first seen
+        int distinctCount = 0;
 
-        for(int i = 0; i < locationBases.length; ++i)
+        for(int i = startIndex; i < endIndex; ++i)
         {
             if(locationBases[i] == NO_BASE)
                 continue;
 
-            boolean found = false;
+            int baseIndex = 0;
 
-            for(int j = 0; j < distinctBases.size(); ++j)
+            while(baseIndex < distinctCount && mDistinctBases[baseIndex] != locationBases[i])
             {
-                if(distinctBases.get(j) == locationBases[i])
-                {
-                    int qualTotal = qualTotals.get(j) + locationQuals[i];
-                    qualTotals.set(j, qualTotal);
-                    maxQuals.set(j, max(maxQuals.get(j), locationQuals[i]));
-                    found = true;
-                    break;
-                }
+                ++baseIndex;
             }
 
-            if(!found)
+            if(baseIndex < distinctCount)
             {
-                distinctBases.add(locationBases[i]);
-                qualTotals.add((int)locationQuals[i]);
-                maxQuals.add((int)locationQuals[i]);
+                mQualTotals[baseIndex] += locationQuals[i];
+                mMaxQuals[baseIndex] = max(mMaxQuals[baseIndex], locationQuals[i]);
             }
-        }
+            else
+            {
+                if(distinctCount == mDistinctBases.length)
+                {
+                    mDistinctBases = Arrays.copyOf(mDistinctBases, distinctCount * 2);
+                    mQualTotals = Arrays.copyOf(mQualTotals, distinctCount * 2);
+                    mMaxQuals = Arrays.copyOf(mMaxQuals, distinctCount * 2);
+                }
 
-        if(distinctBases.isEmpty())
-        {
-            return new byte[] { NO_BASE, 0 };
+                mDistinctBases[distinctCount] = locationBases[i];
+                mQualTotals[distinctCount] = locationQuals[i];
+                mMaxQuals[distinctCount] = locationQuals[i];
+                ++distinctCount;
+            }
         }
 
-        byte maxBase = distinctBases.get(0);
+        if(distinctCount == 0)
+            return packBaseAndQual(NO_BASE, 0);
+
+        byte maxBase = mDistinctBases[0];
         boolean maxIsRef = false;
-        int maxQual = maxQuals.get(0);
-        int maxQualTotal = qualTotals.get(0);
+        int maxQual = mMaxQuals[0];
+        int maxQualTotal = mQualTotals[0];
+        byte refBase = NO_BASE;
 
-        for(int i = 1; i < distinctBases.size(); ++i)
+        for(int i = 1; i < distinctCount; ++i)
         {
-            if(qualTotals.get(i) > maxQualTotal)
+            if(mQualTotals[i] > maxQualTotal)
             {
-                maxQualTotal = qualTotals.get(i);
-                maxQual = maxQuals.get(i);
-                maxBase = distinctBases.get(i);
+                maxQualTotal = mQualTotals[i];
+                maxQual = mMaxQuals[i];
+                maxBase = mDistinctBases[i];
             }
-            else if(chromosome != null && qualTotals.get(i) >= maxQualTotal && !maxIsRef && position != INVALID_POSITION)
+            else if(chromosome != null && mQualTotals[i] >= maxQualTotal && !maxIsRef && position != INVALID_POSITION)
             {
                 // chromosome will be null for unmapped reads
-                String refBase = mRefGenome.getBaseString(chromosome, position, position);
+                if(refBase == NO_BASE)
+                    refBase = mRefGenome.getBases(chromosome, position, position)[0];
 
-                if(maxBase == refBase.getBytes()[0])
+                if(maxBase == refBase)
                 {
                     maxIsRef = true;
                 }
-                else if(distinctBases.get(i) == refBase.getBytes()[0])
+                else if(mDistinctBases[i] == refBase)
                 {
-                    maxQualTotal = qualTotals.get(i);
-                    maxQual = maxQuals.get(i);
-                    maxBase = distinctBases.get(i);
+                    maxQualTotal = mQualTotals[i];
+                    maxQual = mMaxQuals[i];
+                    maxBase = mDistinctBases[i];
                     maxIsRef = true;
                 }
             }
@@ -308,15 +384,15 @@ public class BaseBuilder
 
         int differingQual = 0;
 
-        for(int i = 0; i < distinctBases.size(); ++i)
+        for(int i = 0; i < distinctCount; ++i)
         {
-            if(distinctBases.get(i) != maxBase)
-                differingQual += qualTotals.get(i);
+            if(mDistinctBases[i] != maxBase)
+                differingQual += mQualTotals[i];
         }
 
         double calcQual = (double)maxQual * max(BASE_QUAL_MINIMUM, maxQualTotal - differingQual) / maxQualTotal;
 
-        return new byte[] { maxBase, (byte)round(calcQual) };
+        return packBaseAndQual(maxBase, (int)round(calcQual));
     }
 
     public static boolean isDualStrandAndIsFirstInPair(final List<SAMRecord> reads, final boolean[] isFirstInPairOut)
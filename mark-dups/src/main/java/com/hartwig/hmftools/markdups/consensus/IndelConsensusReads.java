@@ -6,6 +6,8 @@ import static com.hartwig.hmftools.markdups.common.DuplicateGroupBuilder.calcBas
 import static com.hartwig.hmftools.markdups.consensus.BaseBuilder.INVALID_POSITION;
 import static com.hartwig.hmftools.markdups.consensus.BaseBuilder.NO_BASE;
 import static com.hartwig.hmftools.markdups.consensus.BaseBuilder.isDualStrandAndIsFirstInPair;
+import static com.hartwig.hmftools.markdups.consensus.BaseBuilder.packedBase;
+import static com.hartwig.hmftools.markdups.consensus.BaseBuilder.packedQual;
 import static com.hartwig.hmftools.markdups.consensus.ConsensusOutcome.INDEL_FAIL;
 import static com.hartwig.hmftools.markdups.consensus.ConsensusOutcome.INDEL_MATCH;
 import static com.hartwig.hmftools.markdups.consensus.ConsensusOutcome.INDEL_MISMATCH;
@@ -140,8 +142,9 @@ public class IndelConsensusReads
             return;
         }
 
-        byte[] locationBases = new byte[readCount];
-        byte[] locationQuals = new byte[readCount];
+        // per-read base buffers are reused from the base builder rather than allocated per element
+        byte[] locationBases = mBaseBuilder.locationBasesBuffer(readCount);
+        byte[] locationQuals = mBaseBuilder.locationQualsBuffer(readCount);
 
         for(int i = 0; i < selectedElement.getLength(); ++i)
         {
@@ -152,6 +155,7 @@ public class IndelConsensusReads
             for(int r = 0; r < readCount; ++r)
             {
                 locationBases[r] = NO_BASE;
+                locationQuals[r] = 0;
             }
 
             for(int r = 0; r < readCount; ++r)
@@ -233,22 +237,22 @@ public class IndelConsensusReads
                 if(basePosition < 1 || basePosition > chromosomeLength)
                     basePosition = BaseBuilder.INVALID_POSITION;
 
-                byte[] consensusBaseAndQual;
+                int consensusBaseAndQual;
 
                 if(isDualStrand && basePosition != INVALID_POSITION)
                 {
                     // split the reads into 2 consensus reads and then compare
                     consensusBaseAndQual = mBaseBuilder.determineDualStrandBaseAndQual(
-                            isFirstInPair, locationBases, locationQuals, consensusState.Chromosome, basePosition);
+                            isFirstInPair, locationBases, locationQuals, readCount, consensusState.Chromosome, basePosition);
                 }
                 else
                 {
                     consensusBaseAndQual = mBaseBuilder.determineBaseAndQual(
-                            locationBases, locationQuals, consensusState.Chromosome, basePosition);
+                            locationBases, locationQuals, readCount, consensusState.Chromosome, basePosition);
                 }
 
-                consensusState.Bases[baseIndex] = consensusBaseAndQual[0];
-                consensusState.BaseQualities[baseIndex] = BaseQualAdjustment.adjustBaseQual(consensusBaseAndQual[1]);
+                consensusState.Bases[baseIndex] = packedBase(consensusBaseAndQual);
+                consensusState.BaseQualities[baseIndex] = BaseQualAdjustment.adjustBaseQual(packedQual(consensusBaseAndQual));
             }
 
             if(consensusState.IsForward)
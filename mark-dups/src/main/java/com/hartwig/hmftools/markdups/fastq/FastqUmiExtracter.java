@@ -2,25 +2,27 @@ package com.hartwig.hmftools.markdups.fastq;
 
 import static java.lang.Math.max;
 
+import static com.hartwig.hmftools.common.fastq.FastqRecord.RECORD_LINE_COUNT;
 import static com.hartwig.hmftools.common.utils.PerformanceCounter.runTimeMinsStr;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.addThreadOptions;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.parseThreads;
 import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.OUTPUT_ID;
 import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.addOutputOptions;
-import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedReader;
-import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedWriter;
-import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createGzipBufferedWriter;
 import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.parseOutputDir;
 import static com.hartwig.hmftools.markdups.MarkDupsConfig.APP_NAME;
 import static com.hartwig.hmftools.markdups.MarkDupsConfig.MD_LOGGER;
 import static com.hartwig.hmftools.markdups.common.Constants.DEFAULT_DUPLEX_UMI_DELIM;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
 import com.hartwig.hmftools.common.codon.Nucleotides;
+import com.hartwig.hmftools.common.fastq.FastqFiles;
+import com.hartwig.hmftools.common.fastq.FastqPairReader;
+import com.hartwig.hmftools.common.fastq.FastqRecord;
 import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 import com.hartwig.hmftools.common.utils.config.ConfigItemType;
 import com.hartwig.hmftools.common.utils.config.ConfigUtils;
@@ -35,10 +37,15 @@ public class FastqUmiExtracter
     private final int mUmiLength;
     private final int mAdapterUmiLength;
     private final String mAdapterSequence;
-    private final String mAdapterSequenceReversed;
+    private final byte[] mAdapterSequenceBytes;
+    private final byte[] mAdapterSequenceReversedBytes;
+    private final int mReaderThreads;
+    private final int mWriterThreads;
 
-    private BufferedWriter mWriterR1;
-    private BufferedWriter mWriterR2;
+    private final byte[] mUmiIdBuffer;
+
+    private OutputStream mWriterR1;
+    private OutputStream mWriterR2;
 
     // config
     private static final String FASTQ_FILES = "fastq_files";
@@ -57,7 +64,16 @@ public class FastqUmiExtracter
         mAdapterSequence = configBuilder.getValue(ADAPTER_SEQUENCE);
 
         mAdapterUmiLength = mAdapterSequence != null ? mAdapterSequence.length() + mUmiLength : 0;
-        mAdapterSequenceReversed = mAdapterSequence != null ? Nucleotides.reverseComplementBases(mAdapterSequence) : null;
+        mAdapterSequenceBytes = mAdapterSequence != null ? mAdapterSequence.getBytes() : null;
+        mAdapterSequenceReversedBytes = mAdapterSequence != null ? Nucleotides.reverseComplementBases(mAdapterSequence).getBytes() : null;
+
+        // decompression and compression each get half the threads, split between the two files
+        int threads = parseThreads(configBuilder);
+        mReaderThreads = max(threads / 2, 1);
+        mWriterThreads = max(threads / 4, 1);
+
+        // holds the delimiter, the UMI or duplex UMIs and their delimiter
+        mUmiIdBuffer = new byte[2 * mUmiLength + 2];
     }
 
     public void run()
@@ -98,17 +114,10 @@ public class FastqUmiExtracter
         MD_LOGGER.info("extraction complete, mins({})", runTimeMinsStr(startTimeMs));
     }
 
-    private static final int READ_ITEM_ID = 0;
-    private static final int READ_ITEM_BASES = 1;
-    private static final int READ_ITEM_SPARE = 2;
-    private static final int READ_ITEM_QUALS = 3;
-    private static final int READ_LINE_COUNT = 4;
-
-    private static final char READ_ID_START = '@';
-    private static final char READ_ID_BREAK = ' ';
-    private static final char READ_ID_DELIM = ':';
+    private static final byte READ_ID_BREAK = ' ';
+    private static final byte READ_ID_DELIM = ':';
 
-    private BufferedWriter createOutputWriter(final String inputFile)
+    private OutputStream createOutputWriter(final String inputFile)
     {
         String fastqFile = inputFile.substring(inputFile.lastIndexOf(File.separator) + 1);
         int extensionIndex = fastqFile.contains("fastq") ? fastqFile.lastIndexOf(".fastq") : fastqFile.lastIndexOf(".fq");
@@ -116,7 +125,7 @@ public class FastqUmiExtracter
 
         try
         {
-            return outputFile.endsWith(".gz") ? createGzipBufferedWriter(outputFile) : createBufferedWriter(outputFile);
+            return FastqFiles.openOutputStream(outputFile, mWriterThreads);
         }
         catch(IOException e)
         {
@@ -128,51 +137,27 @@ public class FastqUmiExtracter
 
     private void processFiles(final String r1File, final String r2File)
     {
-        try
-        {
-            mWriterR1 = createOutputWriter(r1File);
-            mWriterR2 = createOutputWriter(r2File);
-
-            BufferedReader r1Reader = createBufferedReader(r1File);
-            BufferedReader r2Reader = createBufferedReader(r2File);
+        mWriterR1 = createOutputWriter(r1File);
+        mWriterR2 = createOutputWriter(r2File);
 
-            int lineCount = 0;
-
-            int readLineCount = 0;
-            String[] r1ReadBuffer = new String[READ_ITEM_QUALS+1];
-            String[] r2ReadBuffer = new String[READ_ITEM_QUALS+1];
+        try(FastqPairReader pairReader = FastqPairReader.open(r1File, r2File, mReaderThreads))
+        {
+            FastqRecord r1Record = new FastqRecord();
+            FastqRecord r2Record = new FastqRecord();
 
-            while(true)
+            while(pairReader.next(r1Record, r2Record))
             {
-                r1ReadBuffer[readLineCount] = r1Reader.readLine();
-                r2ReadBuffer[readLineCount] = r2Reader.readLine();
-
-                if(r1ReadBuffer[readLineCount] == null || r2ReadBuffer[readLineCount] == null)
-                    break;
-
-                ++readLineCount;
-
-                if(readLineCount == READ_LINE_COUNT)
+                if(!processReadBases(r1Record, r2Record))
                 {
-                    if(!processReadBases(r1ReadBuffer, r2ReadBuffer))
-                    {
-                        MD_LOGGER.error("invalid entries at line({})", lineCount);
-
-                        for(int i = 0; i < r1ReadBuffer.length; ++i)
-                        {
-                            MD_LOGGER.error("R1 item {}: {}", i, r1ReadBuffer[i]);
-                            MD_LOGGER.error("R2 item {}: {}", i, r2ReadBuffer[i]);
-                        }
-
-                        System.exit(1);
-                    }
-
-                    readLineCount = 0;
+                    MD_LOGGER.error("invalid entries at record({})", pairReader.pairCount());
+                    MD_LOGGER.error("R1 record: {}", r1Record.readName());
+                    MD_LOGGER.error("R2 record: {}", r2Record.readName());
+                    System.exit(1);
                 }
 
-                ++lineCount;
+                long lineCount = pairReader.pairCount() * RECORD_LINE_COUNT;
 
-                if(lineCount > 0 && (lineCount % LINE_LOG_COUNT) == 0)
+                if((lineCount % LINE_LOG_COUNT) == 0)
                 {
                     MD_LOGGER.info("processed {} lines", lineCount);
                 }
@@ -189,7 +174,7 @@ public class FastqUmiExtracter
         }
     }
 
-    private boolean processReadBases(final String[] r1ReadBuffer, final String[] r2ReadBuffer)
+    private boolean processReadBases(final FastqRecord r1Record, final FastqRecord r2Record)
     {
         /*
         @A00121:853:H5JJNDSX7:1:1101:1443:1047 1:N:0:GGCACAACCT+CAGGAGTCTA
@@ -198,94 +183,78 @@ public class FastqUmiExtracter
         F#FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF
         */
 
-        // data validation
-        if(r1ReadBuffer[READ_ITEM_ID].charAt(0) != READ_ID_START || r2ReadBuffer[READ_ITEM_ID].charAt(0) != READ_ID_START)
-            return false;
-        
+        // data validation, with record format checked by the reader
         int minReadLength = max(mAdapterUmiLength, mUmiLength);
 
-        if(r1ReadBuffer[READ_ITEM_BASES].length() <= minReadLength || r1ReadBuffer[READ_ITEM_QUALS].length() <= minReadLength)
+        if(r1Record.readLength() <= minReadLength || r1Record.qualsLength() <= minReadLength)
             return false;
 
-        int delimIndex = r1ReadBuffer[READ_ITEM_ID].indexOf(READ_ID_BREAK);
+        int delimIndex = r1Record.nameIndexOf(READ_ID_BREAK);
 
-        if(delimIndex < 1 || r2ReadBuffer[READ_ITEM_ID].charAt(delimIndex) != READ_ID_BREAK)
+        if(delimIndex < 1 || delimIndex >= r2Record.nameLength() || r2Record.name()[delimIndex] != READ_ID_BREAK)
             return false;
 
-        String readId1 = r1ReadBuffer[READ_ITEM_ID].substring(1, delimIndex);
-        String readId2 = r2ReadBuffer[READ_ITEM_ID].substring(1, delimIndex);
-
-        if(!readId1.equals(readId2))
+        // read IDs exclude the leading '@'
+        if(!r1Record.nameRegionMatches(r2Record, 1, delimIndex))
             return false;
 
+        // append UMIs to read Id and remove from bases and quals
+        int umiIdLength = 0;
+        mUmiIdBuffer[umiIdLength++] = READ_ID_DELIM;
+
         if(mAdapterUmiLength > 0)
         {
-            String adapterUmiBases1 = r1ReadBuffer[READ_ITEM_BASES].substring(0, mAdapterUmiLength);
+            if(r2Record.readLength() < mAdapterUmiLength)
+                return false;
 
-            String umiBases1 = adapterUmiBases1.substring(0, mUmiLength);
+            r1Record.copyBases(0, mUmiIdBuffer, umiIdLength, mUmiLength);
+            umiIdLength += mUmiLength;
 
-            // append UMIs to read Id and remove from bases and quals
-            String newReadId = readId1 + READ_ID_DELIM + umiBases1;
-            r1ReadBuffer[READ_ITEM_ID] = READ_ID_START + newReadId + r1ReadBuffer[READ_ITEM_ID].substring(delimIndex);
-            r2ReadBuffer[READ_ITEM_ID] = READ_ID_START + newReadId + r2ReadBuffer[READ_ITEM_ID].substring(delimIndex);
+            r1Record.insertIntoName(delimIndex, mUmiIdBuffer, umiIdLength);
+            r2Record.insertIntoName(delimIndex, mUmiIdBuffer, umiIdLength);
 
-            r1ReadBuffer[READ_ITEM_BASES] = r1ReadBuffer[READ_ITEM_BASES].substring(mAdapterUmiLength);
-            r1ReadBuffer[READ_ITEM_QUALS] = r1ReadBuffer[READ_ITEM_QUALS].substring(mAdapterUmiLength);
+            r1Record.trimStart(mAdapterUmiLength);
 
             // the R2 read may have the reversed adapter+UMI sequence at the end
-            String adapterUmiBases2Start = r2ReadBuffer[READ_ITEM_BASES].substring(0, mAdapterUmiLength);
-            int read2Length = r2ReadBuffer[READ_ITEM_BASES].length();
-            String adapterUmiBases2End = r2ReadBuffer[READ_ITEM_BASES].substring(read2Length - mAdapterUmiLength);
-
-            int adapterSeqIndex = adapterUmiBases2Start.indexOf(mAdapterSequence);
+            int read2Length = r2Record.readLength();
+            int adapterSeqIndex = r2Record.basesIndexOf(mAdapterSequenceBytes, 0, mAdapterUmiLength);
 
             if(adapterSeqIndex >= 0)
             {
                 // trim from start
-                int trimIndex = adapterSeqIndex + mAdapterSequence.length();
-                r2ReadBuffer[READ_ITEM_BASES] = r2ReadBuffer[READ_ITEM_BASES].substring(trimIndex);
-                r2ReadBuffer[READ_ITEM_QUALS] = r2ReadBuffer[READ_ITEM_QUALS].substring(trimIndex);
+                r2Record.trimStart(adapterSeqIndex + mAdapterSequenceBytes.length);
             }
             else
             {
-                adapterSeqIndex = adapterUmiBases2End.indexOf(mAdapterSequenceReversed);
+                int endWindowStart = read2Length - mAdapterUmiLength;
+                adapterSeqIndex = r2Record.basesIndexOf(mAdapterSequenceReversedBytes, endWindowStart, read2Length);
 
                 if(adapterSeqIndex >= 0)
-                {
-                    int trimIndex = read2Length - mAdapterUmiLength + adapterSeqIndex;
-                    r2ReadBuffer[READ_ITEM_BASES] = r2ReadBuffer[READ_ITEM_BASES].substring(0, trimIndex);
-                    r2ReadBuffer[READ_ITEM_QUALS] = r2ReadBuffer[READ_ITEM_QUALS].substring(0, trimIndex);
-                }
+                    r2Record.trimEnd(read2Length - adapterSeqIndex);
             }
         }
         else
         {
-            String umiBases1 = r1ReadBuffer[READ_ITEM_BASES].substring(0, mUmiLength);
-            String umiBases2 = r2ReadBuffer[READ_ITEM_BASES].substring(0, mUmiLength);
-
-            // append UMIs to read Id and remove from bases and quals
-            String duplexUmiId = umiBases1 + DEFAULT_DUPLEX_UMI_DELIM + umiBases2;
-            String newReadId = readId1 + READ_ID_DELIM + duplexUmiId;
-            r1ReadBuffer[READ_ITEM_ID] = READ_ID_START + newReadId + r1ReadBuffer[READ_ITEM_ID].substring(delimIndex);
-            r2ReadBuffer[READ_ITEM_ID] = READ_ID_START + newReadId + r2ReadBuffer[READ_ITEM_ID].substring(delimIndex);
-
-            r1ReadBuffer[READ_ITEM_BASES] = r1ReadBuffer[READ_ITEM_BASES].substring(mUmiLength);
-            r2ReadBuffer[READ_ITEM_BASES] = r2ReadBuffer[READ_ITEM_BASES].substring(mUmiLength);
-            r1ReadBuffer[READ_ITEM_QUALS] = r1ReadBuffer[READ_ITEM_QUALS].substring(mUmiLength);
-            r2ReadBuffer[READ_ITEM_QUALS] = r2ReadBuffer[READ_ITEM_QUALS].substring(mUmiLength);
+            if(r2Record.readLength() < mUmiLength)
+                return false;
+
+            r1Record.copyBases(0, mUmiIdBuffer, umiIdLength, mUmiLength);
+            umiIdLength += mUmiLength;
+            mUmiIdBuffer[umiIdLength++] = (byte)DEFAULT_DUPLEX_UMI_DELIM;
+            r2Record.copyBases(0, mUmiIdBuffer, umiIdLength, mUmiLength);
+            umiIdLength += mUmiLength;
+
+            r1Record.insertIntoName(delimIndex, mUmiIdBuffer, umiIdLength);
+            r2Record.insertIntoName(delimIndex, mUmiIdBuffer, umiIdLength);
+
+            r1Record.trimStart(mUmiLength);
+            r2Record.trimStart(mUmiLength);
         }
 
         try
         {
-            for(int i = 0; i < r1ReadBuffer.length; ++i)
-            {
-                mWriterR1.write(r1ReadBuffer[i]);
-                mWriterR1.newLine();
-
-                mWriterR2.write(r2ReadBuffer[i]);
-                mWriterR2.newLine();
-            }
-
+            r1Record.writeTo(mWriterR1);
+            r2Record.writeTo(mWriterR2);
             return true;
         }
         catch(IOException e)
@@ -302,6 +271,7 @@ public class FastqUmiExtracter
         configBuilder.addConfigItem(FASTQ_FILES, true, "Fastq file-pair path, separated by delim ','");
         configBuilder.addConfigItem(ConfigItemType.INTEGER, UMI_LENGTH, true, "UMI length", null);
         configBuilder.addConfigItem(ADAPTER_SEQUENCE, "Adapter sequence (optional)");
+        addThreadOptions(configBuilder);
         addOutputOptions(configBuilder);
         ConfigUtils.addLoggingOptions(configBuilder);
 
@@ -0,0 +1,209 @@
+package com.hartwig.hmftools.markdups.umi;
+
+import static com.hartwig.hmftools.markdups.umi.UmiUtils.exceedsUmiIdDiff;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class PackedUmis
+{
+    // UMIs of the same length are packed at 2 bits per base so base differences can be counted with an XOR and pop-count
+    // non-ACGT characters such as a duplex delimiter are permitted if they are the same in every UMI, and otherwise
+    // comparisons fall back to the UMI strings
+    private final List<String> mUmis;
+    private final long[] mPackedUmis;
+    private final int mPackedLength;
+
+    // index from each sub-key of the packed UMIs to the UMIs which have it, built on demand
+    private int mIndexedDiff;
+    private int[] mSegmentStarts;
+    private List<Map<Long,List<Integer>>> mSegmentIndex;
+
+    public static final int MAX_PACKED_BASES = 32;
+
+    // below this UMI count a linear scan is faster than building and querying an index
+    public static final int MIN_INDEXED_UMIS = 32;
+
+    private static final long LOW_BIT_MASK = 0x5555555555555555L;
+
+    public PackedUmis(final List<String> umis)
+    {
+        mUmis = umis;
+        mPackedLength = packableBaseCount(umis);
+        mIndexedDiff = -1;
+        mSegmentStarts = null;
+        mSegmentIndex = null;
+
+        if(mPackedLength > 0)
+        {
+            mPackedUmis = new long[umis.size()];
+
+            for(int i = 0; i < umis.size(); ++i)
+            {
+                mPackedUmis[i] = packUmi(umis.get(i));
+            }
+        }
+        else
+        {
+            mPackedUmis = null;
+        }
+    }
+
+    public int size() { return mUmis.size(); }
+    public boolean isPacked() { return mPackedUmis != null; }
+
+    public boolean exceedsDiff(int first, int second, int permittedDiff)
+    {
+        if(mPackedUmis == null)
+            return exceedsUmiIdDiff(mUmis.get(first), mUmis.get(second), permittedDiff);
+
+        return packedBaseDiff(mPackedUmis[first], mPackedUmis[second]) > permittedDiff;
+    }
+
+    public boolean canIndex(int permittedDiff)
+    {
+        return mPackedUmis != null && mUmis.size() >= MIN_INDEXED_UMIS && mPackedLength > permittedDiff + 1;
+    }
+
+    public void findCandidates(int umiIndex, int permittedDiff, final List<Integer> candidates)
+    {
+        // by the pigeonhole principle, UMIs within the permitted difference share at least one of (diff + 1) segments exactly,
+        // so only UMIs sharing a segment need to be compared - the returned candidates are unordered and may repeat
+        candidates.clear();
+
+        if(!canIndex(permittedDiff))
+        {
+            for(int i = 0; i < mUmis.size(); ++i)
+            {
+                candidates.add(i);
+            }
+
+            return;
+        }
+
+        if(mIndexedDiff != permittedDiff)
+            buildIndex(permittedDiff);
+
+        for(int s = 0; s < mSegmentIndex.size(); ++s)
+        {
+            List<Integer> umiIndices = mSegmentIndex.get(s).get(segmentKey(mPackedUmis[umiIndex], s));
+
+            if(umiIndices != null)
+                candidates.addAll(umiIndices);
+        }
+    }
+
+    private void buildIndex(int permittedDiff)
+    {
+        int segmentCount = permittedDiff + 1;
+
+        mIndexedDiff = permittedDiff;
+        mSegmentStarts = new int[segmentCount + 1];
+        mSegmentIndex = Lists.newArrayListWithCapacity(segmentCount);
+
+        for(int s = 0; s <= segmentCount; ++s)
+        {
+            mSegmentStarts[s] = s * mPackedLength / segmentCount;
+        }
+
+        for(int s = 0; s < segmentCount; ++s)
+        {
+            Map<Long,List<Integer>> segmentMap = Maps.newHashMap();
+
+            for(int i = 0; i < mPackedUmis.length; ++i)
+            {
+                segmentMap.computeIfAbsent(segmentKey(mPackedUmis[i], s), k -> Lists.newArrayList()).add(i);
+            }
+
+            mSegmentIndex.add(segmentMap);
+        }
+    }
+
+    private long segmentKey(long packedUmi, int segment)
+    {
+        int startBit = mSegmentStarts[segment] * 2;
+        int bitLength = (mSegmentStarts[segment + 1] - mSegmentStarts[segment]) * 2;
+        long mask = bitLength >= 64 ? -1L : (1L << bitLength) - 1;
+        return (packedUmi >>> startBit) & mask;
+    }
+
+    public static int packedBaseDiff(long first, long second)
+    {
+        // a base differs if either of its 2 bits differs
+        long diffBits = first ^ second;
+        return Long.bitCount((diffBits | (diffBits >>> 1)) & LOW_BIT_MASK);
+    }
+
+    public static long packUmi(final String umi)
+    {
+        long packed = 0;
+        int baseIndex = 0;
+
+        for(int i = 0; i < umi.length(); ++i)
+        {
+            int baseCode = baseCode(umi.charAt(i));
+
+            if(baseCode < 0)
+                continue;
+
+            packed |= ((long)baseCode) << (baseIndex * 2);
+            ++baseIndex;
+        }
+
+        return packed;
+    }
+
+    private static int packableBaseCount(final List<String> umis)
+    {
+        // returns the number of packed bases, or zero if the UMIs cannot be packed
+        if(umis.isEmpty())
+            return 0;
+
+        String template = umis.get(0);
+        int baseCount = 0;
+
+        for(int i = 0; i < template.length(); ++i)
+        {
+            if(baseCode(template.charAt(i)) >= 0)
+                ++baseCount;
+        }
+
+        if(baseCount == 0 || baseCount > MAX_PACKED_BASES)
+            return 0;
+
+        for(String umi : umis)
+        {
+            if(umi.length() != template.length())
+                return 0;
+
+            for(int i = 0; i < umi.length(); ++i)
+            {
+                char base = umi.charAt(i);
+                char templateBase = template.charAt(i);
+
+                boolean isBase = baseCode(base) >= 0;
+                boolean isTemplateBase = baseCode(templateBase) >= 0;
+
+                if(isBase != isTemplateBase || (!isBase && base != templateBase))
+                    return 0;
+            }
+        }
+
+        return baseCount;
+    }
+
+    private static int baseCode(char base)
+    {
+        switch(base)
+        {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+}
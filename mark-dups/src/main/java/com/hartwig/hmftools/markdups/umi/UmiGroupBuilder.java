@@ -10,6 +10,7 @@ import static com.hartwig.hmftools.markdups.umi.UmiUtils.exceedsUmiIdDiff;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -74,114 +75,167 @@ public class UmiGroupBuilder
         // order groups by descending number of fragments
         List<DuplicateGroup> orderedGroups = groups.values().stream().sorted(new UmiUtils.SizeComparator()).collect(Collectors.toList());
 
-        // then apply the directional model, where smaller groups are merged into larger ones
-        int i = 0;
-        while(i < orderedGroups.size() - 1)
+        if(orderedGroups.size() == 1)
+            return orderedGroups;
+
+        PackedUmis packedUmis = new PackedUmis(orderedGroups.stream().map(x -> x.umiId()).collect(Collectors.toList()));
+        boolean[] merged = new boolean[orderedGroups.size()];
+
+        // apply the directional model, where smaller groups are merged into larger ones
+        mergeDirectionalClusters(orderedGroups, packedUmis, merged, config.PermittedBaseDiff);
+
+        // run a check allowing collapsing of UMIs with 2-base differences
+        mergeWithinDiff(orderedGroups, packedUmis, merged, config.PermittedBaseDiff + 1);
+
+        // run a check allowing collapsing of UMIs with 4-base differences where significant imbalance exists
+        boolean hasLargeGroups = false;
+
+        for(int i = 0; i < orderedGroups.size(); ++i)
+        {
+            if(!merged[i] && orderedGroups.get(i).fragmentCount() >= MAX_IMBALANCED_UMI_COUNT)
+            {
+                hasLargeGroups = true;
+                break;
+            }
+        }
+
+        if(hasLargeGroups)
+            mergeImbalancedGroups(orderedGroups, packedUmis, merged);
+
+        List<DuplicateGroup> finalGroups = Lists.newArrayListWithCapacity(orderedGroups.size());
+
+        for(int i = 0; i < orderedGroups.size(); ++i)
+        {
+            if(!merged[i])
+                finalGroups.add(orderedGroups.get(i));
+        }
+
+        return finalGroups;
+    }
+
+    private static void mergeDirectionalClusters(
+            final List<DuplicateGroup> orderedGroups, final PackedUmis packedUmis, final boolean[] merged, int permittedDiff)
+    {
+        // each remaining group in turn seeds a cluster, which repeatedly takes the lowest-ordered remaining group within
+        // the permitted difference of a cluster member with at least as many fragments
+        // candidates are held in a heap since a group added to the cluster can bring in groups ordered before other candidates
+        int groupCount = orderedGroups.size();
+        PriorityQueue<Integer> candidates = new PriorityQueue<>();
+        List<Integer> neighbours = Lists.newArrayList();
+
+        for(int i = 0; i < groupCount - 1; ++i)
         {
+            if(merged[i])
+                continue;
+
             DuplicateGroup first = orderedGroups.get(i);
+            List<Integer> cluster = Lists.newArrayList(i);
 
-            List<DuplicateGroup> cluster = Lists.newArrayList(first);
+            candidates.clear();
+            addDirectionalCandidates(orderedGroups, packedUmis, merged, permittedDiff, i, i, neighbours, candidates);
 
-            int j = i + 1;
-            while(j < orderedGroups.size())
+            while(!candidates.isEmpty())
             {
-                DuplicateGroup second = orderedGroups.get(j);
+                int next = candidates.poll();
 
-                boolean merged = false;
+                if(merged[next])
+                    continue;
 
-                for(DuplicateGroup existing : cluster)
-                {
-                    if(existing.fragmentCount() >= second.fragmentCount() && !exceedsUmiIdDiff(existing.umiId(), second.umiId(), config.PermittedBaseDiff))
-                    {
-                        merged = true;
-                        break;
-                    }
-                }
+                merged[next] = true;
+                cluster.add(next);
 
-                if(!merged)
-                {
-                    ++j;
-                }
-                else
-                {
-                    orderedGroups.remove(j);
-                    cluster.add(second);
-
-                    // restart the search since a newly added group may be close enough to a skipped one
-                    j = i + 1;
-                }
+                addDirectionalCandidates(orderedGroups, packedUmis, merged, permittedDiff, i, next, neighbours, candidates);
             }
 
-            for(j = 1; j < cluster.size(); ++j)
+            for(int j = 1; j < cluster.size(); ++j)
             {
-                first.fragments().addAll(cluster.get(j).fragments());
+                first.fragments().addAll(orderedGroups.get(cluster.get(j)).fragments());
             }
+        }
+    }
+
+    private static void addDirectionalCandidates(
+            final List<DuplicateGroup> orderedGroups, final PackedUmis packedUmis, final boolean[] merged, int permittedDiff,
+            int seedIndex, int memberIndex, final List<Integer> neighbours, final PriorityQueue<Integer> candidates)
+    {
+        int memberCount = orderedGroups.get(memberIndex).fragmentCount();
+
+        packedUmis.findCandidates(memberIndex, permittedDiff, neighbours);
 
-            ++i;
+        for(int index : neighbours)
+        {
+            if(index <= seedIndex || merged[index] || index == memberIndex)
+                continue;
+
+            if(memberCount >= orderedGroups.get(index).fragmentCount() && !packedUmis.exceedsDiff(memberIndex, index, permittedDiff))
+                candidates.add(index);
         }
+    }
 
-        // run a check allowing collapsing of UMIs with 2-base differences
-        if(orderedGroups.size() > 1)
+    private static void mergeWithinDiff(
+            final List<DuplicateGroup> orderedGroups, final PackedUmis packedUmis, final boolean[] merged, int permittedDiff)
+    {
+        // merge any later group within the permitted difference of each remaining group, in order
+        int groupCount = orderedGroups.size();
+        List<Integer> neighbours = Lists.newArrayList();
+
+        for(int i = 0; i < groupCount; ++i)
         {
-            i = 0;
-            while(i < orderedGroups.size())
+            if(merged[i])
+                continue;
+
+            DuplicateGroup first = orderedGroups.get(i);
+
+            packedUmis.findCandidates(i, permittedDiff, neighbours);
+            Collections.sort(neighbours);
+
+            int lastIndex = -1;
+
+            for(int j : neighbours)
             {
-                DuplicateGroup first = orderedGroups.get(i);
+                if(j <= i || j == lastIndex || merged[j])
+                    continue;
 
-                int j = i + 1;
-                while(j < orderedGroups.size())
-                {
-                    DuplicateGroup second = orderedGroups.get(j);
+                lastIndex = j;
 
-                    if(!exceedsUmiIdDiff(first.umiId(), second.umiId(), config.PermittedBaseDiff + 1))
-                    {
-                        first.fragments().addAll(second.fragments());
-                        orderedGroups.remove(j);
-                    }
-                    else
-                    {
-                        ++j;
-                    }
+                if(!packedUmis.exceedsDiff(i, j, permittedDiff))
+                {
+                    first.fragments().addAll(orderedGroups.get(j).fragments());
+                    merged[j] = true;
                 }
-
-                ++i;
             }
         }
+    }
 
-        // run a check allowing collapsing of UMIs with 4-base differences where significant imbalance exists
-        boolean hasLargeGroups = orderedGroups.stream().anyMatch(x -> x.fragmentCount() >= MAX_IMBALANCED_UMI_COUNT);
+    private static void mergeImbalancedGroups(final List<DuplicateGroup> orderedGroups, final PackedUmis packedUmis, final boolean[] merged)
+    {
+        // the count ratio changes as groups are merged, so each pair is tested in order
+        int groupCount = orderedGroups.size();
 
-        if(orderedGroups.size() > 1 && hasLargeGroups)
+        for(int i = 0; i < groupCount; ++i)
         {
-            i = 0;
-            while(i < orderedGroups.size())
+            if(merged[i])
+                continue;
+
+            DuplicateGroup first = orderedGroups.get(i);
+
+            for(int j = i + 1; j < groupCount; ++j)
             {
-                DuplicateGroup first = orderedGroups.get(i);
+                if(merged[j])
+                    continue;
 
-                int j = i + 1;
-                while(j < orderedGroups.size())
-                {
-                    DuplicateGroup second = orderedGroups.get(j);
+                DuplicateGroup second = orderedGroups.get(j);
 
-                    double maxCountRatio = first.fragmentCount() >= second.fragmentCount() ?
-                            first.fragmentCount() / (double)second.fragmentCount() : second.fragmentCount() / (double)first.fragmentCount();
+                double maxCountRatio = first.fragmentCount() >= second.fragmentCount() ?
+                        first.fragmentCount() / (double)second.fragmentCount() : second.fragmentCount() / (double)first.fragmentCount();
 
-                    if(maxCountRatio >= MAX_IMBALANCED_UMI_COUNT && !exceedsUmiIdDiff(first.umiId(), second.umiId(), MAX_IMBALANCED_UMI_BASE_DIFF))
-                    {
-                        first.fragments().addAll(second.fragments());
-                        orderedGroups.remove(j);
-                    }
-                    else
-                    {
-                        ++j;
-                    }
+                if(maxCountRatio >= MAX_IMBALANCED_UMI_COUNT && !packedUmis.exceedsDiff(i, j, MAX_IMBALANCED_UMI_BASE_DIFF))
+                {
+                    first.fragments().addAll(second.fragments());
+                    merged[j] = true;
                 }
-
-                ++i;
             }
         }
-
-        return orderedGroups;
     }
 
     private class CoordinateGroup
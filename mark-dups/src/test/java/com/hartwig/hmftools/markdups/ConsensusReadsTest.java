@@ -605,6 +605,43 @@ public class ConsensusReadsTest
         assertEquals(posStart, readInfo.ConsensusRead.getAlignmentStart());
     }
 
+    @Test
+    public void testConsensusBuffersReusedAcrossGroups()
+    {
+        // a large group grows the reused per-read buffers, and a smaller group following it must not see its stale values
+        int posStart = 11;
+        int readLength = 10;
+        String cigar = "10M";
+        String consensusBases = REF_BASES.substring(posStart, posStart + readLength);
+
+        int mutatedBaseIndex = 5;
+        StringBuilder mutatedBasesBuilder = new StringBuilder(consensusBases);
+        mutatedBasesBuilder.setCharAt(mutatedBaseIndex, mNextBaseMap.get(consensusBases.charAt(mutatedBaseIndex)));
+        String mutatedBases = mutatedBasesBuilder.toString();
+
+        List<SAMRecord> reads = Lists.newArrayList();
+
+        for(int i = 0; i < 40; ++i)
+        {
+            reads.add(createSamRecord(nextReadId(), posStart, mutatedBases, cigar, false));
+        }
+
+        reads.add(createSamRecord(nextReadId(), posStart, consensusBases, cigar, false));
+
+        ConsensusReadInfo readInfo = createConsensusRead(mConsensusReads, reads, UMI_ID_1);
+        assertEquals(mutatedBases, readInfo.ConsensusRead.getReadString());
+
+        SAMRecord read1 = createSamRecord(nextReadId(), posStart, consensusBases, cigar, false);
+        SAMRecord read2 = createSamRecord(nextReadId(), posStart, consensusBases, cigar, false);
+        SAMRecord read3 = createSamRecord(nextReadId(), posStart, mutatedBases, cigar, false);
+
+        readInfo = createConsensusRead(mConsensusReads, Lists.newArrayList(read1, read2, read3), UMI_ID_1);
+        assertEquals(ALIGNMENT_ONLY, readInfo.Outcome);
+        assertEquals(consensusBases, readInfo.ConsensusRead.getReadString());
+        assertEquals(37, (int)readInfo.ConsensusRead.getBaseQualities()[0]);
+        assertTrue(readInfo.ConsensusRead.getBaseQualities()[mutatedBaseIndex] < 37);
+    }
+
     @Test
     public void testNumMutationsAttribute()
     {
@@ -1,6 +1,8 @@
 package com.hartwig.hmftools.markdups;
 
 import static com.hartwig.hmftools.markdups.TestUtils.createFragment;
+import static com.hartwig.hmftools.markdups.common.Constants.MAX_IMBALANCED_UMI_BASE_DIFF;
+import static com.hartwig.hmftools.markdups.common.Constants.MAX_IMBALANCED_UMI_COUNT;
 import static com.hartwig.hmftools.markdups.common.Constants.DEFAULT_DUPLEX_UMI_DELIM;
 import static com.hartwig.hmftools.markdups.umi.UmiConfig.extractUmiIdFromReadId;
 import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
@@ -12,12 +14,20 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.markdups.common.Fragment;
+import com.hartwig.hmftools.markdups.umi.PackedUmis;
 import com.hartwig.hmftools.markdups.umi.UmiConfig;
+import com.hartwig.hmftools.markdups.umi.UmiUtils;
 import com.hartwig.hmftools.markdups.common.DuplicateGroup;
 
 import org.junit.Test;
@@ -165,6 +175,178 @@ public class UmiGroupsTest
         assertEquals(2, groups.size());
     }
 
+    @Test
+    public void testPackedUmis()
+    {
+        assertEquals(0, PackedUmis.packedBaseDiff(PackedUmis.packUmi("TATCGC"), PackedUmis.packUmi("TATCGC")));
+        assertEquals(1, PackedUmis.packedBaseDiff(PackedUmis.packUmi("TATCGC"), PackedUmis.packUmi("TATCGG")));
+        assertEquals(6, PackedUmis.packedBaseDiff(PackedUmis.packUmi("ACGTAC"), PackedUmis.packUmi("CATGCA")));
+
+        PackedUmis packedUmis = new PackedUmis(Lists.newArrayList("TATCGC", "TATCGG", "TATGGG", "AAACGG"));
+        assertTrue(packedUmis.isPacked());
+        assertFalse(packedUmis.exceedsDiff(0, 1, 1));
+        assertTrue(packedUmis.exceedsDiff(0, 2, 1));
+        assertFalse(packedUmis.exceedsDiff(0, 2, 2));
+        assertTrue(packedUmis.exceedsDiff(1, 3, 1));
+        assertFalse(packedUmis.exceedsDiff(1, 3, 2));
+
+        // duplex UMIs with a common delimiter are packed, others fall back to string comparison
+        packedUmis = new PackedUmis(Lists.newArrayList("TATC_GCAA", "TATC_GCAT"));
+        assertTrue(packedUmis.isPacked());
+        assertFalse(packedUmis.exceedsDiff(0, 1, 1));
+
+        packedUmis = new PackedUmis(Lists.newArrayList("TATCGN", "TATCGG", "TATCG"));
+        assertFalse(packedUmis.isPacked());
+        assertFalse(packedUmis.exceedsDiff(0, 1, 1));
+        assertTrue(packedUmis.exceedsDiff(1, 2, 1));
+    }
+
+    @Test
+    public void testIndexedUmiGroupsMatchPairwise()
+    {
+        // many UMIs at one coordinate, with sequencing errors around a set of source UMIs
+        UmiConfig umiConfig = new UmiConfig(true, false, "", false);
+        Random random = new Random(1);
+        String bases = "ACGT";
+
+        for(int test = 0; test < 5; ++test)
+        {
+            List<Fragment> fragments = Lists.newArrayList();
+            int readIndex = 0;
+
+            for(int u = 0; u < 40; ++u)
+            {
+                StringBuilder sourceUmi = new StringBuilder();
+
+                for(int b = 0; b < 8; ++b)
+                {
+                    sourceUmi.append(bases.charAt(random.nextInt(4)));
+                }
+
+                int sourceCount = 1 + random.nextInt(u < 3 ? 80 : 20);
+
+                for(int f = 0; f < sourceCount; ++f)
+                {
+                    StringBuilder umi = new StringBuilder(sourceUmi);
+                    int errors = random.nextInt(10) == 0 ? 1 + random.nextInt(3) : 0;
+
+                    for(int e = 0; e < errors; ++e)
+                    {
+                        umi.setCharAt(random.nextInt(umi.length()), bases.charAt(random.nextInt(4)));
+                    }
+
+                    fragments.add(createFragment(FIXED_READ_ID + readIndex++ + ":" + umi, CHR_1, 100));
+                }
+            }
+
+            Set<List<Integer>> expectedGroups = groupFragmentIndices(buildPairwiseUmiGroups(fragments, umiConfig), fragments);
+            Set<List<Integer>> actualGroups = groupFragmentIndices(buildUmiGroups(fragments, umiConfig), fragments);
+
+            assertEquals(expectedGroups, actualGroups);
+        }
+    }
+
+    private static Set<List<Integer>> groupFragmentIndices(final List<DuplicateGroup> groups, final List<Fragment> fragments)
+    {
+        Map<Fragment,Integer> fragmentIndices = new IdentityHashMap<>();
+
+        for(int i = 0; i < fragments.size(); ++i)
+        {
+            fragmentIndices.put(fragments.get(i), i);
+        }
+
+        return groups.stream()
+                .map(x -> x.fragments().stream().map(y -> fragmentIndices.get(y)).sorted().collect(Collectors.toList()))
+                .collect(Collectors.toSet());
+    }
+
+    private static List<DuplicateGroup> buildPairwiseUmiGroups(final List<Fragment> fragments, final UmiConfig config)
+    {
+        // reference all-pairs implementation of UMI group collapsing
+        Map<String,DuplicateGroup> groups = Maps.newHashMap();
+
+        for(Fragment fragment : fragments)
+        {
+            String umiId = config.extractUmiId(fragment.id());
+            DuplicateGroup group = groups.get(umiId);
+
+            if(group == null)
+                groups.put(umiId, new DuplicateGroup(umiId, fragment));
+            else
+                group.fragments().add(fragment);
+        }
+
+        List<DuplicateGroup> orderedGroups = groups.values().stream().sorted(new UmiUtils.SizeComparator()).collect(Collectors.toList());
+
+        int i = 0;
+        while(i < orderedGroups.size() - 1)
+        {
+            DuplicateGroup first = orderedGroups.get(i);
+            List<DuplicateGroup> cluster = Lists.newArrayList(first);
+
+            int j = i + 1;
+            while(j < orderedGroups.size())
+            {
+                DuplicateGroup second = orderedGroups.get(j);
+
+                boolean merged = cluster.stream().anyMatch(x -> x.fragmentCount() >= second.fragmentCount()
+                        && !exceedsUmiIdDiff(x.umiId(), second.umiId(), config.PermittedBaseDiff));
+
+                if(!merged)
+                {
+                    ++j;
+                }
+                else
+                {
+                    orderedGroups.remove(j);
+                    cluster.add(second);
+                    j = i + 1;
+                }
+            }
+
+            for(j = 1; j < cluster.size(); ++j)
+            {
+                first.fragments().addAll(cluster.get(j).fragments());
+            }
+
+            ++i;
+        }
+
+        for(int diff : new int[] { config.PermittedBaseDiff + 1, MAX_IMBALANCED_UMI_BASE_DIFF })
+        {
+            boolean imbalanceCheck = diff == MAX_IMBALANCED_UMI_BASE_DIFF;
+
+            if(imbalanceCheck && orderedGroups.stream().noneMatch(x -> x.fragmentCount() >= MAX_IMBALANCED_UMI_COUNT))
+                break;
+
+            for(i = 0; i < orderedGroups.size(); ++i)
+            {
+                DuplicateGroup first = orderedGroups.get(i);
+
+                int j = i + 1;
+                while(j < orderedGroups.size())
+                {
+                    DuplicateGroup second = orderedGroups.get(j);
+
+                    double maxCountRatio = first.fragmentCount() >= second.fragmentCount() ?
+                            first.fragmentCount() / (double)second.fragmentCount() : second.fragmentCount() / (double)first.fragmentCount();
+
+                    if((!imbalanceCheck || maxCountRatio >= MAX_IMBALANCED_UMI_COUNT) && !exceedsUmiIdDiff(first.umiId(), second.umiId(), diff))
+                    {
+                        first.fragments().addAll(second.fragments());
+                        orderedGroups.remove(j);
+                    }
+                    else
+                    {
+                        ++j;
+                    }
+                }
+            }
+        }
+
+        return orderedGroups;
+    }
+
     @Test
     public void testDefinedUmis()
     {
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.neo.bind;
 
 import static org.apache.commons.math3.util.FastMath.log;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -27,10 +28,30 @@ public final class BindConstants
 
     public static final int INVALID_AMINO_ACID = -1;
 
+    // indexed by character so scoring a peptide needs no boxing or map lookups per amino acid
+    private static final int[] AMINO_ACID_CHAR_INDICES = buildCharIndices(AMINO_ACIDS);
+
     public static int aminoAcidIndex(final char aminoAcid)
     {
-        Integer index = AMINO_ACID_INDICES.get(aminoAcid);
-        return index != null ? index : INVALID_AMINO_ACID;
+        return charIndex(AMINO_ACID_CHAR_INDICES, aminoAcid);
+    }
+
+    public static int[] buildCharIndices(final List<Character> characters)
+    {
+        int[] charIndices = new int[128];
+        Arrays.fill(charIndices, INVALID_AMINO_ACID);
+
+        for(int i = 0; i < characters.size(); ++i)
+        {
+            charIndices[characters.get(i)] = i;
+        }
+
+        return charIndices;
+    }
+
+    public static int charIndex(final int[] charIndices, final char character)
+    {
+        return character < charIndices.length ? charIndices[character] : INVALID_AMINO_ACID;
     }
 
     public static final List<Integer> DEFAULT_PEPTIDE_LENGTHS = Lists.newArrayList(8, 9, 10, 11, 12);
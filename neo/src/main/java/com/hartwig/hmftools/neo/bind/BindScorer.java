@@ -173,6 +173,30 @@ public class BindScorer
                 mBindingLikelihood, mExpressionLikelihood, mRecognitionSimilarity);
     }
 
+    public void calcScoreData(final String allele, final List<BindData> bindDataList)
+    {
+        // score a batch of peptides against an allele, looking up its matrices once
+        Map<Integer,BindScoreMatrix> pepLenMatrixMap = mAlleleBindMatrices.get(allele);
+
+        if(pepLenMatrixMap == null)
+            return;
+
+        BindScoreMatrix matrix = null;
+
+        for(BindData bindData : bindDataList)
+        {
+            if(matrix == null || matrix.PeptideLength != bindData.peptideLength())
+                matrix = pepLenMatrixMap.get(bindData.peptideLength());
+
+            if(matrix == null)
+                continue;
+
+            calcScoreData(
+                    bindData, matrix, mFlankScores, mRandomDistribution,
+                    mBindingLikelihood, mExpressionLikelihood, mRecognitionSimilarity);
+        }
+    }
+
     public static void calcScoreData(
             final BindData bindData, final BindScoreMatrix matrix, final FlankScores flankScores,
             final RandomPeptideDistribution randomDistribution, final BindingLikelihood bindingLikelihood,
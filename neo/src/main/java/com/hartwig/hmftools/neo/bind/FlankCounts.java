@@ -8,6 +8,8 @@ import static com.hartwig.hmftools.neo.NeoCommon.NE_LOGGER;
 import static com.hartwig.hmftools.neo.bind.BindCommon.DATA_TYPE_BIND_COUNTS;
 import static com.hartwig.hmftools.neo.bind.BindConstants.AMINO_ACIDS;
 import static com.hartwig.hmftools.neo.bind.BindConstants.INVALID_AMINO_ACID;
+import static com.hartwig.hmftools.neo.bind.BindConstants.buildCharIndices;
+import static com.hartwig.hmftools.neo.bind.BindConstants.charIndex;
 
 import static org.apache.commons.math3.util.FastMath.log;
 
@@ -48,10 +50,11 @@ public class FlankCounts
 
     public static final int FLANK_AMINO_ACID_COUNT = FLANK_AMINO_ACIDS.size();
 
+    private static final int[] FLANK_AMINO_ACID_CHAR_INDICES = buildCharIndices(FLANK_AMINO_ACIDS);
+
     public static int flankAminoAcidIndex(final char aminoAcid)
     {
-        Integer index = FLANK_AMINO_ACID_INDICES.get(aminoAcid);
-        return index != null ? index : INVALID_AMINO_ACID;
+        return charIndex(FLANK_AMINO_ACID_CHAR_INDICES, aminoAcid);
     }
 
     public static final int UP_1 = 2;
@@ -6,7 +6,8 @@ import static java.lang.Math.round;
 import static com.hartwig.hmftools.neo.NeoCommon.NE_LOGGER;
 import static com.hartwig.hmftools.neo.bind.BindConstants.PAN_PEPTIDE_LENGTH;
 import static com.hartwig.hmftools.neo.bind.BindConstants.PAN_PEPTIDE_MAX_LENGTH;
-import static com.hartwig.hmftools.neo.bind.RandomPeptideDistribution.getScoreRank;
+import static com.hartwig.hmftools.neo.bind.BindConstants.INVALID_SCORE;
+import static com.hartwig.hmftools.neo.bind.RandomPeptideDistribution.compileScoreRanks;
 
 import java.util.List;
 import java.util.Map;
@@ -160,12 +161,18 @@ public class RandomDistributionTask implements Callable
 
         List<Double> likelihoodScores = Lists.newArrayList();
 
+        Map<Integer,List<ScoreDistributionData>> peptideLengthDistributions = mAlleleScoreDistributions.get(mAllele);
+        RankDistribution[] peptideLengthRanks = peptideLengthDistributions != null ? compileScoreRanks(peptideLengthDistributions) : null;
+
         for(BindScoreMatrix matrix : mPeptideLengthMatrixMap.values())
         {
             // for now hard-code exclusion of length 12 since other tools are 8-11
             if(matrix.PeptideLength > PAN_PEPTIDE_MAX_LENGTH)
                 continue;
 
+            RankDistribution scoreRanks = peptideLengthRanks != null && matrix.PeptideLength < peptideLengthRanks.length
+                    ? peptideLengthRanks[matrix.PeptideLength] : null;
+
             int count = 0;
 
             List<PeptideData> randomPeptides = mRandomPeptideMap.get(matrix.PeptideLength);
@@ -176,7 +183,7 @@ public class RandomDistributionTask implements Callable
             for(PeptideData peptideData : randomPeptides)
             {
                 double score = BindScorer.calcScore(matrix, mFlankScores, peptideData.Peptide, peptideData.UpFlank, peptideData.DownFlank);
-                double rank = getScoreRank(mAlleleScoreDistributions, mAllele, matrix.PeptideLength, score);
+                double rank = scoreRanks != null ? scoreRanks.getRank(score) : INVALID_SCORE;
                 double likelihood = mBindingLikelihood.getBindingLikelihood(mAllele, peptideData.Peptide, rank);
 
                 if(likelihood > 0 && mExpressionLikelihood != null && mExpressionLikelihood.hasData())
@@ -28,7 +28,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
-import com.hartwig.hmftools.common.utils.Doubles;
 import com.hartwig.hmftools.neo.PeptideData;
 
 public class RandomPeptideDistribution
@@ -47,6 +46,11 @@ public class RandomPeptideDistribution
     // allele to distribution of expression likelihoods
     private final Map<String,List<ScoreDistributionData>> mAlleleExpressionLikelihoodDistributions;
 
+    // the distributions above compiled for rank look-ups, with score ranks indexed by peptide length
+    private final Map<String,RankDistribution[]> mAlleleScoreRanks;
+    private final Map<String,RankDistribution> mAlleleLikelihoodRanks;
+    private final Map<String,RankDistribution> mAlleleExpressionLikelihoodRanks;
+
     public RandomPeptideDistribution(final RandomPeptideConfig config)
     {
         mConfig = config;
@@ -54,6 +58,9 @@ public class RandomPeptideDistribution
         mAlleleScoreDistributions = Maps.newHashMap();
         mAlleleLikelihoodDistributions = Maps.newHashMap();
         mAlleleExpressionLikelihoodDistributions = Maps.newHashMap();
+        mAlleleScoreRanks = Maps.newHashMap();
+        mAlleleLikelihoodRanks = Maps.newHashMap();
+        mAlleleExpressionLikelihoodRanks = Maps.newHashMap();
         mRandomPeptideMap = Maps.newHashMap();
         mDataLoaded = false;
     }
@@ -63,6 +70,11 @@ public class RandomPeptideDistribution
         mDataLoaded = loadDistribution()
                 && loadLikelihoodDistribution(mConfig.LikelihoodDistributionFile, mAlleleLikelihoodDistributions, true)
                 && loadLikelihoodDistribution(mConfig.ExpressionLikelihoodDistributionFile, mAlleleExpressionLikelihoodDistributions, false);
+
+        compileScoreRanks();
+        compileLikelihoodRanks(mAlleleLikelihoodDistributions, mAlleleLikelihoodRanks);
+        compileLikelihoodRanks(mAlleleExpressionLikelihoodDistributions, mAlleleExpressionLikelihoodRanks);
+
         return mDataLoaded;
     }
 
@@ -72,91 +84,64 @@ public class RandomPeptideDistribution
 
     public double getScoreRank(final String allele, final int peptideLength, double score)
     {
-        return getScoreRank(mAlleleScoreDistributions, allele, peptideLength, score);
-    }
-
-    public static double getScoreRank(
-            final Map<String,Map<Integer,List<ScoreDistributionData>>> scoresMap, final String allele, final int peptideLength, double score)
-    {
-        Map<Integer,List<ScoreDistributionData>> peptideLengthMap = scoresMap.get(allele);
-
-        if(peptideLengthMap == null)
-            return INVALID_SCORE;
-
-        List<ScoreDistributionData> scores = peptideLengthMap.get(peptideLength);
+        RankDistribution[] peptideLengthRanks = mAlleleScoreRanks.get(allele);
 
-        if(scores == null || scores.size() < 2)
+        if(peptideLengthRanks == null || peptideLength < 0 || peptideLength >= peptideLengthRanks.length)
             return INVALID_SCORE;
 
-        return getRank(scores, score);
+        RankDistribution scoreRanks = peptideLengthRanks[peptideLength];
+        return scoreRanks != null ? scoreRanks.getRank(score) : INVALID_SCORE;
     }
 
     public double getLikelihoodRank(final String allele, double likelihood)
     {
-        List<ScoreDistributionData> likelihoodDist = mAlleleLikelihoodDistributions.get(allele);
-
-        if(likelihoodDist == null || likelihoodDist.size() < 2)
-            return INVALID_SCORE;
-
-        return getRank(likelihoodDist, likelihood);
+        RankDistribution likelihoodRanks = mAlleleLikelihoodRanks.get(allele);
+        return likelihoodRanks != null ? likelihoodRanks.getRank(likelihood) : INVALID_SCORE;
     }
 
     public double getExpressionLikelihoodRank(final String allele, double likelihood)
     {
-        List<ScoreDistributionData> likelihoodDist = mAlleleExpressionLikelihoodDistributions.get(allele);
-
-        if(likelihoodDist == null || likelihoodDist.size() < 2)
-            return INVALID_SCORE;
-
-        return getRank(likelihoodDist, likelihood);
+        RankDistribution likelihoodRanks = mAlleleExpressionLikelihoodRanks.get(allele);
+        return likelihoodRanks != null ? likelihoodRanks.getRank(likelihood) : INVALID_SCORE;
     }
 
-    private static double getRank(final List<ScoreDistributionData> distribution, double score)
+    public static RankDistribution[] compileScoreRanks(final Map<Integer,List<ScoreDistributionData>> peptideLengthDistributions)
     {
-        boolean isAscending = distribution.get(0).Score < distribution.get(1).Score;
-
-        if((isAscending && score < distribution.get(0).Score) || (!isAscending && score > distribution.get(0).Score))
-            return 0; // zero-th percentile if the score is better than any in the random distribution
+        // indexed by peptide length
+        int maxPeptideLength = peptideLengthDistributions.keySet().stream().mapToInt(x -> x).max().orElse(0);
+        RankDistribution[] peptideLengthRanks = new RankDistribution[maxPeptideLength + 1];
 
-        int distSize = distribution.size();
-        if((isAscending && score > distribution.get(distSize - 1).Score) || (!isAscending && score < distribution.get(distSize - 1).Score))
-            return 1; // return the 100th percentile if outside the distribution
-
-        for(int i = 0; i < distribution.size(); ++i)
+        for(Map.Entry<Integer,List<ScoreDistributionData>> entry : peptideLengthDistributions.entrySet())
         {
-            ScoreDistributionData scoreData = distribution.get(i);
+            if(entry.getKey() >= 0)
+                peptideLengthRanks[entry.getKey()] = RankDistribution.fromDistribution(entry.getValue());
+        }
 
-            if(Doubles.equal(score, scoreData.Score))
-                return scoreData.ScoreBucket;
+        return peptideLengthRanks;
+    }
 
-            ScoreDistributionData nextScoreData = i < distribution.size() - 1 ? distribution.get(i + 1) : null;
+    private void compileScoreRanks()
+    {
+        mAlleleScoreRanks.clear();
 
-            if(nextScoreData != null && Doubles.equal(score, nextScoreData.Score))
-                return nextScoreData.ScoreBucket;
+        for(Map.Entry<String,Map<Integer,List<ScoreDistributionData>>> alleleEntry : mAlleleScoreDistributions.entrySet())
+        {
+            mAlleleScoreRanks.put(alleleEntry.getKey(), compileScoreRanks(alleleEntry.getValue()));
+        }
+    }
 
-            if((isAscending && score > scoreData.Score) || (!isAscending && score < scoreData.Score))
-            {
-                if(nextScoreData == null)
-                    break;
+    private static void compileLikelihoodRanks(
+            final Map<String,List<ScoreDistributionData>> alleleDistributions, final Map<String,RankDistribution> alleleRanks)
+    {
+        alleleRanks.clear();
 
-                if((isAscending && score < nextScoreData.Score) || (!isAscending && score > nextScoreData.Score))
-                {
-                    // interpolate between the distribution to set the rank
-                    if(isAscending)
-                    {
-                        double upperPerc = (score - scoreData.Score) / (nextScoreData.Score - scoreData.Score);
-                        return upperPerc * nextScoreData.ScoreBucket + (1 - upperPerc) * scoreData.ScoreBucket;
-                    }
-                    else
-                    {
-                        double upperPerc = (score - nextScoreData.Score) / (scoreData.Score - nextScoreData.Score);
-                        return upperPerc * scoreData.ScoreBucket + (1 - upperPerc) * nextScoreData.ScoreBucket;
-                    }
-                }
-            }
-        }
+        for(Map.Entry<String,List<ScoreDistributionData>> alleleEntry : alleleDistributions.entrySet())
+        {
+            RankDistribution likelihoodRanks = RankDistribution.fromDistribution(alleleEntry.getValue());
 
-        return 1;
+            if(likelihoodRanks != null)
+                alleleRanks.put(alleleEntry.getKey(), likelihoodRanks);
+        }
     }
 
     public void buildDistribution(final Map<String,Map<Integer,BindScoreMatrix>> alleleBindMatrixMap, final FlankScores flankScores)
@@ -203,6 +188,7 @@ public class RandomPeptideDistribution
         }
 
         alleleTasks.forEach(x -> mAlleleScoreDistributions.put(x.allele(), x.getPeptideLengthScoreDistributions()));
+        compileScoreRanks();
 
         if(mConfig.WriteRandomDistribution)
             writeDistribution();
@@ -246,6 +232,7 @@ public class RandomPeptideDistribution
         }
 
         alleleTasks.forEach(x -> mAlleleLikelihoodDistributions.put(x.allele(), x.getLikelihoodDistributions()));
+        compileLikelihoodRanks(mAlleleLikelihoodDistributions, mAlleleLikelihoodRanks);
 
         if(mConfig.WriteRandomDistribution)
             writeLikelihoodDistribution();
@@ -0,0 +1,102 @@
+package com.hartwig.hmftools.neo.bind;
+
+import java.util.List;
+
+import com.hartwig.hmftools.common.utils.Doubles;
+
+public class RankDistribution
+{
+    // a score or likelihood distribution compiled into primitive arrays, so a rank is found by binary search and interpolation
+    // rather than by walking the distribution's entries
+    private final double[] mScores;
+    private final double[] mBuckets;
+    private final boolean mAscending;
+
+    private RankDistribution(final List<ScoreDistributionData> distribution)
+    {
+        mScores = new double[distribution.size()];
+        mBuckets = new double[distribution.size()];
+
+        for(int i = 0; i < distribution.size(); ++i)
+        {
+            mScores[i] = distribution.get(i).Score;
+            mBuckets[i] = distribution.get(i).ScoreBucket;
+        }
+
+        mAscending = mScores[0] < mScores[1];
+    }
+
+    public static RankDistribution fromDistribution(final List<ScoreDistributionData> distribution)
+    {
+        if(distribution == null || distribution.size() < 2)
+            return null;
+
+        return new RankDistribution(distribution);
+    }
+
+    public int size() { return mScores.length; }
+
+    public double getRank(double score)
+    {
+        if(isBefore(score, mScores[0]))
+            return 0; // zero-th percentile if the score is better than any in the random distribution
+
+        int lastIndex = mScores.length - 1;
+
+        if(isBefore(mScores[lastIndex], score) || Double.isNaN(score))
+            return 1; // return the 100th percentile if outside the distribution
+
+        int index = firstIndexNotBefore(score);
+
+        // an entry matching the score takes its bucket, using the first where several match
+        int matchIndex = -1;
+
+        if(index <= lastIndex && Doubles.equal(score, mScores[index]))
+            matchIndex = index;
+
+        for(int i = index - 1; i >= 0 && Doubles.equal(score, mScores[i]); --i)
+        {
+            matchIndex = i;
+        }
+
+        if(matchIndex >= 0)
+            return mBuckets[matchIndex];
+
+        // otherwise interpolate between the entries either side of the score to set the rank
+        int prevIndex = index - 1;
+
+        if(mAscending)
+        {
+            double upperPerc = (score - mScores[prevIndex]) / (mScores[index] - mScores[prevIndex]);
+            return upperPerc * mBuckets[index] + (1 - upperPerc) * mBuckets[prevIndex];
+        }
+        else
+        {
+            double upperPerc = (score - mScores[index]) / (mScores[prevIndex] - mScores[index]);
+            return upperPerc * mBuckets[prevIndex] + (1 - upperPerc) * mBuckets[index];
+        }
+    }
+
+    private boolean isBefore(double first, double second)
+    {
+        return mAscending ? first < second : first > second;
+    }
+
+    private int firstIndexNotBefore(double score)
+    {
+        int low = 0;
+        int high = mScores.length;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(isBefore(mScores[mid], score))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+}
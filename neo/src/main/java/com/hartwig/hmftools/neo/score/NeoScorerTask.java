@@ -173,8 +173,9 @@ public class NeoScorerTask implements Callable
 
         tpmCalculator.compute(sampleId, neoDataList, samplePloidy);
 
-        // build out results per allele and score them
-        int scoreCount = 0;
+        // build out results per allele and score them, in a batch per allele
+        Map<String,List<BindData>> alleleBindData = Maps.newHashMap();
+        uniqueAlleles.forEach(x -> alleleBindData.put(x, Lists.newArrayList()));
 
         for(NeoEpitopeData neoData : neoDataList)
         {
@@ -196,8 +197,7 @@ public class NeoScorerTask implements Callable
 
                     for(BindData bindData : peptideScoreData.alleleScoreData())
                     {
-                        mReferenceData.PeptideScorer.calcScoreData(bindData);
-                        ++scoreCount;
+                        alleleBindData.get(bindData.Allele).add(bindData);
                     }
                 }
 
@@ -205,6 +205,14 @@ public class NeoScorerTask implements Callable
             }
         }
 
+        int scoreCount = 0;
+
+        for(Map.Entry<String,List<BindData>> alleleEntry : alleleBindData.entrySet())
+        {
+            mReferenceData.PeptideScorer.calcScoreData(alleleEntry.getKey(), alleleEntry.getValue());
+            scoreCount += alleleEntry.getValue().size();
+        }
+
         NE_LOGGER.debug("sample({}) neoepitopes({}) scored {} allele-peptides",
                 sampleId, neoDataList.size(), scoreCount);
 
@@ -45,4 +45,45 @@ public class BindUtilsTest
         assertEquals(peptideScores.get(peptideScores.size() - 1), data.Score);
         assertEquals(peptideScores.size(), data.CumulativeCount);
     }
+
+    @Test
+    public void testRankDistribution()
+    {
+        String allele = "B4001";
+        int peptideLength = 9;
+
+        // a descending score distribution, best scores first
+        List<ScoreDistributionData> distributionData = Lists.newArrayList(
+                new ScoreDistributionData(allele, peptideLength, 0, 10, 1, 1),
+                new ScoreDistributionData(allele, peptideLength, 0.1, 8, 1, 2),
+                new ScoreDistributionData(allele, peptideLength, 0.5, 4, 1, 3),
+                new ScoreDistributionData(allele, peptideLength, 1.0, 0, 1, 4));
+
+        RankDistribution rankDistribution = RankDistribution.fromDistribution(distributionData);
+
+        assertEquals(0.0, rankDistribution.getRank(12));
+        assertEquals(1.0, rankDistribution.getRank(-1));
+        assertEquals(0.0, rankDistribution.getRank(10));
+        assertEquals(0.1, rankDistribution.getRank(8));
+        assertEquals(0.5, rankDistribution.getRank(4));
+        assertEquals(1.0, rankDistribution.getRank(0));
+        assertEquals(0.05, rankDistribution.getRank(9), 1e-10);
+        assertEquals(0.3, rankDistribution.getRank(6), 1e-10);
+        assertEquals(0.75, rankDistribution.getRank(2), 1e-10);
+
+        // and an ascending likelihood distribution
+        distributionData = Lists.newArrayList(
+                new ScoreDistributionData(allele, peptideLength, 0, 0.001, 1, 1),
+                new ScoreDistributionData(allele, peptideLength, 0.5, 0.01, 1, 2),
+                new ScoreDistributionData(allele, peptideLength, 1.0, 0.1, 1, 3));
+
+        rankDistribution = RankDistribution.fromDistribution(distributionData);
+
+        assertEquals(0.0, rankDistribution.getRank(0.0001));
+        assertEquals(1.0, rankDistribution.getRank(0.2));
+        assertEquals(0.5, rankDistribution.getRank(0.01));
+        assertEquals(0.75, rankDistribution.getRank(0.055), 1e-10);
+
+        assertEquals(null, RankDistribution.fromDistribution(distributionData.subList(0, 1)));
+    }
 }
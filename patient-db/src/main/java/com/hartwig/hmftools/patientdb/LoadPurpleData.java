@@ -62,6 +62,7 @@ public class LoadPurpleData
 
     private static final String SOMATIC_ONLY = "somatic_only";
     private static final String GERMLINE_ONLY = "germline_only";
+    private static final String BULK_LOAD_SOMATICS = "bulk_load_somatics";
 
     public static void main(@NotNull String[] args)
     {
@@ -105,6 +106,7 @@ public class LoadPurpleData
 
             boolean loadGermline = !configBuilder.hasFlag(SOMATIC_ONLY);
             boolean loadSomatic = !configBuilder.hasFlag(GERMLINE_ONLY);
+            boolean bulkLoadSomatics = configBuilder.hasFlag(BULK_LOAD_SOMATICS);
 
             LOGGER.info("loading sample({}) {} Purple data from {}",
                     sampleId,
@@ -118,7 +120,7 @@ public class LoadPurpleData
                 loadCommonData(sample, dbAccess, purpleDir);
 
                 if(loadSomatic)
-                    loadSomaticData(sample, referenceId, rnaId, dbAccess, purpleDir);
+                    loadSomaticData(sample, referenceId, rnaId, dbAccess, purpleDir, bulkLoadSomatics);
 
                 if(loadGermline)
                     loadGermlineData(sample, referenceId, rnaId, dbAccess, purpleDir);
@@ -145,7 +147,7 @@ public class LoadPurpleData
 
     private static void loadSomaticData(
             final String sampleId, final String referenceId, final String rnaId,
-            final DatabaseAccess dbAccess, final String purpleDir) throws Exception
+            final DatabaseAccess dbAccess, final String purpleDir, boolean bulkLoad) throws Exception
     {
         // check all somatic files exist before attempting to load
         final String geneCopyNumberFile = GeneCopyNumberFile.generateFilename(purpleDir, sampleId);
@@ -195,12 +197,22 @@ public class LoadPurpleData
         LOGGER.info("loading {} SVs", structuralVariants.size());
         dbAccess.writeStructuralVariants(sampleId, structuralVariants);
 
-        BufferedWriter<SomaticVariant> somaticWriter = dbAccess.somaticVariantWriter(sampleId);
-
         SomaticVariantFactory somaticVariantFactory = new SomaticVariantFactory();
 
-        somaticVariantFactory.fromVCFFile(sampleId, referenceId, rnaId, somaticVcf, referenceId != null, somaticWriter);
-        somaticWriter.close();
+        try(BufferedWriter<SomaticVariant> somaticWriter = bulkLoad
+                ? dbAccess.somaticVariantBulkWriter(sampleId) : dbAccess.somaticVariantWriter(sampleId))
+        {
+            try
+            {
+                somaticVariantFactory.fromVCFFile(sampleId, referenceId, rnaId, somaticVcf, referenceId != null, somaticWriter);
+            }
+            catch(Exception e)
+            {
+                // drop any queued batches and stop the flush thread before the transaction rolls back on this connection
+                somaticWriter.abort();
+                throw e;
+            }
+        }
 
         LOGGER.info("loaded {} somatic variants, filtered({})",
                 somaticVariantFactory.getCreatedCount(), somaticVariantFactory.getFilteredCount());
@@ -280,6 +292,7 @@ public class LoadPurpleData
         configBuilder.addConfigItem(PURPLE_DIR_CFG, true, PURPLE_DIR_DESC);
         configBuilder.addFlag(SOMATIC_ONLY, "Only load somatic data");
         configBuilder.addFlag(GERMLINE_ONLY, "Only load germline data");
+        configBuilder.addFlag(BULK_LOAD_SOMATICS, "Load somatic variants from a local file, requires allowLoadLocalInfile=true in the DB URL");
         addDatabaseCmdLineArgs(configBuilder, true);
         ConfigUtils.addLoggingOptions(configBuilder);
     }
@@ -4,31 +4,63 @@ import static com.hartwig.hmftools.patientdb.dao.DatabaseUtil.DB_BATCH_INSERT_SI
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class BufferedWriter<T> implements Consumer<T>, AutoCloseable
 {
     private final BufferedWriterConsumer<T> mConsumer;
     private final Timestamp mTimestamp;
-    private final List<T> mBuffer;
+    private List<T> mBuffer;
     private final int mBufferSize;
     private boolean mInitialised;
 
+    // when flushing in the background, full batches are handed to a single writer thread through a bounded queue so that
+    // the caller can keep parsing while the database round-trips for earlier batches are in flight
+    private final BlockingQueue<List<T>> mPendingBatches;
+    private Thread mFlushThread;
+    private volatile RuntimeException mFlushError;
+    private boolean mFlushErrorReported;
+    private boolean mAborted;
+
+    // batches queued beyond the one being written, after which the caller blocks, limiting memory to a few batches
+    public static final int MAX_PENDING_BATCHES = 2;
+
+    // while blocked on a full queue, how often the caller checks that the writer thread hasn't stopped after an error
+    private static final int ENQUEUE_CHECK_MS = 100;
+
+    private final List<T> mEndOfBatches = Collections.emptyList();
+
     public BufferedWriter(final BufferedWriterConsumer<T> consumer)
     {
         this(consumer, DB_BATCH_INSERT_SIZE);
     }
 
     public BufferedWriter(final BufferedWriterConsumer<T> consumer, int batchInsertSize)
+    {
+        this(consumer, batchInsertSize, false);
+    }
+
+    public BufferedWriter(final BufferedWriterConsumer<T> consumer, int batchInsertSize, boolean backgroundFlush)
     {
         mConsumer = consumer;
         mTimestamp = new Timestamp(new Date().getTime());
         mBufferSize = batchInsertSize;
         mBuffer = new ArrayList<>(batchInsertSize + 1);
+        mPendingBatches = backgroundFlush ? new ArrayBlockingQueue<>(MAX_PENDING_BATCHES) : null;
+        mFlushThread = null;
+        mFlushError = null;
+        mFlushErrorReported = false;
+        mAborted = false;
     }
 
+    public boolean backgroundFlush() { return mPendingBatches != null; }
+
     public void initialise()
     {
         mInitialised = true;
@@ -53,16 +85,149 @@ public class BufferedWriter<T> implements Consumer<T>, AutoCloseable
 
     private void writeBuffer()
     {
-        mConsumer.accept(mTimestamp, mBuffer);
+        if(mPendingBatches == null)
+        {
+            mConsumer.accept(mTimestamp, mBuffer);
+            mBuffer.clear();
+            return;
+        }
+
+        if(mFlushError != null)
+        {
+            // no further batches can be written once one has failed
+            mFlushErrorReported = true;
+            throw mFlushError;
+        }
+
+        if(mFlushThread == null)
+        {
+            mFlushThread = new Thread(this::flushBatches, "db-writer-flush");
+            mFlushThread.setDaemon(true);
+            mFlushThread.start();
+        }
+
+        if(!enqueue(mBuffer))
+        {
+            mFlushErrorReported = true;
+            throw mFlushError;
+        }
+
+        mBuffer = new ArrayList<>(mBufferSize + 1);
+    }
+
+    private boolean enqueue(final List<T> batch)
+    {
+        // returns false if the writer thread has stopped after an error, and so will take no more batches
+        try
+        {
+            while(!mPendingBatches.offer(batch, ENQUEUE_CHECK_MS, TimeUnit.MILLISECONDS))
+            {
+                if(!mFlushThread.isAlive())
+                    return false;
+            }
+
+            return true;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing database batch", e);
+        }
+    }
+
+    private void flushBatches()
+    {
+        try
+        {
+            while(true)
+            {
+                List<T> batch = mPendingBatches.take();
+
+                if(batch == mEndOfBatches)
+                    break;
+
+                mConsumer.accept(mTimestamp, batch);
+            }
+        }
+        catch(InterruptedException e)
+        {
+            onFlushError(new IllegalStateException("database writer interrupted", e));
+        }
+        catch(RuntimeException e)
+        {
+            onFlushError(e);
+        }
+    }
+
+    private void onFlushError(final RuntimeException e)
+    {
+        // the error is reported on the caller's next batch or close, and pending batches are discarded - a caller blocked on
+        // a full queue is released either by the space freed here or by seeing this thread has stopped
+        mFlushError = e;
+        mPendingBatches.clear();
+    }
+
+    private void checkFlushError()
+    {
+        // report a failed write once, so closing after an error in accept doesn't rethrow the same exception
+        if(mFlushError != null && !mFlushErrorReported)
+        {
+            mFlushErrorReported = true;
+            throw mFlushError;
+        }
+    }
+
+    public void abort()
+    {
+        // for a caller which has failed: unwritten batches are discarded and the writer thread is stopped before returning, so
+        // nothing is written once the caller goes on to roll back, and a later close does nothing
+        mAborted = true;
         mBuffer.clear();
+
+        if(mFlushThread == null)
+            return;
+
+        // the queue has space once cleared since only this thread adds to it, and the writer finishes any batch in progress
+        mPendingBatches.clear();
+        mPendingBatches.offer(mEndOfBatches);
+        joinFlushThread();
+    }
+
+    private void joinFlushThread()
+    {
+        try
+        {
+            mFlushThread.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for database writes", e);
+        }
+
+        mFlushThread = null;
+        mPendingBatches.clear(); // anything queued after a failure
     }
 
     @Override
     public void close()
     {
-        if(!mBuffer.isEmpty())
+        if(mAborted)
+            return;
+
+        if(!mBuffer.isEmpty() && mFlushError == null)
         {
             writeBuffer();
         }
+
+        if(mFlushThread != null)
+        {
+            enqueue(mEndOfBatches);
+            joinFlushThread();
+            checkFlushError();
+        }
+
+        if(mInitialised && mFlushError == null)
+            mConsumer.complete();
     }
 }
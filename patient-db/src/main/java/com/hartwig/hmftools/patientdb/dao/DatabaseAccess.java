@@ -485,6 +485,12 @@ public class DatabaseAccess implements AutoCloseable
         return somaticVariantDAO.writer(sampleId);
     }
 
+    @NotNull
+    public BufferedWriter<SomaticVariant> somaticVariantBulkWriter(@NotNull final String sampleId)
+    {
+        return somaticVariantDAO.bulkWriter(sampleId);
+    }
+
     public void writeStructuralVariants(@NotNull String sampleId, @NotNull List<StructuralVariantData> variants)
     {
         structuralVariantDAO.write(sampleId, variants);
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.patientdb.dao;
 
 import static com.hartwig.hmftools.common.genotype.GenotypeStatus.UNKNOWN;
 import static com.hartwig.hmftools.common.sv.StructuralVariantType.SGL;
+import static com.hartwig.hmftools.patientdb.dao.DatabaseUtil.DB_BATCH_INSERT_SIZE;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseUtil.checkStringLength;
 import static com.hartwig.hmftools.patientdb.database.hmfpatients.Tables.GERMLINEVARIANT;
 import static com.hartwig.hmftools.patientdb.database.hmfpatients.Tables.STRUCTURALVARIANTGERMLINE;
@@ -66,7 +67,7 @@ public class GermlineVariantDAO
             }
         };
 
-        return new BufferedWriter<>(consumer);
+        return new BufferedWriter<>(consumer, DB_BATCH_INSERT_SIZE, true);
     }
 
     private void writeAll(@NotNull final Timestamp timestamp, String tumorSample, String referenceSample, String rnaSample,
@@ -0,0 +1,157 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.patientdb.CommonUtils.LOGGER;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+// writes batches to a local tab-delimited file and loads it in a single statement on completion
+// the connection needs allowLoadLocalInfile=true in its URL and the server needs local_infile enabled
+public class LocalInfileConsumer<T> implements BufferedWriterConsumer<T>
+{
+    private final DSLContext mContext;
+    private final Table<?> mTable;
+    private final Field<?>[] mFields;
+    private final BiFunction<Timestamp,T,Object[]> mRecordValues;
+    private final Runnable mInitialiser;
+
+    private File mFile;
+    private java.io.BufferedWriter mFileWriter;
+    private int mRecordCount;
+
+    public static final String NULL_VALUE = "\\N";
+
+    public LocalInfileConsumer(
+            final DSLContext context, final Table<?> table, final Field<?>[] fields,
+            final BiFunction<Timestamp,T,Object[]> recordValues, final Runnable initialiser)
+    {
+        mContext = context;
+        mTable = table;
+        mFields = fields;
+        mRecordValues = recordValues;
+        mInitialiser = initialiser;
+        mFile = null;
+        mFileWriter = null;
+        mRecordCount = 0;
+    }
+
+    @Override
+    public void initialise()
+    {
+        mInitialiser.run();
+
+        try
+        {
+            mFile = File.createTempFile(mTable.getName() + "_", ".tsv");
+            mFile.deleteOnExit();
+            mFileWriter = Files.newBufferedWriter(mFile.toPath(), StandardCharsets.UTF_8);
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(final Timestamp timestamp, final List<T> entries)
+    {
+        try
+        {
+            for(T entry : entries)
+            {
+                mFileWriter.write(formatRecord(mRecordValues.apply(timestamp, entry)));
+                mFileWriter.newLine();
+            }
+
+            mRecordCount += entries.size();
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void complete()
+    {
+        try
+        {
+            mFileWriter.close();
+
+            String columns = Arrays.stream(mFields).map(x -> mContext.render(DSL.name(x.getName()))).collect(Collectors.joining(","));
+
+            // the default field and line terminators and escape character match those written by formatValue
+            String loadSql = format("LOAD DATA LOCAL INFILE %s INTO TABLE %s CHARACTER SET utf8mb4 (%s)",
+                    mContext.render(DSL.inline(mFile.getAbsolutePath())), mContext.render(mTable), columns);
+
+            int loadedCount = mContext.execute(loadSql);
+
+            LOGGER.debug("bulk loaded {} of {} records into {}", loadedCount, mRecordCount, mTable.getName());
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            mFile.delete();
+        }
+    }
+
+    public static String formatRecord(final Object[] values)
+    {
+        return Arrays.stream(values).map(LocalInfileConsumer::formatValue).collect(Collectors.joining("\t"));
+    }
+
+    public static String formatValue(final Object value)
+    {
+        if(value == null)
+            return NULL_VALUE;
+
+        if(value instanceof Boolean)
+            return (Boolean)value ? "1" : "0";
+
+        if(value instanceof Enum)
+            return ((Enum<?>)value).name();
+
+        String str = value.toString();
+
+        if(str.indexOf('\\') < 0 && str.indexOf('\t') < 0 && str.indexOf('\n') < 0 && str.indexOf('\r') < 0)
+            return str;
+
+        StringBuilder sb = new StringBuilder(str.length() + 4);
+
+        for(int i = 0; i < str.length(); ++i)
+        {
+            char c = str.charAt(i);
+
+            if(c == '\\')
+                sb.append("\\\\");
+            else if(c == '\t')
+                sb.append("\\t");
+            else if(c == '\n')
+                sb.append("\\n");
+            else if(c == '\r')
+                sb.append("\\r");
+            else
+                sb.append(c);
+        }
+
+        return sb.toString();
+    }
+}
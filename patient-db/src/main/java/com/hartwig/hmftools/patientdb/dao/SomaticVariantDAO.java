@@ -28,6 +28,7 @@ import com.hartwig.hmftools.common.variant.VariantType;
 import org.apache.logging.log4j.util.Strings;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertValuesStepN;
 import org.jooq.Record;
 import org.jooq.Record1;
@@ -40,6 +41,53 @@ public class SomaticVariantDAO
 
     private static final int DB_BATCH_INSERT_SIZE = 10000;
 
+    private static final Field<?>[] INSERT_FIELDS = {
+            SOMATICVARIANT.SAMPLEID,
+            SOMATICVARIANT.CHROMOSOME,
+            SOMATICVARIANT.POSITION,
+            SOMATICVARIANT.FILTER,
+            SOMATICVARIANT.TYPE,
+            SOMATICVARIANT.REF,
+            SOMATICVARIANT.ALT,
+            SOMATICVARIANT.GENE,
+            SOMATICVARIANT.GENESAFFECTED,
+            SOMATICVARIANT.REPORTED,
+            SOMATICVARIANT.WORSTCODINGEFFECT,
+            SOMATICVARIANT.CANONICALEFFECT,
+            SOMATICVARIANT.CANONICALCODINGEFFECT,
+            SOMATICVARIANT.CANONICALHGVSCODINGIMPACT,
+            SOMATICVARIANT.CANONICALHGVSPROTEINIMPACT,
+            SOMATICVARIANT.SPLICEREGION,
+            SOMATICVARIANT.OTHERTRANSCRIPTEFFECTS,
+            SOMATICVARIANT.ALLELEREADCOUNT,
+            SOMATICVARIANT.TOTALREADCOUNT,
+            SOMATICVARIANT.COPYNUMBER,
+            SOMATICVARIANT.ADJUSTEDVAF,
+            SOMATICVARIANT.VARIANTCOPYNUMBER,
+            SOMATICVARIANT.TRINUCLEOTIDECONTEXT,
+            SOMATICVARIANT.MICROHOMOLOGY,
+            SOMATICVARIANT.REPEATSEQUENCE,
+            SOMATICVARIANT.REPEATCOUNT,
+            SOMATICVARIANT.SUBCLONALLIKELIHOOD,
+            SOMATICVARIANT.BIALLELIC,
+            SOMATICVARIANT.HOTSPOT,
+            SOMATICVARIANT.MAPPABILITY,
+            SOMATICVARIANT.GERMLINESTATUS,
+            SOMATICVARIANT.MINORALLELECOPYNUMBER,
+            SOMATICVARIANT.RECOVERED,
+            SOMATICVARIANT.KATAEGIS,
+            SOMATICVARIANT.TIER,
+            SOMATICVARIANT.REFERENCEALLELEREADCOUNT,
+            SOMATICVARIANT.REFERENCETOTALREADCOUNT,
+            SOMATICVARIANT.RNAALLELEREADCOUNT,
+            SOMATICVARIANT.RNATOTALREADCOUNT,
+            SOMATICVARIANT.QUAL,
+            SOMATICVARIANT.LOCALPHASESET,
+            SOMATICVARIANT.CLINVARINFO,
+            SOMATICVARIANT.GNOMADFREQUENCY,
+            SOMATICVARIANT.SOMATICLIKELIHOOD,
+            SOMATICVARIANT.MODIFIED };
+
     SomaticVariantDAO(@NotNull final DSLContext context)
     {
         this.context = context;
@@ -63,7 +111,19 @@ public class SomaticVariantDAO
             }
         };
 
-        return new BufferedWriter<>(consumer, DB_BATCH_INSERT_SIZE);
+        return new BufferedWriter<>(consumer, DB_BATCH_INSERT_SIZE, true);
+    }
+
+    @NotNull
+    public BufferedWriter<SomaticVariant> bulkWriter(String tumorSample)
+    {
+        // batches go to a local file which is loaded in one statement once all variants have been written
+        BufferedWriterConsumer<SomaticVariant> consumer = new LocalInfileConsumer<>(
+                context, SOMATICVARIANT, INSERT_FIELDS,
+                (timestamp, variant) -> recordValues(timestamp, tumorSample, variant),
+                () -> deleteSomaticVariantForSample(tumorSample));
+
+        return new BufferedWriter<>(consumer, DB_BATCH_INSERT_SIZE, true);
     }
 
     @NotNull
@@ -155,57 +215,12 @@ public class SomaticVariantDAO
 
     void writeAll(@NotNull final Timestamp timestamp, @NotNull String sample, @NotNull List<SomaticVariant> variants)
     {
-        final InsertValuesStepN inserter = context.insertInto(SOMATICVARIANT,
-                SOMATICVARIANT.SAMPLEID,
-                SOMATICVARIANT.CHROMOSOME,
-                SOMATICVARIANT.POSITION,
-                SOMATICVARIANT.FILTER,
-                SOMATICVARIANT.TYPE,
-                SOMATICVARIANT.REF,
-                SOMATICVARIANT.ALT,
-                SOMATICVARIANT.GENE,
-                SOMATICVARIANT.GENESAFFECTED,
-                SOMATICVARIANT.REPORTED,
-                SOMATICVARIANT.WORSTCODINGEFFECT,
-                SOMATICVARIANT.CANONICALEFFECT,
-                SOMATICVARIANT.CANONICALCODINGEFFECT,
-                SOMATICVARIANT.CANONICALHGVSCODINGIMPACT,
-                SOMATICVARIANT.CANONICALHGVSPROTEINIMPACT,
-                SOMATICVARIANT.SPLICEREGION,
-                SOMATICVARIANT.OTHERTRANSCRIPTEFFECTS,
-                SOMATICVARIANT.ALLELEREADCOUNT,
-                SOMATICVARIANT.TOTALREADCOUNT,
-                SOMATICVARIANT.COPYNUMBER,
-                SOMATICVARIANT.ADJUSTEDVAF,
-                SOMATICVARIANT.VARIANTCOPYNUMBER,
-                SOMATICVARIANT.TRINUCLEOTIDECONTEXT,
-                SOMATICVARIANT.MICROHOMOLOGY,
-                SOMATICVARIANT.REPEATSEQUENCE,
-                SOMATICVARIANT.REPEATCOUNT,
-                SOMATICVARIANT.SUBCLONALLIKELIHOOD,
-                SOMATICVARIANT.BIALLELIC,
-                SOMATICVARIANT.HOTSPOT,
-                SOMATICVARIANT.MAPPABILITY,
-                SOMATICVARIANT.GERMLINESTATUS,
-                SOMATICVARIANT.MINORALLELECOPYNUMBER,
-                SOMATICVARIANT.RECOVERED,
-                SOMATICVARIANT.KATAEGIS,
-                SOMATICVARIANT.TIER,
-                SOMATICVARIANT.REFERENCEALLELEREADCOUNT,
-                SOMATICVARIANT.REFERENCETOTALREADCOUNT,
-                SOMATICVARIANT.RNAALLELEREADCOUNT,
-                SOMATICVARIANT.RNATOTALREADCOUNT,
-                SOMATICVARIANT.QUAL,
-                SOMATICVARIANT.LOCALPHASESET,
-                SOMATICVARIANT.CLINVARINFO,
-                SOMATICVARIANT.GNOMADFREQUENCY,
-                SOMATICVARIANT.SOMATICLIKELIHOOD,
-                SOMATICVARIANT.MODIFIED);
-        variants.forEach(variant -> addRecord(timestamp, inserter, sample, variant));
+        final InsertValuesStepN inserter = context.insertInto(SOMATICVARIANT, INSERT_FIELDS);
+        variants.forEach(variant -> inserter.values(recordValues(timestamp, sample, variant)));
         inserter.execute();
     }
 
-    private static void addRecord(Timestamp timestamp, InsertValuesStepN inserter, String sample, SomaticVariant variant)
+    private static Object[] recordValues(final Timestamp timestamp, final String sample, final SomaticVariant variant)
     {
         // append reportable status for each transcript where non-canonical may be reportable
         String otherReportedEffects = variant.otherReportedEffects();
@@ -226,7 +241,7 @@ public class SomaticVariantDAO
                 otherReportedEffects = otherReportedEffects + ";CANONICAL_NOT_REPORTED";
         }
 
-        inserter.values(sample,
+        return new Object[] { sample,
                 variant.chromosome(),
                 variant.position(),
                 variant.filter(),
@@ -270,7 +285,7 @@ public class SomaticVariantDAO
                 variant.clinvarInfo(),
                 variant.gnomadFrequency(),
                 variant.somaticLikelihood() == SomaticLikelihood.UNKNOWN ? Strings.EMPTY : variant.somaticLikelihood().toString(),
-                timestamp);
+                timestamp };
     }
 
     void deleteSomaticVariantForSample(String sample)
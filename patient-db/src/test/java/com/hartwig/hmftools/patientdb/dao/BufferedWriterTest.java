@@ -0,0 +1,180 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.Test;
+
+public class BufferedWriterTest
+{
+    private static class TestConsumer implements BufferedWriterConsumer<Integer>
+    {
+        public int InitialiseCount = 0;
+        public int CompleteCount = 0;
+        public final List<List<Integer>> Batches = Lists.newArrayList();
+        public int FailOnBatch = -1;
+        public int InterruptOnBatch = -1;
+        public CountDownLatch FirstBatchLatch = null;
+
+        @Override
+        public void initialise() { ++InitialiseCount; }
+
+        @Override
+        public void complete() { ++CompleteCount; }
+
+        @Override
+        public void accept(final Timestamp timestamp, final List<Integer> entries)
+        {
+            if(Batches.isEmpty() && FirstBatchLatch != null)
+                Uninterruptibles.awaitUninterruptibly(FirstBatchLatch);
+
+            if(Batches.size() == FailOnBatch)
+                throw new IllegalStateException("write failed");
+
+            if(Batches.size() == InterruptOnBatch)
+                Thread.currentThread().interrupt();
+
+            Batches.add(Lists.newArrayList(entries));
+        }
+    }
+
+    @Test
+    public void testSynchronousWrites()
+    {
+        TestConsumer consumer = new TestConsumer();
+        writeEntries(new BufferedWriter<>(consumer, 10), 25);
+
+        assertEquals(1, consumer.InitialiseCount);
+        assertEquals(1, consumer.CompleteCount);
+        checkBatches(consumer.Batches, 25, 10);
+    }
+
+    @Test
+    public void testBackgroundWrites()
+    {
+        TestConsumer consumer = new TestConsumer();
+        BufferedWriter<Integer> writer = new BufferedWriter<>(consumer, 10, true);
+        assertTrue(writer.backgroundFlush());
+
+        writeEntries(writer, 1005);
+
+        assertEquals(1, consumer.InitialiseCount);
+        assertEquals(1, consumer.CompleteCount);
+        checkBatches(consumer.Batches, 1005, 10);
+
+        // nothing is written if no entries are added
+        consumer = new TestConsumer();
+        new BufferedWriter<>(consumer, 10, true).close();
+        assertTrue(consumer.Batches.isEmpty());
+    }
+
+    @Test
+    public void testBackgroundWriteError()
+    {
+        TestConsumer consumer = new TestConsumer();
+        consumer.FailOnBatch = 2;
+
+        try
+        {
+            writeEntries(new BufferedWriter<>(consumer, 10, true), 1000);
+            fail("expected write error");
+        }
+        catch(IllegalStateException e)
+        {
+            assertEquals("write failed", e.getMessage());
+        }
+
+        assertEquals(2, consumer.Batches.size());
+        assertEquals(0, consumer.CompleteCount);
+    }
+
+    @Test
+    public void testBackgroundWriterAbort()
+    {
+        // the first batch is held in the writer while the later ones are queued, then the caller fails and aborts
+        TestConsumer consumer = new TestConsumer();
+        consumer.FirstBatchLatch = new CountDownLatch(1);
+
+        BufferedWriter<Integer> writer = new BufferedWriter<>(consumer, 10, true);
+
+        for(int i = 0; i < 35; ++i)
+        {
+            writer.accept(i);
+        }
+
+        Thread releaser = new Thread(() ->
+        {
+            Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+            consumer.FirstBatchLatch.countDown();
+        });
+
+        releaser.start();
+
+        // returns once the batch in progress is written, with the queued and unfilled batches discarded
+        writer.abort();
+        assertEquals(1, consumer.Batches.size());
+
+        writer.close();
+        assertEquals(1, consumer.Batches.size());
+        assertEquals(0, consumer.CompleteCount);
+    }
+
+    @Test
+    public void testBackgroundWriterInterrupted()
+    {
+        // the writer thread stops without taking further batches, which must not leave the caller blocked on the full queue
+        TestConsumer consumer = new TestConsumer();
+        consumer.InterruptOnBatch = 1;
+
+        try
+        {
+            writeEntries(new BufferedWriter<>(consumer, 10, true), 1000);
+            fail("expected write error");
+        }
+        catch(IllegalStateException e)
+        {
+            assertEquals("database writer interrupted", e.getMessage());
+        }
+
+        assertEquals(2, consumer.Batches.size());
+    }
+
+    private static void writeEntries(final BufferedWriter<Integer> writer, int count)
+    {
+        try(BufferedWriter<Integer> dbWriter = writer)
+        {
+            for(int i = 0; i < count; ++i)
+            {
+                dbWriter.accept(i);
+            }
+        }
+    }
+
+    private static void checkBatches(final List<List<Integer>> batches, int count, int batchSize)
+    {
+        assertEquals((count + batchSize - 1) / batchSize, batches.size());
+
+        int expected = 0;
+
+        for(List<Integer> batch : batches)
+        {
+            assertTrue(batch.size() <= batchSize);
+
+            for(Integer value : batch)
+            {
+                assertEquals(expected++, value.intValue());
+            }
+        }
+
+        assertEquals(count, expected);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import static com.hartwig.hmftools.patientdb.dao.LocalInfileConsumer.formatRecord;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+
+import com.hartwig.hmftools.common.variant.Hotspot;
+
+import org.junit.Test;
+
+public class LocalInfileConsumerTest
+{
+    @Test
+    public void testFormatRecord()
+    {
+        Timestamp timestamp = Timestamp.valueOf("2023-01-02 03:04:05");
+
+        Object[] values = { "SAMPLE", 100, null, true, false, Hotspot.NEAR_HOTSPOT, 0.25, "A\tB\\C\nD", timestamp };
+
+        assertEquals("SAMPLE\t100\t\\N\t1\t0\tNEAR_HOTSPOT\t0.25\tA\\tB\\\\C\\nD\t2023-01-02 03:04:05.0", formatRecord(values));
+    }
+}
@@ -47,7 +47,6 @@ public class ChromosomeTask implements Callable
     private MappabilityChrCache mMappability;
     private PonChrCache mStandardPon;
     private PonChrCache mArtefactsPon;
-    private final GeneCacheIndexing mGeneCacheIndexing;
 
     public ChromosomeTask(
             final HumanChromosome chromosome, final PaveConfig config, final ReferenceData referenceData,
@@ -68,7 +67,6 @@ public class ChromosomeTask implements Callable
         mMappability = null;
         mStandardPon = null;
         mArtefactsPon = null;
-        mGeneCacheIndexing = mReferenceData.GeneDataCache.createIndexing(mChromosomeStr);
     }
 
     @Override
@@ -140,7 +138,7 @@ public class ChromosomeTask implements Callable
         {
             variant.setRealignedVariant(createRightAlignedVariant(variant, mImpactClassifier.refGenome()));
 
-            findVariantImpacts(variant, mImpactClassifier, mReferenceData.GeneDataCache, mGeneCacheIndexing);
+            findVariantImpacts(variant, mImpactClassifier, mReferenceData.GeneDataCache);
 
             processPhasedVariants(variant.localPhaseSet());
 
@@ -1,8 +1,5 @@
 package com.hartwig.hmftools.pave;
 
-import static com.hartwig.hmftools.common.fusion.FusionCommon.NEG_STRAND;
-import static com.hartwig.hmftools.common.fusion.FusionCommon.POS_STRAND;
-import static com.hartwig.hmftools.common.region.BaseRegion.positionsOverlap;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
 import static com.hartwig.hmftools.pave.PaveConstants.GENE_UPSTREAM_DISTANCE;
 import static com.hartwig.hmftools.pave.impact.PaveUtils.withinTransRange;
@@ -18,13 +15,12 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.drivercatalog.panel.DriverGene;
 import com.hartwig.hmftools.common.drivercatalog.panel.DriverGeneFile;
+import com.hartwig.hmftools.common.ensemblcache.ChromosomeGeneIndex;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.gene.GeneData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 
-import org.jetbrains.annotations.Nullable;
-
 public class GeneDataCache
 {
     private final EnsemblDataCache mEnsemblDataCache;
@@ -161,119 +157,13 @@ public class GeneDataCache
                 .collect(Collectors.toList());
     }
 
-    public GeneCacheIndexing createIndexing(final String chromosome)
-    {
-        return new GeneCacheIndexing(mEnsemblDataCache.getChrGeneDataMap().get(chromosome));
-    }
-
-    public List<GeneData> findGenes(
-            final String chromosome, int startPosition, int endPosition, @Nullable final GeneCacheIndexing cacheIndexing)
+    public List<GeneData> findGenes(final String chromosome, int startPosition, int endPosition)
     {
-        if(cacheIndexing == null)
-        {
-            List<GeneData> genes = Lists.newArrayList();
-
-            List<GeneData> geneDataList = mEnsemblDataCache.getChrGeneDataMap().get(chromosome);
-
-            if(geneDataList == null)
-                return genes;
-
-            for(GeneData geneData : geneDataList)
-            {
-                if(isWithinGeneRange(geneData, startPosition, endPosition))
-                    genes.add(geneData);
-                else if(geneData.GeneStart > endPosition + GENE_UPSTREAM_DISTANCE)
-                    break;
-            }
-
-            return genes;
-        }
-
-        /*
-        if(mCurrentChromosome == null || !mCurrentChromosome.equals(chromosome))
-        {
-            mCurrentChromosome = chromosome;
-            mCurrentChromosomeGenes = mEnsemblDataCache.getChrGeneDataMap().get(chromosome);
-            mCurrentPosStrandGeneIndex = 0;
-            mCurrentNegStrandGeneIndex = 0;
-            mCurrentGenes.clear();
-        }
-        */
-
-        if(cacheIndexing.ChromosomeGenes == null)
-        {
-            // PV_LOGGER.error("invalid chromosome({})", chromosome); // just MT
-            return Lists.newArrayList();
-        }
-
-        // purge any gene where the position is now past its end
-        int index = 0;
-        while(index < cacheIndexing.CurrentGenes.size())
-        {
-            GeneData geneData = cacheIndexing.CurrentGenes.get(index);
-
-            boolean isPastGene = (geneData.forwardStrand() && geneData.GeneEnd < endPosition)
-                    || (geneData.reverseStrand() && geneData.GeneEnd + GENE_UPSTREAM_DISTANCE < endPosition);
+        ChromosomeGeneIndex geneIndex = mEnsemblDataCache.getGeneIndex(chromosome, GENE_UPSTREAM_DISTANCE);
 
-            if(isPastGene)
-                cacheIndexing.CurrentGenes.remove(index);
-            else
-                ++index;
-        }
-
-        // otherwise search forward and add any additional genes which overlap the position
-        // need to maintain 2 indices since the range checks can result in different current positions
-        for(int i = 0; i <= 1; ++i)
-        {
-            int currentStrand = (i == 0) ? POS_STRAND : NEG_STRAND;
-            int geneIndex = (i == 0) ? cacheIndexing.CurrentPosStrandGeneIndex : cacheIndexing.CurrentNegStrandGeneIndex;
-
-            for(; geneIndex < cacheIndexing.ChromosomeGenes.size(); ++geneIndex)
-            {
-                GeneData geneData = cacheIndexing.ChromosomeGenes.get(geneIndex);
-
-                if(geneData.Strand != currentStrand)
-                    continue;
-
-                if(isWithinGeneRange(geneData, startPosition, endPosition))
-                {
-                    if(cacheIndexing.CurrentGenes.contains(geneData))
-                    {
-                        PV_LOGGER.error("adding current gene({}:{}) index({}) twice", geneData.GeneId, geneData.GeneName, geneIndex);
-                        break;
-                    }
-
-                    cacheIndexing.CurrentGenes.add(geneData);
-                }
-                else if(startPosition > geneData.GeneEnd)
-                {
-                    continue;
-                }
-                else if(geneData.GeneStart > startPosition)
-                {
-                    break;
-                }
-            }
-
-            if(i == 0)
-                cacheIndexing.CurrentPosStrandGeneIndex = geneIndex;
-            else
-                cacheIndexing.CurrentNegStrandGeneIndex = geneIndex;
-        }
-
-        return cacheIndexing.CurrentGenes;
-    }
-
-    private boolean isWithinGeneRange(final GeneData geneData, int startPosition, int endPosition)
-    {
-        int geneRangeStart = geneData.GeneStart;
-        int geneRangeEnd = geneData.GeneEnd;
-
-        if(geneData.Strand == POS_STRAND)
-            geneRangeStart -= GENE_UPSTREAM_DISTANCE;
-        else
-            geneRangeEnd += GENE_UPSTREAM_DISTANCE;
+        if(geneIndex == null)
+            return Lists.newArrayList(); // just MT
 
-        return positionsOverlap(startPosition, endPosition, geneRangeStart, geneRangeEnd);
+        return geneIndex.findGenes(startPosition, endPosition);
     }
 }
@@ -5,6 +5,8 @@ import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBuffe
 import static com.hartwig.hmftools.common.variant.PaveVcfTags.GNOMAD_FREQ;
 import static com.hartwig.hmftools.common.variant.PaveVcfTags.GNOMAD_FREQ_DESC;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.annotation.GnomadBinaryCache.GNOMAD_BINARY_EXTENSION;
+import static com.hartwig.hmftools.pave.annotation.GnomadBinaryCache.binaryFilename;
 import static com.hartwig.hmftools.pave.resources.GnomadCacheBuilder.GNOMAD_FILE_ID;
 import static com.hartwig.hmftools.pave.resources.GnomadCacheBuilder.formFileId;
 
@@ -23,7 +25,6 @@ import java.util.stream.Stream;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
-import com.hartwig.hmftools.common.utils.StringCache;
 import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 import com.hartwig.hmftools.pave.VariantData;
 
@@ -41,7 +42,6 @@ public class GnomadAnnotation extends AnnotationData implements Callable
     private boolean mHasValidData;
     private final boolean mEnabled;
     private final String mGnomadFilename;
-    private final StringCache mStringCache;
 
     public static final String GNOMAD_FREQUENCY_FILE = "gnomad_freq_file";
     public static final String GNOMAD_FREQUENCY_DIR = "gnomad_freq_dir";
@@ -56,7 +56,6 @@ public class GnomadAnnotation extends AnnotationData implements Callable
         mChrCacheMap = Maps.newHashMap();
         mChromosomeFiles = Maps.newHashMap();
         mHasValidData = true;
-        mStringCache = new StringCache();
 
         mRefGenomeVersion = RefGenomeVersion.from(configBuilder);
 
@@ -166,6 +165,12 @@ public class GnomadAnnotation extends AnnotationData implements Callable
         if(filename == null)
             return;
 
+        if(filename.endsWith(GNOMAD_BINARY_EXTENSION))
+        {
+            loadBinaryChromosome(filename, fileChromosome);
+            return;
+        }
+
         try
         {
             BufferedReader fileReader = createBufferedReader(filename);
@@ -194,8 +199,11 @@ public class GnomadAnnotation extends AnnotationData implements Callable
 
                 if(!chromosome.equals(currentChr))
                 {
+                    if(currentChrCache != null)
+                        currentChrCache.compile();
+
                     currentChr = chromosome;
-                    currentChrCache = new GnomadChrCache(chromosome, mStringCache);
+                    currentChrCache = new GnomadChrCache(chromosome);
                     mChrCacheMap.put(chromosome, currentChrCache);
                 }
 
@@ -204,6 +212,9 @@ public class GnomadAnnotation extends AnnotationData implements Callable
                 ++itemCount;
             }
 
+            if(currentChrCache != null)
+                currentChrCache.compile();
+
             if(mChromosomeFiles.isEmpty())
             {
                 PV_LOGGER.info("loaded {} Gnomad frequency records from file({})", itemCount, filename);
@@ -214,13 +225,29 @@ public class GnomadAnnotation extends AnnotationData implements Callable
                         currentChrCache.Chromosome, currentChrCache.entryCount());
             }
         }
-        catch(IOException e)
+        catch(IOException | IllegalArgumentException e)
         {
             PV_LOGGER.error("failed to load Gnomad frequency file({}): {}", filename, e.toString());
             mHasValidData = false;
         }
     }
 
+    private void loadBinaryChromosome(final String filename, final String fileChromosome)
+    {
+        try
+        {
+            GnomadChrCache chrCache = GnomadBinaryCache.load(filename);
+            mChrCacheMap.put(fileChromosome != null ? fileChromosome : chrCache.Chromosome, chrCache);
+
+            PV_LOGGER.debug("chr({}) mapped {} Gnomad frequency records", chrCache.Chromosome, chrCache.entryCount());
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to load Gnomad binary file({}): {}", filename, e.toString());
+            mHasValidData = false;
+        }
+    }
+
     private void loadAllFrequencyFiles(final String gnomadDir)
     {
         try
@@ -237,11 +264,20 @@ public class GnomadAnnotation extends AnnotationData implements Callable
                 String fileChrStrNoId = formFileId(gnomadDir, humanChr.toString(), null);
                 String fileChrStrWithId = GNOMAD_FILE_ID + "_chr" + humanChr + "_";
 
-                // expect file name: gnomad_variants_chr10_v38.csv.gz
+                // expect file name: gnomad_variants_chr10_v38.csv.gz, and use its binary form gnomad_variants_chr10_v38.bin if present
+                List<String> chrFiles = files.stream()
+                        .filter(x -> x.endsWith(fileChrStrNoId) || x.endsWith(fileChrStrNoId + ".gz")
+                                || x.endsWith(binaryFilename(fileChrStrNoId)) || x.contains(fileChrStrWithId))
+                        .collect(Collectors.toList());
+
+                String textFile = chrFiles.stream().filter(x -> !x.endsWith(GNOMAD_BINARY_EXTENSION)).findFirst().orElse(null);
+
+                String chrFile;
 
-                String chrFile = files.stream()
-                        .filter(x -> x.endsWith(fileChrStrNoId) || x.contains(fileChrStrWithId))
-                        .findFirst().orElse(null);
+                if(textFile != null)
+                    chrFile = files.contains(binaryFilename(textFile)) ? binaryFilename(textFile) : textFile;
+                else
+                    chrFile = chrFiles.stream().findFirst().orElse(null); // only the binary form is present
 
                 String chrStr = mRefGenomeVersion.versionedChromosome(humanChr.toString());
 
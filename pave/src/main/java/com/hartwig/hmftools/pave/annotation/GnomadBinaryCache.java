@@ -0,0 +1,169 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import static java.lang.String.format;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+public final class GnomadBinaryCache
+{
+    // per-chromosome binary form of the Gnomad frequency cache:
+    // header - magic, version, frequency scale, chromosome, allele dictionary and entry count, padded to a 4-byte boundary
+    // body - position-sorted int columns for position, ref allele ID, alt allele ID and quantised frequency
+    public static final String GNOMAD_BINARY_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x474E4D44; // 'GNMD'
+    private static final int VERSION = 2;
+    private static final int COLUMN_COUNT = 4;
+
+    public static String binaryFilename(final String textFilename)
+    {
+        // eg gnomad_variants_chr10_v38.csv.gz becomes gnomad_variants_chr10_v38.bin
+        return textFilename.replaceAll("\\.csv(\\.gz)?$", GNOMAD_BINARY_EXTENSION);
+    }
+
+    public static void write(final GnomadChrCache chrCache, final String filename) throws IOException
+    {
+        chrCache.compile();
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+
+        int headerBytes = 0;
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(GnomadChrCache.FREQ_SCALE);
+        headerBytes += 12;
+
+        headerBytes += writeString(output, chrCache.Chromosome);
+
+        List<String> alleles = chrCache.alleles();
+        output.writeInt(alleles.size());
+        headerBytes += 4;
+
+        for(String allele : alleles)
+        {
+            headerBytes += writeString(output, allele);
+        }
+
+        output.writeInt(chrCache.entryCount());
+        headerBytes += 4;
+
+        int padding = (4 - (headerBytes % 4)) % 4;
+
+        for(int i = 0; i < padding; ++i)
+        {
+            output.writeByte(0);
+        }
+
+        writeColumn(output, chrCache.positions(), chrCache.entryCount());
+        writeColumn(output, chrCache.refIds(), chrCache.entryCount());
+        writeColumn(output, chrCache.altIds(), chrCache.entryCount());
+        writeColumn(output, chrCache.frequencies(), chrCache.entryCount());
+
+        output.close();
+    }
+
+    public static GnomadChrCache load(final String filename) throws IOException
+    {
+        MappedByteBuffer buffer;
+
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException(format("Gnomad binary file(%s) exceeds maximum size", filename));
+
+            // the mapping remains valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(buffer.getInt() != MAGIC)
+            throw new IOException(format("file(%s) is not a Gnomad binary cache", filename));
+
+        int version = buffer.getInt();
+
+        if(version != VERSION)
+            throw new IOException(format("Gnomad binary file(%s) has unsupported version(%d)", filename, version));
+
+        int frequencyScale = buffer.getInt();
+
+        if(frequencyScale != GnomadChrCache.FREQ_SCALE)
+        {
+            throw new IOException(format("Gnomad binary file(%s) has unsupported frequency scale(%d)", filename, frequencyScale));
+        }
+
+        String chromosome = readString(buffer);
+
+        int alleleCount = buffer.getInt();
+        List<String> alleles = Lists.newArrayListWithCapacity(alleleCount);
+
+        for(int i = 0; i < alleleCount; ++i)
+        {
+            alleles.add(readString(buffer));
+        }
+
+        int entryCount = buffer.getInt();
+
+        int columnStart = (buffer.position() + 3) & ~3;
+        long expectedSize = columnStart + (long)entryCount * COLUMN_COUNT * Integer.BYTES;
+
+        if(expectedSize != buffer.capacity())
+        {
+            throw new IOException(format("Gnomad binary file(%s) size(%d) doesn't match expected(%d)",
+                    filename, buffer.capacity(), expectedSize));
+        }
+
+        int columnBytes = entryCount * Integer.BYTES;
+
+        IntBuffer positions = sliceColumn(buffer, columnStart, columnBytes);
+        IntBuffer refIds = sliceColumn(buffer, columnStart + columnBytes, columnBytes);
+        IntBuffer altIds = sliceColumn(buffer, columnStart + columnBytes * 2, columnBytes);
+        IntBuffer frequencies = sliceColumn(buffer, columnStart + columnBytes * 3, columnBytes);
+
+        return new GnomadChrCache(chromosome, alleles, positions, refIds, altIds, frequencies);
+    }
+
+    private static IntBuffer sliceColumn(final ByteBuffer buffer, int offset, int length)
+    {
+        ByteBuffer column = buffer.duplicate();
+        column.position(offset);
+        column.limit(offset + length);
+        return column.slice().asIntBuffer();
+    }
+
+    private static void writeColumn(final DataOutputStream output, final IntBuffer column, int entryCount) throws IOException
+    {
+        for(int i = 0; i < entryCount; ++i)
+        {
+            output.writeInt(column.get(i));
+        }
+    }
+
+    private static int writeString(final DataOutputStream output, final String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static String readString(final ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
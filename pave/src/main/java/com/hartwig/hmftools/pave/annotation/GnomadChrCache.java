@@ -2,62 +2,167 @@ package com.hartwig.hmftools.pave.annotation;
 
 import static java.lang.String.format;
 
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.hartwig.hmftools.common.utils.StringCache;
 import com.hartwig.hmftools.pave.VariantData;
 
 public class GnomadChrCache
 {
     public final String Chromosome;
 
-    private final Map<Integer,List<GnomadVariant>> mFrequencies;
-    private final StringCache mStringCache;
+    // entries are held as position-sorted columns, with ref and alt alleles coded into a dictionary and frequencies quantised,
+    // either on the heap when loaded from a text file or memory-mapped from a binary cache file and shared read-only across threads
+    private IntBuffer mPositions;
+    private IntBuffer mRefIds;
+    private IntBuffer mAltIds;
+    private IntBuffer mFrequencies;
+    private int mEntryCount;
 
-    public GnomadChrCache(final String chromosome, final StringCache stringCache)
+    private final List<String> mAlleles;
+    private final Map<String,Integer> mAlleleIds;
+
+    // staging arrays used while loading from a text file
+    private int[] mStagedPositions;
+    private int[] mStagedRefIds;
+    private int[] mStagedAltIds;
+    private int[] mStagedFrequencies;
+    private boolean mStagedSorted;
+
+    // frequencies are held as integer billionths, so any frequency in [0, 1] is kept to within 5e-10 - well below the 5 decimal
+    // places of the text cache files and the smallest non-zero allele frequency in Gnomad
+    public static final int FREQ_SCALE = 1000000000;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public GnomadChrCache(final String chromosome)
     {
         Chromosome = chromosome;
-        mFrequencies = Maps.newHashMap();
-        mStringCache = stringCache;
+        mAlleles = Lists.newArrayList();
+        mAlleleIds = Maps.newHashMap();
+        mEntryCount = 0;
+
+        mStagedPositions = new int[INITIAL_CAPACITY];
+        mStagedRefIds = new int[INITIAL_CAPACITY];
+        mStagedAltIds = new int[INITIAL_CAPACITY];
+        mStagedFrequencies = new int[INITIAL_CAPACITY];
+        mStagedSorted = true;
     }
 
-    public void addEntry(final int position, final String ref, final String alt, final double frequency)
+    public GnomadChrCache(
+            final String chromosome, final List<String> alleles, final IntBuffer positions, final IntBuffer refIds,
+            final IntBuffer altIds, final IntBuffer frequencies)
     {
-        List<GnomadVariant> posList = mFrequencies.get(position);
+        Chromosome = chromosome;
+        mAlleles = alleles;
+        mAlleleIds = Maps.newHashMap();
 
-        if(posList == null)
+        for(int i = 0; i < alleles.size(); ++i)
         {
-            posList = Lists.newArrayList();
-            mFrequencies.put(position, posList);
+            mAlleleIds.put(alleles.get(i), i);
         }
 
-        posList.add(new GnomadVariant(mStringCache.intern(ref), mStringCache.intern(alt), frequency));
+        mPositions = positions;
+        mRefIds = refIds;
+        mAltIds = altIds;
+        mFrequencies = frequencies;
+        mEntryCount = positions.limit();
     }
 
-    public void clear() { mFrequencies.clear(); }
-    public int entryCount() { return mFrequencies.size(); }
+    public void addEntry(final int position, final String ref, final String alt, final double frequency)
+    {
+        if(mStagedPositions == null)
+            throw new IllegalStateException("Gnomad cache is already compiled");
+
+        if(mEntryCount == mStagedPositions.length)
+        {
+            int newCapacity = mEntryCount * 2;
+            mStagedPositions = Arrays.copyOf(mStagedPositions, newCapacity);
+            mStagedRefIds = Arrays.copyOf(mStagedRefIds, newCapacity);
+            mStagedAltIds = Arrays.copyOf(mStagedAltIds, newCapacity);
+            mStagedFrequencies = Arrays.copyOf(mStagedFrequencies, newCapacity);
+        }
 
-    public String toString() { return format("chr(%s) entries(%d)", Chromosome, mFrequencies.size()); }
+        if(mEntryCount > 0 && position < mStagedPositions[mEntryCount - 1])
+            mStagedSorted = false;
 
-    private class GnomadVariant
+        mStagedPositions[mEntryCount] = position;
+        mStagedRefIds[mEntryCount] = alleleId(ref);
+        mStagedAltIds[mEntryCount] = alleleId(alt);
+        mStagedFrequencies[mEntryCount] = quantiseFrequency(frequency);
+        ++mEntryCount;
+    }
+
+    public void compile()
     {
-        public final String Ref;
-        public final String Alt;
-        public final double Frequency;
+        // converts entries staged from a text file into the sorted columns used for look-up
+        if(mStagedPositions == null)
+            return;
+
+        int[] positions = Arrays.copyOf(mStagedPositions, mEntryCount);
+        int[] refIds = Arrays.copyOf(mStagedRefIds, mEntryCount);
+        int[] altIds = Arrays.copyOf(mStagedAltIds, mEntryCount);
+        int[] frequencies = Arrays.copyOf(mStagedFrequencies, mEntryCount);
 
-        public GnomadVariant(final String ref, final String alt, final double frequency)
+        if(!mStagedSorted)
         {
-            Ref = ref;
-            Alt = alt;
-            Frequency = frequency;
+            final int[] stagedPositions = mStagedPositions;
+
+            int[] order = IntStream.range(0, mEntryCount).boxed()
+                    .sorted(Comparator.comparingInt(x -> stagedPositions[x]))
+                    .mapToInt(x -> x).toArray();
+
+            for(int i = 0; i < order.length; ++i)
+            {
+                positions[i] = mStagedPositions[order[i]];
+                refIds[i] = mStagedRefIds[order[i]];
+                altIds[i] = mStagedAltIds[order[i]];
+                frequencies[i] = mStagedFrequencies[order[i]];
+            }
         }
 
-        public boolean matches(final String ref, final String alt) { return ref.equals(Ref) && alt.equals(Alt); }
+        mPositions = IntBuffer.wrap(positions);
+        mRefIds = IntBuffer.wrap(refIds);
+        mAltIds = IntBuffer.wrap(altIds);
+        mFrequencies = IntBuffer.wrap(frequencies);
+
+        mStagedPositions = null;
+        mStagedRefIds = null;
+        mStagedAltIds = null;
+        mStagedFrequencies = null;
     }
 
+    public void clear()
+    {
+        mPositions = null;
+        mRefIds = null;
+        mAltIds = null;
+        mFrequencies = null;
+        mStagedPositions = null;
+        mStagedRefIds = null;
+        mStagedAltIds = null;
+        mStagedFrequencies = null;
+        mAlleles.clear();
+        mAlleleIds.clear();
+        mEntryCount = 0;
+    }
+
+    public int entryCount() { return mEntryCount; }
+
+    public List<String> alleles() { return mAlleles; }
+    public IntBuffer positions() { return mPositions; }
+    public IntBuffer refIds() { return mRefIds; }
+    public IntBuffer altIds() { return mAltIds; }
+    public IntBuffer frequencies() { return mFrequencies; }
+
+    public String toString() { return format("chr(%s) entries(%d) alleles(%d)", Chromosome, mEntryCount, mAlleles.size()); }
+
     public Double getFrequency(final VariantData variant)
     {
         if(variant.isMnv())
@@ -85,12 +190,58 @@ public class GnomadChrCache
 
     public Double getFrequency(int position, final String ref, final String alt)
     {
-        List<GnomadVariant> posList = mFrequencies.get(position);
+        Integer refId = mAlleleIds.get(ref);
+        Integer altId = mAlleleIds.get(alt);
 
-        if(posList == null)
+        if(refId == null || altId == null)
             return null;
 
-        GnomadVariant match = posList.stream().filter(x -> x.matches(ref, alt)).findFirst().orElse(null);
-        return match != null ? match.Frequency : null;
+        for(int index = findFirstIndex(position); index < mEntryCount && mPositions.get(index) == position; ++index)
+        {
+            if(mRefIds.get(index) == refId && mAltIds.get(index) == altId)
+                return mFrequencies.get(index) / (double)FREQ_SCALE;
+        }
+
+        return null;
+    }
+
+    private int findFirstIndex(int position)
+    {
+        // binary search for the lowest index at or after the position, since multiple alts can share a position
+        int lower = 0;
+        int upper = mEntryCount;
+
+        while(lower < upper)
+        {
+            int mid = (lower + upper) >>> 1;
+
+            if(mPositions.get(mid) < position)
+                lower = mid + 1;
+            else
+                upper = mid;
+        }
+
+        return lower;
+    }
+
+    private int alleleId(final String allele)
+    {
+        Integer id = mAlleleIds.get(allele);
+
+        if(id != null)
+            return id;
+
+        id = mAlleles.size();
+        mAlleles.add(allele);
+        mAlleleIds.put(allele, id);
+        return id;
+    }
+
+    public static int quantiseFrequency(final double frequency)
+    {
+        if(!(frequency >= 0 && frequency <= 1))
+            throw new IllegalArgumentException(format("invalid Gnomad frequency(%s)", frequency));
+
+        return (int)Math.round(frequency * FREQ_SCALE);
     }
 }
@@ -8,29 +8,19 @@ import java.util.List;
 import com.hartwig.hmftools.common.gene.GeneData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
-import com.hartwig.hmftools.pave.GeneCacheIndexing;
 import com.hartwig.hmftools.pave.GeneDataCache;
 import com.hartwig.hmftools.pave.VariantData;
 import com.hartwig.hmftools.pave.impact.ImpactClassifier;
 import com.hartwig.hmftools.pave.impact.VariantTransImpact;
 
-import org.jetbrains.annotations.Nullable;
-
 public final class PaveUtils
 {
     public static void findVariantImpacts(
             final VariantData variant, final ImpactClassifier impactClassifier, final GeneDataCache geneDataCache)
-    {
-        findVariantImpacts(variant, impactClassifier, geneDataCache, null);
-    }
-
-    public static void findVariantImpacts(
-            final VariantData variant, final ImpactClassifier impactClassifier, final GeneDataCache geneDataCache,
-            @Nullable final GeneCacheIndexing cacheIndexing)
     {
         boolean processed = false;
 
-        List<GeneData> geneCandidates = geneDataCache.findGenes(variant.Chromosome, variant.Position, variant.EndPosition, cacheIndexing);
+        List<GeneData> geneCandidates = geneDataCache.findGenes(variant.Chromosome, variant.Position, variant.EndPosition);
 
         if(!geneCandidates.isEmpty())
         {
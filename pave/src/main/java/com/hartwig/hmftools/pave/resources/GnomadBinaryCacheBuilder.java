@@ -0,0 +1,137 @@
+package com.hartwig.hmftools.pave.resources;
+
+import static com.hartwig.hmftools.common.utils.config.ConfigUtils.addLoggingOptions;
+import static com.hartwig.hmftools.common.utils.file.FileDelimiters.CSV_DELIM;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.addOutputOptions;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.createBufferedReader;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.parseOutputDir;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.PaveConstants.APP_NAME;
+import static com.hartwig.hmftools.pave.annotation.GnomadAnnotation.GNOMAD_FREQUENCY_DIR;
+import static com.hartwig.hmftools.pave.annotation.GnomadBinaryCache.binaryFilename;
+import static com.hartwig.hmftools.pave.resources.GnomadCacheBuilder.GNOMAD_FILE_ID;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
+import com.hartwig.hmftools.pave.annotation.GnomadBinaryCache;
+import com.hartwig.hmftools.pave.annotation.GnomadChrCache;
+
+import org.jetbrains.annotations.NotNull;
+
+public class GnomadBinaryCacheBuilder
+{
+    private final String mGnomadDir;
+    private final String mOutputDir;
+
+    public GnomadBinaryCacheBuilder(final ConfigBuilder configBuilder)
+    {
+        mGnomadDir = configBuilder.getValue(GNOMAD_FREQUENCY_DIR);
+        mOutputDir = parseOutputDir(configBuilder);
+    }
+
+    public void run()
+    {
+        if(mGnomadDir == null || !Files.exists(Paths.get(mGnomadDir)))
+        {
+            PV_LOGGER.error("missing Gnomad directory, exiting");
+            System.exit(1);
+        }
+
+        PV_LOGGER.info("converting per-chromosome Gnomad files in {} to binary form, writing to {}", mGnomadDir, mOutputDir);
+
+        List<String> chrFiles;
+
+        try(Stream<Path> stream = Files.list(Paths.get(mGnomadDir)))
+        {
+            // expect file name: gnomad_variants_chr10_v38.csv.gz
+            chrFiles = stream.map(x -> x.toFile().getName())
+                    .filter(x -> x.contains(GNOMAD_FILE_ID + "_chr") && (x.endsWith(".csv") || x.endsWith(".csv.gz")))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to find Gnomad chromosome files in dir({}): {}", mGnomadDir, e.toString());
+            System.exit(1);
+            return;
+        }
+
+        for(String chrFile : chrFiles)
+        {
+            String outputFile = mOutputDir + binaryFilename(chrFile);
+
+            if(!convertChromosomeFile(mGnomadDir + File.separator + chrFile, outputFile))
+                System.exit(1);
+        }
+
+        PV_LOGGER.info("Gnomad binary conversion complete");
+    }
+
+    private static boolean convertChromosomeFile(final String inputFile, final String outputFile)
+    {
+        // eg gnomad_variants_chr21_v38.csv.gz - PAVE keys the cache by its own versioned chromosome name when loading
+        String chromosome = parseChromosome(new File(inputFile).getName());
+
+        try
+        {
+            BufferedReader fileReader = createBufferedReader(inputFile);
+
+            String line = fileReader.readLine(); // skip header
+
+            GnomadChrCache chrCache = new GnomadChrCache(chromosome);
+
+            while((line = fileReader.readLine()) != null)
+            {
+                final String[] values = line.split(CSV_DELIM, -1);
+
+                int position = Integer.parseInt(values[0]);
+                String ref = values[1];
+                String alt = values[2];
+                double frequency = Double.parseDouble(values[3]);
+
+                chrCache.addEntry(position, ref, alt, frequency);
+            }
+
+            fileReader.close();
+
+            GnomadBinaryCache.write(chrCache, outputFile);
+
+            PV_LOGGER.info("chr({}) wrote {} Gnomad frequency records to {}", chromosome, chrCache.entryCount(), outputFile);
+            return true;
+        }
+        catch(IOException | IllegalArgumentException e)
+        {
+            PV_LOGGER.error("failed to convert Gnomad file({}): {}", inputFile, e.toString());
+            return false;
+        }
+    }
+
+    private static String parseChromosome(final String filename)
+    {
+        String chrPart = filename.substring(filename.indexOf(GNOMAD_FILE_ID + "_chr") + GNOMAD_FILE_ID.length() + 4);
+        return chrPart.split("[_.]")[0];
+    }
+
+    public static void main(@NotNull final String[] args)
+    {
+        ConfigBuilder configBuilder = new ConfigBuilder(APP_NAME);
+
+        configBuilder.addPath(GNOMAD_FREQUENCY_DIR, true, "Gnomad per-chromosome frequency directory");
+        addOutputOptions(configBuilder);
+        addLoggingOptions(configBuilder);
+
+        configBuilder.checkAndParseCommandLine(args);
+
+        GnomadBinaryCacheBuilder builder = new GnomadBinaryCacheBuilder(configBuilder);
+        builder.run();
+    }
+}
@@ -3,15 +3,22 @@ package com.hartwig.hmftools.pave;
 import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
 import static com.hartwig.hmftools.pave.annotation.ClinvarAnnotation.CLNSIG;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.pave.annotation.ClinvarChrCache;
+import com.hartwig.hmftools.pave.annotation.GnomadBinaryCache;
+import com.hartwig.hmftools.pave.annotation.GnomadChrCache;
 import com.hartwig.hmftools.common.utils.StringCache;
 
 import org.junit.Test;
@@ -49,6 +56,64 @@ public class ResourcesTest
         assertFalse(var3.context().hasAttribute(CLNSIG));
     }
 
+    @Test
+    public void testGnomad() throws IOException
+    {
+        GnomadChrCache gnomadCache = new GnomadChrCache(CHR_1);
+
+        // entries out of order are sorted on compile
+        gnomadCache.addEntry(200, "A", "G", 0.00012);
+        gnomadCache.addEntry(100, "A", "G", 0.5);
+        gnomadCache.addEntry(100, "A", "C", 0.25);
+        gnomadCache.addEntry(101, "C", "T", 0.1);
+        gnomadCache.addEntry(150, "AT", "A", 0.00001);
+        gnomadCache.addEntry(300, "G", "T", 3.2e-7); // below the precision of the text cache files
+        gnomadCache.compile();
+
+        checkGnomadFrequencies(gnomadCache);
+
+        File binaryFile = File.createTempFile("gnomad_variants_chr1", ".bin");
+        binaryFile.deleteOnExit();
+
+        GnomadBinaryCache.write(gnomadCache, binaryFile.getAbsolutePath());
+
+        GnomadChrCache mappedCache = GnomadBinaryCache.load(binaryFile.getAbsolutePath());
+        assertEquals(CHR_1, mappedCache.Chromosome);
+        assertEquals(6, mappedCache.entryCount());
+
+        checkGnomadFrequencies(mappedCache);
+
+        assertEquals("gnomad_variants_chr1_v38.bin", GnomadBinaryCache.binaryFilename("gnomad_variants_chr1_v38.csv.gz"));
+        assertEquals("gnomad_variants_chr1.bin", GnomadBinaryCache.binaryFilename("gnomad_variants_chr1.csv"));
+
+        try
+        {
+            gnomadCache = new GnomadChrCache(CHR_1);
+            gnomadCache.addEntry(100, "A", "G", 1.5);
+            fail("expected invalid frequency");
+        }
+        catch(IllegalArgumentException e)
+        {
+            assertTrue(e.getMessage().contains("1.5"));
+        }
+    }
+
+    private static void checkGnomadFrequencies(final GnomadChrCache gnomadCache)
+    {
+        assertEquals(0.5, gnomadCache.getFrequency(100, "A", "G"), 1e-10);
+        assertEquals(0.25, gnomadCache.getFrequency(100, "A", "C"), 1e-10);
+        assertEquals(0.00001, gnomadCache.getFrequency(150, "AT", "A"), 1e-10);
+        assertEquals(0.00012, gnomadCache.getFrequency(200, "A", "G"), 1e-10);
+        assertEquals(3.2e-7, gnomadCache.getFrequency(300, "G", "T"), 1e-9);
+        assertNull(gnomadCache.getFrequency(100, "A", "T"));
+        assertNull(gnomadCache.getFrequency(101, "A", "G"));
+        assertNull(gnomadCache.getFrequency(250, "A", "G"));
+
+        // MNVs take the lowest frequency of their bases
+        assertEquals(0.1, gnomadCache.getFrequency(new VariantData(CHR_1, 100, "AC", "GT")), 1e-10);
+        assertNull(gnomadCache.getFrequency(new VariantData(CHR_1, 99, "CA", "TG")));
+    }
+
     public static VariantData createVariant( final String chromosome, int position, final String ref, final String alt)
     {
         VariantContext context = buildContext(chromosome, position, ref, alt);
@@ -37,6 +37,7 @@ public class FittingConfig
     public final double PurityIncrement;
     public final double MinPloidy;
     public final double MaxPloidy;
+    public final int CoarseFitStep;
 
     public final int MinDiploidTumorRatioCount;
     public final int MinDiploidTumorRatioCountAtCentromere;
@@ -59,6 +60,7 @@ public class FittingConfig
     private static final String PURITY_INCREMENT = "purity_increment";
     private static final String MIN_PLOIDY = "min_ploidy";
     private static final String MAX_PLOIDY = "max_ploidy";
+    private static final String COARSE_FIT_STEP = "coarse_fit_step";
     private static final String MIN_DIPLOID_TUMOR_RATIO_COUNT = "min_diploid_tumor_ratio_count";
     private static final String MIN_DIPLOID_TUMOR_RATIO_COUNT_AT_CENTROMERE = "min_diploid_tumor_ratio_count_centromere";
 
@@ -84,6 +86,7 @@ public class FittingConfig
         PurityIncrement = configBuilder.getDecimal(PURITY_INCREMENT);
         MinPloidy = configBuilder.getDecimal(MIN_PLOIDY);
         MaxPloidy = configBuilder.getDecimal(MAX_PLOIDY);
+        CoarseFitStep = configBuilder.getInteger(COARSE_FIT_STEP);
 
         MinDiploidTumorRatioCount = getConfigInteger(
                 configBuilder, MIN_DIPLOID_TUMOR_RATIO_COUNT,
@@ -127,6 +130,9 @@ public class FittingConfig
         configBuilder.addDecimal(MIN_PLOIDY, "Minimum ploidy", MIN_PLOIDY_DEFAULT);
         configBuilder.addDecimal(MAX_PLOIDY, "Maximum ploidy", MAX_PLOIDY_DEFAULT);
 
+        configBuilder.addInteger(
+                COARSE_FIT_STEP, "Fit every Nth purity and ploidy then refine around the best fits, 0 fits the full grid", 0);
+
         addTargetedInteger(
                 configBuilder, MIN_DIPLOID_TUMOR_RATIO_COUNT,
                 "Minimum ratio count while smoothing before diploid regions become suspect",
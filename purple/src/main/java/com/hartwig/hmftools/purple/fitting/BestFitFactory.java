@@ -204,12 +204,14 @@ public class BestFitFactory
 
     private static Predicate<FittedPurity> inRangeOfLowest(final double score)
     {
-        return fittedPurity ->
-        {
-            double absDifference = Math.abs(fittedPurity.score() - score);
-            double relDifference = Math.abs(absDifference / score);
-            return lessOrEqual(absDifference, ABS_RANGE) || lessOrEqual(relDifference, PERCENT_RANGE);
-        };
+        return fittedPurity -> inRangeOfLowest(score, fittedPurity.score());
+    }
+
+    public static boolean inRangeOfLowest(double lowestScore, double score)
+    {
+        double absDifference = Math.abs(score - lowestScore);
+        double relDifference = Math.abs(absDifference / lowestScore);
+        return lessOrEqual(absDifference, ABS_RANGE) || lessOrEqual(relDifference, PERCENT_RANGE);
     }
 
     private void setSvSummary(final List<StructuralVariant> variants)
@@ -1,16 +1,18 @@
 package com.hartwig.hmftools.purple.purity;
 
-import static java.lang.String.format;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 import static com.hartwig.hmftools.common.utils.Doubles.lessOrEqual;
 import static com.hartwig.hmftools.common.utils.Doubles.positiveOrZero;
 import static com.hartwig.hmftools.purple.PurpleUtils.PPL_LOGGER;
+import static com.hartwig.hmftools.purple.fitting.BestFitFactory.inRangeOfLowest;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -37,14 +39,12 @@ public class FittedPurityFactory
     private final double mSomaticPenaltyWeight;
     private final Map<String,Double> mObservedRatioMap;
 
-    private final int mTotalBAFCount;
-    private final double mAverageFittingRatio;
-
     private final RegionFitCalculator mRegionFitCalculator;
     private final ExecutorService mExecutorService;
 
     private final List<FittedPurity> mFittedPurities;
-    private final List<ObservedRegionData> mFilteredObservedRegions;
+    private final RegionFitObservations mObservations;
+    private final List<Double> mPurityRange;
     private final List<Double> mPloidyRange;
 
     private static final int MAX_SOMATICS_TO_FIT = 1000;
@@ -63,96 +63,201 @@ public class FittedPurityFactory
         mObservedRatioMap = cobaltChromosomes.chromosomes().stream()
                 .collect(Collectors.toMap(CobaltChromosome::contig, CobaltChromosome::actualRatio));
 
+        mPurityRange = purityRange(mConfig.Fitting.MinPurity, mConfig.Fitting.MaxPurity, mConfig.Fitting.PurityIncrement);
         mPloidyRange = ploidyRange(mConfig.Fitting.MinPloidy, mConfig.Fitting.MaxPloidy);
 
         mFittedPurities = Lists.newArrayList();
-        mFilteredObservedRegions = Lists.newArrayList();
 
+        final List<ObservedRegionData> filteredObservedRegions = Lists.newArrayList();
         final List<SomaticVariant> filteredVariants = Lists.newArrayList();
         final GenomePositionSelector<SomaticVariant> variantSelector = GenomePositionSelectorFactory.create(variants);
 
         boolean tumorOnlyMode = mConfig.tumorOnlyMode();
-        int accumulatedBafCount = 0;
-        double accumulatedWeightedRatio = 0;
 
         for(final ObservedRegion region : observedRegions)
         {
             if(useRegionToFitPurity(tumorOnlyMode, cobaltChromosomes, region))
             {
                 variantSelector.select(region, filteredVariants::add);
-
-                ObservedRegionData observedRegion = new ObservedRegionData(region);
-                mFilteredObservedRegions.add(observedRegion);
-
-                accumulatedBafCount += region.bafCount();
-                accumulatedWeightedRatio += region.bafCount() * region.observedTumorRatio();
+                filteredObservedRegions.add(new ObservedRegionData(region));
             }
         }
 
-        mTotalBAFCount = accumulatedBafCount;
-        mAverageFittingRatio = accumulatedWeightedRatio / accumulatedBafCount;
-
         List<SomaticVariant> downsampleVariants = Downsample.downsample(MAX_SOMATICS_TO_FIT, filteredVariants);
 
         // assign down-sampled variants to the filtered regions
         final GenomePositionSelector<SomaticVariant> filteredVariantSelector = GenomePositionSelectorFactory.create(downsampleVariants);
 
-        for(ObservedRegionData regionData : mFilteredObservedRegions)
+        for(ObservedRegionData regionData : filteredObservedRegions)
         {
             filteredVariantSelector.select(regionData.Region, regionData::addVariant);
         }
+
+        mObservations = new RegionFitObservations(filteredObservedRegions, regionFitCalculator);
     }
 
     public List<FittedPurity> getFittedPurities() { return mFittedPurities; }
 
     public void fitPurity() throws ExecutionException, InterruptedException
     {
-        FittingConfig config = mConfig.Fitting;
+        // fits are held in a purity by ploidy grid and collected in grid order, so results are the same for any thread count
+        FittedPurity[][] fitGrid = new FittedPurity[mPurityRange.size()][mPloidyRange.size()];
+        int coarseStep = mConfig.Fitting.CoarseFitStep;
 
-        if(mConfig.Threads <= 1)
+        if(coarseStep <= 1)
         {
-            for(double purity = config.MinPurity; lessOrEqual(purity, config.MaxPurity); purity += config.PurityIncrement)
+            boolean[][] fullGrid = new boolean[mPurityRange.size()][mPloidyRange.size()];
+            Arrays.stream(fullGrid).forEach(x -> Arrays.fill(x, true));
+            fitGridPoints(fitGrid, fullGrid);
+        }
+        else
+        {
+            fitCoarseToFine(fitGrid, coarseStep);
+        }
+
+        for(FittedPurity[] purityFits : fitGrid)
+        {
+            for(FittedPurity fittedPurity : purityFits)
             {
-                mFittedPurities.addAll(fitPurity(purity));
+                if(fittedPurity != null)
+                    mFittedPurities.add(fittedPurity);
             }
         }
-        else
+
+        Collections.sort(mFittedPurities);
+    }
+
+    private void fitCoarseToFine(final FittedPurity[][] fitGrid, int coarseStep) throws ExecutionException, InterruptedException
+    {
+        // fit every Nth purity and ploidy including the last of each, then repeatedly fit the full-resolution neighbourhood of
+        // any fit in range of the lowest score until no new points are added, so the fits used to choose the best fit and its
+        // score range are all included
+        int purityCount = mPurityRange.size();
+        int ploidyCount = mPloidyRange.size();
+
+        boolean[][] pointsToFit = new boolean[purityCount][ploidyCount];
+
+        for(int i = 0; i < purityCount; ++i)
+        {
+            if(i % coarseStep != 0 && i != purityCount - 1)
+                continue;
+
+            for(int j = 0; j < ploidyCount; ++j)
+            {
+                if(j % coarseStep == 0 || j == ploidyCount - 1)
+                    pointsToFit[i][j] = true;
+            }
+        }
+
+        int fitCount = fitGridPoints(fitGrid, pointsToFit);
+        int coarseFitCount = fitCount;
+        int iterations = 0;
+
+        while(true)
         {
-            final List<Future<List<FittedPurity>>> futures = Lists.newArrayList();
-            for(double purity = config.MinPurity; lessOrEqual(purity, config.MaxPurity); purity += config.PurityIncrement)
+            double lowestScore = Double.MAX_VALUE;
+
+            for(FittedPurity[] purityFits : fitGrid)
             {
-                futures.add(mExecutorService.submit(callableFitPurity(purity)));
+                for(FittedPurity fittedPurity : purityFits)
+                {
+                    if(fittedPurity != null)
+                        lowestScore = min(lowestScore, fittedPurity.score());
+                }
             }
 
-            for(Future<List<FittedPurity>> future : futures)
+            boolean hasNewPoints = false;
+
+            for(int i = 0; i < purityCount; ++i)
             {
-                List<FittedPurity> fittedPurities = future.get();
+                Arrays.fill(pointsToFit[i], false);
+            }
 
-                if(!fittedPurities.isEmpty())
+            for(int i = 0; i < purityCount; ++i)
+            {
+                for(int j = 0; j < ploidyCount; ++j)
                 {
-                    mFittedPurities.addAll(fittedPurities);
+                    if(fitGrid[i][j] == null || !inRangeOfLowest(lowestScore, fitGrid[i][j].score()))
+                        continue;
+
+                    for(int pi = max(0, i - coarseStep); pi <= min(purityCount - 1, i + coarseStep); ++pi)
+                    {
+                        for(int pj = max(0, j - coarseStep); pj <= min(ploidyCount - 1, j + coarseStep); ++pj)
+                        {
+                            if(fitGrid[pi][pj] == null)
+                            {
+                                pointsToFit[pi][pj] = true;
+                                hasNewPoints = true;
+                            }
+                        }
+                    }
                 }
             }
+
+            if(!hasNewPoints)
+                break;
+
+            fitCount += fitGridPoints(fitGrid, pointsToFit);
+            ++iterations;
         }
 
-        Collections.sort(mFittedPurities);
+        PPL_LOGGER.debug("coarse fit step({}) fits({} coarse={}) of grid({}) refinements({})",
+                coarseStep, fitCount, coarseFitCount, purityCount * ploidyCount, iterations);
     }
 
-    private Callable<List<FittedPurity>> callableFitPurity(final double purity)
+    private int fitGridPoints(final FittedPurity[][] fitGrid, final boolean[][] pointsToFit)
+            throws ExecutionException, InterruptedException
     {
-        return () -> fitPurity(purity);
+        // each task fits the selected ploidies of one purity, only writing to its own row of the grid
+        int fitCount = 0;
+        final List<Future<?>> futures = Lists.newArrayList();
+
+        for(int i = 0; i < mPurityRange.size(); ++i)
+        {
+            boolean[] purityPoints = pointsToFit[i];
+
+            int pointCount = 0;
+
+            for(boolean fitPoint : purityPoints)
+            {
+                if(fitPoint)
+                    ++pointCount;
+            }
+
+            if(pointCount == 0)
+                continue;
+
+            fitCount += pointCount;
+
+            final int purityIndex = i;
+            Runnable fitTask = () -> fitPurity(purityIndex, purityPoints, fitGrid[purityIndex]);
+
+            if(mConfig.Threads <= 1)
+                fitTask.run();
+            else
+                futures.add(mExecutorService.submit(fitTask));
+        }
+
+        for(Future<?> future : futures)
+        {
+            future.get();
+        }
+
+        return fitCount;
     }
 
-    private List<FittedPurity> fitPurity(final double purity)
+    private void fitPurity(int purityIndex, final boolean[] ploidyPoints, final FittedPurity[] purityFits)
     {
-        final List<FittedPurity> fittedPurities = Lists.newArrayList();
-        for(Double ploidy : mPloidyRange)
+        double purity = mPurityRange.get(purityIndex);
+
+        for(int j = 0; j < mPloidyRange.size(); ++j)
         {
-            double impliedNormFactor = PurityAdjuster.impliedNormFactor(mAverageFittingRatio, purity, ploidy);
-            fittedPurities.add(fitPurity(purity, impliedNormFactor));
-        }
+            if(!ploidyPoints[j])
+                continue;
 
-        return fittedPurities;
+            double impliedNormFactor = PurityAdjuster.impliedNormFactor(mObservations.AverageFittingRatio, purity, mPloidyRange.get(j));
+            purityFits[j] = fitPurity(purity, impliedNormFactor);
+        }
     }
 
     private FittedPurity fitPurity(final double purity, final double normFactor)
@@ -168,12 +273,17 @@ public class FittedPurityFactory
         final SomaticDeviation somaticDeviation = SomaticDeviation.INSTANCE;
         PurityAdjuster purityAdjuster = new PurityAdjuster(mObservedRatioMap, purity, normFactor);
 
-        for(ObservedRegionData regionData : mFilteredObservedRegions)
+        final RegionFitObservations observations = mObservations;
+
+        for(int i = 0; i < observations.RegionCount; ++i)
         {
-            ObservedRegion region = regionData.Region;
-            RegionFitCalcs regionFitCalcs = mRegionFitCalculator.calculateRegionFit(purity, normFactor, region);
+            String chromosome = observations.Chromosomes[i];
+
+            RegionFitCalcs regionFitCalcs = mRegionFitCalculator.calculateRegionFit(
+                    purityAdjuster, chromosome, observations.ObservedTumorRatios[i], observations.ObservedNormalRatios[i],
+                    observations.ObservedBAFs[i], observations.DeviationPenaltyDenoms[i]);
 
-            int bafCount = region.bafCount();
+            int bafCount = observations.BafCounts[i];
             eventPenalty += weightWithBaf(regionFitCalcs.EventPenalty, bafCount);
             deviationPenalty += weightWithBaf(regionFitCalcs.DeviationPenalty, bafCount);
             averagePloidy += weightWithBaf(regionFitCalcs.TumorCopyNumber, bafCount);
@@ -183,21 +293,15 @@ public class FittedPurityFactory
                 diploidProportion += weightWithBaf(1, bafCount);
             }
 
-            for(SomaticVariant variant : regionData.Variants)
+            for(SomaticVariant variant : observations.Variants[i])
             {
                 ++somaticVariantCount;
 
                 double variantPenalty = somaticDeviation.deviationFromMax(
-                        purityAdjuster, region.chromosome(), regionFitCalcs.majorAlleleCopyNumber(), regionFitCalcs.TumorCopyNumber, variant);
+                        purityAdjuster, chromosome, regionFitCalcs.majorAlleleCopyNumber(), regionFitCalcs.TumorCopyNumber, variant);
 
                 somaticPenaltyTotal += mSomaticPenaltyWeight * variantPenalty;
             }
-
-            /*
-            PPL_LOGGER.trace(format("region(%s:%d-%d) fit(purity=%.2f norm=%.4f) somaticPenTotal(%.4f) devPen(%.4f) eventPen(%.4f) avgPloidy(%.4f)",
-                    region.chromosome(), region.start(), region.end(),
-                    purity, normFactor, somaticPenaltyTotal, deviationPenalty, eventPenalty, averagePloidy));
-            */
         }
 
         double somaticPenalty = mSomaticPenaltyWeight > 0 && somaticVariantCount > 0 ? somaticPenaltyTotal / somaticVariantCount : 0;
@@ -241,7 +345,19 @@ public class FittedPurityFactory
 
     private double weightWithBaf(double value, int bafCount)
     {
-        return 1d * value * bafCount / mTotalBAFCount;
+        return 1d * value * bafCount / mObservations.TotalBafCount;
+    }
+
+    protected static List<Double> purityRange(double minPurity, double maxPurity, double purityIncrement)
+    {
+        List<Double> results = Lists.newArrayList();
+
+        for(double purity = minPurity; lessOrEqual(purity, maxPurity); purity += purityIncrement)
+        {
+            results.add(purity);
+        }
+
+        return results;
     }
 
     protected static List<Double> ploidyRange(double minPloidy, double maxPloidy)
@@ -80,13 +80,24 @@ public class RegionFitCalculator
     {
         final PurityAdjuster purityAdjuster = new PurityAdjuster(purity, normFactor, mCobaltChromosomes);
 
-        double observedTumorRatio = observedRegion.observedTumorRatio();
+        return calculateRegionFit(
+                purityAdjuster, observedRegion.chromosome(), observedRegion.observedTumorRatio(), observedRegion.observedNormalRatio(),
+                observedRegion.observedBAF(), deviationPenaltyDenominator(observedRegion.observedTumorRatio()));
+    }
+
+    public RegionFitCalcs calculateRegionFit(
+            final PurityAdjuster purityAdjuster, final String chromosome, double observedTumorRatio, double observedNormalRatio,
+            double observedBAF, double deviationPenaltyDenom)
+    {
+        // the purity adjuster is shared across regions for a given fit, and the deviation penalty denominator only depends on
+        // the region so can be calculated once for all fits
+        double purity = purityAdjuster.purity();
+        double normFactor = purityAdjuster.normFactor();
 
-        double impliedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(observedRegion.chromosome(), observedTumorRatio);
-        double observedBAF = observedRegion.observedBAF();
-        double impliedBAF = impliedBaf(purityAdjuster, observedRegion.chromosome(), impliedCopyNumber, observedBAF);
+        double impliedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(chromosome, observedTumorRatio);
+        double impliedBAF = impliedBaf(purityAdjuster, chromosome, impliedCopyNumber, observedBAF);
 
-        double refNormalisedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(observedTumorRatio, observedRegion.observedNormalRatio());
+        double refNormalisedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(observedTumorRatio, observedNormalRatio);
 
         double majorAllelePloidy = impliedBAF * impliedCopyNumber;
         double minorAllelePloidy = impliedCopyNumber - majorAllelePloidy;
@@ -98,6 +109,18 @@ public class RegionFitCalculator
 
         double deviationPenalty = (minorAllelePloidyDeviation + majorAllelePloidyDeviation) * observedBAF;
 
+        if(deviationPenaltyDenom != NO_DEVIATION_PENALTY_DENOM)
+            deviationPenalty /= deviationPenaltyDenom;
+
+        return new RegionFitCalcs(
+                impliedCopyNumber, impliedBAF, Doubles.replaceNaNWithZero(refNormalisedCopyNumber),
+                minorAllelePloidyDeviation, majorAllelePloidyDeviation, eventPenalty, deviationPenalty);
+    }
+
+    public static final double NO_DEVIATION_PENALTY_DENOM = -1;
+
+    public double deviationPenaltyDenominator(double observedTumorRatio)
+    {
         if(mFitScoreConfig.GcRatioExponent > 0 || mFitScoreConfig.DeviationPenaltyGcMinAdjust > 0)
         {
             // NEW FORMULA:
@@ -106,14 +129,10 @@ public class RegionFitCalculator
 
             double adjTumorRatio = mFitScoreConfig.GcRatioExponent > 0 ? pow(observedTumorRatio, mFitScoreConfig.GcRatioExponent) : 1;
 
-            double deviationPenaltyDenom = max(mFitScoreConfig.DeviationPenaltyGcMinAdjust, adjTumorRatio);
-
-            deviationPenalty /= deviationPenaltyDenom;
+            return max(mFitScoreConfig.DeviationPenaltyGcMinAdjust, adjTumorRatio);
         }
 
-        return new RegionFitCalcs(
-                impliedCopyNumber, impliedBAF, Doubles.replaceNaNWithZero(refNormalisedCopyNumber),
-                minorAllelePloidyDeviation, majorAllelePloidyDeviation, eventPenalty, deviationPenalty);
+        return NO_DEVIATION_PENALTY_DENOM;
     }
 
     public static double calculateEventPenalty(double eventPenaltyFactor, double majorAllele, double minorAllele)
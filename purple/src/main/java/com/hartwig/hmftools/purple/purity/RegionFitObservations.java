@@ -0,0 +1,60 @@
+package com.hartwig.hmftools.purple.purity;
+
+import java.util.List;
+
+import com.hartwig.hmftools.purple.region.ObservedRegion;
+import com.hartwig.hmftools.purple.somatic.SomaticVariant;
+
+public class RegionFitObservations
+{
+    // the fitting regions' observations held in columns, since each purity and ploidy fit walks every region and only needs
+    // these values from each, and any calculation depending only on the region is done once here rather than per fit
+    public final int RegionCount;
+    public final String[] Chromosomes;
+    public final double[] ObservedTumorRatios;
+    public final double[] ObservedNormalRatios;
+    public final double[] ObservedBAFs;
+    public final int[] BafCounts;
+    public final double[] DeviationPenaltyDenoms;
+    public final SomaticVariant[][] Variants;
+
+    public final int TotalBafCount;
+    public final double AverageFittingRatio;
+
+    private static final SomaticVariant[] NO_VARIANTS = new SomaticVariant[0];
+
+    public RegionFitObservations(final List<ObservedRegionData> regions, final RegionFitCalculator regionFitCalculator)
+    {
+        RegionCount = regions.size();
+        Chromosomes = new String[RegionCount];
+        ObservedTumorRatios = new double[RegionCount];
+        ObservedNormalRatios = new double[RegionCount];
+        ObservedBAFs = new double[RegionCount];
+        BafCounts = new int[RegionCount];
+        DeviationPenaltyDenoms = new double[RegionCount];
+        Variants = new SomaticVariant[RegionCount][];
+
+        int totalBafCount = 0;
+        double weightedRatioTotal = 0;
+
+        for(int i = 0; i < RegionCount; ++i)
+        {
+            ObservedRegionData regionData = regions.get(i);
+            ObservedRegion region = regionData.Region;
+
+            Chromosomes[i] = region.chromosome();
+            ObservedTumorRatios[i] = region.observedTumorRatio();
+            ObservedNormalRatios[i] = region.observedNormalRatio();
+            ObservedBAFs[i] = region.observedBAF();
+            BafCounts[i] = region.bafCount();
+            DeviationPenaltyDenoms[i] = regionFitCalculator.deviationPenaltyDenominator(region.observedTumorRatio());
+            Variants[i] = regionData.Variants.isEmpty() ? NO_VARIANTS : regionData.Variants.toArray(NO_VARIANTS);
+
+            totalBafCount += region.bafCount();
+            weightedRatioTotal += region.bafCount() * region.observedTumorRatio();
+        }
+
+        TotalBafCount = totalBafCount;
+        AverageFittingRatio = weightedRatioTotal / totalBafCount;
+    }
+}
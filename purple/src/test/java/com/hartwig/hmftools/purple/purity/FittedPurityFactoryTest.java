@@ -1,8 +1,31 @@
 package com.hartwig.hmftools.purple.purity;
 
+import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.THREADS;
+import static com.hartwig.hmftools.common.utils.config.CommonConfig.REFERENCE;
+import static com.hartwig.hmftools.common.utils.config.CommonConfig.TUMOR;
+import static com.hartwig.hmftools.common.utils.file.FileWriterUtils.OUTPUT_DIR;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.cobalt.CobaltTestUtils;
+import com.hartwig.hmftools.common.genome.chromosome.CobaltChromosomes;
+import com.hartwig.hmftools.common.purple.FittedPurity;
+import com.hartwig.hmftools.common.purple.GermlineStatus;
+import com.hartwig.hmftools.common.purple.SegmentSupport;
+import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
+import com.hartwig.hmftools.purple.config.PurpleConfig;
+import com.hartwig.hmftools.purple.region.ObservedRegion;
 
 import org.junit.Test;
 
@@ -44,4 +67,118 @@ public class FittedPurityFactoryTest
         assertEquals(1, fixed.size());
         assertEquals(fixedPloidy, fixed.get(0), EPSILON);
     }
+
+    @Test
+    public void testPurityRange()
+    {
+        final List<Double> purities = FittedPurityFactory.purityRange(0.08, 1.0, 0.01);
+        assertEquals(93, purities.size());
+        assertEquals(0.08, purities.get(0), EPSILON);
+        assertEquals(1.0, purities.get(92), EPSILON);
+
+        final List<Double> fixed = FittedPurityFactory.purityRange(0.5, 0.5, 0.01);
+        assertEquals(1, fixed.size());
+    }
+
+    @Test
+    public void testCoarseFitMatchesFullGrid() throws Exception
+    {
+        // a purity of 0.6 and copy numbers from 1 to 4 give a clear optimum inside the grid, between the coarse purity points
+        List<ObservedRegion> regions = createRegions(0.6, new int[][] { {2, 1}, {1, 1}, {3, 2}, {4, 2}, {2, 2}, {3, 3} });
+
+        FittedPurity fullBestFit = fitPurity(regions, 1, 1.0, 8);
+        FittedPurity coarseBestFit = fitPurity(regions, 5, 1.0, 8);
+
+        assertEquals(0.6, fullBestFit.purity(), 0.005);
+        assertBestFitsMatch(fullBestFit, coarseBestFit);
+    }
+
+    @Test
+    public void testCoarseFitMatchesFullGridAtEdge() throws Exception
+    {
+        // the optimum is the last purity and ploidy of the grid, and neither falls on a coarse step (purity index 92 and
+        // ploidy index 104 with a step of 5), so the coarse pass must keep the last point of each range to find it
+        List<ObservedRegion> regions = createRegions(1.0, new int[][] { {3, 2}, {4, 2}, {3, 3}, {2, 1}, {4, 3} });
+
+        double maxPloidy = 3.2;
+
+        FittedPurity fullBestFit = fitPurity(regions, 1, 1.0, maxPloidy);
+        FittedPurity coarseBestFit = fitPurity(regions, 5, 1.0, maxPloidy);
+
+        assertEquals(1.0, fullBestFit.purity(), EPSILON);
+        assertEquals(maxPloidy, fullBestFit.ploidy(), 0.01);
+        assertBestFitsMatch(fullBestFit, coarseBestFit);
+    }
+
+    private static void assertBestFitsMatch(final FittedPurity expected, final FittedPurity actual)
+    {
+        assertEquals(expected.purity(), actual.purity(), EPSILON);
+        assertEquals(expected.normFactor(), actual.normFactor(), EPSILON);
+        assertEquals(expected.score(), actual.score(), EPSILON);
+        assertEquals(expected.ploidy(), actual.ploidy(), EPSILON);
+    }
+
+    private static FittedPurity fitPurity(final List<ObservedRegion> regions, int coarseFitStep, double maxPurity, double maxPloidy)
+            throws Exception
+    {
+        File outputDir = Files.createTempDirectory("purple_fit_test").toFile();
+        outputDir.deleteOnExit();
+
+        ConfigBuilder configBuilder = new ConfigBuilder();
+        PurpleConfig.addOptions(configBuilder);
+
+        String outputPath = outputDir.getAbsolutePath();
+
+        assertTrue(configBuilder.parseCommandLine(new String[] {
+                "-" + TUMOR, "TUMOR_ID", "-" + REFERENCE, "REF_ID", "-" + OUTPUT_DIR, outputPath,
+                "-" + ENSEMBL_DATA_DIR, outputPath, "-no_charts",
+                "-" + THREADS, "2", "-coarse_fit_step", String.valueOf(coarseFitStep),
+                "-max_purity", String.valueOf(maxPurity), "-max_ploidy", String.valueOf(maxPloidy) }));
+
+        PurpleConfig config = new PurpleConfig("1.0", configBuilder);
+        CobaltChromosomes cobaltChromosomes = CobaltTestUtils.female();
+        RegionFitCalculator regionFitCalculator = new RegionFitCalculator(cobaltChromosomes, config.Fitting, 100);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(config.Threads);
+
+        try
+        {
+            FittedPurityFactory factory = new FittedPurityFactory(
+                    config, executorService, cobaltChromosomes, regionFitCalculator, regions, Collections.emptyList());
+
+            factory.fitPurity();
+
+            List<FittedPurity> fittedPurities = factory.getFittedPurities();
+            assertFalse(fittedPurities.isEmpty());
+            return fittedPurities.get(0);
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    private static List<ObservedRegion> createRegions(double purity, final int[][] copyNumbers)
+    {
+        // each region has a tumor copy number and major allele copy number, with the observed ratio and BAF of a diploid normal
+        List<ObservedRegion> regions = Lists.newArrayList();
+
+        for(int i = 0; i < copyNumbers.length; ++i)
+        {
+            int copyNumber = copyNumbers[i][0];
+            int majorAllele = copyNumbers[i][1];
+
+            double totalCopyNumber = 2 * (1 - purity) + purity * copyNumber;
+            double tumorRatio = totalCopyNumber / 2;
+            double baf = ((1 - purity) + purity * majorAllele) / totalCopyNumber;
+
+            String chromosome = String.valueOf(i + 1);
+
+            regions.add(new ObservedRegion(
+                    chromosome, 1, 1000000, true, SegmentSupport.NONE, 100, baf, 1000,
+                    tumorRatio, 1, 1, GermlineStatus.DIPLOID, false, 0.45, 1, 1));
+        }
+
+        return regions;
+    }
 }
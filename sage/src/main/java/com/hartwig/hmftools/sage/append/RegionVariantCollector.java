@@ -0,0 +1,137 @@
+package com.hartwig.hmftools.sage.append;
+
+import static com.hartwig.hmftools.common.region.BaseRegion.positionWithin;
+import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+public class RegionVariantCollector
+{
+    // assigns the input VCF's variants to the partition regions containing them, completing each region once the input has moved
+    // past it - the input must be sorted, since a region's variants cannot be added to once it is complete
+    private final Function<String,List<ChrBaseRegion>> mChromosomeRegions; // returns null for chromosomes to skip
+
+    private final Set<String> mCompletedChromosomes;
+    private String mCurrentChromosome;
+    private List<ChrBaseRegion> mRegions;
+    private int mRegionIndex;
+    private int mLastPosition;
+    private List<VariantContext> mRegionVariants;
+
+    private final List<RegionVariants> mCompletedRegions;
+    private int mCompletedVariantCount;
+
+    public static class RegionVariants
+    {
+        public final int RegionIndex;
+        public final ChrBaseRegion Region;
+        public final List<VariantContext> Variants;
+
+        public RegionVariants(final int regionIndex, final ChrBaseRegion region, final List<VariantContext> variants)
+        {
+            RegionIndex = regionIndex;
+            Region = region;
+            Variants = variants;
+        }
+    }
+
+    public RegionVariantCollector(final Function<String,List<ChrBaseRegion>> chromosomeRegions)
+    {
+        mChromosomeRegions = chromosomeRegions;
+
+        mCompletedChromosomes = Sets.newHashSet();
+        mCurrentChromosome = null;
+        mRegions = null;
+        mRegionIndex = 0;
+        mLastPosition = 0;
+        mRegionVariants = Lists.newArrayList();
+
+        mCompletedRegions = Lists.newArrayList();
+        mCompletedVariantCount = 0;
+    }
+
+    public boolean addVariant(final VariantContext variant)
+    {
+        // returns false if the variant is out of order
+        String chromosome = variant.getContig();
+        int position = variant.getStart();
+
+        if(!chromosome.equals(mCurrentChromosome))
+        {
+            completeRegion();
+
+            if(mCurrentChromosome != null)
+                mCompletedChromosomes.add(mCurrentChromosome);
+
+            if(mCompletedChromosomes.contains(chromosome))
+            {
+                SG_LOGGER.error("input VCF is not sorted, chromosome({}) is not contiguous", chromosome);
+                return false;
+            }
+
+            mCurrentChromosome = chromosome;
+            mRegions = mChromosomeRegions.apply(chromosome);
+            mRegionIndex = 0;
+        }
+        else if(position < mLastPosition)
+        {
+            SG_LOGGER.error("input VCF is not sorted, chromosome({}) position({}) is before prior position({})",
+                    chromosome, position, mLastPosition);
+            return false;
+        }
+
+        mLastPosition = position;
+
+        if(mRegions == null)
+            return true;
+
+        // move to the region containing this variant, completing the current region
+        if(mRegionIndex < mRegions.size() && position > mRegions.get(mRegionIndex).end())
+        {
+            completeRegion();
+
+            while(mRegionIndex < mRegions.size() && position > mRegions.get(mRegionIndex).end())
+            {
+                ++mRegionIndex;
+            }
+        }
+
+        if(mRegionIndex >= mRegions.size())
+            return true;
+
+        ChrBaseRegion region = mRegions.get(mRegionIndex);
+
+        if(positionWithin(position, region.start(), region.end()))
+            mRegionVariants.add(variant);
+
+        return true;
+    }
+
+    public void completeRegion()
+    {
+        if(mRegions == null || mRegionVariants.isEmpty())
+            return;
+
+        mCompletedRegions.add(new RegionVariants(mRegionIndex, mRegions.get(mRegionIndex), mRegionVariants));
+        mCompletedVariantCount += mRegionVariants.size();
+        mRegionVariants = Lists.newArrayList();
+    }
+
+    public int completedVariantCount() { return mCompletedVariantCount; }
+
+    public List<RegionVariants> takeCompletedRegions()
+    {
+        List<RegionVariants> completedRegions = Lists.newArrayList(mCompletedRegions);
+        mCompletedRegions.clear();
+        mCompletedVariantCount = 0;
+        return completedRegions;
+    }
+}
@@ -1,7 +1,6 @@
 package com.hartwig.hmftools.sage.append;
 
 import static com.hartwig.hmftools.common.utils.PerformanceCounter.runTimeMinsStr;
-import static com.hartwig.hmftools.common.region.BaseRegion.positionWithin;
 import static com.hartwig.hmftools.sage.SageCommon.APP_NAME;
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 import static com.hartwig.hmftools.sage.vcf.VariantVCF.appendHeader;
@@ -9,6 +8,7 @@ import static com.hartwig.hmftools.sage.vcf.VariantVCF.appendHeader;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,12 +22,12 @@ import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.utils.Doubles;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
-import com.hartwig.hmftools.common.region.ChrBaseRegion;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 import com.hartwig.hmftools.common.variant.VcfFileReader;
 import com.hartwig.hmftools.common.variant.impact.VariantImpact;
 import com.hartwig.hmftools.common.variant.impact.VariantImpactSerialiser;
 import com.hartwig.hmftools.sage.SageCommon;
+import com.hartwig.hmftools.sage.append.RegionVariantCollector.RegionVariants;
 import com.hartwig.hmftools.sage.evidence.FragmentLengths;
 import com.hartwig.hmftools.sage.pipeline.ChromosomePartition;
 import com.hartwig.hmftools.sage.bqr.BaseQualityRecalibration;
@@ -35,9 +35,9 @@ import com.hartwig.hmftools.sage.bqr.BqrRecordMap;
 import com.hartwig.hmftools.sage.vcf.VariantVCF;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
 import htsjdk.samtools.cram.ref.ReferenceSource;
@@ -116,37 +116,19 @@ public class SageAppendApplication
             System.exit(1);
         }
 
-        final List<VariantContext> existingVariants = Lists.newArrayList();
-
-        for(VariantContext variantContext : vcfFileReader.iterator())
-        {
-            VariantContext variant = variantContext.fullyDecode(inputHeader, false);
-
-            if(mConfig.FilterToGenes)
-            {
-                VariantImpact variantImpact = VariantImpactSerialiser.fromVariantContext(variant);
-
-                if(variantImpact == null || variantImpact.CanonicalGeneName.isEmpty())
-                    continue;
-            }
-
-            if(!mConfig.Common.SpecificPositions.isEmpty() && mConfig.Common.SpecificPositions.stream().noneMatch(x -> x == variant.getStart()))
-                continue;
-
-            existingVariants.add(variant);
-        }
-
-        vcfFileReader.close();
-
-        SG_LOGGER.info("loaded {} variants", existingVariants.size());
+        // the input VCF is streamed in windows of whole partition regions, with each window's variants processed against the new
+        // BAMs and written before the next is read, so memory is bounded by the window size rather than the total variant count
+        Iterator<VariantContext> vcfIterator = vcfFileReader.iterator();
+        VariantContext variant = nextVariant(vcfIterator, inputHeader);
 
         SG_LOGGER.info("writing to file: {}", mConfig.Common.OutputFile);
         final VariantVCF outputVCF = new VariantVCF(mRefGenome, mConfig.Common, inputHeader);
 
-        if(existingVariants.isEmpty())
+        if(variant == null)
         {
+            vcfFileReader.close();
             outputVCF.close();
-            SG_LOGGER.info("writing empty output VCF", existingVariants.size());
+            SG_LOGGER.info("writing empty output VCF");
             return;
         }
 
@@ -166,55 +148,90 @@ public class SageAppendApplication
 
         final ChromosomePartition chromosomePartition = new ChromosomePartition(mConfig.Common, mRefGenome);
 
-        for(final SAMSequenceRecord samSequenceRecord : dictionary.getSequences())
+        RegionVariantCollector regionVariants = new RegionVariantCollector(chromosome ->
         {
-            final String chromosome = samSequenceRecord.getSequenceName();
-
-            if(!mConfig.Common.processChromosome(chromosome))
-                continue;
+            if(dictionary.getSequence(chromosome) == null || !mConfig.Common.processChromosome(chromosome))
+                return null;
 
             SG_LOGGER.info("processing chromosome({})", chromosome);
+            return chromosomePartition.partition(chromosome);
+        });
 
-            final List<VariantContext> chromosomeVariants = existingVariants.stream()
-                    .filter(x -> x.getContig().equals(chromosome)).collect(Collectors.toList());
+        int totalVariantCount = 0;
 
-            List<ChrBaseRegion> chrBaseRegions = chromosomePartition.partition(chromosome);
+        for(; variant != null; variant = nextVariant(vcfIterator, inputHeader))
+        {
+            if(!regionVariants.addVariant(variant))
+                System.exit(1);
 
-            List<RegionAppendTask> regionTasks = Lists.newArrayList();
+            if(regionVariants.completedVariantCount() >= mConfig.WindowSize)
+                totalVariantCount += processWindow(regionVariants.takeCompletedRegions(), recalibrationMap, outputVCF);
+        }
 
-            for(int i = 0; i < chrBaseRegions.size(); ++i)
-            {
-                ChrBaseRegion region = chrBaseRegions.get(i);
+        regionVariants.completeRegion();
+        totalVariantCount += processWindow(regionVariants.takeCompletedRegions(), recalibrationMap, outputVCF);
 
-                final List<VariantContext> regionVariants = chromosomeVariants.stream()
-                        .filter(x -> positionWithin(x.getStart(), region.start(), region.end()))
-                        .collect(Collectors.toList());
+        vcfFileReader.close();
 
-                if(regionVariants.isEmpty())
-                    continue;
+        SG_LOGGER.info("appended {} variants", totalVariantCount);
 
-                regionTasks.add(new RegionAppendTask(i, region, regionVariants, mConfig, mRefGenome, recalibrationMap, mFragmentLengths));
-            }
+        outputVCF.close();
+        mFragmentLengths.close();
 
-            final List<Callable> callableList = regionTasks.stream().collect(Collectors.toList());
-            if(!TaskExecutor.executeTasks(callableList, mConfig.Common.Threads))
-            {
-                System.exit(1);
-            }
+        mRefGenome.close();
+
+        SG_LOGGER.info("SageAppend complete, mins({})", runTimeMinsStr(startTimeMs));
+    }
 
-            for(RegionAppendTask regionTask : regionTasks)
+    @Nullable
+    private VariantContext nextVariant(final Iterator<VariantContext> vcfIterator, final VCFHeader inputHeader)
+    {
+        while(vcfIterator.hasNext())
+        {
+            VariantContext variant = vcfIterator.next().fullyDecode(inputHeader, false);
+
+            if(mConfig.FilterToGenes)
             {
-                final List<VariantContext> updatedVariants = regionTask.finalVariants();
-                updatedVariants.forEach(outputVCF::write);
+                VariantImpact variantImpact = VariantImpactSerialiser.fromVariantContext(variant);
+
+                if(variantImpact == null || variantImpact.CanonicalGeneName.isEmpty())
+                    continue;
             }
+
+            if(!mConfig.Common.SpecificPositions.isEmpty() && mConfig.Common.SpecificPositions.stream().noneMatch(x -> x == variant.getStart()))
+                continue;
+
+            return variant;
         }
 
-        outputVCF.close();
-        mFragmentLengths.close();
+        return null;
+    }
 
-        mRefGenome.close();
+    private int processWindow(
+            final List<RegionVariants> windowRegions, final Map<String,BqrRecordMap> recalibrationMap, final VariantVCF outputVCF)
+    {
+        if(windowRegions.isEmpty())
+            return 0;
 
-        SG_LOGGER.info("SageAppend complete, mins({})", runTimeMinsStr(startTimeMs));
+        final List<RegionAppendTask> windowTasks = windowRegions.stream()
+                .map(x -> new RegionAppendTask(
+                        x.RegionIndex, x.Region, x.Variants, mConfig, mRefGenome, recalibrationMap, mFragmentLengths))
+                .collect(Collectors.toList());
+
+        final List<Callable> callableList = windowTasks.stream().collect(Collectors.toList());
+        if(!TaskExecutor.executeTasks(callableList, mConfig.Common.Threads))
+        {
+            System.exit(1);
+        }
+
+        // write in order, with the window's variants then released
+        for(RegionAppendTask regionTask : windowTasks)
+        {
+            final List<VariantContext> updatedVariants = regionTask.finalVariants();
+            updatedVariants.forEach(outputVCF::write);
+        }
+
+        return windowRegions.stream().mapToInt(x -> x.Variants.size()).sum();
     }
 
     private boolean validateInputHeader(VCFHeader header)
@@ -8,9 +8,13 @@ public class SageAppendConfig
     public final SageConfig Common;
     public final String InputVcf;
     public final boolean FilterToGenes;
+    public final int WindowSize;
 
     private static final String INPUT_VCF = "input_vcf";
     private static final String FILTER_TO_GENES = "require_gene";
+    private static final String WINDOW_SIZE = "window_size";
+
+    public static final int DEFAULT_WINDOW_SIZE = 50000;
 
     public SageAppendConfig(final String version, final ConfigBuilder configBuilder)
     {
@@ -18,6 +22,7 @@ public class SageAppendConfig
 
         InputVcf = configBuilder.getValue(INPUT_VCF);
         FilterToGenes = configBuilder.hasFlag(FILTER_TO_GENES);
+        WindowSize = configBuilder.getInteger(WINDOW_SIZE);
     }
 
     public static void registerConfig(final ConfigBuilder configBuilder)
@@ -25,5 +30,6 @@ public class SageAppendConfig
         SageConfig.registerCommonConfig(configBuilder);
         configBuilder.addPath(INPUT_VCF, true, "Path to input vcf");
         configBuilder.addFlag(FILTER_TO_GENES, "Only process variants with gene annotations");
+        configBuilder.addInteger(WINDOW_SIZE, "Max input variants held and processed at once", DEFAULT_WINDOW_SIZE);
     }
 }
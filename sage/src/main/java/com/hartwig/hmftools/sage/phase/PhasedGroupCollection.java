@@ -49,7 +49,8 @@ public class PhasedGroupCollection
 
     public boolean addPhaseVariants(
             int posVarMin, int posVarMax, int nextGroupId,
-            final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters)
+            final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters,
+            final VariantIndexSet posIds, final VariantIndexSet negIds)
     {
         List<PhasedVariantGroup> groups = mGroupsMap.get(posVarMin);
 
@@ -62,7 +63,7 @@ public class PhasedGroupCollection
         for(PhasedVariantGroup group : groups)
         {
             // require an exact match to update
-            if(group.exactMatch(posVarMin, posVarMax, posCounters, negCounters))
+            if(group.exactMatch(posVarMin, posVarMax, posIds, negIds))
             {
                 group.ReadCount++;
                 group.mergeNegatives(negCounters);
@@ -70,7 +71,8 @@ public class PhasedGroupCollection
             }
         }
 
-        PhasedVariantGroup newGroup = new PhasedVariantGroup(nextGroupId, posVarMin, posVarMax, posCounters, negCounters);
+        PhasedVariantGroup newGroup = new PhasedVariantGroup(
+                nextGroupId, posVarMin, posVarMax, posCounters, negCounters, posIds, negIds);
 
         mMinPostion = groups.isEmpty() ? newGroup.variantMin() : min(mMinPostion, newGroup.variantMin());
         mMaxPostion = max(mMaxPostion, newGroup.variantMax());
@@ -22,6 +22,10 @@ public class PhasedVariantGroup
     public final List<ReadContextCounter> PositiveReadCounters; // supported by the reads
     public final List<ReadContextCounter> NegativeReadCounters; // not supported by the reads
 
+    // positive and negative masks over the region's read-counter IDs, kept in step with the lists above
+    private final VariantIndexSet mPositiveIds;
+    private final VariantIndexSet mNegativeIds;
+
     public int ReadCount; // from uniquely supporting reads
     public double AllocatedReadCount; // allocated from subset groups
 
@@ -36,10 +40,21 @@ public class PhasedVariantGroup
     public PhasedVariantGroup(
             final int id, final int minVariantPos, final int maxVariantPos,
             final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters)
+    {
+        this(id, minVariantPos, maxVariantPos, posCounters, negCounters,
+                VariantIndexSet.fromCounters(posCounters), VariantIndexSet.fromCounters(negCounters));
+    }
+
+    public PhasedVariantGroup(
+            final int id, final int minVariantPos, final int maxVariantPos,
+            final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters,
+            final VariantIndexSet posIds, final VariantIndexSet negIds)
     {
         Id = id;
         PositiveReadCounters = posCounters;
         NegativeReadCounters = negCounters;
+        mPositiveIds = posIds;
+        mNegativeIds = negIds;
 
         mPosVariantMin = minVariantPos;
         mPosVariantMax = maxVariantPos;
@@ -88,6 +103,8 @@ public class PhasedVariantGroup
 
         invalidPosCounters.forEach(x -> PositiveReadCounters.remove(x));
         invalidNegCounters.forEach(x -> NegativeReadCounters.remove(x));
+        invalidPosCounters.forEach(x -> mPositiveIds.remove(x.id()));
+        invalidNegCounters.forEach(x -> mNegativeIds.remove(x.id()));
 
         mPosVariantMin = minPosition(PositiveReadCounters, true);
         mPosVariantMax = maxPosition(PositiveReadCounters, true);
@@ -106,44 +123,22 @@ public class PhasedVariantGroup
 
     public boolean isValid() { return !PositiveReadCounters.isEmpty() && PositiveReadCounters.size() + NegativeReadCounters.size() >= 2; }
 
-    public boolean exactMatch(
-            final int minVariantPos, final int maxVariantPos,
-            final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters)
+    public boolean exactMatch(final int minVariantPos, final int maxVariantPos, final VariantIndexSet posIds, final VariantIndexSet negIds)
     {
         // both positives and negatives need to match exactly
         if(minVariantPos != mPosVariantMin || maxVariantPos != mPosVariantMax)
             return false;
 
-        if(PositiveReadCounters.size() != posCounters.size() || NegativeReadCounters.size() != negCounters.size())
-            return false;
-
-        if(PositiveReadCounters.stream().anyMatch(x -> !posCounters.contains(x)))
-            return false;
-
-        if(NegativeReadCounters.stream().anyMatch(x -> !negCounters.contains(x)))
-            return false;
-
-        return true;
+        return mPositiveIds.equals(posIds) && mNegativeIds.equals(negIds);
     }
 
     public boolean positivesMatch(final PhasedVariantGroup other)
-    {
-        return positivesMatch(other.posVariantMin(), other.posVariantMax(), other.PositiveReadCounters);
-    }
-
-    public boolean positivesMatch(final int minVariantPos, final int maxVariantPos, final List<ReadContextCounter> posCounters)
     {
         // positives need to match exactly, negatives don't
-        if(minVariantPos != mPosVariantMin || maxVariantPos != mPosVariantMax)
-            return false;
-
-        if(PositiveReadCounters.size() != posCounters.size())
-            return false;
-
-        if(PositiveReadCounters.stream().anyMatch(x -> !posCounters.contains(x)))
+        if(other.posVariantMin() != mPosVariantMin || other.posVariantMax() != mPosVariantMax)
             return false;
 
-        return true;
+        return mPositiveIds.equals(other.mPositiveIds);
     }
 
     public boolean isSubsetOf(final PhasedVariantGroup other)
@@ -152,39 +147,35 @@ public class PhasedVariantGroup
         if(other.PositiveReadCounters.size() < PositiveReadCounters.size())
             return false;
 
-        if(!PositiveReadCounters.stream().allMatch(x -> other.PositiveReadCounters.contains(x)))
-            return false;
-
-        if(hasAnyOverlap(other.PositiveReadCounters, NegativeReadCounters) || hasAnyOverlap(PositiveReadCounters, other.NegativeReadCounters))
+        if(!mPositiveIds.isSubsetOf(other.mPositiveIds))
             return false;
 
-        return true;
+        return !hasContradictions(other);
     }
 
     public boolean populateCommon(final PhasedVariantGroup other, final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters)
     {
         // cannot have contradictory negatives
-        if(hasAnyOverlap(other.PositiveReadCounters, NegativeReadCounters) || hasAnyOverlap(PositiveReadCounters, other.NegativeReadCounters))
+        if(hasContradictions(other))
             return false;
 
-        PositiveReadCounters.stream().filter(x -> other.PositiveReadCounters.contains(x)).forEach(x -> posCounters.add(x));
-        NegativeReadCounters.stream().filter(x -> other.NegativeReadCounters.contains(x)).forEach(x -> negCounters.add(x));
+        PositiveReadCounters.stream().filter(x -> other.mPositiveIds.contains(x.id())).forEach(x -> posCounters.add(x));
+        NegativeReadCounters.stream().filter(x -> other.mNegativeIds.contains(x.id())).forEach(x -> negCounters.add(x));
         return !posCounters.isEmpty();
     }
 
-    public boolean hasCommonSubset(
-            final PhasedVariantGroup other, final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters)
+    public boolean hasCommonSubset(final PhasedVariantGroup other, final VariantIndexSet posIds, final VariantIndexSet negIds)
     {
-        if(hasAnyOverlap(other.PositiveReadCounters, NegativeReadCounters) || hasAnyOverlap(PositiveReadCounters, other.NegativeReadCounters))
+        if(hasContradictions(other))
             return false;
 
-        return posCounters.stream().allMatch(x -> PositiveReadCounters.contains(x))
-                && negCounters.stream().allMatch(x -> NegativeReadCounters.contains(x));
+        return posIds.isSubsetOf(mPositiveIds) && negIds.isSubsetOf(mNegativeIds);
     }
 
-    private static boolean hasAnyOverlap(final List<ReadContextCounter> counters1, final List<ReadContextCounter> counters2)
+    private boolean hasContradictions(final PhasedVariantGroup other)
     {
-        return counters1.stream().anyMatch(x -> counters2.contains(x)) || counters2.stream().anyMatch(x -> counters1.contains(x));
+        // a variant is positive in one group and negative in the other
+        return other.mPositiveIds.intersects(mNegativeIds) || mPositiveIds.intersects(other.mNegativeIds);
     }
 
     public void merge(final PhasedVariantGroup other)
@@ -209,17 +200,14 @@ public class PhasedVariantGroup
         // keep merged positive RCs in positional order
         for(ReadContextCounter readCounter : other.PositiveReadCounters)
         {
-            boolean matched = false;
+            if(mPositiveIds.contains(readCounter.id()))
+                continue;
+
             int index = 0;
 
             while(index < PositiveReadCounters.size())
             {
                 ReadContextCounter counter = PositiveReadCounters.get(index);
-                if(counter == readCounter)
-                {
-                    matched = true;
-                    break;
-                }
 
                 if(counter.position() <= readCounter.position())
                 {
@@ -232,8 +220,8 @@ public class PhasedVariantGroup
                 }
             }
 
-            if(!matched)
-                PositiveReadCounters.add(index, readCounter);
+            PositiveReadCounters.add(index, readCounter);
+            mPositiveIds.add(readCounter.id());
         }
 
         mPosVariantMin = minPosition(PositiveReadCounters, true);
@@ -246,7 +234,14 @@ public class PhasedVariantGroup
 
     public void mergeNegatives(final List<ReadContextCounter> negCounters)
     {
-        negCounters.stream().filter(x -> !NegativeReadCounters.contains(x)).forEach(x -> NegativeReadCounters.add(x));
+        for(ReadContextCounter readCounter : negCounters)
+        {
+            if(mNegativeIds.contains(readCounter.id()))
+                continue;
+
+            NegativeReadCounters.add(readCounter);
+            mNegativeIds.add(readCounter.id());
+        }
 
         if(!NegativeReadCounters.isEmpty())
         {
@@ -0,0 +1,204 @@
+package com.hartwig.hmftools.sage.phase;
+
+import java.util.List;
+
+import com.hartwig.hmftools.sage.evidence.ReadContextCounter;
+
+public class VariantIndexSet
+{
+    // a bitset over the variant indices of a region, being read-counter IDs during phasing, so that membership, equality
+    // and subset tests between phased groups are word operations rather than list scans
+    // the words only cover the span of indices added, since phased variants are local to a read's position
+    private long[] mWords;
+    private int mWordOffset;
+    private int mHash;
+
+    private static final int NO_HASH = 0;
+    private static final long[] NO_WORDS = new long[0];
+
+    public VariantIndexSet()
+    {
+        mWords = NO_WORDS;
+        mWordOffset = 0;
+        mHash = NO_HASH;
+    }
+
+    public static VariantIndexSet fromCounters(final List<ReadContextCounter> readCounters)
+    {
+        VariantIndexSet indexSet = new VariantIndexSet();
+
+        if(!readCounters.isEmpty())
+        {
+            // read counters are ordered by position, and so by ID, so the words can usually be sized once up front
+            int firstWord = readCounters.get(0).id() >> 6;
+            int lastWord = readCounters.get(readCounters.size() - 1).id() >> 6;
+            indexSet.ensureRange(Math.min(firstWord, lastWord), Math.max(firstWord, lastWord));
+        }
+
+        readCounters.forEach(x -> indexSet.add(x.id()));
+        return indexSet;
+    }
+
+    public void add(int index)
+    {
+        int wordIndex = index >> 6;
+        ensureRange(wordIndex, wordIndex);
+        mWords[wordIndex - mWordOffset] |= 1L << index;
+        mHash = NO_HASH;
+    }
+
+    public void remove(int index)
+    {
+        int wordIndex = index >> 6;
+
+        if(wordIndex >= mWordOffset && wordIndex < mWordOffset + mWords.length)
+        {
+            mWords[wordIndex - mWordOffset] &= ~(1L << index);
+            mHash = NO_HASH;
+        }
+    }
+
+    public boolean contains(int index)
+    {
+        return (word(index >> 6) & (1L << index)) != 0;
+    }
+
+    public boolean isEmpty()
+    {
+        for(long word : mWords)
+        {
+            if(word != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    public int size()
+    {
+        int count = 0;
+
+        for(long word : mWords)
+        {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    public boolean isSubsetOf(final VariantIndexSet other)
+    {
+        for(int i = 0; i < mWords.length; ++i)
+        {
+            if((mWords[i] & ~other.word(i + mWordOffset)) != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    public boolean intersects(final VariantIndexSet other)
+    {
+        int startWord = Math.max(mWordOffset, other.mWordOffset);
+        int endWord = Math.min(mWordOffset + mWords.length, other.mWordOffset + other.mWords.length);
+
+        for(int i = startWord; i < endWord; ++i)
+        {
+            if((mWords[i - mWordOffset] & other.mWords[i - other.mWordOffset]) != 0)
+                return true;
+        }
+
+        return false;
+    }
+
+    private long word(int wordIndex)
+    {
+        int localIndex = wordIndex - mWordOffset;
+        return localIndex >= 0 && localIndex < mWords.length ? mWords[localIndex] : 0;
+    }
+
+    private void ensureRange(int startWord, int endWord)
+    {
+        if(mWords.length == 0)
+        {
+            mWords = new long[endWord - startWord + 1];
+            mWordOffset = startWord;
+            return;
+        }
+
+        int currentEnd = mWordOffset + mWords.length - 1;
+
+        if(startWord >= mWordOffset && endWord <= currentEnd)
+            return;
+
+        int newStart = Math.min(startWord, mWordOffset);
+        int newEnd = Math.max(endWord, currentEnd);
+
+        long[] newWords = new long[newEnd - newStart + 1];
+        System.arraycopy(mWords, 0, newWords, mWordOffset - newStart, mWords.length);
+        mWords = newWords;
+        mWordOffset = newStart;
+    }
+
+    @Override
+    public boolean equals(final Object object)
+    {
+        if(this == object)
+            return true;
+
+        if(!(object instanceof VariantIndexSet))
+            return false;
+
+        VariantIndexSet other = (VariantIndexSet)object;
+
+        // the cached hashes reject most unequal sets without comparing words
+        if(hashCode() != other.hashCode())
+            return false;
+
+        return isSubsetOf(other) && other.isSubsetOf(this);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        if(mHash != NO_HASH)
+            return mHash;
+
+        // only set words contribute, so equal sets hash the same regardless of the span of their words
+        long hash = 1234;
+
+        for(int i = 0; i < mWords.length; ++i)
+        {
+            if(mWords[i] != 0)
+                hash ^= mWords[i] * (i + mWordOffset + 1);
+        }
+
+        mHash = (int)((hash >> 32) ^ hash);
+
+        if(mHash == NO_HASH)
+            mHash = 1;
+
+        return mHash;
+    }
+
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("{");
+
+        for(int i = 0; i < mWords.length; ++i)
+        {
+            for(int bit = 0; bit < 64; ++bit)
+            {
+                if((mWords[i] & (1L << bit)) == 0)
+                    continue;
+
+                if(sb.length() > 1)
+                    sb.append(",");
+
+                sb.append((i + mWordOffset) * 64 + bit);
+            }
+        }
+
+        return sb.append("}").toString();
+    }
+}
@@ -9,6 +9,8 @@ import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 import static com.hartwig.hmftools.sage.phase.PhasedVariantGroup.maxPosition;
 import static com.hartwig.hmftools.sage.phase.PhasedVariantGroup.minPosition;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -90,6 +92,9 @@ public class VariantPhaser
         int variantMin = !negCounters.isEmpty() ? min(posVarMin, minPosition(negCounters, true)) : posVarMin;
         int variantMax = !negCounters.isEmpty() ? max(posVarMax, maxPosition(negCounters, true)) : posVarMax;
 
+        VariantIndexSet posIds = VariantIndexSet.fromCounters(posCounters);
+        VariantIndexSet negIds = VariantIndexSet.fromCounters(negCounters);
+
         // assign collections of variants to non-overlapping collections for subsequent comparison efficiency
         int index = 0;
         while(index < mPhasedGroupCollections.size())
@@ -97,7 +102,7 @@ public class VariantPhaser
             PhasedGroupCollection collection = mPhasedGroupCollections.get(index);
             if(collection.positionsOverlap(variantMin, variantMax))
             {
-                if(collection.addPhaseVariants(posVarMin, posVarMax, mNextGroupId, posCounters, negCounters))
+                if(collection.addPhaseVariants(posVarMin, posVarMax, mNextGroupId, posCounters, negCounters, posIds, negIds))
                 {
                     ++mNextGroupId;
 
@@ -124,7 +129,7 @@ public class VariantPhaser
         }
 
         PhasedGroupCollection collection = new PhasedGroupCollection(mPhasedGroupCollections.size());
-        collection.addPhaseVariants(posVarMin, posVarMax, mNextGroupId, posCounters, negCounters);
+        collection.addPhaseVariants(posVarMin, posVarMax, mNextGroupId, posCounters, negCounters, posIds, negIds);
         ++mNextGroupId;
         mPhasedGroupCollections.add(collection);
     }
@@ -272,17 +277,25 @@ public class VariantPhaser
         if(filteredGroups.size() < 2)
             return;
 
+        // positives are unchanged by these merges, so supersets are found from an index of the groups containing each positive,
+        // searching only later groups as per their original order
+        Map<PhasedVariantGroup,Integer> groupOrder = buildGroupOrder(filteredGroups);
+        Map<Integer,List<PhasedVariantGroup>> positiveGroupsMap = buildPositiveGroupsMap(filteredGroups);
+        Set<PhasedVariantGroup> removedGroups = Sets.newHashSet();
+
         int i = 0;
         while(i < filteredGroups.size())
         {
             PhasedVariantGroup group = filteredGroups.get(i);
+            int groupOrderIndex = groupOrder.get(group);
 
             // find groups which have matching +ves and aren't subsets of any other group
             List<PhasedVariantGroup> superGroups = Lists.newArrayList();
 
-            for(int j = i + 1; j < filteredGroups.size(); ++j)
+            for(PhasedVariantGroup otherGroup : leastCommonPositiveGroups(group, positiveGroupsMap))
             {
-                PhasedVariantGroup otherGroup = filteredGroups.get(j);
+                if(groupOrder.get(otherGroup) <= groupOrderIndex || removedGroups.contains(otherGroup))
+                    continue;
 
                 if(group.positionsOverlap(otherGroup) && group.isSubsetOf(otherGroup))
                     superGroups.add(otherGroup);
@@ -293,7 +306,8 @@ public class VariantPhaser
                 if(group.PositiveReadCounters.size() == 1)
                 {
                     // remove any group with a single variant not present as a +ve in another group
-                    filteredGroups.remove(group);
+                    filteredGroups.remove(i);
+                    removedGroups.add(group);
                     continue;
                 }
             }
@@ -307,7 +321,7 @@ public class VariantPhaser
                         group.merge(superGroup);
                     }
 
-                    filteredGroups.removeAll(superGroups);
+                    removeGroups(filteredGroups, superGroups, removedGroups);
                 }
             }
 
@@ -315,6 +329,60 @@ public class VariantPhaser
         }
     }
 
+    private static Map<PhasedVariantGroup,Integer> buildGroupOrder(final List<PhasedVariantGroup> groups)
+    {
+        Map<PhasedVariantGroup,Integer> groupOrder = Maps.newHashMapWithExpectedSize(groups.size());
+
+        for(int i = 0; i < groups.size(); ++i)
+        {
+            groupOrder.put(groups.get(i), i);
+        }
+
+        return groupOrder;
+    }
+
+    private static Map<Integer,List<PhasedVariantGroup>> buildPositiveGroupsMap(final List<PhasedVariantGroup> groups)
+    {
+        // groups are added in their list order
+        Map<Integer,List<PhasedVariantGroup>> positiveGroupsMap = Maps.newHashMap();
+
+        for(PhasedVariantGroup group : groups)
+        {
+            for(ReadContextCounter readCounter : group.PositiveReadCounters)
+            {
+                positiveGroupsMap.computeIfAbsent(readCounter.id(), k -> Lists.newArrayList()).add(group);
+            }
+        }
+
+        return positiveGroupsMap;
+    }
+
+    private static List<PhasedVariantGroup> leastCommonPositiveGroups(
+            final PhasedVariantGroup group, final Map<Integer,List<PhasedVariantGroup>> positiveGroupsMap)
+    {
+        // any superset of a group's positives contains its least common positive
+        List<PhasedVariantGroup> minGroups = null;
+
+        for(ReadContextCounter readCounter : group.PositiveReadCounters)
+        {
+            List<PhasedVariantGroup> groups = positiveGroupsMap.get(readCounter.id());
+
+            if(minGroups == null || groups.size() < minGroups.size())
+                minGroups = groups;
+        }
+
+        return minGroups != null ? minGroups : Collections.emptyList();
+    }
+
+    private static void removeGroups(
+            final List<PhasedVariantGroup> filteredGroups, final List<PhasedVariantGroup> groups, final Set<PhasedVariantGroup> removedGroups)
+    {
+        removedGroups.addAll(groups);
+
+        Set<PhasedVariantGroup> groupsSet = Sets.newHashSet(groups);
+        filteredGroups.removeIf(x -> groupsSet.contains(x));
+    }
+
     public static void mergeByExtension(final List<PhasedVariantGroup> filteredGroups)
     {
         if(filteredGroups.size() < 2)
@@ -323,6 +391,8 @@ public class VariantPhaser
         // merge any group with a common subset of +ves and -ves if it can only be extended in one direction
         List<ReadContextCounter> commonPosCounters = Lists.newArrayList();
         List<ReadContextCounter> commonNegCounters = Lists.newArrayList();
+        VariantIndexSet commonPosIds = null;
+        VariantIndexSet commonNegIds = null;
         Set<PhasedVariantGroup> modifiedGroups = Sets.newHashSet();
         Set<PhasedVariantGroup> lastModifiedGroups = Sets.newHashSet();
         boolean initialLoop = true;
@@ -360,10 +430,11 @@ public class VariantPhaser
                         if(!group.populateCommon(otherPhasedGroup, commonPosCounters, commonNegCounters))
                             continue;
 
+                        commonPosIds = VariantIndexSet.fromCounters(commonPosCounters);
+                        commonNegIds = VariantIndexSet.fromCounters(commonNegCounters);
                         candidateGroups.add(otherPhasedGroup);
                     }
-                    //else if(otherPhasedGroup.hasCommonSubset(group, commonPosCounters, commonNegCounters))
-                    else if(candidateGroups.stream().allMatch(x -> otherPhasedGroup.hasCommonSubset(x, commonPosCounters, commonNegCounters)))
+                    else if(hasCommonSubset(otherPhasedGroup, candidateGroups, commonPosIds, commonNegIds))
                     {
                         candidateGroups.add(otherPhasedGroup);
                     }
@@ -411,9 +482,31 @@ public class VariantPhaser
         }
     }
 
+    private static boolean hasCommonSubset(
+            final PhasedVariantGroup group, final List<PhasedVariantGroup> candidateGroups,
+            final VariantIndexSet commonPosIds, final VariantIndexSet commonNegIds)
+    {
+        for(PhasedVariantGroup candidateGroup : candidateGroups)
+        {
+            if(!group.hasCommonSubset(candidateGroup, commonPosIds, commonNegIds))
+                return false;
+        }
+
+        return true;
+    }
+
     public static void mergeUninformative(final List<PhasedVariantGroup> filteredGroups)
     {
         // finally merge any groups with the same +ves or are non-conflicting subsets of others now that supersets have been considered
+        if(filteredGroups.isEmpty())
+            return;
+
+        // positives are unchanged by these merges, and any group matching or a subset of another shares one of its positives
+        Map<PhasedVariantGroup,Integer> groupOrder = buildGroupOrder(filteredGroups);
+        Map<Integer,List<PhasedVariantGroup>> positiveGroupsMap = buildPositiveGroupsMap(filteredGroups);
+        Set<PhasedVariantGroup> removedGroups = Sets.newHashSet();
+        Set<PhasedVariantGroup> candidateGroups = Sets.newHashSet();
+
         int index = 0;
         while(index < filteredGroups.size())
         {
@@ -426,15 +519,24 @@ public class VariantPhaser
                 if(filteredGroups.stream().filter(x -> x != group).noneMatch(x -> group.PositiveReadCounters.contains(readCounter)))
                 {
                     // remove any group with a single variant not present as a +ve in another group
-                    filteredGroups.remove(group);
+                    filteredGroups.remove(index);
+                    removedGroups.add(group);
                     continue;
                 }
             }
 
             // find groups which have matching +ves and aren't subsets of any other group
-            List<PhasedVariantGroup> matchingGroups = filteredGroups.stream()
-                    .filter(x -> x != group)
+            candidateGroups.clear();
+
+            for(ReadContextCounter readCounter : group.PositiveReadCounters)
+            {
+                candidateGroups.addAll(positiveGroupsMap.get(readCounter.id()));
+            }
+
+            List<PhasedVariantGroup> matchingGroups = candidateGroups.stream()
+                    .filter(x -> x != group && !removedGroups.contains(x))
                     .filter(x -> group.positivesMatch(x) || x.isSubsetOf(group))
+                    .sorted(Comparator.comparingInt(x -> groupOrder.get(x)))
                     .collect(Collectors.toList());
 
             if(!matchingGroups.isEmpty())
@@ -445,7 +547,7 @@ public class VariantPhaser
                     group.merge(otherGroup);
                 }
 
-                filteredGroups.removeAll(matchingGroups);
+                removeGroups(filteredGroups, matchingGroups, removedGroups);
             }
 
             ++index;
@@ -457,19 +559,45 @@ public class VariantPhaser
         // remove any uninformative local phasings sets where they all have the same passing variants
         Map<Integer,List<SageVariant>> lpsVariantsMap = Maps.newHashMap();
         Map<Integer,List<SageVariant>> lpsPassingVariantsMap = Maps.newHashMap();
-        Map<Integer,Integer> lpsMaxReadCountMap = Maps.newHashMap();
 
-        List<Integer> uninformativeLpsIds = Lists.newArrayList();
-        List<Integer> processedLpsIds = Lists.newArrayList();
+        // passing variants of each LPS as a set of their indices in the variant list, for set comparisons between LPS
+        Map<Integer,VariantIndexSet> lpsPassingIndicesMap = Maps.newHashMap();
+
+        Set<Integer> uninformativeLpsIds = Sets.newHashSet();
+        Set<Integer> processedLpsIds = Sets.newHashSet();
         Set<Integer> singlePassingVarGroups = Sets.newHashSet();
 
-        // first put all variants into LPS datasets
+        // first put all variants into LPS datasets, in a single pass over the variants
         for(Integer lpsId : passingPhaseSets)
         {
-            List<SageVariant> lpsVariants = variants.stream().filter(x -> x.hasMatchingLps(lpsId)).collect(Collectors.toList());
-            List<SageVariant> passingVariants = lpsVariants.stream().filter(x -> x.isPassing()).collect(Collectors.toList());
+            lpsVariantsMap.put(lpsId, Lists.newArrayList());
+        }
+
+        for(int i = 0; i < variants.size(); ++i)
+        {
+            SageVariant variant = variants.get(i);
 
-            lpsVariantsMap.put(lpsId, lpsVariants);
+            if(!variant.hasLocalPhaseSets())
+                continue;
+
+            for(Integer lpsId : variant.localPhaseSets())
+            {
+                List<SageVariant> lpsVariants = lpsVariantsMap.get(lpsId);
+
+                if(lpsVariants == null || (!lpsVariants.isEmpty() && lpsVariants.get(lpsVariants.size() - 1) == variant))
+                    continue;
+
+                lpsVariants.add(variant);
+
+                if(variant.isPassing())
+                    lpsPassingIndicesMap.computeIfAbsent(lpsId, k -> new VariantIndexSet()).add(i);
+            }
+        }
+
+        for(Integer lpsId : passingPhaseSets)
+        {
+            List<SageVariant> lpsVariants = lpsVariantsMap.get(lpsId);
+            List<SageVariant> passingVariants = lpsVariants.stream().filter(x -> x.isPassing()).collect(Collectors.toList());
 
             if(passingVariants.isEmpty())
             {
@@ -482,7 +610,6 @@ public class VariantPhaser
                 singlePassingVarGroups.add(lpsId);
 
             lpsPassingVariantsMap.put(lpsId, passingVariants);
-            lpsMaxReadCountMap.put(lpsId, lpsVariants.get(0).getLpsReadCount(lpsId));
         }
 
         for(Map.Entry<Integer,List<SageVariant>> entry : lpsVariantsMap.entrySet())
@@ -495,6 +622,7 @@ public class VariantPhaser
             processedLpsIds.add(lpsId);
 
             List<SageVariant> passingVariants = lpsPassingVariantsMap.get(lpsId);
+            VariantIndexSet passingIndices = lpsPassingIndicesMap.get(lpsId);
             int maxReadCount = passingVariants.get(0).getLpsReadCount(lpsId);
 
             // look for matching passing variants
@@ -509,14 +637,11 @@ public class VariantPhaser
                 if(otherLpsId == lpsId || processedLpsIds.contains(otherLpsId))
                     continue;
 
-                // List<SageVariant> otherLpsVariants = entry.getValue();
-                List<SageVariant> otherPassingVariants = lpsPassingVariantsMap.get(otherLpsId);
-
-                if(otherPassingVariants.size() == passingVariants.size() && otherPassingVariants.stream().allMatch(x -> passingVariants.contains(x)))
+                if(lpsPassingIndicesMap.get(otherLpsId).equals(passingIndices))
                 {
                     processedLpsIds.add(otherLpsId);
 
-                    int otherReadCount = otherPassingVariants.get(0).getLpsReadCount(otherLpsId);
+                    int otherReadCount = lpsPassingVariantsMap.get(otherLpsId).get(0).getLpsReadCount(otherLpsId);
                     matchedVariantsLpsIds.add(otherLpsId);
 
                     if(otherReadCount > maxReadCount)
@@ -546,6 +671,7 @@ public class VariantPhaser
                 continue;
 
             List<SageVariant> passingVariants = lpsPassingVariantsMap.get(lpsId);
+            VariantIndexSet passingIndices = lpsPassingIndicesMap.get(lpsId);
 
             int readCount = passingVariants.get(0).getLpsReadCount(lpsId);
 
@@ -559,7 +685,7 @@ public class VariantPhaser
 
                 List<SageVariant> otherPassingVariants = lpsPassingVariantsMap.get(otherLpsId);
 
-                if(otherPassingVariants.size() > passingVariants.size() && passingVariants.stream().allMatch(x -> otherPassingVariants.contains(x)))
+                if(otherPassingVariants.size() > passingVariants.size() && passingIndices.isSubsetOf(lpsPassingIndicesMap.get(otherLpsId)))
                 {
                     // is a subset
                     int otherReadCount = otherPassingVariants.get(0).getLpsReadCount(otherLpsId);
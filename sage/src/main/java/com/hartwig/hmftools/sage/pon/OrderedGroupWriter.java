@@ -0,0 +1,85 @@
+package com.hartwig.hmftools.sage.pon;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Lists;
+
+public class OrderedGroupWriter<T>
+{
+    // entries from groups run concurrently are passed to a single writer in group order, through a bounded queue per group,
+    // so a group ahead of the one being written blocks once its queue is full rather than holding all its entries in memory
+    private final ExecutorService mExecutorService;
+    private final int mGroupQueueSize;
+
+    private final List<BlockingQueue<Object>> mGroupQueues;
+    private final List<Future<?>> mGroupFutures;
+
+    private static final Object END_OF_GROUP = new Object();
+
+    public OrderedGroupWriter(final ExecutorService executorService, int groupQueueSize)
+    {
+        mExecutorService = executorService;
+        mGroupQueueSize = groupQueueSize;
+        mGroupQueues = Lists.newArrayList();
+        mGroupFutures = Lists.newArrayList();
+    }
+
+    public void addGroup(final Consumer<Consumer<T>> groupTask)
+    {
+        // the task is given a consumer for its entries, and the group is complete when the task returns
+        final BlockingQueue<Object> groupQueue = new ArrayBlockingQueue<>(mGroupQueueSize);
+        mGroupQueues.add(groupQueue);
+
+        mGroupFutures.add(mExecutorService.submit(() ->
+        {
+            try
+            {
+                groupTask.accept(entry -> enqueue(groupQueue, entry));
+            }
+            finally
+            {
+                enqueue(groupQueue, END_OF_GROUP);
+            }
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void writeGroups(final Consumer<T> writer) throws ExecutionException, InterruptedException
+    {
+        // groups are started in order, so the group being written has always been started and its writing never waits on another
+        for(int i = 0; i < mGroupQueues.size(); ++i)
+        {
+            BlockingQueue<Object> groupQueue = mGroupQueues.get(i);
+            Object entry;
+
+            while((entry = groupQueue.take()) != END_OF_GROUP)
+            {
+                writer.accept((T)entry);
+            }
+
+            mGroupFutures.get(i).get(); // report any error from the group's task
+        }
+
+        mGroupQueues.clear();
+        mGroupFutures.clear();
+    }
+
+    private static void enqueue(final BlockingQueue<Object> groupQueue, final Object entry)
+    {
+        try
+        {
+            groupQueue.put(entry);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing PON entries", e);
+        }
+    }
+}
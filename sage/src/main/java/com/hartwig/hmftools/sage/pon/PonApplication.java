@@ -14,14 +14,12 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.utils.config.ConfigBuilder;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
-import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFFileReader;
 
@@ -31,6 +29,9 @@ public class PonApplication implements AutoCloseable
     private static final String OUT_VCF = "out";
     private static final String GLOB = "*.sage.somatic.vcf.gz";
 
+    // PON entries each contig group can hold ahead of the writer
+    private static final int GROUP_QUEUE_SIZE = 50000;
+
     public static void main(String[] args) throws IOException, ExecutionException, InterruptedException
     {
         ConfigBuilder configBuilder = new ConfigBuilder();
@@ -65,7 +66,7 @@ public class PonApplication implements AutoCloseable
     }
 
     private final PonVCF vcf;
-    private final String input;
+    private final int threads;
     private final List<File> files;
     private final ExecutorService executorService;
 
@@ -74,8 +75,8 @@ public class PonApplication implements AutoCloseable
         SG_LOGGER.info("Input: {}", input);
         SG_LOGGER.info("Output: {}", output);
 
+        this.threads = threads;
         executorService = Executors.newFixedThreadPool(threads);
-        this.input = input;
 
         files = Lists.newArrayList();
         for(Path path : Files.newDirectoryStream(new File(input).toPath(), GLOB))
@@ -86,58 +87,78 @@ public class PonApplication implements AutoCloseable
         this.vcf = new PonVCF(output, files.size());
     }
 
-    private void run() throws IOException, ExecutionException, InterruptedException
+    private void run() throws ExecutionException, InterruptedException
     {
         if(files.isEmpty())
         {
             return;
         }
 
-        final VCFFileReader dictionaryReader = new VCFFileReader(files.get(0), true);
+        final VCFFileReader dictionaryReader = new VCFFileReader(files.get(0), false);
         SAMSequenceDictionary dictionary = dictionaryReader.getFileHeader().getSequenceDictionary();
         dictionaryReader.close();
 
-        for(SAMSequenceRecord samSequenceRecord : dictionary.getSequences())
+        SG_LOGGER.info("merging {} sample VCFs", files.size());
+
+        if(threads <= 1)
         {
-            SG_LOGGER.info("Processing sequence {}", samSequenceRecord.getSequenceName());
-            final PonBuilder ponBuilder = new PonBuilder();
-            final RunnableTaskCompletion runnableTaskCompletion = new RunnableTaskCompletion();
+            // a single streaming pass over each file, writing entries as each position is completed
+            SampleVcfMerger merger = new SampleVcfMerger(files, dictionary, dictionary.getSequences());
+            merger.merge(vcf::write);
 
-            List<Future<?>> contigFutures = Lists.newArrayList();
+            SG_LOGGER.info("merged {} sample records into {} PON entries", merger.recordCount(), merger.entryCount());
+            return;
+        }
 
-            for(Path file : Files.newDirectoryStream(new File(input).toPath(), GLOB))
-            {
-                Runnable runnable = () -> addVariantsFromFileToBuilder(ponBuilder, samSequenceRecord, file);
-                contigFutures.add(executorService.submit(runnableTaskCompletion.task(runnable)));
-            }
+        // otherwise each thread merges a group of contigs, with each file opened once per group, and the groups' entries
+        // are written in contig order, with each group only buffering a bounded number of entries ahead of the writer
+        List<List<SAMSequenceRecord>> contigGroups = formContigGroups(dictionary, threads);
+        final RunnableTaskCompletion runnableTaskCompletion = new RunnableTaskCompletion();
 
-            for(Future<?> contigFuture : contigFutures)
-            {
-                contigFuture.get();
-            }
+        OrderedGroupWriter<VariantContext> groupWriter = new OrderedGroupWriter<>(executorService, GROUP_QUEUE_SIZE);
 
-            vcf.write(ponBuilder.build());
+        for(List<SAMSequenceRecord> contigGroup : contigGroups)
+        {
+            SampleVcfMerger merger = new SampleVcfMerger(files, dictionary, contigGroup);
+            groupWriter.addGroup(entryConsumer -> runnableTaskCompletion.task(() -> merger.merge(entryConsumer)).run());
         }
+
+        groupWriter.writeGroups(vcf::write);
     }
 
-    private void addVariantsFromFileToBuilder(final PonBuilder ponBuilder, final SAMSequenceRecord samSequenceRecord, final Path file)
+    static List<List<SAMSequenceRecord>> formContigGroups(final SAMSequenceDictionary dictionary, int groupCount)
     {
-        try(VCFFileReader fileReader = new VCFFileReader(file.toFile(), true))
+        // split the contigs in order into groups of similar total length
+        long totalLength = dictionary.getReferenceLength();
+        long targetLength = totalLength / groupCount + 1;
+
+        List<List<SAMSequenceRecord>> contigGroups = Lists.newArrayList();
+        List<SAMSequenceRecord> currentGroup = Lists.newArrayList();
+        long currentLength = 0;
+
+        for(SAMSequenceRecord contig : dictionary.getSequences())
         {
-            CloseableIterator<VariantContext> iter =
-                    fileReader.query(samSequenceRecord.getSequenceName(), 1, samSequenceRecord.getSequenceLength());
-            while(iter.hasNext())
+            if(!currentGroup.isEmpty() && currentLength + contig.getSequenceLength() / 2 > targetLength)
             {
-                ponBuilder.add(iter.next());
+                contigGroups.add(currentGroup);
+                currentGroup = Lists.newArrayList();
+                currentLength = 0;
             }
-            iter.close();
+
+            currentGroup.add(contig);
+            currentLength += contig.getSequenceLength();
         }
+
+        if(!currentGroup.isEmpty())
+            contigGroups.add(currentGroup);
+
+        return contigGroups;
     }
 
     @Override
     public void close()
     {
-        executorService.shutdown();
+        executorService.shutdownNow(); // releases any groups still blocked if writing failed
         vcf.close();
         SG_LOGGER.info("PON complete");
     }
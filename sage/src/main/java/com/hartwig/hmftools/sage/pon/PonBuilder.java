@@ -3,10 +3,10 @@ package com.hartwig.hmftools.sage.pon;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.variant.hotspot.ImmutableVariantHotspotImpl;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.sage.vcf.VariantVCF;
@@ -23,7 +23,12 @@ public class PonBuilder
     private static final int MIN_OUTPUT_COUNT = 2;
     private static final int MIN_INPUT_ALLELIC_DEPTH = 3;
 
-    private final Map<VariantHotspot, Counter> mMap = new java.util.concurrent.ConcurrentHashMap<>();
+    // accumulates the sample records at a single position, since the sample VCFs are merged in position order
+    private final Map<VariantHotspot, Counter> mMap = Maps.newHashMap();
+
+    private static final Comparator<Counter> COUNTER_ORDER = Comparator.comparing((Counter x) -> x.hotspot)
+            .thenComparing(x -> x.hotspot.ref())
+            .thenComparing(x -> x.hotspot.alt());
 
     public void add(@NotNull final VariantContext context)
     {
@@ -41,17 +46,21 @@ public class PonBuilder
         }
     }
 
+    public boolean isEmpty() { return mMap.isEmpty(); }
+
     @NotNull
     public List<VariantContext> build()
     {
         return mMap.values()
                 .stream()
                 .filter(x -> x.counter() >= MIN_OUTPUT_COUNT)
-                .sorted(Comparator.comparing(o -> o.hotspot))
+                .sorted(COUNTER_ORDER)
                 .map(PonBuilder::context)
                 .collect(Collectors.toList());
     }
 
+    public void clear() { mMap.clear(); }
+
     @NotNull
     private static VariantHotspot hotspot(@NotNull final VariantContext context)
     {
@@ -83,9 +92,9 @@ public class PonBuilder
     static class Counter
     {
         private final VariantHotspot hotspot;
-        private final AtomicInteger counter = new AtomicInteger();
-        private final AtomicInteger total = new AtomicInteger();
-        private final AtomicInteger max = new AtomicInteger();
+        private int counter;
+        private int total;
+        private int max;
 
         Counter(final VariantHotspot hotspot)
         {
@@ -94,14 +103,14 @@ public class PonBuilder
 
         public int counter()
         {
-            return counter.intValue();
+            return counter;
         }
 
         void increment(int depth)
         {
-            counter.incrementAndGet();
-            total.addAndGet(depth);
-            max.set(Integer.max(max.get(), depth));
+            counter++;
+            total += depth;
+            max = Integer.max(max, depth);
         }
     }
 }
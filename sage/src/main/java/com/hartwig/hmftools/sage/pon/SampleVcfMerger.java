@@ -0,0 +1,199 @@
+package com.hartwig.hmftools.sage.pon;
+
+import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Lists;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+
+public class SampleVcfMerger
+{
+    // opens each sample VCF once for a set of contigs and k-way merges their records by position, passing the PON entries
+    // for each position to the consumer as soon as all samples have moved past it, so memory is bounded by the sample count
+    private final List<File> mFiles;
+    private final SAMSequenceDictionary mDictionary;
+    private final List<SAMSequenceRecord> mContigs;
+    private final boolean mAllContigs;
+
+    private long mRecordCount;
+    private long mEntryCount;
+
+    public SampleVcfMerger(
+            final List<File> files, final SAMSequenceDictionary dictionary, final List<SAMSequenceRecord> contigs)
+    {
+        mFiles = files;
+        mDictionary = dictionary;
+        mContigs = contigs;
+        mAllContigs = contigs.size() == dictionary.size();
+        mRecordCount = 0;
+        mEntryCount = 0;
+    }
+
+    public long recordCount() { return mRecordCount; }
+    public long entryCount() { return mEntryCount; }
+
+    public void merge(final Consumer<VariantContext> consumer)
+    {
+        PriorityQueue<SampleVcfIterator> sampleQueue = new PriorityQueue<>(Math.max(mFiles.size(), 1), SAMPLE_ORDER);
+        List<SampleVcfIterator> sampleIterators = Lists.newArrayListWithCapacity(mFiles.size());
+
+        try
+        {
+            for(File file : mFiles)
+            {
+                SampleVcfIterator sampleIterator = new SampleVcfIterator(file);
+                sampleIterators.add(sampleIterator);
+
+                if(sampleIterator.moveNext())
+                    sampleQueue.add(sampleIterator);
+            }
+
+            PonBuilder ponBuilder = new PonBuilder();
+            int currentContigIndex = -1;
+            int currentPosition = -1;
+
+            while(!sampleQueue.isEmpty())
+            {
+                SampleVcfIterator sampleIterator = sampleQueue.poll();
+
+                if(sampleIterator.contigIndex() != currentContigIndex || sampleIterator.position() != currentPosition)
+                {
+                    flush(ponBuilder, consumer);
+
+                    if(sampleIterator.contigIndex() != currentContigIndex)
+                    {
+                        SG_LOGGER.debug("processing sequence {}", sampleIterator.current().getContig());
+                    }
+
+                    currentContigIndex = sampleIterator.contigIndex();
+                    currentPosition = sampleIterator.position();
+                }
+
+                ponBuilder.add(sampleIterator.current());
+                ++mRecordCount;
+
+                if(sampleIterator.moveNext())
+                    sampleQueue.add(sampleIterator);
+            }
+
+            flush(ponBuilder, consumer);
+        }
+        finally
+        {
+            sampleIterators.forEach(SampleVcfIterator::close);
+        }
+    }
+
+    private void flush(final PonBuilder ponBuilder, final Consumer<VariantContext> consumer)
+    {
+        if(ponBuilder.isEmpty())
+            return;
+
+        List<VariantContext> entries = ponBuilder.build();
+        entries.forEach(consumer);
+        mEntryCount += entries.size();
+        ponBuilder.clear();
+    }
+
+    private static final Comparator<SampleVcfIterator> SAMPLE_ORDER = Comparator.comparingInt(SampleVcfIterator::contigIndex)
+            .thenComparingInt(SampleVcfIterator::position);
+
+    private class SampleVcfIterator
+    {
+        private final File mFile;
+        private final VCFFileReader mReader;
+        private final Iterator<SAMSequenceRecord> mContigIterator;
+        private CloseableIterator<VariantContext> mRecords;
+
+        private VariantContext mCurrent;
+        private int mContigIndex;
+        private int mPosition;
+
+        public SampleVcfIterator(final File file)
+        {
+            mFile = file;
+
+            // a single pass over the whole file needs no index, otherwise each of the contigs is queried from the one reader
+            mReader = new VCFFileReader(file, !mAllContigs);
+            mContigIterator = mAllContigs ? null : mContigs.iterator();
+            mRecords = mAllContigs ? mReader.iterator() : null;
+
+            mCurrent = null;
+            mContigIndex = -1;
+            mPosition = -1;
+        }
+
+        public VariantContext current() { return mCurrent; }
+        public int contigIndex() { return mContigIndex; }
+        public int position() { return mPosition; }
+
+        public boolean moveNext()
+        {
+            while(true)
+            {
+                if(mRecords == null || !mRecords.hasNext())
+                {
+                    if(!nextContig())
+                    {
+                        mCurrent = null;
+                        return false;
+                    }
+
+                    continue;
+                }
+
+                VariantContext context = mRecords.next();
+                int contigIndex = mDictionary.getSequenceIndex(context.getContig());
+
+                // contigs outside the reference dictionary are not included in the PON
+                if(contigIndex < 0)
+                    continue;
+
+                if(contigIndex < mContigIndex || (contigIndex == mContigIndex && context.getStart() < mPosition))
+                {
+                    throw new IllegalStateException(String.format("file(%s) is not sorted at %s:%d",
+                            mFile.getName(), context.getContig(), context.getStart()));
+                }
+
+                mCurrent = context;
+                mContigIndex = contigIndex;
+                mPosition = context.getStart();
+                return true;
+            }
+        }
+
+        private boolean nextContig()
+        {
+            if(mRecords != null)
+                mRecords.close();
+
+            mRecords = null;
+
+            if(mContigIterator == null || !mContigIterator.hasNext())
+                return false;
+
+            SAMSequenceRecord contig = mContigIterator.next();
+            mRecords = mReader.query(contig.getSequenceName(), 1, contig.getSequenceLength());
+            return true;
+        }
+
+        public void close()
+        {
+            if(mRecords != null)
+                mRecords.close();
+
+            mReader.close();
+        }
+    }
+}
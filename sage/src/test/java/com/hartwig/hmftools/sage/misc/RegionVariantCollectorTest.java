@@ -0,0 +1,128 @@
+package com.hartwig.hmftools.sage.misc;
+
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.region.ChrBaseRegion;
+import com.hartwig.hmftools.sage.append.RegionVariantCollector;
+import com.hartwig.hmftools.sage.append.RegionVariantCollector.RegionVariants;
+
+import org.junit.Test;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+
+public class RegionVariantCollectorTest
+{
+    private static List<ChrBaseRegion> chromosomeRegions(final String chromosome)
+    {
+        // regions with a gap between the second and third
+        return Lists.newArrayList(
+                new ChrBaseRegion(chromosome, 1, 1000),
+                new ChrBaseRegion(chromosome, 1001, 2000),
+                new ChrBaseRegion(chromosome, 3001, 4000));
+    }
+
+    private static VariantContext createVariant(final String chromosome, int position)
+    {
+        return new VariantContextBuilder()
+                .chr(chromosome).start(position).stop(position)
+                .alleles(Lists.newArrayList(Allele.create("A", true), Allele.create("T", false)))
+                .make();
+    }
+
+    @Test
+    public void testRegionAssignment()
+    {
+        RegionVariantCollector collector = new RegionVariantCollector(RegionVariantCollectorTest::chromosomeRegions);
+
+        assertTrue(collector.addVariant(createVariant(CHR_1, 100)));
+        assertTrue(collector.addVariant(createVariant(CHR_1, 100))); // same position is allowed
+        assertTrue(collector.addVariant(createVariant(CHR_1, 900)));
+        assertEquals(0, collector.completedVariantCount());
+
+        // moving into the next region completes the first
+        assertTrue(collector.addVariant(createVariant(CHR_1, 1500)));
+        assertEquals(3, collector.completedVariantCount());
+
+        // a variant between regions is skipped, and moving past an empty region adds nothing for it
+        assertTrue(collector.addVariant(createVariant(CHR_1, 2500)));
+        assertTrue(collector.addVariant(createVariant(CHR_1, 3500)));
+
+        // and beyond the last region
+        assertTrue(collector.addVariant(createVariant(CHR_1, 5000)));
+
+        // a new chromosome completes the current region
+        assertTrue(collector.addVariant(createVariant(CHR_2, 50)));
+        collector.completeRegion();
+
+        List<RegionVariants> completedRegions = collector.takeCompletedRegions();
+        assertEquals(4, completedRegions.size());
+
+        assertEquals(0, completedRegions.get(0).RegionIndex);
+        assertEquals(3, completedRegions.get(0).Variants.size());
+
+        assertEquals(1, completedRegions.get(1).RegionIndex);
+        assertEquals(1500, completedRegions.get(1).Variants.get(0).getStart());
+
+        assertEquals(2, completedRegions.get(2).RegionIndex);
+        assertEquals(1, completedRegions.get(2).Variants.size());
+        assertEquals(3500, completedRegions.get(2).Variants.get(0).getStart());
+
+        assertEquals(CHR_2, completedRegions.get(3).Region.Chromosome);
+        assertEquals(0, collector.completedVariantCount());
+        assertTrue(collector.takeCompletedRegions().isEmpty());
+    }
+
+    @Test
+    public void testSkippedChromosomes()
+    {
+        RegionVariantCollector collector = new RegionVariantCollector(
+                chromosome -> chromosome.equals(CHR_1) ? null : chromosomeRegions(chromosome));
+
+        assertTrue(collector.addVariant(createVariant(CHR_1, 100)));
+        assertTrue(collector.addVariant(createVariant(CHR_2, 100)));
+        collector.completeRegion();
+
+        List<RegionVariants> completedRegions = collector.takeCompletedRegions();
+        assertEquals(1, completedRegions.size());
+        assertEquals(CHR_2, completedRegions.get(0).Region.Chromosome);
+    }
+
+    @Test
+    public void testUnsortedInput()
+    {
+        // a decreasing position within a chromosome
+        RegionVariantCollector collector = new RegionVariantCollector(RegionVariantCollectorTest::chromosomeRegions);
+
+        assertTrue(collector.addVariant(createVariant(CHR_1, 1500)));
+        assertFalse(collector.addVariant(createVariant(CHR_1, 900)));
+
+        // including within the same region
+        collector = new RegionVariantCollector(RegionVariantCollectorTest::chromosomeRegions);
+
+        assertTrue(collector.addVariant(createVariant(CHR_1, 500)));
+        assertFalse(collector.addVariant(createVariant(CHR_1, 400)));
+
+        // and on a skipped chromosome
+        collector = new RegionVariantCollector(chromosome -> null);
+
+        assertTrue(collector.addVariant(createVariant(CHR_1, 500)));
+        assertFalse(collector.addVariant(createVariant(CHR_1, 400)));
+
+        // a chromosome which reappears
+        collector = new RegionVariantCollector(RegionVariantCollectorTest::chromosomeRegions);
+
+        assertTrue(collector.addVariant(createVariant(CHR_1, 100)));
+        assertTrue(collector.addVariant(createVariant(CHR_2, 100)));
+        assertFalse(collector.addVariant(createVariant(CHR_1, 200)));
+    }
+}
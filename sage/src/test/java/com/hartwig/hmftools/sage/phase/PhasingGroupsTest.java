@@ -389,6 +389,41 @@ public class PhasingGroupsTest
         assertFalse(var9.hasLocalPhaseSets());
     }
 
+    @Test
+    public void testVariantIndexSets()
+    {
+        VariantIndexSet set1 = new VariantIndexSet();
+        set1.add(130);
+        set1.add(200);
+
+        VariantIndexSet set2 = new VariantIndexSet();
+        set2.add(5);
+        set2.add(200);
+        set2.add(130);
+
+        assertTrue(set1.isSubsetOf(set2));
+        assertFalse(set2.isSubsetOf(set1));
+        assertTrue(set1.intersects(set2));
+        assertEquals(2, set1.size());
+
+        // equality is independent of the span of indices previously held
+        set2.remove(5);
+        assertTrue(set1.equals(set2));
+        assertEquals(set1.hashCode(), set2.hashCode());
+
+        set2.remove(200);
+        assertFalse(set1.equals(set2));
+        assertFalse(set1.isSubsetOf(set2));
+        assertTrue(set2.contains(130));
+        assertFalse(set2.contains(200));
+
+        VariantIndexSet set3 = new VariantIndexSet();
+        set3.add(64);
+        assertFalse(set3.intersects(set2));
+        assertTrue(new VariantIndexSet().isSubsetOf(set3));
+        assertTrue(new VariantIndexSet().isEmpty());
+    }
+
     private List<PhasedVariantGroup> getPhasedGroups()
     {
         List<PhasedVariantGroup> phasedGroups = Lists.newArrayList();
@@ -0,0 +1,110 @@
+package com.hartwig.hmftools.sage.pon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+public class OrderedGroupWriterTest
+{
+    private static final int GROUP_QUEUE_SIZE = 5;
+
+    @Test
+    public void testOrderedBoundedGroups() throws Exception
+    {
+        // more groups than threads, with later groups producing entries faster than they are written
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+
+        int groupCount = 5;
+        int groupEntries = 200;
+
+        List<AtomicInteger> producedCounts = Lists.newArrayList();
+        AtomicInteger maxAhead = new AtomicInteger(0);
+
+        OrderedGroupWriter<Integer> groupWriter = new OrderedGroupWriter<>(executorService, GROUP_QUEUE_SIZE);
+
+        for(int g = 0; g < groupCount; ++g)
+        {
+            final int groupStart = g * groupEntries;
+            final AtomicInteger produced = new AtomicInteger(0);
+            producedCounts.add(produced);
+
+            groupWriter.addGroup(entryConsumer ->
+            {
+                for(int i = 0; i < groupEntries; ++i)
+                {
+                    produced.incrementAndGet();
+                    entryConsumer.accept(groupStart + i);
+                }
+            });
+        }
+
+        List<Integer> written = Lists.newArrayList();
+
+        groupWriter.writeGroups(entry ->
+        {
+            int groupIndex = entry / groupEntries;
+
+            // a later group can only have produced its queue's capacity, plus one entry waiting to be queued
+            for(int g = groupIndex + 1; g < groupCount; ++g)
+            {
+                maxAhead.accumulateAndGet(producedCounts.get(g).get(), Math::max);
+            }
+
+            written.add(entry);
+        });
+
+        executorService.shutdown();
+
+        assertEquals(groupCount * groupEntries, written.size());
+
+        for(int i = 0; i < written.size(); ++i)
+        {
+            assertEquals(i, written.get(i).intValue());
+        }
+
+        assertTrue(maxAhead.get() <= GROUP_QUEUE_SIZE + 1);
+    }
+
+    @Test
+    public void testGroupError() throws Exception
+    {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        OrderedGroupWriter<Integer> groupWriter = new OrderedGroupWriter<>(executorService, GROUP_QUEUE_SIZE);
+
+        groupWriter.addGroup(entryConsumer -> entryConsumer.accept(1));
+
+        groupWriter.addGroup(entryConsumer ->
+        {
+            entryConsumer.accept(2);
+            throw new IllegalStateException("merge failed");
+        });
+
+        groupWriter.addGroup(entryConsumer -> entryConsumer.accept(3));
+
+        List<Integer> written = Lists.newArrayList();
+
+        try
+        {
+            groupWriter.writeGroups(written::add);
+            fail("expected group error");
+        }
+        catch(ExecutionException e)
+        {
+            assertEquals("merge failed", e.getCause().getMessage());
+        }
+
+        executorService.shutdownNow();
+
+        assertEquals(Lists.newArrayList(1, 2), written);
+    }
+}
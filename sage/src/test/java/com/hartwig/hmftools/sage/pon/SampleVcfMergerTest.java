@@ -0,0 +1,143 @@
+package com.hartwig.hmftools.sage.pon;
+
+import static com.hartwig.hmftools.sage.pon.PonApplication.formContigGroups;
+import static com.hartwig.hmftools.sage.vcf.VariantVCF.RAW_ALLELIC_DEPTH;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFFormatHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import htsjdk.variant.vcf.VCFStandardHeaderLines;
+
+public class SampleVcfMergerTest
+{
+    private static final SAMSequenceDictionary DICTIONARY = new SAMSequenceDictionary(Lists.newArrayList(
+            new SAMSequenceRecord("1", 1000), new SAMSequenceRecord("2", 1000), new SAMSequenceRecord("3", 2000)));
+
+    @Test
+    public void testFormContigGroups()
+    {
+        List<List<SAMSequenceRecord>> contigGroups = formContigGroups(DICTIONARY, 2);
+
+        assertEquals(2, contigGroups.size());
+        assertEquals(Lists.newArrayList("1", "2"), contigNames(contigGroups.get(0)));
+        assertEquals(Lists.newArrayList("3"), contigNames(contigGroups.get(1)));
+
+        assertEquals(1, formContigGroups(DICTIONARY, 1).size());
+        assertEquals(3, formContigGroups(DICTIONARY, 3).size());
+    }
+
+    @Test
+    public void testMergeSampleVcfs() throws Exception
+    {
+        File tempDir = Files.createTempDirectory("sage_pon_test").toFile();
+        tempDir.deleteOnExit();
+
+        // interleaved and shared positions across the samples, with one sample's support below the minimum allelic depth
+        List<File> files = Lists.newArrayList(
+                writeVcf(tempDir, "SAMPLE_1", new String[] {
+                        "1:100:A:G:5", "1:200:C:T:5", "2:50:G:A:4", "3:500:T:C:6", "3:1500:A:T:3" }),
+                writeVcf(tempDir, "SAMPLE_2", new String[] {
+                        "1:100:A:C:4", "1:100:A:G:3", "1:150:G:T:8", "1:200:C:T:2", "2:50:G:A:7", "3:500:T:C:3" }),
+                writeVcf(tempDir, "SAMPLE_3", new String[] {
+                        "1:100:A:G:9", "1:100:A:C:5", "1:200:C:T:4", "2:20:T:G:5", "3:1500:A:T:8" }));
+
+        List<String> expectedEntries = Lists.newArrayList(
+                "1:100:A:C:2", "1:100:A:G:3", "1:200:C:T:2", "2:50:G:A:2", "3:500:T:C:2", "3:1500:A:T:2");
+
+        // a single pass over all contigs
+        List<VariantContext> entries = Lists.newArrayList();
+        SampleVcfMerger merger = new SampleVcfMerger(files, DICTIONARY, DICTIONARY.getSequences());
+        merger.merge(entries::add);
+
+        assertEquals(expectedEntries, entryStrings(entries));
+        assertEquals(16, merger.recordCount());
+        assertEquals(expectedEntries.size(), merger.entryCount());
+
+        // each contig group queries its contigs from the indexed files, and the groups' entries concatenate in the same order
+        List<VariantContext> groupEntries = Lists.newArrayList();
+
+        for(List<SAMSequenceRecord> contigGroup : formContigGroups(DICTIONARY, 2))
+        {
+            new SampleVcfMerger(files, DICTIONARY, contigGroup).merge(groupEntries::add);
+        }
+
+        assertEquals(expectedEntries, entryStrings(groupEntries));
+    }
+
+    private static List<String> contigNames(final List<SAMSequenceRecord> contigs)
+    {
+        return contigs.stream().map(SAMSequenceRecord::getSequenceName).collect(Collectors.toList());
+    }
+
+    private static List<String> entryStrings(final List<VariantContext> entries)
+    {
+        return entries.stream()
+                .map(x -> String.format("%s:%d:%s:%s:%d", x.getContig(), x.getStart(), x.getReference().getBaseString(),
+                        x.getAlternateAllele(0).getBaseString(), x.getAttributeAsInt(PonVCF.PON_COUNT, 0)))
+                .collect(Collectors.toList());
+    }
+
+    private static File writeVcf(final File dir, final String sampleId, final String[] variants)
+    {
+        // each variant is chromosome:position:ref:alt:altDepth
+        File file = new File(dir, sampleId + ".vcf");
+        file.deleteOnExit();
+        new File(dir, sampleId + ".vcf.idx").deleteOnExit();
+
+        VCFHeader header = new VCFHeader(Sets.newHashSet(), Lists.newArrayList(sampleId));
+        header.addMetaDataLine(VCFStandardHeaderLines.getFormatLine(VCFConstants.GENOTYPE_KEY));
+        header.addMetaDataLine(new VCFFormatHeaderLine(RAW_ALLELIC_DEPTH, 2, VCFHeaderLineType.Integer, "Raw allelic depth"));
+        header.setSequenceDictionary(DICTIONARY);
+
+        VariantContextWriter writer = new VariantContextWriterBuilder()
+                .setOutputFile(file)
+                .setReferenceDictionary(DICTIONARY)
+                .setOption(Options.INDEX_ON_THE_FLY)
+                .build();
+
+        writer.writeHeader(header);
+
+        for(String variant : variants)
+        {
+            String[] items = variant.split(":");
+            int position = Integer.parseInt(items[1]);
+            List<Allele> alleles = Lists.newArrayList(Allele.create(items[2], true), Allele.create(items[3], false));
+
+            writer.add(new VariantContextBuilder()
+                    .chr(items[0])
+                    .start(position)
+                    .alleles(alleles)
+                    .computeEndFromAlleles(alleles, position)
+                    .genotypes(new GenotypeBuilder(sampleId)
+                            .alleles(alleles)
+                            .attribute(RAW_ALLELIC_DEPTH, new int[] { 10, Integer.parseInt(items[4]) })
+                            .make())
+                    .make());
+        }
+
+        writer.close();
+        return file;
+    }
+}
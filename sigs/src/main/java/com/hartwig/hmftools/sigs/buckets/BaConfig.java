@@ -1,5 +1,8 @@
 package com.hartwig.hmftools.sigs.buckets;
 
+import static com.hartwig.hmftools.common.utils.TaskExecutor.THREADS;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.parseThreads;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -108,6 +111,8 @@ public class BaConfig
 
     public boolean LogVerbose;
 
+    public final int Threads; // for fitting samples in parallel
+
     public BaConfig(final CommandLine cmd)
     {
         LogVerbose = false;
@@ -144,6 +149,8 @@ public class BaConfig
         SpecificCancer = cmd.getOptionValue(BA_SPECIFIC_CANCER, "");
         MsiFilter = cmd.getOptionValue(BA_MSI_FILTER, "");
 
+        Threads = parseThreads(cmd);
+
         SampleWatchList = Lists.newArrayList();
 
         if(cmd.hasOption(BA_LOG_SPEC_SAMPLES))
@@ -187,6 +194,7 @@ public class BaConfig
         options.addOption(BA_MIN_GROUP_ALLOC_PERCENT, true, "Only allocate to a group if exceeds this percent (background excepted)");
         options.addOption(BA_MIN_GROUP_ALLOC_PERCENT_LOWER, true, "Lower threshold for group allocation");
         options.addOption(BA_LOG_SPEC_SAMPLES, true, "Set of samples IDs to log, separated by ';'");
+        options.addOption(THREADS, true, "Number of threads, default 1");
     }
 
 }
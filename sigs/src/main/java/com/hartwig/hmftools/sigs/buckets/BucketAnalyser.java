@@ -14,6 +14,7 @@ import static com.hartwig.hmftools.common.sigs.NoiseCalcs.calcRangeValue;
 import static com.hartwig.hmftools.common.sigs.SigUtils.convertToPercentages;
 import static com.hartwig.hmftools.common.utils.MatrixUtils.createMatrixFromListData;
 import static com.hartwig.hmftools.common.utils.MatrixFile.writeMatrixData;
+import static com.hartwig.hmftools.common.utils.TaskExecutor.executeTasks;
 import static com.hartwig.hmftools.common.utils.VectorUtils.addVector;
 import static com.hartwig.hmftools.common.utils.VectorUtils.copyVector;
 import static com.hartwig.hmftools.common.utils.VectorUtils.getSortedVectorIndices;
@@ -63,6 +64,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.utils.Doubles;
@@ -850,7 +852,17 @@ public class BucketAnalyser
 
         int maxCandidateGroups = MAX_CANDIDATE_GROUPS;
 
-        CountsSigContribOptimiser sigContribOptimiser = new CountsSigContribOptimiser(mBucketCount, false, SAMPLE_ALLOCATED_PERCENT);
+        // samples are assessed against each candidate group independently, so are split across threads, each with its own optimiser,
+        // and their allocations are then applied to the group in sample order
+        List<CountsSigContribOptimiser> sigContribOptimisers = Lists.newArrayList();
+        List<int[]> sampleRanges = sampleTaskRanges();
+
+        for(int i = 0; i < sampleRanges.size(); ++i)
+        {
+            sigContribOptimisers.add(new CountsSigContribOptimiser(mBucketCount, false, SAMPLE_ALLOCATED_PERCENT));
+        }
+
+        CandidateSampleAlloc[] sampleAllocs = new CandidateSampleAlloc[mSampleCount];
 
         int exceededOnSoloAlloc = 0;
         int exceededOnUnalloc = 0;
@@ -887,159 +899,66 @@ public class BucketAnalyser
                 bucketGroup.resetPotentialAllocation();
             }
 
-            final List<Integer> groupBuckets = bucketGroup.getBucketIds();
+            List<Callable> callableList = Lists.newArrayList();
 
-            for (int sampleId = 0; sampleId < mSampleCount; ++sampleId)
+            for(int i = 0; i < sampleRanges.size(); ++i)
             {
-                final SampleData sample = mSampleData.get(sampleId);
-
-                if(sample.isExcluded())
-                    continue;
-
-                double reqAllocPercent = minAllocPercent(sample, false);
-                boolean exceedsMinAllocPerc = false;
-                double[] allocCounts = new double[mBucketCount];
-                double allocCountTotal = 0;
-                double allocPercent = 0;
-
-                if(keepPreviousAllocs)
-                {
-                    // pre-existing bucket groups (ie those not just proposed) and samples just not allocated can be left alone
-                    if (bgIndex < mLastRunGroupCount && !mReassessSamples.contains(sampleId))
-                    {
-                        // look for an existing allocation in this group
-                        if (bucketGroup.hasSample(sampleId))
-                        {
-                            allocCountTotal = bucketGroup.getSampleCount(sampleId);
-
-                            if(allocCountTotal/sample.getElevatedCount() < reqAllocPercent - 0.01)
-                            {
-                                SIG_LOGGER.error(String.format("sample(%d) part of existing bg(%d) with alloc(%s perc=%.3f)",
-                                        sampleId, bucketGroup.getId(), sizeToStr(allocCountTotal), allocCountTotal/sample.getElevatedCount()));
-                                mHasErrors = true;
-                            }
-                        }
-                        else
-                        {
-                            // no point trying again
-                        }
+                callableList.add(new CandidateSampleTask(
+                        sampleRanges.get(i), sigContribOptimisers.get(i), bucketGroup, bgRatios, bgIndex, keepPreviousAllocs, sampleAllocs));
+            }
 
-                        ++skippedRetry;
-                        continue;
-                    }
-                }
+            if(!executeTasks(callableList, mConfig.Threads))
+            {
+                mHasErrors = true;
+                return;
+            }
 
-                if(bucketGroup.hasSample(sampleId))
-                {
-                    // if this sample was previously in the group and then reassessed and about to be added again,
-                    // need to first of all remove its existing allocation
-                    bucketGroup.removeSampleAllocation(sample, -1, true);
-                }
+            for (int sampleId = 0; sampleId < mSampleCount; ++sampleId)
+            {
+                final CandidateSampleAlloc sampleAlloc = sampleAllocs[sampleId];
 
-                // skip if already largely allocated, even though reshuffling could potentially lead to an alloc above the min %
-                if (sample.getUnallocPercent() < reqAllocPercent)
+                if(sampleAlloc == null)
                     continue;
 
-                // optimisation: check whether the buckets for this group and sample
-                // could possibly exceed the min % threshold with a perfect fit, otherwise skip it
-                double potentialAlloc = sample.getPotentialCounts(bgRatios, groupBuckets, bucketGroup.getRatioRanges(), null);
+                sampleAllocs[sampleId] = null;
 
-                double maxPotentialPerc = potentialAlloc / sample.getElevatedCount();
+                if(sampleAlloc.HasErrors)
+                    mHasErrors = true;
 
-                if(maxPotentialPerc < reqAllocPercent)
-                    continue;
+                if(sampleAlloc.SkippedRetry)
+                    ++skippedRetry;
 
-                allocCountTotal = sample.getPotentialUnallocCounts(bgRatios, groupBuckets, null, allocCounts);
-                allocPercent = allocCountTotal / sample.getElevatedCount();
+                if(sampleAlloc.ExceededOnUnalloc)
+                    ++exceededOnUnalloc;
 
-                exceedsMinAllocPerc = allocPercent >= reqAllocPercent;
+                if(sampleAlloc.ExceededOnSoloAlloc)
+                    ++exceededOnSoloAlloc;
 
-                if(exceedsMinAllocPerc)
-                {
-                    ++exceededOnUnalloc;
-                }
-                else
+                if(sampleAlloc.ExceededOnFit)
+                    ++exceededOnFit;
+
+                if(sampleAlloc.RemoveExisting)
                 {
-                    // if the potential allocation taking no existing allocations into account would increase
-                    // a sample's overall allocation by more than the upper threshold, it must satisfy the test
-                    // to be added to this candidate - but the counts still adjusting with the fit routine - for now too hard
-                    if(maxPotentialPerc - sample.getAllocPercent() >= reqAllocPercent)
-                    {
-                        ++exceededOnSoloAlloc;
-                    }
+                    // if this sample was previously in the group and then reassessed and about to be added again,
+                    // need to first of all remove its existing allocation
+                    bucketGroup.removeSampleAllocation(mSampleData.get(sampleId), -1, true);
                 }
 
-                if (!exceedsMinAllocPerc)
+                if(sampleAlloc.AllocCounts != null)
                 {
-                    if(sample.getElevBucketGroups().isEmpty())
-                        continue;
-
-                    // see if a fit with sig along with all the other allocated one for this sample would then meet the min % threshold
-                    // it is the overall change to the sample's allocation that is tested, not just this proposed group's contribution
-                    List<double[]> ratiosCollection = Lists.newArrayList();
-                    int bgGroupIndex = -1;
-
-                    for (final BucketGroup samGroup : sample.getElevBucketGroups())
-                    {
-                        if(samGroup == sample.getBackgroundGroup())
-                            bgGroupIndex = ratiosCollection.size();
-
-                        ratiosCollection.add(samGroup.getBucketRatios());
-                    }
-
-                    ratiosCollection.add(bgRatios);
-
-                    double[] prevContribs = new double[ratiosCollection.size()];
-                    int candidateSigIndex = prevContribs.length - 1;
-
-                    sigContribOptimiser.initialise(sample.Id, sample.getElevatedBucketCounts(), sample.getNoiseCounts(), ratiosCollection,
-                            reqAllocPercent, mConfig.MinSampleAllocCount);
-
-                    // sigContribOptimiser.setLogVerbose(mConfig.logSample(sampleId));
-                    sigContribOptimiser.setTargetSig(candidateSigIndex);
-                    sigContribOptimiser.setRequiredSig(bgGroupIndex);
-
-                    boolean validCalc = sigContribOptimiser.fitToSample();
-
-                    if (!validCalc) // couldn't reach the required percent for this candidate sig
-                    {
-                        SIG_LOGGER.warn("sample({}) fit with existing sigs failed", sample.Id);
-                        mHasErrors = true;
-                        continue;
-                    }
-
-                    // if adding this new group makes the overall contribution worse, then skip it
-                    if(sigContribOptimiser.getAllocPerc() < sample.getAllocPercent())
-                        continue;
-
-                    double candidateAlloc = sigContribOptimiser.getContribs()[candidateSigIndex];
-                    allocCountTotal = candidateAlloc;
-                    allocPercent = allocCountTotal / sample.getElevatedCount();
-
-                    if (allocPercent < reqAllocPercent || allocCountTotal < mConfig.MinSampleAllocCount)
-                        continue;
-
-                    // translate the fitted contribution into new counts
-                    if(candidateAlloc < allocCountTotal * 0.99)
-                        continue; // shouldn't happen but in case a reshuffle of sigs didn't actually include the new sig
-
-                    for(int b = 0; b < mBucketCount; ++b)
-                    {
-                        allocCounts[b] = bgRatios[b] * candidateAlloc;
-                    }
-
-                    ++exceededOnFit;
+                    bucketGroup.addPotentialAllocation(sampleAlloc.AllocTotal);
+                    bucketGroup.addPotentialAdjAllocation(sampleAlloc.AllocTotal * sampleAlloc.AllocPercent);
+                    bucketGroup.addSample(sampleId, sampleAlloc.AllocCounts);
                 }
-
-                bucketGroup.addPotentialAllocation(allocCountTotal);
-                bucketGroup.addPotentialAdjAllocation(allocCountTotal * allocPercent);
-                bucketGroup.addSample(sampleId, allocCounts);
             }
         }
 
         SIG_LOGGER.debug("processed {} bucket groups, method(solo={} unalloc={} fit={} skipped={})",
                 mBucketGroups.size(), exceededOnSoloAlloc, exceededOnUnalloc, exceededOnFit, skippedRetry);
 
+        CountsSigContribOptimiser sigContribOptimiser = sigContribOptimisers.get(0);
+        sigContribOptimisers.stream().skip(1).forEach(x -> sigContribOptimiser.mergeStats(x));
+
         SIG_LOGGER.trace(String.format("sig-optim stats: instances(%d) avgIters(%.1f) avgImprovePerc(%.3f)",
                 sigContribOptimiser.getInstances(), sigContribOptimiser.getAvgIterations(), sigContribOptimiser.getAvgImprovePerc()));
 
@@ -1094,6 +1013,221 @@ public class BucketAnalyser
         }
     }
 
+    private List<int[]> sampleTaskRanges()
+    {
+        // contiguous ranges of sample indices, one per thread
+        int taskCount = max(min(mConfig.Threads, mSampleCount), 1);
+        int samplesPerTask = (int)Math.ceil(mSampleCount / (double)taskCount);
+
+        List<int[]> sampleRanges = Lists.newArrayList();
+
+        for(int startIndex = 0; startIndex < mSampleCount || sampleRanges.isEmpty(); startIndex += samplesPerTask)
+        {
+            sampleRanges.add(new int[] { startIndex, min(startIndex + samplesPerTask, mSampleCount) });
+        }
+
+        return sampleRanges;
+    }
+
+    private static class CandidateSampleAlloc
+    {
+        public boolean HasErrors;
+        public boolean SkippedRetry;
+        public boolean RemoveExisting;
+        public boolean ExceededOnUnalloc;
+        public boolean ExceededOnSoloAlloc;
+        public boolean ExceededOnFit;
+
+        public double[] AllocCounts; // set if the sample is to be added to the group
+        public double AllocTotal;
+        public double AllocPercent;
+    }
+
+    private class CandidateSampleTask implements Callable
+    {
+        private final int[] mSampleRange;
+        private final CountsSigContribOptimiser mSigContribOptimiser;
+        private final BucketGroup mBucketGroup;
+        private final double[] mBgRatios;
+        private final int mBgIndex;
+        private final boolean mKeepPreviousAllocs;
+        private final CandidateSampleAlloc[] mSampleAllocs;
+
+        public CandidateSampleTask(
+                final int[] sampleRange, final CountsSigContribOptimiser sigContribOptimiser, final BucketGroup bucketGroup,
+                final double[] bgRatios, int bgIndex, boolean keepPreviousAllocs, final CandidateSampleAlloc[] sampleAllocs)
+        {
+            mSampleRange = sampleRange;
+            mSigContribOptimiser = sigContribOptimiser;
+            mBucketGroup = bucketGroup;
+            mBgRatios = bgRatios;
+            mBgIndex = bgIndex;
+            mKeepPreviousAllocs = keepPreviousAllocs;
+            mSampleAllocs = sampleAllocs;
+        }
+
+        @Override
+        public Long call()
+        {
+            for(int sampleId = mSampleRange[0]; sampleId < mSampleRange[1]; ++sampleId)
+            {
+                mSampleAllocs[sampleId] = assessCandidateSample(
+                        mSampleData.get(sampleId), mBucketGroup, mBgRatios, mBgIndex, mKeepPreviousAllocs, mSigContribOptimiser);
+            }
+
+            return (long)0;
+        }
+    }
+
+    private CandidateSampleAlloc assessCandidateSample(
+            final SampleData sample, final BucketGroup bucketGroup, final double[] bgRatios, int bgIndex, boolean keepPreviousAllocs,
+            final CountsSigContribOptimiser sigContribOptimiser)
+    {
+        // test a sample's potential allocation to a candidate group, without changing the group or sample
+        if(sample.isExcluded())
+            return null;
+
+        int sampleId = sample.Id;
+        final List<Integer> groupBuckets = bucketGroup.getBucketIds();
+        CandidateSampleAlloc sampleAlloc = new CandidateSampleAlloc();
+
+        double reqAllocPercent = minAllocPercent(sample, false);
+        boolean exceedsMinAllocPerc = false;
+        double[] allocCounts = new double[mBucketCount];
+        double allocCountTotal = 0;
+        double allocPercent = 0;
+
+        if(keepPreviousAllocs)
+        {
+            // pre-existing bucket groups (ie those not just proposed) and samples just not allocated can be left alone
+            if (bgIndex < mLastRunGroupCount && !mReassessSamples.contains(sampleId))
+            {
+                // look for an existing allocation in this group
+                if (bucketGroup.hasSample(sampleId))
+                {
+                    allocCountTotal = bucketGroup.getSampleCount(sampleId);
+
+                    if(allocCountTotal/sample.getElevatedCount() < reqAllocPercent - 0.01)
+                    {
+                        SIG_LOGGER.error(String.format("sample(%d) part of existing bg(%d) with alloc(%s perc=%.3f)",
+                                sampleId, bucketGroup.getId(), sizeToStr(allocCountTotal), allocCountTotal/sample.getElevatedCount()));
+                        sampleAlloc.HasErrors = true;
+                    }
+                }
+                else
+                {
+                    // no point trying again
+                }
+
+                sampleAlloc.SkippedRetry = true;
+                return sampleAlloc;
+            }
+        }
+
+        // any existing allocation is removed when the results are applied to the group
+        sampleAlloc.RemoveExisting = bucketGroup.hasSample(sampleId);
+
+        // skip if already largely allocated, even though reshuffling could potentially lead to an alloc above the min %
+        if (sample.getUnallocPercent() < reqAllocPercent)
+            return sampleAlloc;
+
+        // optimisation: check whether the buckets for this group and sample
+        // could possibly exceed the min % threshold with a perfect fit, otherwise skip it
+        double potentialAlloc = sample.getPotentialCounts(bgRatios, groupBuckets, bucketGroup.getRatioRanges(), null);
+
+        double maxPotentialPerc = potentialAlloc / sample.getElevatedCount();
+
+        if(maxPotentialPerc < reqAllocPercent)
+            return sampleAlloc;
+
+        allocCountTotal = sample.getPotentialUnallocCounts(bgRatios, groupBuckets, null, allocCounts);
+        allocPercent = allocCountTotal / sample.getElevatedCount();
+
+        exceedsMinAllocPerc = allocPercent >= reqAllocPercent;
+
+        if(exceedsMinAllocPerc)
+        {
+            sampleAlloc.ExceededOnUnalloc = true;
+        }
+        else
+        {
+            // if the potential allocation taking no existing allocations into account would increase
+            // a sample's overall allocation by more than the upper threshold, it must satisfy the test
+            // to be added to this candidate - but the counts still adjusting with the fit routine - for now too hard
+            if(maxPotentialPerc - sample.getAllocPercent() >= reqAllocPercent)
+            {
+                sampleAlloc.ExceededOnSoloAlloc = true;
+            }
+        }
+
+        if (!exceedsMinAllocPerc)
+        {
+            if(sample.getElevBucketGroups().isEmpty())
+                return sampleAlloc;
+
+            // see if a fit with sig along with all the other allocated one for this sample would then meet the min % threshold
+            // it is the overall change to the sample's allocation that is tested, not just this proposed group's contribution
+            List<double[]> ratiosCollection = Lists.newArrayList();
+            int bgGroupIndex = -1;
+
+            for (final BucketGroup samGroup : sample.getElevBucketGroups())
+            {
+                if(samGroup == sample.getBackgroundGroup())
+                    bgGroupIndex = ratiosCollection.size();
+
+                ratiosCollection.add(samGroup.getBucketRatios());
+            }
+
+            ratiosCollection.add(bgRatios);
+
+            double[] prevContribs = new double[ratiosCollection.size()];
+            int candidateSigIndex = prevContribs.length - 1;
+
+            sigContribOptimiser.initialise(sample.Id, sample.getElevatedBucketCounts(), sample.getNoiseCounts(), ratiosCollection,
+                    reqAllocPercent, mConfig.MinSampleAllocCount);
+
+            // sigContribOptimiser.setLogVerbose(mConfig.logSample(sampleId));
+            sigContribOptimiser.setTargetSig(candidateSigIndex);
+            sigContribOptimiser.setRequiredSig(bgGroupIndex);
+
+            boolean validCalc = sigContribOptimiser.fitToSample();
+
+            if (!validCalc) // couldn't reach the required percent for this candidate sig
+            {
+                SIG_LOGGER.warn("sample({}) fit with existing sigs failed", sample.Id);
+                sampleAlloc.HasErrors = true;
+                return sampleAlloc;
+            }
+
+            // if adding this new group makes the overall contribution worse, then skip it
+            if(sigContribOptimiser.getAllocPerc() < sample.getAllocPercent())
+                return sampleAlloc;
+
+            double candidateAlloc = sigContribOptimiser.getContribs()[candidateSigIndex];
+            allocCountTotal = candidateAlloc;
+            allocPercent = allocCountTotal / sample.getElevatedCount();
+
+            if (allocPercent < reqAllocPercent || allocCountTotal < mConfig.MinSampleAllocCount)
+                return sampleAlloc;
+
+            // translate the fitted contribution into new counts
+            if(candidateAlloc < allocCountTotal * 0.99)
+                return sampleAlloc; // shouldn't happen but in case a reshuffle of sigs didn't actually include the new sig
+
+            for(int b = 0; b < mBucketCount; ++b)
+            {
+                allocCounts[b] = bgRatios[b] * candidateAlloc;
+            }
+
+            sampleAlloc.ExceededOnFit = true;
+        }
+
+        sampleAlloc.AllocCounts = allocCounts;
+        sampleAlloc.AllocTotal = allocCountTotal;
+        sampleAlloc.AllocPercent = allocPercent;
+        return sampleAlloc;
+    }
+
     private boolean similarToExistingGroup(BucketGroup bucketGroup)
     {
         setGroupSimilarityData(bucketGroup);
@@ -1319,8 +1453,11 @@ public class BucketAnalyser
                 */
 
                 sample.clearAllocations(true);
+                SampleGroupAllocs groupAllocs = new SampleGroupAllocs(sample);
                 boolean fitAllocated = fitSampleWithGroups(sigContribOptimiser, sample, sampleGroupList, prevAllocPerc, reqAllocPercent,
-                        false, prevGroupList);
+                        false, prevGroupList, groupAllocs);
+
+                groupAllocs.applyToGroups();
 
                 if(!fitAllocated)
                 {
@@ -2012,10 +2149,6 @@ public class BucketAnalyser
         // in the final fit, background groups are included and no distinction is made between elevated and background counts
         SIG_LOGGER.debug("applying final fit with {} bucket groups to all samples", mFinalBucketGroups.size());
 
-        double reqAllocPercent = MIN_GROUP_ALLOC_PERCENT_LOWER;
-
-        SampleSigContribOptimiser sigContribOptimiser = new SampleSigContribOptimiser(mBucketCount, false, SAMPLE_ALLOCATED_PERCENT);
-
         if(mConfig.UseBackgroundCounts)
         {
             SIG_LOGGER.debug("including {} background group(s)", mBackgroundSigDiscovery.getBucketGroups().size());
@@ -2034,185 +2167,225 @@ public class BucketAnalyser
             bucketGroup.clearSamples();
         }
 
-        List<BucketGroup> prevGroupList = Lists.newArrayList();
-        List<BucketGroup> potentialGroupList = Lists.newArrayList();
+        // each sample is fitted independently against the fixed set of groups, so samples are split across threads, each with its
+        // own optimiser, and their allocations are then applied to the groups in sample order
+        List<int[]> sampleRanges = sampleTaskRanges();
+        List<SampleSigContribOptimiser> sigContribOptimisers = Lists.newArrayList();
+        SampleGroupAllocs[] sampleGroupAllocs = new SampleGroupAllocs[mSampleCount];
+
+        List<Callable> callableList = Lists.newArrayList();
+
+        for(int[] sampleRange : sampleRanges)
+        {
+            SampleSigContribOptimiser sigContribOptimiser = new SampleSigContribOptimiser(mBucketCount, false, SAMPLE_ALLOCATED_PERCENT);
+            sigContribOptimisers.add(sigContribOptimiser);
+
+            callableList.add(() ->
+            {
+                for(int sampleId = sampleRange[0]; sampleId < sampleRange[1]; ++sampleId)
+                {
+                    sampleGroupAllocs[sampleId] = fitSampleToFinalGroups(mSampleData.get(sampleId), sigContribOptimiser);
+                }
+
+                return (long)0;
+            });
+        }
+
+        if(!executeTasks(callableList, mConfig.Threads))
+        {
+            mHasErrors = true;
+            return;
+        }
 
         List<Double> sampleGroupCounts = Lists.newArrayList();
 
-        for (SampleData sample : mSampleData)
+        for(int sampleId = 0; sampleId < mSampleCount; ++sampleId)
         {
-            if (sample.isExcluded())
+            if(sampleGroupAllocs[sampleId] == null)
                 continue;
 
-            mConfig.logSample(sample.Id);
-
-            double prevAllocPerc = (sample.getAllocatedCount() + sample.getBackgroundCount()) / sample.getTotalCount();
+            sampleGroupAllocs[sampleId].applyToGroups();
 
-            // keep track of the groups allocated during discovery in case the final fit is worse
-            prevGroupList.clear();
-            prevGroupList.addAll(sample.getBucketGroups());
-            int prevGroupCount = prevGroupList.size();
+            final SampleData sample = mSampleData.get(sampleId);
 
-            sample.clearAllocations(false);
+            if(!sample.getBucketGroups().isEmpty())
+                sampleGroupCounts.add((double)sample.getBucketGroups().size());
+        }
 
-            double sampleCount = sample.getTotalCount();
+        SampleSigContribOptimiser sigContribOptimiser = sigContribOptimisers.get(0);
+        sigContribOptimisers.stream().skip(1).forEach(x -> sigContribOptimiser.mergeStats(x));
 
-            List<Double> potentialAllocTotals = Lists.newArrayList();
-            List<double[]> potentialAllocCounts = Lists.newArrayList();
+        SIG_LOGGER.debug(String.format("sig-optim stats: instances(%d) avgIters(%.1f) avgImprovePerc(%.3f)",
+                sigContribOptimiser.getInstances(), sigContribOptimiser.getAvgIterations(), sigContribOptimiser.getAvgImprovePerc()));
 
-            potentialGroupList.clear();
+        // report range of group counts across the samples
+        if(!sampleGroupCounts.isEmpty())
+        {
+            double[] groupCounts = convertList(sampleGroupCounts);
+            List<Integer> sortedIndicesGCs = getSortedVectorIndices(groupCounts, false);
 
-            for(int bgIndex = 0; bgIndex < mFinalBucketGroups.size(); ++bgIndex)
+            if (sortedIndicesGCs.size() > 2)
             {
-                BucketGroup bucketGroup = mFinalBucketGroups.get(bgIndex);
+                int medianIndex = sortedIndicesGCs.size() / 2;
+                double avg = sumVector(groupCounts) / groupCounts.length;
+                SIG_LOGGER.debug(String.format("sample group count stats: total(%d) max(%.0f) median(%.0f) avg(%.1f)",
+                        groupCounts.length, groupCounts[sortedIndicesGCs.get(0)], groupCounts[sortedIndicesGCs.get(medianIndex)], avg));
+            }
+        }
+    }
 
-                if(bucketGroup.isBackground())
-                {
-                    // assign if applicable by cancer type
-                    if(sample.getBackgroundGroup() != bucketGroup)
-                        continue;
-                }
+    private SampleGroupAllocs fitSampleToFinalGroups(final SampleData sample, final SampleSigContribOptimiser sigContribOptimiser)
+    {
+        // fit the sample to the final groups, recording rather than applying its group allocations
+        if (sample.isExcluded())
+            return null;
 
-                // re-test with all elevated counts now on offer
-                double[] allocCounts = new double[mBucketCount];
-                double allocTotal = sample.getPotentialUnallocCounts(bucketGroup.getBucketRatios(), bucketGroup.getBucketIds(), bucketGroup.getRatioRanges(),
-                        allocCounts);
+        double reqAllocPercent = MIN_GROUP_ALLOC_PERCENT_LOWER;
 
-                if (sample.getBackgroundGroup() != bucketGroup && (allocTotal / sampleCount < reqAllocPercent || allocTotal < mConfig.MinSampleAllocCount))
-                    continue;
+        SampleGroupAllocs groupAllocs = new SampleGroupAllocs(sample);
 
-                // add in descending order
-                int index = 0;
-                while(index < potentialAllocTotals.size())
-                {
-                    if(allocTotal > potentialAllocTotals.get(index))
-                        break;
+        mConfig.logSample(sample.Id);
 
-                    ++index;
-                }
+        double prevAllocPerc = (sample.getAllocatedCount() + sample.getBackgroundCount()) / sample.getTotalCount();
 
-                potentialGroupList.add(index, bucketGroup);
-                potentialAllocTotals.add(index, allocTotal);
-                potentialAllocCounts.add(allocCounts);
-            }
+        // keep track of the groups allocated during discovery in case the final fit is worse
+        List<BucketGroup> prevGroupList = Lists.newArrayList(sample.getBucketGroups());
+        int prevGroupCount = prevGroupList.size();
 
-            if(potentialGroupList.isEmpty())
-            {
-                SIG_LOGGER.debug("sample({}) found no potential groups to fit", sample.Id);
-                continue;
-            }
+        sample.clearAllocations(false);
 
-            boolean useNewFit = false;
+        double sampleCount = sample.getTotalCount();
 
-            if(potentialGroupList.size() > 1)
-            {
-                useNewFit = fitSampleWithGroups(sigContribOptimiser, sample, potentialGroupList, prevAllocPerc, reqAllocPercent,
-                        true, prevGroupList);
-                boolean usePrevFit = false;
+        List<Double> potentialAllocTotals = Lists.newArrayList();
+        List<double[]> potentialAllocCounts = Lists.newArrayList();
 
-                if (!useNewFit)
-                {
-                    // revert back to the previous set of groups added through discovery
-                    sample.clearAllocations(false);
+        List<BucketGroup> potentialGroupList = Lists.newArrayList();
 
-                    if(prevGroupList.size() >1)
-                    {
-                        usePrevFit = fitSampleWithGroups(sigContribOptimiser, sample, prevGroupList, 0, reqAllocPercent,
-                                false, prevGroupList);
+        for(int bgIndex = 0; bgIndex < mFinalBucketGroups.size(); ++bgIndex)
+        {
+            BucketGroup bucketGroup = mFinalBucketGroups.get(bgIndex);
 
-                        if (!usePrevFit)
-                        {
-                            SIG_LOGGER.warn("sample({}) left unallocated", sample.Id);
-                        }
-                    }
-                }
+            if(bucketGroup.isBackground())
+            {
+                // assign if applicable by cancer type
+                if(sample.getBackgroundGroup() != bucketGroup)
+                    continue;
             }
 
-            if(potentialGroupList.size() == 1 || (!useNewFit && prevGroupList.size() == 1))
-            {
-                // allocate the single group, no need to first work out an optimal fit
-                BucketGroup bucketGroup = potentialGroupList.get(0);
-                double[] allocCounts = potentialAllocCounts.get(0);
-                double actualAlloc = sample.allocateBucketCounts(allocCounts, 0);
+            // re-test with all elevated counts now on offer
+            double[] allocCounts = new double[mBucketCount];
+            double allocTotal = sample.getPotentialUnallocCounts(bucketGroup.getBucketRatios(), bucketGroup.getBucketIds(), bucketGroup.getRatioRanges(),
+                    allocCounts);
 
-                bucketGroup.addSample(sample.Id, allocCounts);
-                double allocPerc = actualAlloc / sampleCount;
+            if (sample.getBackgroundGroup() != bucketGroup && (allocTotal / sampleCount < reqAllocPercent || allocTotal < mConfig.MinSampleAllocCount))
+                continue;
 
-                if(!bucketGroup.isBackground())
-                    sample.addBucketGroup(bucketGroup, allocPerc);
+            // add in descending order
+            int index = 0;
+            while(index < potentialAllocTotals.size())
+            {
+                if(allocTotal > potentialAllocTotals.get(index))
+                    break;
 
-                SIG_LOGGER.debug(String.format("sample(%d) added to single bg(%d) fit(%s of %s, sc=%.2f) allocatedPerc(+%.3f -> %.3f) noise(%s %.3f/%.3f)",
-                        sample.Id, bucketGroup.getId(), sizeToStr(actualAlloc), sizeToStr(sampleCount), bucketGroup.calcSampleFitScore(sample, true), sample.lastAllocPercChange(),
-                        sample.getAllocPercent(), sizeToStr(sample.getAllocNoise()), sample.getNoisePerc(), sample.getNoiseOfTotal()));
+                ++index;
             }
 
-            if(mConfig.UseRatioRanges)
-            {
-                // tweak each group in turn to allocate the max possible using ratio ranges
-                for(final BucketGroup bucketGroup : sample.getBucketGroups())
-                {
-                    final double[] ratioRanges = bucketGroup.getRatioRanges();
-                    final double[] bucketRatios = bucketGroup.getBucketRatios();
+            potentialGroupList.add(index, bucketGroup);
+            potentialAllocTotals.add(index, allocTotal);
+            potentialAllocCounts.add(allocCounts);
+        }
 
-                    int samIndex = bucketGroup.getSampleCount() - 1;
+        if(potentialGroupList.isEmpty())
+        {
+            SIG_LOGGER.debug("sample({}) found no potential groups to fit", sample.Id);
+            return groupAllocs;
+        }
 
-                    // the current sample is likely to be the last one added
-                    if(samIndex >= bucketGroup.getSampleIds().size() || bucketGroup.getSampleIds().get(samIndex) != sample.Id)
-                    {
-                        samIndex = bucketGroup.getSampleIndex(sample.Id);
-                    }
+        boolean useNewFit = false;
 
-                    double[] sampleAllocCounts = bucketGroup.getSampleCounts().get(samIndex);
-                    final List<Integer> bucketIds = bucketGroup.getBucketIds();
+        if(potentialGroupList.size() > 1)
+        {
+            useNewFit = fitSampleWithGroups(sigContribOptimiser, sample, potentialGroupList, prevAllocPerc, reqAllocPercent,
+                    true, prevGroupList, groupAllocs);
+            boolean usePrevFit = false;
 
-                    double[] additionalAllocs = SigOptimiser.optimiseSampleFit(sample, bucketGroup.getId(), bucketIds, bucketRatios, ratioRanges, sampleAllocCounts, false);
+            if (!useNewFit)
+            {
+                // revert back to the previous set of groups added through discovery
+                sample.clearAllocations(false);
 
-                    if(additionalAllocs == null) // could do no better
-                        continue;
+                if(prevGroupList.size() >1)
+                {
+                    usePrevFit = fitSampleWithGroups(sigContribOptimiser, sample, prevGroupList, 0, reqAllocPercent,
+                            false, prevGroupList, groupAllocs);
 
-                    sample.allocateBucketCounts(additionalAllocs, 0);
-                    bucketGroup.addSampleCounts(samIndex, additionalAllocs);
+                    if (!usePrevFit)
+                    {
+                        SIG_LOGGER.warn("sample({}) left unallocated", sample.Id);
+                    }
                 }
             }
+        }
 
-            String allocResult = "unch";
+        if(potentialGroupList.size() == 1 || (!useNewFit && prevGroupList.size() == 1))
+        {
+            // allocate the single group, no need to first work out an optimal fit
+            BucketGroup bucketGroup = potentialGroupList.get(0);
+            double[] allocCounts = potentialAllocCounts.get(0);
+            double actualAlloc = sample.allocateBucketCounts(allocCounts, 0);
 
-            if(sample.getAllocPercent() >= prevAllocPerc + 0.01)
-                allocResult = "better";
-            else if(sample.getAllocPercent() <= prevAllocPerc - 0.01)
-                allocResult = "worse";
+            groupAllocs.addSample(bucketGroup, allocCounts);
+            double allocPerc = actualAlloc / sampleCount;
 
-            SIG_LOGGER.debug(String.format("sample(%d) final fit: method(%s) groups(%d prev=%d pot=%d) %s allocation(prev=%.3f new=%.3f, act=%s of %s) noise(%s %.3f/%.3f)",
-                    sample.Id, useNewFit ? "all" : "prev", sample.getBucketGroups().size(), prevGroupCount, potentialGroupList.size(),
-                    allocResult, prevAllocPerc, sample.getAllocPercent(), sizeToStr(sample.getAllocatedCount()), sizeToStr(sampleCount),
-                    sizeToStr(sample.getAllocNoise()), sample.getNoisePerc(), sample.getNoiseOfTotal()));
+            if(!bucketGroup.isBackground())
+                sample.addBucketGroup(bucketGroup, allocPerc);
 
-            if(!sample.getBucketGroups().isEmpty())
-                sampleGroupCounts.add((double)sample.getBucketGroups().size());
+            SIG_LOGGER.debug(String.format("sample(%d) added to single bg(%d) fit(%s of %s, sc=%.2f) allocatedPerc(+%.3f -> %.3f) noise(%s %.3f/%.3f)",
+                    sample.Id, bucketGroup.getId(), sizeToStr(actualAlloc), sizeToStr(sampleCount), groupAllocs.calcSampleFitScore(bucketGroup), sample.lastAllocPercChange(),
+                    sample.getAllocPercent(), sizeToStr(sample.getAllocNoise()), sample.getNoisePerc(), sample.getNoiseOfTotal()));
         }
 
-        SIG_LOGGER.debug(String.format("sig-optim stats: instances(%d) avgIters(%.1f) avgImprovePerc(%.3f)",
-                sigContribOptimiser.getInstances(), sigContribOptimiser.getAvgIterations(), sigContribOptimiser.getAvgImprovePerc()));
-
-        // report range of group counts across the samples
-        if(!sampleGroupCounts.isEmpty())
+        if(mConfig.UseRatioRanges)
         {
-            double[] groupCounts = convertList(sampleGroupCounts);
-            List<Integer> sortedIndicesGCs = getSortedVectorIndices(groupCounts, false);
-
-            if (sortedIndicesGCs.size() > 2)
+            // tweak each group in turn to allocate the max possible using ratio ranges
+            for(final BucketGroup bucketGroup : sample.getBucketGroups())
             {
-                int medianIndex = sortedIndicesGCs.size() / 2;
-                double avg = sumVector(groupCounts) / groupCounts.length;
-                SIG_LOGGER.debug(String.format("sample group count stats: total(%d) max(%.0f) median(%.0f) avg(%.1f)",
-                        groupCounts.length, groupCounts[sortedIndicesGCs.get(0)], groupCounts[sortedIndicesGCs.get(medianIndex)], avg));
+                final double[] ratioRanges = bucketGroup.getRatioRanges();
+                final double[] bucketRatios = bucketGroup.getBucketRatios();
+
+                double[] sampleAllocCounts = groupAllocs.getSampleCounts(bucketGroup);
+                final List<Integer> bucketIds = bucketGroup.getBucketIds();
+
+                double[] additionalAllocs = SigOptimiser.optimiseSampleFit(sample, bucketGroup.getId(), bucketIds, bucketRatios, ratioRanges, sampleAllocCounts, false);
+
+                if(additionalAllocs == null) // could do no better
+                    continue;
+
+                sample.allocateBucketCounts(additionalAllocs, 0);
+                groupAllocs.addSampleCounts(bucketGroup, additionalAllocs);
             }
         }
+
+        String allocResult = "unch";
+
+        if(sample.getAllocPercent() >= prevAllocPerc + 0.01)
+            allocResult = "better";
+        else if(sample.getAllocPercent() <= prevAllocPerc - 0.01)
+            allocResult = "worse";
+
+        SIG_LOGGER.debug(String.format("sample(%d) final fit: method(%s) groups(%d prev=%d pot=%d) %s allocation(prev=%.3f new=%.3f, act=%s of %s) noise(%s %.3f/%.3f)",
+                sample.Id, useNewFit ? "all" : "prev", sample.getBucketGroups().size(), prevGroupCount, potentialGroupList.size(),
+                allocResult, prevAllocPerc, sample.getAllocPercent(), sizeToStr(sample.getAllocatedCount()), sizeToStr(sampleCount),
+                sizeToStr(sample.getAllocNoise()), sample.getNoisePerc(), sample.getNoiseOfTotal()));
+
+        return groupAllocs;
     }
 
     private boolean fitSampleWithGroups(SampleSigContribOptimiser sigContribOptim, SampleData sample, final List<BucketGroup> bucketGroups,
-            double prevAllocPerc, double reqAllocPerc, boolean removeAllocsOnFail, final List<BucketGroup> prevBucketGroups)
+            double prevAllocPerc, double reqAllocPerc, boolean removeAllocsOnFail, final List<BucketGroup> prevBucketGroups,
+            final SampleGroupAllocs groupAllocs)
     {
+        // the sample's group allocations are recorded in groupAllocs, for the caller to apply to the groups
         int groupCount = bucketGroups.size();
         boolean hasBackgroundGroup = false;
         List<BucketGroup> addedGroups = Lists.newArrayList();
@@ -2364,11 +2537,11 @@ public class BucketAnalyser
 
             if (actualAlloc > 0 && allocPerc >= grpReqAllocPerc)
             {
-                bucketGroup.addSample(sample.Id, allocCounts);
+                groupAllocs.addSample(bucketGroup, allocCounts);
                 sample.addBucketGroup(bucketGroup, allocPerc);
 
                 SIG_LOGGER.debug(String.format("sample(%d) added to bg(%d) fit(%s act=%s of %s sc=%.2f) allocatedPerc(+%.3f -> %.3f) noise(%s %.3f/%.3f)",
-                        sample.Id, bucketGroup.getId(), sizeToStr(fitAlloc), sizeToStr(actualAlloc), sizeToStr(sampleCount), bucketGroup.calcSampleFitScore(sample, true),
+                        sample.Id, bucketGroup.getId(), sizeToStr(fitAlloc), sizeToStr(actualAlloc), sizeToStr(sampleCount), groupAllocs.calcSampleFitScore(bucketGroup),
                         sample.lastAllocPercChange(), sample.getAllocPercent(), sizeToStr(sample.getAllocNoise()), sample.getNoisePerc(), sample.getNoiseOfTotal()));
 
                 addedGroups.add(bucketGroup);
@@ -2390,8 +2563,7 @@ public class BucketAnalyser
                 // remove the allocs just made
                 for (BucketGroup bucketGroup : addedGroups)
                 {
-                    int samIndex = bucketGroup.getSampleCount() - 1;
-                    bucketGroup.removeSampleAllocation(sample, samIndex,false);
+                    groupAllocs.removeSample(bucketGroup);
                 }
 
                 return false;
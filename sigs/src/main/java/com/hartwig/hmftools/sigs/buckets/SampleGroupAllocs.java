@@ -0,0 +1,92 @@
+package com.hartwig.hmftools.sigs.buckets;
+
+import static com.hartwig.hmftools.common.utils.VectorUtils.copyVector;
+import static com.hartwig.hmftools.common.utils.VectorUtils.sumVector;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class SampleGroupAllocs
+{
+    // a sample's allocations to bucket groups, recorded while it is being fitted and then applied to the groups afterwards,
+    // so that samples can be fitted concurrently and the shared groups still updated in sample order
+    private final SampleData mSample;
+
+    // the sample's counts in each group it has been added to, as the group would hold them
+    private final Map<BucketGroup,double[]> mGroupCounts;
+    private final Map<BucketGroup,Double> mGroupCountTotals;
+
+    private final List<Runnable> mGroupUpdates;
+
+    public SampleGroupAllocs(final SampleData sample)
+    {
+        mSample = sample;
+        mGroupCounts = Maps.newHashMap();
+        mGroupCountTotals = Maps.newHashMap();
+        mGroupUpdates = Lists.newArrayList();
+    }
+
+    public void addSample(final BucketGroup bucketGroup, final double[] bucketCounts)
+    {
+        // take a copy since the caller may reuse its counts
+        double[] sampleCounts = new double[bucketCounts.length];
+        copyVector(bucketCounts, sampleCounts);
+
+        mGroupUpdates.add(() -> bucketGroup.addSample(mSample.Id, sampleCounts));
+
+        if(mGroupCounts.containsKey(bucketGroup) || bucketGroup.getBucketIds().stream().anyMatch(x -> sampleCounts[x] < 0))
+            return; // the group will not take these counts
+
+        double[] groupCounts = new double[bucketCounts.length];
+        copyVector(bucketCounts, groupCounts);
+        mGroupCounts.put(bucketGroup, groupCounts);
+        mGroupCountTotals.put(bucketGroup, sumVector(bucketCounts));
+    }
+
+    public void addSampleCounts(final BucketGroup bucketGroup, final double[] bucketCounts)
+    {
+        mGroupUpdates.add(() -> bucketGroup.addSampleCounts(bucketGroup.getSampleIndex(mSample.Id), bucketCounts));
+
+        double[] groupCounts = mGroupCounts.get(bucketGroup);
+
+        if(groupCounts == null)
+            return;
+
+        double countsTotal = 0;
+        for(Integer bucketId : bucketGroup.getBucketIds())
+        {
+            groupCounts[bucketId] += bucketCounts[bucketId];
+            countsTotal += bucketCounts[bucketId];
+        }
+
+        mGroupCountTotals.put(bucketGroup, mGroupCountTotals.get(bucketGroup) + countsTotal);
+    }
+
+    public void removeSample(final BucketGroup bucketGroup)
+    {
+        mGroupUpdates.add(() -> bucketGroup.removeSampleAllocation(mSample, -1, false));
+        mGroupCounts.remove(bucketGroup);
+        mGroupCountTotals.remove(bucketGroup);
+    }
+
+    public final double[] getSampleCounts(final BucketGroup bucketGroup) { return mGroupCounts.get(bucketGroup); }
+
+    public double calcSampleFitScore(final BucketGroup bucketGroup)
+    {
+        double[] groupCounts = mGroupCounts.get(bucketGroup);
+
+        if(groupCounts == null)
+            return 0;
+
+        return bucketGroup.calcSampleFitScore(groupCounts, mGroupCountTotals.get(bucketGroup), true);
+    }
+
+    public void applyToGroups()
+    {
+        mGroupUpdates.forEach(Runnable::run);
+        mGroupUpdates.clear();
+    }
+}
@@ -269,6 +269,20 @@ public class SampleSigContribOptimiser
     public int getInstances() { return mInstances; }
     public double getAvgIterations() { return mAvgIterations; }
     public double getAvgImprovePerc() { return mAvgPercImprove; }
+
+    public void mergeStats(final SampleSigContribOptimiser other)
+    {
+        // combine the stats of optimisers used on separate threads
+        int totalInstances = mInstances + other.mInstances;
+
+        if(totalInstances == 0)
+            return;
+
+        mAvgIterations = (mInstances * mAvgIterations + other.mInstances * other.mAvgIterations) / totalInstances;
+        mAvgPercImprove = (mInstances * mAvgPercImprove + other.mInstances * other.mAvgPercImprove) / totalInstances;
+        mInstances = totalInstances;
+    }
+
     public void setTargetSig(int sig) { mTargetSig = sig; }
     public void setRequiredSig(int sig)
     {
@@ -54,10 +54,16 @@ public class NmfCalculator
     private double mNetResiduals;
     private double mLowestCost;
 
+    // for a run calculated without a lowest cost, the range of lowest costs which would have left its path unchanged
+    private double mMaxProjectedCost; // a lower cost would have exited the run early
+    private double mMinExtensionCost; // a higher cost would have extended the run
+    private double mFinalCost; // set if the run's cost was taken as a lowest cost
+
     private Random mRandom;
 
     // internal constants
     private static double MIN_COST_CHANGE_PERCENT = 0.00001;
+    private static double PROJECTED_COST_BUFFER = 1.25;
 
     public NmfCalculator(final Matrix sampleBucketCounts, final NmfConfig config)
     {
@@ -105,6 +111,47 @@ public class NmfCalculator
         mRandom = new Random(123456);
     }
 
+    public NmfCalculator(final NmfCalculator other)
+    {
+        // a calculator to complete a run initialised by the other, sharing its read-only inputs and copying the run's start matrices
+        mConfig = other.mConfig;
+        mRunId = other.mRunId;
+
+        mSigCount = other.mSigCount;
+        mSampleCounts = other.mSampleCounts;
+        mTotalCount = other.mTotalCount;
+
+        mBucketCount = other.mBucketCount;
+        mSampleCount = other.mSampleCount;
+        mBucketTotals = other.mBucketTotals;
+        mSampleTotals = other.mSampleTotals;
+
+        mTotalResiduals = 0;
+        mNetResiduals = 0;
+        mLowestCost = 0;
+
+        // the fit is only allocated once calculated, and the previous matrices are only used for verbose logging
+        mW = new Matrix(other.mW);
+        mH = new Matrix(other.mH);
+        mV = null;
+
+        if(mConfig.LogVerbose)
+        {
+            mPrevW = new Matrix(mBucketCount, mSigCount);
+            mPrevH = new Matrix(mSigCount, mSampleCount);
+            mPrevV = new Matrix(mBucketCount, mSampleCount);
+        }
+
+        mRefSignatures = other.mRefSignatures;
+        mRefContributions = other.mRefContributions;
+        mRandomStartSignatures = other.mRandomStartSignatures;
+        mStartSigs = Lists.newArrayList();
+
+        mIsValid = false;
+
+        mRandom = null; // only used to initialise a run
+    }
+
     public void setSigCount(int sigCount) { mSigCount = sigCount; }
 
     public void setSignatures(final Matrix refSigs)
@@ -131,13 +178,21 @@ public class NmfCalculator
     public boolean isValid() { return mIsValid; }
 
     public void performRun(final int runId)
+    {
+        if(!initialiseRun(runId))
+            return;
+
+        calculate();
+    }
+
+    public boolean initialiseRun(final int runId)
     {
         mRunId = runId;
         mIsValid = false;
         mTotalResiduals = 0;
 
         if(mSigCount <= 0)
-            return;
+            return false;
 
 //        LOGGER.debug("initialised with samples({}) buckets({}) sigCount({}) totalCount({})",
 //                mSampleCount, mBucketCount, mSigCount, mTotalCount);
@@ -156,10 +211,31 @@ public class NmfCalculator
 
         mPrevW = new Matrix(mBucketCount, mSigCount);
         mPrevH = new Matrix(mSigCount, mSampleCount);
+        return true;
+    }
 
+    public void completeRun(double lowestCost)
+    {
+        // calculate a run copied from an initialised one, as if the given lowest cost had come from the preceding runs
+        mLowestCost = lowestCost;
         calculate();
     }
 
+    public boolean hasSameRunPath(double lowestCost)
+    {
+        // whether a run calculated without a lowest cost would have exited and extended the same way with this one
+        return lowestCost == 0 || (mMaxProjectedCost <= lowestCost * PROJECTED_COST_BUFFER && lowestCost <= mMinExtensionCost);
+    }
+
+    public double lowestCostAfterRun(double priorLowestCost)
+    {
+        // the lowest cost as the run would have left it, had it started from the prior lowest cost
+        if(mFinalCost < 0)
+            return priorLowestCost;
+
+        return priorLowestCost == 0 ? mFinalCost : min(priorLowestCost, mFinalCost);
+    }
+
     private void initSignatures()
     {
         // to stick with convention, the signatures matrix is comprised of values between 0 - 1, with a sig's bucket ratios adding to 1
@@ -340,7 +416,11 @@ public class NmfCalculator
         int iterCheckInterval = 10; // how often to check, rather than every time
         int maxIterations = mConfig.MaxIterations;
         int permittedExtensions = 3;
-        double projectCostExit = mLowestCost * 1.25; // build a buffer in for uncertainty
+        double projectCostExit = mLowestCost * PROJECTED_COST_BUFFER; // build a buffer in for uncertainty
+
+        mMaxProjectedCost = 0;
+        mMinExtensionCost = Double.MAX_VALUE;
+        mFinalCost = -1;
 
         for(; i < maxIterations; i++)
         {
@@ -403,8 +483,9 @@ public class NmfCalculator
                     break;
                 }
 
-                // also check the rate of change to project whether it is likely to reach the current lowest cost level
-                if(i > 10 && mLowestCost > 0)
+                // also check the rate of change to project whether it is likely to reach the current lowest cost level,
+                // recording the projection even without a lowest cost so the run can be compared with one later
+                if(i > 10)
                 {
                     double changeRate = (prevCostChange - costChange) / prevCostChange;
                     int remainingIts = mConfig.MaxIterations - i;
@@ -422,7 +503,13 @@ public class NmfCalculator
                         targetCostReduced = currentCost * Math.pow(1 + costChange, minChangeIts);
                     }
 
-                    if (targetCostReduced > projectCostExit || targetCostLinear > projectCostExit)
+                    if(!Double.isNaN(targetCostReduced))
+                        mMaxProjectedCost = max(mMaxProjectedCost, targetCostReduced);
+
+                    if(!Double.isNaN(targetCostLinear))
+                        mMaxProjectedCost = max(mMaxProjectedCost, targetCostLinear);
+
+                    if (mLowestCost > 0 && (targetCostReduced > projectCostExit || targetCostLinear > projectCostExit))
                     {
                         LOGGER.debug(String.format(
                                 "run=%d, it=%d: costChange(%.6f percVsLast=%.4f) to small for cost(%.0f vs low=%.0f) projected(lin=%.0f red=%.0f), exiting fit",
@@ -446,6 +533,8 @@ public class NmfCalculator
 
             if(i == maxIterations - 1)
             {
+                mMinExtensionCost = min(mMinExtensionCost, currentCost);
+
                 // prior to exiting, check if worth continuing on if the current run is already the best fit
                 if(mLowestCost > 0 && currentCost < mLowestCost && permittedExtensions > 0)
                 {
@@ -475,6 +564,7 @@ public class NmfCalculator
 
         calcResiduals();
 
+        mFinalCost = currentCost;
         mLowestCost = mLowestCost == 0 ? currentCost : min(mLowestCost, currentCost);
 
         LOGGER.info(String.format("run=%d, it=%d: residuals(%.0f) vs total(%.0f) as percent(%.5f) cost(init=%.0f early=%.0f end=%.0f lastChg=%.5f)",
@@ -484,6 +574,9 @@ public class NmfCalculator
 
     public void produceFit()
     {
+        if(mV == null)
+            mV = new Matrix(mBucketCount, mSampleCount);
+
         MatrixUtils.multiply(mW, mH, mV, true); // ensure fit is the latest
     }
 
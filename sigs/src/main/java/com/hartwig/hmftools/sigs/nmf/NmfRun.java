@@ -4,6 +4,7 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.sqrt;
 
+import static com.hartwig.hmftools.common.utils.TaskExecutor.executeTasks;
 import static com.hartwig.hmftools.sigs.common.CssRoutines.CSSR_I1;
 import static com.hartwig.hmftools.sigs.common.CssRoutines.CSSR_I2;
 import static com.hartwig.hmftools.sigs.common.CssRoutines.CSSR_VAL;
@@ -11,6 +12,7 @@ import static com.hartwig.hmftools.sigs.common.CssRoutines.getTopCssPairs;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
@@ -89,22 +91,37 @@ public class NmfRun {
 
         PerformanceCounter runPC = new PerformanceCounter("NMF Runs");
 
+        // Brunet updates divide the shared sample counts in place, so each run depends on those before it and they stay serial
+        List<NmfCalculator> runCalculators = mConfig.Threads > 1 && mConfig.Model != NmfConfig.NmfModelMethod.BRUNET
+                ? calculateRunsConcurrently(runPC) : null;
+
+        if(!mValid)
+        {
+            mPerfCounter.stop();
+            return false;
+        }
+
         boolean hasValidRun = false;
 
         for (int i = 0; i < mConfig.RunCount; ++i)
         {
-            runPC.start();
-            mCalculator.performRun(i);
-            runPC.stop();
+            NmfCalculator runCalculator = runCalculators != null ? runCalculators.get(i) : mCalculator;
 
-            if (!mCalculator.isValid()) {
+            if(runCalculators == null)
+            {
+                runPC.start();
+                mCalculator.performRun(i);
+                runPC.stop();
+            }
+
+            if (!runCalculator.isValid()) {
                 LOGGER.warn("exiting on invalid NMF run");
                 mValid = false;
                 break;
             }
 
-            double newRunScore = mCalculator.getTotalResiduals();
-            final Matrix newSigs = mCalculator.getSignatures();
+            double newRunScore = runCalculator.getTotalResiduals();
+            final Matrix newSigs = runCalculator.getSignatures();
 
             if (i == 0 || !hasValidRun)
             {
@@ -112,7 +129,7 @@ public class NmfRun {
 
                 mLowestResidualCount = newRunScore;
                 mBestSignatures = new Matrix(newSigs);
-                mBestContributions = new Matrix(mCalculator.getContributions());
+                mBestContributions = new Matrix(runCalculator.getContributions());
 
                 // mUniqueSignatures.add(new SigMatrix(newSigs));
             }
@@ -126,7 +143,7 @@ public class NmfRun {
 
                     mLowestResidualCount = newRunScore;
                     mBestSignatures.setData(newSigs.getData());
-                    mBestContributions.setData(mCalculator.getContributions().getData());
+                    mBestContributions.setData(runCalculator.getContributions().getData());
                 }
 
                 // store if this new signature is significantly different
@@ -158,6 +175,78 @@ public class NmfRun {
         return mValid;
     }
 
+    private List<NmfCalculator> calculateRunsConcurrently(final PerformanceCounter runPC)
+    {
+        // each run must match the serial runs, which take their start matrices in turn from the calculator's random numbers,
+        // and which may exit early or be extended depending on the lowest cost of the runs before them
+        // so the runs are initialised in order, then calculated concurrently without a lowest cost, and any run whose path
+        // the preceding runs' lowest cost would have changed is calculated again in order
+        List<NmfCalculator> runStarts = Lists.newArrayList();
+
+        for(int i = 0; i < mConfig.RunCount; ++i)
+        {
+            if(!mCalculator.initialiseRun(i))
+            {
+                LOGGER.warn("exiting on invalid NMF run");
+                mValid = false;
+                return null;
+            }
+
+            runStarts.add(new NmfCalculator(mCalculator));
+        }
+
+        List<NmfCalculator> runCalculators = Lists.newArrayList();
+        List<Callable> callableList = Lists.newArrayList();
+
+        for(NmfCalculator runStart : runStarts)
+        {
+            NmfCalculator runCalculator = new NmfCalculator(runStart);
+            runCalculators.add(runCalculator);
+
+            callableList.add(() ->
+            {
+                runCalculator.completeRun(0);
+                return (long)0;
+            });
+        }
+
+        runPC.start();
+        boolean tasksValid = executeTasks(callableList, mConfig.Threads);
+        runPC.stop();
+
+        if(!tasksValid)
+        {
+            mValid = false;
+            return null;
+        }
+
+        double lowestCost = 0; // cleared for each set of runs
+
+        for(int i = 0; i < runCalculators.size(); ++i)
+        {
+            NmfCalculator runCalculator = runCalculators.get(i);
+
+            if(!runCalculator.hasSameRunPath(lowestCost))
+            {
+                LOGGER.debug(String.format("run %d: recalculating with lowest cost(%.0f) from prior runs", i, lowestCost));
+
+                runPC.start();
+                runCalculator = new NmfCalculator(runStarts.get(i));
+                runCalculator.completeRun(lowestCost);
+                runPC.stop();
+
+                runCalculators.set(i, runCalculator);
+            }
+
+            if(!runCalculator.isValid())
+                break;
+
+            lowestCost = runCalculator.lowestCostAfterRun(lowestCost);
+        }
+
+        return runCalculators;
+    }
+
     private void cacheUniqueSignatures(final Matrix newSigs) {
         if (mUniqueSignatures.size() >= 10)
             return;
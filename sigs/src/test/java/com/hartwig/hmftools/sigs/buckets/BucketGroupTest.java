@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.sigs.buckets;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
 
 import org.junit.Test;
 
@@ -52,4 +53,47 @@ public class BucketGroupTest
         assertEquals(20.0, bucketGroup.getBucketCounts()[1]);
     }
 
+    @Test
+    public void testRecordedSampleAllocations()
+    {
+        BucketGroup bucketGroup = new BucketGroup(0);
+        bucketGroup.addBucket(0, true);
+        bucketGroup.addBucket(1, true);
+
+        BucketGroup bucketGroup2 = new BucketGroup(1);
+        bucketGroup2.addBucket(0, true);
+
+        SampleData sample1 = new SampleData(0);
+        double[] counts = {10, 10};
+        sample1.setBucketCounts(counts);
+
+        SampleData sample2 = new SampleData(1);
+        double[] counts2 = {20, 20};
+        sample2.setBucketCounts(counts2);
+
+        // allocations are recorded against the sample but the groups are unchanged until applied
+        SampleGroupAllocs groupAllocs1 = new SampleGroupAllocs(sample1);
+        groupAllocs1.addSample(bucketGroup, counts);
+        groupAllocs1.addSampleCounts(bucketGroup, counts);
+        groupAllocs1.addSample(bucketGroup2, counts);
+        groupAllocs1.removeSample(bucketGroup2);
+
+        SampleGroupAllocs groupAllocs2 = new SampleGroupAllocs(sample2);
+        groupAllocs2.addSample(bucketGroup, counts2);
+
+        assertEquals(0, bucketGroup.getSampleCount());
+        assertEquals(20.0, groupAllocs1.getSampleCounts(bucketGroup)[0]);
+        assertNull(groupAllocs1.getSampleCounts(bucketGroup2));
+
+        groupAllocs1.applyToGroups();
+        groupAllocs2.applyToGroups();
+
+        assertEquals(2, bucketGroup.getSampleCount());
+        assertEquals(0, bucketGroup.getSampleIndex(sample1.Id));
+        assertEquals(1, bucketGroup.getSampleIndex(sample2.Id));
+        assertEquals(40.0, bucketGroup.getSampleCount(sample1.Id));
+        assertEquals(80.0, bucketGroup.getTotalCount());
+        assertEquals(0, bucketGroup2.getSampleCount());
+    }
+
 }
@@ -0,0 +1,106 @@
+package com.hartwig.hmftools.sigs.nmf;
+
+import static com.hartwig.hmftools.common.utils.TaskExecutor.THREADS;
+import static com.hartwig.hmftools.sigs.nmf.NmfConfig.NMF_EXIT_LEVEL;
+import static com.hartwig.hmftools.sigs.nmf.NmfConfig.NMF_MAX_ITERATIONS;
+import static com.hartwig.hmftools.sigs.nmf.NmfConfig.NMF_RUN_COUNT;
+import static com.hartwig.hmftools.sigs.nmf.NmfConfig.NMF_SIG_COUNT;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import com.hartwig.hmftools.common.utils.Matrix;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.junit.Test;
+
+public class NmfRunTest
+{
+    private static final int BUCKET_COUNT = 24;
+    private static final int SAMPLE_COUNT = 40;
+    private static final int SIG_COUNT = 3;
+
+    @Test
+    public void testConcurrentRunsMatchSerial() throws ParseException
+    {
+        // with these iterations, later serial runs both exit early and are extended according to the lowest cost of the runs before them
+        Matrix sampleCounts = createSampleCounts();
+
+        NmfRun serialRun = createRun(sampleCounts, 1);
+        assertTrue(serialRun.run());
+
+        NmfRun concurrentRun = createRun(sampleCounts, 3);
+        assertTrue(concurrentRun.run());
+
+        assertEquals(serialRun.getLowestRunScore(), concurrentRun.getLowestRunScore(), 0);
+        assertMatrixEquals(serialRun.getBestSignatures(), concurrentRun.getBestSignatures());
+        assertMatrixEquals(serialRun.getBestContributions(), concurrentRun.getBestContributions());
+    }
+
+    private static NmfRun createRun(final Matrix sampleCounts, int threads) throws ParseException
+    {
+        Options options = new Options();
+        NmfConfig.addCmdLineArgs(options);
+
+        String[] args = {
+                "-" + NMF_SIG_COUNT, String.valueOf(SIG_COUNT), "-" + NMF_RUN_COUNT, "8",
+                "-" + NMF_MAX_ITERATIONS, "40", "-" + NMF_EXIT_LEVEL, "0.001", "-" + THREADS, String.valueOf(threads) };
+
+        CommandLine cmd = new DefaultParser().parse(options, args);
+        NmfConfig config = new NmfConfig(cmd);
+
+        // each run takes a new calculator since its random numbers continue across runs
+        NmfCalculator calculator = new NmfCalculator(new Matrix(sampleCounts), config);
+        return new NmfRun(config, SIG_COUNT, calculator, null);
+    }
+
+    private static Matrix createSampleCounts()
+    {
+        // samples drawn from a few signatures with noise
+        Random random = new Random(42);
+
+        double[][] sigs = new double[SIG_COUNT][BUCKET_COUNT];
+
+        for(int s = 0; s < SIG_COUNT; ++s)
+        {
+            for(int b = 0; b < BUCKET_COUNT; ++b)
+            {
+                sigs[s][b] = (b % SIG_COUNT == s ? 5 : 0.5) * random.nextDouble();
+            }
+        }
+
+        Matrix sampleCounts = new Matrix(BUCKET_COUNT, SAMPLE_COUNT);
+        double[][] data = sampleCounts.getData();
+
+        for(int n = 0; n < SAMPLE_COUNT; ++n)
+        {
+            for(int s = 0; s < SIG_COUNT; ++s)
+            {
+                double contribution = 100 * random.nextDouble();
+
+                for(int b = 0; b < BUCKET_COUNT; ++b)
+                {
+                    data[b][n] += Math.round(contribution * sigs[s][b] * (0.8 + 0.4 * random.nextDouble()));
+                }
+            }
+        }
+
+        return sampleCounts;
+    }
+
+    private static void assertMatrixEquals(final Matrix expected, final Matrix actual)
+    {
+        assertEquals(expected.Rows, actual.Rows);
+
+        for(int i = 0; i < expected.Rows; ++i)
+        {
+            assertArrayEquals(expected.getData()[i], actual.getData()[i], 0);
+        }
+    }
+}
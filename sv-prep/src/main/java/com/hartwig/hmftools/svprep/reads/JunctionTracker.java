@@ -40,6 +40,7 @@ import static htsjdk.samtools.CigarOperator.M;
 import static htsjdk.samtools.CigarOperator.S;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,7 +74,7 @@ public class JunctionTracker
     private final List<ReadGroup> mRemoteCandidateReadGroups; // reads with their mate(s) in another partition, but not supporting a junction
     private final List<ReadGroup> mCandidateDiscordantGroups;
 
-    private final List<JunctionData> mJunctions; // ordered by position
+    private final List<JunctionData> mJunctions; // ordered by position, searched by binary search on position
     private int mLastJunctionIndex;
 
     private ReadIdTrimmer mReadIdTrimmer;
@@ -145,6 +146,7 @@ public class JunctionTracker
         mRemoteCandidateReadGroups.clear();
         mCandidateDiscordantGroups.clear();
         mJunctions.clear();
+        mLastJunctionIndex = -1;
     }
 
     public List<JunctionData> junctions() { return mJunctions; }
@@ -225,6 +227,7 @@ public class JunctionTracker
     public void addExistingJunctions(final List<JunctionData> existingJunctions)
     {
         mJunctions.addAll(existingJunctions);
+        mJunctions.sort(Comparator.comparingInt(x -> x.Position));
     }
     public void setExpectedReads(final Set<String> expectedReads) { mExpectedReadIds.addAll(expectedReads); }
 
@@ -296,7 +299,7 @@ public class JunctionTracker
 
         perfCounterStart(PerfCounters.JunctionSupport);
 
-        // order by first read's start position to assist with efficient junction look-up using the last junction index
+        // order by first read's start position so groups are assigned to junctions in positional order
         Collections.sort(candidateSupportGroups, new ReadGroup.ReadGroupComparator());
 
         Map<JunctionData,ReadType> supportedJunctions = Maps.newHashMap();
@@ -508,10 +511,9 @@ public class JunctionTracker
             return;
 
         // reads with a sufficiently long indel only need to cover a junction with any of their read bases, not the indel itself
-        for(JunctionData junctionData : mJunctions)
+        for(int index = firstJunctionIndex(read.start()); index < mJunctions.size(); ++index)
         {
-            if(read.start() > junctionData.Position)
-                continue;
+            JunctionData junctionData = mJunctions.get(index);
 
             if(junctionData.Position > read.end())
                 break;
@@ -571,23 +573,14 @@ public class JunctionTracker
                 return junctionData;
         }
 
-        int index = 0;
+        int index = firstJunctionIndex(junctionPosition);
 
-        while(index < mJunctions.size())
+        while(index < mJunctions.size() && mJunctions.get(index).Position == junctionPosition)
         {
-            JunctionData junctionData = mJunctions.get(index);
-
-            if(junctionData.Position == junctionPosition)
-            {
-                if(junctionData.Orientation == orientation)
-                {
-                    setLastJunctionIndex(index);
-                    return junctionData;
-                }
-            }
-            else if(junctionData.Position > junctionPosition)
+            if(mJunctions.get(index).Orientation == orientation)
             {
-                break;
+                setLastJunctionIndex(index);
+                return mJunctions.get(index);
             }
 
             ++index;
@@ -601,21 +594,12 @@ public class JunctionTracker
 
     private void addJunction(final JunctionData newJunction)
     {
-        int index = 0;
+        int index = firstJunctionIndex(newJunction.Position);
 
-        while(index < mJunctions.size())
+        while(index < mJunctions.size() && mJunctions.get(index).Position == newJunction.Position)
         {
-            JunctionData junctionData = mJunctions.get(index);
-
-            if(junctionData.Position == newJunction.Position)
-            {
-                if(junctionData.Orientation == newJunction.Orientation)
-                    return;
-            }
-            else if(junctionData.Position > newJunction.Position)
-            {
-                break;
-            }
+            if(mJunctions.get(index).Orientation == newJunction.Orientation)
+                return;
 
             ++index;
         }
@@ -631,46 +615,16 @@ public class JunctionTracker
 
         int maxSupportDistance = mConfig.UnpairedReads ? UNPAIRED_READ_JUNCTION_DISTANCE : mFilterConfig.maxSupportingFragmentDistance();
 
-        // first check the last index since the next read is likely to be close by
-        int closeJunctionIndex = -1;
-
-        if(mLastJunctionIndex >= 0)
-        {
-            JunctionData junctionData = mJunctions.get(mLastJunctionIndex);
-            if(readWithinJunctionRange(read, junctionData, maxSupportDistance))
-                closeJunctionIndex = mLastJunctionIndex;
-        }
-
-        if(closeJunctionIndex == -1)
-            closeJunctionIndex = findJunctionIndex(read, maxSupportDistance);
-
-        if(closeJunctionIndex < 0)
-            return;
-
-        setLastJunctionIndex(closeJunctionIndex);
-        checkReadSupportsJunction(readGroup, read, mJunctions.get(closeJunctionIndex), supportedJunctions);
-
-        // check up and down from this location
-        for(int i = 0; i <= 1; ++i)
+        // test each junction in the window around the read, noting that a long read may leave a gap between its start and end ranges
+        for(int index = firstJunctionIndex(read.start() - maxSupportDistance); index < mJunctions.size(); ++index)
         {
-            boolean searchUp = (i == 0);
-
-            int index = searchUp ? closeJunctionIndex + 1 : closeJunctionIndex - 1;
-
-            while(index >= 0 && index < mJunctions.size())
-            {
-                JunctionData junctionData = mJunctions.get(index);
+            JunctionData junctionData = mJunctions.get(index);
 
-                if(!readWithinJunctionRange(read, junctionData, maxSupportDistance))
-                    break;
+            if(junctionData.Position > read.end() + maxSupportDistance)
+                break;
 
+            if(readWithinJunctionRange(read, junctionData, maxSupportDistance))
                 checkReadSupportsJunction(readGroup, read, junctionData, supportedJunctions);
-
-                if(searchUp)
-                    ++index;
-                else
-                    --index;
-            }
         }
     }
 
@@ -712,67 +666,23 @@ public class JunctionTracker
         mLastJunctionIndex = index;
     }
 
-    private int findJunctionIndex(final ReadRecord read, int maxSupportDistance)
+    private int firstJunctionIndex(int position)
     {
-        if(mJunctions.size() <= 5)
-        {
-            for(int index = 0; index < mJunctions.size(); ++index)
-            {
-                if(readWithinJunctionRange(read, mJunctions.get(index), maxSupportDistance))
-                    return index;
-            }
-
-            return -1;
-        }
-
-        // binary search on junctions if the collection gets too large
-        int currentIndex = mJunctions.size() / 2;
+        // binary search for the first junction at or beyond this position, or the junction count if there is none
         int lowerIndex = 0;
-        int upperIndex = mJunctions.size() - 1;
+        int upperIndex = mJunctions.size();
 
-        int iterations = 0;
-
-        while(true)
+        while(lowerIndex < upperIndex)
         {
-            JunctionData junctionData = mJunctions.get(currentIndex);
-
-            if(readWithinJunctionRange(read, junctionData, maxSupportDistance))
-                return currentIndex;
-
-            if(read.end() < junctionData.Position)
-            {
-                // search lower
-                if(lowerIndex + 1 == currentIndex)
-                    return currentIndex;
+            int midIndex = (lowerIndex + upperIndex) >>> 1;
 
-                upperIndex = currentIndex;
-                currentIndex = (lowerIndex + upperIndex) / 2;
-            }
-            else if(read.start() > junctionData.Position)
-            {
-                // search higher
-                if(currentIndex + 1 == upperIndex)
-                    return currentIndex;
-
-                lowerIndex = currentIndex;
-                currentIndex = (lowerIndex + upperIndex) / 2;
-            }
+            if(mJunctions.get(midIndex).Position < position)
+                lowerIndex = midIndex + 1;
             else
-            {
-                break;
-            }
-
-            ++iterations;
-
-            if(iterations > 1000)
-            {
-                SV_LOGGER.warn("junction index search iterations({}}) junctions({}) index(cur={} low={} high={})",
-                        iterations, mJunctions.size(), currentIndex, lowerIndex, upperIndex);
-                break;
-            }
+                upperIndex = midIndex;
         }
 
-        return -1;
+        return lowerIndex;
     }
 
     private boolean readWithinJunctionRange(final ReadRecord read, final JunctionData junctionData, int maxDistance)
@@ -1022,17 +932,8 @@ public class JunctionTracker
     {
         perfCounterStart(PerfCounters.JunctionFilter);
 
-        // alternatively when processing then also just remove all processed junctions
-        int index = 0;
-        while(index < mJunctions.size())
-        {
-            JunctionData junctionData = mJunctions.get(index);
-
-            if(junctionHasSupport(junctionData))
-                ++index;
-            else
-                mJunctions.remove(index);
-        }
+        // support is evaluated for every junction before any are removed
+        mJunctions.removeIf(x -> !junctionHasSupport(x));
 
         // reset read group junction positions, to remove those for purged junctions
         mReadGroupMap.values().forEach(x -> x.clearJunctionPositions());
@@ -1054,11 +955,15 @@ public class JunctionTracker
             if(junctionData.isExisting())
                 return true;
 
-            if(mJunctions.stream()
-                    .filter(x -> x.isExisting() && x.Orientation == junctionData.Orientation)
-                    .anyMatch(x -> abs(x.Position - junctionData.Position) <= JUNCTION_DISTANCE_BUFFER))
+            for(int index = firstJunctionIndex(junctionData.Position - JUNCTION_DISTANCE_BUFFER); index < mJunctions.size(); ++index)
             {
-                return true;
+                JunctionData otherJunction = mJunctions.get(index);
+
+                if(otherJunction.Position > junctionData.Position + JUNCTION_DISTANCE_BUFFER)
+                    break;
+
+                if(otherJunction.isExisting() && otherJunction.Orientation == junctionData.Orientation)
+                    return true;
             }
 
             return false;
@@ -148,6 +148,39 @@ public class JunctionsTest
         assertEquals(5, junctionData.supportingFragmentCount());
     }
 
+    @Test
+    public void testDenseJunctions()
+    {
+        int readId = 0;
+
+        // junction reads arrive in descending order so each new junction is inserted ahead of the existing ones
+        for(int position = 4000; position >= 200; position -= 200)
+        {
+            ReadRecord read = ReadRecord.from(createSamRecord(
+                    readIdStr(++readId), CHR_1, position, REF_BASES.substring(0, 100), "30S70M"));
+
+            addRead(read, JUNCTION);
+        }
+
+        ReadRecord suppRead = ReadRecord.from(createSamRecord(
+                readIdStr(++readId), CHR_1, 3000, REF_BASES.substring(27, 100), "3S70M"));
+
+        addRead(suppRead, CANDIDATE_SUPPORT);
+
+        mJunctionTracker.assignJunctionFragmentsAndSupport();
+
+        List<JunctionData> junctions = mJunctionTracker.junctions();
+        assertEquals(20, junctions.size());
+
+        for(int i = 0; i < junctions.size(); ++i)
+        {
+            JunctionData junctionData = junctions.get(i);
+            assertEquals(200 * (i + 1), junctionData.Position);
+            assertEquals(1, junctionData.junctionFragmentCount());
+            assertEquals(junctionData.Position == 3000 ? 1 : 0, junctionData.exactSupportFragmentCount());
+        }
+    }
+
     @Test
     public void testInternalDeletes()
     {